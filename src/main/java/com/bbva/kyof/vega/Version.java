@@ -8,7 +8,7 @@ public final class Version
     /** Mayor library version of current code */
     private static final byte LOCAL_MAYOR = 3;
     /** Minor library version of current code */
-    private static final byte LOCAL_MINOR = 0;
+    private static final byte LOCAL_MINOR = 1;
     /** Patch library version of current code */
     private static final byte LOCAL_PATCH = 0;
 
@@ -91,6 +91,28 @@ public final class Version
         return getMayorFromIntRepresentation(version1) == LOCAL_MAYOR;
     }
 
+    /**
+     * Return true if the given version is equal or newer than the minimum version
+     *
+     * @param version given version to test
+     * @param minVersion the minimum version
+     * @return true if the given version is equal or newer than the minimum version
+     */
+    public static boolean isAtLeast(final int version, final int minVersion)
+    {
+        if (getMayorFromIntRepresentation(version) != getMayorFromIntRepresentation(minVersion))
+        {
+            return getMayorFromIntRepresentation(version) > getMayorFromIntRepresentation(minVersion);
+        }
+
+        if (getMinorFromIntRepresentation(version) != getMinorFromIntRepresentation(minVersion))
+        {
+            return getMinorFromIntRepresentation(version) > getMinorFromIntRepresentation(minVersion);
+        }
+
+        return getPatchFromIntRepresentation(version) >= getPatchFromIntRepresentation(minVersion);
+    }
+
     /**
      * Convert the version int format to String representation
      *
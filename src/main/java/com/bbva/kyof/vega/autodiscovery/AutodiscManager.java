@@ -19,6 +19,7 @@ import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscTopicSubListener;
 import com.bbva.kyof.vega.config.general.AutoDiscoType;
 import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
 import io.aeron.Aeron;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -81,7 +82,17 @@ public class AutodiscManager extends RecurrentTask implements IAutodiscManager,
     @Override
     public void start()
     {
-        super.start("AutodiscoveryManager_" + this.instanceId);
+        this.start(TasksRunner.dedicated());
+    }
+
+    /**
+     * Start the manager with the given runner of the background tasks of the instance
+     *
+     * @param tasksRunner runner of the background tasks
+     */
+    public void start(final TasksRunner tasksRunner)
+    {
+        tasksRunner.start(this, "AutodiscoveryManager_" + this.instanceId);
     }
 
     @Override
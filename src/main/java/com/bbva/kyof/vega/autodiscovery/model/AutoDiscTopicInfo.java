@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.autodiscovery.model;
 
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import lombok.*;
 
@@ -34,6 +35,9 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo
     /** Security ID of the topic if security is activated, 0 if security is not active */
     @Getter private int securityId;
 
+    /** Library version of the instance that sent the info, it is not serialized but taken from the header of the received message */
+    @Getter @Setter private int version = Version.LOCAL_VERSION;
+
 
     /**
      * Create a new auto discovery topic info message with no security
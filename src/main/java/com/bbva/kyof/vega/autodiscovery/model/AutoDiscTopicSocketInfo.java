@@ -25,8 +25,14 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
     /**Constant for hostname when the topic is not going to notify (icp or multicast) */
     public static final String NO_HOSTNAME = "";
 
+    /** Constant for header alias when the topic publisher don't send compact headers */
+    public static final int NO_HEADER_ALIAS = -1;
+
+    /** Constant for session id when the topic publisher don't send compact headers */
+    public static final int NO_SESSION_ID = 0;
+
     /** Number of internal fields of type Integer */
-    private static final int NUM_INT_FIELDS = 4;
+    private static final int NUM_INT_FIELDS = 6;
 
     /** Number of internal fields of type UUID */
     private static final int NUM_UUID_FIELDS = 3;
@@ -66,6 +72,12 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
     /** Security ID of the topic if security is activated, 0 if security is not active */
     @Getter private int securityId;
 
+    /** Aeron session id of the publisher socket, only valid if there is a header alias */
+    @Getter private int sessionId;
+
+    /** Alias of the topic publisher in the compact headers sent on the publisher socket session, -1 if compact headers are not used */
+    @Getter private int headerAlias;
+
     /**
      * Create a new autodiscovery topic socket info instance with no security
      *
@@ -116,6 +128,38 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
                                    final int streamId,
                                    final String hostname,
                                    final int securityId)
+    {
+        this(instanceId, transportType, uniqueId, topicName, topicId, ipAddress, port, streamId, hostname, securityId, NO_SESSION_ID, NO_HEADER_ALIAS);
+    }
+
+    /**
+     * Create a new autodiscovery topic socket info instance of a topic publisher that sends compact headers
+     *
+     * @param instanceId the instance id the topic socket belongs to
+     * @param transportType transport type for the topic-socket
+     * @param uniqueId the unique id for the topic socket information
+     * @param topicName the name of the topic
+     * @param topicId the unique id of the topic
+     * @param ipAddress the ip address in integer representation
+     * @param port the port number
+     * @param streamId the stream id for the aeron connection
+     * @param hostname the hostname for the aeron connection
+     * @param securityId the topic security id, 0 if no secured
+     * @param sessionId the aeron session id of the publisher socket
+     * @param headerAlias the alias of the topic publisher in the compact headers, -1 if not used
+     */
+    public AutoDiscTopicSocketInfo(final UUID instanceId,
+                                   final AutoDiscTransportType transportType,
+                                   final UUID uniqueId,
+                                   final String topicName,
+                                   final UUID topicId,
+                                   final int ipAddress,
+                                   final int port,
+                                   final int streamId,
+                                   final String hostname,
+                                   final int securityId,
+                                   final int sessionId,
+                                   final int headerAlias)
     {
         this.instanceId = instanceId;
         this.transportType = transportType;
@@ -127,6 +171,8 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
         this.streamId = streamId;
         this.hostname = hostname;
         this.securityId = securityId;
+        this.sessionId = sessionId;
+        this.headerAlias = headerAlias;
     }
 
     /**
@@ -138,6 +184,15 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
         return this.securityId != NO_SECURED_CONSTANT;
     }
 
+    /**
+     * Return true if the topic publisher sends compact headers identified by the header alias
+     * @return true if there is a header alias
+     */
+    public boolean hasHeaderAlias()
+    {
+        return this.headerAlias != NO_HEADER_ALIAS;
+    }
+
     @Override
     public void fromBinary(final UnsafeBufferSerializer buffer)
     {
@@ -151,6 +206,18 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
         this.streamId = buffer.readInt();
         this.securityId = buffer.readInt();
         this.hostname = buffer.readString();
+
+        // The session and header alias are not sent by library versions previous to 3.1.0
+        if (buffer.getMsgLength() - buffer.getOffset() >= UnsafeBufferSerializer.INT_SIZE * 2)
+        {
+            this.sessionId = buffer.readInt();
+            this.headerAlias = buffer.readInt();
+        }
+        else
+        {
+            this.sessionId = NO_SESSION_ID;
+            this.headerAlias = NO_HEADER_ALIAS;
+        }
     }
 
     @Override
@@ -166,6 +233,8 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
         buffer.writeInt(this.streamId);
         buffer.writeInt(this.securityId);
         buffer.writeString(this.hostname);
+        buffer.writeInt(this.sessionId);
+        buffer.writeInt(this.headerAlias);
     }
 
     @Override
@@ -214,6 +283,18 @@ public class AutoDiscTopicSocketInfo implements IAutoDiscTopicInfo
                 ", securityId=" + securityId +
                 ", instanceId=" + instanceId +
                 ", hostname='" + hostname + '\'' +
+                ", sessionId=" + sessionId +
+                ", headerAlias=" + headerAlias +
                 '}';
     }
+
+    /** Redefine the builder to force the topic sockets without compact headers by default */
+    public static class AutoDiscTopicSocketInfoBuilder
+    {
+        /** Aeron session id of the publisher socket, only valid if there is a header alias */
+        private int sessionId = NO_SESSION_ID;
+
+        /** Alias of the topic publisher in the compact headers, -1 if compact headers are not used */
+        private int headerAlias = NO_HEADER_ALIAS;
+    }
 }
@@ -440,8 +440,9 @@ public abstract class AbstractAutodiscReceiver implements Closeable
      */
     private void onReceivedTopicInfoMsg()
     {
-        // Deserialize the message
+        // Deserialize the message, the version of the sender is in the header
         this.topicInfo.fromBinary(this.bufferSerializer);
+        this.topicInfo.setVersion(this.reusableBaseHeader.getVersion());
 
         if (log.isTraceEnabled())
         {
@@ -0,0 +1,40 @@
+package com.bbva.kyof.vega.config.general;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+/** Represents the behaviour of a topic publisher when the transport is back pressured */
+@XmlType(name = "BackPressurePolicyType")
+@XmlEnum
+public enum BackPressurePolicyType
+{
+    /** Return the back pressured result to the application immediately */
+    FAIL_FAST,
+    /** Busy spin retrying the send up to the configured max retries */
+    SPIN_RETRY,
+    /** Retry the send up to the configured max retries using a back off idle strategy between attempts */
+    IDLE_RETRY,
+    /** Retry the send using a back off idle strategy between attempts until the configured timeout expires */
+    BLOCK_UNTIL_TIMEOUT,
+    /** Keep only the last back pressured message and send it before the next message of the topic, dropping the oldest one */
+    DROP_OLDEST_CONFLATED,
+    /** Keep only the last back pressured message of each key and send them when the transport is no longer back pressured */
+    CONFLATED_BY_KEY;
+
+    /** @return the value of the back pressure policy type */
+    public String value()
+    {
+        return name();
+    }
+
+    /**
+     * Get a back pressure policy type from a given value
+     *
+     * @param value of the back pressure policy type
+     * @return the back pressure policy type
+     */
+    public static BackPressurePolicyType fromValue(final String value)
+    {
+        return valueOf(value);
+    }
+}
@@ -29,6 +29,9 @@ public class ControlRcvConfig implements IConfiguration
     /** Default max streams per port */
     static final int DEFAULT_NUM_STREAMS = 10;
 
+    /** Default number of threads that sign the security responses, they are signed by the control messages poller thread */
+    static final int DEFAULT_SECURITY_RESP_THREADS = 0;
+
     /** (Optional) Minimum value of port range for responses socket */
     @XmlElement(name = "min_port")
     @Getter private Integer minPort;
@@ -58,6 +61,11 @@ public class ControlRcvConfig implements IConfiguration
     @XmlElement(name = "resolve_unicast_hostname")
     @Getter private Boolean isResolveHostname;
 
+    /** (Optional) Number of threads that sign and send the responses to the security requests. If 0 they are signed by the
+     * control messages poller thread */
+    @XmlElement(name = "security_resp_threads")
+    @Getter private Integer securityRespThreads;
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -65,6 +73,7 @@ public class ControlRcvConfig implements IConfiguration
         this.checkNumStreams();
         this.checkSubnet();
         this.checkHostname();
+        this.checkSecurityRespThreads();
     }
 
     /** Check the ports */
@@ -95,6 +104,20 @@ public class ControlRcvConfig implements IConfiguration
         }
     }
 
+    /** Check the number of threads that sign the security responses */
+    private void checkSecurityRespThreads() throws VegaException
+    {
+        if (this.securityRespThreads == null)
+        {
+            this.securityRespThreads = DEFAULT_SECURITY_RESP_THREADS;
+        }
+
+        if (this.securityRespThreads < 0)
+        {
+            throw new VegaException("The security_resp_threads on ControlRcvConfig cannot be negative");
+        }
+    }
+
     /** Check the subnet */
     private void checkSubnet() throws VegaException
     {
@@ -39,6 +39,10 @@ public class GlobalConfiguration implements IConfiguration
     @XmlElement(name = "external_driver_directory")
     @Getter private String externalDriverDir;
 
+    /** (Optional) Threading configuration of the background tasks, by default each task has its own thread */
+    @XmlElement(name = "threading_config")
+    @Getter private ThreadingConfig threadingConfig;
+
     /** Stores all receive poller configurations */
     @XmlElement(name = "rcv_poller_config", required = true)
     private List<RcvPollerConfig> rcvPollerConfig;
@@ -95,6 +99,7 @@ public class GlobalConfiguration implements IConfiguration
     public void completeAndValidateConfig() throws VegaException
     {
         this.checkMediaDriverConfig();
+        this.checkThreadingConfig();
         this.checkRcvPollerConfig();
         this.checkAutodiscConfig();
         this.checkControlRcvConfig();
@@ -212,6 +217,20 @@ public class GlobalConfiguration implements IConfiguration
         this.controlRcvConfig.completeAndValidateConfig();
     }
 
+    /**
+     * Check and validate the threading configuration, create it with the default values if not settled
+     * @throws VegaException exception thrown if there is a problem in the configuration
+     */
+    private void checkThreadingConfig() throws VegaException
+    {
+        if (this.threadingConfig == null)
+        {
+            this.threadingConfig = new ThreadingConfig();
+        }
+
+        this.threadingConfig.completeAndValidateConfig();
+    }
+
     /**
      * Check and validate the configuration for responses
      * @throws VegaException exception thrown if there is a problem in the configuration
@@ -0,0 +1,32 @@
+package com.bbva.kyof.vega.config.general;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+/** Represents who runs the polls of a receiver poller */
+@XmlType(name = "PollingModeType")
+@XmlEnum
+public enum PollingModeType
+{
+    /** The poller has its own threads that poll continuously */
+    THREAD,
+    /** The poller has no threads, the application polls it from its own thread */
+    APPLICATION;
+
+    /** @return the value of the polling mode type */
+    public String value()
+    {
+        return name();
+    }
+
+    /**
+     * Get a polling mode type from a given value
+     *
+     * @param value of the polling mode type
+     * @return the polling mode type
+     */
+    public static PollingModeType fromValue(final String value)
+    {
+        return valueOf(value);
+    }
+}
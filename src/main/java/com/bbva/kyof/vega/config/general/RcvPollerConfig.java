@@ -26,6 +26,15 @@ public class RcvPollerConfig implements IConfiguration
     /** Default value for maximum number of fragments per poll */
     static final int DEFAULT_MAX_FRAGMENTS_POLL = 1;
 
+    /** Default value for the number of decryption threads, the secured messages are decrypted by the poller thread */
+    static final int DEFAULT_DECRYPTION_THREADS = 0;
+
+    /** Default value for the number of poller threads */
+    static final int DEFAULT_NUM_THREADS = 1;
+
+    /** Default value for the polling mode, the poller has its own threads */
+    static final PollingModeType DEFAULT_POLLING_MODE = PollingModeType.THREAD;
+
     /** Name of receive poller */
     @XmlAttribute(name = "name", required = true)
     @Getter private String name;
@@ -43,6 +52,21 @@ public class RcvPollerConfig implements IConfiguration
     @XmlElement(name = "idleStrategy_sleep_nanos")
     private Long idleStrategySleepTime;
 
+    /** (Optional) Number of threads that decrypt the messages of the secured topics polled by the poller. If 0 they are
+     * decrypted by the poller thread. The messages of the same topic publisher are always decrypted by the same thread */
+    @XmlElement(name = "decryption_threads")
+    @Getter private Integer decryptionThreads;
+
+    /** (Optional) Number of threads of the poller. The Aeron subscribers of the poller are spread across the threads and
+     * rebalanced periodically by the number of polled fragments per second. Each Aeron subscriber is only polled by one thread at a time */
+    @XmlElement(name = "num_threads")
+    @Getter private Integer numThreads;
+
+    /** (Optional) Polling mode. With APPLICATION mode the poller has no threads and it is polled by the application from its own thread,
+     * the idle strategy is not used */
+    @XmlElement(name = "polling_mode")
+    @Getter private PollingModeType pollingMode;
+
     /** Created IdleStrategy for the poller */
     @XmlTransient
     @Getter private IdleStrategy idleStrategy;
@@ -61,28 +85,67 @@ public class RcvPollerConfig implements IConfiguration
         }
 
         // If the strategy is sleep, the sleep time nanos should be provided
-        switch (idleStrategyType)
+        if (idleStrategyType == IdleStrategyType.SLEEP_NANOS && idleStrategySleepTime == null)
         {
-            case BUSY_SPIN:
-                this.idleStrategy = new BusySpinIdleStrategy();
-                break;
-            case BACK_OFF:
-                this.idleStrategy = new BackoffIdleStrategy(1, 1, 1, 1);
-                break;
-            case SLEEP_NANOS:
-                if (idleStrategySleepTime == null)
-                {
-                    throw new VegaException("Sleep time should be provided when sleep nanos idle strategy is used");
-                }
-                this.idleStrategy = new SleepingIdleStrategy(idleStrategySleepTime);
-                break;
-            default:
-                throw new VegaException("Invalid idle strategy value found");
+            throw new VegaException("Sleep time should be provided when sleep nanos idle strategy is used");
         }
 
+        this.idleStrategy = this.createIdleStrategy();
+
         if (maxFragmentsPerPoll == null)
         {
             maxFragmentsPerPoll = DEFAULT_MAX_FRAGMENTS_POLL;
         }
+
+        if (decryptionThreads == null)
+        {
+            decryptionThreads = DEFAULT_DECRYPTION_THREADS;
+        }
+
+        if (decryptionThreads < 0)
+        {
+            throw new VegaException("The decryption_threads on RcvPollerConfig cannot be negative");
+        }
+
+        if (numThreads == null)
+        {
+            numThreads = DEFAULT_NUM_THREADS;
+        }
+
+        if (numThreads < 1)
+        {
+            throw new VegaException("The num_threads on RcvPollerConfig should be at least 1");
+        }
+
+        if (pollingMode == null)
+        {
+            pollingMode = DEFAULT_POLLING_MODE;
+        }
+
+        if (pollingMode == PollingModeType.APPLICATION && numThreads > 1)
+        {
+            throw new VegaException("The num_threads on RcvPollerConfig cannot be bigger than 1 with APPLICATION polling mode");
+        }
+    }
+
+    /**
+     * Create a new idle strategy of the configured type. The idle strategies keep state, each poller thread needs its own instance.
+     * The configuration should have been validated before.
+     *
+     * @return the created idle strategy
+     */
+    public IdleStrategy createIdleStrategy()
+    {
+        switch (idleStrategyType)
+        {
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+            case BACK_OFF:
+                return new BackoffIdleStrategy(1, 1, 1, 1);
+            case SLEEP_NANOS:
+                return new SleepingIdleStrategy(idleStrategySleepTime);
+            default:
+                throw new IllegalStateException("Invalid idle strategy value found");
+        }
     }
 }
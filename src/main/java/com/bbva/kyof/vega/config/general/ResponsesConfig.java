@@ -30,6 +30,9 @@ public class ResponsesConfig implements IConfiguration
     /** Default max streams per port */
     static final int DEFAULT_NUM_STREAMS = 10;
 
+    /** Default tick resolution of the request timeouts in milliseconds */
+    static final int DEFAULT_TIMEOUT_TICK_MILLIS = 1;
+
     /** (Optional) Minimum value of port range for responses socket */
     @XmlElement(name = "min_port")
     @Getter private Integer minPort;
@@ -63,6 +66,10 @@ public class ResponsesConfig implements IConfiguration
     @XmlElement(name = "resolve_unicast_hostname")
     @Getter private Boolean isResolveHostname;
 
+    /** (Optional) Tick resolution in milliseconds of the timing wheel that expires the sent requests, it has to be a power of 2 */
+    @XmlElement(name = "timeout_tick_millis")
+    @Getter private Integer timeoutTickMillis;
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -71,6 +78,7 @@ public class ResponsesConfig implements IConfiguration
         this.checkSubnet();
         this.checkRcvPoller();
         this.checkHostname();
+        this.checkTimeoutTickMillis();
     }
 
     /** Check name of the receiver poller */
@@ -136,4 +144,19 @@ public class ResponsesConfig implements IConfiguration
             this.hostname = this.isResolveHostname ? subnetAddress.getIpAddres().getCanonicalHostName() : ConfigUtils.EMPTY_HOSTNAME;
         }
     }
+
+    /** Check the tick resolution of the request timeouts */
+    private void checkTimeoutTickMillis() throws VegaException
+    {
+        if (this.timeoutTickMillis == null)
+        {
+            this.timeoutTickMillis = DEFAULT_TIMEOUT_TICK_MILLIS;
+        }
+
+        // The timing wheel requires a power of 2
+        if (this.timeoutTickMillis < 1 || Integer.bitCount(this.timeoutTickMillis) != 1)
+        {
+            throw new VegaException("The timeout_tick_millis on responses configuration should be a positive power of 2");
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.config.IConfiguration;
+import com.bbva.kyof.vega.exception.VegaException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+/**
+ * Configuration of the threads that run the background tasks of the instance: auto-discovery, request timeouts, control messages poller,
+ * receiver pollers and publisher senders.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "ThreadingConfig")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreadingConfig implements IConfiguration
+{
+    /** Default threading mode, each task has its own thread */
+    static final ThreadingModeType DEFAULT_THREADING_MODE = ThreadingModeType.DEDICATED;
+
+    /** Default number of shared threads */
+    static final int DEFAULT_SHARED_THREADS = 1;
+
+    /** (Optional) How the background tasks are mapped to threads */
+    @XmlElement(name = "threading_mode")
+    @Getter private ThreadingModeType threadingMode;
+
+    /** (Optional) Number of threads that run the background tasks in SHARED mode, the tasks are assigned to them in round robin */
+    @XmlElement(name = "shared_threads")
+    @Getter private Integer sharedThreads;
+
+    @Override
+    public void completeAndValidateConfig() throws VegaException
+    {
+        if (this.threadingMode == null)
+        {
+            this.threadingMode = DEFAULT_THREADING_MODE;
+        }
+
+        if (this.sharedThreads == null)
+        {
+            this.sharedThreads = DEFAULT_SHARED_THREADS;
+        }
+
+        if (this.sharedThreads < 1)
+        {
+            throw new VegaException("The shared_threads on ThreadingConfig should be at least 1");
+        }
+    }
+}
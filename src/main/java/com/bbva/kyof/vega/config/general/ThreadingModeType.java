@@ -0,0 +1,34 @@
+package com.bbva.kyof.vega.config.general;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+/** Represents how the background tasks of an instance are mapped to threads */
+@XmlType(name = "ThreadingModeType")
+@XmlEnum
+public enum ThreadingModeType
+{
+    /** Each background task has its own thread */
+    DEDICATED,
+    /** The background tasks are spread across a fixed number of shared threads */
+    SHARED,
+    /** The background tasks have no threads, the application invokes them from its own thread */
+    INVOKER;
+
+    /** @return the value of the threading mode type */
+    public String value()
+    {
+        return name();
+    }
+
+    /**
+     * Get a threading mode type from a given value
+     *
+     * @param value of the threading mode type
+     * @return the threading mode type
+     */
+    public static ThreadingModeType fromValue(final String value)
+    {
+        return valueOf(value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bbva.kyof.vega.config.general;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+/** Represents the cipher used to encrypt the messages of the secured topics */
+@XmlType(name = "TopicCipherType")
+@XmlEnum
+public enum TopicCipherType
+{
+    /** AES encryption of each message, compatible with all the versions */
+    AES,
+    /** Authenticated AES-GCM encryption of each message with a nonce derived from its sequence number */
+    AES_GCM;
+
+    /** @return the value of the topic cipher type */
+    public String value()
+    {
+        return name();
+    }
+
+    /**
+     * Get a topic cipher type from a given value
+     *
+     * @param value of the topic cipher type
+     * @return the topic cipher type
+     */
+    public static TopicCipherType fromValue(final String value)
+    {
+        return valueOf(value);
+    }
+}
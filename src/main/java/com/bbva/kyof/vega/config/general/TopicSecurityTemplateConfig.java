@@ -39,6 +39,23 @@ public class TopicSecurityTemplateConfig implements IConfiguration
     @XmlElement(name = "sub_sec_id", required = true)
     @Getter private Set<Integer> subSecIds;
 
+    /** (Optional) Cipher used to encrypt the messages of the topic, AES by default */
+    @XmlElement(name = "cipher_type")
+    @Getter private TopicCipherType cipherType;
+
+    /**
+     * Create a new topic security template with the default cipher
+     *
+     * @param name name of the template
+     * @param controlMsgInterval interval for consecutive control messages
+     * @param pubSecIds security id's that are allowed to publish on the topic
+     * @param subSecIds security id's that are allowed to subscribe to the topic
+     */
+    public TopicSecurityTemplateConfig(final String name, final Long controlMsgInterval, final Set<Integer> pubSecIds, final Set<Integer> subSecIds)
+    {
+        this(name, controlMsgInterval, pubSecIds, subSecIds, null);
+    }
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -61,5 +78,10 @@ public class TopicSecurityTemplateConfig implements IConfiguration
         {
             throw new VegaException("Missing parameter list subscriber security id");
         }
+
+        if (this.cipherType == null)
+        {
+            this.cipherType = TopicCipherType.AES;
+        }
     }
 }
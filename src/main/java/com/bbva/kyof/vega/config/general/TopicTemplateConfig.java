@@ -9,6 +9,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import javax.xml.bind.annotation.*;
+import java.io.File;
 
 /**
  * Represent the configuration of a topic template
@@ -41,6 +42,48 @@ public class TopicTemplateConfig implements IConfiguration
     /** Default Multicast Address High */
     static final String DEFAULT_MULTICAST_HIGH = "225.0.0.20";
 
+    /** Default max retries for the back pressure policies with retries */
+    static final int DEFAULT_BACK_PRESSURE_MAX_RETRIES = 10;
+
+    /** Default size in bytes of the ring buffer for asynchronous send */
+    static final int DEFAULT_ASYNC_RING_BUFFER_SIZE = 1024 * 1024;
+
+    /** Default max size in bytes of a message stored in the retransmission cache */
+    static final int DEFAULT_RETRANSMIT_MAX_MSG_SIZE = 4096;
+
+    /** Default max time in milliseconds a subscriber waits for the retransmission of the lost messages */
+    static final long DEFAULT_RETRANSMIT_TIMEOUT_MILLIS = 100;
+
+    /** Default directory for the journal files of the durable topic publishers */
+    static final String DEFAULT_JOURNAL_DIR = new File(System.getProperty("java.io.tmpdir"), "vega_journal").getPath();
+
+    /** Default size in bytes of each journal segment file */
+    static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** Min size in bytes of each journal segment file */
+    static final int MIN_JOURNAL_SEGMENT_SIZE = 4096;
+
+    /** Default max number of journal segment files kept by each topic publisher */
+    static final int DEFAULT_JOURNAL_MAX_SEGMENTS = 16;
+
+    /** Default max number of live messages held by a subscriber while the replay is in progress */
+    static final int DEFAULT_REPLAY_MAX_HELD_MSGS = 64 * 1024;
+
+    /** Default max time in milliseconds a subscriber waits for the next replayed message */
+    static final long DEFAULT_REPLAY_TIMEOUT_MILLIS = 5000;
+
+    /** Default max size in bytes of a message stored in the last value cache */
+    static final int DEFAULT_LAST_VALUE_MAX_MSG_SIZE = 4096;
+
+    /** Default max time in milliseconds waiting for the last value snapshot */
+    static final long DEFAULT_LAST_VALUE_SNAPSHOT_TIMEOUT_MILLIS = 5000;
+
+    /** Default max number of keys with a pending conflated message for the CONFLATED_BY_KEY back pressure policy */
+    static final int DEFAULT_CONFLATION_MAX_KEYS = 1024;
+
+    /** Default max size in bytes of a pending conflated message for the CONFLATED_BY_KEY back pressure policy */
+    static final int DEFAULT_CONFLATION_MAX_MSG_SIZE = 4096;
+
     /** Name of the topic template */
     @XmlAttribute(name = "name", required = true)
     @Getter private String name;
@@ -90,6 +133,94 @@ public class TopicTemplateConfig implements IConfiguration
     @XmlElement(name = "resolve_unicast_hostname")
     @Getter private Boolean isResolveHostname;
 
+    /** (Optional) True if each topic publisher of the template is always used from a single thread, false by default */
+    @XmlElement(name = "single_writer")
+    @Getter private Boolean singleWriter;
+
+    /** (Optional) True to send unicast topics using a single multi-destination-cast publication, false by default */
+    @XmlElement(name = "multi_destination_cast")
+    @Getter private Boolean multiDestinationCast;
+
+    /** (Optional) True to send the data messages with a compact header that identifies the topic publisher by an alias, false by default */
+    @XmlElement(name = "compact_header")
+    @Getter private Boolean compactHeader;
+
+    /** (Optional) Behaviour of the topic publishers when the transport is back pressured, FAIL_FAST by default */
+    @XmlElement(name = "back_pressure_policy")
+    @Getter private BackPressurePolicyType backPressurePolicy;
+
+    /** (Optional) Max number of retries for the SPIN_RETRY and IDLE_RETRY back pressure policies */
+    @XmlElement(name = "back_pressure_max_retries")
+    @Getter private Integer backPressureMaxRetries;
+
+    /** (Optional) Max time retrying in nanoseconds for the BLOCK_UNTIL_TIMEOUT back pressure policy */
+    @XmlElement(name = "back_pressure_timeout_nanos")
+    @Getter private Long backPressureTimeoutNanos;
+
+    /** (Optional) True to send the messages asynchronously through an off-heap ring buffer drained by a sender thread, false by default */
+    @XmlElement(name = "async_send")
+    @Getter private Boolean asyncSend;
+
+    /** (Optional) Size in bytes of the ring buffer for asynchronous send, it has to be a power of 2 */
+    @XmlElement(name = "async_ring_buffer_size")
+    @Getter private Integer asyncRingBufferSize;
+
+    /** (Optional) Number of messages kept by each topic publisher to retransmit them on request, it has to be a power of 2. 0 by default, disabled */
+    @XmlElement(name = "retransmit_cache_size")
+    @Getter private Integer retransmitCacheSize;
+
+    /** (Optional) Max size in bytes of a message stored in the retransmission cache, bigger messages cannot be retransmitted */
+    @XmlElement(name = "retransmit_max_msg_size")
+    @Getter private Integer retransmitMaxMsgSize;
+
+    /** (Optional) Max time in milliseconds a subscriber holds the new messages waiting for the retransmission of the lost ones */
+    @XmlElement(name = "retransmit_timeout_millis")
+    @Getter private Long retransmitTimeoutMillis;
+
+    /** (Optional) True to store the messages of each topic publisher in a journal to replay them on request. False by default */
+    @XmlElement(name = "durable")
+    @Getter private Boolean durable;
+
+    /** (Optional) Directory for the journal files of the durable topic publishers */
+    @XmlElement(name = "journal_dir")
+    @Getter private String journalDir;
+
+    /** (Optional) Size in bytes of each journal segment file, it has to be a power of 2 */
+    @XmlElement(name = "journal_segment_size")
+    @Getter private Integer journalSegmentSize;
+
+    /** (Optional) Max number of journal segment files kept by each topic publisher, the oldest one is deleted when a new one is created */
+    @XmlElement(name = "journal_max_segments")
+    @Getter private Integer journalMaxSegments;
+
+    /** (Optional) Max number of live messages held by a subscriber while the replay or the last value snapshot is in progress */
+    @XmlElement(name = "replay_max_held_msgs")
+    @Getter private Integer replayMaxHeldMsgs;
+
+    /** (Optional) Max time in milliseconds a subscriber waits for the next replayed message before giving up the replay */
+    @XmlElement(name = "replay_timeout_millis")
+    @Getter private Long replayTimeoutMillis;
+
+    /** (Optional) Max number of keys whose last message is kept by each topic publisher to send it to new subscribers. 0 by default, disabled */
+    @XmlElement(name = "last_value_cache_size")
+    @Getter private Integer lastValueCacheSize;
+
+    /** (Optional) Max size in bytes of a message stored in the last value cache, bigger messages are not cached */
+    @XmlElement(name = "last_value_max_msg_size")
+    @Getter private Integer lastValueMaxMsgSize;
+
+    /** (Optional) Max time in milliseconds a subscriber waits for the last value snapshot and a topic publisher waits for the requester to connect */
+    @XmlElement(name = "last_value_snapshot_timeout_millis")
+    @Getter private Long lastValueSnapshotTimeoutMillis;
+
+    /** (Optional) Max number of keys with a pending conflated message for the CONFLATED_BY_KEY back pressure policy */
+    @XmlElement(name = "conflation_max_keys")
+    @Getter private Integer conflationMaxKeys;
+
+    /** (Optional) Max size in bytes of a pending conflated message for the CONFLATED_BY_KEY back pressure policy */
+    @XmlElement(name = "conflation_max_msg_size")
+    @Getter private Integer conflationMaxMsgSize;
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -113,6 +244,16 @@ public class TopicTemplateConfig implements IConfiguration
             this.checkSubnet();
             this.checkHostname();
         }
+
+        this.checkSingleWriter();
+        this.checkMultiDestinationCast();
+        this.checkCompactHeader();
+        this.checkBackPressurePolicy();
+        this.checkAsyncSend();
+        this.checkRetransmitCache();
+        this.checkDurable();
+        this.checkLastValueCache();
+        this.checkConflationByKey();
     }
 
     /**
@@ -178,6 +319,318 @@ public class TopicTemplateConfig implements IConfiguration
         }
     }
 
+    /**
+     * Check the single writer flag, false by default. It is not supported for unicast since the list of sockets
+     * of the topic publisher changes concurrently with the sends.
+     */
+    private void checkSingleWriter() throws VegaException
+    {
+        if (this.singleWriter == null)
+        {
+            this.singleWriter = Boolean.FALSE;
+        }
+
+        if (this.singleWriter && this.transportType == TransportMediaType.UNICAST)
+        {
+            throw new VegaException("Single writer is not supported for unicast transport in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the multi-destination-cast flag, false by default. It is only supported for unicast since in multicast and
+     * IPC the fan-out is already performed by the transport.
+     */
+    private void checkMultiDestinationCast() throws VegaException
+    {
+        if (this.multiDestinationCast == null)
+        {
+            this.multiDestinationCast = Boolean.FALSE;
+        }
+
+        if (this.multiDestinationCast && this.transportType != TransportMediaType.UNICAST)
+        {
+            throw new VegaException("Multi-destination-cast is only supported for unicast transport in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the compact header flag, false by default. It is not supported for unicast since the unicast subscribers don't
+     * receive the topic socket information of the publishers where the header aliases are advertised.
+     */
+    private void checkCompactHeader() throws VegaException
+    {
+        if (this.compactHeader == null)
+        {
+            this.compactHeader = Boolean.FALSE;
+        }
+
+        if (this.compactHeader && this.transportType == TransportMediaType.UNICAST)
+        {
+            throw new VegaException("Compact header is not supported for unicast transport in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the back pressure policy, FAIL_FAST by default. The timeout is compulsory for the BLOCK_UNTIL_TIMEOUT policy. The
+     * DROP_OLDEST_CONFLATED and CONFLATED_BY_KEY policies are not supported for unicast since a message may be sent to only some of
+     * the subscribers. The DROP_OLDEST_CONFLATED policy is not compatible with single writer since the pending message is also sent
+     * from the sender thread.
+     */
+    private void checkBackPressurePolicy() throws VegaException
+    {
+        if (this.backPressurePolicy == null)
+        {
+            this.backPressurePolicy = BackPressurePolicyType.FAIL_FAST;
+        }
+
+        if (this.backPressureMaxRetries == null)
+        {
+            this.backPressureMaxRetries = DEFAULT_BACK_PRESSURE_MAX_RETRIES;
+        }
+
+        if (this.backPressureMaxRetries < 0)
+        {
+            throw new VegaException("Back pressure max retries cannot be negative in topic template configuration");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT && (this.backPressureTimeoutNanos == null || this.backPressureTimeoutNanos <= 0))
+        {
+            throw new VegaException("A positive back pressure timeout should be provided when the block until timeout back pressure policy is used");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.DROP_OLDEST_CONFLATED && this.transportType == TransportMediaType.UNICAST)
+        {
+            throw new VegaException("Drop oldest conflated back pressure policy is not supported for unicast transport in topic template configuration");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.DROP_OLDEST_CONFLATED && this.singleWriter)
+        {
+            throw new VegaException("Drop oldest conflated back pressure policy is not compatible with single writer in topic template configuration");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.CONFLATED_BY_KEY && this.transportType == TransportMediaType.UNICAST)
+        {
+            throw new VegaException("Conflated by key back pressure policy is not supported for unicast transport in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the asynchronous send flag, false by default, and the size of the ring buffer. It is not compatible with single writer
+     * since the sender thread publishes the messages concurrently with the application thread, nor with the back pressure policies
+     * that retry, the sender thread is shared by all the async topics of the instance and would be blocked by one of them.
+     */
+    private void checkAsyncSend() throws VegaException
+    {
+        if (this.asyncSend == null)
+        {
+            this.asyncSend = Boolean.FALSE;
+        }
+
+        if (this.asyncRingBufferSize == null)
+        {
+            this.asyncRingBufferSize = DEFAULT_ASYNC_RING_BUFFER_SIZE;
+        }
+
+        if (this.asyncRingBufferSize <= 0 || Integer.bitCount(this.asyncRingBufferSize) != 1)
+        {
+            throw new VegaException("The async ring buffer size has to be a power of 2 in topic template configuration");
+        }
+
+        if (this.asyncSend && this.singleWriter)
+        {
+            throw new VegaException("Async send is not compatible with single writer in topic template configuration");
+        }
+
+        if (this.asyncSend && (this.backPressurePolicy == BackPressurePolicyType.SPIN_RETRY ||
+                               this.backPressurePolicy == BackPressurePolicyType.IDLE_RETRY ||
+                               this.backPressurePolicy == BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT))
+        {
+            throw new VegaException("Async send is not compatible with the back pressure policies that retry in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the retransmission cache parameters, the cache is disabled by default. It is not compatible with single writer
+     * since the retransmission sender thread copies the messages from the cache concurrently with the application thread.
+     */
+    private void checkRetransmitCache() throws VegaException
+    {
+        if (this.retransmitCacheSize == null)
+        {
+            this.retransmitCacheSize = 0;
+        }
+
+        if (this.retransmitMaxMsgSize == null)
+        {
+            this.retransmitMaxMsgSize = DEFAULT_RETRANSMIT_MAX_MSG_SIZE;
+        }
+
+        if (this.retransmitTimeoutMillis == null)
+        {
+            this.retransmitTimeoutMillis = DEFAULT_RETRANSMIT_TIMEOUT_MILLIS;
+        }
+
+        if (this.retransmitCacheSize < 0 || (this.retransmitCacheSize > 0 && Integer.bitCount(this.retransmitCacheSize) != 1))
+        {
+            throw new VegaException("The retransmit cache size has to be 0 or a power of 2 in topic template configuration");
+        }
+
+        if (this.retransmitMaxMsgSize <= 0)
+        {
+            throw new VegaException("The retransmit max message size has to be positive in topic template configuration");
+        }
+
+        if (this.retransmitTimeoutMillis <= 0)
+        {
+            throw new VegaException("The retransmit timeout has to be positive in topic template configuration");
+        }
+
+        if (this.retransmitCacheSize > 0 && this.singleWriter)
+        {
+            throw new VegaException("Retransmit cache is not compatible with single writer in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the durable topic parameters, the journal is disabled by default
+     */
+    private void checkDurable() throws VegaException
+    {
+        if (this.durable == null)
+        {
+            this.durable = false;
+        }
+
+        if (this.journalDir == null)
+        {
+            this.journalDir = DEFAULT_JOURNAL_DIR;
+        }
+
+        if (this.journalSegmentSize == null)
+        {
+            this.journalSegmentSize = DEFAULT_JOURNAL_SEGMENT_SIZE;
+        }
+
+        if (this.journalMaxSegments == null)
+        {
+            this.journalMaxSegments = DEFAULT_JOURNAL_MAX_SEGMENTS;
+        }
+
+        if (this.replayMaxHeldMsgs == null)
+        {
+            this.replayMaxHeldMsgs = DEFAULT_REPLAY_MAX_HELD_MSGS;
+        }
+
+        if (this.replayTimeoutMillis == null)
+        {
+            this.replayTimeoutMillis = DEFAULT_REPLAY_TIMEOUT_MILLIS;
+        }
+
+        if (this.journalSegmentSize < MIN_JOURNAL_SEGMENT_SIZE || Integer.bitCount(this.journalSegmentSize) != 1)
+        {
+            throw new VegaException("The journal segment size has to be a power of 2 of at least 4096 bytes in topic template configuration");
+        }
+
+        if (this.journalMaxSegments <= 0)
+        {
+            throw new VegaException("The journal max segments has to be positive in topic template configuration");
+        }
+
+        if (this.replayMaxHeldMsgs <= 0)
+        {
+            throw new VegaException("The replay max held messages has to be positive in topic template configuration");
+        }
+
+        if (this.replayTimeoutMillis <= 0)
+        {
+            throw new VegaException("The replay timeout has to be positive in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the last value cache parameters, the cache is disabled by default. It is not compatible with single writer since the
+     * snapshots are sent from a separate thread, or with async send since the cached messages have to be sent before the next ones.
+     */
+    private void checkLastValueCache() throws VegaException
+    {
+        if (this.lastValueCacheSize == null)
+        {
+            this.lastValueCacheSize = 0;
+        }
+
+        if (this.lastValueMaxMsgSize == null)
+        {
+            this.lastValueMaxMsgSize = DEFAULT_LAST_VALUE_MAX_MSG_SIZE;
+        }
+
+        if (this.lastValueSnapshotTimeoutMillis == null)
+        {
+            this.lastValueSnapshotTimeoutMillis = DEFAULT_LAST_VALUE_SNAPSHOT_TIMEOUT_MILLIS;
+        }
+
+        if (this.lastValueCacheSize < 0)
+        {
+            throw new VegaException("The last value cache size cannot be negative in topic template configuration");
+        }
+
+        if (this.lastValueMaxMsgSize <= 0)
+        {
+            throw new VegaException("The last value max message size has to be positive in topic template configuration");
+        }
+
+        if (this.lastValueSnapshotTimeoutMillis <= 0)
+        {
+            throw new VegaException("The last value snapshot timeout has to be positive in topic template configuration");
+        }
+
+        if (this.lastValueCacheSize > 0 && this.singleWriter)
+        {
+            throw new VegaException("Last value cache is not compatible with single writer in topic template configuration");
+        }
+
+        if (this.lastValueCacheSize > 0 && this.asyncSend)
+        {
+            throw new VegaException("Last value cache is not compatible with async send in topic template configuration");
+        }
+    }
+
+    /**
+     * Check the parameters of the CONFLATED_BY_KEY back pressure policy. It is not compatible with single writer since the pending
+     * messages are also sent from the sender thread, or with async send since the messages are not sent by the application thread.
+     */
+    private void checkConflationByKey() throws VegaException
+    {
+        if (this.conflationMaxKeys == null)
+        {
+            this.conflationMaxKeys = DEFAULT_CONFLATION_MAX_KEYS;
+        }
+
+        if (this.conflationMaxMsgSize == null)
+        {
+            this.conflationMaxMsgSize = DEFAULT_CONFLATION_MAX_MSG_SIZE;
+        }
+
+        if (this.conflationMaxKeys <= 0)
+        {
+            throw new VegaException("The conflation max keys has to be positive in topic template configuration");
+        }
+
+        if (this.conflationMaxMsgSize <= 0)
+        {
+            throw new VegaException("The conflation max message size has to be positive in topic template configuration");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.CONFLATED_BY_KEY && this.singleWriter)
+        {
+            throw new VegaException("Conflated by key back pressure policy is not compatible with single writer in topic template configuration");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicyType.CONFLATED_BY_KEY && this.asyncSend)
+        {
+            throw new VegaException("Conflated by key back pressure policy is not compatible with async send in topic template configuration");
+        }
+    }
+
     /**
      * Check the transport type, it has to be present
      */
@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.config.privkey;
 
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -10,7 +11,7 @@ import lombok.NoArgsConstructor;
 import javax.xml.bind.annotation.*;
 
 /**
- * This class represents a configuration for a private RSA key
+ * This class represents a configuration for a private RSA or elliptic curve key
  */
 @XmlRootElement(name = "private_key")
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -31,6 +32,10 @@ public class PrivateKeyConfig implements IConfiguration
     @XmlAttribute(name = "isKeyEncrypted")
     @Getter private boolean keyEncrypted;
 
+    /** Algorithm of the key, RSA by default */
+    @XmlAttribute(name = "key_algorithm")
+    @Getter private KeyAlgorithmType keyAlgorithm;
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -38,5 +43,10 @@ public class PrivateKeyConfig implements IConfiguration
         {
             throw new VegaException("The key value cannot be null");
         }
+
+        if (this.keyAlgorithm == null)
+        {
+            this.keyAlgorithm = KeyAlgorithmType.RSA;
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.config.pubkey;
 
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -10,7 +11,7 @@ import lombok.NoArgsConstructor;
 import javax.xml.bind.annotation.*;
 
 /**
- * This class represents a configuration for a public RSA key
+ * This class represents a configuration for a public RSA or elliptic curve key
  */
 @XmlRootElement(name = "public_key")
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -28,6 +29,10 @@ public class PublicKeyConfig implements IConfiguration
     @XmlAttribute(name = "app_security_id", required = true)
     @Getter private int appSecurityId;
 
+    /** Algorithm of the key, RSA by default */
+    @XmlAttribute(name = "key_algorithm")
+    @Getter private KeyAlgorithmType keyAlgorithm;
+
     @Override
     public void completeAndValidateConfig() throws VegaException
     {
@@ -35,5 +40,10 @@ public class PublicKeyConfig implements IConfiguration
         {
             throw new VegaException("The key value cannot be null");
         }
+
+        if (this.keyAlgorithm == null)
+        {
+            this.keyAlgorithm = KeyAlgorithmType.RSA;
+        }
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.bbva.kyof.vega.config.privkey.PrivateKeyConfigReader;
 import com.bbva.kyof.vega.config.pubkey.PublicKeyConfig;
 import com.bbva.kyof.vega.config.pubkey.PublicKeyConfigReader;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
 import com.bbva.kyof.vega.util.crypto.RSAKeysHelper;
 import com.bbva.kyof.vega.util.file.FilePathUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -34,7 +35,7 @@ public final class KeyPairGenerator
      */
     public static void main(final String [] args) throws VegaException
     {
-        if (args.length != 3 && args.length != 4)
+        if (args.length < 3 || args.length > 5)
         {
             log.error("Wrong number of arguments");
             printUsage();
@@ -55,14 +56,14 @@ public final class KeyPairGenerator
             // Verify the directory path
             FilePathUtil.verifyDirPath(destDirPath);
 
-            // Generate the key pair
+            // Generate the key pair, the key algorithm is the optional last parameter
             switch (keyType)
             {
                 case PLAIN:
-                    generatePlainKeyPair(appSecurityId, destDirPath);
+                    generatePlainKeyPair(appSecurityId, destDirPath, getKeyAlgorithm(args, 3));
                     break;
                 case ENCRYPTED:
-                    generateEncryptedKeyPair(appSecurityId, destDirPath, args[3]);
+                    generateEncryptedKeyPair(appSecurityId, destDirPath, args[3], getKeyAlgorithm(args, 4));
                     break;
                 case CERTIFICATE:
                     throw new VegaException("Certificate key par generation is not supported");
@@ -78,6 +79,18 @@ public final class KeyPairGenerator
         }
     }
 
+    /**
+     * Get the optional key algorithm parameter
+     *
+     * @param args arguments of the generator
+     * @param index position of the key algorithm in the arguments
+     * @return the key algorithm, RSA if it is not provided
+     */
+    private static KeyAlgorithmType getKeyAlgorithm(final String[] args, final int index)
+    {
+        return args.length > index ? KeyAlgorithmType.valueOf(args[index]) : KeyAlgorithmType.RSA;
+    }
+
     /**
      * Print the usage of the generator
      */
@@ -85,7 +98,8 @@ public final class KeyPairGenerator
     {
         log.info("3 Parameters required: keyType (PLAIN, ENCRYPTED, CERTIFICATE), application security id (long) and destination directory." +
                 " If ENCRYPTED type is used, a forth parameter should be provided with " +
-                "a 32 character HEX string with the private key encryption password if Ej: ENCRYPTED 26548769 /home/keys A456FH4263BC3451A456FH4263BC3451");
+                "a 32 character HEX string with the private key encryption password if Ej: ENCRYPTED 26548769 /home/keys A456FH4263BC3451A456FH4263BC3451." +
+                " An optional last parameter selects the key algorithm (RSA, EC), RSA by default. Ej: PLAIN 26548769 /home/keys EC");
     }
 
     /**
@@ -93,22 +107,23 @@ public final class KeyPairGenerator
      *
      * @param securityId the security id the key pair belongs to
      * @param destDir the destination directory path for the generation
+     * @param keyAlgorithm the algorithm of the keys
      *
      * @throws VegaException if there is any problem
      */
-    private static void generatePlainKeyPair(final int securityId, final String destDir) throws VegaException
+    private static void generatePlainKeyPair(final int securityId, final String destDir, final KeyAlgorithmType keyAlgorithm) throws VegaException
     {
-        log.info("Generating plain key pair for security id [{}] in directory [{}]", securityId, destDir);
+        log.info("Generating plain {} key pair for security id [{}] in directory [{}]", keyAlgorithm, securityId, destDir);
 
         // Generate a key pair
-        final KeyPair keyPair = RSAKeysHelper.generateKeyPair();
+        final KeyPair keyPair = RSAKeysHelper.generateKeyPair(keyAlgorithm);
 
         // Convert the key pair to string
-        final String pubKeyString = RSAKeysHelper.savePublicKey(keyPair.getPublic());
-        final String privKeyString = RSAKeysHelper.savePrivateKey(keyPair.getPrivate());
+        final String pubKeyString = RSAKeysHelper.savePublicKey(keyPair.getPublic(), keyAlgorithm.getStringValue());
+        final String privKeyString = RSAKeysHelper.savePrivateKey(keyPair.getPrivate(), keyAlgorithm.getStringValue());
 
         // Marshall the keys into XML
-        marshallKeyPair(securityId, destDir, pubKeyString, privKeyString, false);
+        marshallKeyPair(securityId, destDir, pubKeyString, privKeyString, false, keyAlgorithm);
     }
 
     /**
@@ -118,23 +133,27 @@ public final class KeyPairGenerator
      * @param securityId the security id the key pair belongs to
      * @param destDir the destination directory path for the generation
      * @param keyPassword a 32 characters Hexadecimal String with the key password
+     * @param keyAlgorithm the algorithm of the keys
      *
      *
      * @throws VegaException if there is any problem
      */
-    private static void generateEncryptedKeyPair(final int securityId, final String destDir, final String keyPassword) throws VegaException
+    private static void generateEncryptedKeyPair(final int securityId,
+                                                 final String destDir,
+                                                 final String keyPassword,
+                                                 final KeyAlgorithmType keyAlgorithm) throws VegaException
     {
-        log.info("Generating encrypted key pair for security id [{}] in directory [{}] and key password [{}]", securityId, destDir, keyPassword);
+        log.info("Generating encrypted {} key pair for security id [{}] in directory [{}] and key password [{}]", keyAlgorithm, securityId, destDir, keyPassword);
 
         // Generate a key pair
-        final KeyPair keyPair = RSAKeysHelper.generateKeyPair();
+        final KeyPair keyPair = RSAKeysHelper.generateKeyPair(keyAlgorithm);
 
         // Convert the key pair to string
-        final String pubKeyString = RSAKeysHelper.savePublicKey(keyPair.getPublic());
-        final String privKeyString = RSAKeysHelper.saveEncryptedPrivateKey(keyPair.getPrivate(), keyPassword);
+        final String pubKeyString = RSAKeysHelper.savePublicKey(keyPair.getPublic(), keyAlgorithm.getStringValue());
+        final String privKeyString = RSAKeysHelper.saveEncryptedPrivateKey(keyPair.getPrivate(), keyPassword, keyAlgorithm.getStringValue());
 
         // Marshall the keys into XML
-        marshallKeyPair(securityId, destDir, pubKeyString, privKeyString, true);
+        marshallKeyPair(securityId, destDir, pubKeyString, privKeyString, true, keyAlgorithm);
     }
 
     /**
@@ -145,20 +164,22 @@ public final class KeyPairGenerator
      * @param pubKeyString the base64 string representing the public key
      * @param privKeyString the base64 string representing the private key
      * @param isEncrypted true if the private key is encrypted
+     * @param keyAlgorithm the algorithm of the keys
      * @throws VegaException exception thrown if there is a problem
      */
     private static void marshallKeyPair(final int securityId,
                                 final String destDir,
                                 final String pubKeyString,
                                 final String privKeyString,
-                                final boolean isEncrypted) throws VegaException
+                                final boolean isEncrypted,
+                                final KeyAlgorithmType keyAlgorithm) throws VegaException
     {
         // Create the classes that represent the 2 files
         final PublicKeyConfig publicKeyConfig = PublicKeyConfig.builder().
-                appSecurityId(securityId).value(pubKeyString).build();
+                appSecurityId(securityId).value(pubKeyString).keyAlgorithm(keyAlgorithm).build();
 
         final PrivateKeyConfig privateKeyConfig = PrivateKeyConfig.builder().
-                appSecurityId(securityId).value(privKeyString).keyEncrypted(isEncrypted).build();
+                appSecurityId(securityId).value(privKeyString).keyEncrypted(isEncrypted).keyAlgorithm(keyAlgorithm).build();
 
         // Marshall into XML both keys
         PrivateKeyConfigReader.marshallPrivKey(privateKeyConfig, destDir);
@@ -23,6 +23,9 @@ import java.util.UUID;
 @ToString(exclude = {"unsignedContent", "signature"})
 public abstract class AbstractMsgSecurity
 {
+    /** Topic publisher id of the batch messages, the topic publishers of a batch are in the additional fields */
+    public static final UUID BATCH_TOPIC_PUB_ID = new UUID(0, 0);
+
     /** Identifier of the application instance ID that created the message */
     @Getter @Setter private UUID instanceId;
 
@@ -18,8 +18,17 @@ import java.util.UUID;
 @NoArgsConstructor
 class BaseRcvMessage
 {
-    /** Unique Id of the library instance that sent the message */
-    @Getter @Setter private UUID instanceId;
+    /** Unique Id of the library instance that sent the message, if received it is only created on demand from the id bits */
+    private UUID instanceId;
+
+    /** Most significant bits of the unique Id of the library instance that sent the message */
+    @Getter private long instanceIdMsb;
+
+    /** Least significant bits of the unique Id of the library instance that sent the message */
+    @Getter private long instanceIdLsb;
+
+    /** True if the instance id has been settled from the bits and the UUID has not been created yet */
+    private boolean instanceIdPending = false;
 
     /** Contents of the message represented as an unsafe buffer */
     @Setter private UnsafeBuffer unsafeBufferContent;
@@ -47,12 +56,58 @@ class BaseRcvMessage
 
         // Fill promoted message fields
         promotedMsg.instanceId = this.instanceId;
+        promotedMsg.instanceIdMsb = this.instanceIdMsb;
+        promotedMsg.instanceIdLsb = this.instanceIdLsb;
+        promotedMsg.instanceIdPending = this.instanceIdPending;
         promotedMsg.topicName = this.topicName;
         promotedMsg.unsafeBufferContent = new UnsafeBuffer(newBuffer);
         promotedMsg.contentLength = newBuffer.capacity();
         promotedMsg.contentOffset = 0;
     }
 
+    /**
+     * Return the unique Id of the library instance that sent the message. In received messages the UUID is created on the first call.
+     *
+     * @return the unique id of the library instance that sent the message
+     */
+    public UUID getInstanceId()
+    {
+        if (this.instanceIdPending)
+        {
+            this.instanceId = new UUID(this.instanceIdMsb, this.instanceIdLsb);
+            this.instanceIdPending = false;
+        }
+
+        return this.instanceId;
+    }
+
+    /**
+     * Set the unique Id of the library instance that sent the message
+     *
+     * @param instanceId the unique id of the library instance that sent the message
+     */
+    public void setInstanceId(final UUID instanceId)
+    {
+        this.instanceId = instanceId;
+        this.instanceIdMsb = instanceId == null ? 0 : instanceId.getMostSignificantBits();
+        this.instanceIdLsb = instanceId == null ? 0 : instanceId.getLeastSignificantBits();
+        this.instanceIdPending = false;
+    }
+
+    /**
+     * Set the unique Id of the library instance that sent the message using the id bits, the UUID is not created until requested
+     *
+     * @param instanceIdMsb most significant bits of the unique id
+     * @param instanceIdLsb least significant bits of the unique id
+     */
+    public void setInstanceId(final long instanceIdMsb, final long instanceIdLsb)
+    {
+        this.instanceId = null;
+        this.instanceIdMsb = instanceIdMsb;
+        this.instanceIdLsb = instanceIdLsb;
+        this.instanceIdPending = true;
+    }
+
     /**
      * Return an UnsafeBuffer with the user contents of the message. This is the most optimal way to deal with the message contents.
      *
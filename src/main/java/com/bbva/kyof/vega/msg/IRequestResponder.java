@@ -20,4 +20,17 @@ public interface IRequestResponder
      * @return the result of the response sent
      */
     PublishResult sendResponse(UUID requestId, DirectBuffer message, int offset, int length);
+
+    /**
+     * Send a response given the bits of the original request id, it avoids creating the UUID of the request id
+     *
+     * @param requestIdMsb most significant bits of the original request id that trigger the response
+     * @param requestIdLsb least significant bits of the original request id that trigger the response
+     * @param message the response message
+     * @param offset Offset for the message start in the buffer
+     * @param length Length of the message starting in the given offset
+     *
+     * @return the result of the response sent
+     */
+    PublishResult sendResponse(long requestIdMsb, long requestIdLsb, DirectBuffer message, int offset, int length);
 }
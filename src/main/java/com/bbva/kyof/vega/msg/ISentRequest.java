@@ -36,4 +36,13 @@ public interface ISentRequest
 
     /** @return the number of responses received for this request */
     int getNumberOfResponses();
+
+    /**
+     * Release the request object to be reused by the library once it is no longer active. It doesn't close the request, the responses
+     * are still notified until it is closed or expires.
+     *
+     * The request should not be accessed after the call, except from the response listener callbacks. Requests that are never released
+     * are not reused and are collected as usual.
+     */
+    void release();
 }
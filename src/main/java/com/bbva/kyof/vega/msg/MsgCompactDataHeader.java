@@ -0,0 +1,56 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.Version;
+import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Represents the compact header of a data message that is sent or received.
+ *
+ * Instead of the instance id and topic publisher id it contains the header alias of the topic publisher. The alias is assigned by the
+ * Aeron publisher the topic publisher sends on and advertised in auto-discovery, it is only unique for the Aeron session of that publisher.
+ *
+ * This class is not thread safe!
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class MsgCompactDataHeader implements IUnsafeSerializable
+{
+    /** First library version that can receive messages with compact header */
+    public static final int MIN_VERSION = Version.toIntegerRepresentation((byte) 3, (byte) 1, (byte) 0);
+
+    /** Binary size of the header once it has been serialized */
+    static final int BINARY_SIZE = UnsafeBufferSerializer.INT_SIZE + UnsafeBufferSerializer.LONG_SIZE;
+
+    /** Header alias of the topic publisher that sent the message */
+    @Getter @Setter private int headerAlias;
+
+    /** Sequence Number of the topic publisher that sent the message */
+    @Getter @Setter private long sequenceNumber;
+
+    @Override
+    public void toBinary(final UnsafeBufferSerializer buffer)
+    {
+        buffer.writeInt(this.headerAlias);
+        buffer.writeLong(this.sequenceNumber);
+    }
+
+    @Override
+    public void fromBinary(final UnsafeBufferSerializer buffer)
+    {
+        this.headerAlias = buffer.readInt();
+        this.sequenceNumber = buffer.readLong();
+    }
+
+    @Override
+    public int serializedSize()
+    {
+        return BINARY_SIZE;
+    }
+}
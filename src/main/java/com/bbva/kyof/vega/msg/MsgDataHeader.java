@@ -12,9 +12,11 @@ import java.util.UUID;
  * Contains additional information over the base header that any library message has. In this case the publisher id of the topic publisher
  * that sent the message is added.
  *
+ * The unique ids are kept as the most and least significant bits to avoid creating UUID objects when the header is read on the receive path,
+ * the UUID is only created when requested.
+ *
  * This class is not thread safe!
  */
-@AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
 public class MsgDataHeader implements IUnsafeSerializable
@@ -22,29 +24,78 @@ public class MsgDataHeader implements IUnsafeSerializable
     /** Binary size of the header once it has been serialized */
     static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 2 + UnsafeBufferSerializer.LONG_SIZE;
 
-    /** Identifier of the application instance ID that created the message */
-    @Getter @Setter private UUID instanceId;
+    /** Most significant bits of the identifier of the application instance ID that created the message */
+    @Getter private long instanceIdMsb;
+
+    /** Least significant bits of the identifier of the application instance ID that created the message */
+    @Getter private long instanceIdLsb;
+
+    /** Most significant bits of the id of the topic publisher that sent the message */
+    @Getter private long topicPublisherIdMsb;
 
-    /** Id of the topic publisher that sent the message */
-    @Getter @Setter private UUID topicPublisherId;
+    /** Least significant bits of the id of the topic publisher that sent the message */
+    @Getter private long topicPublisherIdLsb;
 
     /** Sequence Number of the topic publisher that sent the message */
     @Getter @Setter private long sequenceNumber;
 
+    /**
+     * Constructor with all the arguments
+     * @param instanceId instance id that sent the message
+     * @param topicPublisherId the unique id of the topic publisher that sent the message
+     * @param sequenceNumber the sequence number of the message related to the topic publisher that sent it
+     */
+    public MsgDataHeader(final UUID instanceId, final UUID topicPublisherId, final long sequenceNumber)
+    {
+        this.setInstanceId(instanceId);
+        this.setTopicPublisherId(topicPublisherId);
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /** @return the identifier of the application instance ID that created the message, a new UUID is created on each call */
+    public UUID getInstanceId()
+    {
+        return new UUID(this.instanceIdMsb, this.instanceIdLsb);
+    }
+
+    /** @param instanceId the identifier of the application instance ID that created the message */
+    public void setInstanceId(final UUID instanceId)
+    {
+        this.instanceIdMsb = instanceId.getMostSignificantBits();
+        this.instanceIdLsb = instanceId.getLeastSignificantBits();
+    }
+
+    /** @return the id of the topic publisher that sent the message, a new UUID is created on each call */
+    public UUID getTopicPublisherId()
+    {
+        return new UUID(this.topicPublisherIdMsb, this.topicPublisherIdLsb);
+    }
+
+    /** @param topicPublisherId the id of the topic publisher that sent the message */
+    public void setTopicPublisherId(final UUID topicPublisherId)
+    {
+        this.topicPublisherIdMsb = topicPublisherId.getMostSignificantBits();
+        this.topicPublisherIdLsb = topicPublisherId.getLeastSignificantBits();
+    }
+
     @Override
     public void toBinary(final UnsafeBufferSerializer buffer)
     {
-        buffer.writeUUID(this.instanceId);
-        buffer.writeUUID(this.topicPublisherId);
+        buffer.writeLong(this.instanceIdMsb);
+        buffer.writeLong(this.instanceIdLsb);
+        buffer.writeLong(this.topicPublisherIdMsb);
+        buffer.writeLong(this.topicPublisherIdLsb);
         buffer.writeLong(this.sequenceNumber);
     }
 
     @Override
     public void fromBinary(final UnsafeBufferSerializer buffer)
     {
-        // TopicUniqueId
-        this.instanceId = buffer.readUUID();
-        this.topicPublisherId = buffer.readUUID();
+        // Read the ids as longs, no UUID is created
+        this.instanceIdMsb = buffer.readLong();
+        this.instanceIdLsb = buffer.readLong();
+        this.topicPublisherIdMsb = buffer.readLong();
+        this.topicPublisherIdLsb = buffer.readLong();
         this.sequenceNumber = buffer.readLong();
     }
 
@@ -8,7 +8,8 @@ import java.util.UUID;
 /**
  * Represents of a user data request message header.
  *
- * Contains additional information over the data header by including the unique request id.
+ * Contains additional information over the data header by including the unique request id. The request id is kept as the
+ * most and least significant bits like the rest of ids of the data header.
  *
  * This class is not thread safe!
  */
@@ -19,8 +20,11 @@ public class MsgReqHeader extends MsgDataHeader
     /** Binary size of the header once it has been serialized */
     private static final int REQ_BINARY_SIZE = MsgDataHeader.BINARY_SIZE + UnsafeBufferSerializer.UUID_SIZE;
 
-    /** Request ID of the message */
-    @Getter @Setter private UUID requestId;
+    /** Most significant bits of the request ID of the message */
+    @Getter private long requestIdMsb;
+
+    /** Least significant bits of the request ID of the message */
+    @Getter private long requestIdLsb;
 
     /**
      * Constructor with all the arguments
@@ -32,21 +36,47 @@ public class MsgReqHeader extends MsgDataHeader
     MsgReqHeader(final UUID instanceId, final UUID topicPublisherId, final long sequenceNumber, final UUID requestId)
     {
         super(instanceId, topicPublisherId, sequenceNumber);
-        this.requestId = requestId;
+        this.setRequestId(requestId);
+    }
+
+    /** @return the request ID of the message, a new UUID is created on each call */
+    public UUID getRequestId()
+    {
+        return new UUID(this.requestIdMsb, this.requestIdLsb);
+    }
+
+    /** @param requestId the request ID of the message */
+    public void setRequestId(final UUID requestId)
+    {
+        this.setRequestId(requestId.getMostSignificantBits(), requestId.getLeastSignificantBits());
+    }
+
+    /**
+     * Set the request ID of the message using the id bits
+     *
+     * @param requestIdMsb most significant bits of the request id
+     * @param requestIdLsb least significant bits of the request id
+     */
+    public void setRequestId(final long requestIdMsb, final long requestIdLsb)
+    {
+        this.requestIdMsb = requestIdMsb;
+        this.requestIdLsb = requestIdLsb;
     }
 
     @Override
     public void toBinary(final UnsafeBufferSerializer buffer)
     {
         super.toBinary(buffer);
-        buffer.writeUUID(this.requestId);
+        buffer.writeLong(this.requestIdMsb);
+        buffer.writeLong(this.requestIdLsb);
     }
 
     @Override
     public void fromBinary(final UnsafeBufferSerializer buffer)
     {
         super.fromBinary(buffer);
-        this.requestId = buffer.readUUID();
+        this.requestIdMsb = buffer.readLong();
+        this.requestIdLsb = buffer.readLong();
     }
 
     @Override
@@ -54,4 +84,4 @@ public class MsgReqHeader extends MsgDataHeader
     {
         return REQ_BINARY_SIZE;
     }
-}
\ No newline at end of file
+}
@@ -11,35 +11,95 @@ import java.util.UUID;
  *
  * Contains the request id of the original request the response belongs to.
  *
+ * The unique ids are kept as the most and least significant bits to avoid creating UUID objects when the header is read on the receive path,
+ * the UUID is only created when requested.
+ *
  * This class is not thread safe!
  */
 @NoArgsConstructor
 @EqualsAndHashCode
-@AllArgsConstructor
 public class MsgRespHeader implements IUnsafeSerializable
 {
     /** Binary size of the header once it has been serialized */
     private static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 2;
 
-    /** Identifier of the application instance ID that created the message */
-    @Getter @Setter private UUID instanceId;
+    /** Most significant bits of the identifier of the application instance ID that created the message */
+    @Getter private long instanceIdMsb;
+
+    /** Least significant bits of the identifier of the application instance ID that created the message */
+    @Getter private long instanceIdLsb;
+
+    /** Most significant bits of the original request id of the request that has originated this response */
+    @Getter private long requestIdMsb;
 
-    /** Original request id of the request that has originated this response */
-    @Getter @Setter private UUID requestId;
+    /** Least significant bits of the original request id of the request that has originated this response */
+    @Getter private long requestIdLsb;
+
+    /**
+     * Constructor with all the arguments
+     * @param instanceId instance id that sent the message
+     * @param requestId original request id of the request that has originated this response
+     */
+    public MsgRespHeader(final UUID instanceId, final UUID requestId)
+    {
+        this.setInstanceId(instanceId);
+        this.setRequestId(requestId);
+    }
+
+    /** @return the identifier of the application instance ID that created the message, a new UUID is created on each call */
+    public UUID getInstanceId()
+    {
+        return new UUID(this.instanceIdMsb, this.instanceIdLsb);
+    }
+
+    /** @param instanceId the identifier of the application instance ID that created the message */
+    public void setInstanceId(final UUID instanceId)
+    {
+        this.instanceIdMsb = instanceId.getMostSignificantBits();
+        this.instanceIdLsb = instanceId.getLeastSignificantBits();
+    }
+
+    /** @return the original request id of the request that has originated this response, a new UUID is created on each call */
+    public UUID getRequestId()
+    {
+        return new UUID(this.requestIdMsb, this.requestIdLsb);
+    }
+
+    /** @param requestId the original request id of the request that has originated this response */
+    public void setRequestId(final UUID requestId)
+    {
+        this.setRequestId(requestId.getMostSignificantBits(), requestId.getLeastSignificantBits());
+    }
+
+    /**
+     * Set the original request id of the request that has originated this response using the id bits
+     *
+     * @param requestIdMsb most significant bits of the original request id
+     * @param requestIdLsb least significant bits of the original request id
+     */
+    public void setRequestId(final long requestIdMsb, final long requestIdLsb)
+    {
+        this.requestIdMsb = requestIdMsb;
+        this.requestIdLsb = requestIdLsb;
+    }
 
     @Override
     public void toBinary(final UnsafeBufferSerializer buffer)
     {
-        buffer.writeUUID(this.instanceId);
-        buffer.writeUUID(this.requestId);
+        buffer.writeLong(this.instanceIdMsb);
+        buffer.writeLong(this.instanceIdLsb);
+        buffer.writeLong(this.requestIdMsb);
+        buffer.writeLong(this.requestIdLsb);
     }
 
     @Override
     public void fromBinary(final UnsafeBufferSerializer buffer)
     {
-        // Add the boolean that indicates if there is a request ID field
-        this.instanceId = buffer.readUUID();
-        this.requestId = buffer.readUUID();
+        // Read the ids as longs, no UUID is created
+        this.instanceIdMsb = buffer.readLong();
+        this.instanceIdLsb = buffer.readLong();
+        this.requestIdMsb = buffer.readLong();
+        this.requestIdLsb = buffer.readLong();
     }
 
     @Override
@@ -47,4 +107,4 @@ public class MsgRespHeader implements IUnsafeSerializable
     {
         return BINARY_SIZE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Represents a retransmission request (NAK) sent through the control channel by a subscriber instance that has detected a gap
+ * in the sequence numbers of a topic publisher.
+ *
+ * The topic publisher replays the requested range of messages from its retransmission cache through the response publisher
+ * of the requester instance.
+ *
+ * It is also used to ask the topic publisher of a durable topic for the replay of a range of messages from its journal, and to ask
+ * the topic publisher of a topic with last value cache for the snapshot of the cache. The snapshot requests have no range.
+ *
+ * This class is not thread safe!
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MsgRetransmitReq implements IUnsafeSerializable
+{
+    /** Last sequence number of an open ended replay, the topic publisher replays up to its last sent message and always notifies the end */
+    public static final long OPEN_END = Long.MAX_VALUE;
+
+    /** Request type to retransmit the messages from the retransmission cache */
+    public static final byte RETRANSMIT = 0;
+
+    /** Request type to replay the messages from the journal */
+    public static final byte REPLAY = 1;
+
+    /** Request type to send the snapshot of the last value cache */
+    public static final byte SNAPSHOT = 2;
+
+    /** Binary size of the message once it has been serialized */
+    static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 3 + UnsafeBufferSerializer.LONG_SIZE * 2 + UnsafeBufferSerializer.BYTE_SIZE;
+
+    /** Identifier of the application instance ID that created the request */
+    @Getter @Setter private UUID instanceId;
+
+    /** Id of the vega instance the request is for, the owner of the topic publisher */
+    @Getter @Setter private UUID targetVegaInstanceId;
+
+    /** Id of the topic publisher that should retransmit the messages */
+    @Getter @Setter private UUID topicPublisherId;
+
+    /** Sequence number of the first message to retransmit */
+    @Getter @Setter private long firstSequenceNumber;
+
+    /** Sequence number of the last message to retransmit, inclusive */
+    @Getter @Setter private long lastSequenceNumber;
+
+    /** Type of the request, RETRANSMIT, REPLAY or SNAPSHOT */
+    @Getter @Setter private byte requestType;
+
+    @Override
+    public void fromBinary(final UnsafeBufferSerializer buffer)
+    {
+        this.instanceId = buffer.readUUID();
+        this.targetVegaInstanceId = buffer.readUUID();
+        this.topicPublisherId = buffer.readUUID();
+        this.firstSequenceNumber = buffer.readLong();
+        this.lastSequenceNumber = buffer.readLong();
+        this.requestType = buffer.readByte();
+    }
+
+    @Override
+    public void toBinary(final UnsafeBufferSerializer buffer)
+    {
+        buffer.writeUUID(this.instanceId);
+        buffer.writeUUID(this.targetVegaInstanceId);
+        buffer.writeUUID(this.topicPublisherId);
+        buffer.writeLong(this.firstSequenceNumber);
+        buffer.writeLong(this.lastSequenceNumber);
+        buffer.writeByte(this.requestType);
+    }
+
+    /** @return true if the messages have to be replayed from the journal of the topic publisher */
+    public boolean isReplay()
+    {
+        return this.requestType == REPLAY;
+    }
+
+    /** @return true if the request is for the snapshot of the last value cache of the topic publisher */
+    public boolean isSnapshot()
+    {
+        return this.requestType == SNAPSHOT;
+    }
+
+    @Override
+    public int serializedSize()
+    {
+        return BINARY_SIZE;
+    }
+}
@@ -0,0 +1,66 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents a security request for several topic publishers of the same instance, the request is signed once for all of them.
+ *
+ * The topic publisher id of the message is always {@link #BATCH_TOPIC_PUB_ID}, the requested topic publishers are in the
+ * list of topic publisher ids.
+ *
+ * It also contains methods to sign and serialize to binary, to read from binary and to verify the signature.
+ *
+ * Always create 1 per publisher or subscriber and reuse to prevent excessive memory allocation.
+ *
+ * The class is not thread safe!
+ */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class MsgSecurityBatchReq extends AbstractMsgSecurity
+{
+    /** Max number of topic publishers in a batch request */
+    public static final int MAX_TOPIC_PUBS = 64;
+
+    /** Ids of the topic publishers whose security information is requested */
+    @Getter private final List<UUID> topicPublisherIds = new ArrayList<>();
+
+    /**
+     * Create a new empty batch request
+     */
+    public MsgSecurityBatchReq()
+    {
+        super();
+        this.setTopicPublisherId(BATCH_TOPIC_PUB_ID);
+    }
+
+    @Override
+    protected void readAdditionalFields(final UnsafeBufferSerializer buffer)
+    {
+        this.topicPublisherIds.clear();
+
+        final int numTopicPubs = buffer.readInt();
+
+        for (int i = 0; i < numTopicPubs; i++)
+        {
+            this.topicPublisherIds.add(buffer.readUUID());
+        }
+    }
+
+    @Override
+    protected void writeAdditionalFields(final UnsafeBufferSerializer buffer)
+    {
+        buffer.writeInt(this.topicPublisherIds.size());
+
+        for (final UUID topicPublisherId : this.topicPublisherIds)
+        {
+            buffer.writeUUID(topicPublisherId);
+        }
+    }
+}
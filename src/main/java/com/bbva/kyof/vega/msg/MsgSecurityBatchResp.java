@@ -0,0 +1,135 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents the response to a batch security request, the response is signed once for all the topic publishers.
+ *
+ * Each entry contains the encoded session key of a topic publisher or the error code of {@link MsgSecurityErrorResp} that
+ * prevents the requester from getting it. The topic publisher id of the message is always {@link #BATCH_TOPIC_PUB_ID}.
+ *
+ * It also contains methods to sign and serialize to binary, to read from binary and to verify the signature.
+ *
+ * The class is not thread safe!
+ */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class MsgSecurityBatchResp extends AbstractMsgSecurity
+{
+    /** Error code of the entries with the encoded session key */
+    public static final byte NO_ERROR = -1;
+
+    /**
+     * Serialized size of the entries from which the response is full. With the signature and the rest of the fields it still
+     * fits in a control message, the responder splits bigger batches in several responses.
+     */
+    public static final int MAX_ENTRIES_SIZE = 48 * 1024;
+
+    /** Serialized size of an entry without the encoded session key */
+    private static final int ENTRY_FIXED_SIZE = UnsafeBufferSerializer.UUID_SIZE + UnsafeBufferSerializer.BYTE_SIZE + UnsafeBufferSerializer.INT_SIZE;
+
+    /** Entries of the response, one per requested topic publisher */
+    @Getter private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Create a new empty batch response
+     */
+    public MsgSecurityBatchResp()
+    {
+        super();
+        this.setTopicPublisherId(BATCH_TOPIC_PUB_ID);
+    }
+
+    /**
+     * Add an entry with the encoded session key of a topic publisher
+     *
+     * @param topicPublisherId the topic publisher id
+     * @param encodedSessionKey the session key encoded with the public key of the requester
+     */
+    public void addSessionKey(final UUID topicPublisherId, final byte[] encodedSessionKey)
+    {
+        this.entries.add(new Entry(topicPublisherId, NO_ERROR, encodedSessionKey));
+    }
+
+    /**
+     * Add an entry with the error code of a topic publisher
+     *
+     * @param topicPublisherId the topic publisher id
+     * @param errorCode the error code, one of the codes of {@link MsgSecurityErrorResp}
+     */
+    public void addError(final UUID topicPublisherId, final byte errorCode)
+    {
+        this.entries.add(new Entry(topicPublisherId, errorCode, new byte[0]));
+    }
+
+    /** @return true if the serialized size of the entries has reached {@link #MAX_ENTRIES_SIZE} */
+    public boolean isFull()
+    {
+        int entriesSize = 0;
+
+        for (final Entry entry : this.entries)
+        {
+            entriesSize += ENTRY_FIXED_SIZE + entry.encodedSessionKey.length;
+        }
+
+        return entriesSize >= MAX_ENTRIES_SIZE;
+    }
+
+    @Override
+    protected void readAdditionalFields(final UnsafeBufferSerializer buffer)
+    {
+        this.entries.clear();
+
+        final int numEntries = buffer.readInt();
+
+        for (int i = 0; i < numEntries; i++)
+        {
+            final UUID topicPublisherId = buffer.readUUID();
+            final byte errorCode = buffer.readByte();
+            final byte[] encodedSessionKey = new byte[buffer.readInt()];
+            buffer.readBytes(encodedSessionKey);
+
+            this.entries.add(new Entry(topicPublisherId, errorCode, encodedSessionKey));
+        }
+    }
+
+    @Override
+    protected void writeAdditionalFields(final UnsafeBufferSerializer buffer)
+    {
+        buffer.writeInt(this.entries.size());
+
+        for (final Entry entry : this.entries)
+        {
+            buffer.writeUUID(entry.topicPublisherId);
+            buffer.writeByte(entry.errorCode);
+            buffer.writeInt(entry.encodedSessionKey.length);
+            buffer.writeBytes(entry.encodedSessionKey, 0, entry.encodedSessionKey.length);
+        }
+    }
+
+    /**
+     * Result for a single topic publisher of the batch
+     */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString(exclude = "encodedSessionKey")
+    public static class Entry
+    {
+        /** Id of the topic publisher */
+        @Getter private final UUID topicPublisherId;
+
+        /** Error code, {@link #NO_ERROR} if the session key has been encoded */
+        @Getter private final byte errorCode;
+
+        /** Encoded session key, empty if there is an error */
+        @Getter private final byte[] encodedSessionKey;
+    }
+}
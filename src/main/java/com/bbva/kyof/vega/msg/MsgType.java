@@ -44,6 +44,36 @@ public final class MsgType
     /** Auto discovery unicast server resolver information */
     public static final byte AUTO_DISC_DAEMON_SERVER_INFO = 12;
 
+    /** Batch of user messages, the data header contains the sequence number of the first message of the batch */
+    public static final byte DATA_BATCH = 13;
+
+    /** User message with a compact header, the topic publisher is identified by the header alias it advertised in auto-discovery */
+    public static final byte DATA_COMPACT = 14;
+
+    /** Control request to retransmit a range of messages of a topic publisher */
+    public static final byte CONTROL_RETRANSMIT_REQ = 15;
+
+    /** User message retransmitted by the topic publisher after a retransmission request */
+    public static final byte DATA_RETRANSMIT = 16;
+
+    /** Notification of a range of messages requested for retransmission that are no longer available in the topic publisher */
+    public static final byte DATA_RETRANSMIT_LOST = 17;
+
+    /** User message of the last value cache of a topic publisher, sent to a new subscriber that requested the snapshot */
+    public static final byte DATA_SNAPSHOT = 18;
+
+    /** Encrypted data message using authenticated AES-GCM, the nonce is derived from the sequence number of the header */
+    public static final byte ENCRYPTED_DATA_GCM = 19;
+
+    /** Control security request for all the secure topic publishers of an instance the requester is subscribed to */
+    public static final byte CONTROL_SECURITY_BATCH_REQ = 20;
+
+    /** Control security response with the session keys or errors of all the topic publishers of a batch request */
+    public static final byte CONTROL_SECURITY_BATCH_RESP = 21;
+
+    /** End of the last value snapshot of a topic publisher, the header contains the last sequence number sent when it was taken */
+    public static final byte DATA_SNAPSHOT_END = 22;
+
     /** Private constructor to avoid instantiation */
     private MsgType()
     {
@@ -72,6 +102,16 @@ public final class MsgType
             case ENCRYPTED_DATA: return "ENCRYPTED_DATA";
             case CONTROL_SECURITY_ERROR_RESP: return  "CONTROL_SECURITY_ERROR_RESP";
             case AUTO_DISC_DAEMON_SERVER_INFO: return "AUTO_DISC_DAEMON_SERVER_INFO";
+            case DATA_BATCH: return "DATA_BATCH";
+            case DATA_COMPACT: return "DATA_COMPACT";
+            case CONTROL_RETRANSMIT_REQ: return "CONTROL_RETRANSMIT_REQ";
+            case DATA_RETRANSMIT: return "DATA_RETRANSMIT";
+            case DATA_RETRANSMIT_LOST: return "DATA_RETRANSMIT_LOST";
+            case DATA_SNAPSHOT: return "DATA_SNAPSHOT";
+            case ENCRYPTED_DATA_GCM: return "ENCRYPTED_DATA_GCM";
+            case CONTROL_SECURITY_BATCH_REQ: return "CONTROL_SECURITY_BATCH_REQ";
+            case CONTROL_SECURITY_BATCH_RESP: return "CONTROL_SECURITY_BATCH_RESP";
+            case DATA_SNAPSHOT_END: return "DATA_SNAPSHOT_END";
             default: return "UNKNOWN";
         }
     }
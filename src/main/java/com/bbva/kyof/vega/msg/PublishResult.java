@@ -15,6 +15,13 @@ public enum PublishResult
     /** Failed due to back pressure in one or all the underlying sockets */
     BACK_PRESSURED,
 
+    /**
+     * Not sent due to back pressure, the message has been kept by the conflated back pressure policy of the topic.
+     *
+     * It will be sent once the transport is free unless a newer message replaces it, in that case it is counted as dropped.
+     */
+    CONFLATED,
+
     /** Unexpected internal unexpected library error in one of the underlying sockets */
     UNEXPECTED_ERROR,
 
@@ -15,12 +15,64 @@ import java.util.UUID;
 @NoArgsConstructor
 public class RcvMessage extends BaseRcvMessage implements IRcvMessage
 {
-    /** TopicPublisherId of the topic publisher that sent the message */
-    @Getter @Setter private UUID topicPublisherId;
+    /** TopicPublisherId of the topic publisher that sent the message, if received it is only created on demand from the id bits */
+    private UUID topicPublisherId;
+
+    /** Most significant bits of the TopicPublisherId of the topic publisher that sent the message */
+    @Getter private long topicPublisherIdMsb;
+
+    /** Least significant bits of the TopicPublisherId of the topic publisher that sent the message */
+    @Getter private long topicPublisherIdLsb;
+
+    /** True if the topic publisher id has been settled from the bits and the UUID has not been created yet */
+    private boolean topicPublisherIdPending = false;
 
     /** Sequence Number corresponding to the topic publisher that sent the message */
     @Getter @Setter private long sequenceNumber;
     
+    /**
+     * Return the TopicPublisherId of the topic publisher that sent the message. In received messages the UUID is created on the first call.
+     *
+     * @return the unique id of the topic publisher that sent the message
+     */
+    public UUID getTopicPublisherId()
+    {
+        if (this.topicPublisherIdPending)
+        {
+            this.topicPublisherId = new UUID(this.topicPublisherIdMsb, this.topicPublisherIdLsb);
+            this.topicPublisherIdPending = false;
+        }
+
+        return this.topicPublisherId;
+    }
+
+    /**
+     * Set the TopicPublisherId of the topic publisher that sent the message
+     *
+     * @param topicPublisherId the unique id of the topic publisher that sent the message
+     */
+    public void setTopicPublisherId(final UUID topicPublisherId)
+    {
+        this.topicPublisherId = topicPublisherId;
+        this.topicPublisherIdMsb = topicPublisherId == null ? 0 : topicPublisherId.getMostSignificantBits();
+        this.topicPublisherIdLsb = topicPublisherId == null ? 0 : topicPublisherId.getLeastSignificantBits();
+        this.topicPublisherIdPending = false;
+    }
+
+    /**
+     * Set the TopicPublisherId of the topic publisher that sent the message using the id bits, the UUID is not created until requested
+     *
+     * @param topicPublisherIdMsb most significant bits of the unique id
+     * @param topicPublisherIdLsb least significant bits of the unique id
+     */
+    public void setTopicPublisherId(final long topicPublisherIdMsb, final long topicPublisherIdLsb)
+    {
+        this.topicPublisherId = null;
+        this.topicPublisherIdMsb = topicPublisherIdMsb;
+        this.topicPublisherIdLsb = topicPublisherIdLsb;
+        this.topicPublisherIdPending = true;
+    }
+
     @Override
     public IRcvMessage promote()
     {
@@ -41,6 +93,9 @@ public class RcvMessage extends BaseRcvMessage implements IRcvMessage
     {
         super.promote(promotedMsg);
         promotedMsg.topicPublisherId = this.topicPublisherId;
+        promotedMsg.topicPublisherIdMsb = this.topicPublisherIdMsb;
+        promotedMsg.topicPublisherIdLsb = this.topicPublisherIdLsb;
+        promotedMsg.topicPublisherIdPending = this.topicPublisherIdPending;
         promotedMsg.sequenceNumber = this.sequenceNumber;
     }
 }
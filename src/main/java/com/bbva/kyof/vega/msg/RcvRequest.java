@@ -15,8 +15,17 @@ import java.util.UUID;
 @NoArgsConstructor
 public class RcvRequest extends RcvMessage implements IRcvRequest
 {
-    /** The unique request id */
-    @Getter @Setter private UUID requestId;
+    /** The unique request id, if received it is only created on demand from the id bits */
+    private UUID requestId;
+
+    /** Most significant bits of the unique request id */
+    @Getter private long requestIdMsb;
+
+    /** Least significant bits of the unique request id */
+    @Getter private long requestIdLsb;
+
+    /** True if the request id has been settled from the bits and the UUID has not been created yet */
+    private boolean requestIdPending = false;
 
     /** The responder object for this request */
     @Setter private IRequestResponder requestResponder;
@@ -28,14 +37,56 @@ public class RcvRequest extends RcvMessage implements IRcvRequest
         super.promote(promotedRequest);
 
         promotedRequest.requestId = this.requestId;
+        promotedRequest.requestIdMsb = this.requestIdMsb;
+        promotedRequest.requestIdLsb = this.requestIdLsb;
+        promotedRequest.requestIdPending = this.requestIdPending;
         promotedRequest.requestResponder = this.requestResponder;
 
         return promotedRequest;
     }
 
+    @Override
+    public UUID getRequestId()
+    {
+        if (this.requestIdPending)
+        {
+            this.requestId = new UUID(this.requestIdMsb, this.requestIdLsb);
+            this.requestIdPending = false;
+        }
+
+        return this.requestId;
+    }
+
+    /**
+     * Set the unique request id
+     *
+     * @param requestId the unique request id
+     */
+    public void setRequestId(final UUID requestId)
+    {
+        this.requestId = requestId;
+        this.requestIdMsb = requestId == null ? 0 : requestId.getMostSignificantBits();
+        this.requestIdLsb = requestId == null ? 0 : requestId.getLeastSignificantBits();
+        this.requestIdPending = false;
+    }
+
+    /**
+     * Set the unique request id using the id bits, the UUID is not created until requested
+     *
+     * @param requestIdMsb most significant bits of the unique request id
+     * @param requestIdLsb least significant bits of the unique request id
+     */
+    public void setRequestId(final long requestIdMsb, final long requestIdLsb)
+    {
+        this.requestId = null;
+        this.requestIdMsb = requestIdMsb;
+        this.requestIdLsb = requestIdLsb;
+        this.requestIdPending = true;
+    }
+
     @Override
     public PublishResult sendResponse(final DirectBuffer responseContent, final int offset, final int length)
     {
-        return this.requestResponder.sendResponse(this.requestId, responseContent, offset, length);
+        return this.requestResponder.sendResponse(this.requestIdMsb, this.requestIdLsb, responseContent, offset, length);
     }
 }
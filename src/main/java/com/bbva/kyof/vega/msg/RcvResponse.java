@@ -1,7 +1,6 @@
 package com.bbva.kyof.vega.msg;
 
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.UUID;
 
@@ -12,8 +11,17 @@ import java.util.UUID;
  */
 public class RcvResponse extends BaseRcvMessage implements IRcvResponse
 {
-    /** Original request id that has triggered the response */
-    @Getter @Setter private UUID originalRequestId;
+    /** Original request id that has triggered the response, if received it is only created on demand from the id bits */
+    private UUID originalRequestId;
+
+    /** Most significant bits of the original request id that has triggered the response */
+    @Getter private long originalRequestIdMsb;
+
+    /** Least significant bits of the original request id that has triggered the response */
+    @Getter private long originalRequestIdLsb;
+
+    /** True if the original request id has been settled from the bits and the UUID has not been created yet */
+    private boolean originalRequestIdPending = false;
 
     @Override
     public IRcvResponse promote()
@@ -22,7 +30,49 @@ public class RcvResponse extends BaseRcvMessage implements IRcvResponse
         super.promote(promotedResponse);
 
         promotedResponse.originalRequestId = this.originalRequestId;
+        promotedResponse.originalRequestIdMsb = this.originalRequestIdMsb;
+        promotedResponse.originalRequestIdLsb = this.originalRequestIdLsb;
+        promotedResponse.originalRequestIdPending = this.originalRequestIdPending;
 
         return promotedResponse;
     }
+
+    @Override
+    public UUID getOriginalRequestId()
+    {
+        if (this.originalRequestIdPending)
+        {
+            this.originalRequestId = new UUID(this.originalRequestIdMsb, this.originalRequestIdLsb);
+            this.originalRequestIdPending = false;
+        }
+
+        return this.originalRequestId;
+    }
+
+    /**
+     * Set the original request id that has triggered the response
+     *
+     * @param originalRequestId the original request id
+     */
+    public void setOriginalRequestId(final UUID originalRequestId)
+    {
+        this.originalRequestId = originalRequestId;
+        this.originalRequestIdMsb = originalRequestId == null ? 0 : originalRequestId.getMostSignificantBits();
+        this.originalRequestIdLsb = originalRequestId == null ? 0 : originalRequestId.getLeastSignificantBits();
+        this.originalRequestIdPending = false;
+    }
+
+    /**
+     * Set the original request id that has triggered the response using the id bits, the UUID is not created until requested
+     *
+     * @param originalRequestIdMsb most significant bits of the original request id
+     * @param originalRequestIdLsb least significant bits of the original request id
+     */
+    public void setOriginalRequestId(final long originalRequestIdMsb, final long originalRequestIdLsb)
+    {
+        this.originalRequestId = null;
+        this.originalRequestIdMsb = originalRequestIdMsb;
+        this.originalRequestIdLsb = originalRequestIdLsb;
+        this.originalRequestIdPending = true;
+    }
 }
@@ -0,0 +1,14 @@
+package com.bbva.kyof.vega.msg;
+
+/** Enum with the strategies to wait for the response of a synchronous request */
+public enum RequestWaitType
+{
+    /** Busy spin checking for the response, lowest latency at the cost of a full core while waiting */
+    BUSY_SPIN,
+
+    /** Spin, then yield and then park for increasing periods while there is no response */
+    BACK_OFF,
+
+    /** Park the thread until the response is received or the request times out */
+    PARK
+}
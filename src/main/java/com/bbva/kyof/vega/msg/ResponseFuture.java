@@ -0,0 +1,165 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future for the response of a sent request, it is also the response listener of the request. <p>
+ *
+ * The future is completed with the promoted first response received and the request is closed, no more responses are processed.
+ * If the request times out the future is completed exceptionally with a {@link TimeoutException}, if the request cannot be sent or
+ * the library instance is closed before receiving a response it is completed exceptionally with a {@link VegaException}. <p>
+ *
+ * The future is completed from the library thread that receives the response or handles the timeout, use the async methods of the
+ * future to run long tasks on completion. <p>
+ *
+ * This class is thread safe!
+ */
+public class ResponseFuture extends CompletableFuture<IRcvResponse> implements IResponseListener
+{
+    /** Max number of spins of the back off wait */
+    private static final long BACK_OFF_MAX_SPINS = 100;
+
+    /** Max number of yields of the back off wait */
+    private static final long BACK_OFF_MAX_YIELDS = 10;
+
+    /** Min park period of the back off wait */
+    private static final long BACK_OFF_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the back off wait */
+    private static final long BACK_OFF_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Idle strategy of the busy spin wait, it has no state and can be shared */
+    private static final IdleStrategy BUSY_SPIN_IDLE_STRATEGY = new BusySpinIdleStrategy();
+
+    @Override
+    public void onResponseReceived(final ISentRequest originalSentRequest, final IRcvResponse response)
+    {
+        // No more responses are expected, close it before waking up the waiting threads
+        originalSentRequest.closeRequest();
+
+        // The response is accessed from other threads, it has to be promoted. Only the first response completes the future.
+        this.complete(response.promote());
+    }
+
+    @Override
+    public void onRequestTimeout(final ISentRequest originalSentRequest)
+    {
+        this.completeExceptionally(new TimeoutException("Timeout waiting for the response of request " + originalSentRequest.getRequestId()));
+    }
+
+    /**
+     * Check the result of sending the request, if it has not been sent the request is closed and the future completed exceptionally
+     *
+     * @param request the sent request the future is listening to
+     */
+    public void onRequestSent(final ISentRequest request)
+    {
+        final PublishResult sentResult = request.getSentResult();
+
+        if (sentResult != PublishResult.OK)
+        {
+            request.closeRequest();
+            this.completeExceptionally(new VegaException("The request could not be sent, publish result " + sentResult));
+        }
+    }
+
+    /**
+     * Called when the request is closed because the library instance has been closed before receiving a response
+     *
+     * @param request the closed request
+     */
+    public void onRequestCancelled(final ISentRequest request)
+    {
+        this.completeExceptionally(new VegaException("The instance has been closed before receiving a response for request " + request.getRequestId()));
+    }
+
+    /**
+     * Wait until the future is completed and return the response. The request timeout of the library bounds the wait.
+     *
+     * @param waitType the strategy to wait for the response
+     * @return the promoted response or null if the request timed out
+     * @throws VegaException if the request could not be sent, the instance has been closed or the thread is interrupted
+     */
+    public IRcvResponse waitResponse(final RequestWaitType waitType) throws VegaException
+    {
+        switch (waitType)
+        {
+            case BUSY_SPIN:
+                this.idleUntilDone(BUSY_SPIN_IDLE_STRATEGY);
+                break;
+            case BACK_OFF:
+                this.idleUntilDone(new BackoffIdleStrategy(BACK_OFF_MAX_SPINS, BACK_OFF_MAX_YIELDS, BACK_OFF_MIN_PARK_NANOS, BACK_OFF_MAX_PARK_NANOS));
+                break;
+            case PARK:
+                this.parkUntilDone();
+                break;
+            default:
+                throw new VegaException("Unsupported request wait type " + waitType);
+        }
+
+        try
+        {
+            return this.getNow(null);
+        }
+        catch (final CompletionException e)
+        {
+            if (e.getCause() instanceof TimeoutException)
+            {
+                return null;
+            }
+
+            if (e.getCause() instanceof VegaException)
+            {
+                throw (VegaException) e.getCause();
+            }
+
+            throw new VegaException(e.getCause());
+        }
+    }
+
+    /**
+     * Run the idle strategy until the future is completed
+     *
+     * @param idleStrategy the idle strategy to run
+     */
+    private void idleUntilDone(final IdleStrategy idleStrategy)
+    {
+        idleStrategy.reset();
+
+        while (!this.isDone())
+        {
+            idleStrategy.idle();
+        }
+    }
+
+    /**
+     * Park the thread until the future is completed, the completing thread unparks it
+     *
+     * @throws VegaException if the thread is interrupted
+     */
+    private void parkUntilDone() throws VegaException
+    {
+        try
+        {
+            this.get();
+        }
+        catch (final ExecutionException e)
+        {
+            // The exceptional completion is handled once done
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new VegaException("Interrupted waiting for the response of the request", e);
+        }
+    }
+}
@@ -16,37 +16,76 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * It is possible to reset the time out of a sent request. This is specially useful when there are multiple responses. <p>
  *
+ * The requests created by a {@link SentRequestsPool} are reused once released by the user and by the library. The request id is
+ * kept as the most and least significant bits, the UUID is only created when requested. <p>
+ *
+ * While the request is active the manager of the requests is notified when it is closed or its expiration is brought forward. <p>
+ *
  * This class is thread safe!
  */
 @Slf4j
 public class SentRequest implements ISentRequest
 {
+    /**
+     * Listener for the changes of an active request that affect its expiration
+     */
+    public interface IChangesListener
+    {
+        /**
+         * Called when the request is closed or its expiration time is brought forward, it should not block
+         *
+         * @param request the changed request
+         */
+        void onRequestChanged(SentRequest request);
+    }
+
     /** Return the result of the request sent */
-    @Getter @Setter private PublishResult sentResult;
+    @Getter @Setter private volatile PublishResult sentResult;
+
+    /** Unique identifier of the request, created on demand from the id bits */
+    private UUID requestId;
+
+    /** Most significant bits of the unique identifier of the request */
+    @Getter private volatile long requestIdMsb;
 
-    /** Unique identifier of the request */
-    @Getter private final UUID requestId;
+    /** Least significant bits of the unique identifier of the request */
+    @Getter private volatile long requestIdLsb;
 
     /** Request expiration time */
-    private final AtomicLong expirationTime;
+    private final AtomicLong expirationTime = new AtomicLong();
 
     /** Listener for responses on this request */
-    private final IResponseListener responseListener;
+    private IResponseListener responseListener;
 
     /** Number of received responses for this request */
     private final AtomicInteger numResponses = new AtomicInteger();
 
     /** The topicName the request belongs to */
-    @Getter private final String topicName;
+    @Getter private volatile String topicName;
 
     /** True if the request has been closed */
     private boolean closed = false;
 
+    /** Pool the request is returned to once released, null if the request is not pooled */
+    private final SentRequestsPool pool;
+
+    /** Number of holders of the request, the user until it is released and the library while the request is active */
+    private final AtomicInteger references = new AtomicInteger();
+
+    /** True if the user has released the request */
+    private boolean released = false;
+
+    /** Listener for the changes of the request while it is active, null if there is none */
+    private volatile IChangesListener changesListener;
+
+    /** Id of the expiration timer of the request, only used by the manager of the active requests */
+    @Getter @Setter private long timerId;
+
     /** Lock for class syncrhonization */
     private final Object lock = new Object();
 
     /**
-     * Constructor of the sent request information
+     * Constructor of the sent request information, the request is not pooled
      *
      * @param topicName the topicName the request belong to
      * @param timeout timeout for the request expiration
@@ -59,10 +98,60 @@ public class SentRequest implements ISentRequest
             final IResponseListener responseListener,
             final Random rndGenerator)
     {
-        this.topicName = topicName;
-        this.requestId = new UUID(rndGenerator.nextLong(), rndGenerator.nextLong());
-        this.responseListener = responseListener;
-        this.expirationTime = new AtomicLong(System.currentTimeMillis() + timeout);
+        this.pool = null;
+        this.init(rndGenerator.nextLong(), rndGenerator.nextLong(), topicName, timeout, responseListener);
+    }
+
+    /**
+     * Constructor of a pooled request, it has to be initialized before being used
+     *
+     * @param pool the pool the request is returned to once released
+     */
+    SentRequest(final SentRequestsPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Initialize the request, it is held by the user until released
+     *
+     * @param requestIdMsb most significant bits of the unique identifier of the request
+     * @param requestIdLsb least significant bits of the unique identifier of the request
+     * @param topicName the topicName the request belong to
+     * @param timeout timeout for the request expiration
+     * @param responseListener listener for responses
+     */
+    void init(final long requestIdMsb, final long requestIdLsb, final String topicName, final long timeout, final IResponseListener responseListener)
+    {
+        synchronized (this.lock)
+        {
+            this.sentResult = null;
+            this.requestId = null;
+            this.requestIdMsb = requestIdMsb;
+            this.requestIdLsb = requestIdLsb;
+            this.topicName = topicName;
+            this.responseListener = responseListener;
+            this.expirationTime.set(System.currentTimeMillis() + timeout);
+            this.numResponses.set(0);
+            this.closed = false;
+            this.released = false;
+            this.changesListener = null;
+            this.references.set(1);
+        }
+    }
+
+    @Override
+    public UUID getRequestId()
+    {
+        synchronized (this.lock)
+        {
+            if (this.requestId == null)
+            {
+                this.requestId = new UUID(this.requestIdMsb, this.requestIdLsb);
+            }
+
+            return this.requestId;
+        }
     }
 
     @Override
@@ -72,10 +161,24 @@ public class SentRequest implements ISentRequest
         return System.currentTimeMillis() >= expirationTimeValue;
     }
 
+    /**
+     * @return the expiration time of the request in milliseconds since epoch
+     */
+    public long getExpirationTime()
+    {
+        return this.expirationTime.get();
+    }
+
     @Override
     public void resetExpiration(final long newTimeout)
     {
-        this.expirationTime.set(System.currentTimeMillis() + newTimeout);
+        final long newExpirationTime = System.currentTimeMillis() + newTimeout;
+
+        // The expiration is checked again when due, it only has to be notified if it is brought forward
+        if (this.expirationTime.getAndSet(newExpirationTime) > newExpirationTime)
+        {
+            this.notifyChange();
+        }
     }
 
     @Override
@@ -83,8 +186,38 @@ public class SentRequest implements ISentRequest
     {
         synchronized (this.lock)
         {
+            if (this.closed)
+            {
+                return;
+            }
+
             this.closed = true;
         }
+
+        this.notifyChange();
+    }
+
+    /**
+     * Set the listener for the changes of the request while it is active
+     *
+     * @param changesListener the listener, null to remove it
+     */
+    public void setChangesListener(final IChangesListener changesListener)
+    {
+        this.changesListener = changesListener;
+    }
+
+    /**
+     * Notify the listener of the changes if any
+     */
+    private void notifyChange()
+    {
+        final IChangesListener listener = this.changesListener;
+
+        if (listener != null)
+        {
+            listener.onRequestChanged(this);
+        }
     }
 
     @Override
@@ -102,6 +235,73 @@ public class SentRequest implements ISentRequest
         return this.numResponses.get();
     }
 
+    @Override
+    public void release()
+    {
+        synchronized (this.lock)
+        {
+            // Only the first release of the user counts
+            if (this.released)
+            {
+                return;
+            }
+
+            this.released = true;
+        }
+
+        this.removeReference();
+    }
+
+    /**
+     * Add a reference to the request, the library holds a reference while the request is active
+     */
+    public void addReference()
+    {
+        this.references.incrementAndGet();
+    }
+
+    /**
+     * Remove a reference to the request, the request is returned to the pool when there are no more references
+     */
+    public void removeReference()
+    {
+        if (this.references.decrementAndGet() == 0 && this.pool != null)
+        {
+            synchronized (this.lock)
+            {
+                // Don't retain the user objects while in the pool
+                this.responseListener = null;
+                this.topicName = null;
+            }
+
+            this.pool.release(this);
+        }
+    }
+
+    /**
+     * Process a received response for the given request id. The response is ignored if the id doesn't match, the request may have
+     * been reused.
+     *
+     * @param originalRequestIdMsb most significant bits of the id of the request that originated the response
+     * @param originalRequestIdLsb least significant bits of the id of the request that originated the response
+     * @param response the received response
+     */
+    public void onResponseReceived(final long originalRequestIdMsb, final long originalRequestIdLsb, final RcvResponse response)
+    {
+        synchronized (this.lock)
+        {
+            if (originalRequestIdMsb != this.requestIdMsb || originalRequestIdLsb != this.requestIdLsb)
+            {
+                return;
+            }
+
+            // Set the topic name
+            response.setTopicName(this.topicName);
+
+            this.onResponseReceived(response);
+        }
+    }
+
     /**
      * Process a received response and notify the response listener if the request has not been closed yet
      *
@@ -114,7 +314,7 @@ public class SentRequest implements ISentRequest
             // If already closed ignore the response
             if (this.closed)
             {
-                log.info("Response received on an already closed or expired request. Request ID [{}], Responder AppId [{}]", this.requestId, response.getInstanceId());
+                log.info("Response received on an already closed or expired request. Request ID [{}], Responder AppId [{}]", this.getRequestId(), response.getInstanceId());
                 return;
             }
 
@@ -130,12 +330,35 @@ public class SentRequest implements ISentRequest
                 }
                 catch (final RuntimeException e)
                 {
-                    log.error("Uncaught exception processing received response for request ID " + this.requestId, e);
+                    log.error("Uncaught exception processing received response for request ID " + this.getRequestId(), e);
                 }
             }
         }
     }
 
+    /**
+     * Called when the request is closed because the library instance is closed before the request expires. The response listener is
+     * not notified, except a {@link ResponseFuture} that is completed exceptionally to release the threads waiting on it.
+     */
+    public void onRequestCancelled()
+    {
+        synchronized (this.lock)
+        {
+            // If already closed just return
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.closed = true;
+
+            if (this.responseListener instanceof ResponseFuture)
+            {
+                ((ResponseFuture) this.responseListener).onRequestCancelled(this);
+            }
+        }
+    }
+
     /**
      * Called when the request times out, a timeout request should be closed if not already closed and the timeout listener notified if exists.
      */
@@ -161,7 +384,7 @@ public class SentRequest implements ISentRequest
                 }
                 catch (final RuntimeException e)
                 {
-                    log.error("Uncaught exception processing request timeout for request id " + this.requestId, e);
+                    log.error("Uncaught exception processing request timeout for request id " + this.getRequestId(), e);
                 }
             }
         }
@@ -0,0 +1,94 @@
+package com.bbva.kyof.vega.msg;
+
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of reusable sent requests of a library instance. <p>
+ *
+ * The request ids are created from the most significant bits of the instance id, used as the instance alias, and a counter
+ * of the instance as the least significant bits. The ids of the instance never repeat and no random numbers or UUID
+ * objects are created to get them. <p>
+ *
+ * A request is returned to the pool once it has been released by the user and by the library. If the pool is full the request
+ * is discarded. <p>
+ *
+ * This class is thread safe!
+ */
+public final class SentRequestsPool
+{
+    /** Default max number of free requests retained */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Free requests ready to be reused */
+    private final ManyToManyConcurrentArrayQueue<SentRequest> freeRequests;
+
+    /** Most significant bits of the request ids, the alias of the instance */
+    private final long instanceAlias;
+
+    /** Counter for the least significant bits of the request ids */
+    private final AtomicLong nextRequestIdLsb = new AtomicLong(1);
+
+    /**
+     * Create a new pool with the default capacity
+     *
+     * @param instanceId unique id of the library instance that sends the requests
+     */
+    public SentRequestsPool(final UUID instanceId)
+    {
+        this(instanceId, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new pool
+     *
+     * @param instanceId unique id of the library instance that sends the requests
+     * @param capacity max number of free requests retained
+     */
+    public SentRequestsPool(final UUID instanceId, final int capacity)
+    {
+        this.instanceAlias = instanceId.getMostSignificantBits();
+        this.freeRequests = new ManyToManyConcurrentArrayQueue<>(capacity);
+    }
+
+    /**
+     * Get a request from the pool, or create a new one if there are no free requests, and initialize it with a new request id
+     *
+     * @param topicName the topicName the request belong to
+     * @param timeout timeout for the request expiration
+     * @param responseListener listener for responses
+     * @return the initialized request, it has to be released by the user calling {@link SentRequest#release()}
+     */
+    public SentRequest acquire(final String topicName, final long timeout, final IResponseListener responseListener)
+    {
+        SentRequest request = this.freeRequests.poll();
+
+        if (request == null)
+        {
+            request = new SentRequest(this);
+        }
+
+        request.init(this.instanceAlias, this.nextRequestIdLsb.getAndIncrement(), topicName, timeout, responseListener);
+
+        return request;
+    }
+
+    /** @return the number of free requests in the pool */
+    public int freeRequests()
+    {
+        return this.freeRequests.size();
+    }
+
+    /**
+     * Return a request that is no longer referenced to the pool
+     *
+     * @param request the request to return
+     */
+    void release(final SentRequest request)
+    {
+        // If the pool is full the request is discarded
+        this.freeRequests.offer(request);
+    }
+}
@@ -51,6 +51,21 @@ public interface IVegaInstance extends Closeable
      */
     void subscribeToTopic(final String topicName, final ITopicSubListener listener) throws VegaException;
 
+    /**
+     * Subscribes to the given durable topic replaying the messages of each topic publisher from the given sequence number.
+     *
+     * The replayed messages are read from the journal of the topic publisher and are only delivered to this listener, the live
+     * messages received meanwhile are held and delivered in order once the replay reaches them.
+     *
+     * You cannot subscribe to a topic twice.
+     *
+     * @param topicName   Topic name to subscribe to, it has to be configured as durable.
+     * @param fromSequenceNumber sequence number of the first message to replay on each topic publisher
+     * @param listener    The Listener where the user wants to receive the messages.
+     * @throws VegaException exception thrown if there is a problem, if the topic is not durable or if it is already subscribed
+     */
+    void subscribeToTopicFrom(final String topicName, final long fromSequenceNumber, final ITopicSubListener listener) throws VegaException;
+
     /**
      * Unsubscribe from a topicName.
      *
@@ -83,4 +98,33 @@ public interface IVegaInstance extends Closeable
      * @throws VegaException exception thrown if there is any problem in the un-subscription
      */
     void unsubscribeFromPattern(final String topicPattern) throws VegaException;
+
+    /**
+     * Poll once the subscribers of a receiver poller configured with APPLICATION polling mode. The poller has no threads, the
+     * listeners of the topics of the poller are called from the thread calling this method. <p>
+     *
+     * It should be called continuously from the same thread, the application decides how to wait between polls that return 0. <p>
+     *
+     * Important! Do not call it while the instance is being closed.
+     *
+     * @param pollerName name of the receiver poller configuration
+     * @param fragmentLimit max number of fragments to poll from each Aeron subscriber of the poller
+     * @return the number of polled fragments, 0 if there was nothing to poll
+     * @throws VegaException exception thrown if the poller is not configured or it is not configured with APPLICATION polling mode
+     */
+    int poll(final String pollerName, final int fragmentLimit) throws VegaException;
+
+    /**
+     * Run a single duty cycle of all the background tasks of an instance configured with INVOKER threading mode: auto-discovery,
+     * request timeouts, control messages, receiver pollers with THREAD polling mode and publisher senders. The instance has no
+     * threads for them, the listeners are called from the thread calling this method. <p>
+     *
+     * It should be called continuously from the same thread, the application decides how to wait between calls that return 0. <p>
+     *
+     * Important! Do not call it while the instance is being closed.
+     *
+     * @return the number of actions performed by the tasks, 0 if there was nothing to do
+     * @throws VegaException exception thrown if the instance is not configured with INVOKER threading mode
+     */
+    int invokeTasks() throws VegaException;
 }
\ No newline at end of file
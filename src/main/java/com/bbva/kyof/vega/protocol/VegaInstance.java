@@ -144,7 +144,10 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         this.vegaContext.setAutodiscoveryManager(autodiscoManager);
 
         // Create the asynchronous request manager and start it
-        final AsyncRequestManager asyncRequestManager = new AsyncRequestManager(this.vegaContext.getInstanceUniqueId());
+        final AsyncRequestManager asyncRequestManager = new AsyncRequestManager(
+                this.vegaContext.getInstanceUniqueId(),
+                this.vegaContext.getTasksRunner(),
+                config.getResponsesConfig().getTimeoutTickMillis());
         this.vegaContext.setAsyncRequestManager(asyncRequestManager);
 
         // Initialize the control messages manager
@@ -152,10 +155,18 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
 
         // Initialize the managers to sendMsg and receive
         this.sendManager = new SendManager(this.vegaContext, this.controlMsgsManager.getOwnPubSecureChangesNotifier());
-        this.receiveManager = new ReceiveManager(this.vegaContext, this.controlMsgsManager.getSecureMessagesDecoder(), this.controlMsgsManager.getRecurityRequestsNotifier());
+        this.receiveManager = new ReceiveManager(
+                this.vegaContext,
+                this.controlMsgsManager.getSecureMessagesDecoder(),
+                this.controlMsgsManager.getRecurityRequestsNotifier(),
+                this.controlMsgsManager.getRetransmitRequester());
+
+        // Retransmit or replay the messages requested by the subscribers through their response publishers
+        this.controlMsgsManager.setRetransmitRequestListener(retransmitReq ->
+                this.sendManager.onRetransmitRequestReceived(retransmitReq, this.receiveManager.getResponsePublisherForInstance(retransmitReq.getInstanceId())));
 
         // Start auto-discovery
-        autodiscoManager.start();
+        autodiscoManager.start(this.vegaContext.getTasksRunner());
 
         // Get the parameters of the subscriber for responses
         final AeronSubscriberParams responseSubscriberParams = this.receiveManager.getResponseSubscriberParams();
@@ -218,6 +229,13 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         this.receiveManager.subscribeToTopic(topicName, listener);
     }
 
+    @Override
+    public void subscribeToTopicFrom(@NonNull final String topicName, final long fromSequenceNumber, @NonNull final ITopicSubListener listener) throws VegaException
+    {
+        log.info("Subscribing to topic [{}] from sequence number [{}]", topicName, fromSequenceNumber);
+        this.receiveManager.subscribeToTopicFrom(topicName, fromSequenceNumber, listener);
+    }
+
     @Override
     public void unsubscribeFromTopic(@NonNull final String topicName) throws VegaException
     {
@@ -239,6 +257,23 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         this.receiveManager.unsubscribefromPattern(topicPattern);
     }
 
+    @Override
+    public int invokeTasks() throws VegaException
+    {
+        if (!this.vegaContext.getTasksRunner().isInvoker())
+        {
+            throw new VegaException("The instance is not configured with INVOKER threading mode");
+        }
+
+        return this.vegaContext.getTasksRunner().invoke();
+    }
+
+    @Override
+    public int poll(@NonNull final String pollerName, final int fragmentLimit) throws VegaException
+    {
+        return this.receiveManager.poll(pollerName, fragmentLimit);
+    }
+
     @Override
     public void close()
     {
@@ -265,6 +300,9 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         // Stop the heartbeats timer
         this.vegaContext.stopHeartsbeatTimer();
 
+        // Stop the shared threads of the background tasks, all the tasks have been closed
+        this.vegaContext.stopTasksRunner();
+
         // Stop the Aeron connection
         this.vegaContext.getAeron().close();
 
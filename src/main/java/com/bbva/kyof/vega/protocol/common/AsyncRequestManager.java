@@ -1,76 +1,275 @@
 package com.bbva.kyof.vega.protocol.common;
 
 import com.bbva.kyof.vega.msg.RcvResponse;
+import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.SentRequest;
+import com.bbva.kyof.vega.msg.SentRequestsPool;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.DeadlineTimerWheel;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.SleepingMillisIdleStrategy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class manages the asynchronous requests in the framework
  *
  * The purpose of this class is to control the active requests, timeouts, and memory usage.
  *
- * A background thread that is always active will handle the closing of expired requests.
+ * A background task that is always active will handle the closing of expired requests. The expiration times are stored
+ * in a hashed timing wheel, on each tick only the requests that are due are checked. A request which expiration has been
+ * extended is scheduled again when due. The requests notify when they are closed or their expiration is brought forward, the
+ * closed ones are removed and released on the next iteration and the others are scheduled again for the new expiration.
+ *
+ * The requests are found by the low 64 bits of the request id when a response is received. The requests of the instance are taken
+ * from a pool, the manager holds a reference to them while they are active.
  */
-public class AsyncRequestManager extends RecurrentTask
+@Slf4j
+public class AsyncRequestManager extends RecurrentTask implements SentRequest.IChangesListener
 {
-    /** List of requests that has timeouts */
-    private final ConcurrentMap<UUID, SentRequest> sentRequestsById = new ConcurrentHashMap<>();
+    /** Default tick resolution of the request timeouts in milliseconds */
+    private static final int DEFAULT_TIMEOUT_TICK_MILLIS = 1;
+
+    /** Number of ticks of the timing wheel, the timeouts longer than a turn stay in their tick until the turn they expire */
+    private static final int TICKS_PER_WHEEL = 1024;
+
+    /** Initial capacity of the lists of due requests */
+    private static final int DUE_REQUESTS_CAPACITY = 64;
+
+    /** Max number of changed requests waiting to be processed, if full the changes are processed when the requests are due */
+    private static final int MAX_CHANGED_REQUESTS = 4096;
+
+    /** Pool of the requests sent by the instance */
+    private final SentRequestsPool requestsPool;
+
+    /** Active requests by the low 64 bits of the request id */
+    private final Long2ObjectHashMap<SentRequest> sentRequestsById = new Long2ObjectHashMap<>();
+
+    /** Active requests by the id of their timer in the timing wheel */
+    private final Long2ObjectHashMap<SentRequest> sentRequestsByTimerId = new Long2ObjectHashMap<>();
+
+    /** Hashed timing wheel with the expiration time of the active requests */
+    private final DeadlineTimerWheel timerWheel;
+
+    /** Handler for the expired timers of the wheel, created once to avoid allocations on each poll */
+    private final DeadlineTimerWheel.TimerHandler timerHandler = this::onTimerExpiry;
 
-    /** Stores the number of actions performed in the current iteration */
-    private final AtomicInteger numActionsInIteration = new AtomicInteger(0);
+    /** Requests due in the current iteration, only accessed from the task thread */
+    private final List<SentRequest> dueRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Due requests that have been closed or have expired, only accessed from the task thread */
+    private final List<SentRequest> removedRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Due requests which expiration has been extended, only accessed from the task thread */
+    private final List<SentRequest> extendedRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Requests closed or with the expiration brought forward, notified from any thread */
+    private final ManyToOneConcurrentArrayQueue<SentRequest> changedRequestsQueue = new ManyToOneConcurrentArrayQueue<>(MAX_CHANGED_REQUESTS);
+
+    /** Changed requests taken in the current iteration, only accessed from the task thread */
+    private final List<SentRequest> changedRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Changed requests that have been closed, only accessed from the task thread */
+    private final List<SentRequest> closedRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Changed requests to schedule again for the new expiration, only accessed from the task thread */
+    private final List<SentRequest> rescheduledRequests = new ArrayList<>(DUE_REQUESTS_CAPACITY);
+
+    /** Lock for the maps and the timing wheel, the request listeners are never called holding it */
+    private final Object lock = new Object();
 
     /**
-     * Constructor of a request sync manager
+     * Constructor of a request sync manager, it is started in its own thread
      *
      * @param instanceId unique ID of the library instance
      */
     public AsyncRequestManager(final UUID instanceId)
     {
-        // 1 millisecond of idle strategy, request timeout is not considered part of the critical path
-        super(new SleepingMillisIdleStrategy(1));
-        this.start("AsyncRequestManager_" + instanceId);
+        this(instanceId, TasksRunner.dedicated(), DEFAULT_TIMEOUT_TICK_MILLIS);
+    }
+
+    /**
+     * Constructor of a request sync manager
+     *
+     * @param instanceId unique ID of the library instance
+     * @param tasksRunner runner of the background tasks of the instance
+     * @param timeoutTickMillis tick resolution of the request timeouts in milliseconds, it should be a power of 2
+     */
+    public AsyncRequestManager(final UUID instanceId, final TasksRunner tasksRunner, final int timeoutTickMillis)
+    {
+        // Sleep a tick of idle strategy, request timeout is not considered part of the critical path
+        super(new SleepingMillisIdleStrategy(timeoutTickMillis));
+
+        this.requestsPool = new SentRequestsPool(instanceId);
+        this.timerWheel = new DeadlineTimerWheel(TimeUnit.MILLISECONDS, System.currentTimeMillis(), timeoutTickMillis, TICKS_PER_WHEEL);
+
+        tasksRunner.start(this, "AsyncRequestManager_" + instanceId);
     }
 
     @Override
     public int action()
     {
-        this.numActionsInIteration.set(0);
+        final long now = System.currentTimeMillis();
+
+        // Get the due requests, the wheel advances a single tick on each poll
+        synchronized (this.lock)
+        {
+            do
+            {
+                this.timerWheel.poll(now, this.timerHandler, Integer.MAX_VALUE);
+            }
+            while (now >= this.timerWheel.currentTickTime());
+        }
+
+        // Get the requests closed or with the expiration brought forward since the last iteration
+        this.changedRequestsQueue.drain(this.changedRequests::add);
+
+        if (this.dueRequests.isEmpty() && this.changedRequests.isEmpty())
+        {
+            return 0;
+        }
+
+        final int numActions = this.dueRequests.size() + this.changedRequests.size();
+
+        try
+        {
+            this.processDueAndChangedRequests(now);
+        }
+        finally
+        {
+            // Always cleared, a failure must not make the next iterations process the same requests again
+            this.dueRequests.clear();
+            this.removedRequests.clear();
+            this.extendedRequests.clear();
+            this.changedRequests.clear();
+            this.closedRequests.clear();
+            this.rescheduledRequests.clear();
+        }
+
+        return numActions;
+    }
+
+    /**
+     * Process the due and changed requests of the current iteration. The due requests still active are scheduled again, the
+     * changed ones are removed if closed or scheduled again for the new expiration, the rest expire.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void processDueAndChangedRequests(final long now)
+    {
+        // Check them outside the manager lock, the requests have their own lock
+        for (int i = 0; i < this.dueRequests.size(); i++)
+        {
+            final SentRequest request = this.dueRequests.get(i);
 
-        // Check expiration for each active sent request
-        this.sentRequestsById.forEach((id, request) ->
+            if (!request.isClosed() && request.getExpirationTime() > now)
+            {
+                this.extendedRequests.add(request);
+            }
+            else
+            {
+                this.removedRequests.add(request);
+            }
+        }
+
+        for (int i = 0; i < this.changedRequests.size(); i++)
         {
-            // Check should stop to avoid processing new requests if stopping
-            if (!this.shouldStop())
+            final SentRequest request = this.changedRequests.get(i);
+
+            if (request.isClosed())
+            {
+                this.closedRequests.add(request);
+            }
+            else
+            {
+                this.rescheduledRequests.add(request);
+            }
+        }
+
+        synchronized (this.lock)
+        {
+            for (int i = 0; i < this.removedRequests.size(); i++)
+            {
+                this.removeFromIdMap(this.removedRequests.get(i));
+            }
+
+            for (int i = 0; i < this.extendedRequests.size(); i++)
+            {
+                this.scheduleTimer(this.extendedRequests.get(i));
+            }
+
+            // The changed requests may have been removed already when due
+            for (int i = 0; i < this.closedRequests.size(); i++)
             {
-                if (request.isClosed())
+                final SentRequest request = this.closedRequests.get(i);
+
+                if (this.cancelTimer(request))
                 {
-                    this.sentRequestsById.remove(request.getRequestId());
-                    this.numActionsInIteration.getAndIncrement();
+                    this.removeFromIdMap(request);
+                    this.removedRequests.add(request);
                 }
-                else if (request.hasExpired())
+            }
+
+            for (int i = 0; i < this.rescheduledRequests.size(); i++)
+            {
+                final SentRequest request = this.rescheduledRequests.get(i);
+
+                if (this.cancelTimer(request))
                 {
-                    this.sentRequestsById.remove(request.getRequestId());
-                    request.onRequestTimeout();
-                    this.numActionsInIteration.getAndIncrement();
+                    this.scheduleTimer(request);
                 }
             }
-        });
+        }
 
-        return this.numActionsInIteration.get();
+        // Notify the timeouts, it does nothing for the closed requests, and release them
+        for (int i = 0; i < this.removedRequests.size(); i++)
+        {
+            final SentRequest request = this.removedRequests.get(i);
+            request.onRequestTimeout();
+            request.removeReference();
+        }
     }
 
     @Override
     public void cleanUp()
     {
-        // Close all pending requests
-        this.sentRequestsById.values().forEach(SentRequest::closeRequest);
-        this.sentRequestsById.clear();
+        synchronized (this.lock)
+        {
+            this.removedRequests.addAll(this.sentRequestsById.values());
+            this.sentRequestsById.clear();
+            this.sentRequestsByTimerId.clear();
+        }
+
+        this.changedRequestsQueue.clear();
+
+        // Close and release all pending requests, the futures waiting for a response are completed
+        for (int i = 0; i < this.removedRequests.size(); i++)
+        {
+            final SentRequest request = this.removedRequests.get(i);
+            request.onRequestCancelled();
+            request.removeReference();
+        }
+
+        this.removedRequests.clear();
+    }
+
+    /**
+     * Create a new request with a new request id, the request is reused from the pool of the instance if possible
+     *
+     * @param topicName the topicName the request belong to
+     * @param timeout timeout for the request expiration
+     * @param responseListener listener for responses
+     * @return the created request
+     */
+    public SentRequest createRequest(final String topicName, final long timeout, final IResponseListener responseListener)
+    {
+        return this.requestsPool.acquire(topicName, timeout, responseListener);
     }
 
     /**
@@ -79,7 +278,21 @@ public class AsyncRequestManager extends RecurrentTask
      */
     public void addNewRequest(final SentRequest request)
     {
-        this.sentRequestsById.put(request.getRequestId(), request);
+        // Hold the request while active and track the changes of its expiration
+        request.addReference();
+        request.setChangesListener(this);
+
+        synchronized (this.lock)
+        {
+            final SentRequest previous = this.sentRequestsById.put(request.getRequestIdLsb(), request);
+
+            if (previous != null)
+            {
+                log.warn("Request id [{}] collides with active request id [{}], no more responses will be processed for the active one", request.getRequestId(), previous.getRequestId());
+            }
+
+            this.scheduleTimer(request);
+        }
     }
 
     /**
@@ -88,15 +301,94 @@ public class AsyncRequestManager extends RecurrentTask
      */
     public void processResponse(final RcvResponse response)
     {
+        final long originalRequestIdMsb = response.getOriginalRequestIdMsb();
+        final long originalRequestIdLsb = response.getOriginalRequestIdLsb();
+
         // Find the request for the received response
-        final SentRequest sentRequest = this.sentRequestsById.get(response.getOriginalRequestId());
+        final SentRequest sentRequest;
+        synchronized (this.lock)
+        {
+            sentRequest = this.sentRequestsById.get(originalRequestIdLsb);
+        }
 
+        // Notify the listener, the request checks the full id, it may have been reused after looking for it
         if (sentRequest != null)
         {
-            // Set the topic name
-            response.setTopicName(sentRequest.getTopicName());
-            // Notify the listener
-            sentRequest.onResponseReceived(response);
+            sentRequest.onResponseReceived(originalRequestIdMsb, originalRequestIdLsb, response);
+        }
+    }
+
+    @Override
+    public void onRequestChanged(final SentRequest request)
+    {
+        // If full it is processed when due
+        this.changedRequestsQueue.offer(request);
+    }
+
+    /**
+     * Schedule the timer of a request for its current expiration time, it should be called holding the lock
+     *
+     * @param request the request to schedule
+     */
+    private void scheduleTimer(final SentRequest request)
+    {
+        final long timerId = this.timerWheel.scheduleTimer(request.getExpirationTime());
+        request.setTimerId(timerId);
+        this.sentRequestsByTimerId.put(timerId, request);
+    }
+
+    /**
+     * Cancel the timer of a request, it should be called holding the lock
+     *
+     * @param request the request
+     * @return true if cancelled, false if the request has no scheduled timer
+     */
+    private boolean cancelTimer(final SentRequest request)
+    {
+        final long timerId = request.getTimerId();
+
+        if (this.sentRequestsByTimerId.get(timerId) != request)
+        {
+            return false;
         }
+
+        this.sentRequestsByTimerId.remove(timerId);
+        this.timerWheel.cancelTimer(timerId);
+        return true;
+    }
+
+    /**
+     * Remove a request from the map of requests by id, unless the id is used by another request. It should be called holding the lock.
+     *
+     * @param request the request to remove
+     */
+    private void removeFromIdMap(final SentRequest request)
+    {
+        final long key = request.getRequestIdLsb();
+
+        if (this.sentRequestsById.get(key) == request)
+        {
+            this.sentRequestsById.remove(key);
+        }
+    }
+
+    /**
+     * Called by the timing wheel holding the lock when the timer of a request is due
+     *
+     * @param timeUnit time unit of the wheel
+     * @param now current time
+     * @param timerId id of the due timer
+     * @return true to consume the timer
+     */
+    private boolean onTimerExpiry(final TimeUnit timeUnit, final long now, final long timerId)
+    {
+        final SentRequest request = this.sentRequestsByTimerId.remove(timerId);
+
+        if (request != null)
+        {
+            this.dueRequests.add(request);
+        }
+
+        return true;
     }
 }
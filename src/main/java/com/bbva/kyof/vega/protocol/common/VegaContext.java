@@ -2,7 +2,12 @@ package com.bbva.kyof.vega.protocol.common;
 
 import com.bbva.kyof.vega.autodiscovery.IAutodiscManager;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.PollingModeType;
+import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.config.general.ThreadingConfig;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.collection.DirectBufferPool;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
 import io.aeron.Aeron;
 import lombok.Getter;
 import lombok.Setter;
@@ -34,6 +39,12 @@ public class VegaContext
     /** Asynchronous request manager */
     @Getter @Setter private AsyncRequestManager asyncRequestManager;
 
+    /** Pool of off-heap buffers to stage the messages that cannot be written directly in the transport */
+    @Getter private final DirectBufferPool directBufferPool = new DirectBufferPool();
+
+    /** Runner of the background tasks of the instance following the threading configuration */
+    @Getter private final TasksRunner tasksRunner;
+
     /** Security context */
     @Getter private VegaSecurityContext securityContext = null;
 
@@ -46,6 +57,69 @@ public class VegaContext
     {
         this.aeron = aeron;
         this.instanceConfig = instanceConfig;
+        this.tasksRunner = createTasksRunner(instanceConfig == null ? null : instanceConfig.getThreadingConfig(), this.instanceUniqueId);
+    }
+
+    /**
+     * Create the runner of the background tasks for the threading configuration
+     *
+     * @param threadingConfig the threading configuration, if null each task has its own thread
+     * @param instanceUniqueId unique id of the instance, used for the name of the threads
+     * @return the created runner
+     */
+    private static TasksRunner createTasksRunner(final ThreadingConfig threadingConfig, final UUID instanceUniqueId)
+    {
+        if (threadingConfig == null || threadingConfig.getThreadingMode() == null)
+        {
+            return TasksRunner.dedicated();
+        }
+
+        switch (threadingConfig.getThreadingMode())
+        {
+            case SHARED:
+                return TasksRunner.shared(threadingConfig.getSharedThreads(), "VegaSharedThread_" + instanceUniqueId);
+            case INVOKER:
+                return TasksRunner.invoker();
+            default:
+                return TasksRunner.dedicated();
+        }
+    }
+
+    /**
+     * Check if a thread can block waiting for the response of a request. The responses are only received while the responses poller
+     * is polled, if it is polled by the application or the instance runs the tasks in INVOKER threading mode the waiting thread may
+     * be the one that should poll it and the wait would always end with a timeout.
+     *
+     * @throws VegaException exception thrown if the responses poller has APPLICATION polling mode or the threading mode is INVOKER
+     */
+    public void checkSyncRequestsSupported() throws VegaException
+    {
+        if (this.tasksRunner.isInvoker())
+        {
+            throw new VegaException("Synchronous requests are not supported with INVOKER threading mode, use asynchronous requests");
+        }
+
+        if (this.instanceConfig == null || this.instanceConfig.getResponsesConfig() == null)
+        {
+            return;
+        }
+
+        final String responsesPoller = this.instanceConfig.getResponsesConfig().getRcvPoller();
+        final RcvPollerConfig pollerConfig = this.instanceConfig.getPollerConfigForPollerName(responsesPoller);
+
+        if (pollerConfig != null && pollerConfig.getPollingMode() == PollingModeType.APPLICATION)
+        {
+            throw new VegaException("Synchronous requests are not supported if the responses poller " + responsesPoller +
+                    " has APPLICATION polling mode, use asynchronous requests");
+        }
+    }
+
+    /**
+     * Stop the shared threads of the background tasks, the tasks should have been closed before
+     */
+    public void stopTasksRunner()
+    {
+        this.tasksRunner.close();
     }
 
     /**
@@ -122,14 +122,17 @@ public class VegaSecurityContext
             throw new VegaException("EncryptedKeyFile selected in the security parameters, but the private key file is not encrypted");
         }
 
+        // The algorithm of the key is in the key file, RSA by default
+        final String keyAlgorithm = privateKeyConfig.getKeyAlgorithm().getStringValue();
+
         // Convert the private key depending on encryption parameter
         if (securityParams.getKeySecurityType() == KeySecurityType.ENCRYPTED_KEY_FILE)
         {
-            return RSAKeysHelper.loadEncryptedPrivateKey(privateKeyConfig.getValue(), securityParams.getHexPrivateKeyPassword());
+            return RSAKeysHelper.loadEncryptedPrivateKey(privateKeyConfig.getValue(), keyAlgorithm, securityParams.getHexPrivateKeyPassword());
         }
         else
         {
-            return RSAKeysHelper.loadPrivateKey(privateKeyConfig.getValue());
+            return RSAKeysHelper.loadPrivateKey(privateKeyConfig.getValue(), keyAlgorithm);
         }
     }
 
@@ -150,8 +153,8 @@ public class VegaSecurityContext
         {
             // Load key configuration
             final PublicKeyConfig publicKeyConfig = PublicKeyConfigReader.readConfiguration(keysDir, securityId);
-            // Create and put the public RSA key
-            result.put(securityId, RSAKeysHelper.loadPublicKey(publicKeyConfig.getValue()));
+            // Create and put the public key with the algorithm of the key file
+            result.put(securityId, RSAKeysHelper.loadPublicKey(publicKeyConfig.getValue(), publicKeyConfig.getKeyAlgorithm().getStringValue()));
         }
 
         return result;
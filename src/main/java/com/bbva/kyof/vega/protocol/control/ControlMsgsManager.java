@@ -3,6 +3,7 @@ package com.bbva.kyof.vega.protocol.control;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscInstanceInfo;
 import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscInstanceListener;
 import com.bbva.kyof.vega.config.general.ControlRcvConfig;
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import com.bbva.kyof.vega.util.net.InetUtil;
@@ -15,7 +16,7 @@ import java.io.Closeable;
  * the control messages.
  */
 @Slf4j
-public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
+public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener, IRetransmitRequestListener
 {
     /** Vega library isntance context */
     private final VegaContext vegaContext;
@@ -35,6 +36,12 @@ public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
     /** Requester to perform security requests, process the responses and store the security information */
     private final SecurityRequester securityRequester;
 
+    /** Requester to send the retransmission requests of the topic subscribers */
+    private final RetransmitRequester retransmitRequester;
+
+    /** Listener for the retransmission requests received for the own topic publishers, null until settled */
+    private volatile IRetransmitRequestListener retransmitRequestListener = null;
+
     /** Lock for the class */
     private final Object lock = new Object();
 
@@ -62,9 +69,12 @@ public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
         // Create the security requester
         this.securityRequester = new SecurityRequester(this.vegaContext, this.controlPublishers);
 
+        // Create the retransmission requester
+        this.retransmitRequester = new RetransmitRequester(this.vegaContext, this.controlPublishers);
+
         // Create the poller for control messages
-        this.rcvPoller = new ControlMsgsPoller(this.controlSubscriber, this.securityRequestsRcvHandler, this.securityRequester, this.vegaContext.getInstanceUniqueId());
-        this.rcvPoller.start();
+        this.rcvPoller = new ControlMsgsPoller(this.controlSubscriber, this.securityRequestsRcvHandler, this.securityRequester, this, this.vegaContext.getInstanceUniqueId());
+        this.rcvPoller.start(this.vegaContext.getTasksRunner());
 
         // Subscribe to instance info changes
         this.vegaContext.getAutodiscoveryManager().subscribeToInstances(this);
@@ -128,6 +138,28 @@ public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
         }
     }
 
+    @Override
+    public void onRetransmitRequestReceived(final MsgRetransmitReq retransmitReq)
+    {
+        final IRetransmitRequestListener listener = this.retransmitRequestListener;
+
+        // The listener may not be settled yet during the instance creation
+        if (listener != null)
+        {
+            listener.onRetransmitRequestReceived(retransmitReq);
+        }
+    }
+
+    /**
+     * Set the listener that will process the retransmission requests received for the own topic publishers
+     *
+     * @param listener the listener for retransmission requests
+     */
+    public void setRetransmitRequestListener(final IRetransmitRequestListener listener)
+    {
+        this.retransmitRequestListener = listener;
+    }
+
     /**
      * Create the aeron control subscriber that will listen for control messages
      * @return the created subscriber
@@ -191,4 +223,13 @@ public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
     {
          return this.securityRequester;
     }
+
+    /**
+     * Return the requester to ask the topic publishers for the retransmission of lost messages
+     * @return the requester for retransmissions
+     */
+    public IRetransmitRequester getRetransmitRequester()
+    {
+        return this.retransmitRequester;
+    }
 }
@@ -4,6 +4,7 @@ import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
 import io.aeron.FragmentAssembler;
 import io.aeron.logbuffer.Header;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,15 @@ class ControlMsgsPoller extends RecurrentTask
     /** Reusable security error response message */
     private final MsgSecurityErrorResp reusableSecurityErrorResp = new MsgSecurityErrorResp();
 
+    /** Reusable batch security request message */
+    private final MsgSecurityBatchReq reusableSecurityBatchReq = new MsgSecurityBatchReq();
+
+    /** Reusable batch security response message */
+    private final MsgSecurityBatchResp reusableSecurityBatchResp = new MsgSecurityBatchResp();
+
+    /** Reusable retransmission request message */
+    private final MsgRetransmitReq reusableRetransmitReq = new MsgRetransmitReq();
+
     /** Reusable buffer serializer */
     private final UnsafeBufferSerializer bufferSerializer = new UnsafeBufferSerializer();
 
@@ -47,6 +57,9 @@ class ControlMsgsPoller extends RecurrentTask
     /** Listener for received security responses */
     private final ISecurityResponseListener secRespListener;
 
+    /** Listener for received retransmission requests */
+    private final IRetransmitRequestListener retransmitReqListener;
+
     /** Store the vega instance id the poller belongs to */
     private final UUID ownInstanceId;
 
@@ -56,26 +69,42 @@ class ControlMsgsPoller extends RecurrentTask
      * @param subscriber subscriber that will receive the control messages
      * @param secReqListener listener that will process the security requests messages
      * @param secRespListener listener that will process the security response messages
+     * @param retransmitReqListener listener that will process the retransmission request messages
      * @param ownInstanceId the instance id of the vega instance the poller belongs to
      */
-    ControlMsgsPoller(final ControlSubscriber subscriber, final ISecurityRequestListener secReqListener, final ISecurityResponseListener secRespListener, final UUID ownInstanceId)
+    ControlMsgsPoller(final ControlSubscriber subscriber,
+                      final ISecurityRequestListener secReqListener,
+                      final ISecurityResponseListener secRespListener,
+                      final IRetransmitRequestListener retransmitReqListener,
+                      final UUID ownInstanceId)
     {
         // 1 Millisecond idle strategy, the control messages are not in the critical path
         super(new SleepingMillisIdleStrategy(1));
         this.subscriber = subscriber;
         this.secReqListener = secReqListener;
         this.secRespListener = secRespListener;
+        this.retransmitReqListener = retransmitReqListener;
         this.ownInstanceId = ownInstanceId;
         this.fragmentAssembler = new FragmentAssembler(this::processAeronMsg);
     }
 
     /**
-     * Start the poller
+     * Start the poller in its own thread
      */
     void start()
+    {
+        this.start(TasksRunner.dedicated());
+    }
+
+    /**
+     * Start the poller
+     *
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    void start(final TasksRunner tasksRunner)
     {
         log.info("Starting control messages poller for instance {}", this.ownInstanceId);
-        this.start("ControlMsgsPoller_" + this.ownInstanceId);
+        tasksRunner.start(this, "ControlMsgsPoller_" + this.ownInstanceId);
     }
 
     @Override
@@ -127,6 +156,15 @@ class ControlMsgsPoller extends RecurrentTask
                 case MsgType.CONTROL_SECURITY_ERROR_RESP:
                     this.processSecurityErrorResp();
                     break;
+                case MsgType.CONTROL_SECURITY_BATCH_REQ:
+                    this.processSecurityBatchReq();
+                    break;
+                case MsgType.CONTROL_SECURITY_BATCH_RESP:
+                    this.processSecurityBatchResp();
+                    break;
+                case MsgType.CONTROL_RETRANSMIT_REQ:
+                    this.processRetransmitReq();
+                    break;
                 default:
                     log.warn("Unexpected message type received [{}], control message expected", this.reusableBaseHeader.getMsgType());
                     break;
@@ -200,4 +238,67 @@ class ControlMsgsPoller extends RecurrentTask
         // Notify the listener
         this.secRespListener.onSecurityErrorResponseReceived(this.reusableSecurityErrorResp);
     }
+
+    /** Process a batch security request whose content is already in the reusable buffer and whose header has been processed */
+    private void processSecurityBatchReq()
+    {
+        // Extract the message
+        this.reusableSecurityBatchReq.fromBinary(this.bufferSerializer);
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Batch security request message received. {}", this.reusableSecurityBatchReq);
+        }
+
+        // Verify that the message is for the current instance, ignore in other case
+        if (!this.reusableSecurityBatchReq.getTargetVegaInstanceId().equals(this.ownInstanceId))
+        {
+            return;
+        }
+
+        // Notify the listener
+        this.secReqListener.onSecurityBatchRequestReceived(this.reusableSecurityBatchReq);
+    }
+
+    /** Process a batch security response whose content is already in the reusable buffer and whose header has been processed */
+    private void processSecurityBatchResp()
+    {
+        // Extract the message
+        this.reusableSecurityBatchResp.fromBinary(this.bufferSerializer);
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Batch security response message received. {}", this.reusableSecurityBatchResp);
+        }
+
+        // Verify that the message is for the current instance, ignore in other case
+        if (!this.reusableSecurityBatchResp.getTargetVegaInstanceId().equals(this.ownInstanceId))
+        {
+            return;
+        }
+
+        // Notify the listener
+        this.secRespListener.onSecurityBatchResponseReceived(this.reusableSecurityBatchResp);
+    }
+
+    /** Process a retransmission request whose content is already in the reusable buffer and whose header has been processed */
+    private void processRetransmitReq()
+    {
+        // Extract the message
+        this.reusableRetransmitReq.fromBinary(this.bufferSerializer);
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Retransmission request message received. {}", this.reusableRetransmitReq);
+        }
+
+        // Verify that the message is for the current instance, ignore in other case
+        if (!this.reusableRetransmitReq.getTargetVegaInstanceId().equals(this.ownInstanceId))
+        {
+            return;
+        }
+
+        // Notify the listener
+        this.retransmitReqListener.onRetransmitRequestReceived(this.reusableRetransmitReq);
+    }
 }
@@ -26,8 +26,8 @@ import java.nio.ByteBuffer;
 @Slf4j
 class ControlPublisher implements Closeable
 {
-    /** Buffer size, should be more than enough fort he control messages */
-    private static final int WRITE_BUFFER_SIZE = 1024;
+    /** Max size of the contents of a control message, the biggest ones are the security batch responses */
+    static final int MAX_MSG_SIZE = 64 * 1024;
 
     /** Aeron publication */
     private final Publication publication;
@@ -68,8 +68,8 @@ class ControlPublisher implements Closeable
         // Create the aeron publisher
         this.publication = vegaContext.getAeron().addPublication(publicationChannel, params.getStreamId());
 
-        // Prepare the reusable send buffer
-        this.unsafeSerializer.wrap(ByteBuffer.allocate(WRITE_BUFFER_SIZE));
+        // Prepare the reusable send buffer, big enough for the header and the biggest message
+        this.unsafeSerializer.wrap(ByteBuffer.allocate(this.reusableBaseHeader.serializedSize() + MAX_MSG_SIZE));
     }
 
     @Override
@@ -110,7 +110,7 @@ class ControlPublisher implements Closeable
      * @param offset where the message starts in the buffer
      * @param length the lenght of the message
      *               
-     * @return the result of the sending process
+     * @return the result of the sending process, UNEXPECTED_ERROR if the message is bigger than {@link #MAX_MSG_SIZE}
      */
     public PublishResult sendMessage(final byte msgType, final DirectBuffer message, final int offset, final int length)
     {
@@ -122,6 +122,13 @@ class ControlPublisher implements Closeable
                 return PublishResult.OK;
             }
 
+            // It would not fit in the send buffer
+            if (length > MAX_MSG_SIZE)
+            {
+                log.error("Control message of type [{}] with size [{}] bigger than the max size [{}], it won't be sent", MsgType.toString(msgType), length, MAX_MSG_SIZE);
+                return PublishResult.UNEXPECTED_ERROR;
+            }
+
             // Set the message type in the base header
             this.reusableBaseHeader.setMsgType(msgType);
 
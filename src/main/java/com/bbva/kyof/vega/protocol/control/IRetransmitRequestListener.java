@@ -0,0 +1,16 @@
+package com.bbva.kyof.vega.protocol.control;
+
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
+
+/**
+ * Listener to implement in order to listen to retransmission request messages for the own topic publishers
+ */
+public interface IRetransmitRequestListener
+{
+    /**
+     * Called when a new retransmission request is received
+     *
+     * @param retransmitReq the retransmission request message
+     */
+    void onRetransmitRequestReceived(MsgRetransmitReq retransmitReq);
+}
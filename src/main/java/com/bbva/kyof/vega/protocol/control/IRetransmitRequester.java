@@ -0,0 +1,44 @@
+package com.bbva.kyof.vega.protocol.control;
+
+import java.util.UUID;
+
+/**
+ * Interface implemented by the retransmission requester. It is used by the topic subscribers to ask a topic publisher for the
+ * messages lost in a gap of sequence numbers, for the replay of the messages stored in the journal of a durable topic, or for the
+ * snapshot of the last value cache of the topic publisher.
+ */
+public interface IRetransmitRequester
+{
+    /**
+     * Send a retransmission request to the instance that owns the topic publisher
+     *
+     * @param publisherInstanceId the unique instance id the topic publisher belongs to
+     * @param topicPublisherId the unique id of the topic publisher
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber sequence number of the last lost message, inclusive
+     * @return true if the request has been sent
+     */
+    boolean requestRetransmit(UUID publisherInstanceId, UUID topicPublisherId, long firstSequenceNumber, long lastSequenceNumber);
+
+    /**
+     * Send a replay request to the instance that owns the topic publisher, the messages are read from the journal of the topic publisher
+     *
+     * @param publisherInstanceId the unique instance id the topic publisher belongs to
+     * @param topicPublisherId the unique id of the topic publisher
+     * @param firstSequenceNumber sequence number of the first message to replay
+     * @param lastSequenceNumber sequence number of the last message to replay, inclusive. {@link com.bbva.kyof.vega.msg.MsgRetransmitReq#OPEN_END}
+     *                           to replay up to the last message sent by the topic publisher
+     * @return true if the request has been sent
+     */
+    boolean requestReplay(UUID publisherInstanceId, UUID topicPublisherId, long firstSequenceNumber, long lastSequenceNumber);
+
+    /**
+     * Send a snapshot request to the instance that owns the topic publisher, the last message of each key is sent from its last value
+     * cache followed by the end of the snapshot
+     *
+     * @param publisherInstanceId the unique instance id the topic publisher belongs to
+     * @param topicPublisherId the unique id of the topic publisher
+     * @return true if the request has been sent
+     */
+    boolean requestSnapshot(UUID publisherInstanceId, UUID topicPublisherId);
+}
@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.control;
 
+import com.bbva.kyof.vega.msg.MsgSecurityBatchReq;
 import com.bbva.kyof.vega.msg.MsgSecurityReq;
 
 /**
@@ -13,4 +14,11 @@ interface ISecurityRequestListener
      * @param securityReq the security request message
      */
     void onSecurityRequestReceived(MsgSecurityReq securityReq);
+
+    /**
+     * Called when a new batch security request is received
+     *
+     * @param batchSecurityReq the batch security request message
+     */
+    void onSecurityBatchRequestReceived(MsgSecurityBatchReq batchSecurityReq);
 }
@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.control;
 
+import com.bbva.kyof.vega.msg.MsgSecurityBatchResp;
 import com.bbva.kyof.vega.msg.MsgSecurityErrorResp;
 import com.bbva.kyof.vega.msg.MsgSecurityResp;
 
@@ -21,4 +22,11 @@ interface ISecurityResponseListener
      * @param errorResponseMsg the security error response message
      */
     void onSecurityErrorResponseReceived(MsgSecurityErrorResp errorResponseMsg);
+
+    /**
+     * Called when a new batch security response is received
+     *
+     * @param batchResponseMsg the batch security response message
+     */
+    void onSecurityBatchResponseReceived(MsgSecurityBatchResp batchResponseMsg);
 }
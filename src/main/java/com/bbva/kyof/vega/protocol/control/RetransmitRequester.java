@@ -0,0 +1,119 @@
+package com.bbva.kyof.vega.protocol.control;
+
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Sends the retransmission, replay and snapshot requests of the topic subscribers to the instances that own the topic publishers through
+ * the control publishers. <p>
+ *
+ * This class is thread safe!!
+ */
+@Slf4j
+class RetransmitRequester implements IRetransmitRequester
+{
+    /** Stores all the control publishers to send requests to other instances */
+    private final ControlPublishers controlPublishers;
+
+    /** Reusable buffer serializer for the requests */
+    private final UnsafeBufferSerializer requestBufferSerializer = new UnsafeBufferSerializer();
+
+    /** Reusable retransmission request message */
+    private final MsgRetransmitReq reusableRetransmitReq = new MsgRetransmitReq();
+
+    /** Lock for instance synchronization */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new retransmission requester
+     *
+     * @param vegaContext the vega instance context
+     * @param controlPublishers the list of control publishers
+     */
+    RetransmitRequester(final VegaContext vegaContext, final ControlPublishers controlPublishers)
+    {
+        this.controlPublishers = controlPublishers;
+
+        // Our own instance id never changes
+        this.reusableRetransmitReq.setInstanceId(vegaContext.getInstanceUniqueId());
+
+        // Prepare the serialize buffer
+        this.requestBufferSerializer.wrap(ByteBuffer.allocate(this.reusableRetransmitReq.serializedSize()));
+    }
+
+    @Override
+    public boolean requestRetransmit(final UUID publisherInstanceId, final UUID topicPublisherId, final long firstSequenceNumber, final long lastSequenceNumber)
+    {
+        return this.sendRequest(publisherInstanceId, topicPublisherId, firstSequenceNumber, lastSequenceNumber, MsgRetransmitReq.RETRANSMIT);
+    }
+
+    @Override
+    public boolean requestReplay(final UUID publisherInstanceId, final UUID topicPublisherId, final long firstSequenceNumber, final long lastSequenceNumber)
+    {
+        return this.sendRequest(publisherInstanceId, topicPublisherId, firstSequenceNumber, lastSequenceNumber, MsgRetransmitReq.REPLAY);
+    }
+
+    @Override
+    public boolean requestSnapshot(final UUID publisherInstanceId, final UUID topicPublisherId)
+    {
+        return this.sendRequest(publisherInstanceId, topicPublisherId, 0, 0, MsgRetransmitReq.SNAPSHOT);
+    }
+
+    /**
+     * Send a retransmission, replay or snapshot request to the instance that owns the topic publisher
+     *
+     * @param publisherInstanceId the unique instance id the topic publisher belongs to
+     * @param topicPublisherId the unique id of the topic publisher
+     * @param firstSequenceNumber sequence number of the first requested message
+     * @param lastSequenceNumber sequence number of the last requested message, inclusive
+     * @param requestType the type of the request, {@link MsgRetransmitReq#RETRANSMIT}, {@link MsgRetransmitReq#REPLAY} or {@link MsgRetransmitReq#SNAPSHOT}
+     * @return true if the request has been sent
+     */
+    private boolean sendRequest(final UUID publisherInstanceId,
+                                final UUID topicPublisherId,
+                                final long firstSequenceNumber,
+                                final long lastSequenceNumber,
+                                final byte requestType)
+    {
+        final ControlPublisher publisher = this.controlPublishers.getControlPublisherForInstance(publisherInstanceId);
+
+        // There is no publisher, maybe the instance information has not arrived yet
+        if (publisher == null)
+        {
+            log.warn("Trying to send a retransmission request, but the control publisher is not ready for the instance [{}]", publisherInstanceId);
+            return false;
+        }
+
+        synchronized (this.lock)
+        {
+            // Prepare the message fields
+            this.reusableRetransmitReq.setTargetVegaInstanceId(publisherInstanceId);
+            this.reusableRetransmitReq.setTopicPublisherId(topicPublisherId);
+            this.reusableRetransmitReq.setFirstSequenceNumber(firstSequenceNumber);
+            this.reusableRetransmitReq.setLastSequenceNumber(lastSequenceNumber);
+            this.reusableRetransmitReq.setRequestType(requestType);
+
+            // Serialize the message
+            this.requestBufferSerializer.setOffset(0);
+            this.reusableRetransmitReq.toBinary(this.requestBufferSerializer);
+
+            // Send the message
+            final PublishResult sendResult = publisher.sendMessage(
+                    MsgType.CONTROL_RETRANSMIT_REQ, this.requestBufferSerializer.getInternalBuffer(), 0, this.requestBufferSerializer.getOffset());
+
+            if (log.isDebugEnabled())
+            {
+                log.debug("Retransmission request sent with result {}. {}", sendResult, this.reusableRetransmitReq);
+            }
+
+            return sendResult == PublishResult.OK;
+        }
+    }
+}
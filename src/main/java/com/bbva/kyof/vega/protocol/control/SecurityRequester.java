@@ -22,6 +22,10 @@ import java.util.*;
  *
  * Also handles the sending of requests to obtain the security information when a new publisher that has security is discovered
  * with the auto-discovery mechanism.
+ *
+ * The requests are aggregated by the instance the topic publishers belong to. A single timer task sends one signed batch request
+ * per instance with all its topic publishers still pending, the new topic publishers are requested on the next check and all the
+ * pending ones are requested again on each request interval until the batch response arrives.
  */
 @Slf4j
 class SecurityRequester implements
@@ -30,6 +34,12 @@ class SecurityRequester implements
         ISecuredMsgsDecoder,
         Closeable
 {
+    /** Period in milliseconds of the checks for pending requests to send */
+    private static final long REQUESTS_CHECK_PERIOD = 10;
+
+    /** Size of the buffer to serialize the batch requests, enough for the max number of topic publishers with 4096 bits RSA keys */
+    private static final int BATCH_REQ_BUFFER_SIZE = 4096;
+
     /** Random number generator to generate request id's */
     private final Random rnd = new Random(System.nanoTime());
 
@@ -39,6 +49,9 @@ class SecurityRequester implements
     /** Map that stores all the publisher topic security info's stored by topic publisher id */
     private final Map<UUID, TopicPubSecurityInfo> securityInfoByTopicPubId = new HashMap<>();
 
+    /** Topic publisher security info's that have not been retrieved yet, grouped by the instance they belong to */
+    private final Map<UUID, InstancePendingRequests> pendingRequestsByInstance = new HashMap<>();
+
     /** Timer used to schedule the sending of new security requests */
     private final Timer securityRequestsTimer;
 
@@ -48,8 +61,8 @@ class SecurityRequester implements
     /** Reusable buffer serializer to minimize memory creation during responses */
     private final UnsafeBufferSerializer requestBufferSerializer = new UnsafeBufferSerializer();
 
-    /** Reusable security request message to save memory space */
-    private final MsgSecurityReq reusableSecurityReqMsg = new MsgSecurityReq();
+    /** Reusable batch security request message to save memory space */
+    private final MsgSecurityBatchReq reusableSecurityBatchReqMsg = new MsgSecurityBatchReq();
 
     /** Our own instance security id */
     private final int ownSecurityId;
@@ -79,11 +92,15 @@ class SecurityRequester implements
         this.ownSecurityId = vegaContext.getSecurityContext().getSecurityId();
         this.rsaCrypto = vegaContext.getSecurityContext().getRsaCrypto();
 
-        // Set our security id in the reusable message since it will never change
-        this.reusableSecurityReqMsg.setSenderSecurityId(this.ownSecurityId);
+        // Set our ids in the reusable message since they will never change
+        this.reusableSecurityBatchReqMsg.setInstanceId(this.ownInstanceId);
+        this.reusableSecurityBatchReqMsg.setSenderSecurityId(this.ownSecurityId);
 
         // Prepare the serialize buffer
-        this.requestBufferSerializer.wrap(ByteBuffer.allocate(1024));
+        this.requestBufferSerializer.wrap(ByteBuffer.allocate(BATCH_REQ_BUFFER_SIZE));
+
+        // Schedule the single task that sends the pending requests
+        this.securityRequestsTimer.scheduleAtFixedRate(new PendingRequestsSenderTask(), 0, REQUESTS_CHECK_PERIOD);
     }
 
     @Override
@@ -96,8 +113,8 @@ class SecurityRequester implements
             {
                 this.securityInfoByTopicPubId.remove(pendingSecurityInfo.getPublisherTopicId());
 
-                // Cancel the task, it will be ignored if already cancelled
-                this.cancelRequestSecurityInfoTask(pendingSecurityInfo);
+                // Stop requesting it, it will be ignored if already stopped
+                this.stopRequestingSecurityInfo(pendingSecurityInfo);
             });
         }
     }
@@ -126,8 +143,9 @@ class SecurityRequester implements
             // Store the relationship between the topic subscriber and topic publisher security info
             this.securityInfosByTopicSubId.put(subTopicId, securityInfo);
 
-            // Schedule the task to send requests and obtain the security information
-            this.securityRequestsTimer.scheduleAtFixedRate(securityInfo, 0, subSecurityConfig.getControlMsgInterval());
+            // Add it to the pending requests of the instance, it will be requested on the next check
+            this.pendingRequestsByInstance.computeIfAbsent(pubTopicInfo.getInstanceId(), InstancePendingRequests::new).
+                    add(securityInfo, subSecurityConfig.getControlMsgInterval());
         }
     }
 
@@ -145,8 +163,8 @@ class SecurityRequester implements
                 return;
             }
 
-            // Cancel the task, it will ignore it if already canceled
-            this.cancelRequestSecurityInfoTask(securityInfo);
+            // Stop requesting it, it will be ignored if already stopped
+            this.stopRequestingSecurityInfo(securityInfo);
 
             // Remove also from the topic subscriber
             this.securityInfosByTopicSubId.remove(subTopicId, securityInfo);
@@ -154,13 +172,75 @@ class SecurityRequester implements
     }
 
     /**
-     * Cancel the task to try to get the security info of the topic publisher
+     * Stop sending requests to get the security info of the topic publisher
      * @param securityInfo the security info class with the topic information to retrieve
      */
-    private void cancelRequestSecurityInfoTask(final TopicPubSecurityInfo securityInfo)
+    private void stopRequestingSecurityInfo(final TopicPubSecurityInfo securityInfo)
     {
         securityInfo.cancel();
-        this.securityRequestsTimer.purge();
+
+        final InstancePendingRequests instanceRequests = this.pendingRequestsByInstance.get(securityInfo.getPublisherInstanceId());
+
+        if (instanceRequests != null && instanceRequests.remove(securityInfo))
+        {
+            this.pendingRequestsByInstance.remove(securityInfo.getPublisherInstanceId());
+        }
+    }
+
+    /**
+     * Send the batch requests of all the instances with pending requests that are due
+     */
+    private void sendPendingRequests()
+    {
+        synchronized (this.lock)
+        {
+            final long now = System.currentTimeMillis();
+
+            for (final InstancePendingRequests instanceRequests : this.pendingRequestsByInstance.values())
+            {
+                instanceRequests.sendIfRequired(now);
+            }
+        }
+    }
+
+    /**
+     * Sign and send the reusable batch request with the topic publishers already added
+     *
+     * @param publisher the control publisher of the target instance
+     * @param targetInstanceId the target instance id
+     * @param requestId the id of the request
+     */
+    private void sendBatchRequest(final ControlPublisher publisher, final UUID targetInstanceId, final UUID requestId)
+    {
+        // Reset the unsafe request serializer offset
+        this.requestBufferSerializer.setOffset(0);
+
+        // Prepare the message fields
+        this.reusableSecurityBatchReqMsg.setRequestId(requestId);
+        this.reusableSecurityBatchReqMsg.setTargetVegaInstanceId(targetInstanceId);
+
+        // Sign and serialize the message
+        try
+        {
+            this.reusableSecurityBatchReqMsg.signAndSerialize(this.requestBufferSerializer, this.rsaCrypto);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Unexpected error creating batch security request message", e);
+            return;
+        }
+
+        // Send the message
+        final PublishResult sendResult = publisher.sendMessage(
+                MsgType.CONTROL_SECURITY_BATCH_REQ,
+                this.requestBufferSerializer.getInternalBuffer(),
+                0,
+                this.requestBufferSerializer.getOffset());
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Batch security request sent with result {}", sendResult);
+        }
     }
 
     @Override
@@ -185,42 +265,14 @@ class SecurityRequester implements
             final TopicPubSecurityInfo securityInfo = this.securityInfoByTopicPubId.get(securityResponse.getTopicPublisherId());
 
             // Verify the response
-            if (!verifyResponse(securityResponse, securityInfo))
+            if (!this.isExpectedResponse(securityResponse, securityInfo) || !this.validateResponseSignature(securityResponse))
             {
                 return;
             }
 
-            // Everything is verified, we can create the AESCrypto for the shared session key and cancel the task
-
-            // First cancel the task to prevent further requests
-            this.cancelRequestSecurityInfoTask(securityInfo);
-
-            // Decode the session key
-            final byte[] decodedKey;
-            try
-            {
-                decodedKey = this.rsaCrypto.decodeWithOwnPrivKey(securityResponse.getEncodedSessionKey());
-            }
-            catch (final VegaException e)
-            {
-                log.error("Error decoding received session key with own private key. " + securityResponse, e);
-                return;
-            }
-
-            // Create and set the AESCrypto
-            final AESCrypto aesCrypto;
-            try
-            {
-                aesCrypto = new AESCrypto(decodedKey);
-            }
-            catch (final VegaException e)
-            {
-                log.error("Error creating session AES decoder for security response. " + securityResponse, e);
-                return;
-            }
-
-            // Set the key in the security info
-            securityInfo.setSessionKeyDecoder(aesCrypto);
+            // First stop the requests, then decode the key
+            this.stopRequestingSecurityInfo(securityInfo);
+            this.setSessionKey(securityInfo, securityResponse.getEncodedSessionKey(), securityResponse);
         }
     }
 
@@ -233,46 +285,130 @@ class SecurityRequester implements
             final TopicPubSecurityInfo securityInfo = this.securityInfoByTopicPubId.get(errorResponse.getTopicPublisherId());
 
             // Verify the response
-            if (!verifyResponse(errorResponse, securityInfo))
+            if (!this.isExpectedResponse(errorResponse, securityInfo) || !this.validateResponseSignature(errorResponse))
             {
                 return;
             }
 
-            // First cancel the task to prevent further requests
-            this.cancelRequestSecurityInfoTask(securityInfo);
+            // First stop the requests, then log the error
+            this.stopRequestingSecurityInfo(securityInfo);
+            this.logErrorResponse(securityInfo, errorResponse.getErrorCode(), errorResponse);
+        }
+    }
 
-            // Log the error response code
-            switch (errorResponse.getErrorCode())
+    @Override
+    public void onSecurityBatchResponseReceived(final MsgSecurityBatchResp batchResponse)
+    {
+        synchronized (this.lock)
+        {
+            // The signature is verified once for all the entries
+            if (!this.validateResponseSignature(batchResponse))
+            {
+                return;
+            }
+
+            for (final MsgSecurityBatchResp.Entry entry : batchResponse.getEntries())
             {
-                case MsgSecurityErrorResp.NO_SECURE_PUB_FOUND:
-                    log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application cannot find the topic", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
-                    break;
-                case MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG:
-                    log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application don't have our secure id in the list of valid id's for the topic", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
-                    break;
-                case MsgSecurityErrorResp.PUB_KEY_NOT_FOUND:
-                    log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application don't have our security id public key", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
-                    break;
-                case MsgSecurityErrorResp.SIGNATURE_ERROR:
-                    log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application failed to verify our signature", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
-                    break;
-                default:
-                    log.error("Unexpected error code on security error response received [{}]", errorResponse);
-                    break;
+                // Find the security info
+                final TopicPubSecurityInfo securityInfo = this.securityInfoByTopicPubId.get(entry.getTopicPublisherId());
+
+                // Verify the entry belongs to the last request sent for the topic publisher
+                if (!this.isExpectedResponse(batchResponse, securityInfo))
+                {
+                    continue;
+                }
+
+                // First stop the requests, then decode the key or log the error
+                this.stopRequestingSecurityInfo(securityInfo);
+
+                if (entry.getErrorCode() == MsgSecurityBatchResp.NO_ERROR)
+                {
+                    this.setSessionKey(securityInfo, entry.getEncodedSessionKey(), batchResponse);
+                }
+                else
+                {
+                    this.logErrorResponse(securityInfo, entry.getErrorCode(), batchResponse);
+                }
             }
         }
     }
 
     /**
-     * Verify a security response. It will check that the security info for the response exists, and that the requests id's and security id matches.
+     * Decode the session key received for a topic publisher and create the AESCrypto to decode its messages
+     *
+     * @param securityInfo the security info of the topic publisher
+     * @param encodedSessionKey the session key encoded with our public key
+     * @param securityResponse the response that contains the key, for logging
+     */
+    private void setSessionKey(final TopicPubSecurityInfo securityInfo, final byte[] encodedSessionKey, final AbstractMsgSecurity securityResponse)
+    {
+        // Decode the session key
+        final byte[] decodedKey;
+        try
+        {
+            decodedKey = this.rsaCrypto.decodeWithOwnPrivKey(encodedSessionKey);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Error decoding received session key with own private key. " + securityResponse, e);
+            return;
+        }
+
+        // Create and set the AESCrypto
+        final AESCrypto aesCrypto;
+        try
+        {
+            aesCrypto = new AESCrypto(decodedKey);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Error creating session AES decoder for security response. " + securityResponse, e);
+            return;
+        }
+
+        // Set the key in the security info
+        securityInfo.setSessionKeyDecoder(aesCrypto);
+    }
+
+    /**
+     * Log the error code received for a topic publisher
+     *
+     * @param securityInfo the security info of the topic publisher
+     * @param errorCode the received error code
+     * @param errorResponse the response that contains the error, for logging
+     */
+    private void logErrorResponse(final TopicPubSecurityInfo securityInfo, final byte errorCode, final AbstractMsgSecurity errorResponse)
+    {
+        switch (errorCode)
+        {
+            case MsgSecurityErrorResp.NO_SECURE_PUB_FOUND:
+                log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application cannot find the topic", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
+                break;
+            case MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG:
+                log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application don't have our secure id in the list of valid id's for the topic", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
+                break;
+            case MsgSecurityErrorResp.PUB_KEY_NOT_FOUND:
+                log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application don't have our security id public key", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
+                break;
+            case MsgSecurityErrorResp.SIGNATURE_ERROR:
+                log.error("Cannot retrieve security credentials for topic [{}] with id [{}], the publisher application failed to verify our signature", securityInfo.getTopicName(), securityInfo.getPublisherTopicId());
+                break;
+            default:
+                log.error("Unexpected error code [{}] on security error response received [{}]", errorCode, errorResponse);
+                break;
+        }
+    }
+
+    /**
+     * Check if a security response is expected. It will check that the security info for the response exists, and that the requests id's and security id matches.
      *
-     * It will also verify the signature to be 100% sure the message has not been modified.
+     * The signature should be verified as well to be 100% sure the message has not been modified.
      *
      * @param securityResponse the security response
      * @param securityInfo the original security information for the response
-     * @return true if the response is valid, false in other case
+     * @return true if the response is expected, false in other case
      */
-    private boolean verifyResponse(final AbstractMsgSecurity securityResponse, final TopicPubSecurityInfo securityInfo)
+    private boolean isExpectedResponse(final AbstractMsgSecurity securityResponse, final TopicPubSecurityInfo securityInfo)
     {
         // If not found or already canceled, ignore it
         if (securityInfo == null || securityInfo.isCanceled())
@@ -295,8 +431,7 @@ class SecurityRequester implements
             return false;
         }
 
-        // Verify the signature!
-        return this.validateResponseSignature(securityResponse);
+        return true;
     }
 
     /**
@@ -336,92 +471,188 @@ class SecurityRequester implements
             // Clean all internal info
             this.securityInfosByTopicSubId.clear();
             this.securityInfoByTopicPubId.clear();
+            this.pendingRequestsByInstance.clear();
         }
     }
 
     /**
-     * Stores the topic publisher security info and is also used as "task" to try to retrive the information from the external instance
+     * Task that sends the pending requests of all the instances
      */
-    private class TopicPubSecurityInfo extends BlockCancelTask
+    private class PendingRequestsSenderTask extends BlockCancelTask
     {
-        /** Name of the topic represented by the topic publisher */
-        @Getter private final String topicName;
-        /** The unique instance id the topic publisher belongs to */
-        private final UUID publisherInstanceId;
-        /** The secure id of the topic publisher */
-        @Getter private final int publisherSecureId;
-        /** The unique topic id of the topic publisher */
-        @Getter private final UUID publisherTopicId;
-        /** Stores the id of the last security sent request */
-        @Getter private volatile UUID lastRequestIdSent = null;
-        /** Stores the session key decoder retrived for the topic publisher, null if don't exists or it couldn't be retrieved */
-        @Getter @Setter private volatile AESCrypto sessionKeyDecoder = null;
+        @Override
+        public void action()
+        {
+            // An exception would cancel the timer and no more requests would be sent
+            try
+            {
+                sendPendingRequests();
+            }
+            catch (final RuntimeException e)
+            {
+                log.error("Unexpected error sending the pending security requests", e);
+            }
+        }
+    }
+
+    /**
+     * Topic publisher security info's of an instance that have not been retrieved yet. It decides when to send the batch requests
+     * to the instance.
+     *
+     * Only accessed with the lock of the requester taken.
+     */
+    private class InstancePendingRequests
+    {
+        /** The unique instance id the topic publishers belong to */
+        private final UUID instanceId;
+        /** The pending topic publisher security info's */
+        private final Set<TopicPubSecurityInfo> pendingInfos = new HashSet<>();
+        /** Interval between requests, the minimum of the pending topic publishers */
+        private long requestInterval = Long.MAX_VALUE;
+        /** Time of the next request of all the pending topic publishers */
+        private long nextRequestTime = 0;
+        /** True if there are pending topic publishers that have not been requested yet */
+        private boolean hasUnsentInfos = false;
 
         /**
-         * Create a topip publisher security information
+         * Create the pending requests of an instance
          *
-         * @param topicName the name of the topic
-         * @param publisherInstanceId the unique instance id of the publisher the topic publisher belongs to
-         * @param publisherSecureId the security id of the publisher the topic publisher belongs to
-         * @param publisherTopicId the unique topic publisher ID
+         * @param instanceId the unique instance id
          */
-        TopicPubSecurityInfo(final String topicName, final UUID publisherInstanceId, final int publisherSecureId, final UUID publisherTopicId)
+        InstancePendingRequests(final UUID instanceId)
         {
-            super();
+            this.instanceId = instanceId;
+        }
 
-            this.topicName = topicName;
-            this.publisherInstanceId = publisherInstanceId;
-            this.publisherSecureId = publisherSecureId;
-            this.publisherTopicId = publisherTopicId;
+        /**
+         * Add a topic publisher security info to request
+         *
+         * @param securityInfo the security info
+         * @param controlMsgInterval the interval between requests configured for the topic
+         */
+        void add(final TopicPubSecurityInfo securityInfo, final long controlMsgInterval)
+        {
+            this.pendingInfos.add(securityInfo);
+            this.requestInterval = Math.min(this.requestInterval, controlMsgInterval);
+            this.hasUnsentInfos = true;
         }
 
-        @Override
-        public void action()
+        /**
+         * Remove a topic publisher security info that should not be requested anymore
+         *
+         * @param securityInfo the security info
+         * @return true if there are no more pending topic publishers
+         */
+        boolean remove(final TopicPubSecurityInfo securityInfo)
         {
-            if (log.isTraceEnabled())
+            this.pendingInfos.remove(securityInfo);
+            return this.pendingInfos.isEmpty();
+        }
+
+        /**
+         * Send the batch requests if required. All the pending topic publishers are requested when the request interval expires,
+         * the topic publishers not requested yet are requested immediately.
+         *
+         * @param now the current time in milliseconds
+         */
+        void sendIfRequired(final long now)
+        {
+            final boolean requestAll = now >= this.nextRequestTime;
+
+            if (!requestAll && !this.hasUnsentInfos)
             {
-                log.trace("Sending security request for pending security information {}", this);
+                return;
             }
 
-            final ControlPublisher publisher = controlPublishers.getControlPublisherForInstance(this.publisherInstanceId);
+            final ControlPublisher publisher = controlPublishers.getControlPublisherForInstance(this.instanceId);
 
             // There is no publisher, maybe the instance information has not arrived yet.
             if (publisher == null)
             {
-                log.warn("Trying to send a security request message, but the control publisher is not ready yet for the instance. It will be retried. [{}]", this);
+                if (requestAll)
+                {
+                    log.warn("Trying to send a security request message, but the control publisher is not ready yet for the instance [{}]. It will be retried.", this.instanceId);
+                    this.nextRequestTime = now + this.requestInterval;
+                }
                 return;
             }
 
-            /// Reset the unsafe request serializer offset
-            requestBufferSerializer.setOffset(0);
-
-            // Prepare the message fields
-            this.lastRequestIdSent = new UUID(rnd.nextLong(), rnd.nextLong());
-            reusableSecurityReqMsg.setInstanceId(ownInstanceId);
-            reusableSecurityReqMsg.setRequestId(this.lastRequestIdSent);
-            reusableSecurityReqMsg.setSenderSecurityId(ownSecurityId);
-            reusableSecurityReqMsg.setTargetVegaInstanceId(this.publisherInstanceId);
-            reusableSecurityReqMsg.setTopicPublisherId(this.publisherTopicId);
+            // Add the topic publishers to the batch, sending it each time it is full
+            UUID requestId = new UUID(rnd.nextLong(), rnd.nextLong());
+            reusableSecurityBatchReqMsg.getTopicPublisherIds().clear();
 
-            // Sign and serialize the message
-            try
+            for (final TopicPubSecurityInfo securityInfo : this.pendingInfos)
             {
-                reusableSecurityReqMsg.signAndSerialize(requestBufferSerializer, rsaCrypto);
+                if (requestAll || securityInfo.getLastRequestIdSent() == null)
+                {
+                    securityInfo.setLastRequestIdSent(requestId);
+                    reusableSecurityBatchReqMsg.getTopicPublisherIds().add(securityInfo.getPublisherTopicId());
+
+                    if (reusableSecurityBatchReqMsg.getTopicPublisherIds().size() == MsgSecurityBatchReq.MAX_TOPIC_PUBS)
+                    {
+                        sendBatchRequest(publisher, this.instanceId, requestId);
+                        requestId = new UUID(rnd.nextLong(), rnd.nextLong());
+                        reusableSecurityBatchReqMsg.getTopicPublisherIds().clear();
+                    }
+                }
             }
-            catch (final VegaException e)
+
+            // Send the remaining ones
+            if (!reusableSecurityBatchReqMsg.getTopicPublisherIds().isEmpty())
             {
-                log.error("Unexpected error creating security request message", e);
-                return;
+                sendBatchRequest(publisher, this.instanceId, requestId);
             }
 
-            // Send the message
-            final PublishResult sendResult = publisher.sendMessage(MsgType.CONTROL_SECURITY_REQ, requestBufferSerializer.getInternalBuffer(), 0, requestBufferSerializer.getOffset());
+            this.hasUnsentInfos = false;
 
-            if (log.isTraceEnabled())
+            if (requestAll)
             {
-                log.trace("Security request sent with result {}", sendResult);
+                this.nextRequestTime = now + this.requestInterval;
             }
         }
+    }
+
+    /**
+     * Stores the topic publisher security info
+     */
+    private static class TopicPubSecurityInfo
+    {
+        /** Name of the topic represented by the topic publisher */
+        @Getter private final String topicName;
+        /** The unique instance id the topic publisher belongs to */
+        @Getter private final UUID publisherInstanceId;
+        /** The secure id of the topic publisher */
+        @Getter private final int publisherSecureId;
+        /** The unique topic id of the topic publisher */
+        @Getter private final UUID publisherTopicId;
+        /** Stores the id of the last security request sent that contains the topic publisher */
+        @Getter @Setter private volatile UUID lastRequestIdSent = null;
+        /** Stores the session key decoder retrived for the topic publisher, null if don't exists or it couldn't be retrieved */
+        @Getter @Setter private volatile AESCrypto sessionKeyDecoder = null;
+        /** True if the security info is not requested anymore */
+        @Getter private volatile boolean isCanceled = false;
+
+        /**
+         * Create a topip publisher security information
+         *
+         * @param topicName the name of the topic
+         * @param publisherInstanceId the unique instance id of the publisher the topic publisher belongs to
+         * @param publisherSecureId the security id of the publisher the topic publisher belongs to
+         * @param publisherTopicId the unique topic publisher ID
+         */
+        TopicPubSecurityInfo(final String topicName, final UUID publisherInstanceId, final int publisherSecureId, final UUID publisherTopicId)
+        {
+            this.topicName = topicName;
+            this.publisherInstanceId = publisherInstanceId;
+            this.publisherSecureId = publisherSecureId;
+            this.publisherTopicId = publisherTopicId;
+        }
+
+        /** Stop requesting the security info */
+        void cancel()
+        {
+            this.isCanceled = true;
+        }
 
         @Override
         public boolean equals(final Object target)
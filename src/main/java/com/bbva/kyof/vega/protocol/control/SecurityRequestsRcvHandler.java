@@ -4,13 +4,12 @@ import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
-import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.crypto.RSACrypto;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
-import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +21,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * The response is also signed and the session key is encrypted to ensure that only the sender can read the response.
  *
  * If there is any problem with the request it will respond with a signed message with the found error.
+ *
+ * The encoded session keys are cached by topic publisher and requester security id. If there are security response threads
+ * configured the responses are signed and sent by them.
  */
 @Slf4j
 class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPubTopicsChangesListener, Closeable
@@ -29,23 +31,17 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
     /** Session keys for owned secure topic publishers by topic publisher id */
     private final Map<UUID, OwnSecureTopicPubInfo> ownSecureTopicPubInfo = new ConcurrentHashMap<>();
 
-    /** SEcurity id of the current instance */
-    private final int ownSecurityId;
-
-    /** The RSA crypto to sign and verify */
+    /** The RSA crypto to verify the requests and encode the session keys */
     private final RSACrypto rsaCrypto;
 
     /** Reference to the control publishers, it will be used to find the right publisher to send the response to */
     private final ControlPublishers controlPublishers;
 
-    /** Reusable buffer serializer to minimize memory creation during responses */
-    private final UnsafeBufferSerializer responseBufferSerializer = new UnsafeBufferSerializer();
+    /** Responder to sign and send the responses from the thread that receives the requests */
+    private final SecurityResponder responder;
 
-    /** Reusable security response message */
-    private final MsgSecurityResp reusableSecurityResp = new MsgSecurityResp();
-
-    /** Reusable security error response message */
-    private final MsgSecurityErrorResp reusableSecurityErrorResp = new MsgSecurityErrorResp();
+    /** Workers to sign and send the responses in parallel, null if not configured */
+    private final SecurityResponseWorkers responseWorkers;
 
     /**
      * Create a new security request handler
@@ -55,16 +51,36 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
      */
     SecurityRequestsRcvHandler(final VegaContext vegaContext, final ControlPublishers controlPublishers)
     {
-        this.ownSecurityId = vegaContext.getSecurityContext().getSecurityId();
+        final int ownSecurityId = vegaContext.getSecurityContext().getSecurityId();
         this.rsaCrypto = vegaContext.getSecurityContext().getRsaCrypto();
         this.controlPublishers = controlPublishers;
+        this.responder = new SecurityResponder(vegaContext.getInstanceUniqueId(), ownSecurityId, this.rsaCrypto);
+        this.responseWorkers = createResponseWorkers(vegaContext, ownSecurityId, this.rsaCrypto);
+    }
 
-        // Set the instance id for the reusable messages since it won't change
-        this.reusableSecurityErrorResp.setInstanceId(vegaContext.getInstanceUniqueId());
-        this.reusableSecurityResp.setInstanceId(vegaContext.getInstanceUniqueId());
+    /**
+     * Create the workers to sign the responses if they are configured and the instance has security
+     *
+     * @return the created workers, null if they are not configured or they cannot be created
+     */
+    private static SecurityResponseWorkers createResponseWorkers(final VegaContext vegaContext, final int ownSecurityId, final RSACrypto rsaCrypto)
+    {
+        final int numThreads = vegaContext.getInstanceConfig().getControlRcvConfig().getSecurityRespThreads();
 
-        // Prepare the send buffer serializer
-        this.responseBufferSerializer.wrap(ByteBuffer.allocate(1024));
+        if (numThreads == 0 || rsaCrypto == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return new SecurityResponseWorkers(numThreads, vegaContext.getInstanceUniqueId(), ownSecurityId, rsaCrypto);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Unexpected error creating the security response threads, the responses will be signed by the control poller thread", e);
+            return null;
+        }
     }
 
     @Override
@@ -124,13 +140,124 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
         }
     }
 
+    @Override
+    public void onSecurityBatchRequestReceived(final MsgSecurityBatchReq batchSecurityReq)
+    {
+        // Get the control publisher to send the response later one
+        final ControlPublisher responsePublisher = this.controlPublishers.getControlPublisherForInstance(batchSecurityReq.getInstanceId());
+
+        // If there is no control publisher we cannot send the response back
+        if (responsePublisher == null)
+        {
+            log.warn("Received batch security request but cannot find a control response publisher for it. Message [{}]", batchSecurityReq);
+            return;
+        }
+
+        // The requesters never send bigger batches, reject them to bound the work of a single request
+        if (batchSecurityReq.getTopicPublisherIds().size() > MsgSecurityBatchReq.MAX_TOPIC_PUBS)
+        {
+            log.warn("Received batch security request with more topic publishers than allowed. Message [{}]", batchSecurityReq);
+            return;
+        }
+
+        // The public key and the signature are checked once for the whole batch
+        final byte requesterErrorCode;
+        if (!this.rsaCrypto.isSecurityIdRegistered(batchSecurityReq.getSenderSecurityId()))
+        {
+            requesterErrorCode = MsgSecurityErrorResp.PUB_KEY_NOT_FOUND;
+        }
+        else if (!this.validateRequestSignature(batchSecurityReq))
+        {
+            requesterErrorCode = MsgSecurityErrorResp.SIGNATURE_ERROR;
+        }
+        else
+        {
+            requesterErrorCode = MsgSecurityBatchResp.NO_ERROR;
+        }
+
+        // Create the response, a new one since it may be sent by a worker
+        MsgSecurityBatchResp batchResp = new MsgSecurityBatchResp();
+
+        for (final UUID topicPubId : batchSecurityReq.getTopicPublisherIds())
+        {
+            this.addBatchRespEntry(batchResp, topicPubId, batchSecurityReq.getSenderSecurityId(), requesterErrorCode);
+
+            // With big keys it may not fit in a control message, the rest of the entries go in another response for the same request
+            if (batchResp.isFull())
+            {
+                this.sendBatchResponse(batchSecurityReq, responsePublisher, batchResp);
+                batchResp = new MsgSecurityBatchResp();
+            }
+        }
+
+        if (!batchResp.getEntries().isEmpty())
+        {
+            this.sendBatchResponse(batchSecurityReq, responsePublisher, batchResp);
+        }
+    }
+
+    /**
+     * Send a batch response, on a worker if there are workers
+     *
+     * @param batchSecurityReq the original batch request
+     * @param responsePublisher the publisher to send the response with
+     * @param batchResp the batch response with the entries already added
+     */
+    private void sendBatchResponse(final MsgSecurityBatchReq batchSecurityReq, final ControlPublisher responsePublisher, final MsgSecurityBatchResp batchResp)
+    {
+        // If there are no workers or the worker queue is full respond directly
+        if (this.responseWorkers == null || !this.responseWorkers.submitBatchResponse(
+                batchSecurityReq.getInstanceId(), batchSecurityReq.getRequestId(), responsePublisher, batchResp))
+        {
+            this.responder.sendBatchResponse(batchSecurityReq.getInstanceId(), batchSecurityReq.getRequestId(), responsePublisher, batchResp);
+        }
+    }
+
+    /**
+     * Add the entry of a topic publisher to a batch response, the checks are the same than for a single request
+     *
+     * @param batchResp the batch response
+     * @param topicPubId the requested topic publisher id
+     * @param requesterSecurityId the security id of the requester
+     * @param requesterErrorCode error code of the checks of the requester key and signature, NO_ERROR if they passed
+     */
+    private void addBatchRespEntry(final MsgSecurityBatchResp batchResp, final UUID topicPubId, final int requesterSecurityId, final byte requesterErrorCode)
+    {
+        final OwnSecureTopicPubInfo secureTopicPubInfo = this.ownSecureTopicPubInfo.get(topicPubId);
+
+        if (secureTopicPubInfo == null)
+        {
+            batchResp.addError(topicPubId, MsgSecurityErrorResp.NO_SECURE_PUB_FOUND);
+        }
+        else if (!secureTopicPubInfo.isAllowedToSubscribe(requesterSecurityId))
+        {
+            batchResp.addError(topicPubId, MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG);
+        }
+        else if (requesterErrorCode != MsgSecurityBatchResp.NO_ERROR)
+        {
+            batchResp.addError(topicPubId, requesterErrorCode);
+        }
+        else
+        {
+            try
+            {
+                batchResp.addSessionKey(topicPubId, secureTopicPubInfo.getEncodedSessionKey(this.rsaCrypto, requesterSecurityId));
+            }
+            catch (final VegaException e)
+            {
+                // Leave it out of the response, the requester will ask again
+                log.error("Unexpected error encoding the session key of topic publisher " + topicPubId + " to respond to a batch security request", e);
+            }
+        }
+    }
+
     /**
      * Validate the signature of the security request.
      *
      * @param securityReq the security request whose signature should be validated
      * @return true if valid, false in other case
      */
-    private boolean validateRequestSignature(final MsgSecurityReq securityReq)
+    private boolean validateRequestSignature(final AbstractMsgSecurity securityReq)
     {
         try
         {
@@ -150,7 +277,7 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
     }
 
     /**
-     * Send an error response message with the given error code
+     * Send an error response message with the given error code, on a worker if there are workers
      *
      * @param origSecRequest the original request message
      * @param responsePublisher the publisher that is going to be used to send the response
@@ -160,47 +287,17 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
                                    final ControlPublisher responsePublisher,
                                    final byte errorCode)
     {
-        if (log.isTraceEnabled())
+        // If there are no workers or the worker queue is full respond directly
+        if (this.responseWorkers == null || !this.responseWorkers.submitErrorResponse(
+                origSecRequest.getInstanceId(), origSecRequest.getRequestId(), origSecRequest.getTopicPublisherId(), responsePublisher, errorCode))
         {
-            log.trace("Sending security error response for original request {}, with error code {}", origSecRequest, errorCode);
-        }
-
-        // Set the error message fields
-        this.reusableSecurityErrorResp.setSenderSecurityId(ownSecurityId);
-        this.reusableSecurityErrorResp.setRequestId(origSecRequest.getRequestId());
-        this.reusableSecurityErrorResp.setTopicPublisherId(origSecRequest.getTopicPublisherId());
-        this.reusableSecurityErrorResp.setTargetVegaInstanceId(origSecRequest.getInstanceId());
-        this.reusableSecurityErrorResp.setErrorCode(errorCode);
-
-        // Reset the unsafe response serializer offset
-        this.responseBufferSerializer.setOffset(0);
-
-        try
-        {
-            // Serialize the message
-            this.reusableSecurityErrorResp.signAndSerialize(this.responseBufferSerializer, this.rsaCrypto);
-        }
-        catch (final VegaException e)
-        {
-            log.error("Unexpected error creating security error response message", e);
-            return;
-        }
-
-        // Send security the error response
-        final PublishResult result = responsePublisher.sendMessage(
-                MsgType.CONTROL_SECURITY_ERROR_RESP,
-                this.responseBufferSerializer.getInternalBuffer(),
-                0,
-                this.responseBufferSerializer.getOffset());
-
-        if (log.isTraceEnabled())
-        {
-            log.trace("Security error response sent with publish result {}", result);
+            this.responder.sendErrorResponse(
+                    origSecRequest.getInstanceId(), origSecRequest.getRequestId(), origSecRequest.getTopicPublisherId(), responsePublisher, errorCode);
         }
     }
 
     /**
-     * Send a security response with the encrypted session key and the message signed
+     * Send a security response with the encrypted session key and the message signed, on a worker if there are workers
      *
      * @param origSecRequest the original request message
      * @param responsePublisher the publisher that is going to be used to send the response
@@ -210,18 +307,7 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
                                       final ControlPublisher responsePublisher,
                                       final OwnSecureTopicPubInfo secureTopicPubInfo)
     {
-        if (log.isTraceEnabled())
-        {
-            log.trace("Sending security response for original request {}", origSecRequest);
-        }
-
-        // Set the message response fields
-        this.reusableSecurityResp.setTargetVegaInstanceId(origSecRequest.getInstanceId());
-        this.reusableSecurityResp.setRequestId(origSecRequest.getRequestId());
-        this.reusableSecurityResp.setSenderSecurityId(this.ownSecurityId);
-        this.reusableSecurityResp.setTopicPublisherId(origSecRequest.getTopicPublisherId());
-
-        // Encode the session key with the requester public key and assign it
+        // Encode the session key with the requester public key, it is cached for the next requests of the same requester
         final byte[] encodedSessionKey;
         try
         {
@@ -233,46 +319,30 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
             return;
         }
 
-        // Set the value of the encoded session key
-        this.reusableSecurityResp.setEncodedSessionKey(encodedSessionKey);
-
-        /// Reset the unsafe response serializer offset
-        this.responseBufferSerializer.setOffset(0);
-
-        try
+        // If there are no workers or the worker queue is full respond directly
+        if (this.responseWorkers == null || !this.responseWorkers.submitSecurityResponse(
+                origSecRequest.getInstanceId(), origSecRequest.getRequestId(), origSecRequest.getTopicPublisherId(), responsePublisher, encodedSessionKey))
         {
-            // Serialize the message
-            this.reusableSecurityResp.signAndSerialize(this.responseBufferSerializer, this.rsaCrypto);
-        }
-        catch (final VegaException e)
-        {
-            log.error("Unexpected error singing and serializing to binary the security response", e);
-            return;
-        }
-
-        // Send the security response
-        final PublishResult result = responsePublisher.sendMessage(
-                MsgType.CONTROL_SECURITY_RESP,
-                this.responseBufferSerializer.getInternalBuffer(),
-                0,
-                this.responseBufferSerializer.getOffset());
-
-        if (log.isTraceEnabled())
-        {
-            log.trace("Security response sent with publish result {}", result);
+            this.responder.sendSecurityResponse(
+                    origSecRequest.getInstanceId(), origSecRequest.getRequestId(), origSecRequest.getTopicPublisherId(), responsePublisher, encodedSessionKey);
         }
     }
 
     @Override
     public void close()
     {
+        if (this.responseWorkers != null)
+        {
+            this.responseWorkers.close();
+        }
+
         this.ownSecureTopicPubInfo.clear();
     }
 
     /**
      * Stores the information of the secure topic publishers that have been registered
      */
-    @AllArgsConstructor
+    @RequiredArgsConstructor
     private static class OwnSecureTopicPubInfo
     {
         /** The byte array with the session key */
@@ -281,13 +351,27 @@ class SecurityRequestsRcvHandler implements ISecurityRequestListener, IOwnSecPub
         /** The security configuration for the topic publisher */
         private final TopicSecurityTemplateConfig secureConfig;
 
+        /** Session keys already encoded by security id of the requester, only accessed by the thread that receives the requests */
+        private final Map<Integer, byte[]> encodedSessionKeys = new HashMap<>();
+
         /**
-         * Encode the session key given the RSA with the public key to use for encoding and teh security id that represents the key
+         * Encode the session key given the RSA with the public key to use for encoding and teh security id that represents the key.
+         *
+         * The encoded key is cached, the requests of the same security id for the topic publisher reuse it.
+         *
          * @return the encoded key
          */
         byte[] getEncodedSessionKey(final RSACrypto rsaCrypto, final int securityId) throws VegaException
         {
-            return rsaCrypto.encodeWithPubKey(securityId, this.sessionKey);
+            byte[] encodedKey = this.encodedSessionKeys.get(securityId);
+
+            if (encodedKey == null)
+            {
+                encodedKey = rsaCrypto.encodeWithPubKey(securityId, this.sessionKey);
+                this.encodedSessionKeys.put(securityId, encodedKey);
+            }
+
+            return encodedKey;
         }
 
         /**
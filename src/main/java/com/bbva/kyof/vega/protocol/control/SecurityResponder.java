@@ -0,0 +1,231 @@
+package com.bbva.kyof.vega.protocol.control;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchResp;
+import com.bbva.kyof.vega.msg.MsgSecurityErrorResp;
+import com.bbva.kyof.vega.msg.MsgSecurityResp;
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.crypto.RSACrypto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Signs and sends the responses to the security requests. <p>
+ *
+ * The responses are signed with the private key of the instance, it is the most expensive part of the handshake. Each
+ * responder has its own reusable messages and serializer. <p>
+ *
+ * This class is not thread safe!!
+ */
+@Slf4j
+class SecurityResponder
+{
+    /** Size of the buffer to serialize the batch responses, the max size of a control message */
+    private static final int BATCH_RESP_BUFFER_SIZE = ControlPublisher.MAX_MSG_SIZE;
+
+    /** Unique id of the current instance */
+    private final UUID instanceId;
+
+    /** Security id of the current instance */
+    private final int ownSecurityId;
+
+    /** The RSA crypto to sign the responses */
+    private final RSACrypto rsaCrypto;
+
+    /** Reusable buffer serializer to minimize memory creation during responses */
+    private final UnsafeBufferSerializer responseBufferSerializer = new UnsafeBufferSerializer();
+
+    /** Reusable buffer serializer for the batch responses */
+    private final UnsafeBufferSerializer batchResponseBufferSerializer = new UnsafeBufferSerializer();
+
+    /** Reusable security response message */
+    private final MsgSecurityResp reusableSecurityResp = new MsgSecurityResp();
+
+    /** Reusable security error response message */
+    private final MsgSecurityErrorResp reusableSecurityErrorResp = new MsgSecurityErrorResp();
+
+    /**
+     * Create a new responder
+     *
+     * @param instanceId unique id of the vega instance
+     * @param ownSecurityId security id of the vega instance
+     * @param rsaCrypto the RSA crypto to sign the responses
+     */
+    SecurityResponder(final UUID instanceId, final int ownSecurityId, final RSACrypto rsaCrypto)
+    {
+        this.instanceId = instanceId;
+        this.ownSecurityId = ownSecurityId;
+        this.rsaCrypto = rsaCrypto;
+
+        // Set the instance id for the reusable messages since it won't change
+        this.reusableSecurityErrorResp.setInstanceId(instanceId);
+        this.reusableSecurityResp.setInstanceId(instanceId);
+
+        // Prepare the send buffer serializer
+        this.responseBufferSerializer.wrap(ByteBuffer.allocate(1024));
+        this.batchResponseBufferSerializer.wrap(ByteBuffer.allocate(BATCH_RESP_BUFFER_SIZE));
+    }
+
+    /**
+     * Send an error response message with the given error code
+     *
+     * @param targetInstanceId instance id of the requester
+     * @param requestId id of the original request
+     * @param topicPubId id of the topic publisher of the original request
+     * @param responsePublisher the publisher that is going to be used to send the response
+     * @param errorCode the error code of the response
+     */
+    void sendErrorResponse(final UUID targetInstanceId,
+                           final UUID requestId,
+                           final UUID topicPubId,
+                           final ControlPublisher responsePublisher,
+                           final byte errorCode)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Sending security error response for request {} of instance {}, with error code {}", requestId, targetInstanceId, errorCode);
+        }
+
+        // Set the error message fields
+        this.reusableSecurityErrorResp.setSenderSecurityId(this.ownSecurityId);
+        this.reusableSecurityErrorResp.setRequestId(requestId);
+        this.reusableSecurityErrorResp.setTopicPublisherId(topicPubId);
+        this.reusableSecurityErrorResp.setTargetVegaInstanceId(targetInstanceId);
+        this.reusableSecurityErrorResp.setErrorCode(errorCode);
+
+        // Reset the unsafe response serializer offset
+        this.responseBufferSerializer.setOffset(0);
+
+        try
+        {
+            // Serialize the message
+            this.reusableSecurityErrorResp.signAndSerialize(this.responseBufferSerializer, this.rsaCrypto);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Unexpected error creating security error response message", e);
+            return;
+        }
+
+        // Send security the error response
+        final PublishResult result = responsePublisher.sendMessage(
+                MsgType.CONTROL_SECURITY_ERROR_RESP,
+                this.responseBufferSerializer.getInternalBuffer(),
+                0,
+                this.responseBufferSerializer.getOffset());
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Security error response sent with publish result {}", result);
+        }
+    }
+
+    /**
+     * Send a security response with the encrypted session key and the message signed
+     *
+     * @param targetInstanceId instance id of the requester
+     * @param requestId id of the original request
+     * @param topicPubId id of the topic publisher of the original request
+     * @param responsePublisher the publisher that is going to be used to send the response
+     * @param encodedSessionKey the session key encoded with the public key of the requester
+     */
+    void sendSecurityResponse(final UUID targetInstanceId,
+                              final UUID requestId,
+                              final UUID topicPubId,
+                              final ControlPublisher responsePublisher,
+                              final byte[] encodedSessionKey)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Sending security response for request {} of instance {}", requestId, targetInstanceId);
+        }
+
+        // Set the message response fields
+        this.reusableSecurityResp.setTargetVegaInstanceId(targetInstanceId);
+        this.reusableSecurityResp.setRequestId(requestId);
+        this.reusableSecurityResp.setSenderSecurityId(this.ownSecurityId);
+        this.reusableSecurityResp.setTopicPublisherId(topicPubId);
+        this.reusableSecurityResp.setEncodedSessionKey(encodedSessionKey);
+
+        // Reset the unsafe response serializer offset
+        this.responseBufferSerializer.setOffset(0);
+
+        try
+        {
+            // Serialize the message
+            this.reusableSecurityResp.signAndSerialize(this.responseBufferSerializer, this.rsaCrypto);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Unexpected error singing and serializing to binary the security response", e);
+            return;
+        }
+
+        // Send the security response
+        final PublishResult result = responsePublisher.sendMessage(
+                MsgType.CONTROL_SECURITY_RESP,
+                this.responseBufferSerializer.getInternalBuffer(),
+                0,
+                this.responseBufferSerializer.getOffset());
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Security response sent with publish result {}", result);
+        }
+    }
+
+    /**
+     * Send a batch security response with the entries already added, the message is signed once for all the entries
+     *
+     * @param targetInstanceId instance id of the requester
+     * @param requestId id of the original batch request
+     * @param responsePublisher the publisher that is going to be used to send the response
+     * @param batchResp the batch response with the entries of the requested topic publishers
+     */
+    void sendBatchResponse(final UUID targetInstanceId,
+                           final UUID requestId,
+                           final ControlPublisher responsePublisher,
+                           final MsgSecurityBatchResp batchResp)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Sending batch security response for request {} of instance {} with {} entries", requestId, targetInstanceId, batchResp.getEntries().size());
+        }
+
+        // Set the message response fields
+        batchResp.setInstanceId(this.instanceId);
+        batchResp.setTargetVegaInstanceId(targetInstanceId);
+        batchResp.setRequestId(requestId);
+        batchResp.setSenderSecurityId(this.ownSecurityId);
+
+        // Reset the unsafe response serializer offset
+        this.batchResponseBufferSerializer.setOffset(0);
+
+        try
+        {
+            // Serialize the message
+            batchResp.signAndSerialize(this.batchResponseBufferSerializer, this.rsaCrypto);
+        }
+        catch (final VegaException e)
+        {
+            log.error("Unexpected error singing and serializing to binary the batch security response", e);
+            return;
+        }
+
+        // Send the batch security response
+        final PublishResult result = responsePublisher.sendMessage(
+                MsgType.CONTROL_SECURITY_BATCH_RESP,
+                this.batchResponseBufferSerializer.getInternalBuffer(),
+                0,
+                this.batchResponseBufferSerializer.getOffset());
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Batch security response sent with publish result {}", result);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.bbva.kyof.vega.protocol.control;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchResp;
+import com.bbva.kyof.vega.util.crypto.RSACrypto;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+
+import java.io.Closeable;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of threads that sign and send the responses to the security requests. <p>
+ *
+ * When many subscribers of secured topics join at the same time the RSA signatures of the responses are the bottleneck of the
+ * control messages poller. The poller validates the requests and submits the responses to the workers in round robin, each worker
+ * has its own copy of the RSA crypto to sign in parallel without contention. <p>
+ *
+ * The responses should be submitted always from the same thread.
+ */
+@Slf4j
+class SecurityResponseWorkers implements Closeable
+{
+    /** Max number of responses waiting to be sent by a worker */
+    private static final int QUEUE_SIZE_PER_WORKER = 1024;
+
+    /** Max number of spins of the idle strategy of the workers */
+    private static final long IDLE_MAX_SPINS = 100;
+
+    /** Max number of yields of the idle strategy of the workers */
+    private static final long IDLE_MAX_YIELDS = 10;
+
+    /** Min park period of the idle strategy of the workers */
+    private static final long IDLE_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the idle strategy of the workers */
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Workers of the pool */
+    private final ResponseWorker[] workers;
+
+    /** Index of the next worker to submit a response to */
+    private int nextWorker = 0;
+
+    /**
+     * Create and start the workers
+     *
+     * @param numThreads number of threads
+     * @param instanceId unique id of the vega instance
+     * @param ownSecurityId security id of the vega instance
+     * @param rsaCrypto the RSA crypto of the instance, each worker uses a copy
+     * @throws VegaException exception thrown if there is a problem copying the RSA crypto
+     */
+    SecurityResponseWorkers(final int numThreads, final UUID instanceId, final int ownSecurityId, final RSACrypto rsaCrypto) throws VegaException
+    {
+        log.info("Starting [{}] security response threads", numThreads);
+
+        this.workers = new ResponseWorker[numThreads];
+
+        for (int i = 0; i < numThreads; i++)
+        {
+            this.workers[i] = new ResponseWorker(new SecurityResponder(instanceId, ownSecurityId, rsaCrypto.copy()));
+        }
+
+        for (int i = 0; i < numThreads; i++)
+        {
+            this.workers[i].start("SecurityResponse_" + i);
+        }
+    }
+
+    /**
+     * Submit an error response to be signed and sent by a worker
+     *
+     * @return false if the worker queue is full and the response has not been submitted
+     */
+    boolean submitErrorResponse(final UUID targetInstanceId,
+                                final UUID requestId,
+                                final UUID topicPubId,
+                                final ControlPublisher responsePublisher,
+                                final byte errorCode)
+    {
+        return this.nextWorker().pendingResponses.offer(new PendingResponse(targetInstanceId, requestId, topicPubId, responsePublisher, errorCode, null, null));
+    }
+
+    /**
+     * Submit a security response to be signed and sent by a worker
+     *
+     * @return false if the worker queue is full and the response has not been submitted
+     */
+    boolean submitSecurityResponse(final UUID targetInstanceId,
+                                   final UUID requestId,
+                                   final UUID topicPubId,
+                                   final ControlPublisher responsePublisher,
+                                   final byte[] encodedSessionKey)
+    {
+        return this.nextWorker().pendingResponses.offer(new PendingResponse(targetInstanceId, requestId, topicPubId, responsePublisher, (byte) 0, encodedSessionKey, null));
+    }
+
+    /**
+     * Submit a batch security response to be signed and sent by a worker
+     *
+     * @param batchResp the batch response, it should not be modified after being submitted
+     * @return false if the worker queue is full and the response has not been submitted
+     */
+    boolean submitBatchResponse(final UUID targetInstanceId,
+                                final UUID requestId,
+                                final ControlPublisher responsePublisher,
+                                final MsgSecurityBatchResp batchResp)
+    {
+        return this.nextWorker().pendingResponses.offer(new PendingResponse(targetInstanceId, requestId, null, responsePublisher, (byte) 0, null, batchResp));
+    }
+
+    /** Return the next worker in round robin */
+    private ResponseWorker nextWorker()
+    {
+        final ResponseWorker worker = this.workers[this.nextWorker];
+        this.nextWorker = (this.nextWorker + 1) % this.workers.length;
+        return worker;
+    }
+
+    @Override
+    public void close()
+    {
+        log.info("Stopping security response threads");
+
+        for (final ResponseWorker worker : this.workers)
+        {
+            worker.close();
+        }
+    }
+
+    /**
+     * Worker thread that signs and sends the submitted responses
+     */
+    private static final class ResponseWorker extends RecurrentTask
+    {
+        /** Responses waiting to be sent */
+        private final OneToOneConcurrentArrayQueue<PendingResponse> pendingResponses = new OneToOneConcurrentArrayQueue<>(QUEUE_SIZE_PER_WORKER);
+
+        /** Responder of the worker */
+        private final SecurityResponder responder;
+
+        /**
+         * Create a new worker
+         *
+         * @param responder the responder of the worker, with its own RSA crypto
+         */
+        private ResponseWorker(final SecurityResponder responder)
+        {
+            super(new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NANOS, IDLE_MAX_PARK_NANOS));
+            this.responder = responder;
+        }
+
+        @Override
+        public int action()
+        {
+            final PendingResponse response = this.pendingResponses.poll();
+
+            if (response == null)
+            {
+                return 0;
+            }
+
+            if (response.batchResp != null)
+            {
+                this.responder.sendBatchResponse(response.targetInstanceId, response.requestId, response.responsePublisher, response.batchResp);
+            }
+            else if (response.encodedSessionKey == null)
+            {
+                this.responder.sendErrorResponse(response.targetInstanceId, response.requestId, response.topicPubId, response.responsePublisher, response.errorCode);
+            }
+            else
+            {
+                this.responder.sendSecurityResponse(response.targetInstanceId, response.requestId, response.topicPubId, response.responsePublisher, response.encodedSessionKey);
+            }
+
+            return 1;
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            // Discard the responses not sent yet, the requesters will retry
+            this.pendingResponses.clear();
+        }
+    }
+
+    /**
+     * Response waiting to be signed and sent, the encoded session key is null for the error responses and the batch response
+     * is only set for the batch responses
+     */
+    @AllArgsConstructor
+    private static final class PendingResponse
+    {
+        /** Instance id of the requester */
+        private final UUID targetInstanceId;
+
+        /** Id of the original request */
+        private final UUID requestId;
+
+        /** Id of the topic publisher of the original request */
+        private final UUID topicPubId;
+
+        /** Publisher to send the response */
+        private final ControlPublisher responsePublisher;
+
+        /** Error code of the error responses */
+        private final byte errorCode;
+
+        /** Encoded session key of the security responses */
+        private final byte[] encodedSessionKey;
+
+        /** Batch response with all its entries */
+        private final MsgSecurityBatchResp batchResp;
+    }
+}
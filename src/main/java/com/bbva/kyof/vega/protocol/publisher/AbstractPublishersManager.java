@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
 import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscTopicSubListener;
@@ -7,6 +8,7 @@ import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgCompactDataHeader;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.IOwnSecPubTopicsChangesListener;
 import lombok.AccessLevel;
@@ -311,4 +313,16 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
             default: return null;
         }
     }
+
+    /**
+     * Check if a discovered topic subscriber supports the compact headers and the batches, the subscribers of previous library
+     * versions drop them as unknown messages
+     *
+     * @param info the topic info of the subscriber
+     * @return true if the subscriber supports them
+     */
+    static boolean supportsMsgFormats(final AutoDiscTopicInfo info)
+    {
+        return Version.isAtLeast(info.getVersion(), MsgCompactDataHeader.MIN_VERSION) && Version.isAtLeast(info.getVersion(), BatchBuilder.MIN_VERSION);
+    }
 }
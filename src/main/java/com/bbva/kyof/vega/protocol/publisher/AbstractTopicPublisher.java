@@ -2,24 +2,38 @@ package com.bbva.kyof.vega.protocol.publisher;
 
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.msg.RequestWaitType;
+import com.bbva.kyof.vega.msg.ResponseFuture;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatController;
 import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatParameters;
 import com.bbva.kyof.vega.protocol.heartbeat.IClientConnectionListener;
 import com.bbva.kyof.vega.protocol.heartbeat.IHeartbeatSender;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.MessageHandler;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
 
 import java.io.Closeable;
-import java.util.Random;
+import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for topic publisher implementations.
@@ -28,11 +42,27 @@ import java.util.UUID;
  *
  * Each publisher belongs to a single topicName and handles the sending of messages to all the "aeron publishers" associated to that topicName.
  *
- * The class is thread-safe
+ * The class is thread-safe unless the topic is configured as single writer, in that case the send methods are not synchronized and
+ * should always be called from the same thread.
  */
 @Slf4j
 abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSender, Closeable
 {
+    /** Type id of the messages written in the asynchronous send ring buffer */
+    private static final int ASYNC_MSG_TYPE_ID = 1;
+
+    /** Max number of messages sent from the asynchronous send ring buffer on each drain */
+    private static final int MAX_ASYNC_MSGS_PER_DRAIN = 64;
+
+    /** Max number of attempts to send a snapshot message when the response publisher is back pressured */
+    private static final int SNAPSHOT_MAX_ATTEMPTS = 1000;
+
+    /** Returned by {@link #copyRetransmitMsg} if the message is not in the retransmission cache or cannot be retransmitted */
+    static final int RETRANSMIT_NOT_CACHED = -1;
+
+    /** Returned by {@link #copyRetransmitMsg} if the topic publisher has been closed */
+    static final int RETRANSMIT_CLOSED = -2;
+
     /** Topic name represented by the topic publisher */
     @Getter private final String topicName;
 
@@ -48,74 +78,910 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
     /** Sequence number of the message or request, it will increment for each sent message */
     @Getter private long sequenceNumber = 0;
     
-    /** Random number generator for request id's */
-    private final Random rnd = new Random(System.nanoTime());
+    /** Content for a sent heartbeat request */
+    private final UnsafeBuffer heartbeatContent = new UnsafeBuffer(new byte[0]);
+
+    /** True if the topic publisher has been closed */
+    private volatile boolean closed = false;
+
+    /** True if the batches are sent in a single message, false if there are subscribers of versions that don't support them */
+    private volatile boolean batchActive = true;
+
+    /** True if the topic is configured as single writer, the send methods won't be synchronized */
+    @Getter private final boolean singleWriter;
+
+    /** Heartbeat controller */
+    private HeartbeatController heartBeatController = null;
+
+    /** Reusable claim to write messages directly before sending */
+    private final PublishClaim publishClaim;
+
+    /** Failed claim returned while the claim of another thread is pending */
+    private final PublishClaim busyClaim;
+
+    /** Applies the back pressure policy of the topic template */
+    private final BackPressureHandler backPressureHandler;
+
+    /** Off-heap ring buffer for the messages sent asynchronously, null if the topic is not configured with async send */
+    private final ManyToOneRingBuffer asyncRingBuffer;
+
+    /** Handler for the messages drained from the asynchronous send ring buffer */
+    private final MessageHandler asyncMsgHandler = this::sendAsyncMsg;
+
+    /** Cache of the last sent messages to retransmit them on request, null if the topic is not configured with retransmission */
+    private final RetransmitCache retransmitCache;
+
+    /** Journal of the sent messages to replay them on request, null if the topic is not durable */
+    private final TopicJournal journal;
+
+    /** Cache of the last message sent for each key to send them to the new subscribers, null if the topic is not configured with it */
+    private final LastValueCache lastValueCache;
+
+    /** Copy of the last value cache sent as snapshot without the lock, created on the first snapshot and only accessed by the snapshot sender thread */
+    private LastValueCache snapshotCopy = null;
+
+    /** Max time in nanoseconds to retry a back pressured snapshot message */
+    private final long snapshotTimeoutNanos;
+
+    /** Copy of a message of the retransmission cache sent without the lock, only accessed by the retransmission sender thread */
+    private final UnsafeBuffer retransmitCopy;
+
+    /** Lock for concurrent access */
+    protected final Object lock = new Object();
+
+    /**
+     * Constructor of the class
+     *
+     * @param topicName Topic name that is going to sendMsg
+     * @param topicConfig Topic configuration
+     * @param vegaContext library instance configuration
+     */
+    AbstractTopicPublisher(final String topicName, final TopicTemplateConfig topicConfig, final VegaContext vegaContext)
+    {
+        this.topicName = topicName;
+        this.topicConfig = topicConfig;
+        this.vegaContext = vegaContext;
+        this.singleWriter = Boolean.TRUE.equals(topicConfig.getSingleWriter());
+        this.backPressureHandler = new BackPressureHandler(topicConfig);
+        this.publishClaim = new PublishClaim(vegaContext.getDirectBufferPool());
+        this.busyClaim = new PublishClaim(vegaContext.getDirectBufferPool());
+        this.busyClaim.setFailed(PublishResult.BACK_PRESSURED);
+
+        if (Boolean.TRUE.equals(topicConfig.getAsyncSend()))
+        {
+            final int ringBufferSize = topicConfig.getAsyncRingBufferSize() + RingBufferDescriptor.TRAILER_LENGTH;
+            this.asyncRingBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(ringBufferSize)));
+        }
+        else
+        {
+            this.asyncRingBuffer = null;
+        }
+
+        // The messages of secured topics are not cached, they would be retransmitted without encryption
+        if (topicConfig.getRetransmitCacheSize() != null && topicConfig.getRetransmitCacheSize() > 0 && !this.hasSecurity())
+        {
+            this.retransmitCache = new RetransmitCache(topicConfig.getRetransmitCacheSize(), topicConfig.getRetransmitMaxMsgSize());
+            this.retransmitCopy = new UnsafeBuffer(ByteBuffer.allocateDirect(topicConfig.getRetransmitMaxMsgSize()));
+        }
+        else
+        {
+            this.retransmitCache = null;
+            this.retransmitCopy = null;
+        }
+
+        // The messages of secured topics are not journaled, they would be stored and replayed without encryption
+        if (Boolean.TRUE.equals(topicConfig.getDurable()) && !this.hasSecurity())
+        {
+            final File journalDirectory = new File(topicConfig.getJournalDir(), this.uniqueId.toString());
+            log.info("Creating journal for topic [{}] in directory [{}]", topicName, journalDirectory);
+            this.journal = new TopicJournal(journalDirectory, topicConfig.getJournalSegmentSize(), topicConfig.getJournalMaxSegments());
+        }
+        else
+        {
+            this.journal = null;
+        }
+
+        // The messages of secured topics are not cached, they would be sent to the new subscribers without encryption
+        if (topicConfig.getLastValueCacheSize() != null && topicConfig.getLastValueCacheSize() > 0 && !this.hasSecurity())
+        {
+            this.lastValueCache = new LastValueCache(topicConfig.getLastValueCacheSize(), topicConfig.getLastValueMaxMsgSize());
+            this.snapshotTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(topicConfig.getLastValueSnapshotTimeoutMillis());
+        }
+        else
+        {
+            this.lastValueCache = null;
+            this.snapshotTimeoutNanos = 0;
+        }
+    }
+
+    @Override
+    public PublishResult sendMsg(final DirectBuffer message, final int offset, final int length)
+    {
+        // In async mode the message is only copied into the ring buffer, it is thread safe without the lock
+        if (this.asyncRingBuffer != null)
+        {
+            return this.enqueueAsyncMsg(message, offset, length);
+        }
+
+        if (this.singleWriter)
+        {
+            return this.sendMsgNotSync(message, offset, length);
+        }
+
+        synchronized (this.lock)
+        {
+            return this.sendMsgNotSync(message, offset, length);
+        }
+    }
+
+    @Override
+    public PublishResult sendMsg(final long key, final DirectBuffer message, final int offset, final int length)
+    {
+        if (this.lastValueCache == null && !this.backPressureHandler.isConflatedByKey())
+        {
+            return this.sendMsg(message, offset, length);
+        }
+
+        // The last value cache and the conflation by key are not compatible with single writer or async send, the snapshots and
+        // the pending conflated messages are sent with the lock
+        synchronized (this.lock)
+        {
+            // Make sure the publisher has not been closed
+            if (this.closed)
+            {
+                log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+                return PublishResult.UNEXPECTED_ERROR;
+            }
+
+            if (this.backPressureHandler.isConflatedByKey())
+            {
+                return this.sendConflatedByKey(key, message, offset, length);
+            }
+
+            final PublishResult result = this.sendDataToAeron(message, offset, length);
+
+            // A conflated message gets the next sequence number once it is sent
+            final boolean stored;
+            if (result == PublishResult.OK)
+            {
+                stored = this.lastValueCache.put(key, this.sequenceNumber, message, offset, length);
+            }
+            else if (result == PublishResult.CONFLATED)
+            {
+                stored = this.lastValueCache.put(key, this.sequenceNumber + 1, message, offset, length);
+            }
+            else
+            {
+                return result;
+            }
+
+            if (!stored && log.isDebugEnabled())
+            {
+                log.debug("Message with key [{}] of size [{}] not stored in the last value cache on topicName [{}]", key, length, this.topicName);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Send a message with a key applying the conflated by key policy. If the transport is back pressured, or there are still
+     * pending messages, the message replaces the pending message of the key and it will be sent once the transport is free.
+     *
+     * @param key the key of the message
+     * @param message the message to send
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return OK if the message has been sent, CONFLATED if it is pending to be sent, BACK_PRESSURED if it cannot be conflated
+     */
+    private PublishResult sendConflatedByKey(final long key, final DirectBuffer message, final int offset, final int length)
+    {
+        // If the pending messages cannot be sent the transport is still back pressured, don't try to send the new one
+        this.flushConflatedMsgs();
+
+        if (!this.backPressureHandler.hasConflatedByKeyMsgs())
+        {
+            this.backPressureHandler.begin(true);
+
+            final PublishResult result = this.sendKeyedMsgToAeron(key, message, offset, length);
+
+            if (result != PublishResult.BACK_PRESSURED)
+            {
+                return result;
+            }
+        }
+
+        if (this.backPressureHandler.conflate(key, message, offset, length))
+        {
+            return PublishResult.CONFLATED;
+        }
+
+        if (log.isDebugEnabled())
+        {
+            log.debug("Message with key [{}] of size [{}] cannot be conflated on topicName [{}]", key, length, this.topicName);
+        }
+
+        return PublishResult.BACK_PRESSURED;
+    }
+
+    /**
+     * Send a message with a key, it is stored in the last value cache if sent
+     *
+     * @param key the key of the message
+     * @param message the message to send
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return the result of the send process
+     */
+    private PublishResult sendKeyedMsgToAeron(final long key, final DirectBuffer message, final int offset, final int length)
+    {
+        final PublishResult result = this.sendSequencedToAeron(message, offset, length);
+
+        if (result == PublishResult.OK && this.lastValueCache != null)
+        {
+            this.lastValueCache.put(key, this.sequenceNumber, message, offset, length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Send a data message with the next sequence number. The sequence number is only assigned and the message stored if it is
+     * sent, the messages conflated or not sent due to back pressure don't leave gaps in the receivers.
+     *
+     * @param message the message to send
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return the result of the send process
+     */
+    private PublishResult sendSequencedToAeron(final DirectBuffer message, final int offset, final int length)
+    {
+        final long nextSequenceNumber = this.sequenceNumber + 1;
+
+        final PublishResult result = this.sendToAeron(message, nextSequenceNumber, offset, length);
+
+        if (result == PublishResult.OK)
+        {
+            this.sequenceNumber = nextSequenceNumber;
+            this.storeSentMsg(nextSequenceNumber, message, offset, length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Try to send the messages conflated by key without retries, the ones that cannot be sent due to back pressure are kept
+     * for the next try.
+     *
+     * @return the number of messages sent
+     */
+    private int flushConflatedByKeyMsgs()
+    {
+        if (!this.backPressureHandler.hasConflatedByKeyMsgs())
+        {
+            return 0;
+        }
+
+        final LastValueCache pendingMsgs = this.backPressureHandler.getConflatedByKeyMsgs();
+        int msgsSent = 0;
+
+        while (pendingMsgs.size() > 0)
+        {
+            final long key = pendingMsgs.getKey(0);
+
+            this.backPressureHandler.begin(false);
+
+            final PublishResult result = this.sendKeyedMsgToAeron(key, pendingMsgs.getBuffer(), pendingMsgs.getOffset(0), pendingMsgs.getLength(0));
+
+            if (result == PublishResult.BACK_PRESSURED)
+            {
+                break;
+            }
+
+            if (result == PublishResult.OK)
+            {
+                msgsSent++;
+            }
+            else
+            {
+                this.backPressureHandler.onDrop();
+            }
+
+            pendingMsgs.remove(key);
+        }
+
+        return msgsSent;
+    }
+
+    /**
+     * Send the conflated messages once the transport is free, even if there are no new publications. Called by the sender thread.
+     *
+     * @return the number of messages sent
+     */
+    int drainConflatedMsgs()
+    {
+        if (!this.isConflated())
+        {
+            return 0;
+        }
+
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return 0;
+            }
+
+            return this.flushConflatedMsgs();
+        }
+    }
+
+    /** @return true if the back pressured messages are conflated, either the last one or the last one of each key */
+    boolean isConflated()
+    {
+        return this.backPressureHandler.isConflated() || this.backPressureHandler.isConflatedByKey();
+    }
+
+    /**
+     * Send a message without synchronization, the parameters are the same than in {@link #sendMsg}
+     */
+    private PublishResult sendMsgNotSync(final DirectBuffer message, final int offset, final int length)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Sending data message. TopicName [{}]. TopicId [{}]", this.topicName, this.uniqueId);
+        }
+
+        // Make sure the publisher has not been closed
+        if (this.closed)
+        {
+            log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        return this.sendDataToAeron(message, offset, length);
+    }
+
+    /**
+     * Copy a message into the asynchronous send ring buffer, it will be sent by the sender thread
+     *
+     * @param message the message to send
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return OK if the message has been queued, BACK_PRESSURED if the ring buffer is full
+     */
+    private PublishResult enqueueAsyncMsg(final DirectBuffer message, final int offset, final int length)
+    {
+        // Make sure the publisher has not been closed
+        if (this.closed)
+        {
+            log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        if (length > this.asyncRingBuffer.maxMsgLength())
+        {
+            log.error("Error, message of [{}] bytes is bigger than the max async message length on topicName [{}]", length, this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        if (this.asyncRingBuffer.write(ASYNC_MSG_TYPE_ID, message, offset, length))
+        {
+            return PublishResult.OK;
+        }
+
+        return PublishResult.BACK_PRESSURED;
+    }
+
+    /**
+     * Send the messages queued in the asynchronous send ring buffer. Called by the sender thread.
+     *
+     * @return the number of messages drained
+     */
+    int drainAsyncMsgs()
+    {
+        if (this.asyncRingBuffer == null)
+        {
+            return 0;
+        }
+
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return 0;
+            }
+
+            return this.asyncRingBuffer.read(this.asyncMsgHandler, MAX_ASYNC_MSGS_PER_DRAIN);
+        }
+    }
+
+    /**
+     * Send a message drained from the asynchronous send ring buffer, if it cannot be sent it is counted as dropped
+     *
+     * @param msgTypeId type of the message in the ring buffer
+     * @param buffer the ring buffer
+     * @param index the index of the message in the ring buffer
+     * @param length the length of the message
+     */
+    private void sendAsyncMsg(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+    {
+        final PublishResult result = this.sendDataToAeron(buffer, index, length);
+
+        if (result != PublishResult.OK && result != PublishResult.CONFLATED)
+        {
+            this.backPressureHandler.onDrop();
+        }
+    }
+
+    /** @return true if the topic is configured to send the messages asynchronously */
+    boolean isAsyncSend()
+    {
+        return this.asyncRingBuffer != null;
+    }
+
+    @Override
+    public int getAsyncQueueOccupancy()
+    {
+        return this.asyncRingBuffer == null ? 0 : this.asyncRingBuffer.size();
+    }
+
+    /**
+     * Send a data message applying the back pressure policy. If the policy is conflated and the message is back pressured,
+     * it is stored to be sent once the transport is free, before the next publication or by the sender thread. The sequence number
+     * is assigned when the message is actually sent.
+     *
+     * @param message the message to send
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return the result of the send process, CONFLATED if the message is pending to be sent
+     */
+    private PublishResult sendDataToAeron(final DirectBuffer message, final int offset, final int length)
+    {
+        this.flushConflatedMsgs();
+
+        // If the pending message cannot be sent the transport is still back pressured, the new message replaces it
+        if (this.backPressureHandler.hasConflatedMsg())
+        {
+            this.backPressureHandler.conflate(message, offset, length);
+            return PublishResult.CONFLATED;
+        }
+
+        this.backPressureHandler.begin(true);
+
+        final PublishResult result = this.sendSequencedToAeron(message, offset, length);
+
+        if (result == PublishResult.BACK_PRESSURED && this.backPressureHandler.isConflated())
+        {
+            this.backPressureHandler.conflate(message, offset, length);
+            return PublishResult.CONFLATED;
+        }
+
+        return result;
+    }
+
+    /**
+     * Try to send the pending conflated messages without retries. The ones that cannot be sent due to back pressure are kept
+     * for the next try.
+     *
+     * @return the number of messages sent
+     */
+    private int flushConflatedMsgs()
+    {
+        int msgsSent = this.flushConflatedByKeyMsgs();
+
+        if (!this.backPressureHandler.hasConflatedMsg())
+        {
+            return msgsSent;
+        }
+
+        this.backPressureHandler.begin(false);
+
+        final PublishResult result = this.sendSequencedToAeron(
+                this.backPressureHandler.getConflatedBuffer(),
+                0,
+                this.backPressureHandler.getConflatedLength());
+
+        if (result == PublishResult.BACK_PRESSURED)
+        {
+            return msgsSent;
+        }
+
+        if (result == PublishResult.OK)
+        {
+            msgsSent++;
+        }
+        else
+        {
+            this.backPressureHandler.onDrop();
+        }
+
+        this.backPressureHandler.clearConflatedMsg();
+        return msgsSent;
+    }
+
+    /**
+     * Try to send the pending conflated messages before a publication that is not conflated. The pending conflated message that
+     * cannot be sent is dropped, the new publication has a higher sequence number and the receivers would discard it once sent.
+     */
+    private void flushConflatedMsgsBeforePublication()
+    {
+        this.flushConflatedMsgs();
+
+        if (this.backPressureHandler.hasConflatedMsg())
+        {
+            this.backPressureHandler.onDrop();
+            this.backPressureHandler.clearConflatedMsg();
+        }
+    }
+
+    @Override
+    public PublishResult sendBatch(final BatchBuilder batch)
+    {
+        if (this.singleWriter)
+        {
+            return this.sendBatchNotSync(batch);
+        }
+
+        synchronized (this.lock)
+        {
+            return this.sendBatchNotSync(batch);
+        }
+    }
+
+    /**
+     * Send a batch without synchronization, the parameters are the same than in {@link #sendBatch}
+     */
+    private PublishResult sendBatchNotSync(final BatchBuilder batch)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Sending batch of [{}] messages. TopicName [{}]. TopicId [{}]", batch.getNumMessages(), this.topicName, this.uniqueId);
+        }
+
+        // Make sure the publisher has not been closed
+        if (this.closed)
+        {
+            log.error("Error, trying to send a batch on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // Nothing to send
+        if (batch.isEmpty())
+        {
+            return PublishResult.OK;
+        }
+
+        // Each message of the batch uses a sequence number, the first one goes in the header
+        final long firstSequenceNumber = this.sequenceNumber + 1;
+        this.sequenceNumber = this.sequenceNumber + batch.getNumMessages();
+
+        if (this.retransmitCache != null || this.journal != null)
+        {
+            this.storeBatch(batch, firstSequenceNumber);
+        }
+
+        this.flushConflatedMsgsBeforePublication();
+        this.backPressureHandler.begin(true);
+
+        // The subscribers of previous versions would drop the whole batch as an unknown message
+        if (!this.batchActive)
+        {
+            return this.sendBatchMessagesToAeron(batch, firstSequenceNumber);
+        }
+
+        return this.sendBatchToAeron(batch, firstSequenceNumber);
+    }
+
+    /**
+     * Activate or deactivate the batches in a single message. They are deactivated while there are subscribers of a library version
+     * that don't support them, the messages of the batches are sent separately instead.
+     *
+     * @param active true to send the batches in a single message
+     */
+    void setBatchActive(final boolean active)
+    {
+        this.batchActive = active;
+    }
+
+    /** @return true if the batches are currently sent in a single message */
+    boolean isBatchActive()
+    {
+        return this.batchActive;
+    }
+
+    /**
+     * Store each message of the batch in the retransmission cache and the journal
+     *
+     * @param batch the batch with the messages
+     * @param firstSequenceNumber the sequence number of the first message of the batch
+     */
+    private void storeBatch(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        final UnsafeBuffer batchBuffer = batch.getBuffer();
+        int msgOffset = UnsafeBufferSerializer.INT_SIZE;
+
+        for (int i = 0; i < batch.getNumMessages(); i++)
+        {
+            final int msgLength = batchBuffer.getInt(msgOffset);
+            this.storeSentMsg(firstSequenceNumber + i, batchBuffer, msgOffset + UnsafeBufferSerializer.INT_SIZE, msgLength);
+            msgOffset += UnsafeBufferSerializer.INT_SIZE + msgLength;
+        }
+    }
+
+    @Override
+    public PublishClaim tryClaim(final int length)
+    {
+        if (this.singleWriter)
+        {
+            return this.tryClaimNotSync(length);
+        }
+
+        synchronized (this.lock)
+        {
+            return this.tryClaimNotSync(length);
+        }
+    }
+
+    /**
+     * Claim without synchronization, the parameters are the same than in {@link #tryClaim}
+     */
+    private PublishClaim tryClaimNotSync(final int length)
+    {
+        // Make sure the publisher has not been closed
+        if (this.closed)
+        {
+            log.error("Error, trying to claim a message on a closed publisher on topicName [{}]", this.topicName);
+            return this.failedClaim(PublishResult.UNEXPECTED_ERROR);
+        }
+
+        // Only a single claim can be pending, the claim object is reused. The claim of another thread can be retried once finished.
+        if (this.publishClaim.isPending())
+        {
+            if (!this.publishClaim.isOwnedByCurrentThread())
+            {
+                return this.busyClaim;
+            }
+
+            log.error("Error, trying to claim a message with a pending claim on topicName [{}]", this.topicName);
+            return this.failedClaim(PublishResult.UNEXPECTED_ERROR);
+        }
+
+        // If possible claim directly in the aeron term buffer, the sequence number is assigned now to keep the order.
+        // In async mode the message is always staged and queued on commit. The messages that are cached or journaled are
+        // also staged, the messages sent by other threads before the commit would be stored ahead of the claimed one.
+        if (this.asyncRingBuffer == null && this.retransmitCache == null && this.journal == null && this.canClaimInAeron(length))
+        {
+            this.flushConflatedMsgsBeforePublication();
+            this.backPressureHandler.begin(true);
+
+            final long claimedSequenceNumber = this.sequenceNumber + 1;
+            long claimResult;
+            do
+            {
+                claimResult = this.claimInAeron(claimedSequenceNumber, length, this.publishClaim.getAeronBufferClaim());
+            }
+            while (claimResult == Publication.BACK_PRESSURED && this.backPressureHandler.retry());
+
+            if (claimResult > 0)
+            {
+                this.sequenceNumber = claimedSequenceNumber;
+
+                // The user message starts just after the headers
+                final BufferClaim bufferClaim = this.publishClaim.getAeronBufferClaim();
+                this.publishClaim.setDirect(claimedSequenceNumber, bufferClaim.offset() + bufferClaim.length() - length, length);
+                return this.publishClaim;
+            }
+
+            if (claimResult == Publication.BACK_PRESSURED)
+            {
+                return this.failedClaim(PublishResult.BACK_PRESSURED);
+            }
+        }
+
+        // Fallback, stage the message internally and send it with the normal mechanism on commit
+        if (!this.publishClaim.canStage(length))
+        {
+            log.error("Error, claimed message of [{}] bytes too big to be staged on topicName [{}]", length, this.topicName);
+            return this.failedClaim(PublishResult.UNEXPECTED_ERROR);
+        }
+
+        this.publishClaim.setStaged(length);
+        return this.publishClaim;
+    }
+
+    @Override
+    public PublishResult commit()
+    {
+        if (this.singleWriter)
+        {
+            return this.commitNotSync();
+        }
+
+        synchronized (this.lock)
+        {
+            return this.commitNotSync();
+        }
+    }
+
+    /**
+     * Commit without synchronization
+     */
+    private PublishResult commitNotSync()
+    {
+        if (!this.publishClaim.isPending())
+        {
+            log.error("Error, trying to commit a claim that is not pending on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        if (!this.publishClaim.isOwnedByCurrentThread())
+        {
+            log.error("Error, trying to commit a claim of another thread on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // The claim left pending by the close is discarded by its owner
+        if (this.closed)
+        {
+            log.error("Error, trying to commit a claim on a closed publisher on topicName [{}]", this.topicName);
+            this.abortPendingClaim();
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        this.publishClaim.release();
+
+        // If direct the message is already in the term buffer with the headers, the topic has no retransmission cache or journal
+        if (this.publishClaim.isDirect())
+        {
+            this.publishClaim.getAeronBufferClaim().commit();
+            return PublishResult.OK;
+        }
 
-    /** Content for a sent heartbeat request */
-    private final UnsafeBuffer heartbeatContent = new UnsafeBuffer(new byte[0]);
+        final PublishResult result;
+        if (this.asyncRingBuffer != null)
+        {
+            result = this.enqueueAsyncMsg(this.publishClaim.getStagingBuffer(), 0, this.publishClaim.getLength());
+        }
+        else
+        {
+            result = this.sendDataToAeron(this.publishClaim.getStagingBuffer(), 0, this.publishClaim.getLength());
+        }
 
-    /** True if the topic publisher has been closed */
-    private boolean closed = false;
+        // The staged message has been copied or sent, return the staging buffer to the pool
+        this.publishClaim.releaseStagingBuffer();
+        return result;
+    }
 
-    /** Heartbeat controller */
-    private HeartbeatController heartBeatController = null;
+    @Override
+    public void abort()
+    {
+        if (this.singleWriter)
+        {
+            this.abortNotSync();
+            return;
+        }
 
-    /** Lock for concurrent access */
-    protected final Object lock = new Object();
+        synchronized (this.lock)
+        {
+            this.abortNotSync();
+        }
+    }
 
     /**
-     * Constructor of the class
-     *
-     * @param topicName Topic name that is going to sendMsg
-     * @param topicConfig Topic configuration
-     * @param vegaContext library instance configuration
+     * Abort without synchronization
      */
-    AbstractTopicPublisher(final String topicName, final TopicTemplateConfig topicConfig, final VegaContext vegaContext)
+    private void abortNotSync()
     {
-        this.topicName = topicName;
-        this.topicConfig = topicConfig;
-        this.vegaContext = vegaContext;
+        if (!this.publishClaim.isPending())
+        {
+            log.warn("Trying to abort a claim that is not pending on topicName [{}]", this.topicName);
+            return;
+        }
+
+        if (!this.publishClaim.isOwnedByCurrentThread())
+        {
+            log.warn("Trying to abort a claim of another thread on topicName [{}]", this.topicName);
+            return;
+        }
+
+        this.abortPendingClaim();
     }
 
-    @Override
-    public PublishResult sendMsg(final DirectBuffer message, final int offset, final int length)
+    /**
+     * Abort the pending claim. If the claim is direct and no other message has been sent since, the sequence number
+     * is restored to avoid a gap in the receivers.
+     */
+    private void abortPendingClaim()
     {
-        synchronized (this.lock)
+        this.publishClaim.release();
+
+        if (this.publishClaim.isDirect())
         {
-            if (log.isTraceEnabled())
-            {
-                log.trace("Sending data message. TopicName [{}]. TopicId [{}]", this.topicName, this.uniqueId);
-            }
+            this.publishClaim.getAeronBufferClaim().abort();
 
-            // Make sure the publisher has not been closed
-            if (this.closed)
+            if (this.sequenceNumber == this.publishClaim.getSequenceNumber())
             {
-                log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
-                return PublishResult.UNEXPECTED_ERROR;
+                this.sequenceNumber = this.sequenceNumber - 1;
             }
-
-            // Add a unit to the sequence number
-            this.sequenceNumber = this.sequenceNumber + 1;
-
-            return this.sendToAeron(message, this.sequenceNumber, offset, length);
         }
+        else
+        {
+            this.publishClaim.releaseStagingBuffer();
+        }
+    }
+
+    /**
+     * Return a claim that has failed with the given result. If there is a pending claim it is not modified and a new
+     * object is returned to avoid losing it.
+     *
+     * @param failResult the result of the failed claim
+     * @return the failed claim
+     */
+    private PublishClaim failedClaim(final PublishResult failResult)
+    {
+        final PublishClaim result = this.publishClaim.isPending() ? new PublishClaim(this.vegaContext.getDirectBufferPool()) : this.publishClaim;
+        result.setFailed(failResult);
+        return result;
     }
 
     @Override
     public SentRequest sendRequest(final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener)
     {
+        if (this.singleWriter)
+        {
+            return this.sendRequest(MsgType.DATA_REQ, message, offset, length, timeout, respListener);
+        }
+
         synchronized (this.lock)
         {
             return this.sendRequest(MsgType.DATA_REQ, message, offset, length, timeout, respListener);
         }
     }
 
+    @Override
+    public CompletableFuture<IRcvResponse> sendRequestAsync(final DirectBuffer message, final int offset, final int length, final long timeout)
+    {
+        return this.sendFutureRequest(message, offset, length, timeout);
+    }
+
+    @Override
+    public IRcvResponse sendRequestSync(final DirectBuffer message, final int offset, final int length, final long timeout, final RequestWaitType waitType) throws VegaException
+    {
+        // Fail fast instead of waiting for responses that no thread is going to poll
+        this.vegaContext.checkSyncRequestsSupported();
+
+        return this.sendFutureRequest(message, offset, length, timeout).waitResponse(waitType);
+    }
+
+    /**
+     * Send a request listened by a new response future. The request is released once sent, the user never accesses it.
+     *
+     * @param message The request message to send
+     * @param offset Offset for the message start in the buffer
+     * @param length Length of the message starting in the given offset
+     * @param timeout the timeout of the request in milliseconds
+     * @return the future for the response of the request
+     */
+    private ResponseFuture sendFutureRequest(final DirectBuffer message, final int offset, final int length, final long timeout)
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.sendRequest(message, offset, length, timeout, future);
+
+        // Complete the future if not sent, the request would never expire if not added to the request manager
+        future.onRequestSent(request);
+        request.release();
+
+        return future;
+    }
+
     @Override
     public void sendHeartbeat(final IResponseListener responseListener, final long timeout)
     {
         synchronized (this.lock)
         {
-            this.sendRequest(MsgType.HEARTBEAT_REQ, this.heartbeatContent, 0, 0, timeout, responseListener);
+            // The heartbeat request is not used after sending it, release it to be reused once it expires
+            this.sendRequest(MsgType.HEARTBEAT_REQ, this.heartbeatContent, 0, 0, timeout, responseListener).release();
         }
     }
 
@@ -133,12 +999,13 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
      * @param timeout the timeout of the request in milliseconds
      * @param respListener Listener for responses on the request. If null no responses will be processed.
      *
-     * @return an object that represent the sent request, containing the request ID and other useful information like the publish result
+     * @return an object that represent the sent request, containing the request ID and other useful information like the publish result.
+     * It should be released once it is no longer used to be reused.
      */
     private SentRequest sendRequest(final byte msgType, final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener)
     {
-        // Create the request object
-        final SentRequest request = new SentRequest(this.topicName, timeout, respListener, this.rnd);
+        // Get a request object from the pool of the instance
+        final SentRequest request = this.vegaContext.getAsyncRequestManager().createRequest(this.topicName, timeout, respListener);
 
         if (log.isTraceEnabled())
         {
@@ -159,8 +1026,24 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
         // Add a unit to the sequence number
         this.sequenceNumber = this.sequenceNumber + 1;
 
+        // Requests and heartbeats cannot be retransmitted
+        if (this.retransmitCache != null)
+        {
+            this.retransmitCache.addNotCached(this.sequenceNumber);
+        }
+
+        // They are journaled without contents so the replays don't report them as lost
+        if (this.journal != null)
+        {
+            this.journal.appendSkip(this.sequenceNumber);
+        }
+
+        // Heartbeats are sent from the heartbeats timer thread and are never retried to avoid blocking it
+        this.flushConflatedMsgsBeforePublication();
+        this.backPressureHandler.begin(msgType != MsgType.HEARTBEAT_REQ);
+
         // Send the request to all the internal Aeron publishers
-        request.setSentResult(this.sendRequestToAeron(msgType, request.getRequestId(), message, this.sequenceNumber, offset, length));
+        request.setSentResult(this.sendRequestToAeron(msgType, request.getRequestIdMsb(), request.getRequestIdLsb(), message, this.sequenceNumber, offset, length));
 
         return request;
     }
@@ -176,6 +1059,13 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
                 return;
             }
 
+            // Heartbeats are sent from the heartbeats timer thread, a single writer topic publisher cannot support them
+            if (this.singleWriter)
+            {
+                log.error("Heartbeats are not supported on single writer publisher on topicName [{}]", this.topicName);
+                return;
+            }
+
             // If the heartbeat controller is active, stop it
             if (this.heartBeatController != null)
             {
@@ -225,12 +1115,256 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
                 this.deactivateHeartbeats();
             }
 
+            // Discard the pending claim of the calling thread. The claim of another thread may still be written, it is discarded
+            // by its owner on commit or abort.
+            if (this.publishClaim.isPending() && this.publishClaim.isOwnedByCurrentThread())
+            {
+                this.abortPendingClaim();
+            }
+
+            // Discard any pending conflated message
+            if (this.backPressureHandler.hasConflatedMsg())
+            {
+                this.backPressureHandler.onDrop();
+                this.backPressureHandler.clearConflatedMsg();
+            }
+
+            // Discard the messages conflated by key
+            this.backPressureHandler.dropConflatedByKeyMsgs();
+
+            // Delete the journal, the replays in progress are stopped
+            if (this.journal != null)
+            {
+                this.journal.close();
+            }
+
             // Set as closed and clean internal information
             this.closed = true;
             this.cleanAeronPublishers();
         }
     }
 
+    /** @return true if the topic publisher keeps the sent messages to retransmit them on request */
+    boolean hasRetransmitCache()
+    {
+        return this.retransmitCache != null;
+    }
+
+    /** @return true if the topic publisher keeps the last message of each key to send them to the new subscribers that request them */
+    boolean hasLastValueCache()
+    {
+        return this.lastValueCache != null;
+    }
+
+    /**
+     * Send the messages of the last value cache through the given publisher, the response publisher of the subscriber instance that
+     * requested the snapshot. The messages keep the sequence number they were sent with. The cache is copied with the lock together
+     * with the last sequence number sent, and the copy is sent without it followed by the end of the snapshot with that sequence
+     * number, the subscriber merges them with the live messages after it. <p>
+     *
+     * A back pressured message is retried a limited number of times until the snapshot timeout, then the rest of the snapshot is
+     * discarded and the end is not sent, the subscriber gives up the snapshot once its timeout expires. <p>
+     *
+     * It is always called from the snapshot sender thread.
+     *
+     * @param aeronPublisher the publisher to send the snapshot with
+     * @return the number of messages sent
+     */
+    int sendSnapshot(final AeronPublisher aeronPublisher)
+    {
+        if (this.lastValueCache == null)
+        {
+            return 0;
+        }
+
+        if (this.snapshotCopy == null)
+        {
+            this.snapshotCopy = new LastValueCache(this.topicConfig.getLastValueCacheSize(), this.topicConfig.getLastValueMaxMsgSize());
+        }
+
+        final long lastSequenceNumber;
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return 0;
+            }
+
+            this.lastValueCache.copyTo(this.snapshotCopy);
+            lastSequenceNumber = this.sequenceNumber;
+        }
+
+        final long deadlineNanos = System.nanoTime() + this.snapshotTimeoutNanos;
+
+        for (int slot = 0; slot < this.snapshotCopy.size(); slot++)
+        {
+            final PublishResult result = this.sendSnapshotMsg(
+                    MsgType.DATA_SNAPSHOT,
+                    this.snapshotCopy.getSequenceNumber(slot),
+                    this.snapshotCopy.getOffset(slot),
+                    this.snapshotCopy.getLength(slot),
+                    aeronPublisher,
+                    deadlineNanos);
+
+            if (result != PublishResult.OK)
+            {
+                log.warn("Error [{}] sending the last value snapshot on topicName [{}], [{}] of [{}] messages sent", result, this.topicName, slot, this.snapshotCopy.size());
+                return slot;
+            }
+        }
+
+        // The end has no contents, the header contains the last sequence number covered by the snapshot
+        final PublishResult result = this.sendSnapshotMsg(MsgType.DATA_SNAPSHOT_END, lastSequenceNumber, 0, 0, aeronPublisher, deadlineNanos);
+
+        if (result != PublishResult.OK)
+        {
+            log.warn("Error [{}] sending the end of the last value snapshot on topicName [{}]", result, this.topicName);
+        }
+
+        return this.snapshotCopy.size();
+    }
+
+    /**
+     * Send a message of the copy of the last value cache, retrying a limited number of times until the deadline if it is back
+     * pressured. It stops if the topic publisher is closed.
+     *
+     * @param msgType type of the message
+     * @param sequenceNumber sequence number of the message
+     * @param offset offset of the contents in the buffer of the copy
+     * @param length length of the contents
+     * @param aeronPublisher the publisher to send the message with
+     * @param deadlineNanos time the retries are given up
+     * @return the result of the last send attempt
+     */
+    private PublishResult sendSnapshotMsg(final byte msgType,
+                                          final long sequenceNumber,
+                                          final int offset,
+                                          final int length,
+                                          final AeronPublisher aeronPublisher,
+                                          final long deadlineNanos)
+    {
+        if (this.closed)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        PublishResult result;
+        int attempts = 0;
+        do
+        {
+            result = aeronPublisher.sendMessage(msgType, this.uniqueId, this.snapshotCopy.getBuffer(), sequenceNumber, offset, length);
+
+            if (result == PublishResult.BACK_PRESSURED)
+            {
+                Thread.yield();
+            }
+        }
+        while (result == PublishResult.BACK_PRESSURED && ++attempts < SNAPSHOT_MAX_ATTEMPTS && System.nanoTime() - deadlineNanos < 0);
+
+        return result;
+    }
+
+    /** @return the journal of the sent messages, null if the topic is not durable */
+    TopicJournal getJournal()
+    {
+        return this.journal;
+    }
+
+    /**
+     * Store a sent message in the retransmission cache and the journal if the topic publisher has them
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @param message buffer with the message
+     * @param offset message offset in the buffer
+     * @param length message length starting from the offset
+     */
+    private void storeSentMsg(final long sequenceNumber, final DirectBuffer message, final int offset, final int length)
+    {
+        if (this.retransmitCache != null)
+        {
+            this.retransmitCache.add(sequenceNumber, message, offset, length);
+        }
+
+        if (this.journal != null)
+        {
+            this.journal.append(sequenceNumber, message, offset, length);
+        }
+    }
+
+    /**
+     * Copy a message of the retransmission cache to send it without the lock, the copy is returned by {@link #getRetransmitCopy()}.
+     * Called from the retransmission sender thread.
+     *
+     * @param sequenceNumber sequence number of the message
+     * @return the length of the message, {@link #RETRANSMIT_NOT_CACHED} if it is no longer in the cache or cannot be retransmitted
+     * and {@link #RETRANSMIT_CLOSED} if the topic publisher has been closed
+     */
+    int copyRetransmitMsg(final long sequenceNumber)
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return RETRANSMIT_CLOSED;
+            }
+
+            // Never beyond the last sent message, the slot may still hold an older one
+            final int slot = sequenceNumber > this.sequenceNumber ? -1 : this.retransmitCache.find(sequenceNumber);
+
+            if (slot == -1)
+            {
+                return RETRANSMIT_NOT_CACHED;
+            }
+
+            final int length = this.retransmitCache.getLength(slot);
+            this.retransmitCopy.putBytes(0, this.retransmitCache.getBuffer(), this.retransmitCache.getOffset(slot), length);
+            return length;
+        }
+    }
+
+    /** @return the copy of the last message copied by {@link #copyRetransmitMsg} */
+    DirectBuffer getRetransmitCopy()
+    {
+        return this.retransmitCopy;
+    }
+
+    /**
+     * Find the oldest message of a retransmission request that may still be in the retransmission cache
+     *
+     * @param firstSequenceNumber sequence number of the first requested message
+     * @return the sequence number of the first requested message that may still be in the cache
+     */
+    long getFirstRetransmittable(final long firstSequenceNumber)
+    {
+        synchronized (this.lock)
+        {
+            return Math.max(firstSequenceNumber, this.sequenceNumber - this.retransmitCache.capacity() + 1);
+        }
+    }
+
+    @Override
+    public long getBackPressureRetries()
+    {
+        return this.backPressureHandler.getRetries();
+    }
+
+    @Override
+    public long getBackPressureDrops()
+    {
+        return this.backPressureHandler.getDrops();
+    }
+
+    /**
+     * Called by the implementations when an Aeron publisher is back pressured during a send. If the back pressure policy
+     * allows it, it idles before returning.
+     *
+     * @return true if the send should be attempted again on the back pressured Aeron publisher
+     */
+    final boolean retryBackPressured()
+    {
+        return this.backPressureHandler.retry();
+    }
+
     /**
      * True if the topic is configured to use security
      */
@@ -252,18 +1386,92 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
      */
     abstract PublishResult sendToAeron(DirectBuffer message, long sequenceNumber, int offset, int length);
 
+    /**
+     * Send a batch of messages to all the AeronPublishers related to the topic. By default each message is sent separately,
+     * the implementations that can send the whole batch in a single message should override it.
+     *
+     * @param batch the batch with the messages to send
+     * @param firstSequenceNumber the sequence number of the first message of the batch
+     * @return the result of the send process
+     */
+    PublishResult sendBatchToAeron(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        return this.sendBatchMessagesToAeron(batch, firstSequenceNumber);
+    }
+
+    /**
+     * Send each message of the batch separately using {@link #sendToAeron(DirectBuffer, long, int, int)}
+     *
+     * @param batch the batch with the messages to send
+     * @param firstSequenceNumber the sequence number of the first message of the batch
+     * @return the result of the send process
+     */
+    final PublishResult sendBatchMessagesToAeron(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        final UnsafeBuffer batchBuffer = batch.getBuffer();
+
+        boolean hasBackPressure = false;
+        int msgOffset = UnsafeBufferSerializer.INT_SIZE;
+
+        for (int i = 0; i < batch.getNumMessages(); i++)
+        {
+            final int msgLength = batchBuffer.getInt(msgOffset);
+            final PublishResult sendResult = this.sendToAeron(batchBuffer, firstSequenceNumber + i, msgOffset + UnsafeBufferSerializer.INT_SIZE, msgLength);
+
+            // If there is an unexpected error, return without trying to send the rest of the messages
+            if (sendResult == PublishResult.UNEXPECTED_ERROR || sendResult == PublishResult.AERON_PUBLISHERS_NOT_FOUND)
+            {
+                return sendResult;
+            }
+            else if (sendResult == PublishResult.BACK_PRESSURED)
+            {
+                hasBackPressure = true;
+            }
+
+            msgOffset += UnsafeBufferSerializer.INT_SIZE + msgLength;
+        }
+
+        return hasBackPressure ? PublishResult.BACK_PRESSURED : PublishResult.OK;
+    }
+
+    /**
+     * True if a message of the given length can be claimed directly on the Aeron term buffer. By default it is not supported.
+     *
+     * @param length message length
+     * @return true if the message can be claimed directly
+     */
+    boolean canClaimInAeron(final int length)
+    {
+        return false;
+    }
+
+    /**
+     * Claim space for a message directly on the Aeron term buffer and write the library headers. Only called if
+     * {@link #canClaimInAeron(int)} is true.
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @param length message length
+     * @param bufferClaim the buffer claim to perform the claim with
+     * @return the Aeron claim result, positive if the claim succeed
+     */
+    long claimInAeron(final long sequenceNumber, final int length, final BufferClaim bufferClaim)
+    {
+        return Publication.CLOSED;
+    }
+
     /**
      * Send request to all the AeronPublishers related to the topic
      *
      * @param msgType type of the message to send
-     * @param requestId the unique id of the request object
+     * @param requestIdMsb most significant bits of the unique id of the request object
+     * @param requestIdLsb least significant bits of the unique id of the request object
      * @param message the message to send
      * @param sequenceNumber the sequence number of the message
      * @param offset message offset in the byte buffer
      * @param length message length starting from the offset
      * @return the result of the send process
      */
-    abstract PublishResult sendRequestToAeron(byte msgType, UUID requestId, DirectBuffer message, long sequenceNumber, int offset, int length);
+    abstract PublishResult sendRequestToAeron(byte msgType, long requestIdMsb, long requestIdLsb, DirectBuffer message, long sequenceNumber, int offset, int length);
 
     /**
      * Clean related AeronPublishers information. Don't close the aeron publishers, just cleanAfterClose references.
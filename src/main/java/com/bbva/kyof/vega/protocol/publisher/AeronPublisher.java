@@ -1,13 +1,12 @@
-
 package com.bbva.kyof.vega.protocol.publisher;
 
-import com.bbva.kyof.vega.Version;
+import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
-import com.bbva.kyof.vega.util.net.InetUtil;
+import io.aeron.DirectBufferVector;
 import io.aeron.Publication;
 import io.aeron.logbuffer.BufferClaim;
 import lombok.Getter;
@@ -16,8 +15,8 @@ import org.agrona.DirectBuffer;
 import org.agrona.concurrent.BusySpinIdleStrategy;
 
 import java.io.Closeable;
-import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Wrapper class to encapsulate an Aeron Publisher. <p>
@@ -27,47 +26,48 @@ import java.util.UUID;
  *
  * The publisher will always try to use "bufferClaim" if possible in order to avoid copying the header and contents
  * into a new buffer for each message. When the messages are too big (close to 4k) this cannot be done and we need to
- * use a normal "offer" to send the message. <p>
+ * use a vectored "offer" to send the message, Aeron gathers the headers and the user message without assembling them first. <p>
+ *
+ * The headers and serializers used to write the messages are kept per thread, since the Aeron publication is thread safe
+ * several threads can send at the same time without any lock. This is important when topics sent from different threads
+ * share the same publication. <p>
  *
  * It also handles the life-cicle of the publisher.
  *
- * This class is thread safe!!
+ * If created in single writer mode the publisher is based on an Aeron exclusive publication, in this case it should be used
+ * by a single topic publisher and always from the same thread.
+ *
+ * This class is thread safe unless created in single writer mode!!
  */
 @Slf4j
 public class AeronPublisher implements IAeronPublisher, Closeable
 {
+    /** Reusable headers and serializers, there is one per thread and they are shared by all the publishers */
+    private static final ThreadLocal<SendHeadersTemplate> SEND_TEMPLATES = ThreadLocal.withInitial(SendHeadersTemplate::new);
+
     /** Aeron publication */
     private final Publication publication;
 
     /** Parameters of the publisher */
     @Getter private final AeronPublisherParams params;
 
-    /** Reusable base header */
-    private final BaseHeader reusableBaseHeader;
+    /** Unique id of the library instance, it is written in the headers of all the messages */
+    private final UUID instanceId;
 
-    /** Reusable data msg header */
-    private final MsgDataHeader reusableMsgHeader;
+    /** Binary size of the headers of a data message */
+    private final int dataHeadersSize;
 
-    /** Reusable data request header */
-    private final MsgReqHeader reusableMsgReqHeader;
+    /** Binary size of the headers of a data message with compact header */
+    private final int compactDataHeadersSize;
 
-    /** Reusable data response header */
-    private final MsgRespHeader reusableMsgRespHeader;
-
-    /** Reusable buffer claim to serialize messages, allowing adding header and user message contents without extra copies */
-    private final BufferClaim bufferClaim = new BufferClaim();
-
-    /** Reusable serializer for claim send type */
-    private final UnsafeBufferSerializer claimUnsafeSerializer = new UnsafeBufferSerializer();
-
-    /** Reusable serializer for offer send type */
-    private final UnsafeBufferSerializer offerUnsafeSerializer = new UnsafeBufferSerializer();
+    /** Next header alias to assign to a topic publisher that sends compact headers on this publisher */
+    private final AtomicInteger nextHeaderAlias = new AtomicInteger(0);
 
     /** Idle strategy when retrying due to admin action */
     private final BusySpinIdleStrategy adminActionRetryIdle = new BusySpinIdleStrategy();
 
-    /** Lock for synchronization of the instance */
-    private final Object lock = new Object();
+    /** True if the publisher is used from a single thread, the publication is exclusive */
+    @Getter private final boolean singleWriter;
 
     /**
      * Create a new publisher instance given the context of the library and the parameters for the publisher
@@ -76,18 +76,26 @@ public class AeronPublisher implements IAeronPublisher, Closeable
      */
     public AeronPublisher(final VegaContext vegaContext, final AeronPublisherParams params)
     {
-        // Create the reusable base header
-        this.reusableBaseHeader = new BaseHeader(MsgType.DATA, Version.LOCAL_VERSION);
+        this(vegaContext, params, false);
+    }
+
+    /**
+     * Create a new publisher instance given the context of the library and the parameters for the publisher
+     * @param vegaContext context of the instance
+     * @param params publisher parameters
+     * @param singleWriter true to create an exclusive publication that will be used always from the same thread
+     */
+    public AeronPublisher(final VegaContext vegaContext, final AeronPublisherParams params, final boolean singleWriter)
+    {
+        this.singleWriter = singleWriter;
 
-        // Create the reusable headers for all message types
-        this.reusableMsgHeader = new MsgDataHeader();
-        this.reusableMsgReqHeader = new MsgReqHeader();
-        this.reusableMsgRespHeader = new MsgRespHeader();
+        // Store the unique instance id since it is always the same for all messages sent with this publisher
+        this.instanceId = vegaContext.getInstanceUniqueId();
 
-        // Preset the unique instance id since it is always the same for all messages sent with this publisher
-        this.reusableMsgHeader.setInstanceId(vegaContext.getInstanceUniqueId());
-        this.reusableMsgReqHeader.setInstanceId(vegaContext.getInstanceUniqueId());
-        this.reusableMsgRespHeader.setInstanceId(vegaContext.getInstanceUniqueId());
+        // Calculate the headers size, it is always the same
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        this.dataHeadersSize = template.getBaseHeader().serializedSize() + template.getMsgHeader().serializedSize();
+        this.compactDataHeadersSize = template.getBaseHeader().serializedSize() + template.getMsgCompactHeader().serializedSize();
 
         // Store the parameters
         this.params = params;
@@ -95,98 +103,416 @@ public class AeronPublisher implements IAeronPublisher, Closeable
         // Create the aeron publisher channel
         final String publicationChannel = this.createPublicationChannel(params);
 
-        log.info("Creating AeronPublisher with params [{}], channel [{}]", params, publicationChannel);
+        log.info("Creating AeronPublisher with params [{}], channel [{}], single writer [{}]", params, publicationChannel, singleWriter);
 
-        // Create the aeron publisher
-        this.publication = vegaContext.getAeron().addPublication(publicationChannel, params.getStreamId());
-
-        // Start the offer serializer buffer to twice the size of the max claim size
-        this.offerUnsafeSerializer.wrap(ByteBuffer.allocate(this.publication.maxPayloadLength() * 2));
+        // Create the aeron publisher, an exclusive one if there is a single writer
+        if (singleWriter)
+        {
+            this.publication = vegaContext.getAeron().addExclusivePublication(publicationChannel, params.getStreamId());
+        }
+        else
+        {
+            this.publication = vegaContext.getAeron().addPublication(publicationChannel, params.getStreamId());
+        }
     }
 
     @Override
     public void close()
     {
-        synchronized (this.lock)
+        if (this.publication.isClosed())
         {
-            if (this.publication.isClosed())
-            {
-                return;
-            }
+            return;
+        }
 
-            log.info("Closing aeron publisher [{}]", this.params.toString());
+        log.info("Closing aeron publisher [{}]", this.params.toString());
 
-            // Close the publisher
-            this.publication.close();
-        }
+        // Close the publisher, Aeron ignores the call if already closed
+        this.publication.close();
     }
 
     @Override
     public PublishResult sendMessage(final byte msgType, final UUID topicUniqueId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
-        synchronized (this.lock)
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
         {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed())
+            return PublishResult.OK;
+        }
+
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        final MsgDataHeader msgHeader = template.getMsgHeader();
+
+        // Set the header fields
+        msgHeader.setInstanceId(this.instanceId);
+        msgHeader.setTopicPublisherId(topicUniqueId);
+        msgHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(template, msgType, msgHeader, message, offset, length);
+    }
+
+    /**
+     * Send a data message encrypted with AES-GCM. If the encrypted message fits in a claim it is encrypted directly into the Aeron
+     * term buffer after the headers, otherwise it is encrypted into the staging buffer of the encoder and sent with the vectored offer.
+     *
+     * @param topicUniqueId unique id of the topic publisher
+     * @param encoder the encoder of the topic publisher, configured with the AES_GCM cipher type
+     * @param message the buffer with the message to encrypt and send
+     * @param sequenceNumber the sequence number of the message, it is part of the nonce
+     * @param offset the offset in the buffer where the message to send starts
+     * @param length the length of the message starting from the given offset
+     *
+     * @return the result of the message send
+     */
+    PublishResult sendGcmEncryptedMessage(final UUID topicUniqueId, final AesTopicMsgEncoder encoder, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
+        {
+            return PublishResult.OK;
+        }
+
+        final int totalMsgSize = this.dataHeadersSize + encoder.gcmEncryptedSize(length);
+
+        // Too big for a claim, encrypt it apart and send it with the normal mechanism
+        if (totalMsgSize > this.publication.maxPayloadLength())
+        {
+            final DirectBuffer encryptedMsg;
+            try
+            {
+                encryptedMsg = encoder.encryptMessageGcm(sequenceNumber, message, offset, length);
+            }
+            catch (final VegaException e)
             {
-                return PublishResult.OK;
+                log.error("Unexpected error trying to encrypt a message before sending it in a secure topic publisher", e);
+                return PublishResult.UNEXPECTED_ERROR;
             }
 
-            // Set the topic unique id of the reusable header
-            this.reusableMsgHeader.setTopicPublisherId(topicUniqueId);
-                        
-            // Set the sequence number of the reusable header
-            this.reusableMsgHeader.setSequenceNumber(sequenceNumber);
-            
-            // Send the message
-            return this.send(msgType, this.reusableMsgHeader, message, offset, length);
+            return this.sendMessage(MsgType.ENCRYPTED_DATA_GCM, topicUniqueId, encryptedMsg, sequenceNumber, 0, encryptedMsg.capacity());
+        }
+
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        final BufferClaim bufferClaim = template.getBufferClaim();
+
+        // Reserve space in the publication.
+        final long claimResult = this.tryClaim(totalMsgSize, bufferClaim);
+
+        if (claimResult <= 0)
+        {
+            return PublishResult.fromAeronResult(claimResult);
         }
+
+        final BaseHeader baseHeader = template.getBaseHeader();
+        final MsgDataHeader msgHeader = template.getMsgHeader();
+
+        // Set the header fields
+        baseHeader.setMsgType(MsgType.ENCRYPTED_DATA_GCM);
+        msgHeader.setInstanceId(this.instanceId);
+        msgHeader.setTopicPublisherId(topicUniqueId);
+        msgHeader.setSequenceNumber(sequenceNumber);
+
+        // Write the headers
+        final UnsafeBufferSerializer serializer = template.getClaimSerializer();
+        serializer.wrap(bufferClaim.buffer(), bufferClaim.offset(), totalMsgSize);
+        baseHeader.toBinary(serializer);
+        msgHeader.toBinary(serializer);
+
+        // Encrypt the user message directly after the headers
+        try
+        {
+            encoder.encryptMessageGcm(sequenceNumber, message, offset, length, bufferClaim.buffer(), bufferClaim.offset() + this.dataHeadersSize);
+        }
+        catch (final VegaException e)
+        {
+            bufferClaim.abort();
+            log.error("Unexpected error trying to encrypt a message before sending it in a secure topic publisher", e);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // Send the message
+        bufferClaim.commit();
+        return PublishResult.OK;
     }
 
-    @Override
+    /**
+     * Send a data message using the compact header, the topic publisher is identified by the header alias assigned by this publisher
+     *
+     * @param headerAlias the header alias of the topic publisher, obtained with {@link #assignHeaderAlias()}
+     * @param message the buffer with the message to send
+     * @param sequenceNumber the sequence number of the message
+     * @param offset the offset in the buffer where the message to send starts
+     * @param length the length of the message starting from the given offset
+     *
+     * @return the result of the message send
+     */
+    PublishResult sendCompactMessage(final int headerAlias, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
+        {
+            return PublishResult.OK;
+        }
+
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        final MsgCompactDataHeader msgCompactHeader = template.getMsgCompactHeader();
+
+        // Set the header fields
+        msgCompactHeader.setHeaderAlias(headerAlias);
+        msgCompactHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(template, MsgType.DATA_COMPACT, msgCompactHeader, message, offset, length);
+    }
+
+    /**
+     * Send a request message
+     *
+     * @param msgType message type to send
+     * @param topicUniqueId unique Id of the topic publisher
+     * @param requestId unique id for the request
+     * @param message the message to send
+     * @param sequenceNumber sequence number of the message to send
+     * @param offset offset where the message starts in the buffer
+     * @param length length of the message to send starting from the offset
+     * @return Enum with the possible results after a publication
+     */
     public PublishResult sendRequest(final byte msgType, final UUID topicUniqueId, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
-        synchronized (this.lock)
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
         {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed())
-            {
-                return PublishResult.OK;
-            }
+            return PublishResult.OK;
+        }
 
-            // Set the request header fields
-            this.reusableMsgReqHeader.setTopicPublisherId(topicUniqueId);
-            this.reusableMsgReqHeader.setRequestId(requestId);
-            
-            // Set the sequence number of the reusable header
-            this.reusableMsgReqHeader.setSequenceNumber(sequenceNumber);
+        return this.sendRequest(msgType, topicUniqueId, requestId.getMostSignificantBits(), requestId.getLeastSignificantBits(), message, sequenceNumber, offset, length);
+    }
 
-            // Send the message
-            return this.send(msgType, this.reusableMsgReqHeader, message, offset, length);
+    @Override
+    public PublishResult sendRequest(
+            final byte msgType,
+            final UUID topicUniqueId,
+            final long requestIdMsb,
+            final long requestIdLsb,
+            final DirectBuffer message,
+            final long sequenceNumber,
+            final int offset,
+            final int length)
+    {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
+        {
+            return PublishResult.OK;
         }
+
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        final MsgReqHeader msgReqHeader = template.getMsgReqHeader();
+
+        // Set the request header fields
+        msgReqHeader.setInstanceId(this.instanceId);
+        msgReqHeader.setTopicPublisherId(topicUniqueId);
+        msgReqHeader.setRequestId(requestIdMsb, requestIdLsb);
+        msgReqHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(template, msgType, msgReqHeader, message, offset, length);
     }
 
     @Override
     public PublishResult sendResponse(final UUID requestId, final DirectBuffer message, final int offset, final int length)
     {
-        synchronized (this.lock)
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
         {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed())
-            {
-                return PublishResult.OK;
-            }
+            return PublishResult.OK;
+        }
 
-            // Set the request header fields
-            this.reusableMsgRespHeader.setRequestId(requestId);
+        return this.sendResponse(requestId.getMostSignificantBits(), requestId.getLeastSignificantBits(), message, offset, length);
+    }
 
-            // Send the message
-            return this.send(MsgType.RESP, this.reusableMsgRespHeader, message, offset, length);
+    @Override
+    public PublishResult sendResponse(final long requestIdMsb, final long requestIdLsb, final DirectBuffer message, final int offset, final int length)
+    {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed())
+        {
+            return PublishResult.OK;
         }
+
+        final SendHeadersTemplate template = SEND_TEMPLATES.get();
+        final MsgRespHeader msgRespHeader = template.getMsgRespHeader();
+
+        // Set the response header fields
+        msgRespHeader.setInstanceId(this.instanceId);
+        msgRespHeader.setRequestId(requestIdMsb, requestIdLsb);
+
+        // Send the message
+        return this.send(template, MsgType.RESP, msgRespHeader, message, offset, length);
+    }
+
+    /**
+     * Assign a new header alias for a topic publisher that will send compact headers on this publisher. The aliases are
+     * consecutive and only unique inside the Aeron session of the publisher, they are never reused.
+     *
+     * @return the assigned header alias
+     */
+    int assignHeaderAlias()
+    {
+        return this.nextHeaderAlias.getAndIncrement();
+    }
+
+    /** @return the Aeron session id of the publication, it identifies the publisher images on the subscribers side */
+    int getSessionId()
+    {
+        return this.publication.sessionId();
+    }
+
+    /**
+     * Add a destination to a multi-destination-cast publisher
+     *
+     * @param ipAddress ip address of the destination
+     * @param port port of the destination
+     */
+    void addDestination(final int ipAddress, final int port)
+    {
+        final String destination = AeronChannelHelper.createUnicastDestinationString(ipAddress, port);
+
+        log.info("Adding destination [{}] to aeron publisher [{}]", destination, this.params);
+
+        this.publication.addDestination(destination);
+    }
+
+    /**
+     * Remove a destination from a multi-destination-cast publisher
+     *
+     * @param ipAddress ip address of the destination
+     * @param port port of the destination
+     */
+    void removeDestination(final int ipAddress, final int port)
+    {
+        // If closed the destinations are already gone
+        if (this.publication.isClosed())
+        {
+            return;
+        }
+
+        final String destination = AeronChannelHelper.createUnicastDestinationString(ipAddress, port);
+
+        log.info("Removing destination [{}] from aeron publisher [{}]", destination, this.params);
+
+        this.publication.removeDestination(destination);
+    }
+
+    /** @return true if the publication is connected to at least one subscriber */
+    boolean isConnected()
+    {
+        return this.publication.isConnected();
+    }
+
+    /**
+     * True if a data message of the given length fits in a single Aeron claim once the library headers are added
+     *
+     * @param length the length of the user message
+     * @return true if the message can be claimed directly on the Aeron term buffer
+     */
+    boolean canClaimMessage(final int length)
+    {
+        return this.dataHeadersSize + length <= this.publication.maxPayloadLength();
+    }
+
+    /**
+     * Claim space in the Aeron term buffer for a data message of the given length and write the library headers on it. <p>
+     *
+     * If the claim succeeds the user message should be written in the claimed buffer after the headers and the claim
+     * committed or aborted by the caller.
+     *
+     * @param topicUniqueId unique id of the topic publisher
+     * @param sequenceNumber the sequence number of the message
+     * @param length the length of the user message
+     * @param bufferClaim the buffer claim to perform the claim with, it is owned by the caller
+     *
+     * @return the Aeron claim result, positive if the claim succeed
+     */
+    long claimMessage(final UUID topicUniqueId, final long sequenceNumber, final int length, final BufferClaim bufferClaim)
+    {
+        if (this.publication.isClosed())
+        {
+            return Publication.CLOSED;
+        }
+
+        final int totalMsgSize = this.dataHeadersSize + length;
+
+        // Reserve space in the publication.
+        final long claimResult = this.tryClaim(totalMsgSize, bufferClaim);
+
+        if (claimResult > 0)
+        {
+            final SendHeadersTemplate template = SEND_TEMPLATES.get();
+            final BaseHeader baseHeader = template.getBaseHeader();
+            final MsgDataHeader msgHeader = template.getMsgHeader();
+
+            // Set the header fields
+            baseHeader.setMsgType(MsgType.DATA);
+            msgHeader.setInstanceId(this.instanceId);
+            msgHeader.setTopicPublisherId(topicUniqueId);
+            msgHeader.setSequenceNumber(sequenceNumber);
+
+            // Write the headers, the user will write the message after them
+            final UnsafeBufferSerializer serializer = template.getClaimSerializer();
+            serializer.wrap(bufferClaim.buffer(), bufferClaim.offset(), totalMsgSize);
+            baseHeader.toBinary(serializer);
+            msgHeader.toBinary(serializer);
+        }
+
+        return claimResult;
+    }
+
+    /**
+     * Claim space in the Aeron term buffer for a data message of the given length and write the library headers on it using the
+     * compact header. It works like {@link #claimMessage} but the topic publisher is identified by the header alias.
+     *
+     * @param headerAlias the header alias of the topic publisher, obtained with {@link #assignHeaderAlias()}
+     * @param sequenceNumber the sequence number of the message
+     * @param length the length of the user message
+     * @param bufferClaim the buffer claim to perform the claim with, it is owned by the caller
+     *
+     * @return the Aeron claim result, positive if the claim succeed
+     */
+    long claimCompactMessage(final int headerAlias, final long sequenceNumber, final int length, final BufferClaim bufferClaim)
+    {
+        if (this.publication.isClosed())
+        {
+            return Publication.CLOSED;
+        }
+
+        final int totalMsgSize = this.compactDataHeadersSize + length;
+
+        // Reserve space in the publication.
+        final long claimResult = this.tryClaim(totalMsgSize, bufferClaim);
+
+        if (claimResult > 0)
+        {
+            final SendHeadersTemplate template = SEND_TEMPLATES.get();
+            final BaseHeader baseHeader = template.getBaseHeader();
+            final MsgCompactDataHeader msgCompactHeader = template.getMsgCompactHeader();
+
+            // Set the header fields
+            baseHeader.setMsgType(MsgType.DATA_COMPACT);
+            msgCompactHeader.setHeaderAlias(headerAlias);
+            msgCompactHeader.setSequenceNumber(sequenceNumber);
+
+            // Write the headers, the user will write the message after them
+            final UnsafeBufferSerializer serializer = template.getClaimSerializer();
+            serializer.wrap(bufferClaim.buffer(), bufferClaim.offset(), totalMsgSize);
+            baseHeader.toBinary(serializer);
+            msgCompactHeader.toBinary(serializer);
+        }
+
+        return claimResult;
     }
 
     /**
      * Send a message given the message type, header to use and contents
+     * @param template the headers template of the calling thread
      * @param msgType the type of the message
      * @param header the header of the message depending on the type (normal, request, response)
      * @param message the buffer with the message to send
@@ -195,13 +521,15 @@ public class AeronPublisher implements IAeronPublisher, Closeable
      *
      * @return the result of the message send
      */
-    private PublishResult send(final byte msgType, final IUnsafeSerializable header, final DirectBuffer message, final int offset, final int length)
+    private PublishResult send(final SendHeadersTemplate template, final byte msgType, final IUnsafeSerializable header, final DirectBuffer message, final int offset, final int length)
     {
+        final BaseHeader baseHeader = template.getBaseHeader();
+
         // Set the message type in the base header
-        this.reusableBaseHeader.setMsgType(msgType);
+        baseHeader.setMsgType(msgType);
 
         // Calculate required size to sendMsg
-        final int totalMsgSize = this.reusableBaseHeader.serializedSize() + header.serializedSize() + length;
+        final int totalMsgSize = baseHeader.serializedSize() + header.serializedSize() + length;
 
         if (log.isTraceEnabled())
         {
@@ -211,47 +539,40 @@ public class AeronPublisher implements IAeronPublisher, Closeable
         // If the message is bigger than max claim size cannot use the claim mechanism
         if (totalMsgSize > this.publication.maxPayloadLength())
         {
-            return this.sendUsingOffer(header, message, offset, length, totalMsgSize);
+            return this.sendUsingOffer(template, header, message, offset, length);
         }
         else
         {
-            return this.sendUsingClaim(header, message, offset, length, totalMsgSize);
+            return this.sendUsingClaim(template, header, message, offset, length, totalMsgSize);
         }
     }
 
     /**
-     * Send a message given the header to use and contents. The message will be sent using the offer mechanism.
+     * Send a message given the header to use and contents. The message will be sent using the vectored offer mechanism, the
+     * headers and the user message are gathered by Aeron directly into the term buffer.
      *
+     * @param template the headers template of the calling thread
      * @param header the header of the message depending on the type (normal, request, response)
      * @param message the buffer with the message to send
      * @param userMsgOffset offset in the buffer were the user message starts
      * @param userMsgSize size of the user message part without the headers
-     * @param totalMsgSize total size of the message including the headers
      *
      * @return the result of the message send
      */
-    private PublishResult sendUsingOffer(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize)
+    private PublishResult sendUsingOffer(final SendHeadersTemplate template, final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize)
     {
-        // Make sure the buffer is big enough to serialize the message, if not increase the size
-        if (this.offerUnsafeSerializer.getInternalBuffer().capacity() < totalMsgSize)
-        {
-            this.offerUnsafeSerializer.wrap(ByteBuffer.allocate(totalMsgSize * 2));
-        }
-        else
-        {
-            // Reset the offer buffer offset to start again
-            this.offerUnsafeSerializer.setOffset(0);
-        }
+        final UnsafeBufferSerializer serializer = template.getOfferHeadersSerializer();
 
         // Write base header
-        this.reusableBaseHeader.toBinary(this.offerUnsafeSerializer);
+        template.getBaseHeader().toBinary(serializer);
         // Write header
-        header.toBinary(this.offerUnsafeSerializer);
-        // Write the user message
-        this.offerUnsafeSerializer.writeBytes(message, userMsgOffset, userMsgSize);
+        header.toBinary(serializer);
+
+        // Gather the headers and the user message
+        final DirectBufferVector[] vectors = template.getOfferVectors(serializer.getOffset(), message, userMsgOffset, userMsgSize);
 
         // Send the message
-        long offerResult = this.publication.offer(this.offerUnsafeSerializer.getInternalBuffer(), 0, totalMsgSize);
+        long offerResult = this.publication.offer(vectors);
 
         // Retry in case of admin action
         while (offerResult == Publication.ADMIN_ACTION)
@@ -260,7 +581,7 @@ public class AeronPublisher implements IAeronPublisher, Closeable
             this.adminActionRetryIdle.idle();
 
             // Retry the send
-            offerResult = this.publication.offer(this.offerUnsafeSerializer.getInternalBuffer(), 0, totalMsgSize);
+            offerResult = this.publication.offer(vectors);
         }
 
         // Convert the result
@@ -270,6 +591,7 @@ public class AeronPublisher implements IAeronPublisher, Closeable
     /**
      * Send a message given the header to use and contents. The message will be sent using the claim mechanism.
      *
+     * @param template the headers template of the calling thread
      * @param header the header of the message depending on the type (normal, request, response)
      * @param message the buffer with the message to send
      * @param userMsgOffset offset in the buffer were the user message starts
@@ -278,34 +600,28 @@ public class AeronPublisher implements IAeronPublisher, Closeable
      *
      * @return the result of the message send
      */
-    private PublishResult sendUsingClaim(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize)
+    private PublishResult sendUsingClaim(final SendHeadersTemplate template, final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize)
     {
-        // Reserve space in the publication.
-        long claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
-
-        // Retry in case of admin action
-        while (claimResult == Publication.ADMIN_ACTION)
-        {
-            // Wait a bit to avoid too many retries
-            this.adminActionRetryIdle.idle();
+        final BufferClaim bufferClaim = template.getBufferClaim();
 
-            // Retry the send
-            claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
-        }
+        // Reserve space in the publication.
+        final long claimResult = this.tryClaim(totalMsgSize, bufferClaim);
 
         // Claim success, write the data and sendMsg
         if (claimResult > 0)
         {
+            final UnsafeBufferSerializer serializer = template.getClaimSerializer();
+
             // Wrap the buffer claim to serialize
-            this.claimUnsafeSerializer.wrap(this.bufferClaim.buffer(), this.bufferClaim.offset(), totalMsgSize);
+            serializer.wrap(bufferClaim.buffer(), bufferClaim.offset(), totalMsgSize);
             // Write base header
-            this.reusableBaseHeader.toBinary(this.claimUnsafeSerializer);
+            template.getBaseHeader().toBinary(serializer);
             // Write header
-            header.toBinary(this.claimUnsafeSerializer);
+            header.toBinary(serializer);
             // Write the user message
-            this.claimUnsafeSerializer.writeBytes(message, userMsgOffset, userMsgSize);
+            serializer.writeBytes(message, userMsgOffset, userMsgSize);
             // Send the message
-            this.bufferClaim.commit();
+            bufferClaim.commit();
             // Return Ok in the publication
             return PublishResult.OK;
         }
@@ -314,6 +630,31 @@ public class AeronPublisher implements IAeronPublisher, Closeable
         return PublishResult.fromAeronResult(claimResult);
     }
 
+    /**
+     * Claim space in the publication retrying in case of admin action
+     *
+     * @param totalMsgSize total size of the message including the headers
+     * @param bufferClaim the buffer claim to perform the claim with
+     * @return the Aeron claim result
+     */
+    private long tryClaim(final int totalMsgSize, final BufferClaim bufferClaim)
+    {
+        // Reserve space in the publication.
+        long claimResult = this.publication.tryClaim(totalMsgSize, bufferClaim);
+
+        // Retry in case of admin action
+        while (claimResult == Publication.ADMIN_ACTION)
+        {
+            // Wait a bit to avoid too many retries
+            this.adminActionRetryIdle.idle();
+
+            // Retry the claim
+            claimResult = this.publication.tryClaim(totalMsgSize, bufferClaim);
+        }
+
+        return claimResult;
+    }
+
     /**
      * Create the publication channel using the given parameters for the Aeron Publisher
      * @param params parameters for the publisher
@@ -325,6 +666,10 @@ public class AeronPublisher implements IAeronPublisher, Closeable
         switch (params.getTransportType())
         {
             case UNICAST:
+                if (params.isMultiDestinationCast())
+                {
+                    return AeronChannelHelper.createUnicastMdcChannelString(params.getIpAddress(), params.getPort());
+                }
                 return AeronChannelHelper.createUnicastChannelString(params.getIpAddress(), params.getPort(), params.getSubnetAddress());
             case MULTICAST:
                 return AeronChannelHelper.createMulticastChannelString(params.getIpAddress(), params.getPort(), params.getSubnetAddress());
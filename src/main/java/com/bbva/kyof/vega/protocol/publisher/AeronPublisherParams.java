@@ -1,4 +1,3 @@
-
 package com.bbva.kyof.vega.protocol.publisher;
 
 import com.bbva.kyof.vega.config.general.TransportMediaType;
@@ -17,10 +16,10 @@ public class AeronPublisherParams
     /** Transport type */
     @Getter private final TransportMediaType transportType;
 
-    /** Ip used for the publication (0 for ipc)*/
+    /** Ip used for the publication (0 for ipc, control ip for multi-destination-cast)*/
     @Getter private final int ipAddress;
 
-    /** Port used for the publication (0 for ipc)*/
+    /** Port used for the publication (0 for ipc, control port for multi-destination-cast)*/
     @Getter private final int port;
 
     /** StreamId used by the publication */
@@ -28,4 +27,21 @@ public class AeronPublisherParams
 
     /** Subnet for the publication (null for ipc) */
     @Getter private final SubnetAddress subnetAddress;
+
+    /** True for an unicast multi-destination-cast publication in manual control mode, the destinations are added later */
+    @Getter private final boolean multiDestinationCast;
+
+    /**
+     * Create the parameters of a single destination publisher
+     *
+     * @param transportType transport type
+     * @param ipAddress ip used for the publication (0 for ipc)
+     * @param port port used for the publication (0 for ipc)
+     * @param streamId stream id used by the publication
+     * @param subnetAddress subnet for the publication (null for ipc)
+     */
+    public AeronPublisherParams(final TransportMediaType transportType, final int ipAddress, final int port, final int streamId, final SubnetAddress subnetAddress)
+    {
+        this(transportType, ipAddress, port, streamId, subnetAddress, false);
+    }
 }
@@ -1,14 +1,21 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.config.general.TopicCipherType;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
 
 /**
  * Helper class to encode the contents of a message using AES encryption.
  *
+ * With the AES_GCM cipher type the messages are encrypted directly into the given buffer, usually the Aeron claim, or into a
+ * reusable off-heap staging buffer when they cannot be claimed.
+ *
  * The class tries to reuse buffers as much as possible to improve performance.
  *
  * This class is not thread safe, and it returns always the same buffer as result, use it carefully.
@@ -27,10 +34,36 @@ class AesTopicMsgEncoder
     /** Reusable buffer that will contain the resultant encrypted message */
     private ByteBuffer encrypedMsgBuffer = ByteBuffer.allocate(BUFFERS_START_SIZE);
 
+    /** AES-GCM cipher with the same key, null if the cipher type is not AES_GCM */
+    private final AesGcmCipher gcmCipher;
+
+    /** Reusable off-heap buffer for the messages encrypted with AES-GCM that cannot be encrypted in place */
+    private UnsafeBuffer gcmStagingBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFERS_START_SIZE));
+
+    /** Reusable buffer that wraps the encrypted message in the staging buffer */
+    private final UnsafeBuffer gcmEncryptedMsg = new UnsafeBuffer(ByteBuffer.allocate(0));
+
     /** Create a new encoder  */
     AesTopicMsgEncoder() throws VegaException
+    {
+        this(TopicCipherType.AES);
+    }
+
+    /**
+     * Create a new encoder for the given cipher type
+     *
+     * @param cipherType the cipher type, AES if null
+     */
+    AesTopicMsgEncoder(final TopicCipherType cipherType) throws VegaException
     {
         this.aesCrypto = AESCrypto.createNewInstance();
+        this.gcmCipher = cipherType == TopicCipherType.AES_GCM ? this.aesCrypto.getGcmCipher() : null;
+    }
+
+    /** @return true if the messages are encrypted with AES-GCM */
+    boolean isGcm()
+    {
+        return this.gcmCipher != null;
     }
 
     /**
@@ -88,4 +121,57 @@ class AesTopicMsgEncoder
         // Return the result
         return this.encrypedMsgBuffer;
     }
+
+    /**
+     * Calculate the size of a message once encrypted with AES-GCM
+     *
+     * @param length the length of the message
+     * @return the size of the encrypted message
+     */
+    int gcmEncryptedSize(final int length)
+    {
+        return AesGcmCipher.encryptedSize(length);
+    }
+
+    /**
+     * Encrypt the given message with AES-GCM directly into the target buffer
+     *
+     * @param sequenceNumber the sequence number the message is sent with
+     * @param message the message to encrypt
+     * @param offset the offset where the message starts
+     * @param length the length of the message
+     * @param target the buffer to write the encrypted message to, it should have space for {@link #gcmEncryptedSize(int)} bytes
+     * @param targetOffset the offset in the target buffer
+     * @return the size of the encrypted message
+     * @throws VegaException exception thrown if there is any issue
+     */
+    int encryptMessageGcm(final long sequenceNumber, final DirectBuffer message, final int offset, final int length, final MutableDirectBuffer target, final int targetOffset) throws VegaException
+    {
+        return this.gcmCipher.encrypt(sequenceNumber, message, offset, length, target, targetOffset);
+    }
+
+    /**
+     * Encrypt the given message with AES-GCM into the reusable staging buffer
+     *
+     * @param sequenceNumber the sequence number the message is sent with
+     * @param message the message to encrypt
+     * @param offset the offset where the message starts
+     * @param length the length of the message
+     * @return the buffer wrapping exactly the encrypted message, always the same instance
+     * @throws VegaException exception thrown if there is any issue
+     */
+    DirectBuffer encryptMessageGcm(final long sequenceNumber, final DirectBuffer message, final int offset, final int length) throws VegaException
+    {
+        final int encryptedSize = this.gcmEncryptedSize(length);
+
+        // Make sure the staging buffer is big enough, if not increase the size
+        if (this.gcmStagingBuffer.capacity() < encryptedSize)
+        {
+            this.gcmStagingBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(encryptedSize * 2));
+        }
+
+        this.gcmCipher.encrypt(sequenceNumber, message, offset, length, this.gcmStagingBuffer, 0);
+        this.gcmEncryptedMsg.wrap(this.gcmStagingBuffer, 0, encryptedSize);
+        return this.gcmEncryptedMsg;
+    }
 }
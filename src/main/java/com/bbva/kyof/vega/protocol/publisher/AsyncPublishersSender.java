@@ -0,0 +1,119 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.util.collection.DelayedChangesArray;
+import com.bbva.kyof.vega.util.collection.IDelayedChangesArray;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.BackoffIdleStrategy;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sender thread for the topic publishers configured with async send or with a conflated back pressure policy. It drains
+ * the ring buffer and the conflated messages of each registered topic publisher into the Aeron publications.
+ *
+ * This class is thread safe!!
+ */
+@Slf4j
+class AsyncPublishersSender extends RecurrentTask
+{
+    /** Default initial topic publishers number, it is used to reserve some memory in the publishers array */
+    private static final int DEFAULT_PUB_NUMBER = 10;
+
+    /** Max number of spins of the idle strategy between drains without messages */
+    private static final long IDLE_MAX_SPINS = 100;
+
+    /** Max number of yields of the idle strategy between drains without messages */
+    private static final long IDLE_MAX_YIELDS = 10;
+
+    /** Min park period of the idle strategy between drains without messages */
+    private static final long IDLE_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the idle strategy between drains without messages */
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Max number of drains performed on close to send the pending messages */
+    private static final int MAX_DRAINS_ON_CLOSE = 1000;
+
+    /** Delayed changes collection with all the topic publishers to drain */
+    private final IDelayedChangesArray<AbstractTopicPublisher> topicPublishers =
+            new DelayedChangesArray<>(AbstractTopicPublisher.class, DEFAULT_PUB_NUMBER);
+
+    /**
+     * Create and start a new sender
+     *
+     * @param instanceId unique ID of the library instance
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    AsyncPublishersSender(final UUID instanceId, final TasksRunner tasksRunner)
+    {
+        super(new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NANOS, IDLE_MAX_PARK_NANOS));
+
+        log.info("Starting async publishers sender");
+        tasksRunner.start(this, "AsyncPublishersSender_" + instanceId);
+    }
+
+    /**
+     * Add a topic publisher to drain
+     * @param topicPublisher the topic publisher configured with async send or a conflated back pressure policy
+     */
+    void addTopicPublisher(final AbstractTopicPublisher topicPublisher)
+    {
+        this.topicPublishers.addElement(topicPublisher);
+    }
+
+    /**
+     * Remove a topic publisher, the messages still in the ring buffer won't be sent
+     * @param topicPublisher the topic publisher to remove
+     */
+    void removeTopicPublisher(final AbstractTopicPublisher topicPublisher)
+    {
+        this.topicPublishers.removeElement(topicPublisher);
+    }
+
+    @Override
+    public int action()
+    {
+        // Apply pending changes
+        this.topicPublishers.applyPendingChanges();
+
+        return this.drainAll();
+    }
+
+    @Override
+    public void cleanUp()
+    {
+        log.info("Cleaning async publishers sender after closing");
+
+        // Try to send the messages still pending
+        this.topicPublishers.applyPendingChanges();
+        for (int i = 0; i < MAX_DRAINS_ON_CLOSE && this.drainAll() > 0; i++)
+        {
+            // Keep draining until there are no messages left
+        }
+
+        this.topicPublishers.clear();
+    }
+
+    /**
+     * Drain the ring buffers and the conflated messages of all the registered topic publishers
+     *
+     * @return the number of messages sent
+     */
+    private int drainAll()
+    {
+        int msgsSent = 0;
+
+        final AbstractTopicPublisher[] publishersArray = this.topicPublishers.getInternalArray();
+
+        for (int i = 0; i < this.topicPublishers.getNumElements(); i++)
+        {
+            msgsSent += publishersArray[i].drainAsyncMsgs();
+            msgsSent += publishersArray[i].drainConflatedMsgs();
+        }
+
+        return msgsSent;
+    }
+}
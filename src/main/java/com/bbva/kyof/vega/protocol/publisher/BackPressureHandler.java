@@ -0,0 +1,283 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.config.general.BackPressurePolicyType;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies the back pressure policy configured in the topic template of a topic publisher. <p>
+ *
+ * Each publication calls {@link #begin(boolean)} and then {@link #retry()} every time the transport is back pressured to know if
+ * the send should be attempted again. For the conflated policy it also stores the last back pressured message, and for the conflated
+ * by key policy the last back pressured message of each key. <p>
+ *
+ * The counters can be read from any thread, they are only written by the thread sending under the lock of the topic publisher or the
+ * single writer thread.
+ *
+ * This class is not thread safe! It is used under the lock of the topic publisher or from the single writer thread.
+ */
+final class BackPressureHandler
+{
+    /** Max spins of the back off idle strategy */
+    private static final long IDLE_MAX_SPINS = 10;
+
+    /** Max yields of the back off idle strategy */
+    private static final long IDLE_MAX_YIELDS = 5;
+
+    /** Min park period of the back off idle strategy */
+    private static final long IDLE_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the back off idle strategy */
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** The configured back pressure policy */
+    @Getter(AccessLevel.PACKAGE) private final BackPressurePolicyType policy;
+
+    /** Max retries for the policies with a fixed number of retries */
+    private final int maxRetries;
+
+    /** Max time retrying for the policy with timeout */
+    private final long timeoutNanos;
+
+    /** Idle strategy to use between retries */
+    private final IdleStrategy idleStrategy;
+
+    /** True if the current publication can be retried */
+    private boolean retriesEnabled = false;
+
+    /** Number of retries performed in the current publication */
+    private int currentRetries = 0;
+
+    /** Time limit for the current publication, only valid if the deadline has been started */
+    private long deadline = 0;
+
+    /** True if the deadline of the current publication has been started */
+    private boolean deadlineStarted = false;
+
+    /** Total number of retries performed due to back pressure, single writer under the lock of the topic publisher, published with lazySet */
+    private final AtomicLong retries = new AtomicLong();
+
+    /** Total number of messages dropped due to back pressure, single writer under the lock of the topic publisher, published with lazySet */
+    private final AtomicLong drops = new AtomicLong();
+
+    /** Buffer with the contents of the conflated message */
+    @Getter(AccessLevel.PACKAGE) private UnsafeBuffer conflatedBuffer = new UnsafeBuffer(ByteBuffer.allocate(0));
+
+    /** Length of the conflated message */
+    @Getter(AccessLevel.PACKAGE) private int conflatedLength = 0;
+
+    /** True if there is a conflated message pending to be sent */
+    private boolean conflatedPending = false;
+
+    /** Last back pressured message of each key pending to be sent, null if the policy is not conflated by key */
+    @Getter(AccessLevel.PACKAGE) private final LastValueCache conflatedByKeyMsgs;
+
+    /**
+     * Create a new handler for the back pressure policy of the given topic template, the configuration should have been validated
+     *
+     * @param topicConfig the topic template configuration
+     */
+    BackPressureHandler(final TopicTemplateConfig topicConfig)
+    {
+        this.policy = topicConfig.getBackPressurePolicy() == null ? BackPressurePolicyType.FAIL_FAST : topicConfig.getBackPressurePolicy();
+        this.maxRetries = topicConfig.getBackPressureMaxRetries() == null ? 0 : topicConfig.getBackPressureMaxRetries();
+        this.timeoutNanos = topicConfig.getBackPressureTimeoutNanos() == null ? 0 : topicConfig.getBackPressureTimeoutNanos();
+
+        switch (this.policy)
+        {
+            case SPIN_RETRY:
+                this.idleStrategy = new BusySpinIdleStrategy();
+                break;
+            case IDLE_RETRY:
+            case BLOCK_UNTIL_TIMEOUT:
+                this.idleStrategy = new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NANOS, IDLE_MAX_PARK_NANOS);
+                break;
+            default:
+                this.idleStrategy = new NoOpIdleStrategy();
+                break;
+        }
+
+        if (this.policy == BackPressurePolicyType.CONFLATED_BY_KEY)
+        {
+            this.conflatedByKeyMsgs = new LastValueCache(topicConfig.getConflationMaxKeys(), topicConfig.getConflationMaxMsgSize());
+        }
+        else
+        {
+            this.conflatedByKeyMsgs = null;
+        }
+    }
+
+    /**
+     * Prepare the handler for a new publication
+     *
+     * @param allowRetries false if the publication should never be retried
+     */
+    void begin(final boolean allowRetries)
+    {
+        this.retriesEnabled = allowRetries;
+        this.currentRetries = 0;
+        this.deadlineStarted = false;
+        this.idleStrategy.reset();
+    }
+
+    /**
+     * Called when the current publication has been back pressured. If the policy allows it, idles before returning.
+     *
+     * @return true if the publication should be attempted again
+     */
+    boolean retry()
+    {
+        if (!this.retriesEnabled)
+        {
+            return false;
+        }
+
+        switch (this.policy)
+        {
+            case SPIN_RETRY:
+            case IDLE_RETRY:
+                if (this.currentRetries >= this.maxRetries)
+                {
+                    return false;
+                }
+                break;
+            case BLOCK_UNTIL_TIMEOUT:
+                final long now = System.nanoTime();
+
+                // The time limit starts with the first back pressure
+                if (!this.deadlineStarted)
+                {
+                    this.deadline = now + this.timeoutNanos;
+                    this.deadlineStarted = true;
+                }
+                else if (now - this.deadline >= 0)
+                {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+        }
+
+        this.idleStrategy.idle();
+        this.currentRetries++;
+        this.retries.lazySet(this.retries.get() + 1);
+        return true;
+    }
+
+    /** @return the total number of retries performed due to back pressure, it can be called from any thread */
+    long getRetries()
+    {
+        return this.retries.get();
+    }
+
+    /** @return the total number of messages dropped due to back pressure, it can be called from any thread */
+    long getDrops()
+    {
+        return this.drops.get();
+    }
+
+    /** @return true if the back pressured messages should be conflated */
+    boolean isConflated()
+    {
+        return this.policy == BackPressurePolicyType.DROP_OLDEST_CONFLATED;
+    }
+
+    /** @return true if there is a conflated message pending to be sent */
+    boolean hasConflatedMsg()
+    {
+        return this.conflatedPending;
+    }
+
+    /**
+     * Store a copy of a back pressured message to send it later, it replaces any pending conflated message. The sequence number is
+     * assigned once it is sent.
+     *
+     * @param message the buffer with the message
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     */
+    void conflate(final DirectBuffer message, final int offset, final int length)
+    {
+        if (this.conflatedPending)
+        {
+            this.onDrop();
+        }
+
+        // Make sure the buffer is big enough, if not increase the size
+        if (this.conflatedBuffer.capacity() < length)
+        {
+            this.conflatedBuffer = new UnsafeBuffer(ByteBuffer.allocate(length * 2));
+        }
+
+        this.conflatedBuffer.putBytes(0, message, offset, length);
+        this.conflatedLength = length;
+        this.conflatedPending = true;
+    }
+
+    /** Discard the pending conflated message */
+    void clearConflatedMsg()
+    {
+        this.conflatedPending = false;
+    }
+
+    /** @return true if the back pressured messages sent with a key should be conflated by key */
+    boolean isConflatedByKey()
+    {
+        return this.conflatedByKeyMsgs != null;
+    }
+
+    /** @return true if there are messages conflated by key pending to be sent */
+    boolean hasConflatedByKeyMsgs()
+    {
+        return this.conflatedByKeyMsgs != null && this.conflatedByKeyMsgs.size() > 0;
+    }
+
+    /**
+     * Store a copy of a back pressured message sent with a key to send it later, it replaces the pending message of the same key
+     *
+     * @param key the key of the message
+     * @param message the buffer with the message
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     * @return false if the message cannot be conflated because it is too big or there are too many keys pending
+     */
+    boolean conflate(final long key, final DirectBuffer message, final int offset, final int length)
+    {
+        if (this.conflatedByKeyMsgs.contains(key))
+        {
+            this.onDrop();
+        }
+
+        return this.conflatedByKeyMsgs.put(key, 0, message, offset, length);
+    }
+
+    /** Discard all the messages conflated by key, they are counted as dropped */
+    void dropConflatedByKeyMsgs()
+    {
+        if (this.conflatedByKeyMsgs == null)
+        {
+            return;
+        }
+
+        this.drops.lazySet(this.drops.get() + this.conflatedByKeyMsgs.size());
+        this.conflatedByKeyMsgs.clear();
+    }
+
+    /** Count a message dropped due to back pressure */
+    void onDrop()
+    {
+        this.drops.lazySet(this.drops.get() + 1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.Version;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulates several user messages to publish them together calling {@link ITopicPublisher#sendBatch(BatchBuilder)}. <p>
+ *
+ * All the messages of the batch travel in a single library message with a single header, each message only adds the 4 bytes
+ * of its length. The receivers get each message separately with consecutive sequence numbers. <p>
+ *
+ * To pack all the messages in a single Aeron fragment the capacity should not exceed the Aeron MTU minus the headers,
+ * bigger batches are still sent but fragmented. <p>
+ *
+ * The builder can be reused calling {@link #clear()} once sent. <p>
+ *
+ * This class is not thread safe!
+ */
+public final class BatchBuilder
+{
+    /** First library version that can receive the batches, the messages are sent separately while there are subscribers of previous versions */
+    public static final int MIN_VERSION = Version.toIntegerRepresentation((byte) 3, (byte) 1, (byte) 0);
+
+    /** Default capacity in bytes, it fits in a single fragment with the default Aeron MTU */
+    public static final int DEFAULT_CAPACITY = 1280;
+
+    /** Buffer with the batch contents: the number of messages followed by the length and contents of each message */
+    @Getter(AccessLevel.PACKAGE) private final UnsafeBuffer buffer;
+
+    /** Number of messages in the batch */
+    @Getter private int numMessages = 0;
+
+    /** Length of the batch contents in the buffer */
+    @Getter private int length = UnsafeBufferSerializer.INT_SIZE;
+
+    /** Create a new batch builder with the default capacity */
+    public BatchBuilder()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new batch builder
+     *
+     * @param capacity maximum size in bytes of the batch contents, each message uses its length plus 4 bytes
+     */
+    public BatchBuilder(final int capacity)
+    {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocate(capacity + UnsafeBufferSerializer.INT_SIZE));
+        this.buffer.putInt(0, 0);
+    }
+
+    /**
+     * Add a message to the batch, the contents are copied into the batch
+     *
+     * @param message the binary message to add
+     * @param offset offset for the message start in the buffer
+     * @param msgLength length of the message starting in the given offset
+     * @return true if added, false if there is no room for the message in the batch
+     */
+    public boolean add(final DirectBuffer message, final int offset, final int msgLength)
+    {
+        if (this.length + UnsafeBufferSerializer.INT_SIZE + msgLength > this.buffer.capacity())
+        {
+            return false;
+        }
+
+        this.buffer.putInt(this.length, msgLength);
+        this.buffer.putBytes(this.length + UnsafeBufferSerializer.INT_SIZE, message, offset, msgLength);
+        this.length += UnsafeBufferSerializer.INT_SIZE + msgLength;
+        this.numMessages++;
+        this.buffer.putInt(0, this.numMessages);
+
+        return true;
+    }
+
+    /** @return true if there are no messages in the batch */
+    public boolean isEmpty()
+    {
+        return this.numMessages == 0;
+    }
+
+    /** Remove all the messages of the batch */
+    public void clear()
+    {
+        this.numMessages = 0;
+        this.length = UnsafeBufferSerializer.INT_SIZE;
+        this.buffer.putInt(0, 0);
+    }
+}
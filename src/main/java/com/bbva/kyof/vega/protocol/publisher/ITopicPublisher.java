@@ -1,13 +1,17 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.ISentRequest;
 import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.msg.RequestWaitType;
 import com.bbva.kyof.vega.protocol.heartbeat.IClientConnectionListener;
 import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatParameters;
 import org.agrona.DirectBuffer;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for a topic publisher with the functionality available for a user
@@ -28,6 +32,63 @@ public interface ITopicPublisher
      */
     PublishResult sendMsg(final DirectBuffer message, final int offset, final int length);
 
+    /**
+     * Send a normal message with a key. If the topic is configured with a last value cache the message replaces the previous
+     * one of the same key in the cache, the cached messages are sent to the new subscribers before the live ones. <p>
+     *
+     * If the topic is configured with the CONFLATED_BY_KEY back pressure policy and the message is back pressured, it replaces the
+     * pending message of the same key and it is sent once the transport is free. <p>
+     *
+     * If the topic has no last value cache and is not conflated by key it is sent as a normal message.
+     *
+     * @param key the key of the message, for example the id of the instrument the message belongs to
+     * @param message the binary message to send
+     * @param offset Offset for the message start in the buffer
+     * @param length Length of the message starting in the given offset
+     * @return the enum with the result of the publication
+     */
+    PublishResult sendMsg(final long key, final DirectBuffer message, final int offset, final int length);
+
+    /**
+     * Send all the messages of the batch together in a single library message. <p>
+     *
+     * Each message of the batch uses a sequence number and is delivered separately to the receivers. The batch is not cleared
+     * after the send, call {@link BatchBuilder#clear()} to reuse it. <p>
+     *
+     * If the topic is secured the messages are encrypted and sent one by one.
+     *
+     * @param batch the batch with the messages to send
+     * @return the enum with the result of the publication
+     */
+    PublishResult sendBatch(final BatchBuilder batch);
+
+    /**
+     * Try to claim space to write a normal message of the given length directly, avoiding the copy of the message contents. <p>
+     *
+     * If the result of the returned claim is OK, the message should be written in the claim buffer starting at index 0 and then
+     * published calling {@link #commit()} or discarded calling {@link #abort()}. Commit or abort the claim as soon as possible,
+     * the space reserved may be blocking other messages of the same publication. <p>
+     *
+     * Only one claim can be pending per topic publisher, the returned object is reused between claims. While it is pending the claims
+     * of other threads fail with BACK_PRESSURED and can be retried, a second claim from the same thread fails with UNEXPECTED_ERROR.
+     * The claim can only be committed or aborted by the thread that made it. If the topic publisher is closed meanwhile the claim
+     * is discarded on commit.
+     *
+     * @param length the length of the user message to write
+     * @return the claim with the result and the buffer to write the message into
+     */
+    PublishClaim tryClaim(final int length);
+
+    /**
+     * Publish the message written in the pending claim
+     *
+     * @return the enum with the result of the publication
+     */
+    PublishResult commit();
+
+    /** Discard the pending claim without publishing the message */
+    void abort();
+
     /**
      * Send a request on the topic.
      *
@@ -41,16 +102,66 @@ public interface ITopicPublisher
      * @param timeout the timeout of the request in milliseconds
      * @param respListener Listener for responses on the request. If null no responses will be processed.
      *
+     * The returned request object is pooled, call {@link ISentRequest#release()} once it is no longer used to allow reusing it.
+     *
      * @return an object that represent the sent request, containing the request ID and other useful information like the publish result
      */
     ISentRequest sendRequest(final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener);
 
+    /**
+     * Send a request on the topic and get a future for its response.
+     *
+     * The future is completed with the promoted first response received, no more responses are processed. It is completed exceptionally
+     * with a {@link java.util.concurrent.TimeoutException} if there is no response before the timeout and with a
+     * {@link com.bbva.kyof.vega.exception.VegaException} if the request could not be sent or the instance is closed.
+     *
+     * The future is completed from the library threads, use the async methods of the future to run long tasks on completion.
+     *
+     * @param message The request message to send
+     * @param offset Offset for the message start in the buffer
+     * @param length Length of the message starting in the given offset
+     * @param timeout the timeout of the request in milliseconds
+     *
+     * @return the future for the response of the request
+     */
+    CompletableFuture<IRcvResponse> sendRequestAsync(final DirectBuffer message, final int offset, final int length, final long timeout);
+
+    /**
+     * Send a request on the topic and wait for the first response using the given wait strategy.
+     *
+     * Use {@link RequestWaitType#BUSY_SPIN} for the lowest latency, the calling thread uses a full core until the response is received. <p>
+     *
+     * The responses are received by the responses poller, synchronous requests are not supported if the responses poller has
+     * APPLICATION polling mode or the instance has INVOKER threading mode since the waiting thread would block the polling.
+     * Use {@link #sendRequestAsync(DirectBuffer, int, int, long)} and keep polling or invoking the tasks instead.
+     *
+     * @param message The request message to send
+     * @param offset Offset for the message start in the buffer
+     * @param length Length of the message starting in the given offset
+     * @param timeout the timeout of the request in milliseconds
+     * @param waitType the strategy to wait for the response
+     *
+     * @return the promoted response or null if there is no response before the timeout
+     * @throws VegaException if the request could not be sent, the instance is closed, the thread is interrupted while waiting or
+     * synchronous requests are not supported by the polling or threading configuration
+     */
+    IRcvResponse sendRequestSync(final DirectBuffer message, final int offset, final int length, final long timeout, final RequestWaitType waitType) throws VegaException;
+
     /** @return the topic associated to this topic publisher */
     String getTopicName();
     
     /** @return topic unique Id associated to this topic publisher */
     UUID getUniqueId();
 
+    /** @return total number of sends retried due to back pressure by the back pressure policy of the topic */
+    long getBackPressureRetries();
+
+    /** @return total number of messages dropped due to back pressure by the back pressure policy of the topic */
+    long getBackPressureDrops();
+
+    /** @return number of bytes in use in the ring buffer of the topic if configured with async send, 0 otherwise */
+    int getAsyncQueueOccupancy();
+
     /**
      * Activate the heartbeats in the topic with the given options
      *
@@ -0,0 +1,373 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Replayer thread for the durable topic publishers. It reads the journals sequentially and sends the requested messages through
+ * the response publishers of the requesters. <p>
+ *
+ * The active replays are processed in turns of a limited number of messages, a big replay does not delay the rest. The messages
+ * are sent as retransmitted messages, the ranges of sequence numbers no longer in the journal are sent as lost. The replay always
+ * ends with the last requested message or with a lost notification up to it, so the subscriber knows it has finished. The open
+ * ended replays, requested before knowing the last sequence number, always end with an empty lost notification after the last one. <p>
+ *
+ * It also maps in advance the next segment of the journals, the topic publishers don't create the segment files on the send path. <p>
+ *
+ * This class is thread safe!!
+ */
+@Slf4j
+class JournalReplayer extends RecurrentTask
+{
+    /** Max number of replay requests waiting to be started */
+    private static final int MAX_PENDING_REPLAYS = 1024;
+
+    /** Max number of messages sent by a replay on each turn */
+    private static final int MAX_MSGS_PER_TURN = 128;
+
+    /** Replay requests waiting to be started */
+    private final ManyToOneConcurrentArrayQueue<JournalReplay> pendingReplays = new ManyToOneConcurrentArrayQueue<>(MAX_PENDING_REPLAYS);
+
+    /** Journals of the durable topic publishers whose next segment is prepared, the closed ones are removed by the replayer thread */
+    private final List<TopicJournal> journals = new CopyOnWriteArrayList<>();
+
+    /** Replays in progress, only accessed from the replayer thread */
+    private final List<JournalReplay> activeReplays = new ArrayList<>();
+
+    /** Reusable content for the notifications of lost messages, it contains the last lost sequence number */
+    private final UnsafeBuffer lostContent = new UnsafeBuffer(new byte[UnsafeBufferSerializer.LONG_SIZE]);
+
+    /**
+     * Create and start a new replayer
+     *
+     * @param instanceId unique ID of the library instance
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    JournalReplayer(final UUID instanceId, final TasksRunner tasksRunner)
+    {
+        // 1 Millisecond idle strategy, there is no idle time while there are replays in progress
+        super(new SleepingMillisIdleStrategy(1));
+
+        log.info("Starting journal replayer");
+        tasksRunner.start(this, "JournalReplayer_" + instanceId);
+    }
+
+    /**
+     * Add a replay of a range of messages of a durable topic publisher
+     *
+     * @param journal the journal of the topic publisher
+     * @param topicPublisherId the unique id of the topic publisher
+     * @param firstSequenceNumber sequence number of the first message to replay
+     * @param lastSequenceNumber sequence number of the last message to replay, inclusive
+     * @param openEnded true if the requester doesn't know the last sequence number and has to be notified of the end of the replay
+     * @param responsePublisher the response publisher of the requester
+     */
+    void addReplay(final TopicJournal journal,
+                   final UUID topicPublisherId,
+                   final long firstSequenceNumber,
+                   final long lastSequenceNumber,
+                   final boolean openEnded,
+                   final AeronPublisher responsePublisher)
+    {
+        if (!this.pendingReplays.offer(new JournalReplay(journal, topicPublisherId, firstSequenceNumber, lastSequenceNumber, openEnded, responsePublisher)))
+        {
+            log.warn("Too many pending replays, discarding the replay of topic publisher [{}] from [{}] to [{}]", topicPublisherId, firstSequenceNumber, lastSequenceNumber);
+        }
+    }
+
+    /**
+     * Add the journal of a durable topic publisher to prepare its segments in advance, it is removed once closed
+     *
+     * @param journal the journal of the topic publisher
+     */
+    void addJournal(final TopicJournal journal)
+    {
+        this.journals.add(journal);
+    }
+
+    @Override
+    public int action()
+    {
+        this.pendingReplays.drain(this.activeReplays::add);
+
+        int msgsSent = this.prepareJournalSegments();
+
+        for (int i = this.activeReplays.size() - 1; i >= 0; i--)
+        {
+            final JournalReplay replay = this.activeReplays.get(i);
+
+            msgsSent += replay.sendTurn(this.lostContent);
+
+            if (replay.isFinished())
+            {
+                this.activeReplays.remove(i);
+            }
+        }
+
+        return msgsSent;
+    }
+
+    /**
+     * Prepare the next segment of the journals that have used the prepared one
+     *
+     * @return number of segments prepared
+     */
+    private int prepareJournalSegments()
+    {
+        int numPrepared = 0;
+
+        for (int i = this.journals.size() - 1; i >= 0; i--)
+        {
+            final TopicJournal journal = this.journals.get(i);
+
+            if (journal.isClosed())
+            {
+                this.journals.remove(i);
+            }
+            else if (journal.prepareNextSegment())
+            {
+                numPrepared++;
+            }
+        }
+
+        return numPrepared;
+    }
+
+    @Override
+    public void cleanUp()
+    {
+        log.info("Cleaning journal replayer after closing");
+
+        this.pendingReplays.clear();
+        this.activeReplays.clear();
+        this.journals.clear();
+    }
+
+    /**
+     * Replay in progress of a range of messages of a journal
+     */
+    private static final class JournalReplay
+    {
+        /** Journal of the topic publisher */
+        private final TopicJournal journal;
+
+        /** Unique id of the topic publisher */
+        private final UUID topicPublisherId;
+
+        /** Sequence number of the last message to replay, inclusive */
+        private final long lastSequenceNumber;
+
+        /** True if the end of the replay has to be always notified */
+        private final boolean openEnded;
+
+        /** Response publisher of the requester */
+        private final AeronPublisher responsePublisher;
+
+        /** Cursor on the journal */
+        private final TopicJournal.Cursor cursor;
+
+        /** Next sequence number to account for, sent or notified as lost */
+        private long nextSequenceNumber;
+
+        /** True if the cursor is on a record that has not been processed yet */
+        private boolean pendingRecord = false;
+
+        /** True if the last sequence number processed has been sent as a message */
+        private boolean lastSent = false;
+
+        /** True if the replay has finished */
+        private boolean finished = false;
+
+        /**
+         * Create a new replay
+         *
+         * @param journal journal of the topic publisher
+         * @param topicPublisherId unique id of the topic publisher
+         * @param firstSequenceNumber sequence number of the first message to replay
+         * @param lastSequenceNumber sequence number of the last message to replay, inclusive
+         * @param openEnded true if the end of the replay has to be always notified
+         * @param responsePublisher response publisher of the requester
+         */
+        private JournalReplay(final TopicJournal journal,
+                              final UUID topicPublisherId,
+                              final long firstSequenceNumber,
+                              final long lastSequenceNumber,
+                              final boolean openEnded,
+                              final AeronPublisher responsePublisher)
+        {
+            this.journal = journal;
+            this.topicPublisherId = topicPublisherId;
+            this.lastSequenceNumber = lastSequenceNumber;
+            this.openEnded = openEnded;
+            this.responsePublisher = responsePublisher;
+            this.cursor = journal.cursor(firstSequenceNumber);
+            this.nextSequenceNumber = firstSequenceNumber;
+        }
+
+        /** @return true if the replay has finished */
+        private boolean isFinished()
+        {
+            return this.finished;
+        }
+
+        /**
+         * Send the next messages of the replay, it stops on back pressure to retry on the next turn
+         *
+         * @param lostContent reusable content for the notifications of lost messages
+         * @return the number of messages sent
+         */
+        private int sendTurn(final UnsafeBuffer lostContent)
+        {
+            int msgsSent = 0;
+
+            while (msgsSent < MAX_MSGS_PER_TURN && !this.finished)
+            {
+                // Stop if the topic publisher has been closed
+                if (this.journal.isClosed())
+                {
+                    this.finished = true;
+                    break;
+                }
+
+                if (!this.pendingRecord && !this.cursor.next())
+                {
+                    // There are no more records, notify the end of the replay
+                    this.finish(lostContent);
+                    break;
+                }
+
+                this.pendingRecord = true;
+
+                final long sequenceNumber = this.cursor.getSequenceNumber();
+                if (sequenceNumber > this.lastSequenceNumber)
+                {
+                    this.finish(lostContent);
+                    break;
+                }
+
+                // Already accounted, skip the records out of order
+                if (sequenceNumber < this.nextSequenceNumber)
+                {
+                    this.pendingRecord = false;
+                    continue;
+                }
+
+                // The sequence numbers missing in the journal have been deleted or were not journaled
+                if (sequenceNumber > this.nextSequenceNumber)
+                {
+                    if (!this.sendLost(this.nextSequenceNumber, sequenceNumber - 1, lostContent))
+                    {
+                        break;
+                    }
+
+                    this.nextSequenceNumber = sequenceNumber;
+                }
+
+                if (this.cursor.isSkip())
+                {
+                    this.lastSent = false;
+                }
+                else
+                {
+                    final PublishResult result = this.responsePublisher.sendMessage(
+                            MsgType.DATA_RETRANSMIT,
+                            this.topicPublisherId,
+                            this.cursor.getBuffer(),
+                            sequenceNumber,
+                            this.cursor.getOffset(),
+                            this.cursor.getLength());
+
+                    if (result == PublishResult.BACK_PRESSURED)
+                    {
+                        break;
+                    }
+
+                    if (result != PublishResult.OK)
+                    {
+                        log.warn("Error [{}] replaying messages of topic publisher [{}], aborting the replay", result, this.topicPublisherId);
+                        this.finished = true;
+                        break;
+                    }
+
+                    this.lastSent = true;
+                    msgsSent++;
+                }
+
+                this.nextSequenceNumber = sequenceNumber + 1;
+                this.pendingRecord = false;
+            }
+
+            return msgsSent;
+        }
+
+        /**
+         * Finish the replay notifying the sequence numbers after the last message sent. If all of them are in the journal
+         * the notification has an empty range, it only tells the subscriber the replay has finished. The open ended replays
+         * always end with the empty notification.
+         *
+         * It is called again on the next turn if a notification is back pressured.
+         *
+         * @param lostContent reusable content for the notifications of lost messages
+         */
+        private void finish(final UnsafeBuffer lostContent)
+        {
+            if (this.lastSent && this.nextSequenceNumber > this.lastSequenceNumber && !this.openEnded)
+            {
+                this.finished = true;
+                return;
+            }
+
+            // Notify the lost messages at the end of the range
+            if (this.nextSequenceNumber <= this.lastSequenceNumber)
+            {
+                if (!this.sendLost(this.nextSequenceNumber, this.lastSequenceNumber, lostContent))
+                {
+                    return;
+                }
+
+                this.nextSequenceNumber = this.lastSequenceNumber + 1;
+
+                if (!this.openEnded)
+                {
+                    this.finished = true;
+                    return;
+                }
+            }
+
+            this.finished = this.sendLost(this.lastSequenceNumber + 1, this.lastSequenceNumber, lostContent);
+        }
+
+        /**
+         * Notify a range of consecutive messages that cannot be replayed
+         *
+         * @param firstSequenceNumber sequence number of the first lost message, it goes in the header
+         * @param lastSequenceNumber sequence number of the last lost message, it goes in the content
+         * @param lostContent reusable content for the notification
+         * @return false if the notification has been back pressured and has to be retried
+         */
+        private boolean sendLost(final long firstSequenceNumber, final long lastSequenceNumber, final UnsafeBuffer lostContent)
+        {
+            lostContent.putLong(0, lastSequenceNumber);
+
+            return this.responsePublisher.sendMessage(
+                    MsgType.DATA_RETRANSMIT_LOST,
+                    this.topicPublisherId,
+                    lostContent,
+                    firstSequenceNumber,
+                    0,
+                    UnsafeBufferSerializer.LONG_SIZE) != PublishResult.BACK_PRESSURED;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cache with the last message sent by a topic publisher for each key given by the user. It is used to send a snapshot of
+ * the current values to the new subscribers. It also keeps the pending messages of the conflated by key back pressure policy. <p>
+ *
+ * The messages are stored in an off-heap buffer divided in slots of the max message size. The used slots are always the first
+ * ones, when a key is removed the last slot is moved to its place. <p>
+ *
+ * This class is not thread safe!
+ */
+class LastValueCache
+{
+    /** Value returned by the slots map for the keys not cached */
+    private static final long NO_SLOT = -1;
+
+    /** Off-heap buffer with the contents of the cached messages */
+    private final UnsafeBuffer buffer;
+
+    /** Slot of each cached key */
+    private final Long2LongHashMap slotByKey = new Long2LongHashMap(NO_SLOT);
+
+    /** Key stored on each slot */
+    private final long[] keys;
+
+    /** Sequence number of the message stored on each slot */
+    private final long[] sequenceNumbers;
+
+    /** Length of the message stored on each slot */
+    private final int[] lengths;
+
+    /** Max size of a cached message */
+    private final int maxMsgSize;
+
+    /** Number of used slots */
+    private int size = 0;
+
+    /**
+     * Create a new cache
+     *
+     * @param maxKeys max number of keys to keep, the new keys are not cached once it is full
+     * @param maxMsgSize max size of a cached message
+     */
+    LastValueCache(final int maxKeys, final int maxMsgSize)
+    {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(maxKeys * maxMsgSize));
+        this.keys = new long[maxKeys];
+        this.sequenceNumbers = new long[maxKeys];
+        this.lengths = new int[maxKeys];
+        this.maxMsgSize = maxMsgSize;
+    }
+
+    /**
+     * Store the message sent for a key replacing the previous one. If the message is bigger than the max size the key is removed,
+     * its previous message is no longer the last one.
+     *
+     * @param key the key of the message
+     * @param sequenceNumber the sequence number of the message
+     * @param message buffer with the message
+     * @param offset message offset in the buffer
+     * @param length message length starting from the offset
+     * @return false if the message cannot be cached
+     */
+    boolean put(final long key, final long sequenceNumber, final DirectBuffer message, final int offset, final int length)
+    {
+        if (length > this.maxMsgSize)
+        {
+            this.remove(key);
+            return false;
+        }
+
+        int slot = (int)this.slotByKey.get(key);
+
+        if (slot == NO_SLOT)
+        {
+            if (this.size == this.keys.length)
+            {
+                return false;
+            }
+
+            slot = this.size;
+            this.size++;
+            this.keys[slot] = key;
+            this.slotByKey.put(key, slot);
+        }
+
+        this.buffer.putBytes(slot * this.maxMsgSize, message, offset, length);
+        this.sequenceNumbers[slot] = sequenceNumber;
+        this.lengths[slot] = length;
+
+        return true;
+    }
+
+    /**
+     * Remove the message of a key
+     *
+     * @param key the key of the message
+     */
+    void remove(final long key)
+    {
+        final int slot = (int)this.slotByKey.remove(key);
+
+        if (slot == NO_SLOT)
+        {
+            return;
+        }
+
+        this.size--;
+
+        // Move the last slot to keep the used slots together
+        if (slot != this.size)
+        {
+            final int lastSlot = this.size;
+
+            this.buffer.putBytes(slot * this.maxMsgSize, this.buffer, lastSlot * this.maxMsgSize, this.lengths[lastSlot]);
+            this.keys[slot] = this.keys[lastSlot];
+            this.sequenceNumbers[slot] = this.sequenceNumbers[lastSlot];
+            this.lengths[slot] = this.lengths[lastSlot];
+            this.slotByKey.put(this.keys[slot], slot);
+        }
+    }
+
+    /**
+     * @param key the key of the message
+     * @return true if there is a cached message for the key
+     */
+    boolean contains(final long key)
+    {
+        return this.slotByKey.get(key) != NO_SLOT;
+    }
+
+    /** Remove all the cached messages */
+    void clear()
+    {
+        this.slotByKey.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Replace the contents of the given cache with a copy of the cached messages, they keep the same slots
+     *
+     * @param target the cache to copy the messages to, with the same max number of keys and max message size
+     */
+    void copyTo(final LastValueCache target)
+    {
+        target.clear();
+
+        for (int slot = 0; slot < this.size; slot++)
+        {
+            target.put(this.keys[slot], this.sequenceNumbers[slot], this.buffer, this.getOffset(slot), this.lengths[slot]);
+        }
+    }
+
+    /** @return the number of cached messages, they are in the slots from 0 to size - 1 */
+    int size()
+    {
+        return this.size;
+    }
+
+    /** @return the buffer with the contents of the cached messages */
+    DirectBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the key of the message
+     */
+    long getKey(final int slot)
+    {
+        return this.keys[slot];
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the sequence number of the message
+     */
+    long getSequenceNumber(final int slot)
+    {
+        return this.sequenceNumbers[slot];
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the offset of the message in the buffer
+     */
+    int getOffset(final int slot)
+    {
+        return slot * this.maxMsgSize;
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the length of the message
+     */
+    int getLength(final int slot)
+    {
+        return this.lengths[slot];
+    }
+}
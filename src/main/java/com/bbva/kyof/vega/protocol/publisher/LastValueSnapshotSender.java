@@ -0,0 +1,149 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sender thread for the snapshots of the last value caches. The snapshots are requested by the subscriber instances through the
+ * control channel and sent point to point through the response publisher of the requester instance. The response publisher may
+ * have just been created, the snapshot waits here until it is connected and then it is sent by the topic publisher. <p>
+ *
+ * The snapshots not sent before the timeout of the topic are discarded, the subscriber gives up waiting for them. The requests
+ * retried by the subscriber while the snapshot is waiting are ignored. <p>
+ *
+ * This class is thread safe!!
+ */
+@Slf4j
+class LastValueSnapshotSender extends RecurrentTask
+{
+    /** Max number of snapshots waiting to be processed by the sender thread */
+    private static final int MAX_PENDING_SNAPSHOTS = 1024;
+
+    /** Snapshots added and not processed yet by the sender thread */
+    private final ManyToOneConcurrentArrayQueue<PendingSnapshot> pendingSnapshots = new ManyToOneConcurrentArrayQueue<>(MAX_PENDING_SNAPSHOTS);
+
+    /** Snapshots waiting for the publisher to connect, only accessed from the sender thread */
+    private final List<PendingSnapshot> waitingSnapshots = new ArrayList<>();
+
+    /**
+     * Create and start a new sender
+     *
+     * @param instanceId unique ID of the library instance
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    LastValueSnapshotSender(final UUID instanceId, final TasksRunner tasksRunner)
+    {
+        // 1 Millisecond idle strategy, the snapshots wait for the connection of the publishers
+        super(new SleepingMillisIdleStrategy(1));
+
+        log.info("Starting last value snapshot sender");
+        tasksRunner.start(this, "LastValueSnapshotSender_" + instanceId);
+    }
+
+    /**
+     * Add the snapshot of a topic publisher requested by a subscriber instance
+     *
+     * @param topicPublisher the topic publisher with the last value cache
+     * @param responsePublisher the response publisher of the requester instance
+     */
+    void addSnapshot(final AbstractTopicPublisher topicPublisher, final AeronPublisher responsePublisher)
+    {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(topicPublisher.getTopicConfig().getLastValueSnapshotTimeoutMillis());
+
+        if (!this.pendingSnapshots.offer(new PendingSnapshot(topicPublisher, responsePublisher, deadlineNanos)))
+        {
+            log.warn("Too many pending snapshots, discarding the snapshot of topic [{}]", topicPublisher.getTopicName());
+        }
+    }
+
+    @Override
+    public int action()
+    {
+        this.pendingSnapshots.drain(this::addWaitingSnapshot);
+
+        int msgsSent = 0;
+        final long now = System.nanoTime();
+
+        for (int i = this.waitingSnapshots.size() - 1; i >= 0; i--)
+        {
+            final PendingSnapshot snapshot = this.waitingSnapshots.get(i);
+
+            if (snapshot.aeronPublisher.isConnected())
+            {
+                msgsSent += snapshot.topicPublisher.sendSnapshot(snapshot.aeronPublisher);
+                this.waitingSnapshots.remove(i);
+            }
+            else if (now - snapshot.deadlineNanos >= 0)
+            {
+                log.warn("Timeout waiting for the connection of the requester instance, discarding the snapshot of topic [{}]", snapshot.topicPublisher.getTopicName());
+                this.waitingSnapshots.remove(i);
+            }
+        }
+
+        return msgsSent;
+    }
+
+    /**
+     * Add a snapshot to wait for the connection of the publisher unless the same one is already waiting
+     *
+     * @param snapshot the snapshot to add
+     */
+    private void addWaitingSnapshot(final PendingSnapshot snapshot)
+    {
+        for (final PendingSnapshot waiting : this.waitingSnapshots)
+        {
+            if (waiting.topicPublisher == snapshot.topicPublisher && waiting.aeronPublisher == snapshot.aeronPublisher)
+            {
+                return;
+            }
+        }
+
+        this.waitingSnapshots.add(snapshot);
+    }
+
+    @Override
+    public void cleanUp()
+    {
+        log.info("Cleaning last value snapshot sender after closing");
+
+        this.pendingSnapshots.clear();
+        this.waitingSnapshots.clear();
+    }
+
+    /**
+     * Snapshot of a topic publisher waiting to be sent to the requester instance
+     */
+    private static final class PendingSnapshot
+    {
+        /** Topic publisher with the last value cache */
+        private final AbstractTopicPublisher topicPublisher;
+
+        /** Response publisher of the requester instance */
+        private final AeronPublisher aeronPublisher;
+
+        /** Time the snapshot is discarded if the publisher is not connected */
+        private final long deadlineNanos;
+
+        /**
+         * Create a new pending snapshot
+         *
+         * @param topicPublisher topic publisher with the last value cache
+         * @param aeronPublisher response publisher of the requester instance
+         * @param deadlineNanos time the snapshot is discarded if the publisher is not connected
+         */
+        private PendingSnapshot(final AbstractTopicPublisher topicPublisher, final AeronPublisher aeronPublisher, final long deadlineNanos)
+        {
+            this.topicPublisher = topicPublisher;
+            this.aeronPublisher = aeronPublisher;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
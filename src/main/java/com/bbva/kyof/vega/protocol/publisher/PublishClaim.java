@@ -0,0 +1,169 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.util.collection.DirectBufferPool;
+import io.aeron.logbuffer.BufferClaim;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a space reserved in a topic publisher to write a user message directly before publishing it. <p>
+ *
+ * The claim is obtained calling {@link ITopicPublisher#tryClaim(int)}. If the result is OK the user message should be written in
+ * the buffer returned by {@link #getBuffer()}, always starting at index 0 and without exceeding the claimed length. Once written the
+ * message is published calling {@link ITopicPublisher#commit()} or discarded calling {@link ITopicPublisher#abort()}. <p>
+ *
+ * When possible (IPC and multicast topics without security, retransmission cache or journal) the buffer points directly to the Aeron
+ * term buffer, the library headers have been already written and no extra copy is performed. In any other case the message is written
+ * into an internal off-heap buffer taken from the pool of the library instance and sent using the normal send mechanism on commit. <p>
+ *
+ * The object is reused by the topic publisher, there can only be a single pending claim per topic publisher. While it is pending the
+ * claims of other threads fail with BACK_PRESSURED, and only the thread that made it can commit or abort it.
+ *
+ * This class is not thread safe!
+ */
+public final class PublishClaim
+{
+    /** Empty array wrapped by the buffers while there is no message */
+    private static final byte[] EMPTY = new byte[0];
+
+    /** Result of the claim, the buffer should only be used if the result is OK */
+    @Getter private PublishResult result = PublishResult.OK;
+
+    /** Buffer to write the user message into, the user message always starts at index 0 */
+    @Getter private final UnsafeBuffer buffer = new UnsafeBuffer(EMPTY);
+
+    /** Length of the claimed user message */
+    @Getter private int length = 0;
+
+    /** Aeron buffer claim used when the message is written directly into the Aeron term buffer */
+    @Getter(AccessLevel.PACKAGE) private final BufferClaim aeronBufferClaim = new BufferClaim();
+
+    /** Internal buffer used when the message cannot be written directly into the Aeron term buffer */
+    private final UnsafeBuffer stagingBuffer = new UnsafeBuffer(EMPTY);
+
+    /** Pool the staging buffers are taken from */
+    private final DirectBufferPool stagingPool;
+
+    /** Pooled buffer wrapped by the staging buffer, null if none has been acquired */
+    private ByteBuffer stagingPooledBuffer = null;
+
+    /** True if there is a claim pending to be committed or aborted */
+    @Getter(AccessLevel.PACKAGE) private boolean pending = false;
+
+    /** True if the pending claim is on the Aeron term buffer */
+    @Getter(AccessLevel.PACKAGE) private boolean direct = false;
+
+    /** Sequence number of a direct claim, in staged claims the sequence number is assigned on commit */
+    @Getter(AccessLevel.PACKAGE) private long sequenceNumber = 0;
+
+    /** Thread that made the pending claim */
+    private Thread owner = null;
+
+    /**
+     * Create a new claim
+     *
+     * @param stagingPool pool to take the staging buffers from
+     */
+    PublishClaim(final DirectBufferPool stagingPool)
+    {
+        this.stagingPool = stagingPool;
+    }
+
+    /**
+     * Set the claim as failed, the buffer should not be used
+     *
+     * @param failResult the result of the failed claim
+     */
+    void setFailed(final PublishResult failResult)
+    {
+        this.result = failResult;
+        this.length = 0;
+        this.pending = false;
+        this.direct = false;
+    }
+
+    /**
+     * Set the claim as performed directly over the Aeron term buffer. The Aeron buffer claim should have been already performed
+     * and the library headers written.
+     *
+     * @param claimedSequenceNumber sequence number of the claimed message
+     * @param userMsgOffset offset in the claimed Aeron buffer where the user message starts
+     * @param userMsgLength length of the user message
+     */
+    void setDirect(final long claimedSequenceNumber, final int userMsgOffset, final int userMsgLength)
+    {
+        this.buffer.wrap(this.aeronBufferClaim.buffer(), userMsgOffset, userMsgLength);
+        this.result = PublishResult.OK;
+        this.length = userMsgLength;
+        this.sequenceNumber = claimedSequenceNumber;
+        this.owner = Thread.currentThread();
+        this.pending = true;
+        this.direct = true;
+    }
+
+    /**
+     * Return true if a message of the given length can be staged in the internal buffer
+     *
+     * @param userMsgLength length of the user message
+     * @return true if the staging pool has buffers big enough for it
+     */
+    boolean canStage(final int userMsgLength)
+    {
+        return userMsgLength <= this.stagingPool.getMaxCapacity();
+    }
+
+    /**
+     * Set the claim as staged in the internal buffer, it will be sent using the normal mechanism on commit. The buffer
+     * should be returned calling {@link #releaseStagingBuffer()} once the message has been sent or discarded.
+     *
+     * @param userMsgLength length of the user message
+     */
+    void setStaged(final int userMsgLength)
+    {
+        // Take a buffer big enough from the pool
+        this.stagingPooledBuffer = this.stagingPool.acquire(userMsgLength);
+        this.stagingBuffer.wrap(this.stagingPooledBuffer);
+
+        this.buffer.wrap(this.stagingBuffer, 0, userMsgLength);
+        this.result = PublishResult.OK;
+        this.length = userMsgLength;
+        this.owner = Thread.currentThread();
+        this.pending = true;
+        this.direct = false;
+    }
+
+    /** Set the claim as no longer pending once committed or aborted */
+    void release()
+    {
+        this.pending = false;
+        this.owner = null;
+    }
+
+    /** @return true if the claim has been made by the calling thread */
+    boolean isOwnedByCurrentThread()
+    {
+        return this.owner == Thread.currentThread();
+    }
+
+    /** @return the internal buffer with the staged message, the user message starts at index 0 */
+    UnsafeBuffer getStagingBuffer()
+    {
+        return this.stagingBuffer;
+    }
+
+    /** Return the staging buffer to the pool, if any */
+    void releaseStagingBuffer()
+    {
+        if (this.stagingPooledBuffer != null)
+        {
+            this.stagingBuffer.wrap(EMPTY);
+            this.buffer.wrap(this.stagingBuffer);
+            this.stagingPool.release(this.stagingPooledBuffer);
+            this.stagingPooledBuffer = null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
@@ -39,6 +40,9 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
     /** Store all the topic publishers related to the same aeron publisher */
     private final HashMapOfHashSet<AeronPublisher, TopicPublisherIpcMcast> topicPublishersByAeronPub = new HashMapOfHashSet<>();
 
+    /** Discovered topic subscribers of a library version that doesn't support the compact headers or batches, by topic name */
+    private final HashMapOfHashSet<String, UUID> legacySubscribersByTopicName = new HashMapOfHashSet<>();
+
     /**
      * Constructor
      *
@@ -56,6 +60,7 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
         this.publisherByParams.clear();
         this.registeredTopicSocketInfosByTopicId.clear();
         this.topicPublishersByAeronPub.clear();
+        this.legacySubscribersByTopicName.clear();
     }
 
     @Override
@@ -64,6 +69,80 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
         // Create the aeron publisher parameters for the topic publisher
         final AeronPublisherParams aeronPublisherParams = this.createAeronPublisherParams(topicPublisher);
 
+        final AeronPublisher aeronPublisher;
+
+        // Single writer topic publishers need a dedicated exclusive aeron publisher, it cannot be shared between topics
+        if (topicPublisher.isSingleWriter())
+        {
+            log.debug("Creating new single writer AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
+
+            aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams, true);
+        }
+        else
+        {
+            aeronPublisher = this.getOrCreateSharedAeronPublisher(topicPublisher, aeronPublisherParams);
+        }
+
+        // Add the related topic to the aeron publisher, there can be more than one since we are reusing
+        this.topicPublishersByAeronPub.put(aeronPublisher, topicPublisher);
+
+        // Secured topics always send encrypted messages with the normal header, the compact header is only for plain data messages
+        final boolean compactHeader = Boolean.TRUE.equals(topicPublisher.getTopicConfig().getCompactHeader()) && !topicPublisher.hasSecurity();
+
+        // Set the Aeron Publisher for the topic publisher, there is only one. The alias is assigned by the aeron publisher if required
+        topicPublisher.setAeronPublisher(aeronPublisher, compactHeader ? aeronPublisher.assignHeaderAlias() : AutoDiscTopicSocketInfo.NO_HEADER_ALIAS);
+
+        // The compact headers and batches may be deactivated by subscribers of other topics already discovered on the same socket
+        this.updateMsgFormats(aeronPublisher);
+
+        // Register the new topic socket info in auto-discovery
+        this.registerTopicSocketInfoInAutodiscovery(topicPublisher, aeronPublisher);
+    }
+
+    /**
+     * Activate or deactivate the compact headers and the batches on all the topic publishers of an aeron publisher. The messages reach
+     * all the subscribers of the socket, they are only active if none of the discovered subscribers of the topics sent on the socket has
+     * a library version that doesn't support them.
+     *
+     * @param aeronPublisher the aeron publisher of the socket
+     */
+    private void updateMsgFormats(final AeronPublisher aeronPublisher)
+    {
+        final boolean active = !this.topicPublishersByAeronPub.anyValueForKeyMatchFilter(
+                aeronPublisher,
+                topicPublisher -> this.legacySubscribersByTopicName.containsKey(topicPublisher.getTopicName()));
+
+        this.topicPublishersByAeronPub.consumeIfKeyEquals(aeronPublisher, topicPublisher ->
+        {
+            topicPublisher.setCompactHeaderActive(active);
+            topicPublisher.setBatchActive(active);
+        });
+    }
+
+    /**
+     * Update the compact headers and batches of the socket of the topic publisher of the given topic, if there is any
+     *
+     * @param topicName the name of the topic
+     */
+    private void updateMsgFormats(final String topicName)
+    {
+        final TopicPublisherIpcMcast topicPublisher = this.getTopicPublisherForTopicName(topicName);
+
+        if (topicPublisher != null && topicPublisher.aeronPublisher != null)
+        {
+            this.updateMsgFormats(topicPublisher.aeronPublisher);
+        }
+    }
+
+    /**
+     * Look for an existing aeron publisher that matches the given parameters, if it doesn't exists already it creates a new one
+     *
+     * @param topicPublisher the topic publisher that will use the aeron publisher
+     * @param aeronPublisherParams the parameters of the aeron publisher
+     * @return the shared aeron publisher
+     */
+    private AeronPublisher getOrCreateSharedAeronPublisher(final TopicPublisherIpcMcast topicPublisher, final AeronPublisherParams aeronPublisherParams)
+    {
         // Look for an existing publisher that matches the given parameters
         AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
 
@@ -80,14 +159,7 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
             log.debug("Reusing existing AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
         }
 
-        // Add the related topic to the aeron publisher, there can be more than one since we are reusing
-        this.topicPublishersByAeronPub.put(aeronPublisher, topicPublisher);
-
-        // Set the Aeron Publisher for the topic publisher, there is only one
-        topicPublisher.setAeronPublisher(aeronPublisher);
-
-        // Register the new topic socket info in auto-discovery
-        this.registerTopicSocketInfoInAutodiscovery(topicPublisher, aeronPublisherParams);
+        return aeronPublisher;
     }
 
     @Override
@@ -111,6 +183,9 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
     @Override
     protected void processTopicPublisherBeforeDestroy(final TopicPublisherIpcMcast topicPublisher)
     {
+        // The timeouts of the subscribers are not notified once unsubscribed from the topic, they are discovered again if recreated
+        this.legacySubscribersByTopicName.removeKey(topicPublisher.getTopicName());
+
         // Check for the internal publisher
         topicPublisher.runForAeronPublisher(aeronPublisher ->
         {
@@ -120,7 +195,14 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
             if (!this.topicPublishersByAeronPub.containsKey(aeronPublisher))
             {
                 aeronPublisher.close();
-                this.publisherByParams.remove(aeronPublisher.getParams());
+
+                // Only remove if it is the shared one, single writer publishers are not stored by params
+                this.publisherByParams.remove(aeronPublisher.getParams(), aeronPublisher);
+            }
+            else
+            {
+                // The subscribers of the removed topic may have been the only ones that didn't support the compact headers or batches
+                this.updateMsgFormats(aeronPublisher);
             }
 
             // Un-registerTopicInfo topic socket info from auto-discovery
@@ -176,10 +258,13 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
      * Register the information about a topic / socket pair in autodiscovery by providing the topic and the parameters of the socket (aeron publisher params)
      *
      * @param topicPublisher the topic publisher of the topic / socket pair
-     * @param aeronPublisherParams the publisher parameters of the socket
+     * @param aeronPublisher the aeron publisher of the socket
      */
-    private void registerTopicSocketInfoInAutodiscovery(final TopicPublisherIpcMcast topicPublisher, final AeronPublisherParams aeronPublisherParams)
+    private void registerTopicSocketInfoInAutodiscovery(final TopicPublisherIpcMcast topicPublisher, final AeronPublisher aeronPublisher)
     {
+        final AeronPublisherParams aeronPublisherParams = aeronPublisher.getParams();
+        final int headerAlias = topicPublisher.getHeaderAlias();
+
         final AutoDiscTopicSocketInfo autoDiscTopicSocketInfo = new AutoDiscTopicSocketInfo(
                 this.getVegaContext().getInstanceUniqueId(),
                 this.convertToPubAutodiscTransportType(aeronPublisherParams.getTransportType()),
@@ -190,7 +275,9 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
                 aeronPublisherParams.getPort(),
                 aeronPublisherParams.getStreamId(),
                 AutoDiscTopicSocketInfo.NO_HOSTNAME,
-                topicPublisher.hasSecurity() ? this.getVegaContext().getSecurityContext().getSecurityId() : AutoDiscTopicSocketInfo.NO_SECURED_CONSTANT);
+                topicPublisher.hasSecurity() ? this.getVegaContext().getSecurityContext().getSecurityId() : AutoDiscTopicSocketInfo.NO_SECURED_CONSTANT,
+                headerAlias == AutoDiscTopicSocketInfo.NO_HEADER_ALIAS ? AutoDiscTopicSocketInfo.NO_SESSION_ID : aeronPublisher.getSessionId(),
+                headerAlias);
 
         this.registeredTopicSocketInfosByTopicId.put(topicPublisher.getUniqueId(), autoDiscTopicSocketInfo);
 
@@ -217,12 +304,50 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
     public void onNewAutoDiscTopicInfo(final AutoDiscTopicInfo info)
     {
         log.debug("New topic info event received from auto-discovery {}", info);
+
+        synchronized (this.lock)
+        {
+            // Check if closed
+            if (this.isClosed())
+            {
+                return;
+            }
+
+            // Get the topic publisher for the subscriber topic name
+            final TopicPublisherIpcMcast topicPublisher = this.getTopicPublisherForTopicName(info.getTopicName());
+            if (topicPublisher == null)
+            {
+                return;
+            }
+
+            // Subscribers of previous versions drop the compact headers and batches as unknown messages
+            if (!supportsMsgFormats(info) && this.legacySubscribersByTopicName.put(info.getTopicName(), info.getUniqueId()))
+            {
+                log.info("Subscriber of version [{}] that doesn't support compact headers or batches discovered on topic [{}]", Version.toStringRep(info.getVersion()), info.getTopicName());
+                this.updateMsgFormats(info.getTopicName());
+            }
+        }
     }
 
     @Override
     public void onTimedOutAutoDiscTopicInfo(final AutoDiscTopicInfo info)
     {
         log.debug("Topic info event timed out in auto-discovery {}", info);
+
+        synchronized (this.lock)
+        {
+            // Check if closed
+            if (this.isClosed())
+            {
+                return;
+            }
+
+            // The compact headers and batches are activated again once all the subscribers that don't support them are gone
+            if (this.legacySubscribersByTopicName.remove(info.getTopicName(), info.getUniqueId()))
+            {
+                this.updateMsgFormats(info.getTopicName());
+            }
+        }
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
@@ -11,6 +12,8 @@ import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.IOwnSecPubTopicsChangesListener;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import com.bbva.kyof.vega.util.net.InetUtil;
+import com.bbva.kyof.vega.util.net.SubnetAddress;
+import io.aeron.exceptions.RegistrationException;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
@@ -21,11 +24,18 @@ import java.util.UUID;
 /**
  * Send manager for unicast sending. It will handle all the sockets and relations between topic publisher.
  *
+ * By default there is an Aeron publisher per subscriber socket, shared by all the topic publishers that have subscribers on it.
+ * If the topic template is configured with multi-destination-cast each topic publisher has a dedicated Aeron publisher per
+ * stream in manual control mode, and the subscriber sockets are added to it as destinations.
+ *
  * This class is thread safe!
  */
 @Slf4j
 class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherUnicast>
 {
+    /** Max number of free ports tried to create a multi-destination-cast publisher, the port can be taken before binding it */
+    private static final int MDC_BIND_MAX_ATTEMPTS = 5;
+
     /** Stores all the publishers in the pool, given the parameters used to create them */
     private final Map<AeronPublisherParams, AeronPublisher> publisherByParams = new HashMap<>();
 
@@ -38,6 +48,15 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
     /** Store the relation between sub topic socket infos and aeron publishers */
     private final Map<UUID, AeronPublisher> aeronPubBySubTopicSocketId = new HashMap<>();
 
+    /** Stores the multi-destination-cast publishers of each topic publisher unique id, given the stream id of the subscribers */
+    private final Map<UUID, Map<Integer, AeronPublisher>> mdcPublishersByTopicPubId = new HashMap<>();
+
+    /** Store the destination of each sub topic socket info added to a multi-destination-cast publisher */
+    private final Map<UUID, AeronPublisherParams> mdcDestinationBySubTopicSocketId = new HashMap<>();
+
+    /** Discovered topic subscribers of a library version that doesn't support the batches, by topic name */
+    private final HashMapOfHashSet<String, UUID> legacySubscribersByTopicName = new HashMapOfHashSet<>();
+
     /**
      * Constructor
      *
@@ -56,6 +75,9 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         this.subTopicSocketInfosByTopicName.clear();
         this.subTopicSocketInfosByAeronPub.clear();
         this.aeronPubBySubTopicSocketId.clear();
+        this.mdcPublishersByTopicPubId.clear();
+        this.mdcDestinationBySubTopicSocketId.clear();
+        this.legacySubscribersByTopicName.clear();
     }
 
     @Override
@@ -90,6 +112,9 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         // Unsubscribe from topic adverts in auto-discovery
         this.getVegaContext().getAutodiscoveryManager().unsubscribeFromTopic(topicPublisher.getTopicName(), AutoDiscTransportType.SUB_UNI, this);
 
+        // The timeouts of the subscribers are not notified once unsubscribed from the topic, they are discovered again if recreated
+        this.legacySubscribersByTopicName.removeKey(topicPublisher.getTopicName());
+
         // Remove and consume all the topic socket Id's related to that topic subscriber
         this.subTopicSocketInfosByTopicName.removeAndConsumeIfKeyEquals(topicPublisher.getTopicName(), topicSocketId ->
                 removeTopicSocketInfo(topicPublisher, topicSocketId));
@@ -137,12 +162,55 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
     public void onNewAutoDiscTopicInfo(final AutoDiscTopicInfo info)
     {
         log.debug("New topic info event received from auto-discovery {}", info);
+
+        synchronized (this.lock)
+        {
+            // Check if closed
+            if (this.isClosed())
+            {
+                return;
+            }
+
+            // Get the topic publisher for the subscriber topic name
+            final TopicPublisherUnicast topicPublisher = this.getTopicPublisherForTopicName(info.getTopicName());
+            if (topicPublisher == null)
+            {
+                return;
+            }
+
+            // Subscribers of previous versions drop the batches as unknown messages, the messages are sent separately
+            if (!supportsMsgFormats(info) && this.legacySubscribersByTopicName.put(info.getTopicName(), info.getUniqueId()))
+            {
+                log.info("Subscriber of version [{}] that doesn't support batches discovered on topic [{}]", Version.toStringRep(info.getVersion()), info.getTopicName());
+                topicPublisher.setBatchActive(false);
+            }
+        }
     }
 
     @Override
     public void onTimedOutAutoDiscTopicInfo(final AutoDiscTopicInfo info)
     {
         log.debug("Topic info event timed out in auto-discovery {}", info);
+
+        synchronized (this.lock)
+        {
+            // Check if closed
+            if (this.isClosed())
+            {
+                return;
+            }
+
+            // The batches are activated again once all the subscribers that don't support them are gone
+            if (this.legacySubscribersByTopicName.remove(info.getTopicName(), info.getUniqueId()) && !this.legacySubscribersByTopicName.containsKey(info.getTopicName()))
+            {
+                final TopicPublisherUnicast topicPublisher = this.getTopicPublisherForTopicName(info.getTopicName());
+
+                if (topicPublisher != null)
+                {
+                    topicPublisher.setBatchActive(true);
+                }
+            }
+        }
     }
 
     @Override
@@ -180,13 +248,16 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
             // Create the aeron publisher parameters for the topic publisher
             final AeronPublisherParams aeronPublisherParams = this.createAeronPublisherParams(topicPublisher, subTopicSocketInfo);
 
-            // Check if we already have the socket created with that parameters, if not create a new one
-            AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
+            // Get or create the aeron publisher that will send to the subscriber
+            final AeronPublisher aeronPublisher;
 
-            if (aeronPublisher == null)
+            if (Boolean.TRUE.equals(topicPublisher.getTopicConfig().getMultiDestinationCast()))
             {
-                aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
-                this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+                aeronPublisher = this.addMdcDestination(topicPublisher, subTopicSocketInfo, aeronPublisherParams);
+            }
+            else
+            {
+                aeronPublisher = this.getOrCreateAeronPublisher(aeronPublisherParams);
             }
 
             // Add all the relations between the topic socket id and the topic publisher and aeron publisher
@@ -200,6 +271,127 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         }
     }
 
+    /**
+     * Return the aeron publisher for the given parameters, if there is no publisher created for them it creates a new one
+     *
+     * @param aeronPublisherParams parameters of the aeron publisher
+     * @return the existing or created aeron publisher
+     */
+    private AeronPublisher getOrCreateAeronPublisher(final AeronPublisherParams aeronPublisherParams)
+    {
+        // Check if we already have the socket created with that parameters, if not create a new one
+        AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
+
+        if (aeronPublisher == null)
+        {
+            aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
+            this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+        }
+
+        return aeronPublisher;
+    }
+
+    /**
+     * Add the subscriber socket as a destination of the multi-destination-cast aeron publisher of the topic publisher for
+     * the subscriber stream. If the topic publisher has no aeron publisher for that stream it creates a new one.
+     *
+     * @param topicPublisher the topic publisher for the topic name that match the topic socket information
+     * @param subTopicSocketInfo topic socket info of the subscriber
+     * @param destinationParams the parameters of the subscriber socket
+     * @return the multi-destination-cast aeron publisher
+     */
+    private AeronPublisher addMdcDestination(final TopicPublisherUnicast topicPublisher,
+                                             final AutoDiscTopicSocketInfo subTopicSocketInfo,
+                                             final AeronPublisherParams destinationParams)
+    {
+        final Map<Integer, AeronPublisher> topicMdcPublishers =
+                this.mdcPublishersByTopicPubId.computeIfAbsent(topicPublisher.getUniqueId(), key -> new HashMap<>());
+
+        // The multi-destination-cast publishers are never shared between topic publishers
+        AeronPublisher aeronPublisher = topicMdcPublishers.get(destinationParams.getStreamId());
+
+        if (aeronPublisher == null)
+        {
+            aeronPublisher = this.createMdcAeronPublisher(topicPublisher, destinationParams.getStreamId());
+            topicMdcPublishers.put(destinationParams.getStreamId(), aeronPublisher);
+        }
+
+        // Add the destination unless there is another subscriber on the same socket already added
+        if (!this.hasMdcDestination(aeronPublisher, destinationParams))
+        {
+            aeronPublisher.addDestination(destinationParams.getIpAddress(), destinationParams.getPort());
+        }
+
+        this.mdcDestinationBySubTopicSocketId.put(subTopicSocketInfo.getUniqueId(), destinationParams);
+
+        return aeronPublisher;
+    }
+
+    /**
+     * Create a multi-destination-cast aeron publisher for the topic publisher. The free port selected for the control address
+     * may be taken by another socket before the publisher binds it, in that case it is retried with a new free port.
+     *
+     * @param topicPublisher topic publisher to create the aeron publisher for
+     * @param streamId the stream id of the subscribers
+     * @return the created aeron publisher
+     */
+    private AeronPublisher createMdcAeronPublisher(final TopicPublisherUnicast topicPublisher, final int streamId)
+    {
+        for (int attempt = 1; ; attempt++)
+        {
+            final AeronPublisherParams params = this.createMdcAeronPublisherParams(topicPublisher, streamId);
+
+            try
+            {
+                return new AeronPublisher(this.getVegaContext(), params);
+            }
+            catch (final RegistrationException e)
+            {
+                if (attempt >= MDC_BIND_MAX_ATTEMPTS)
+                {
+                    throw e;
+                }
+
+                log.warn("Error creating multi-destination-cast publisher on control port [{}] for topic [{}], retrying with another port",
+                        params.getPort(), topicPublisher.getTopicName(), e);
+            }
+        }
+    }
+
+    /**
+     * Create the parameters of a multi-destination-cast aeron publisher for the topic publisher. Aeron shares the send endpoint
+     * of the publications with the same control address, a free port is selected to have a dedicated endpoint.
+     *
+     * @param topicPublisher topic publisher to create the parameters from
+     * @param streamId the stream id of the subscribers
+     * @return the created parameters for the publisher
+     */
+    private AeronPublisherParams createMdcAeronPublisherParams(final TopicPublisherUnicast topicPublisher, final int streamId)
+    {
+        final SubnetAddress subnetAddress = topicPublisher.getTopicConfig().getSubnetAddress();
+
+        return new AeronPublisherParams(
+                TransportMediaType.UNICAST,
+                InetUtil.convertIpAddressToInt(subnetAddress.getIpAddres()),
+                InetUtil.findFreeUdpPort(subnetAddress.getIpAddres()),
+                streamId,
+                subnetAddress,
+                true);
+    }
+
+    /**
+     * Check if any of the sub topic socket infos related to the multi-destination-cast aeron publisher uses the given destination
+     *
+     * @param aeronPublisher the multi-destination-cast aeron publisher
+     * @param destinationParams the parameters of the destination
+     * @return true if the destination is in use
+     */
+    private boolean hasMdcDestination(final AeronPublisher aeronPublisher, final AeronPublisherParams destinationParams)
+    {
+        return this.subTopicSocketInfosByAeronPub.anyValueForKeyMatchFilter(aeronPublisher,
+                topicSocket -> destinationParams.equals(this.mdcDestinationBySubTopicSocketId.get(topicSocket.getUniqueId())));
+    }
+
     @Override
     public void onTimedOutAutoDiscTopicSocketInfo(final AutoDiscTopicSocketInfo subscriberTopicSocketInfo)
     {
@@ -251,12 +443,28 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         // Remove it also from the topic socket id's related to the aeron publisher
         this.subTopicSocketInfosByAeronPub.remove(aeronPublisher, subTopicSocketInfo);
 
+        // Remove the destination if it was added to a multi-destination-cast publisher
+        final AeronPublisherParams mdcDestination = this.mdcDestinationBySubTopicSocketId.remove(subTopicSocketInfo.getUniqueId());
+
         // If there are no more topic socket ids for the Aeron Subscriber, we should close it
         if (!this.subTopicSocketInfosByAeronPub.containsKey(aeronPublisher))
         {
             // If there are no topic sockets attached to the AeronPublisher we should remove it as well
             aeronPublisher.close();
-            this.publisherByParams.remove(aeronPublisher.getParams());
+
+            if (aeronPublisher.getParams().isMultiDestinationCast())
+            {
+                this.removeMdcPublisher(topicPublisher, aeronPublisher);
+            }
+            else
+            {
+                this.publisherByParams.remove(aeronPublisher.getParams());
+            }
+        }
+        else if (mdcDestination != null && !this.hasMdcDestination(aeronPublisher, mdcDestination))
+        {
+            // No other subscriber uses the destination, remove it from the publication
+            aeronPublisher.removeDestination(mdcDestination.getIpAddress(), mdcDestination.getPort());
         }
 
         // We have to decide if the aeron publisher should be removed form the topic publisher
@@ -270,6 +478,29 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         }
     }
 
+    /**
+     * Remove a multi-destination-cast aeron publisher from the publishers of the topic publisher
+     *
+     * @param topicPublisher the topic publisher that owns the aeron publisher
+     * @param aeronPublisher the multi-destination-cast aeron publisher to remove
+     */
+    private void removeMdcPublisher(final TopicPublisherUnicast topicPublisher, final AeronPublisher aeronPublisher)
+    {
+        final Map<Integer, AeronPublisher> topicMdcPublishers = this.mdcPublishersByTopicPubId.get(topicPublisher.getUniqueId());
+
+        if (topicMdcPublishers == null)
+        {
+            return;
+        }
+
+        topicMdcPublishers.remove(aeronPublisher.getParams().getStreamId());
+
+        if (topicMdcPublishers.isEmpty())
+        {
+            this.mdcPublishersByTopicPubId.remove(topicPublisher.getUniqueId());
+        }
+    }
+
     /**
      *  Check the security to decide if the topic should be filtered. Both topics should have or not have security, if secured the security id of
      *  the subscriber should be in the list of valid id's for the publisher.
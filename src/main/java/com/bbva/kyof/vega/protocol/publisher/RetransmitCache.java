@@ -0,0 +1,136 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cache with the last messages sent by a topic publisher, indexed by sequence number. It is used to retransmit the
+ * messages on request of the subscribers that have detected a gap. <p>
+ *
+ * The messages are stored in an off-heap buffer divided in slots of the max message size, the slot of a message is
+ * given by the sequence number, older messages are overwritten by the new ones. <p>
+ *
+ * This class is not thread safe!
+ */
+class RetransmitCache
+{
+    /** Length stored for the sequence numbers that are tracked but whose contents cannot be retransmitted */
+    private static final int NOT_CACHED_LENGTH = -1;
+
+    /** Off-heap buffer with the contents of the cached messages */
+    private final UnsafeBuffer buffer;
+
+    /** Sequence number stored on each slot, 0 if the slot is empty */
+    private final long[] sequenceNumbers;
+
+    /** Length of the message stored on each slot */
+    private final int[] lengths;
+
+    /** Max size of a cached message */
+    private final int maxMsgSize;
+
+    /** Mask to find the slot of a sequence number */
+    private final int mask;
+
+    /**
+     * Create a new cache
+     *
+     * @param numMsgs number of messages to keep, it has to be a power of 2
+     * @param maxMsgSize max size of a cached message, bigger messages are tracked but not cached
+     */
+    RetransmitCache(final int numMsgs, final int maxMsgSize)
+    {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(numMsgs * maxMsgSize));
+        this.sequenceNumbers = new long[numMsgs];
+        this.lengths = new int[numMsgs];
+        this.maxMsgSize = maxMsgSize;
+        this.mask = numMsgs - 1;
+    }
+
+    /** @return the number of messages kept by the cache */
+    int capacity()
+    {
+        return this.sequenceNumbers.length;
+    }
+
+    /**
+     * Store a sent message, if the message is bigger than the max size only the sequence number is tracked
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @param message buffer with the message
+     * @param offset message offset in the buffer
+     * @param length message length starting from the offset
+     */
+    void add(final long sequenceNumber, final DirectBuffer message, final int offset, final int length)
+    {
+        final int slot = (int)(sequenceNumber & this.mask);
+
+        this.sequenceNumbers[slot] = sequenceNumber;
+
+        if (length > this.maxMsgSize)
+        {
+            this.lengths[slot] = NOT_CACHED_LENGTH;
+            return;
+        }
+
+        this.buffer.putBytes(slot * this.maxMsgSize, message, offset, length);
+        this.lengths[slot] = length;
+    }
+
+    /**
+     * Track a sequence number whose contents cannot be retransmitted, for example a request
+     *
+     * @param sequenceNumber the sequence number
+     */
+    void addNotCached(final long sequenceNumber)
+    {
+        final int slot = (int)(sequenceNumber & this.mask);
+
+        this.sequenceNumbers[slot] = sequenceNumber;
+        this.lengths[slot] = NOT_CACHED_LENGTH;
+    }
+
+    /**
+     * Find the slot of a cached message
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @return the slot of the message, -1 if the message is not in the cache or its contents cannot be retransmitted
+     */
+    int find(final long sequenceNumber)
+    {
+        final int slot = (int)(sequenceNumber & this.mask);
+
+        if (sequenceNumber <= 0 || this.sequenceNumbers[slot] != sequenceNumber || this.lengths[slot] == NOT_CACHED_LENGTH)
+        {
+            return -1;
+        }
+
+        return slot;
+    }
+
+    /** @return the buffer with the contents of the cached messages */
+    DirectBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the offset of the message in the buffer
+     */
+    int getOffset(final int slot)
+    {
+        return slot * this.maxMsgSize;
+    }
+
+    /**
+     * @param slot slot of a cached message
+     * @return the length of the message
+     */
+    int getLength(final int slot)
+    {
+        return this.lengths[slot];
+    }
+}
@@ -0,0 +1,288 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sender thread for the retransmissions of the topic publishers with retransmission cache. The retransmissions are requested by
+ * the subscriber instances that have detected a gap and sent through the response publisher of the requester. <p>
+ *
+ * The active retransmissions are processed in turns of a limited number of messages, a big retransmission does not delay the rest.
+ * Each message is copied from the cache with the lock of the topic publisher and sent without it, the publications of the topic
+ * are never blocked by the retransmissions. The messages no longer in the cache are notified as lost in ranges of consecutive
+ * sequence numbers. <p>
+ *
+ * This class is thread safe!!
+ */
+@Slf4j
+class RetransmitSender extends RecurrentTask
+{
+    /** Max number of retransmission requests waiting to be started */
+    private static final int MAX_PENDING_RETRANSMITS = 1024;
+
+    /** Max number of sequence numbers processed by a retransmission on each turn, either sent or found lost */
+    private static final int MAX_MSGS_PER_TURN = 128;
+
+    /** Max number of turns a retransmitted message is retried if the response publisher is back pressured */
+    private static final int MAX_BACK_PRESSURED_TURNS = 3;
+
+    /** Retransmission requests waiting to be started */
+    private final ManyToOneConcurrentArrayQueue<Retransmission> pendingRetransmits = new ManyToOneConcurrentArrayQueue<>(MAX_PENDING_RETRANSMITS);
+
+    /** Retransmissions in progress, only accessed from the sender thread */
+    private final List<Retransmission> activeRetransmits = new ArrayList<>();
+
+    /** Reusable content for the notifications of lost messages, it contains the last lost sequence number */
+    private final UnsafeBuffer lostContent = new UnsafeBuffer(new byte[UnsafeBufferSerializer.LONG_SIZE]);
+
+    /**
+     * Create and start a new sender
+     *
+     * @param instanceId unique ID of the library instance
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    RetransmitSender(final UUID instanceId, final TasksRunner tasksRunner)
+    {
+        // 1 Millisecond idle strategy, there is no idle time while there are retransmissions in progress
+        super(new SleepingMillisIdleStrategy(1));
+
+        log.info("Starting retransmission sender");
+        tasksRunner.start(this, "RetransmitSender_" + instanceId);
+    }
+
+    /**
+     * Add a retransmission of a range of messages of a topic publisher
+     *
+     * @param topicPublisher the topic publisher with the retransmission cache
+     * @param firstSequenceNumber sequence number of the first message to retransmit
+     * @param lastSequenceNumber sequence number of the last message to retransmit, inclusive
+     * @param responsePublisher the response publisher of the requester
+     */
+    void addRetransmit(final AbstractTopicPublisher topicPublisher,
+                       final long firstSequenceNumber,
+                       final long lastSequenceNumber,
+                       final AeronPublisher responsePublisher)
+    {
+        if (!this.pendingRetransmits.offer(new Retransmission(topicPublisher, firstSequenceNumber, lastSequenceNumber, responsePublisher)))
+        {
+            log.warn("Too many pending retransmissions, discarding the retransmission of topic [{}] from [{}] to [{}]", topicPublisher.getTopicName(), firstSequenceNumber, lastSequenceNumber);
+        }
+    }
+
+    @Override
+    public int action()
+    {
+        this.pendingRetransmits.drain(this.activeRetransmits::add);
+
+        int msgsSent = 0;
+
+        for (int i = this.activeRetransmits.size() - 1; i >= 0; i--)
+        {
+            final Retransmission retransmission = this.activeRetransmits.get(i);
+
+            msgsSent += retransmission.sendTurn(this.lostContent);
+
+            if (retransmission.isFinished())
+            {
+                this.activeRetransmits.remove(i);
+            }
+        }
+
+        return msgsSent;
+    }
+
+    @Override
+    public void cleanUp()
+    {
+        log.info("Cleaning retransmission sender after closing");
+
+        this.pendingRetransmits.clear();
+        this.activeRetransmits.clear();
+    }
+
+    /**
+     * Retransmission in progress of a range of messages of a topic publisher
+     */
+    static final class Retransmission
+    {
+        /** Topic publisher with the retransmission cache */
+        private final AbstractTopicPublisher topicPublisher;
+
+        /** Sequence number of the last message to retransmit, inclusive */
+        private final long lastSequenceNumber;
+
+        /** Response publisher of the requester */
+        private final AeronPublisher responsePublisher;
+
+        /** Next sequence number to account for, sent or notified as lost */
+        private long nextSequenceNumber;
+
+        /** First sequence number of the range of lost messages pending to be notified, -1 if none */
+        private long firstLost = -1;
+
+        /** Number of consecutive turns the next message has been back pressured */
+        private int backPressuredTurns = 0;
+
+        /** True if the messages older than the cache have already been skipped */
+        private boolean started = false;
+
+        /** True if the retransmission has finished */
+        private boolean finished = false;
+
+        /**
+         * Create a new retransmission
+         *
+         * @param topicPublisher topic publisher with the retransmission cache
+         * @param firstSequenceNumber sequence number of the first message to retransmit
+         * @param lastSequenceNumber sequence number of the last message to retransmit, inclusive
+         * @param responsePublisher response publisher of the requester
+         */
+        Retransmission(final AbstractTopicPublisher topicPublisher,
+                       final long firstSequenceNumber,
+                       final long lastSequenceNumber,
+                       final AeronPublisher responsePublisher)
+        {
+            this.topicPublisher = topicPublisher;
+            this.nextSequenceNumber = firstSequenceNumber;
+            this.lastSequenceNumber = lastSequenceNumber;
+            this.responsePublisher = responsePublisher;
+        }
+
+        /** @return true if the retransmission has finished */
+        boolean isFinished()
+        {
+            return this.finished;
+        }
+
+        /**
+         * Send the next messages of the retransmission. It stops on back pressure to retry on the next turn, if the same message
+         * is still back pressured after a few turns the rest of the range is notified as lost.
+         *
+         * @param lostContent reusable content for the notifications of lost messages
+         * @return the number of messages sent
+         */
+        int sendTurn(final UnsafeBuffer lostContent)
+        {
+            // The messages older than the cache are lost, skip them without looking for them one by one
+            if (!this.started)
+            {
+                final long firstRetransmittable = this.topicPublisher.getFirstRetransmittable(this.nextSequenceNumber);
+
+                if (firstRetransmittable > this.nextSequenceNumber)
+                {
+                    this.firstLost = this.nextSequenceNumber;
+                    this.nextSequenceNumber = Math.min(firstRetransmittable, this.lastSequenceNumber + 1);
+                }
+
+                this.started = true;
+            }
+
+            int msgsSent = 0;
+
+            for (int processed = 0; processed < MAX_MSGS_PER_TURN && !this.finished; processed++)
+            {
+                // Notify the lost messages at the end of the range
+                if (this.nextSequenceNumber > this.lastSequenceNumber)
+                {
+                    if (this.firstLost != -1)
+                    {
+                        this.sendLost(this.firstLost, this.lastSequenceNumber, lostContent);
+                    }
+
+                    this.finished = true;
+                    break;
+                }
+
+                final int length = this.topicPublisher.copyRetransmitMsg(this.nextSequenceNumber);
+
+                if (length == AbstractTopicPublisher.RETRANSMIT_CLOSED)
+                {
+                    this.finished = true;
+                    break;
+                }
+
+                if (length == AbstractTopicPublisher.RETRANSMIT_NOT_CACHED)
+                {
+                    if (this.firstLost == -1)
+                    {
+                        this.firstLost = this.nextSequenceNumber;
+                    }
+
+                    this.nextSequenceNumber++;
+                    continue;
+                }
+
+                if (this.firstLost != -1)
+                {
+                    this.sendLost(this.firstLost, this.nextSequenceNumber - 1, lostContent);
+                    this.firstLost = -1;
+                }
+
+                final PublishResult result = this.responsePublisher.sendMessage(
+                        MsgType.DATA_RETRANSMIT,
+                        this.topicPublisher.getUniqueId(),
+                        this.topicPublisher.getRetransmitCopy(),
+                        this.nextSequenceNumber,
+                        0,
+                        length);
+
+                if (result == PublishResult.BACK_PRESSURED && ++this.backPressuredTurns < MAX_BACK_PRESSURED_TURNS)
+                {
+                    break;
+                }
+
+                if (result != PublishResult.OK)
+                {
+                    log.warn("Error [{}] retransmitting message [{}] on topicName [{}], notifying messages [{}] to [{}] as lost",
+                            result, this.nextSequenceNumber, this.topicPublisher.getTopicName(), this.nextSequenceNumber, this.lastSequenceNumber);
+                    this.sendLost(this.nextSequenceNumber, this.lastSequenceNumber, lostContent);
+                    this.finished = true;
+                    break;
+                }
+
+                this.backPressuredTurns = 0;
+                this.nextSequenceNumber++;
+                msgsSent++;
+            }
+
+            return msgsSent;
+        }
+
+        /**
+         * Notify a range of consecutive messages that cannot be retransmitted
+         *
+         * @param firstSequenceNumber sequence number of the first lost message, it goes in the header
+         * @param lastSequenceNumber sequence number of the last lost message, it goes in the content
+         * @param lostContent reusable content for the notification
+         */
+        private void sendLost(final long firstSequenceNumber, final long lastSequenceNumber, final UnsafeBuffer lostContent)
+        {
+            lostContent.putLong(0, lastSequenceNumber);
+
+            final PublishResult result = this.responsePublisher.sendMessage(
+                    MsgType.DATA_RETRANSMIT_LOST,
+                    this.topicPublisher.getUniqueId(),
+                    lostContent,
+                    firstSequenceNumber,
+                    0,
+                    UnsafeBufferSerializer.LONG_SIZE);
+
+            if (result != PublishResult.OK)
+            {
+                log.debug("Error [{}] notifying messages [{}] to [{}] as lost on topicName [{}], the subscriber will wait for the timeout",
+                        result, firstSequenceNumber, lastSequenceNumber, this.topicPublisher.getTopicName());
+            }
+        }
+    }
+}
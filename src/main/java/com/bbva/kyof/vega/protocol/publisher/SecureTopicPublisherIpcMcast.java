@@ -48,7 +48,7 @@ class SecureTopicPublisherIpcMcast extends TopicPublisherIpcMcast
     {
         super(topicName, topicConfig, vegaContext);
         this.topicSecurityConfig = topicSecurityConfig;
-        this.topicMsgEncoder = new AesTopicMsgEncoder();
+        this.topicMsgEncoder = new AesTopicMsgEncoder(topicSecurityConfig.getCipherType());
     }
 
     /**
@@ -62,6 +62,11 @@ class SecureTopicPublisherIpcMcast extends TopicPublisherIpcMcast
     @Override
     protected PublishResult sendToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
+        if (this.topicMsgEncoder.isGcm())
+        {
+            return this.sendGcmToAeron(message, sequenceNumber, offset, length);
+        }
+
         // Encrypt the message
         final ByteBuffer encrypedMsg;
         try
@@ -77,8 +82,59 @@ class SecureTopicPublisherIpcMcast extends TopicPublisherIpcMcast
         // Wrap the encoded message prior to send
         this.encryptedUnsafeBuffer.wrap(encrypedMsg);
 
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        // It can only be null if closed concurrently in single writer mode
+        if (publisher == null)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
         // Send the message
-        return this.aeronPublisher.sendMessage(MsgType.ENCRYPTED_DATA, this.getUniqueId(), this.encryptedUnsafeBuffer, sequenceNumber, 0, encrypedMsg.limit());
+        PublishResult result;
+        do
+        {
+            result = publisher.sendMessage(MsgType.ENCRYPTED_DATA, this.getUniqueId(), this.encryptedUnsafeBuffer, sequenceNumber, 0, encrypedMsg.limit());
+        }
+        while (result == PublishResult.BACK_PRESSURED && this.retryBackPressured());
+
+        return result;
+    }
+
+    /**
+     * Send a message encrypted with AES-GCM, it is encrypted directly into the Aeron claim. Each retry encrypts it again.
+     *
+     * @param message the message to send
+     * @param sequenceNumber the sequence number of the message
+     * @param offset message offset in the byte buffer
+     * @param length message length starting from the offset
+     * @return the result of the send process
+     */
+    private PublishResult sendGcmToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    {
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        // It can only be null if closed concurrently in single writer mode
+        if (publisher == null)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        PublishResult result;
+        do
+        {
+            result = publisher.sendGcmEncryptedMessage(this.getUniqueId(), this.topicMsgEncoder, message, sequenceNumber, offset, length);
+        }
+        while (result == PublishResult.BACK_PRESSURED && this.retryBackPressured());
+
+        return result;
+    }
+
+    @Override
+    PublishResult sendBatchToAeron(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        // Each message is encrypted and sent separately
+        return this.sendBatchMessagesToAeron(batch, firstSequenceNumber);
     }
 
     @Override
@@ -86,4 +142,11 @@ class SecureTopicPublisherIpcMcast extends TopicPublisherIpcMcast
     {
         return true;
     }
+
+    @Override
+    boolean canClaimInAeron(final int length)
+    {
+        // The message has to be encrypted before sending, it cannot be written directly
+        return false;
+    }
 }
@@ -48,7 +48,7 @@ class SecureTopicPublisherUnicast extends TopicPublisherUnicast
     {
         super(topicName, topicConfig, vegaContext);
         this.topicSecurityConfig = topicSecurityConfig;
-        this.topicMsgEncoder = new AesTopicMsgEncoder();
+        this.topicMsgEncoder = new AesTopicMsgEncoder(topicSecurityConfig.getCipherType());
     }
 
     /**
@@ -62,6 +62,23 @@ class SecureTopicPublisherUnicast extends TopicPublisherUnicast
     @Override
     protected PublishResult sendToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
+        // With AES-GCM the message is encrypted once into the off-heap staging buffer and sent to all the subscribers
+        if (this.topicMsgEncoder.isGcm())
+        {
+            final DirectBuffer encryptedMsg;
+            try
+            {
+                encryptedMsg = this.topicMsgEncoder.encryptMessageGcm(sequenceNumber, message, offset, length);
+            }
+            catch (VegaException e)
+            {
+                log.error("Unexpected error trying to encrypt a message before sending it in a secure topic publisher", e);
+                return PublishResult.UNEXPECTED_ERROR;
+            }
+
+            return super.sendToAeron(MsgType.ENCRYPTED_DATA_GCM, encryptedMsg, sequenceNumber, 0, encryptedMsg.capacity());
+        }
+
         // Encrypt the message
         final ByteBuffer encrypedMsg;
         try
@@ -81,6 +98,13 @@ class SecureTopicPublisherUnicast extends TopicPublisherUnicast
         return super.sendToAeron(MsgType.ENCRYPTED_DATA, this.encryptedUnsafeBuffer, sequenceNumber, 0, encrypedMsg.limit());
     }
 
+    @Override
+    PublishResult sendBatchToAeron(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        // Each message is encrypted and sent separately
+        return this.sendBatchMessagesToAeron(batch, firstSequenceNumber);
+    }
+
     @Override
     boolean hasSecurity()
     {
@@ -0,0 +1,100 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.Version;
+import com.bbva.kyof.vega.msg.BaseHeader;
+import com.bbva.kyof.vega.msg.MsgCompactDataHeader;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
+import com.bbva.kyof.vega.msg.MsgReqHeader;
+import com.bbva.kyof.vega.msg.MsgRespHeader;
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import io.aeron.DirectBufferVector;
+import io.aeron.logbuffer.BufferClaim;
+import lombok.Getter;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable headers, buffer claim and serializers required to write a message into an Aeron publication. <p>
+ *
+ * The {@link AeronPublisher} keeps a template per thread, this way several threads can send at the same time on the same
+ * publication without sharing any state, the Aeron publication itself is thread safe.
+ *
+ * This class is not thread safe!
+ */
+final class SendHeadersTemplate
+{
+    /** Size of the buffer for the headers of the messages sent using offer, it fits the biggest header */
+    private static final int OFFER_HEADERS_BUFFER_SIZE = 128;
+
+    /** Reusable base header */
+    @Getter private final BaseHeader baseHeader = new BaseHeader(MsgType.DATA, Version.LOCAL_VERSION);
+
+    /** Reusable data msg header */
+    @Getter private final MsgDataHeader msgHeader = new MsgDataHeader();
+
+    /** Reusable compact data msg header */
+    @Getter private final MsgCompactDataHeader msgCompactHeader = new MsgCompactDataHeader();
+
+    /** Reusable data request header */
+    @Getter private final MsgReqHeader msgReqHeader = new MsgReqHeader();
+
+    /** Reusable data response header */
+    @Getter private final MsgRespHeader msgRespHeader = new MsgRespHeader();
+
+    /** Reusable buffer claim to serialize messages, allowing adding header and user message contents without extra copies */
+    @Getter private final BufferClaim bufferClaim = new BufferClaim();
+
+    /** Reusable serializer for claim send type */
+    @Getter private final UnsafeBufferSerializer claimSerializer = new UnsafeBufferSerializer();
+
+    /** Reusable off-heap buffer for the headers of the messages sent using offer */
+    private final UnsafeBuffer offerHeadersBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(OFFER_HEADERS_BUFFER_SIZE));
+
+    /** Reusable serializer for the headers of the offer send type */
+    private final UnsafeBufferSerializer offerHeadersSerializer = new UnsafeBufferSerializer();
+
+    /** Vector with the headers of the message sent using offer */
+    private final DirectBufferVector offerHeadersVector = new DirectBufferVector();
+
+    /** Vector with the user message sent using offer */
+    private final DirectBufferVector offerMessageVector = new DirectBufferVector();
+
+    /** Vectors gathered by Aeron on the offer send type, the headers and the user message are never copied into an intermediate buffer */
+    private final DirectBufferVector[] offerVectors = new DirectBufferVector[]{this.offerHeadersVector, this.offerMessageVector};
+
+    /** Create a new template */
+    SendHeadersTemplate()
+    {
+        this.offerHeadersSerializer.wrap(this.offerHeadersBuffer);
+    }
+
+    /**
+     * Return the serializer for the headers of the offer send type. The serializer offset is reset to the start of the buffer.
+     *
+     * @return the serializer ready to write the headers
+     */
+    UnsafeBufferSerializer getOfferHeadersSerializer()
+    {
+        this.offerHeadersSerializer.setOffset(0);
+        return this.offerHeadersSerializer;
+    }
+
+    /**
+     * Return the vectors to send using offer the headers written with the offer headers serializer and the given user message
+     *
+     * @param headersLength length of the headers written in the offer headers serializer
+     * @param message the buffer with the user message
+     * @param offset the offset of the user message in the buffer
+     * @param length the length of the user message
+     * @return the vectors to gather
+     */
+    DirectBufferVector[] getOfferVectors(final int headersLength, final DirectBuffer message, final int offset, final int length)
+    {
+        this.offerHeadersVector.reset(this.offerHeadersBuffer, 0, headersLength);
+        this.offerMessageVector.reset(message, offset, length);
+        return this.offerVectors;
+    }
+}
@@ -3,11 +3,18 @@ package com.bbva.kyof.vega.protocol.publisher;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.IOwnSecPubTopicsChangesListener;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Main class to handle the sending functionality on the framework. It contains separate managers for unicast messaging and multicast/ipc messaging.
@@ -16,7 +23,7 @@ import java.io.Closeable;
  *
  * It also keep track of the created publishers and configurations.<p>
  *
- * This class is not thread safe!!
+ * This class is not thread safe!! The retransmission requests can be processed concurrently with the rest of methods.
  */
 @Slf4j
 public class SendManager implements Closeable
@@ -30,6 +37,24 @@ public class SendManager implements Closeable
     /** Context of the instance */
     private final VegaContext vegaContext;
 
+    /** Sender thread for the topic publishers with async send, it is created with the first one */
+    private AsyncPublishersSender asyncPublishersSender = null;
+
+    /** Replayer thread for the journals of the durable topic publishers, it is created with the first one */
+    private volatile JournalReplayer journalReplayer = null;
+
+    /** Sender thread for the snapshots of the topic publishers with last value cache, it is created with the first one */
+    private volatile LastValueSnapshotSender snapshotSender = null;
+
+    /** Sender thread for the retransmissions of the topic publishers with retransmission cache, it is created with the first one */
+    private volatile RetransmitSender retransmitSender = null;
+
+    /** Directories of the journals already checked for stale journals of previous executions */
+    private final Set<String> checkedJournalDirs = new HashSet<>();
+
+    /** Topic publishers with retransmission cache, journal or last value cache by topic publisher id, the requests are processed from the control thread */
+    private final Map<UUID, AbstractTopicPublisher> retransmitPublishersById = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance
      * @param vegaContext the context of the library instance
@@ -63,17 +88,67 @@ public class SendManager implements Closeable
         // Verify the topic subscriber security
         this.verifyTopicPublisherSecurityOrFail(securityTemplateConfig);
 
+        // The journals not closed cleanly by previous executions are deleted before creating the first one in the directory
+        if (Boolean.TRUE.equals(templateCfg.getDurable()) && this.checkedJournalDirs.add(templateCfg.getJournalDir()))
+        {
+            TopicJournal.deleteStaleJournals(new File(templateCfg.getJournalDir()));
+        }
+
         // Call the right manager to do the rest of the job depending on the transport type
+        final AbstractTopicPublisher topicPublisher;
         switch (templateCfg.getTransportType())
         {
             case UNICAST:
-                return this.unicastPublishersManager.createTopicPublisher(topicName, templateCfg, securityTemplateConfig);
+                topicPublisher = this.unicastPublishersManager.createTopicPublisher(topicName, templateCfg, securityTemplateConfig);
+                break;
             case MULTICAST:
             case IPC:
-                return this.ipcMulticastPublishersManager.createTopicPublisher(topicName, templateCfg, securityTemplateConfig);
+                topicPublisher = this.ipcMulticastPublishersManager.createTopicPublisher(topicName, templateCfg, securityTemplateConfig);
+                break;
             default:
                 return null;
         }
+
+        // The messages of async topic publishers and the conflated ones are sent by the async sender thread
+        if (topicPublisher.isAsyncSend() || topicPublisher.isConflated())
+        {
+            if (this.asyncPublishersSender == null)
+            {
+                this.asyncPublishersSender = new AsyncPublishersSender(this.vegaContext.getInstanceUniqueId(), this.vegaContext.getTasksRunner());
+            }
+
+            this.asyncPublishersSender.addTopicPublisher(topicPublisher);
+        }
+
+        // The journals of durable topic publishers are replayed and their segments prepared by the replayer thread
+        if (topicPublisher.getJournal() != null)
+        {
+            if (this.journalReplayer == null)
+            {
+                this.journalReplayer = new JournalReplayer(this.vegaContext.getInstanceUniqueId(), this.vegaContext.getTasksRunner());
+            }
+
+            this.journalReplayer.addJournal(topicPublisher.getJournal());
+        }
+
+        // The snapshots requested by the subscriber instances are sent by the snapshot sender thread
+        if (topicPublisher.hasLastValueCache() && this.snapshotSender == null)
+        {
+            this.snapshotSender = new LastValueSnapshotSender(this.vegaContext.getInstanceUniqueId(), this.vegaContext.getTasksRunner());
+        }
+
+        // The retransmissions requested by the subscriber instances are sent by the retransmission sender thread
+        if (topicPublisher.hasRetransmitCache() && this.retransmitSender == null)
+        {
+            this.retransmitSender = new RetransmitSender(this.vegaContext.getInstanceUniqueId(), this.vegaContext.getTasksRunner());
+        }
+
+        if (topicPublisher.hasRetransmitCache() || topicPublisher.getJournal() != null || topicPublisher.hasLastValueCache())
+        {
+            this.retransmitPublishersById.put(topicPublisher.getUniqueId(), topicPublisher);
+        }
+
+        return topicPublisher;
     }
 
     /**
@@ -88,6 +163,19 @@ public class SendManager implements Closeable
 
         final TopicTemplateConfig templateCfg = this.findTopicConfig(topicName);
 
+        final AbstractTopicPublisher topicPublisher = this.findTopicPublisher(topicName, templateCfg);
+        if (topicPublisher != null)
+        {
+            // Stop sending the async messages of the topic publisher
+            if (this.asyncPublishersSender != null)
+            {
+                this.asyncPublishersSender.removeTopicPublisher(topicPublisher);
+            }
+
+            // Stop processing retransmission requests for the topic publisher
+            this.retransmitPublishersById.remove(topicPublisher.getUniqueId());
+        }
+
         // Call the right manager to do the rest of the job depending on the transport type
         switch (templateCfg.getTransportType())
         {
@@ -103,6 +191,99 @@ public class SendManager implements Closeable
         }
     }
 
+    /**
+     * Process a retransmission, replay or snapshot request received from a subscriber instance. The messages are sent through the response
+     * publisher of the requester instance. The retransmissions are sent by the retransmission sender thread, the replays are read from the
+     * journal by the replayer thread and the snapshots of the last value cache are sent by the snapshot sender thread.
+     *
+     * @param retransmitReq the retransmission request
+     * @param responsePublisher the response publisher of the requester instance, null if it has not been discovered yet
+     */
+    public void onRetransmitRequestReceived(final MsgRetransmitReq retransmitReq, final AeronPublisher responsePublisher)
+    {
+        final AbstractTopicPublisher topicPublisher = this.retransmitPublishersById.get(retransmitReq.getTopicPublisherId());
+
+        if (topicPublisher == null)
+        {
+            log.debug("Retransmission request received for a topic publisher without retransmission cache, journal or last value cache {}", retransmitReq);
+            return;
+        }
+
+        if (responsePublisher == null)
+        {
+            log.info("Retransmission request received but no responder instance id found for it in auto-discovery. Requester id [{}]", retransmitReq.getInstanceId());
+            return;
+        }
+
+        if (retransmitReq.isSnapshot())
+        {
+            final LastValueSnapshotSender sender = this.snapshotSender;
+
+            if (!topicPublisher.hasLastValueCache() || sender == null)
+            {
+                log.debug("Snapshot request received for a topic publisher without last value cache {}", retransmitReq);
+                return;
+            }
+
+            sender.addSnapshot(topicPublisher, responsePublisher);
+            return;
+        }
+
+        if (!retransmitReq.isReplay())
+        {
+            final RetransmitSender sender = this.retransmitSender;
+
+            if (!topicPublisher.hasRetransmitCache() || sender == null)
+            {
+                log.debug("Retransmission request received for a topic publisher without retransmission cache {}", retransmitReq);
+                return;
+            }
+
+            sender.addRetransmit(topicPublisher, retransmitReq.getFirstSequenceNumber(), retransmitReq.getLastSequenceNumber(), responsePublisher);
+            return;
+        }
+
+        final TopicJournal journal = topicPublisher.getJournal();
+        final JournalReplayer replayer = this.journalReplayer;
+
+        if (journal == null || replayer == null)
+        {
+            log.debug("Replay request received for a topic publisher without journal {}", retransmitReq);
+            return;
+        }
+
+        // The open ended replays go up to the last message journaled when the request is received
+        if (retransmitReq.getLastSequenceNumber() == MsgRetransmitReq.OPEN_END)
+        {
+            replayer.addReplay(journal, topicPublisher.getUniqueId(), retransmitReq.getFirstSequenceNumber(), journal.getLastSequenceNumber(), true, responsePublisher);
+        }
+        else
+        {
+            replayer.addReplay(journal, topicPublisher.getUniqueId(), retransmitReq.getFirstSequenceNumber(), retransmitReq.getLastSequenceNumber(), false, responsePublisher);
+        }
+    }
+
+    /**
+     * Find the created topic publisher for the given topic name
+     *
+     * @param topicName the name of the topic
+     * @param templateCfg the template configuration of the topic
+     * @return the topic publisher, null if not found
+     */
+    private AbstractTopicPublisher findTopicPublisher(final String topicName, final TopicTemplateConfig templateCfg)
+    {
+        switch (templateCfg.getTransportType())
+        {
+            case UNICAST:
+                return this.unicastPublishersManager.getTopicPublisherForTopicName(topicName);
+            case MULTICAST:
+            case IPC:
+                return this.ipcMulticastPublishersManager.getTopicPublisherForTopicName(topicName);
+            default:
+                return null;
+        }
+    }
+
     /**
      * Find the template configuration for the given topic name
      *
@@ -154,6 +335,30 @@ public class SendManager implements Closeable
     {
         log.info("Closing send manager for instance ID [{}]", this.vegaContext.getInstanceUniqueId());
 
+        // Stop the async sender, it will try to send the pending async messages before the topic publishers are closed
+        if (this.asyncPublishersSender != null)
+        {
+            this.asyncPublishersSender.close();
+        }
+
+        // Stop processing retransmission requests and replays
+        this.retransmitPublishersById.clear();
+
+        if (this.journalReplayer != null)
+        {
+            this.journalReplayer.close();
+        }
+
+        if (this.snapshotSender != null)
+        {
+            this.snapshotSender.close();
+        }
+
+        if (this.retransmitSender != null)
+        {
+            this.retransmitSender.close();
+        }
+
         // Close the internal managers
         this.ipcMulticastPublishersManager.close();
         this.unicastPublishersManager.close();
@@ -0,0 +1,600 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Journal with the messages sent by a durable topic publisher, stored in rolling memory-mapped segment files. It is used to
+ * replay the messages from a sequence number on request of the subscribers. <p>
+ *
+ * Each record contains the length, the sequence number and the contents of the message, the records are appended in order of
+ * sequence number. The sequence numbers used by requests and heartbeats are stored as records without contents to tell them
+ * apart from the lost ones. <p>
+ *
+ * When a segment is full the next one is used, if there are more segments than the configured max the oldest one is deleted. The
+ * next segment file is mapped in advance by {@link #prepareNextSegment()} from a background thread, the send path only maps a new
+ * file if it is not ready yet. <p>
+ *
+ * The directory of the journal holds a lock file while it is open. The directories of the journals not closed cleanly, for
+ * example after a crash, are not locked and are removed by {@link #deleteStaleJournals(File)}. <p>
+ *
+ * The journal has a single writer, the topic publisher. It can be read concurrently by any number of {@link Cursor}, the records
+ * are visible to the readers once they have been completely written.
+ */
+@Slf4j
+class TopicJournal implements Closeable
+{
+    /** Size of the header of each record: length, reserved and sequence number */
+    static final int RECORD_HEADER_SIZE = 16;
+
+    /** Alignment of the records in the segment */
+    private static final int RECORD_ALIGNMENT = 8;
+
+    /** Offset of the sequence number in the record header */
+    private static final int SEQUENCE_NUMBER_OFFSET = 8;
+
+    /** Length stored for the sequence numbers whose contents are not journaled */
+    private static final int SKIP_LENGTH = -1;
+
+    /** Name format of the segment files */
+    private static final String SEGMENT_FILE_FORMAT = "%010d.journal";
+
+    /** Name of the lock file held while the journal is open */
+    private static final String LOCK_FILE_NAME = "journal.lock";
+
+    /** Min age of the lock file of a stale journal, the newer ones may belong to a journal that is being created */
+    private static final long STALE_JOURNAL_MIN_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /** Directory with the segment files */
+    @Getter private final File directory;
+
+    /** Size in bytes of each segment */
+    private final int segmentSize;
+
+    /** Max number of segments to keep */
+    private final int maxSegments;
+
+    /** Current segments from the oldest to the newest, the array is replaced on every change */
+    private volatile Segment[] segments = new Segment[0];
+
+    /** Segment the records are appended to */
+    private Segment currentSegment = null;
+
+    /** Next segment mapped in advance, null if not prepared yet */
+    private final AtomicReference<Segment> preparedSegment = new AtomicReference<>();
+
+    /** Id of the next segment file to create */
+    private final AtomicInteger nextSegmentId = new AtomicInteger();
+
+    /** Channel of the lock file, null if the lock could not be taken */
+    private final FileChannel lockChannel;
+
+    /** Sequence number of the last message or skip appended, journaled or not */
+    @Getter private volatile long lastSequenceNumber = 0;
+
+    /** True if the journal has been closed */
+    @Getter private volatile boolean closed = false;
+
+    /**
+     * Create a new empty journal, the directory is created if it does not exist
+     *
+     * @param directory directory for the segment files
+     * @param segmentSize size in bytes of each segment
+     * @param maxSegments max number of segments to keep
+     */
+    TopicJournal(final File directory, final int segmentSize, final int maxSegments)
+    {
+        IoUtil.ensureDirectoryExists(directory, "journal");
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.lockChannel = lockDirectory(directory);
+
+        // Map the first segment now, not with the first message
+        this.prepareNextSegment();
+    }
+
+    /**
+     * Delete the journal directories of the topic publishers that have not been closed cleanly. Only the sub-directories named
+     * with a unique id whose lock file is not held by any process are deleted.
+     *
+     * @param journalsDirectory the directory with the journals of the topic publishers
+     */
+    static void deleteStaleJournals(final File journalsDirectory)
+    {
+        final File[] journalDirectories = journalsDirectory.listFiles(File::isDirectory);
+
+        if (journalDirectories == null)
+        {
+            return;
+        }
+
+        for (final File journalDirectory : journalDirectories)
+        {
+            if (isUniqueId(journalDirectory.getName()) && isStale(journalDirectory))
+            {
+                log.info("Deleting stale journal directory [{}]", journalDirectory);
+                IoUtil.delete(journalDirectory, true);
+            }
+        }
+    }
+
+    /**
+     * Append a sent message, if the message does not fit in a segment it is not journaled and it will be replayed as lost
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @param message buffer with the message
+     * @param offset message offset in the buffer
+     * @param length message length starting from the offset
+     */
+    void append(final long sequenceNumber, final DirectBuffer message, final int offset, final int length)
+    {
+        this.lastSequenceNumber = sequenceNumber;
+
+        final int recordLength = BitUtil.align(RECORD_HEADER_SIZE + length, RECORD_ALIGNMENT);
+
+        if (recordLength > this.segmentSize)
+        {
+            log.warn("Message with sequence number [{}] of size [{}] is bigger than the journal segment, it won't be journaled", sequenceNumber, length);
+            return;
+        }
+
+        final Segment segment = this.segmentFor(sequenceNumber, recordLength);
+        if (segment == null)
+        {
+            return;
+        }
+
+        final int position = segment.limit;
+        segment.buffer.putInt(position, length);
+        segment.buffer.putLong(position + SEQUENCE_NUMBER_OFFSET, sequenceNumber);
+        segment.buffer.putBytes(position + RECORD_HEADER_SIZE, message, offset, length);
+
+        // Publish the record to the readers
+        segment.limit = position + recordLength;
+    }
+
+    /**
+     * Append a sequence number whose contents are not journaled, for example a request or a heartbeat
+     *
+     * @param sequenceNumber the sequence number
+     */
+    void appendSkip(final long sequenceNumber)
+    {
+        this.lastSequenceNumber = sequenceNumber;
+
+        final Segment segment = this.segmentFor(sequenceNumber, RECORD_HEADER_SIZE);
+        if (segment == null)
+        {
+            return;
+        }
+
+        final int position = segment.limit;
+        segment.buffer.putInt(position, SKIP_LENGTH);
+        segment.buffer.putLong(position + SEQUENCE_NUMBER_OFFSET, sequenceNumber);
+
+        // Publish the record to the readers
+        segment.limit = position + RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Create a cursor to read the journal from the given sequence number
+     *
+     * @param fromSequenceNumber sequence number of the first record to read
+     * @return the created cursor
+     */
+    Cursor cursor(final long fromSequenceNumber)
+    {
+        return new Cursor(fromSequenceNumber);
+    }
+
+    /** @return the number of segments currently kept by the journal */
+    int getNumSegments()
+    {
+        return this.segments.length;
+    }
+
+    /**
+     * Map the next segment file in advance if it is not prepared yet. It is called periodically from a background thread to
+     * keep the file creation out of the send path.
+     *
+     * @return true if a new segment has been prepared
+     */
+    boolean prepareNextSegment()
+    {
+        if (this.closed || this.preparedSegment.get() != null)
+        {
+            return false;
+        }
+
+        synchronized (this)
+        {
+            if (this.closed || this.preparedSegment.get() != null)
+            {
+                return false;
+            }
+
+            try
+            {
+                this.preparedSegment.set(this.mapSegment());
+                return true;
+            }
+            catch (final RuntimeException e)
+            {
+                log.error("Error preparing journal segment in directory [{}]", this.directory, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Close the journal and delete the segment files. The segments are not unmapped since they may still be read by a cursor,
+     * the mappings are released by the garbage collector.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+
+        this.closed = true;
+        this.segments = new Segment[0];
+        this.currentSegment = null;
+        this.preparedSegment.set(null);
+
+        // Release the lock before deleting the lock file
+        if (this.lockChannel != null)
+        {
+            CloseHelper.quietClose(this.lockChannel);
+        }
+
+        IoUtil.delete(this.directory, true);
+    }
+
+    /**
+     * Return the segment to append a record to, a new one is created if the record does not fit in the current one
+     *
+     * @param sequenceNumber sequence number of the record
+     * @param recordLength length of the record
+     * @return the segment, null if the journal is closed or the segment cannot be created
+     */
+    private Segment segmentFor(final long sequenceNumber, final int recordLength)
+    {
+        if (this.closed)
+        {
+            return null;
+        }
+
+        if (this.currentSegment != null && this.currentSegment.limit + recordLength <= this.segmentSize)
+        {
+            return this.currentSegment;
+        }
+
+        try
+        {
+            this.currentSegment = this.createSegment(sequenceNumber);
+        }
+        catch (final RuntimeException e)
+        {
+            log.error("Error creating journal segment in directory [{}], the message with sequence number [{}] won't be journaled", this.directory, sequenceNumber, e);
+            this.currentSegment = null;
+        }
+
+        return this.currentSegment;
+    }
+
+    /**
+     * Start a new segment by the given sequence number and delete the oldest one if there are too many. The prepared segment is
+     * used if there is one, otherwise the file is mapped now.
+     *
+     * @param firstSequenceNumber sequence number of the first record of the segment
+     * @return the new segment
+     */
+    private Segment createSegment(final long firstSequenceNumber)
+    {
+        Segment segment = this.preparedSegment.getAndSet(null);
+
+        if (segment == null)
+        {
+            log.debug("Journal segment not prepared in directory [{}], mapping it on the send path", this.directory);
+            segment = this.mapSegment();
+        }
+
+        // Published to the readers with the segments array
+        segment.firstSequenceNumber = firstSequenceNumber;
+
+        final Segment[] currentSegments = this.segments;
+        final int numRemoved = currentSegments.length >= this.maxSegments ? currentSegments.length - this.maxSegments + 1 : 0;
+
+        final Segment[] newSegments = Arrays.copyOfRange(currentSegments, numRemoved, currentSegments.length + 1);
+        newSegments[newSegments.length - 1] = segment;
+        this.segments = newSegments;
+
+        // Delete the oldest segments, the cursors still reading them keep the mapping
+        for (int i = 0; i < numRemoved; i++)
+        {
+            IoUtil.delete(currentSegments[i].file, true);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Create and map a new segment file
+     *
+     * @return the new segment, the first sequence number is set when it is used
+     */
+    private Segment mapSegment()
+    {
+        final File file = new File(this.directory, String.format(SEGMENT_FILE_FORMAT, this.nextSegmentId.getAndIncrement()));
+        return new Segment(file, new UnsafeBuffer(IoUtil.mapNewFile(file, this.segmentSize)));
+    }
+
+    /**
+     * Find the segment that may contain the given sequence number
+     *
+     * @param sequenceNumber the sequence number
+     * @return the newest segment starting before the sequence number, the oldest one if all start after it, null if empty
+     */
+    private Segment findSegment(final long sequenceNumber)
+    {
+        final Segment[] currentSegments = this.segments;
+
+        for (int i = currentSegments.length - 1; i >= 0; i--)
+        {
+            if (currentSegments[i].firstSequenceNumber <= sequenceNumber)
+            {
+                return currentSegments[i];
+            }
+        }
+
+        return currentSegments.length == 0 ? null : currentSegments[0];
+    }
+
+    /**
+     * Find the segment created after the given one
+     *
+     * @param segment the segment
+     * @return the next segment, null if there is none
+     */
+    private Segment nextSegment(final Segment segment)
+    {
+        final Segment[] currentSegments = this.segments;
+
+        // The segments are kept in order of creation, if it has been deleted the next one is the oldest
+        for (int i = 0; i < currentSegments.length; i++)
+        {
+            if (currentSegments[i] == segment)
+            {
+                return i + 1 < currentSegments.length ? currentSegments[i + 1] : null;
+            }
+        }
+
+        return currentSegments.length == 0 ? null : currentSegments[0];
+    }
+
+    /**
+     * Create the lock file of the journal directory and lock it while the journal is open
+     *
+     * @param directory the journal directory
+     * @return the channel of the lock file, null if it could not be locked
+     */
+    private static FileChannel lockDirectory(final File directory)
+    {
+        FileChannel channel = null;
+
+        try
+        {
+            channel = new RandomAccessFile(new File(directory, LOCK_FILE_NAME), "rw").getChannel();
+
+            if (channel.tryLock() != null)
+            {
+                return channel;
+            }
+        }
+        catch (final IOException | OverlappingFileLockException e)
+        {
+            log.warn("Error locking the journal directory [{}]", directory, e);
+        }
+
+        log.warn("The journal directory [{}] could not be locked, it may be deleted as stale", directory);
+        CloseHelper.quietClose(channel);
+        return null;
+    }
+
+    /**
+     * Check if a journal directory has not been closed cleanly. It is stale if the lock file is old enough and it can be locked.
+     *
+     * @param journalDirectory the journal directory
+     * @return true if the journal is stale
+     */
+    private static boolean isStale(final File journalDirectory)
+    {
+        final File lockFile = new File(journalDirectory, LOCK_FILE_NAME);
+
+        if (!lockFile.exists() || System.currentTimeMillis() - lockFile.lastModified() < STALE_JOURNAL_MIN_AGE_MILLIS)
+        {
+            return false;
+        }
+
+        try (final FileChannel channel = new RandomAccessFile(lockFile, "rw").getChannel())
+        {
+            final FileLock lock = channel.tryLock();
+            return lock != null;
+        }
+        catch (final IOException | OverlappingFileLockException e)
+        {
+            // Locked by a journal of this process
+            return false;
+        }
+    }
+
+    /**
+     * @param name the name of a directory
+     * @return true if the name is a unique id
+     */
+    private static boolean isUniqueId(final String name)
+    {
+        try
+        {
+            return UUID.fromString(name).toString().equals(name);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Segment of the journal backed by a memory-mapped file
+     */
+    private static final class Segment
+    {
+        /** Sequence number of the first record, set before publishing the segment to the readers */
+        private long firstSequenceNumber;
+
+        /** File of the segment */
+        private final File file;
+
+        /** Buffer that wraps the mapped file */
+        private final UnsafeBuffer buffer;
+
+        /** Position after the last complete record */
+        private volatile int limit = 0;
+
+        /**
+         * Create a new segment
+         *
+         * @param file file of the segment
+         * @param buffer buffer that wraps the mapped file
+         */
+        private Segment(final File file, final UnsafeBuffer buffer)
+        {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Sequential reader of the journal records starting from a sequence number. The records are read in order moving
+     * to the next segment when the current one is exhausted.
+     *
+     * This class is not thread safe!
+     */
+    final class Cursor
+    {
+        /** Sequence number of the first record to read */
+        private final long fromSequenceNumber;
+
+        /** Segment being read, null until the first read */
+        private Segment segment = null;
+
+        /** Position of the next record in the segment */
+        private int position = 0;
+
+        /** Sequence number of the current record */
+        @Getter private long sequenceNumber;
+
+        /** Offset of the contents of the current record in the buffer */
+        @Getter private int offset;
+
+        /** Length of the contents of the current record */
+        @Getter private int length;
+
+        /**
+         * Create a new cursor
+         *
+         * @param fromSequenceNumber sequence number of the first record to read
+         */
+        private Cursor(final long fromSequenceNumber)
+        {
+            this.fromSequenceNumber = fromSequenceNumber;
+        }
+
+        /**
+         * Move to the next record
+         *
+         * @return true if there is a new current record, false if there are no more records written
+         */
+        boolean next()
+        {
+            if (this.segment == null)
+            {
+                this.segment = findSegment(this.fromSequenceNumber);
+
+                if (this.segment == null)
+                {
+                    return false;
+                }
+            }
+
+            while (true)
+            {
+                if (this.position < this.segment.limit)
+                {
+                    final int recordLength = this.segment.buffer.getInt(this.position);
+
+                    this.sequenceNumber = this.segment.buffer.getLong(this.position + SEQUENCE_NUMBER_OFFSET);
+                    this.offset = this.position + RECORD_HEADER_SIZE;
+                    this.length = recordLength;
+                    this.position += recordLength == SKIP_LENGTH ? RECORD_HEADER_SIZE : BitUtil.align(RECORD_HEADER_SIZE + recordLength, RECORD_ALIGNMENT);
+
+                    if (this.sequenceNumber >= this.fromSequenceNumber)
+                    {
+                        return true;
+                    }
+
+                    continue;
+                }
+
+                final Segment next = nextSegment(this.segment);
+                if (next == null)
+                {
+                    return false;
+                }
+
+                // The segment may have been completed after checking the limit, before the next one was created
+                if (this.position < this.segment.limit)
+                {
+                    continue;
+                }
+
+                this.segment = next;
+                this.position = 0;
+            }
+        }
+
+        /** @return true if the contents of the current record are not journaled */
+        boolean isSkip()
+        {
+            return this.length == SKIP_LENGTH;
+        }
+
+        /** @return the buffer with the contents of the current record */
+        DirectBuffer getBuffer()
+        {
+            return this.segment.buffer;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
 import org.agrona.DirectBuffer;
 
-import java.util.UUID;
 import java.util.function.Consumer;
 
 /**
@@ -15,12 +17,18 @@ import java.util.function.Consumer;
  *
  * In this case there is a single related aeron publisher because the sender is the end-point.
  *
- * The class is thread-safe
+ * The class is thread-safe unless configured as single writer
  */
 class TopicPublisherIpcMcast extends AbstractTopicPublisher
 {
-    /** Publisher that can sendMsg the messages into real transport */
-    AeronPublisher aeronPublisher;
+    /** Publisher that can sendMsg the messages into real transport. Volatile since in single writer mode it is not protected by the lock */
+    volatile AeronPublisher aeronPublisher;
+
+    /** Alias assigned by the aeron publisher to send compact headers, -1 if the topic is not configured to use them */
+    private volatile int assignedHeaderAlias = AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
+
+    /** Alias used to send compact headers, -1 if the normal headers are used because there are subscribers that don't support them */
+    private volatile int headerAlias = AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
 
     /**
      * Constructor of the class
@@ -50,20 +58,110 @@ class TopicPublisherIpcMcast extends AbstractTopicPublisher
     @Override
     protected PublishResult sendToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
-        return this.aeronPublisher.sendMessage(MsgType.DATA, this.getUniqueId(), message, sequenceNumber, offset, length);
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        // It can only be null if closed concurrently in single writer mode
+        if (publisher == null)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        final int alias = this.headerAlias;
+
+        PublishResult result;
+        do
+        {
+            if (alias != AutoDiscTopicSocketInfo.NO_HEADER_ALIAS)
+            {
+                result = publisher.sendCompactMessage(alias, message, sequenceNumber, offset, length);
+            }
+            else
+            {
+                result = publisher.sendMessage(MsgType.DATA, this.getUniqueId(), message, sequenceNumber, offset, length);
+            }
+        }
+        while (result == PublishResult.BACK_PRESSURED && this.retryBackPressured());
+
+        return result;
     }
 
     @Override
-    protected PublishResult sendRequestToAeron(final byte msgType, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    PublishResult sendBatchToAeron(final BatchBuilder batch, final long firstSequenceNumber)
     {
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        // It can only be null if closed concurrently in single writer mode
+        if (publisher == null)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // Send all the messages in a single one
+        PublishResult result;
+        do
+        {
+            result = publisher.sendMessage(MsgType.DATA_BATCH, this.getUniqueId(), batch.getBuffer(), firstSequenceNumber, 0, batch.getLength());
+        }
+        while (result == PublishResult.BACK_PRESSURED && this.retryBackPressured());
+
+        return result;
+    }
+
+    @Override
+    protected PublishResult sendRequestToAeron(final byte msgType, final long requestIdMsb, final long requestIdLsb, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    {
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        // It can only be null if closed concurrently in single writer mode
+        if (publisher == null)
+        {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
         // Send the request to all the internal Aeron publishers
-        return this.aeronPublisher.sendRequest(msgType, this.getUniqueId(), requestId, message, sequenceNumber, offset, length);
+        PublishResult result;
+        do
+        {
+            result = publisher.sendRequest(msgType, this.getUniqueId(), requestIdMsb, requestIdLsb, message, sequenceNumber, offset, length);
+        }
+        while (result == PublishResult.BACK_PRESSURED && this.retryBackPressured());
+
+        return result;
+    }
+
+    @Override
+    boolean canClaimInAeron(final int length)
+    {
+        final AeronPublisher publisher = this.aeronPublisher;
+        return publisher != null && publisher.canClaimMessage(length);
+    }
+
+    @Override
+    long claimInAeron(final long sequenceNumber, final int length, final BufferClaim bufferClaim)
+    {
+        final AeronPublisher publisher = this.aeronPublisher;
+
+        if (publisher == null)
+        {
+            return Publication.CLOSED;
+        }
+
+        final int alias = this.headerAlias;
+
+        if (alias != AutoDiscTopicSocketInfo.NO_HEADER_ALIAS)
+        {
+            return publisher.claimCompactMessage(alias, sequenceNumber, length, bufferClaim);
+        }
+
+        return publisher.claimMessage(this.getUniqueId(), sequenceNumber, length, bufferClaim);
     }
 
     @Override
     protected void cleanAeronPublishers()
     {
         this.aeronPublisher = null;
+        this.assignedHeaderAlias = AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
+        this.headerAlias = AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
     }
 
     /**
@@ -78,6 +176,47 @@ class TopicPublisherIpcMcast extends AbstractTopicPublisher
         }
     }
 
+    /**
+     * Set the Aeron Publisher related to this topic publisher and the alias it has assigned to send compact headers
+     * @param value the aeron publisher to store
+     * @param alias the header alias assigned by the aeron publisher, -1 to send normal headers
+     */
+    void setAeronPublisher(final AeronPublisher value, final int alias)
+    {
+        synchronized (this.lock)
+        {
+            this.assignedHeaderAlias = alias;
+            this.headerAlias = alias;
+            this.aeronPublisher = value;
+        }
+    }
+
+    /** @return the alias assigned by the aeron publisher to send compact headers, -1 if the topic doesn't use them */
+    int getHeaderAlias()
+    {
+        return this.assignedHeaderAlias;
+    }
+
+    /**
+     * Activate or deactivate the compact headers. They are deactivated while there are subscribers on the socket of a library
+     * version that don't support them, the normal data headers are sent instead.
+     *
+     * @param active true to send compact headers if the topic has an assigned alias
+     */
+    void setCompactHeaderActive(final boolean active)
+    {
+        synchronized (this.lock)
+        {
+            this.headerAlias = active ? this.assignedHeaderAlias : AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
+        }
+    }
+
+    /** @return true if the data messages are currently sent with compact headers */
+    boolean isCompactHeaderActive()
+    {
+        return this.headerAlias != AutoDiscTopicSocketInfo.NO_HEADER_ALIAS;
+    }
+
     /**
      * Run the consumer function for the related Aeron Publisher
      * @param consumer the consumer function to execute
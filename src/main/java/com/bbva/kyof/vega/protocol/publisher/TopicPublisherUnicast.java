@@ -8,12 +8,13 @@ import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.util.collection.NativeArraySet;
 import org.agrona.DirectBuffer;
 
-import java.util.UUID;
 
 /**
  * Topic publisher implementation for unicast.
  *
- * In this case there may be multiple related aeron publishers since the subscriber is the end-point of the communication
+ * In this case there may be multiple related aeron publishers since the subscriber is the end-point of the communication.
+ * When the topic is configured with multi-destination-cast there is a single aeron publisher per subscriber stream and the
+ * media driver sends the message to all the subscribers.
  *
  * The class is thread-safe
  */
@@ -78,7 +79,13 @@ class TopicPublisherUnicast extends AbstractTopicPublisher
 
         for (int i = 0; i < this.aeronPublishers.getNumElements(); i++)
         {
-            final PublishResult sendResult = publishers[i].sendMessage(msgType, this.getUniqueId(), message, sequenceNumber, offset, length);
+            // Only the back pressured publisher is retried, the rest of subscribers already have the message
+            PublishResult sendResult;
+            do
+            {
+                sendResult = publishers[i].sendMessage(msgType, this.getUniqueId(), message, sequenceNumber, offset, length);
+            }
+            while (sendResult == PublishResult.BACK_PRESSURED && this.retryBackPressured());
 
             // If there is an unexpected error, return without trying with any other publisher
             if (sendResult == PublishResult.UNEXPECTED_ERROR)
@@ -102,7 +109,14 @@ class TopicPublisherUnicast extends AbstractTopicPublisher
     }
 
     @Override
-    protected PublishResult sendRequestToAeron(final byte msgType, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
+    PublishResult sendBatchToAeron(final BatchBuilder batch, final long firstSequenceNumber)
+    {
+        // Send all the messages in a single one
+        return this.sendToAeron(MsgType.DATA_BATCH, batch.getBuffer(), firstSequenceNumber, 0, batch.getLength());
+    }
+
+    @Override
+    protected PublishResult sendRequestToAeron(final byte msgType, final long requestIdMsb, final long requestIdLsb, final DirectBuffer message, final long sequenceNumber, final int offset, final int length)
     {
         // Get the publishers internal array
         final IAeronPublisher[] publishers = this.aeronPublishers.getInternalArray();
@@ -116,8 +130,13 @@ class TopicPublisherUnicast extends AbstractTopicPublisher
 
         for (int i = 0; i < this.aeronPublishers.getNumElements(); i++)
         {
-                        
-            final PublishResult sendResult = publishers[i].sendRequest(msgType, this.getUniqueId(), requestId, message, sequenceNumber, offset, length);
+            // Only the back pressured publisher is retried, the rest of subscribers already have the request
+            PublishResult sendResult;
+            do
+            {
+                sendResult = publishers[i].sendRequest(msgType, this.getUniqueId(), requestIdMsb, requestIdLsb, message, sequenceNumber, offset, length);
+            }
+            while (sendResult == PublishResult.BACK_PRESSURED && this.retryBackPressured());
 
             // If there is an unexpected error, return without trying with any other publisher
             if (sendResult == PublishResult.UNEXPECTED_ERROR)
@@ -8,6 +8,7 @@ import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import lombok.AccessLevel;
@@ -57,6 +58,9 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
      */
     private final ISecurityRequesterNotifier subSecurityNotifier;
 
+    /** Requester for the retransmission of lost messages of the topic subscribers */
+    private final IRetransmitRequester retransmitRequester;
+
     /** Lock for instance synchronization */
     protected final Object lock = new Object();
 
@@ -71,16 +75,19 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
      * @param pollersManager manager that handle the pollers
      * @param topicSubAndTopicPubIdRelations relationships between topic subscribers and topic publishers
      * @param subSecurityNotifier notifier for security changes
+     * @param retransmitRequester requester for the retransmission of lost messages of the topic subscribers
      */
     AbstractSubscribersManager(final VegaContext vegaContext,
                                final SubscribersPollersManager pollersManager,
                                final TopicSubAndTopicPubIdRelations topicSubAndTopicPubIdRelations,
-                               final ISecurityRequesterNotifier subSecurityNotifier)
+                               final ISecurityRequesterNotifier subSecurityNotifier,
+                               final IRetransmitRequester retransmitRequester)
     {
         this.vegaContext = vegaContext;
         this.pollersManager = pollersManager;
         this.topicSubAndTopicPubIdRelations = topicSubAndTopicPubIdRelations;
         this.subSecurityNotifier = subSecurityNotifier;
+        this.retransmitRequester = retransmitRequester;
     }
 
     /**
@@ -128,6 +135,40 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
      * @throws VegaException exception thrown if there is a problem or already subscribed
      */
     public void subscribeToTopic(final String topicName, final TopicTemplateConfig templateCfg, final TopicSecurityTemplateConfig securityTemplateConfig, final ITopicSubListener listener) throws VegaException
+    {
+        this.subscribeToTopic(topicName, templateCfg, securityTemplateConfig, listener, TopicSubscriber.NO_REPLAY);
+    }
+
+    /**
+     * Subscribe to the given durable topic replaying the journal of each topic publisher from the given sequence number before
+     * getting the live messages. The replayed messages are only delivered to the given listener.
+     *
+     * @param topicName the name of the topic to subscribe to
+     * @param templateCfg topic template configuration
+     * @param listener listener that will process incoming messages on the topic
+     * @param fromSequenceNumber sequence number of the first message to replay
+     * @throws VegaException exception thrown if there is a problem or already subscribed
+     */
+    public void subscribeToTopicFrom(final String topicName, final TopicTemplateConfig templateCfg, final ITopicSubListener listener, final long fromSequenceNumber) throws VegaException
+    {
+        this.subscribeToTopic(topicName, templateCfg, null, listener, fromSequenceNumber);
+    }
+
+    /**
+     * Subscribe to the given topic in order to get messages and responses for the topic name
+     *
+     * @param topicName the name of the topic to subscribe to
+     * @param templateCfg topic template configuration
+     * @param securityTemplateConfig security template configuration, null if security is not configured for the topic
+     * @param listener listener that will process incoming messages on the topic
+     * @param fromSequenceNumber sequence number of the first message to replay, TopicSubscriber.NO_REPLAY for no replay
+     * @throws VegaException exception thrown if there is a problem or already subscribed
+     */
+    private void subscribeToTopic(final String topicName,
+                                  final TopicTemplateConfig templateCfg,
+                                  final TopicSecurityTemplateConfig securityTemplateConfig,
+                                  final ITopicSubListener listener,
+                                  final long fromSequenceNumber) throws VegaException
     {
         log.info("Subscribing to topic [{}]", topicName);
 
@@ -148,19 +189,19 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
                 // Create a new one
                 if (securityTemplateConfig == null)
                 {
-                    topicSubscriber = new TopicSubscriber(topicName, templateCfg);
+                    topicSubscriber = new TopicSubscriber(topicName, templateCfg, this.retransmitRequester);
                 }
                 else
                 {
-                    topicSubscriber = new SecureTopicSubscriber(topicName, templateCfg, securityTemplateConfig);
+                    topicSubscriber = new SecureTopicSubscriber(topicName, templateCfg, securityTemplateConfig, this.getDecryptionPool(templateCfg));
                 }
 
                 // Add the listener
-                topicSubscriber.setNormalListener(listener);
+                topicSubscriber.setNormalListener(listener, fromSequenceNumber);
                 // Process as a new topic subscriber
                 this.processCreatedTopicSubscriber(topicSubscriber);
             }
-            else if (!topicSubscriber.setNormalListener(listener))
+            else if (!topicSubscriber.setNormalListener(listener, fromSequenceNumber))
             {
                 log.error("Already subscribed to topic topic [{}]", topicName);
                 throw new VegaException(String.format("Already subscribed to topic topic [%s]", topicName));
@@ -168,6 +209,17 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
         }
     }
 
+    /**
+     * Return the decryption pool of the poller configured for the topic
+     *
+     * @param templateCfg the configuration for the topic
+     * @return the decryption pool, null if the poller decrypts the messages in the poller thread
+     */
+    private SecureMsgsDecryptionPool getDecryptionPool(final TopicTemplateConfig templateCfg)
+    {
+        return this.pollersManager.getPoller(templateCfg.getRcvPoller()).getDecryptionPool();
+    }
+
     /**
      * Process a created topic subscriber for additional actions
      * @param topicSubscriber the subscribers to process
@@ -185,6 +237,12 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
 
         // Register the topic information in auto-discovery
         this.registerTopicInfoInAutodiscovery(topicSubscriber);
+
+        // Check the timeouts of the held messages from the poller, they have to expire even if no more messages are received
+        if (topicSubscriber.hasTimeouts())
+        {
+            this.pollersManager.getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addTimedTopicSubscriber(topicSubscriber);
+        }
     }
 
     /**
@@ -234,6 +292,12 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
         // Unsubscribe from adverts from publishers on the same transport
         this.vegaContext.getAutodiscoveryManager().unsubscribeFromTopic(topicSubscriber.getTopicName(), autoDiscPubTransport, this);
 
+        // Stop checking the timeouts
+        if (topicSubscriber.hasTimeouts())
+        {
+            this.pollersManager.getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).removeTimedTopicSubscriber(topicSubscriber);
+        }
+
         // Destroy the topic subscriber
         this.processTopicSubscriberBeforeDestroy(topicSubscriber);
 
@@ -274,11 +338,11 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
                 // Create a new one
                 if (securityConfig == null)
                 {
-                    topicSubscriber = new TopicSubscriber(pubTopicInfo.getTopicName(), templateCfg);
+                    topicSubscriber = new TopicSubscriber(pubTopicInfo.getTopicName(), templateCfg, this.retransmitRequester);
                 }
                 else
                 {
-                    topicSubscriber = new SecureTopicSubscriber(pubTopicInfo.getTopicName(), templateCfg, securityConfig);
+                    topicSubscriber = new SecureTopicSubscriber(pubTopicInfo.getTopicName(), templateCfg, securityConfig, this.getDecryptionPool(templateCfg));
                 }
 
                 // Add the listener
@@ -384,6 +448,9 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
             // Store the relationship between publisher and subscriber
             this.topicSubAndTopicPubIdRelations.addTopicPubRelation(pubTopicInfo.getUniqueId(), topicSubscriber);
 
+            // Start the replay of the journal or the last value snapshot of the topic publisher if requested
+            topicSubscriber.onTopicPublisherDiscovered(pubTopicInfo.getInstanceId(), pubTopicInfo.getUniqueId());
+
             // If the publisher uses encryption and the subscriber as well, register to obtain the session key
             if (pubTopicInfo.hasSecurity() && topicSubscriber.hasSecurity())
             {
@@ -3,12 +3,17 @@ package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
+import io.aeron.FragmentAssembler;
 import io.aeron.Subscription;
 import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.agrona.DirectBuffer;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Wrapper class to encapsulate an Aeron Subscriber.
@@ -29,6 +34,18 @@ class AeronSubscriber implements Closeable
     /** Aeron subscription wrapped by this subscriber */
     private final Subscription subscription;
 
+    /** Header aliases of the topic publishers that send compact data messages to this subscriber */
+    @Getter(AccessLevel.PACKAGE) private final HeaderAliasTable headerAliasTable = new HeaderAliasTable();
+
+    /** Fragment assembler of the subscriber, the partially assembled messages are kept if the subscriber moves to another poller thread */
+    private final FragmentAssembler fragmentAssembler = new FragmentAssembler(this::onAssembledMessage);
+
+    /** Total number of fragments polled, used to balance the subscribers between the threads of a poller */
+    private final AtomicLong polledFragments = new AtomicLong();
+
+    /** Handler of the current poll that will process the assembled messages */
+    private FragmentHandler pollHandler;
+
     /** Object for instance synchronization */
     private final Object lock = new Object();
 
@@ -90,11 +107,11 @@ class AeronSubscriber implements Closeable
     }
 
     /**
-     * Perform a reception poll
+     * Perform a reception poll, the fragments are assembled by the subscriber before calling the handler
      *
-     * @param fragmentHandler the fragment handler that will process the message
+     * @param fragmentHandler the fragment handler that will process the assembled messages
      * @param maxFragments maximum number of fragments to get in the polling
-     * @return the number of messages retrieved
+     * @return the number of fragments retrieved
      */
     public int poll(final FragmentHandler fragmentHandler, final int maxFragments)
     {
@@ -106,7 +123,35 @@ class AeronSubscriber implements Closeable
                 return 0;
             }
 
-            return this.subscription.poll(fragmentHandler, maxFragments);
+            this.pollHandler = fragmentHandler;
+            final int fragmentsRead = this.subscription.poll(this.fragmentAssembler, maxFragments);
+
+            // Only the polling thread updates the counter
+            if (fragmentsRead > 0)
+            {
+                this.polledFragments.lazySet(this.polledFragments.get() + fragmentsRead);
+            }
+
+            return fragmentsRead;
         }
     }
+
+    /** @return the total number of fragments polled since the creation of the subscriber */
+    long getPolledFragments()
+    {
+        return this.polledFragments.get();
+    }
+
+    /**
+     * Called by the fragment assembler with each assembled message
+     *
+     * @param buffer the buffer that contains the message
+     * @param offset the offset where the message starts on the buffer
+     * @param length the length of the message
+     * @param header the Aeron header of the message
+     */
+    private void onAssembledMessage(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        this.pollHandler.onFragment(buffer, offset, length, header);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.agrona.collections.Int2ObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves the header aliases of the compact data messages received on an Aeron subscriber. <p>
+ *
+ * The aliases are assigned by the Aeron publishers and are only unique inside the Aeron session of the publisher, for each session
+ * there is a flat array of entries indexed by alias. The publisher topic socket information from auto-discovery contains the
+ * session id and the alias of each topic publisher. <p>
+ *
+ * Changes are expected to be rare, every change creates a new copy of the sessions map that is published atomically, the
+ * poller thread never locks and the resolution doesn't generate any garbage.
+ *
+ * This class is thread safe!
+ */
+class HeaderAliasTable
+{
+    /** Registered entries by the unique id of the topic socket info that advertised them */
+    private final Map<UUID, Entry> entriesByTopicSocketId = new HashMap<>();
+
+    /** Flat arrays of entries indexed by alias for each Aeron session id, it is never modified once published */
+    private volatile Int2ObjectHashMap<Entry[]> entriesBySessionId = new Int2ObjectHashMap<>();
+
+    /** Lock for modifications */
+    private final Object lock = new Object();
+
+    /**
+     * Add the header alias of a publisher topic socket, it is ignored if the topic socket has no alias
+     *
+     * @param topicSocketInfo the publisher topic socket information from auto-discovery
+     */
+    void addAlias(final AutoDiscTopicSocketInfo topicSocketInfo)
+    {
+        if (!topicSocketInfo.hasHeaderAlias())
+        {
+            return;
+        }
+
+        synchronized (this.lock)
+        {
+            final Entry entry = new Entry(
+                    topicSocketInfo.getSessionId(),
+                    topicSocketInfo.getHeaderAlias(),
+                    topicSocketInfo.getInstanceId().getMostSignificantBits(),
+                    topicSocketInfo.getInstanceId().getLeastSignificantBits(),
+                    topicSocketInfo.getTopicId().getMostSignificantBits(),
+                    topicSocketInfo.getTopicId().getLeastSignificantBits());
+
+            this.entriesByTopicSocketId.put(topicSocketInfo.getUniqueId(), entry);
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Remove the header alias of a publisher topic socket if it was registered
+     *
+     * @param topicSocketId the unique id of the publisher topic socket information
+     */
+    void removeAlias(final UUID topicSocketId)
+    {
+        synchronized (this.lock)
+        {
+            if (this.entriesByTopicSocketId.remove(topicSocketId) != null)
+            {
+                this.rebuild();
+            }
+        }
+    }
+
+    /**
+     * Find the entry for the given Aeron session and header alias
+     *
+     * @param sessionId the Aeron session id of the received message
+     * @param headerAlias the header alias in the compact data header of the message
+     * @return the entry with the ids of the topic publisher, null if not found
+     */
+    Entry resolve(final int sessionId, final int headerAlias)
+    {
+        final Entry[] entries = this.entriesBySessionId.get(sessionId);
+
+        if (entries == null || headerAlias < 0 || headerAlias >= entries.length)
+        {
+            return null;
+        }
+
+        return entries[headerAlias];
+    }
+
+    /** Create and publish a new copy of the sessions map with the registered entries */
+    private void rebuild()
+    {
+        final Int2ObjectHashMap<Entry[]> result = new Int2ObjectHashMap<>();
+
+        for (final Entry entry : this.entriesByTopicSocketId.values())
+        {
+            Entry[] entries = result.get(entry.sessionId);
+
+            // Create or grow the flat array to fit the alias
+            if (entries == null || entries.length <= entry.headerAlias)
+            {
+                final Entry[] newEntries = new Entry[entry.headerAlias + 1];
+
+                if (entries != null)
+                {
+                    System.arraycopy(entries, 0, newEntries, 0, entries.length);
+                }
+
+                entries = newEntries;
+                result.put(entry.sessionId, entries);
+            }
+
+            entries[entry.headerAlias] = entry;
+        }
+
+        this.entriesBySessionId = result;
+    }
+
+    /** Ids of a topic publisher that sends compact data headers */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    static final class Entry
+    {
+        /** Aeron session id of the publisher socket */
+        private final int sessionId;
+
+        /** Header alias of the topic publisher */
+        private final int headerAlias;
+
+        /** Most significant bits of the instance id of the topic publisher */
+        @Getter private final long instanceIdMsb;
+
+        /** Least significant bits of the instance id of the topic publisher */
+        @Getter private final long instanceIdLsb;
+
+        /** Most significant bits of the unique id of the topic publisher */
+        @Getter private final long topicPublisherIdMsb;
+
+        /** Least significant bits of the unique id of the topic publisher */
+        @Getter private final long topicPublisherIdLsb;
+    }
+}
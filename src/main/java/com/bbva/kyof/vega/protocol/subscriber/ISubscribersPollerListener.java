@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
@@ -22,6 +23,37 @@ interface ISubscribersPollerListener
      */
     void onEncryptedDataMsgReceived(RcvMessage msg);
 
+    /**
+     * Callback when a new data message encrypted with AES-GCM is received
+     * @param msg the encrypted data message
+     */
+    void onGcmEncryptedDataMsgReceived(RcvMessage msg);
+
+    /**
+     * Callback when a data message retransmitted by a topic publisher is received
+     * @param msg the retransmitted data message
+     */
+    void onRetransmittedDataMsgReceived(RcvMessage msg);
+
+    /**
+     * Callback when a topic publisher notifies a range of messages that cannot be retransmitted
+     * @param dataMsgHeader header with the ids of the topic publisher and the first sequence number of the range
+     * @param lastSequenceNumber the last sequence number of the range, inclusive
+     */
+    void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber);
+
+    /**
+     * Callback when a message of the last value snapshot of a topic publisher is received
+     * @param msg the snapshot data message
+     */
+    void onSnapshotDataMsgReceived(RcvMessage msg);
+
+    /**
+     * Callback when the end of the last value snapshot of a topic publisher is received
+     * @param dataMsgHeader header with the ids of the topic publisher and the last sequence number covered by the snapshot
+     */
+    void onSnapshotEndReceived(MsgDataHeader dataMsgHeader);
+
     /**
      * Callback when a new data request message is received
      * @param request the received request
@@ -7,11 +7,13 @@ import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscPubTopicPatternListe
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
 import com.bbva.kyof.vega.msg.RcvResponse;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
 import com.bbva.kyof.vega.protocol.control.ISecuredMsgsDecoder;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.protocol.publisher.AeronPublisher;
@@ -22,6 +24,7 @@ import org.agrona.concurrent.UnsafeBuffer;
 import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Main class to handle the receiving functionality on the framework. It contains separate managers for unicast messaging and multicast/ipc messaging.
@@ -77,9 +80,13 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
      * @param vegaContext context of the instance
      * @param subSecurityManager security manager for the subscribers
      * @param securityRequesterNotifier notifier to tell about new security requests
+     * @param retransmitRequester requester for the retransmission of lost messages
      * @throws VegaException exception thrown if there is a problem creating the manager
      */
-    public ReceiveManager(final VegaContext vegaContext, final ISecuredMsgsDecoder subSecurityManager, final ISecurityRequesterNotifier securityRequesterNotifier) throws VegaException
+    public ReceiveManager(final VegaContext vegaContext,
+                          final ISecuredMsgsDecoder subSecurityManager,
+                          final ISecurityRequesterNotifier securityRequesterNotifier,
+                          final IRetransmitRequester retransmitRequester) throws VegaException
     {
         this.vegaContext = vegaContext;
         this.subSecurityManager = subSecurityManager;
@@ -88,8 +95,8 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         this.pollersManager = new SubscribersPollersManager(vegaContext, this);
 
         // Create the managers to receive messages
-        this.subscribersManagerUnicast = new SubscribersManagerUnicast(vegaContext, this.pollersManager, this.topicSubAndTopicPubIdRelations, securityRequesterNotifier);
-        this.subscribersManagerIpcMcast = new SubscribersManagerIpcMcast(vegaContext, this.pollersManager, this.topicSubAndTopicPubIdRelations, securityRequesterNotifier);
+        this.subscribersManagerUnicast = new SubscribersManagerUnicast(vegaContext, this.pollersManager, this.topicSubAndTopicPubIdRelations, securityRequesterNotifier, retransmitRequester);
+        this.subscribersManagerIpcMcast = new SubscribersManagerIpcMcast(vegaContext, this.pollersManager, this.topicSubAndTopicPubIdRelations, securityRequesterNotifier, retransmitRequester);
 
         // Create the manager for response publishers
         this.responsePublishersManager = new ResponsePublishersManager(vegaContext);
@@ -142,6 +149,60 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         }
     }
 
+    /**
+     * Subscribe to the given durable topic replaying the journal of each topic publisher from the given sequence number before
+     * getting the live messages
+     *
+     * @param topicName the name of the topic to subscribe to
+     * @param fromSequenceNumber sequence number of the first message to replay
+     * @param listener listener that will process incoming messages on the topic
+     *
+     * @throws VegaException exception thrown if there is a problem, the topic is not durable or already subscribed
+     */
+    public void subscribeToTopicFrom(final String topicName, final long fromSequenceNumber, final ITopicSubListener listener) throws VegaException
+    {
+        log.info("Subscribing to topic [{}] from sequence number [{}]", topicName, fromSequenceNumber);
+
+        synchronized (this.lock)
+        {
+            if (this.isClosed)
+            {
+                log.error("Cannot subscribe to topic [{}] on a closed manager", topicName);
+                throw new VegaException("Trying to subscribe to topic on a closed manager");
+            }
+
+            // Find the template configuration
+            final TopicTemplateConfig templateCfg = this.findTopicConfigAndFailIfNotFound(topicName);
+
+            if (!Boolean.TRUE.equals(templateCfg.getDurable()))
+            {
+                log.error("Cannot subscribe to topic [{}] from a sequence number, the topic is not durable", topicName);
+                throw new VegaException(String.format("Trying to subscribe from a sequence number to topic [%s] that is not durable", topicName));
+            }
+
+            // The messages of secured topics are not journaled
+            if (this.findTopicSecurityConfig(topicName) != null)
+            {
+                log.error("Cannot subscribe to topic [{}] from a sequence number, the topic is secured", topicName);
+                throw new VegaException(String.format("Trying to subscribe from a sequence number to secured topic [%s]", topicName));
+            }
+
+            // Call the right manager to do the rest of the job
+            switch (templateCfg.getTransportType())
+            {
+                case UNICAST:
+                    this.subscribersManagerUnicast.subscribeToTopicFrom(topicName, templateCfg, listener, fromSequenceNumber);
+                    break;
+                case MULTICAST:
+                case IPC:
+                    this.subscribersManagerIpcMcast.subscribeToTopicFrom(topicName, templateCfg, listener, fromSequenceNumber);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     /**
      * Verify the topic subscriber security. If security is enabled, it check if the application secure id match a valid secure id for the topic
      * @param securityTemplateConfig security configuration for the topic
@@ -223,6 +284,20 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         }
     }
 
+    /**
+     * Poll once the subscribers of a receiver poller with APPLICATION polling mode from the calling thread. It doesn't take the
+     * manager lock.
+     *
+     * @param pollerName name of the receiver poller configuration
+     * @param fragmentLimit max number of fragments to poll from each subscriber of the poller
+     * @return the number of polled fragments
+     * @throws VegaException exception thrown if the poller is not configured or it is not polled by the application
+     */
+    public int poll(final String pollerName, final int fragmentLimit) throws VegaException
+    {
+        return this.pollersManager.poll(pollerName, fragmentLimit);
+    }
+
     /**
      * Unsubscribe to stop receive messages and requests from a topic pattern
      *
@@ -515,6 +590,17 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         }
     }
 
+    /**
+     * Return the response publisher for the given instance, it is used to send the responses and the retransmitted messages
+     *
+     * @param instanceId the library unique instance id
+     * @return the response publisher, null if the instance has not been discovered
+     */
+    public AeronPublisher getResponsePublisherForInstance(final UUID instanceId)
+    {
+        return this.responsePublishersManager.getResponsePublisherForInstance(instanceId);
+    }
+
     /** @return the parameters of the Aeron Subscriber that handle responses */
     public AeronSubscriberParams getResponseSubscriberParams()
     {
@@ -524,8 +610,9 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
     @Override
     public void onDataMsgReceived(final RcvMessage msg)
     {
-        // Find the related topic subscriber if any
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(msg.getTopicPublisherId());
+        // Find the related topic subscriber if any, use the id bits to prevent the creation of the UUID
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
         if (topicSubscriber != null)
         {
             // The message is not encrypted, make sure the topic has no security
@@ -547,7 +634,8 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
     public void onEncryptedDataMsgReceived(final RcvMessage msg)
     {
         // Find the related topic subscriber if any
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(msg.getTopicPublisherId());
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
         if (topicSubscriber != null)
         {
             // Set the topic name
@@ -571,6 +659,114 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         }
     }
 
+    @Override
+    public void onGcmEncryptedDataMsgReceived(final RcvMessage msg)
+    {
+        // Find the related topic subscriber if any
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+        if (topicSubscriber != null)
+        {
+            // Set the topic name
+            msg.setTopicName(topicSubscriber.getTopicName());
+
+            // The message is encrypted, make sure the topic has security
+            if (!topicSubscriber.hasSecurity())
+            {
+                log.warn("Encrypted message received on a non secured topic subscriber. {}", msg);
+                return;
+            }
+
+            // Get the decoder
+            final AESCrypto aesDecoder = this.subSecurityManager.getAesCryptoForSecPub(msg.getTopicPublisherId());
+
+            // It may be null if it has not found yet, or we don't have permissions, or not configured, etc etc
+            if (aesDecoder == null)
+            {
+                return;
+            }
+
+            try
+            {
+                ((SecureTopicSubscriber)topicSubscriber).onGcmSecureMsgReceived(msg, aesDecoder.getGcmCipher());
+            }
+            catch (final VegaException e)
+            {
+                log.error("Error creating the AES-GCM cipher for topic publisher [{}]", msg.getTopicPublisherId(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onRetransmittedDataMsgReceived(final RcvMessage msg)
+    {
+        // Find the related topic subscriber if any, use the id bits to prevent the creation of the UUID
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+        if (topicSubscriber != null)
+        {
+            // The secured topics are never retransmitted
+            if (topicSubscriber.hasSecurity())
+            {
+                log.warn("Retransmitted message received on a secured topic subscriber. {}", msg);
+                return;
+            }
+
+            // Set the topic name
+            msg.setTopicName(topicSubscriber.getTopicName());
+
+            topicSubscriber.onRetransmittedMessageReceived(msg);
+        }
+    }
+
+    @Override
+    public void onRetransmitLostReceived(final MsgDataHeader dataMsgHeader, final long lastSequenceNumber)
+    {
+        // Find the related topic subscriber if any, use the id bits to prevent the creation of the UUID
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                dataMsgHeader.getTopicPublisherIdMsb(), dataMsgHeader.getTopicPublisherIdLsb());
+        if (topicSubscriber != null)
+        {
+            topicSubscriber.onRetransmitLostReceived(
+                    dataMsgHeader.getTopicPublisherIdMsb(), dataMsgHeader.getTopicPublisherIdLsb(), dataMsgHeader.getSequenceNumber(), lastSequenceNumber);
+        }
+    }
+
+    @Override
+    public void onSnapshotDataMsgReceived(final RcvMessage msg)
+    {
+        // Find the related topic subscriber if any, use the id bits to prevent the creation of the UUID
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+        if (topicSubscriber != null)
+        {
+            // The secured topics have no last value cache
+            if (topicSubscriber.hasSecurity())
+            {
+                log.warn("Snapshot message received on a secured topic subscriber. {}", msg);
+                return;
+            }
+
+            // Set the topic name
+            msg.setTopicName(topicSubscriber.getTopicName());
+
+            topicSubscriber.onSnapshotMessageReceived(msg);
+        }
+    }
+
+    @Override
+    public void onSnapshotEndReceived(final MsgDataHeader dataMsgHeader)
+    {
+        // Find the related topic subscriber if any, use the id bits to prevent the creation of the UUID
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                dataMsgHeader.getTopicPublisherIdMsb(), dataMsgHeader.getTopicPublisherIdLsb());
+        if (topicSubscriber != null)
+        {
+            topicSubscriber.onSnapshotEndReceived(
+                    dataMsgHeader.getTopicPublisherIdMsb(), dataMsgHeader.getTopicPublisherIdLsb(), dataMsgHeader.getSequenceNumber());
+        }
+    }
+
     @Override
     public void onDataRequestMsgReceived(final RcvRequest request)
     {
@@ -587,7 +783,8 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         request.setRequestResponder(responsePublisher);
 
         // Find the topic subscriber and notify to the listener
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(request.getTopicPublisherId());
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                request.getTopicPublisherIdMsb(), request.getTopicPublisherIdLsb());
         if (topicSubscriber != null)
         {
             // Set the topic name
@@ -605,11 +802,12 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         //Send the response
         if (responsePublisher != null)
         {
-            responsePublisher.sendResponse(heartbeatReqMsgHeader.getRequestId(), heartbeatRespContent, 0, 0);
+            responsePublisher.sendResponse(heartbeatReqMsgHeader.getRequestIdMsb(), heartbeatReqMsgHeader.getRequestIdLsb(), heartbeatRespContent, 0, 0);
         }
 
         // Find the topic subscriber and notify to the listener
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(heartbeatReqMsgHeader.getTopicPublisherId());
+        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(
+                heartbeatReqMsgHeader.getTopicPublisherIdMsb(), heartbeatReqMsgHeader.getTopicPublisherIdLsb());
         if (topicSubscriber != null)
         {
             // Set the topic name
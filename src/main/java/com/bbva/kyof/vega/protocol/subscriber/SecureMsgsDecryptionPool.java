@@ -0,0 +1,356 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.MsgReqHeader;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of threads that decrypt the messages of the secured topics polled by a subscribers poller. <p>
+ *
+ * The poller copies the encrypted message into a free slot of the worker assigned to the topic publisher that sent it and keeps
+ * polling. The worker decrypts the message and delivers it to the topic subscriber. All the messages and heartbeats of a topic
+ * publisher go to the same worker, the order of each topic publisher is preserved and its decoder is only used by one thread. <p>
+ *
+ * If a worker has no free slots the poller waits for it, the back pressure reaches the Aeron subscriptions instead of dropping messages. <p>
+ *
+ * The messages should be submitted always from the same poller thread, unless the pool is created for several poller threads.
+ * The messages of a topic publisher should be submitted by one poller thread at a time. This class is thread safe!!
+ */
+@Slf4j
+class SecureMsgsDecryptionPool implements Closeable
+{
+    /** Number of slots of each worker, max number of messages waiting to be decrypted by a worker */
+    private static final int SLOTS_PER_WORKER = 1024;
+
+    /** Starting size of the buffers of the slots and the decoded message buffer of each worker */
+    private static final int BUFFERS_START_SIZE = 1024;
+
+    /** Max number of messages decrypted by a worker on each action */
+    private static final int MAX_MSGS_PER_ACTION = 64;
+
+    /** Max number of spins of the idle strategy of the workers */
+    private static final long IDLE_MAX_SPINS = 100;
+
+    /** Max number of yields of the idle strategy of the workers */
+    private static final long IDLE_MAX_YIELDS = 10;
+
+    /** Min park period of the idle strategy of the workers */
+    private static final long IDLE_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the idle strategy of the workers */
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Workers of the pool */
+    private final DecryptionWorker[] workers;
+
+    /** True if the pool has been closed */
+    private volatile boolean closed = false;
+
+    /**
+     * Create and start a new pool
+     *
+     * @param pollerName name of the poller that submits the messages
+     * @param numThreads number of decryption threads
+     */
+    SecureMsgsDecryptionPool(final String pollerName, final int numThreads)
+    {
+        this(pollerName, numThreads, false);
+    }
+
+    /**
+     * Create and start a new pool
+     *
+     * @param pollerName name of the poller that submits the messages
+     * @param numThreads number of decryption threads
+     * @param multiplePollerThreads true if the messages are submitted from several poller threads
+     */
+    SecureMsgsDecryptionPool(final String pollerName, final int numThreads, final boolean multiplePollerThreads)
+    {
+        log.info("Starting [{}] decryption threads for poller [{}]", numThreads, pollerName);
+
+        this.workers = new DecryptionWorker[numThreads];
+
+        for (int i = 0; i < numThreads; i++)
+        {
+            this.workers[i] = new DecryptionWorker(multiplePollerThreads);
+            this.workers[i].start("SecureMsgsDecryption " + pollerName + "_" + i);
+        }
+    }
+
+    /**
+     * Submit a message encrypted with AES to be decrypted and delivered to the topic subscriber
+     *
+     * @param topicSubscriber the topic subscriber the message belongs to
+     * @param msg the encrypted message, it is copied
+     * @param aesDecoder the decoder of the topic publisher that sent the message
+     */
+    void submitEncryptedMsg(final SecureTopicSubscriber topicSubscriber, final RcvMessage msg, final AESCrypto aesDecoder)
+    {
+        final PendingSecureMsg slot = this.takeFreeSlot(msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+
+        if (slot != null)
+        {
+            slot.setEncryptedMsg(topicSubscriber, msg, aesDecoder, null);
+            slot.worker.pendingMsgs.offer(slot);
+        }
+    }
+
+    /**
+     * Submit a message encrypted with AES-GCM to be decrypted and delivered to the topic subscriber
+     *
+     * @param topicSubscriber the topic subscriber the message belongs to
+     * @param msg the encrypted message, it is copied
+     * @param gcmCipher the AES-GCM cipher of the topic publisher that sent the message
+     */
+    void submitGcmEncryptedMsg(final SecureTopicSubscriber topicSubscriber, final RcvMessage msg, final AesGcmCipher gcmCipher)
+    {
+        final PendingSecureMsg slot = this.takeFreeSlot(msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+
+        if (slot != null)
+        {
+            slot.setEncryptedMsg(topicSubscriber, msg, null, gcmCipher);
+            slot.worker.pendingMsgs.offer(slot);
+        }
+    }
+
+    /**
+     * Submit a heartbeat to be processed after the messages of the same topic publisher already submitted
+     *
+     * @param topicSubscriber the topic subscriber the heartbeat belongs to
+     * @param heartbeatReqMsgHeader the header of the heartbeat, it is copied
+     */
+    void submitHeartbeat(final SecureTopicSubscriber topicSubscriber, final MsgReqHeader heartbeatReqMsgHeader)
+    {
+        final PendingSecureMsg slot = this.takeFreeSlot(heartbeatReqMsgHeader.getTopicPublisherIdMsb(), heartbeatReqMsgHeader.getTopicPublisherIdLsb());
+
+        if (slot != null)
+        {
+            slot.setHeartbeat(topicSubscriber, heartbeatReqMsgHeader);
+            slot.worker.pendingMsgs.offer(slot);
+        }
+    }
+
+    /**
+     * Take a free slot of the worker assigned to the topic publisher, wait until there is one
+     *
+     * @return the free slot, null if the pool has been closed
+     */
+    private PendingSecureMsg takeFreeSlot(final long topicPubIdMsb, final long topicPubIdLsb)
+    {
+        final DecryptionWorker worker = this.workers[Math.floorMod(Long.hashCode(topicPubIdMsb ^ topicPubIdLsb), this.workers.length)];
+
+        PendingSecureMsg slot = worker.freeSlots.poll();
+
+        while (slot == null)
+        {
+            if (this.closed)
+            {
+                return null;
+            }
+
+            Thread.yield();
+            slot = worker.freeSlots.poll();
+        }
+
+        return slot;
+    }
+
+    @Override
+    public void close()
+    {
+        log.info("Stopping decryption threads");
+
+        this.closed = true;
+
+        for (final DecryptionWorker worker : this.workers)
+        {
+            worker.close();
+        }
+    }
+
+    /**
+     * Worker thread that decrypts the submitted messages in order
+     */
+    private static final class DecryptionWorker extends RecurrentTask
+    {
+        /** Slots with messages waiting to be decrypted */
+        private final Queue<PendingSecureMsg> pendingMsgs;
+
+        /** Free slots to be filled by the poller */
+        private final Queue<PendingSecureMsg> freeSlots;
+
+        /** Reusable buffer for the decrypted messages, the same instance is kept when it grows */
+        private final UnsafeBuffer decodedMsgBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFERS_START_SIZE));
+
+        /**
+         * Create a new worker with all the slots free
+         *
+         * @param multiplePollerThreads true if the slots are filled from several poller threads
+         */
+        private DecryptionWorker(final boolean multiplePollerThreads)
+        {
+            super(new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NANOS, IDLE_MAX_PARK_NANOS));
+
+            if (multiplePollerThreads)
+            {
+                this.pendingMsgs = new ManyToOneConcurrentArrayQueue<>(SLOTS_PER_WORKER);
+                this.freeSlots = new ManyToManyConcurrentArrayQueue<>(SLOTS_PER_WORKER);
+            }
+            else
+            {
+                this.pendingMsgs = new OneToOneConcurrentArrayQueue<>(SLOTS_PER_WORKER);
+                this.freeSlots = new OneToOneConcurrentArrayQueue<>(SLOTS_PER_WORKER);
+            }
+
+            for (int i = 0; i < SLOTS_PER_WORKER; i++)
+            {
+                this.freeSlots.offer(new PendingSecureMsg(this));
+            }
+        }
+
+        @Override
+        public int action()
+        {
+            int processed = 0;
+
+            PendingSecureMsg slot;
+            while (processed < MAX_MSGS_PER_ACTION && (slot = this.pendingMsgs.poll()) != null)
+            {
+                slot.process(this.decodedMsgBuffer);
+                slot.clear();
+                this.freeSlots.offer(slot);
+                processed++;
+            }
+
+            return processed;
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            // Discard the messages not decrypted yet
+            this.pendingMsgs.clear();
+        }
+    }
+
+    /**
+     * Slot of a worker with a copy of an encrypted message or a heartbeat
+     */
+    private static final class PendingSecureMsg
+    {
+        /** Worker that owns the slot */
+        private final DecryptionWorker worker;
+
+        /** Copy of the encrypted message */
+        private final RcvMessage msg = new RcvMessage();
+
+        /** Copy of the heartbeat header */
+        private final MsgReqHeader heartbeatReqMsgHeader = new MsgReqHeader();
+
+        /** Buffer with the copy of the encrypted contents, the same instance is kept when it grows */
+        private final UnsafeBuffer msgContents = new UnsafeBuffer(ByteBuffer.allocate(BUFFERS_START_SIZE));
+
+        /** Topic subscriber the message belongs to */
+        private SecureTopicSubscriber topicSubscriber;
+
+        /** AES decoder for the message, null if it is not an AES message */
+        private AESCrypto aesDecoder;
+
+        /** AES-GCM cipher for the message, null if it is not an AES-GCM message */
+        private AesGcmCipher gcmCipher;
+
+        /** True if the slot contains a heartbeat */
+        private boolean isHeartbeat;
+
+        /**
+         * Create a new slot
+         *
+         * @param worker the worker that owns the slot
+         */
+        private PendingSecureMsg(final DecryptionWorker worker)
+        {
+            this.worker = worker;
+        }
+
+        /** Copy an encrypted message into the slot */
+        private void setEncryptedMsg(final SecureTopicSubscriber topicSubscriber, final RcvMessage rcvMsg, final AESCrypto aesDecoder, final AesGcmCipher gcmCipher)
+        {
+            this.topicSubscriber = topicSubscriber;
+            this.aesDecoder = aesDecoder;
+            this.gcmCipher = gcmCipher;
+            this.isHeartbeat = false;
+
+            final int length = rcvMsg.getContentLength();
+
+            // Make sure the contents fit, if not increase the size
+            if (this.msgContents.capacity() < length)
+            {
+                this.msgContents.wrap(ByteBuffer.allocate(length * 2));
+            }
+
+            rcvMsg.getContents().getBytes(rcvMsg.getContentOffset(), this.msgContents, 0, length);
+
+            this.msg.setInstanceId(rcvMsg.getInstanceIdMsb(), rcvMsg.getInstanceIdLsb());
+            this.msg.setTopicPublisherId(rcvMsg.getTopicPublisherIdMsb(), rcvMsg.getTopicPublisherIdLsb());
+            this.msg.setSequenceNumber(rcvMsg.getSequenceNumber());
+            this.msg.setTopicName(rcvMsg.getTopicName());
+            this.msg.setUnsafeBufferContent(this.msgContents);
+            this.msg.setContentOffset(0);
+            this.msg.setContentLength(length);
+        }
+
+        /** Copy a heartbeat header into the slot */
+        private void setHeartbeat(final SecureTopicSubscriber topicSubscriber, final MsgReqHeader heartbeatReqMsgHeader)
+        {
+            this.topicSubscriber = topicSubscriber;
+            this.isHeartbeat = true;
+
+            this.heartbeatReqMsgHeader.setInstanceId(heartbeatReqMsgHeader.getInstanceId());
+            this.heartbeatReqMsgHeader.setTopicPublisherId(heartbeatReqMsgHeader.getTopicPublisherId());
+            this.heartbeatReqMsgHeader.setSequenceNumber(heartbeatReqMsgHeader.getSequenceNumber());
+            this.heartbeatReqMsgHeader.setRequestId(heartbeatReqMsgHeader.getRequestIdMsb(), heartbeatReqMsgHeader.getRequestIdLsb());
+        }
+
+        /**
+         * Decrypt and deliver the message or process the heartbeat
+         *
+         * @param decodedMsgBuffer the buffer of the worker for the decrypted messages
+         */
+        private void process(final UnsafeBuffer decodedMsgBuffer)
+        {
+            if (this.isHeartbeat)
+            {
+                this.topicSubscriber.processHeartbeat(this.heartbeatReqMsgHeader);
+            }
+            else if (this.gcmCipher != null)
+            {
+                this.topicSubscriber.decryptAndDeliver(this.msg, this.gcmCipher, decodedMsgBuffer);
+            }
+            else
+            {
+                this.topicSubscriber.decodeAndDeliver(this.msg, this.aesDecoder, decodedMsgBuffer);
+            }
+        }
+
+        /** Release the references of the slot */
+        private void clear()
+        {
+            this.topicSubscriber = null;
+            this.aesDecoder = null;
+            this.gcmCipher = null;
+        }
+    }
+}
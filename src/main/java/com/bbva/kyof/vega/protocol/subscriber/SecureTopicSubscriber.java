@@ -3,8 +3,10 @@ package com.bbva.kyof.vega.protocol.subscriber;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -23,11 +25,11 @@ class SecureTopicSubscriber extends TopicSubscriber
     /** Topic security configuration, null if security is not configured */
     @Getter private final TopicSecurityTemplateConfig topicSecurityConfig;
 
-    /** Reusable byte buffer to hold the message contents */
-    private ByteBuffer byteBufferMsgContents = ByteBuffer.allocate(1024);
+    /** Reusable unsafe buffer for the decoded message contents, the messages are decoded directly from the received buffer */
+    private final UnsafeBuffer decodedMsgBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
 
-    /** Reusable unsafe buffer for the decoded message contents */
-    private final UnsafeBuffer decodedMsgBuffer = new UnsafeBuffer(ByteBuffer.allocate(1024));
+    /** Pool of the poller that decrypts the messages outside the poller thread, null if they are decrypted by the poller thread */
+    private final SecureMsgsDecryptionPool decryptionPool;
 
     /**
      * Constructs a new topic subscriber
@@ -37,9 +39,26 @@ class SecureTopicSubscriber extends TopicSubscriber
      * @param topicSecurityConfig the topic security configuration
      */
     SecureTopicSubscriber(final String topicName, final TopicTemplateConfig topicConfig, final TopicSecurityTemplateConfig topicSecurityConfig)
+    {
+        this(topicName, topicConfig, topicSecurityConfig, null);
+    }
+
+    /**
+     * Constructs a new topic subscriber
+     *
+     * @param topicName Topic name the subscriber is associated to
+     * @param topicConfig Topic configuration
+     * @param topicSecurityConfig the topic security configuration
+     * @param decryptionPool pool that decrypts the messages outside the poller thread, null to decrypt them in the poller thread
+     */
+    SecureTopicSubscriber(final String topicName,
+                          final TopicTemplateConfig topicConfig,
+                          final TopicSecurityTemplateConfig topicSecurityConfig,
+                          final SecureMsgsDecryptionPool decryptionPool)
     {
         super(topicName, topicConfig);
         this.topicSecurityConfig = topicSecurityConfig;
+        this.decryptionPool = decryptionPool;
     }
 
     /**
@@ -50,38 +69,149 @@ class SecureTopicSubscriber extends TopicSubscriber
      */
     void onSecureMsgReceived(final RcvMessage receivedMessage, final AESCrypto aesCryptoDecoder)
     {
-        // Make sure we can hold the message and the decoded message
-        if (this.byteBufferMsgContents.capacity() < receivedMessage.getContentLength())
+        if (this.decryptionPool != null)
         {
-            this.byteBufferMsgContents = ByteBuffer.allocate(receivedMessage.getContentLength() * 2);
+            this.decryptionPool.submitEncryptedMsg(this, receivedMessage, aesCryptoDecoder);
         }
+        else
+        {
+            this.decodeAndDeliver(receivedMessage, aesCryptoDecoder, this.decodedMsgBuffer);
+        }
+    }
 
-        if (this.decodedMsgBuffer.byteBuffer().capacity() < receivedMessage.getContentLength())
+    /**
+     * Method called when a secure message encrypted with AES-GCM is received. The message will be decrypted and authenticated
+     * using the provided cipher and the sequence number of the message.
+     *
+     * @param receivedMessage the received message
+     * @param gcmCipher the AES-GCM cipher with the key of the topic publisher
+     */
+    void onGcmSecureMsgReceived(final RcvMessage receivedMessage, final AesGcmCipher gcmCipher)
+    {
+        if (this.decryptionPool != null)
         {
-            this.decodedMsgBuffer.wrap(ByteBuffer.allocate((receivedMessage.getContentLength()) * 2));
+            this.decryptionPool.submitGcmEncryptedMsg(this, receivedMessage, gcmCipher);
         }
+        else
+        {
+            this.decryptAndDeliver(receivedMessage, gcmCipher, this.decodedMsgBuffer);
+        }
+    }
+
+    /**
+     * The heartbeats go through the decryption pool to be processed after the messages of the topic publisher submitted before
+     */
+    @Override
+    void onHeartbeatReceived(final MsgReqHeader heartbeatReqMsgHeader, final String topicName)
+    {
+        if (this.decryptionPool != null)
+        {
+            this.decryptionPool.submitHeartbeat(this, heartbeatReqMsgHeader);
+        }
+        else
+        {
+            super.onHeartbeatReceived(heartbeatReqMsgHeader, topicName);
+        }
+    }
 
-        // Copy the message contents into the reusable byte buffer
-        receivedMessage.getContents().getBytes(receivedMessage.getContentOffset(), this.byteBufferMsgContents, 0, receivedMessage.getContentLength());
-        this.byteBufferMsgContents.limit(receivedMessage.getContentLength());
-        this.byteBufferMsgContents.position(0);
+    /**
+     * Process a heartbeat submitted to the decryption pool
+     *
+     * @param heartbeatReqMsgHeader the heartbeat header
+     */
+    void processHeartbeat(final MsgReqHeader heartbeatReqMsgHeader)
+    {
+        super.onHeartbeatReceived(heartbeatReqMsgHeader, this.getTopicName());
+    }
+
+    /**
+     * Decode a message encrypted with AES and deliver it to the listeners
+     *
+     * @param receivedMessage the received message
+     * @param aesCryptoDecoder the AES crypto decoder to decode the received message
+     * @param targetBuffer the buffer for the decoded message, it grows keeping the same instance if required
+     */
+    void decodeAndDeliver(final RcvMessage receivedMessage, final AESCrypto aesCryptoDecoder, final UnsafeBuffer targetBuffer)
+    {
+        // Make sure we can hold the decoded message
+        ensureCapacity(targetBuffer, receivedMessage.getContentLength());
 
         // Decode the message
         try
         {
-            this.decodedMsgBuffer.byteBuffer().clear();
-            aesCryptoDecoder.decode(this.byteBufferMsgContents, this.decodedMsgBuffer.byteBuffer());
+            final int decodedLength = aesCryptoDecoder.decode(
+                    receivedMessage.getContents(),
+                    receivedMessage.getContentOffset(),
+                    receivedMessage.getContentLength(),
+                    targetBuffer,
+                    0);
 
-            // Change the received message contents
-            receivedMessage.setUnsafeBufferContent(this.decodedMsgBuffer);
-            receivedMessage.setContentOffset(0);
-            receivedMessage.setContentLength(this.decodedMsgBuffer.byteBuffer().position());
+            this.onMessageDecoded(receivedMessage, targetBuffer, decodedLength);
         }
         catch (final VegaException e)
         {
             log.warn("Unexpected error decoding secure received message on topic " + this.getTopicName(), e);
-            return;
         }
+    }
+
+    /**
+     * Decrypt and authenticate a message encrypted with AES-GCM and deliver it to the listeners
+     *
+     * @param receivedMessage the received message
+     * @param gcmCipher the AES-GCM cipher with the key of the topic publisher
+     * @param targetBuffer the buffer for the decrypted message, it grows keeping the same instance if required
+     */
+    void decryptAndDeliver(final RcvMessage receivedMessage, final AesGcmCipher gcmCipher, final UnsafeBuffer targetBuffer)
+    {
+        // Make sure we can hold the decrypted message
+        ensureCapacity(targetBuffer, receivedMessage.getContentLength());
+
+        // Decrypt the message
+        try
+        {
+            final int decryptedLength = gcmCipher.decrypt(
+                    receivedMessage.getSequenceNumber(),
+                    receivedMessage.getContents(),
+                    receivedMessage.getContentOffset(),
+                    receivedMessage.getContentLength(),
+                    targetBuffer,
+                    0);
+
+            this.onMessageDecoded(receivedMessage, targetBuffer, decryptedLength);
+        }
+        catch (final VegaException e)
+        {
+            log.warn("Unexpected error decrypting secure received message on topic " + this.getTopicName(), e);
+        }
+    }
+
+    /**
+     * Grow the buffer if it cannot hold the given length, the same unsafe buffer instance is kept
+     *
+     * @param buffer the buffer to grow
+     * @param length the length the buffer should be able to hold
+     */
+    private static void ensureCapacity(final UnsafeBuffer buffer, final int length)
+    {
+        if (buffer.capacity() < length)
+        {
+            buffer.wrap(ByteBuffer.allocateDirect(length * 2));
+        }
+    }
+
+    /**
+     * Change the contents of the received message to the decoded message and deliver it to the listeners
+     *
+     * @param receivedMessage the received message
+     * @param decodedBuffer the buffer with the decoded message
+     * @param decodedLength the length of the decoded message
+     */
+    private void onMessageDecoded(final RcvMessage receivedMessage, final UnsafeBuffer decodedBuffer, final int decodedLength)
+    {
+        // Change the received message contents
+        receivedMessage.setUnsafeBufferContent(decodedBuffer);
+        receivedMessage.setContentOffset(0);
+        receivedMessage.setContentLength(decodedLength);
 
         // Finally call the parent implementation
         super.onMessageReceived(receivedMessage);
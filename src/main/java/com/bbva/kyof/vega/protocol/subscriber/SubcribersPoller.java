@@ -7,15 +7,24 @@ import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.collection.DelayedChangesArray;
 import com.bbva.kyof.vega.util.collection.IDelayedChangesArray;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
-import io.aeron.FragmentAssembler;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class that perform message polling over a set of subscribers
  *
+ * The poller can be one of the threads of a {@link SubscribersPollerGroup}, the group moves the subscribers between its threads
+ * with {@link #releaseSubscription(AeronSubscriber, Runnable)}.
+ *
  * This class is thread safe!!
  */
 @Slf4j
@@ -24,12 +33,21 @@ class SubcribersPoller extends RecurrentTask
     /** Default initial subscribers number, it is used to reserve some memory in the subscribers array */
     private static final int DEFAULT_SUB_NUMBER = 10;
 
+    /** Max number of subscribers waiting to be released */
+    private static final int MAX_PENDING_RELEASES = 64;
+
+    /** Period of the check of the timeouts of the topic subscribers */
+    private static final long TIMEOUTS_CHECK_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     /** Reusable base header for received messages */
     private final BaseHeader reusableBaseHeader = new BaseHeader();
 
     /** Reusable header for received data messages */
     private final MsgDataHeader reusableDataMsgHeader = new MsgDataHeader();
 
+    /** Reusable header for received data messages with compact header */
+    private final MsgCompactDataHeader reusableCompactDataMsgHeader = new MsgCompactDataHeader();
+
     /** Reusable header for received request */
     private final MsgReqHeader reusableReqMsgHeader = new MsgReqHeader();
 
@@ -50,9 +68,27 @@ class SubcribersPoller extends RecurrentTask
 
     /** Delayed changes collection with all subscriptors for the poller */
     private final IDelayedChangesArray<AeronSubscriber> subscribers;
+
+    /** Delayed changes collection with the topic subscribers whose timeouts are checked by the poller */
+    private final IDelayedChangesArray<TopicSubscriber> timedTopicSubscribers;
+
+    /** Time of the next check of the timeouts of the topic subscribers */
+    private long nextTimeoutsCheckNanos = System.nanoTime();
   
-    /** Fragment assembler that will handle the new messages in the subscribers */
-    private final FragmentAssembler fragmentAssembler;
+    /** Handler of the messages polled from the subscribers, each subscriber assembles its own fragments */
+    private final FragmentHandler messageHandler;
+
+    /** Subscribers to stop polling with the action to run once they are not polled any more */
+    private final OneToOneConcurrentArrayQueue<PendingRelease> pendingReleases = new OneToOneConcurrentArrayQueue<>(MAX_PENDING_RELEASES);
+
+    /** Name of the poller thread */
+    private final String threadName;
+
+    /** True if the decryption pool has been created by this poller and should be closed with it */
+    private final boolean ownsDecryptionPool;
+
+    /** Subscriber that is being polled, it is used to resolve the header aliases of the compact data messages */
+    private AeronSubscriber polledSubscriber;
 
     /** Listener for received messages */
     private final ISubscribersPollerListener listener;
@@ -68,6 +104,9 @@ class SubcribersPoller extends RecurrentTask
      */
     private final int maxFragmentsPerPoll;
 
+    /** Pool that decrypts the messages of the secured topics of the poller, null if they are decrypted by the poller thread */
+    @Getter private final SecureMsgsDecryptionPool decryptionPool;
+
     /**
      * Create a new poller
      *
@@ -76,12 +115,88 @@ class SubcribersPoller extends RecurrentTask
      */
     SubcribersPoller(final ISubscribersPollerListener listener, final RcvPollerConfig config)
     {
-        super(config.getIdleStrategy());
+        this(listener, config, config.getIdleStrategy(), "SubscriberPoller " + config.getName(), createDecryptionPool(config), true);
+    }
+
+    /**
+     * Create a new poller that is one of the threads of a poller group. The thread index is only added to the thread name if the
+     * group has several threads.
+     *
+     * @param listener listener that will receive the polled messages
+     * @param config poller configuration
+     * @param threadIndex index of the thread in the group
+     * @param decryptionPool decryption pool shared by all the threads of the group, null if there are no decryption threads
+     */
+    SubcribersPoller(final ISubscribersPollerListener listener,
+                     final RcvPollerConfig config,
+                     final int threadIndex,
+                     final SecureMsgsDecryptionPool decryptionPool)
+    {
+        this(listener, config, config.createIdleStrategy(), createThreadName(config, threadIndex), decryptionPool, false);
+    }
+
+    /**
+     * Create a new poller
+     *
+     * @param listener listener that will receive the polled messages
+     * @param config poller configuration
+     * @param idleStrategy idle strategy of the poller thread
+     * @param threadName name of the poller thread
+     * @param decryptionPool decryption pool of the poller, null if there are no decryption threads
+     * @param ownsDecryptionPool true if the decryption pool should be closed with the poller
+     */
+    private SubcribersPoller(final ISubscribersPollerListener listener,
+                             final RcvPollerConfig config,
+                             final IdleStrategy idleStrategy,
+                             final String threadName,
+                             final SecureMsgsDecryptionPool decryptionPool,
+                             final boolean ownsDecryptionPool)
+    {
+        super(idleStrategy);
         this.listener = listener;
         this.config = config;
-        this.fragmentAssembler = new FragmentAssembler(this::processAeronMsg);
+        this.threadName = threadName;
+        this.messageHandler = this::processAeronMsg;
         this.subscribers = new DelayedChangesArray<>(AeronSubscriber.class, DEFAULT_SUB_NUMBER);
+        this.timedTopicSubscribers = new DelayedChangesArray<>(TopicSubscriber.class, DEFAULT_SUB_NUMBER);
         this.maxFragmentsPerPoll = config.getMaxFragmentsPerPoll();
+        this.decryptionPool = decryptionPool;
+        this.ownsDecryptionPool = ownsDecryptionPool;
+    }
+
+    /**
+     * Create the name of the thread of a poller of a group, the single thread groups keep the name of the poller
+     *
+     * @param config poller configuration
+     * @param threadIndex index of the thread in the group
+     * @return the thread name
+     */
+    private static String createThreadName(final RcvPollerConfig config, final int threadIndex)
+    {
+        if (config.getNumThreads() > 1)
+        {
+            return "SubscriberPoller " + config.getName() + "_" + threadIndex;
+        }
+
+        return "SubscriberPoller " + config.getName();
+    }
+
+    /**
+     * Create the decryption threads of a poller if configured
+     *
+     * @param config poller configuration
+     * @return the created decryption pool, null if there are no decryption threads
+     */
+    private static SecureMsgsDecryptionPool createDecryptionPool(final RcvPollerConfig config)
+    {
+        if (config.getDecryptionThreads() != null && config.getDecryptionThreads() > 0)
+        {
+            return new SecureMsgsDecryptionPool(config.getName(), config.getDecryptionThreads());
+        }
+        else
+        {
+            return null;
+        }
     }
 
     /**
@@ -103,20 +218,86 @@ class SubcribersPoller extends RecurrentTask
     }
 
     /**
-     * Start the poller
+     * Add a topic subscriber whose timeouts should be checked periodically by the poller duty cycle
+     * @param topicSubscriber the topic subscriber to check
+     */
+    void addTimedTopicSubscriber(final TopicSubscriber topicSubscriber)
+    {
+        this.timedTopicSubscribers.addElement(topicSubscriber);
+    }
+
+    /**
+     * Stop checking the timeouts of a topic subscriber
+     * @param topicSubscriber the topic subscriber to remove
+     */
+    void removeTimedTopicSubscriber(final TopicSubscriber topicSubscriber)
+    {
+        this.timedTopicSubscribers.removeElement(topicSubscriber);
+    }
+
+    /**
+     * Stop polling a subscription and run the given action once it is not polled any more by the poller thread. It is used to
+     * move subscriptions between the threads of a poller group without polling a subscription from 2 threads at the same time.
+     *
+     * The subscription may have been removed before the release is processed, the action is run anyway.
+     *
+     * Only one thread should release subscriptions.
+     *
+     * @param subscription the subscription to release
+     * @param onReleased action to run from the poller thread once the subscription has been released
+     * @return false if there are too many releases waiting and the subscription has not been released
+     */
+    boolean releaseSubscription(final AeronSubscriber subscription, final Runnable onReleased)
+    {
+        return this.pendingReleases.offer(new PendingRelease(subscription, onReleased));
+    }
+
+    /**
+     * Start the poller in its own thread
      */
     void start()
     {
-        log.info("Starting poller manager with name [{}]", this.config.getName());
-        this.start("SubscriberPoller " + this.config.getName());
+        this.start(TasksRunner.dedicated());
+    }
+
+    /**
+     * Start the poller
+     *
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    void start(final TasksRunner tasksRunner)
+    {
+        log.info("Starting poller manager with name [{}]", this.threadName);
+        tasksRunner.start(this, this.threadName);
     }
 
     @Override
     public int action()
+    {
+        return this.pollSubscribers(this.maxFragmentsPerPoll);
+    }
+
+    /**
+     * Run a single duty cycle of the poller: apply the pending subscription changes, poll all the subscribers once and check
+     * the timeouts of the topic subscribers if the check period has elapsed.
+     *
+     * It is called by the poller thread, or directly by the application thread when the poller has APPLICATION polling mode
+     * and the thread is never started. It should be called always from the same thread.
+     *
+     * @param fragmentLimit max number of fragments to poll from each subscriber
+     * @return the number of polled fragments
+     */
+    int pollSubscribers(final int fragmentLimit)
     {
         // Apply pending changes
         this.subscribers.applyPendingChanges();
 
+        // Release the subscriptions that are moving to other threads
+        if (!this.pendingReleases.isEmpty())
+        {
+            this.processPendingReleases();
+        }
+
         int fragmentsRead = 0;
 
         // Get the internal collection
@@ -125,18 +306,70 @@ class SubcribersPoller extends RecurrentTask
         // Poll all the subscribers
         for (int i = 0; i < this.subscribers.getNumElements() && !this.shouldStop(); i++)
         {
-            fragmentsRead += subscriptionsArray[i].poll(this.fragmentAssembler, this.maxFragmentsPerPoll);
+            this.polledSubscriber = subscriptionsArray[i];
+            fragmentsRead += this.polledSubscriber.poll(this.messageHandler, fragmentLimit);
+        }
+
+        // Check the timeouts of the topic subscribers
+        this.timedTopicSubscribers.applyPendingChanges();
+        if (this.timedTopicSubscribers.getNumElements() > 0)
+        {
+            this.checkTimeouts();
         }
 
         // Return number of read fragments
         return fragmentsRead;
     }
 
+    /**
+     * Check the timeouts of the topic subscribers if the check period has elapsed since the last check
+     */
+    private void checkTimeouts()
+    {
+        final long now = System.nanoTime();
+
+        if (now - this.nextTimeoutsCheckNanos < 0)
+        {
+            return;
+        }
+
+        this.nextTimeoutsCheckNanos = now + TIMEOUTS_CHECK_PERIOD_NANOS;
+
+        final TopicSubscriber[] topicSubscribersArray = this.timedTopicSubscribers.getInternalArray();
+        for (int i = 0; i < this.timedTopicSubscribers.getNumElements(); i++)
+        {
+            topicSubscribersArray[i].checkTimeouts();
+        }
+    }
+
+    /**
+     * Remove the released subscriptions from the poller and run the release actions. It is called before polling, the
+     * subscriptions won't be polled again by this thread.
+     */
+    private void processPendingReleases()
+    {
+        PendingRelease release;
+        while ((release = this.pendingReleases.poll()) != null)
+        {
+            this.subscribers.removeElement(release.subscription);
+            this.subscribers.applyPendingChanges();
+            release.onReleased.run();
+        }
+    }
+
     @Override
     public void cleanUp()
     {
-        log.info("Cleaning poller manager [{}] after closing", this.config.getName());
+        log.info("Cleaning poller manager [{}] after closing", this.threadName);
         this.subscribers.clear();
+        this.timedTopicSubscribers.clear();
+        this.pendingReleases.clear();
+
+        // The poller is not submitting messages any more, stop the decryption threads
+        if (this.decryptionPool != null && this.ownsDecryptionPool)
+        {
+            this.decryptionPool.close();
+        }
     }
 
     /**
@@ -167,6 +400,12 @@ class SubcribersPoller extends RecurrentTask
             case MsgType.DATA:
                 this.processDataMessage();
                 break;
+            case MsgType.DATA_COMPACT:
+                this.processCompactDataMessage(header);
+                break;
+            case MsgType.DATA_BATCH:
+                this.processDataBatchMessage();
+                break;
             case MsgType.DATA_REQ:
                 this.processDataRequestMessage();
                 break;
@@ -177,7 +416,20 @@ class SubcribersPoller extends RecurrentTask
                 this.processDataResponseMessage();
                 break;
             case MsgType.ENCRYPTED_DATA:
-                this.processEncryptedDataMessage();
+            case MsgType.ENCRYPTED_DATA_GCM:
+                this.processEncryptedDataMessage(this.reusableBaseHeader.getMsgType());
+                break;
+            case MsgType.DATA_RETRANSMIT:
+                this.processRetransmittedDataMessage();
+                break;
+            case MsgType.DATA_RETRANSMIT_LOST:
+                this.processRetransmitLostMessage();
+                break;
+            case MsgType.DATA_SNAPSHOT:
+                this.processSnapshotDataMessage();
+                break;
+            case MsgType.DATA_SNAPSHOT_END:
+                this.processSnapshotEndMessage();
                 break;
             default:
                 log.warn("Unexpected message type received [{}]", this.reusableBaseHeader.getMsgType());
@@ -196,9 +448,9 @@ class SubcribersPoller extends RecurrentTask
         // Deserialize the header to get the id of the publisher that sent the message
         this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
 
-        // Set the fields of the reusable received msg
-        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceId());
-        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherId());
+        // Set the fields of the reusable received msg, the ids are settled as bits to prevent the creation of UUIDs
+        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceIdMsb(), this.reusableDataMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherIdMsb(), this.reusableDataMsgHeader.getTopicPublisherIdLsb());
         this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
         this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
         this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
@@ -207,8 +459,224 @@ class SubcribersPoller extends RecurrentTask
         this.listener.onDataMsgReceived(this.reusableReceivedMsg);
     }
 
-    /** Process a message of type data that has already been wrapped on the buffer serializer */
-    private void processEncryptedDataMessage()
+    /**
+     * Process a message of type data with compact header that has already been wrapped on the buffer serializer. The ids of the
+     * topic publisher are resolved with the header alias and the Aeron session of the message.
+     *
+     * @param header the Aeron header of the message
+     */
+    private void processCompactDataMessage(final Header header)
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Compact data message received");
+        }
+
+        // Deserialize the header to get the alias of the publisher that sent the message
+        this.reusableCompactDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // Resolve the alias, it may not be known yet if the publisher topic socket has not been discovered
+        final HeaderAliasTable.Entry aliasEntry = this.polledSubscriber.getHeaderAliasTable().resolve(
+                header.sessionId(), this.reusableCompactDataMsgHeader.getHeaderAlias());
+
+        if (aliasEntry == null)
+        {
+            if (log.isTraceEnabled())
+            {
+                log.trace("Compact data message received with unknown header alias [{}] on session [{}]", this.reusableCompactDataMsgHeader.getHeaderAlias(), header.sessionId());
+            }
+
+            return;
+        }
+
+        // Set the fields of the reusable received msg
+        this.reusableReceivedMsg.setInstanceId(aliasEntry.getInstanceIdMsb(), aliasEntry.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(aliasEntry.getTopicPublisherIdMsb(), aliasEntry.getTopicPublisherIdLsb());
+        this.reusableReceivedMsg.setSequenceNumber(this.reusableCompactDataMsgHeader.getSequenceNumber());
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+        this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+        this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
+
+        this.listener.onDataMsgReceived(this.reusableReceivedMsg);
+    }
+
+    /**
+     * Process a message of type data batch that has already been wrapped on the buffer serializer. Each message of the batch
+     * is given to the listener separately with consecutive sequence numbers.
+     */
+    private void processDataBatchMessage()
+    {
+        // Deserialize the header to get the id of the publisher that sent the message and the first sequence number
+        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // The whole batch is checked before delivering any message, a malformed batch is discarded entirely
+        if (!this.isValidDataBatch())
+        {
+            log.warn("Malformed data batch message received from topic publisher [{}]", this.reusableDataMsgHeader.getTopicPublisherId());
+            return;
+        }
+
+        final int numMessages = this.bufferSerializer.readInt();
+
+        if (log.isTraceEnabled())
+        {
+            log.trace("Data batch message received with [{}] messages", numMessages);
+        }
+
+        // Set the fields common to all the messages of the batch
+        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceIdMsb(), this.reusableDataMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherIdMsb(), this.reusableDataMsgHeader.getTopicPublisherIdLsb());
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+
+        for (int i = 0; i < numMessages; i++)
+        {
+            final int msgLength = this.bufferSerializer.readInt();
+            final int msgOffset = this.bufferSerializer.getOffset();
+
+            this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber() + i);
+            this.reusableReceivedMsg.setContentOffset(msgOffset);
+            this.reusableReceivedMsg.setContentLength(msgLength);
+
+            this.listener.onDataMsgReceived(this.reusableReceivedMsg);
+
+            this.bufferSerializer.setOffset(msgOffset + msgLength);
+        }
+    }
+
+    /**
+     * Check that the number of messages of the data batch wrapped on the buffer serializer and the length of each one are inside
+     * the received fragment. The offset of the buffer serializer is not changed.
+     *
+     * @return true if the batch is well formed
+     */
+    private boolean isValidDataBatch()
+    {
+        final int batchEnd = this.bufferSerializer.getMsgLength();
+        int offset = this.bufferSerializer.getOffset();
+
+        if (batchEnd - offset < UnsafeBufferSerializer.INT_SIZE)
+        {
+            return false;
+        }
+
+        final int numMessages = this.bufferSerializer.getInternalBuffer().getInt(offset);
+        offset += UnsafeBufferSerializer.INT_SIZE;
+
+        // Each message uses at least the 4 bytes of its length
+        if (numMessages < 0 || numMessages > (batchEnd - offset) / UnsafeBufferSerializer.INT_SIZE)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < numMessages; i++)
+        {
+            if (batchEnd - offset < UnsafeBufferSerializer.INT_SIZE)
+            {
+                return false;
+            }
+
+            final int msgLength = this.bufferSerializer.getInternalBuffer().getInt(offset);
+            offset += UnsafeBufferSerializer.INT_SIZE;
+
+            if (msgLength < 0 || msgLength > batchEnd - offset)
+            {
+                return false;
+            }
+
+            offset += msgLength;
+        }
+
+        return true;
+    }
+
+    /** Process a message of type retransmitted data that has already been wrapped on the buffer serializer */
+    private void processRetransmittedDataMessage()
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Retransmitted data message received");
+        }
+
+        // Deserialize the header to get the id of the publisher that sent the message
+        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // Set the fields of the reusable received msg
+        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceIdMsb(), this.reusableDataMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherIdMsb(), this.reusableDataMsgHeader.getTopicPublisherIdLsb());
+        this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+        this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+        this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
+
+        this.listener.onRetransmittedDataMsgReceived(this.reusableReceivedMsg);
+    }
+
+    /**
+     * Process a message that notifies a range of messages that cannot be retransmitted. The header contains the first
+     * sequence number of the range and the content the last one.
+     */
+    private void processRetransmitLostMessage()
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Retransmission lost message received");
+        }
+
+        // Deserialize the header to get the id of the publisher that sent the message
+        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // Make sure the last sequence number is there
+        if (this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset() < UnsafeBufferSerializer.LONG_SIZE)
+        {
+            log.warn("Malformed retransmission lost message received from topic publisher [{}]", this.reusableDataMsgHeader.getTopicPublisherId());
+            return;
+        }
+
+        this.listener.onRetransmitLostReceived(this.reusableDataMsgHeader, this.bufferSerializer.readLong());
+    }
+
+    /** Process a message of the last value snapshot of a topic publisher that has already been wrapped on the buffer serializer */
+    private void processSnapshotDataMessage()
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Snapshot data message received");
+        }
+
+        // Deserialize the header to get the id of the publisher that sent the message
+        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // Set the fields of the reusable received msg
+        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceIdMsb(), this.reusableDataMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherIdMsb(), this.reusableDataMsgHeader.getTopicPublisherIdLsb());
+        this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+        this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+        this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
+
+        this.listener.onSnapshotDataMsgReceived(this.reusableReceivedMsg);
+    }
+
+    /** Process the end of the last value snapshot of a topic publisher, the header contains the last sequence number covered by the snapshot */
+    private void processSnapshotEndMessage()
+    {
+        if (log.isTraceEnabled())
+        {
+            log.trace("Snapshot end message received");
+        }
+
+        // Deserialize the header to get the id of the publisher that sent the message
+        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        this.listener.onSnapshotEndReceived(this.reusableDataMsgHeader);
+    }
+
+    /**
+     * Process a message of type encrypted data that has already been wrapped on the buffer serializer
+     *
+     * @param msgType the type of the message, it tells the cipher used to encrypt it
+     */
+    private void processEncryptedDataMessage(final byte msgType)
     {
         if (log.isTraceEnabled())
         {
@@ -219,14 +687,21 @@ class SubcribersPoller extends RecurrentTask
         this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
 
         // Set the fields of the reusable received msg
-        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceId());
-        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherId());
+        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceIdMsb(), this.reusableDataMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherIdMsb(), this.reusableDataMsgHeader.getTopicPublisherIdLsb());
         this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
         this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
         this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
 
-        this.listener.onEncryptedDataMsgReceived(this.reusableReceivedMsg);
+        if (msgType == MsgType.ENCRYPTED_DATA_GCM)
+        {
+            this.listener.onGcmEncryptedDataMsgReceived(this.reusableReceivedMsg);
+        }
+        else
+        {
+            this.listener.onEncryptedDataMsgReceived(this.reusableReceivedMsg);
+        }
     }
 
     /** Process a message of type data response that has already been wrapped on the buffer serializer */
@@ -241,8 +716,8 @@ class SubcribersPoller extends RecurrentTask
         this.reusableRespMsgHeader.fromBinary(this.bufferSerializer);
 
         // Set the fields of the reusable received request
-        this.reusableReceivedResponse.setInstanceId(this.reusableRespMsgHeader.getInstanceId());
-        this.reusableReceivedResponse.setOriginalRequestId(this.reusableRespMsgHeader.getRequestId());
+        this.reusableReceivedResponse.setInstanceId(this.reusableRespMsgHeader.getInstanceIdMsb(), this.reusableRespMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedResponse.setOriginalRequestId(this.reusableRespMsgHeader.getRequestIdMsb(), this.reusableRespMsgHeader.getRequestIdLsb());
         this.reusableReceivedResponse.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
         this.reusableReceivedResponse.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedResponse.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
@@ -262,10 +737,10 @@ class SubcribersPoller extends RecurrentTask
         this.reusableReqMsgHeader.fromBinary(this.bufferSerializer);
 
         // Set the fields of the reusable received request
-        this.reusableReceivedRequest.setInstanceId(this.reusableReqMsgHeader.getInstanceId());
-        this.reusableReceivedRequest.setTopicPublisherId(this.reusableReqMsgHeader.getTopicPublisherId());
+        this.reusableReceivedRequest.setInstanceId(this.reusableReqMsgHeader.getInstanceIdMsb(), this.reusableReqMsgHeader.getInstanceIdLsb());
+        this.reusableReceivedRequest.setTopicPublisherId(this.reusableReqMsgHeader.getTopicPublisherIdMsb(), this.reusableReqMsgHeader.getTopicPublisherIdLsb());
         this.reusableReceivedRequest.setSequenceNumber(this.reusableReqMsgHeader.getSequenceNumber());
-        this.reusableReceivedRequest.setRequestId(this.reusableReqMsgHeader.getRequestId());
+        this.reusableReceivedRequest.setRequestId(this.reusableReqMsgHeader.getRequestIdMsb(), this.reusableReqMsgHeader.getRequestIdLsb());
         this.reusableReceivedRequest.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
         this.reusableReceivedRequest.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedRequest.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
@@ -287,4 +762,17 @@ class SubcribersPoller extends RecurrentTask
         // Give the heartbeat request to the listener
         this.listener.onHeartbeatRequestMsgReceived(this.reusableReqMsgHeader);
     }
+
+    /**
+     * Subscription waiting to be released with the action to run once released
+     */
+    @AllArgsConstructor
+    private static final class PendingRelease
+    {
+        /** Subscription to release */
+        private final AeronSubscriber subscription;
+
+        /** Action to run once released */
+        private final Runnable onReleased;
+    }
 }
@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import lombok.extern.slf4j.Slf4j;
@@ -37,13 +38,15 @@ class SubscribersManagerIpcMcast extends AbstractSubscribersManager
      * @param pollersManager manager that handle the pollers
      * @param topicSubAndTopicPubIdRelations relationships between topic subscribers and topic publishers
      * @param subSecurityNotifier notifier for security changes
+     * @param retransmitRequester requester for the retransmission of lost messages of the topic subscribers
      */
     SubscribersManagerIpcMcast(final VegaContext vegaContext,
                                final SubscribersPollersManager pollersManager,
                                final TopicSubAndTopicPubIdRelations topicSubAndTopicPubIdRelations,
-                               final ISecurityRequesterNotifier subSecurityNotifier)
+                               final ISecurityRequesterNotifier subSecurityNotifier,
+                               final IRetransmitRequester retransmitRequester)
     {
-        super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, subSecurityNotifier);
+        super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, subSecurityNotifier, retransmitRequester);
     }
 
     @Override
@@ -108,9 +111,17 @@ class SubscribersManagerIpcMcast extends AbstractSubscribersManager
                 this.subscriberByParams.put(aeronSubscriberParams, aeronSubscriber);
 
                 // Add to the poller
-                this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber);
+                this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber, topicSubscriber.getTopicName());
+            }
+            else
+            {
+                // The subscriber is shared with other topics, keep the topic in the same poller thread
+                this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscriptionTopic(aeronSubscriber, topicSubscriber.getTopicName());
             }
 
+            // Register the header alias if the publisher sends compact data messages
+            aeronSubscriber.getHeaderAliasTable().addAlias(publisherTopicSocketInfo);
+
             // Add all the relations between the topic socket id and the topic subscriber and aeron subscriber
             this.aeronSubByPubTopicSocketId.put(publisherTopicSocketInfo.getUniqueId(), aeronSubscriber);
             this.pubTopicSocketIdByAeronSub.put(aeronSubscriber, publisherTopicSocketInfo.getUniqueId());
@@ -168,6 +179,9 @@ class SubscribersManagerIpcMcast extends AbstractSubscribersManager
         // Remove it also from the topic socket id's related to the aeron subscriber
         this.pubTopicSocketIdByAeronSub.remove(aeronSubscriber, pubTopicSocketId);
 
+        // Remove the header alias if any
+        aeronSubscriber.getHeaderAliasTable().removeAlias(pubTopicSocketId);
+
         // If there are no more topic socket ids for the Aeron Subscriber, we should close it
         if (!this.pubTopicSocketIdByAeronSub.containsKey(aeronSubscriber))
         {
@@ -7,6 +7,7 @@ import com.bbva.kyof.vega.config.general.ResponsesConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
@@ -48,13 +49,15 @@ final class SubscribersManagerUnicast extends AbstractSubscribersManager
      * @param pollersManager manager that handle the pollers
      * @param topicSubAndTopicPubIdRelations relationships between topic subscribers and topic publishers
      * @param subSecurityNotifier notifier for security changes
+     * @param retransmitRequester requester for the retransmission of lost messages of the topic subscribers
      */
     SubscribersManagerUnicast(final VegaContext vegaContext,
                               final SubscribersPollersManager pollersManager,
                               final TopicSubAndTopicPubIdRelations topicSubAndTopicPubIdRelations,
-                              final ISecurityRequesterNotifier subSecurityNotifier)
+                              final ISecurityRequesterNotifier subSecurityNotifier,
+                              final IRetransmitRequester retransmitRequester)
     {
-        super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, subSecurityNotifier);
+        super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, subSecurityNotifier, retransmitRequester);
 
         // Create the receiver for unicast responses
         this.responsesSubscriber = this.createResponsesSubscriber();
@@ -79,7 +82,12 @@ final class SubscribersManagerUnicast extends AbstractSubscribersManager
             this.subscribersByParams.put(aeronSubscriberParams, aeronSubscriber);
 
             // Add to the poller
-            this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber);
+            this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber, topicSubscriber.getTopicName());
+        }
+        else
+        {
+            // The subscriber is shared with other topics, keep the topic in the same poller thread
+            this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscriptionTopic(aeronSubscriber, topicSubscriber.getTopicName());
         }
 
         // Add the related topic to the aeron publisher, there can be more than one since we are reusing
@@ -0,0 +1,751 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.PollingModeType;
+import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group with the poller threads of a poller configuration. <p>
+ *
+ * The Aeron subscribers are assigned to the thread with less load when added. With more than one thread the number of fragments
+ * per second polled from each subscriber is measured periodically, and a subscriber of the most loaded thread is moved to the
+ * least loaded thread when the difference is big enough. Only one subscriber is moved on each period to prevent oscillations. <p>
+ *
+ * A moved subscriber is released by its current thread before being added to the new one, a subscriber is never polled by 2 threads
+ * at the same time and the order of the messages of each topic publisher is kept. <p>
+ *
+ * An Aeron subscriber is shared by all the topics with the same parameters, and a topic may have several subscribers. The subscribers
+ * linked by their topics are kept in the same thread, the listeners of a topic are not called from 2 threads at the same time. When a
+ * topic links 2 sets of subscribers on different threads, the smaller set is moved to the thread of the other one. Only the subscribers
+ * that don't share a thread with other subscribers are moved by the rebalance. The subscribers stay together until they are removed. <p>
+ *
+ * The rebalance runs as a recurrent task on the runner of the background tasks of the instance. <p>
+ *
+ * All the threads of the group share the same decryption pool. <p>
+ *
+ * With APPLICATION polling mode the group has a single poller whose thread is never started, the application polls it by calling
+ * {@link #poll(int)} from its own thread. <p>
+ *
+ * This class is thread safe!
+ */
+@Slf4j
+class SubscribersPollerGroup implements Closeable
+{
+    /** Period of the rebalance of the subscribers between the threads in nanoseconds */
+    private static final long REBALANCE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Value of the rebalance target of the moves that are not performed by a rebalance */
+    private static final int NO_REBALANCE_TARGET = -1;
+
+    /** Min difference of polled fragments per second between the most and least loaded threads to move a subscriber */
+    private static final long MIN_IMBALANCE_FRAGMENTS_PER_SEC = 1000;
+
+    /** Configuration of the poller */
+    @Getter private final RcvPollerConfig config;
+
+    /** Poller threads of the group */
+    @Getter(AccessLevel.PACKAGE) private final SubcribersPoller[] pollers;
+
+    /** Pool that decrypts the messages of the secured topics of all the threads, null if they are decrypted by the poller threads */
+    @Getter private final SecureMsgsDecryptionPool decryptionPool;
+
+    /** Thread assigned to each subscriber of the group */
+    private final Map<AeronSubscriber, Assignment> assignmentsBySubscriber = new HashMap<>();
+
+    /** Shared thread of the subscribers of each topic */
+    private final Map<String, TopicAssignment> assignmentsByTopic = new HashMap<>();
+
+    /** Task that rebalances the subscribers, null if the group has only one thread */
+    private final RebalanceTask rebalanceTask;
+
+    /** True if the rebalance task has been started */
+    private boolean rebalanceStarted = false;
+
+    /** Time of the last rebalance in nanos */
+    private long lastRebalanceNanos = System.nanoTime();
+
+    /** True if the poller is polled by the application instead of its own thread */
+    @Getter private final boolean applicationPolled;
+
+    /** True if the group has been closed */
+    private volatile boolean closed = false;
+
+    /** Lock for instance synchronization */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new group with the threads of the configuration
+     *
+     * @param listener listener that will receive the polled messages
+     * @param config poller configuration
+     */
+    SubscribersPollerGroup(final ISubscribersPollerListener listener, final RcvPollerConfig config)
+    {
+        this.config = config;
+        this.applicationPolled = config.getPollingMode() == PollingModeType.APPLICATION;
+
+        final int numThreads = config.getNumThreads();
+
+        // Create the decryption threads if configured, shared by all the poller threads
+        if (config.getDecryptionThreads() != null && config.getDecryptionThreads() > 0)
+        {
+            this.decryptionPool = new SecureMsgsDecryptionPool(config.getName(), config.getDecryptionThreads(), numThreads > 1);
+        }
+        else
+        {
+            this.decryptionPool = null;
+        }
+
+        this.pollers = new SubcribersPoller[numThreads];
+
+        for (int i = 0; i < numThreads; i++)
+        {
+            this.pollers[i] = new SubcribersPoller(listener, config, i, this.decryptionPool);
+        }
+
+        // The subscribers are only rebalanced if there are several threads
+        if (numThreads > 1)
+        {
+            this.rebalanceTask = new RebalanceTask();
+        }
+        else
+        {
+            this.rebalanceTask = null;
+        }
+    }
+
+    /**
+     * Start the poller threads, each one in its own thread. Nothing is started if the poller is polled by the application
+     */
+    void start()
+    {
+        this.start(TasksRunner.dedicated());
+    }
+
+    /**
+     * Start the poller threads, nothing is started if the poller is polled by the application
+     *
+     * @param tasksRunner runner of the background tasks of the instance
+     */
+    void start(final TasksRunner tasksRunner)
+    {
+        if (this.applicationPolled)
+        {
+            log.info("Created poller group with name [{}] polled by the application", this.config.getName());
+            return;
+        }
+
+        log.info("Starting poller group with name [{}] and [{}] threads", this.config.getName(), this.pollers.length);
+
+        for (final SubcribersPoller poller : this.pollers)
+        {
+            poller.start(tasksRunner);
+        }
+
+        if (this.rebalanceTask != null)
+        {
+            synchronized (this.lock)
+            {
+                // If closed it won't be stopped by the close
+                if (this.closed)
+                {
+                    return;
+                }
+
+                this.rebalanceStarted = true;
+            }
+
+            tasksRunner.start(this.rebalanceTask, "SubscribersPollerRebalance_" + this.config.getName());
+        }
+    }
+
+    /**
+     * Run a single duty cycle of the poller from the calling thread. Only for pollers with APPLICATION polling mode, it should be
+     * called always from the same thread and not at the same time the group is closed.
+     *
+     * @param fragmentLimit max number of fragments to poll from each subscriber
+     * @return the number of polled fragments, 0 if the group has been closed
+     */
+    int poll(final int fragmentLimit)
+    {
+        if (this.closed)
+        {
+            return 0;
+        }
+
+        return this.pollers[0].pollSubscribers(fragmentLimit);
+    }
+
+    /**
+     * Add a subscription that is not related to a topic to the thread with less load
+     * @param subscription the aeron subscription to poll
+     */
+    void addSubscription(final AeronSubscriber subscription)
+    {
+        this.addSubscription(subscription, null);
+    }
+
+    /**
+     * Add a subscription to the thread of the other subscriptions of the topic, or to the thread with less load if it is the first one.
+     * If the subscription has already been added the topic is linked to it.
+     *
+     * @param subscription the aeron subscription to poll
+     * @param topicName name of the topic the subscription has been created for, null if it is not related to a topic
+     */
+    void addSubscription(final AeronSubscriber subscription, final String topicName)
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            Assignment assignment = this.assignmentsBySubscriber.get(subscription);
+
+            if (assignment == null)
+            {
+                final TopicAssignment topicAssignment = topicName == null ? null : this.assignmentsByTopic.get(topicName);
+                final SharedThread sharedThread = topicAssignment == null ? new SharedThread(this.findLeastLoadedPoller()) : topicAssignment.sharedThread;
+
+                assignment = new Assignment(sharedThread.pollerIndex, subscription.getPolledFragments(), sharedThread);
+                sharedThread.numSubscribers++;
+
+                this.assignmentsBySubscriber.put(subscription, assignment);
+                this.pollers[assignment.pollerIndex].addSubscription(subscription);
+            }
+
+            this.linkTopic(assignment, topicName);
+        }
+    }
+
+    /**
+     * Link another topic to a subscription that is shared by several topics, the subscriptions of the topic are kept in the same thread.
+     * Nothing is done if the subscription has not been added to this group.
+     *
+     * @param subscription the shared aeron subscription
+     * @param topicName name of the topic that uses the subscription
+     */
+    void addSubscriptionTopic(final AeronSubscriber subscription, final String topicName)
+    {
+        synchronized (this.lock)
+        {
+            final Assignment assignment = this.assignmentsBySubscriber.get(subscription);
+
+            if (!this.closed && assignment != null)
+            {
+                this.linkTopic(assignment, topicName);
+            }
+        }
+    }
+
+    /**
+     * Remove a subscription from the group
+     * @param subscription the subscription to remove from the group
+     */
+    void removeSubscription(final AeronSubscriber subscription)
+    {
+        synchronized (this.lock)
+        {
+            final Assignment assignment = this.assignmentsBySubscriber.remove(subscription);
+
+            // If it is being moved, the release will find it removed and won't add it to the new thread
+            if (assignment != null)
+            {
+                this.pollers[assignment.pollerIndex].removeSubscription(subscription);
+                this.unlinkTopics(assignment);
+            }
+        }
+    }
+
+    /**
+     * Link a topic to a subscription. If the topic already has subscriptions on another shared thread, both are joined and the
+     * subscriptions of the smaller one are moved to the thread of the bigger one.
+     *
+     * @param assignment the assignment of the subscription
+     * @param topicName name of the topic, null if it is not related to a topic
+     */
+    private void linkTopic(final Assignment assignment, final String topicName)
+    {
+        if (topicName == null || !assignment.topicNames.add(topicName))
+        {
+            return;
+        }
+
+        final TopicAssignment topicAssignment = this.assignmentsByTopic.get(topicName);
+
+        if (topicAssignment == null)
+        {
+            this.assignmentsByTopic.put(topicName, new TopicAssignment(assignment.sharedThread));
+            return;
+        }
+
+        topicAssignment.numSubscribers++;
+
+        if (topicAssignment.sharedThread != assignment.sharedThread)
+        {
+            if (topicAssignment.sharedThread.numSubscribers > assignment.sharedThread.numSubscribers)
+            {
+                this.joinSharedThreads(assignment.sharedThread, topicAssignment.sharedThread);
+            }
+            else
+            {
+                this.joinSharedThreads(topicAssignment.sharedThread, assignment.sharedThread);
+            }
+        }
+    }
+
+    /**
+     * Join 2 shared threads, the subscriptions of the source one that are on another thread are moved to the thread of the target one.
+     * The messages already polled by the source thread before the release are still delivered from it.
+     *
+     * @param source the shared thread whose subscriptions are moved
+     * @param target the shared thread that keeps its thread
+     */
+    private void joinSharedThreads(final SharedThread source, final SharedThread target)
+    {
+        log.debug("Joining [{}] subscribers of poller thread [{}] with [{}] subscribers of poller thread [{}] in poller [{}], they share topics",
+                source.numSubscribers, source.pollerIndex, target.numSubscribers, target.pollerIndex, this.config.getName());
+
+        target.numSubscribers += source.numSubscribers;
+
+        for (final TopicAssignment topicAssignment : this.assignmentsByTopic.values())
+        {
+            if (topicAssignment.sharedThread == source)
+            {
+                topicAssignment.sharedThread = target;
+            }
+        }
+
+        for (final Map.Entry<AeronSubscriber, Assignment> entry : this.assignmentsBySubscriber.entrySet())
+        {
+            final Assignment assignment = entry.getValue();
+
+            if (assignment.sharedThread == source)
+            {
+                assignment.sharedThread = target;
+
+                // The subscriptions being moved are added to the thread of the target once released
+                if (assignment.pollerIndex != target.pollerIndex && !assignment.isMoving)
+                {
+                    this.moveSubscription(entry.getKey(), assignment, NO_REBALANCE_TARGET);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the topics of a removed subscription, the other subscriptions of its shared thread stay together
+     *
+     * @param assignment the assignment of the removed subscription
+     */
+    private void unlinkTopics(final Assignment assignment)
+    {
+        assignment.sharedThread.numSubscribers--;
+
+        for (final String topicName : assignment.topicNames)
+        {
+            final TopicAssignment topicAssignment = this.assignmentsByTopic.get(topicName);
+
+            if (topicAssignment != null && --topicAssignment.numSubscribers == 0)
+            {
+                this.assignmentsByTopic.remove(topicName);
+            }
+        }
+    }
+
+    /**
+     * Check if a subscription can be moved to another thread by the rebalance, the subscriptions linked by their topics are kept together
+     *
+     * @param assignment the assignment of the subscription
+     * @return true if it can be moved
+     */
+    private boolean isMovable(final Assignment assignment)
+    {
+        return assignment.sharedThread.numSubscribers == 1;
+    }
+
+    /**
+     * Add a topic subscriber whose timeouts should be checked periodically. They are checked by the first thread of the group,
+     * the topic subscriber state is thread safe.
+     *
+     * @param topicSubscriber the topic subscriber to check
+     */
+    void addTimedTopicSubscriber(final TopicSubscriber topicSubscriber)
+    {
+        this.pollers[0].addTimedTopicSubscriber(topicSubscriber);
+    }
+
+    /**
+     * Stop checking the timeouts of a topic subscriber
+     * @param topicSubscriber the topic subscriber to remove
+     */
+    void removeTimedTopicSubscriber(final TopicSubscriber topicSubscriber)
+    {
+        this.pollers[0].removeTimedTopicSubscriber(topicSubscriber);
+    }
+
+    /**
+     * Find the thread with less polled fragments per second, or less subscribers if they have the same load
+     *
+     * @return the index of the thread
+     */
+    private int findLeastLoadedPoller()
+    {
+        final long[] fragmentsPerSec = new long[this.pollers.length];
+        final int[] numSubscribers = new int[this.pollers.length];
+
+        for (final Assignment assignment : this.assignmentsBySubscriber.values())
+        {
+            fragmentsPerSec[assignment.pollerIndex] += assignment.fragmentsPerSec;
+            numSubscribers[assignment.pollerIndex]++;
+        }
+
+        int result = 0;
+        for (int i = 1; i < this.pollers.length; i++)
+        {
+            if (fragmentsPerSec[i] < fragmentsPerSec[result] ||
+                    (fragmentsPerSec[i] == fragmentsPerSec[result] && numSubscribers[i] < numSubscribers[result]))
+            {
+                result = i;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Measure the load of each subscriber since the last rebalance and move a subscriber from the most loaded thread to the least
+     * loaded one if the difference is big enough
+     */
+    void rebalance()
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            final long now = System.nanoTime();
+            final long elapsedNanos = Math.max(1, now - this.lastRebalanceNanos);
+            this.lastRebalanceNanos = now;
+
+            final long[] fragmentsPerSec = new long[this.pollers.length];
+            boolean isMoving = false;
+
+            // Update the polled fragments per second of each subscriber and the load of each thread
+            for (final Map.Entry<AeronSubscriber, Assignment> entry : this.assignmentsBySubscriber.entrySet())
+            {
+                final Assignment assignment = entry.getValue();
+                final long polledFragments = entry.getKey().getPolledFragments();
+
+                assignment.fragmentsPerSec = (polledFragments - assignment.lastPolledFragments) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+                assignment.lastPolledFragments = polledFragments;
+
+                fragmentsPerSec[assignment.pollerIndex] += assignment.fragmentsPerSec;
+                isMoving |= assignment.isMoving;
+            }
+
+            // Wait for the previous move to finish
+            if (isMoving)
+            {
+                return;
+            }
+
+            int mostLoaded = 0;
+            int leastLoaded = 0;
+            for (int i = 1; i < this.pollers.length; i++)
+            {
+                if (fragmentsPerSec[i] > fragmentsPerSec[mostLoaded])
+                {
+                    mostLoaded = i;
+                }
+                if (fragmentsPerSec[i] < fragmentsPerSec[leastLoaded])
+                {
+                    leastLoaded = i;
+                }
+            }
+
+            final long imbalance = fragmentsPerSec[mostLoaded] - fragmentsPerSec[leastLoaded];
+
+            if (imbalance < MIN_IMBALANCE_FRAGMENTS_PER_SEC)
+            {
+                return;
+            }
+
+            // Look for the subscriber that leaves both threads closer to the same load, it should reduce the imbalance
+            AeronSubscriber bestSubscriber = null;
+            Assignment bestAssignment = null;
+            long bestRemainingImbalance = imbalance;
+
+            for (final Map.Entry<AeronSubscriber, Assignment> entry : this.assignmentsBySubscriber.entrySet())
+            {
+                final Assignment assignment = entry.getValue();
+
+                if (assignment.pollerIndex == mostLoaded && assignment.fragmentsPerSec > 0 && this.isMovable(assignment))
+                {
+                    final long remainingImbalance = Math.abs(imbalance - 2 * assignment.fragmentsPerSec);
+
+                    if (remainingImbalance < bestRemainingImbalance)
+                    {
+                        bestRemainingImbalance = remainingImbalance;
+                        bestSubscriber = entry.getKey();
+                        bestAssignment = assignment;
+                    }
+                }
+            }
+
+            if (bestSubscriber != null)
+            {
+                this.moveSubscription(bestSubscriber, bestAssignment, leastLoaded);
+            }
+        }
+    }
+
+    /**
+     * Move a subscription to another thread. The current thread releases it first and then it is added to the new one.
+     *
+     * @param subscription the subscription to move
+     * @param assignment the current assignment of the subscription
+     * @param rebalanceTarget index of the new thread of a rebalance, {@link #NO_REBALANCE_TARGET} to move it to the thread of its shared thread
+     */
+    private void moveSubscription(final AeronSubscriber subscription, final Assignment assignment, final int rebalanceTarget)
+    {
+        log.debug("Moving subscriber [{}] with [{}] fragments per second from poller thread [{}] to [{}] in poller [{}]",
+                subscription.getParams(), assignment.fragmentsPerSec, assignment.pollerIndex,
+                rebalanceTarget == NO_REBALANCE_TARGET ? assignment.sharedThread.pollerIndex : rebalanceTarget, this.config.getName());
+
+        final int sourceIndex = assignment.pollerIndex;
+        assignment.isMoving = true;
+
+        if (!this.pollers[sourceIndex].releaseSubscription(subscription, () -> this.onSubscriptionReleased(subscription, assignment, sourceIndex, rebalanceTarget)))
+        {
+            log.warn("Too many pending releases, subscriber [{}] stays in poller thread [{}] of poller [{}]", subscription.getParams(), sourceIndex, this.config.getName());
+            assignment.isMoving = false;
+        }
+    }
+
+    /**
+     * Called from the source poller thread once a moving subscription is not polled any more. It is added to the target of the
+     * rebalance if it still doesn't share a thread with other subscriptions, otherwise to the thread of its shared thread.
+     *
+     * @param subscription the released subscription
+     * @param assignment the assignment of the subscription when the move started
+     * @param sourceIndex index of the thread that has released the subscription
+     * @param rebalanceTarget index of the new thread of a rebalance, {@link #NO_REBALANCE_TARGET} if it is not a rebalance
+     */
+    private void onSubscriptionReleased(final AeronSubscriber subscription, final Assignment assignment, final int sourceIndex, final int rebalanceTarget)
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            final Assignment currentAssignment = this.assignmentsBySubscriber.get(subscription);
+
+            if (currentAssignment == assignment)
+            {
+                if (rebalanceTarget != NO_REBALANCE_TARGET && this.isMovable(assignment))
+                {
+                    assignment.sharedThread.pollerIndex = rebalanceTarget;
+                }
+
+                assignment.pollerIndex = assignment.sharedThread.pollerIndex;
+                assignment.isMoving = false;
+                this.pollers[assignment.pollerIndex].addSubscription(subscription);
+            }
+            else if (currentAssignment != null && currentAssignment.pollerIndex == sourceIndex)
+            {
+                // Removed and added again to the same thread while it was being released
+                this.pollers[sourceIndex].addSubscription(subscription);
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        log.info("Stopping poller group [{}]", this.config.getName());
+
+        final boolean stopRebalance;
+        synchronized (this.lock)
+        {
+            this.closed = true;
+
+            stopRebalance = this.rebalanceStarted;
+            this.rebalanceStarted = false;
+        }
+
+        // Stop the rebalance, the close waits for the task if it is running
+        if (stopRebalance)
+        {
+            this.rebalanceTask.close();
+        }
+
+        // Stop all the poller threads, if polled by the application there is no thread to wait for
+        for (final SubcribersPoller poller : this.pollers)
+        {
+            if (this.applicationPolled)
+            {
+                poller.cleanUp();
+            }
+            else
+            {
+                poller.close();
+            }
+        }
+
+        // The pollers are not submitting messages any more, stop the decryption threads
+        if (this.decryptionPool != null)
+        {
+            this.decryptionPool.close();
+        }
+
+        synchronized (this.lock)
+        {
+            this.assignmentsBySubscriber.clear();
+            this.assignmentsByTopic.clear();
+        }
+    }
+
+    /**
+     * Thread assigned to a subscriber and the measured load of the subscriber.
+     *
+     * Only accessed with the lock of the group taken.
+     */
+    private static final class Assignment
+    {
+        /** Index of the thread that polls the subscriber, or releases it while it is being moved */
+        private int pollerIndex;
+
+        /** Polled fragments of the subscriber on the last rebalance */
+        private long lastPolledFragments;
+
+        /** Polled fragments per second measured on the last rebalance */
+        private long fragmentsPerSec = 0;
+
+        /** True if the subscriber is being moved to another thread */
+        private boolean isMoving = false;
+
+        /** Thread shared with the subscribers linked to it by their topics */
+        private SharedThread sharedThread;
+
+        /** Names of the topics the subscriber has been added for */
+        private final Set<String> topicNames = new HashSet<>();
+
+        /**
+         * Create a new assignment
+         *
+         * @param pollerIndex index of the thread that polls the subscriber
+         * @param lastPolledFragments current polled fragments of the subscriber
+         * @param sharedThread thread shared with the subscribers linked to it by their topics
+         */
+        private Assignment(final int pollerIndex, final long lastPolledFragments, final SharedThread sharedThread)
+        {
+            this.pollerIndex = pollerIndex;
+            this.lastPolledFragments = lastPolledFragments;
+            this.sharedThread = sharedThread;
+        }
+    }
+
+    /**
+     * Thread shared by a set of subscribers linked by their topics, a subscriber without topics in common has its own.
+     *
+     * Only accessed with the lock of the group taken.
+     */
+    private static final class SharedThread
+    {
+        /** Index of the thread that polls the subscribers */
+        private int pollerIndex;
+
+        /** Number of subscribers that share the thread */
+        private int numSubscribers = 0;
+
+        /**
+         * Create a new shared thread without subscribers
+         *
+         * @param pollerIndex index of the thread that polls the subscribers
+         */
+        private SharedThread(final int pollerIndex)
+        {
+            this.pollerIndex = pollerIndex;
+        }
+    }
+
+    /**
+     * Shared thread of the subscribers of a topic.
+     *
+     * Only accessed with the lock of the group taken.
+     */
+    private static final class TopicAssignment
+    {
+        /** Thread shared by the subscribers of the topic */
+        private SharedThread sharedThread;
+
+        /** Number of subscribers of the topic in the group */
+        private int numSubscribers = 1;
+
+        /**
+         * Create a new topic assignment with its first subscriber
+         *
+         * @param sharedThread thread shared by the subscribers of the topic
+         */
+        private TopicAssignment(final SharedThread sharedThread)
+        {
+            this.sharedThread = sharedThread;
+        }
+    }
+
+    /**
+     * Recurrent task that rebalances the subscribers periodically
+     */
+    private class RebalanceTask extends RecurrentTask
+    {
+        /** Time of the next rebalance in nanos */
+        private long nextRebalanceNanos = System.nanoTime() + REBALANCE_PERIOD_NANOS;
+
+        /**
+         * Create a new rebalance task
+         */
+        private RebalanceTask()
+        {
+            // 1 Millisecond idle strategy, the rebalance is not in the critical path
+            super(new SleepingMillisIdleStrategy(1));
+        }
+
+        @Override
+        public int action()
+        {
+            final long now = System.nanoTime();
+
+            if (now - this.nextRebalanceNanos >= 0)
+            {
+                this.nextRebalanceNanos = now + REBALANCE_PERIOD_NANOS;
+                rebalance();
+            }
+
+            return 0;
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            // Nothing to clean
+        }
+    }
+}
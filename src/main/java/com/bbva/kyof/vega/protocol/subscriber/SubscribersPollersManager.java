@@ -1,29 +1,34 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.config.general.PollingModeType;
 import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manager that handles all the pollers that are active in the instance.
+ * Manager that handles all the pollers that are active in the instance. Each poller is a group with the threads of the
+ * poller configuration.
  *
  * This class is thread safe!
  */
 @Slf4j
 class SubscribersPollersManager implements Closeable
 {
-    /** Store all subscriber pollers by poller configuration name */
-    private final Map<String, SubcribersPoller> subscriberPollersByName = new HashMap<>();
+    /** Store all subscriber poller groups by poller configuration name, it is read without the lock by the application polls */
+    private final Map<String, SubscribersPollerGroup> subscriberPollersByName = new ConcurrentHashMap<>();
     /** Library instance context */
     private final VegaContext vegaContext;
     /** Listener for incoming messages from the pollers */
     private final ISubscribersPollerListener listener;
     /** Lock for instance synchronization */
     private final Object lock = new Object();
+    /** True if the manager has been closed */
+    private boolean closed = false;
 
     /**
      * Create a new manager instance
@@ -42,11 +47,11 @@ class SubscribersPollersManager implements Closeable
      * @param pollerName the name of the poller
      * @return the created poller or an existing one if it was already created
      */
-    SubcribersPoller getPoller(final String pollerName)
+    SubscribersPollerGroup getPoller(final String pollerName)
     {
         synchronized (this.lock)
         {
-            SubcribersPoller poller = this.subscriberPollersByName.get(pollerName);
+            SubscribersPollerGroup poller = this.subscriberPollersByName.get(pollerName);
 
             if (poller == null)
             {
@@ -58,9 +63,9 @@ class SubscribersPollersManager implements Closeable
                     throw new IllegalArgumentException("No configuration found for poller name " + pollerName);
                 }
 
-                poller = new SubcribersPoller(this.listener, pollerConfig);
+                poller = new SubscribersPollerGroup(this.listener, pollerConfig);
                 this.subscriberPollersByName.put(pollerName, poller);
-                poller.start();
+                poller.start(this.vegaContext.getTasksRunner());
                 return poller;
             }
             else
@@ -70,6 +75,64 @@ class SubscribersPollersManager implements Closeable
         }
     }
 
+    /**
+     * Run a single duty cycle of a poller with APPLICATION polling mode from the calling thread. The poller is created on the first call
+     * if no topic has created it yet.
+     *
+     * @param pollerName the name of the poller
+     * @param fragmentLimit max number of fragments to poll from each subscriber of the poller
+     * @return the number of polled fragments
+     * @throws VegaException exception thrown if the poller is not configured or it is not polled by the application
+     */
+    int poll(final String pollerName, final int fragmentLimit) throws VegaException
+    {
+        SubscribersPollerGroup poller = this.subscriberPollersByName.get(pollerName);
+
+        if (poller == null)
+        {
+            poller = this.getApplicationPoller(pollerName);
+
+            if (poller == null)
+            {
+                return 0;
+            }
+        }
+
+        if (!poller.isApplicationPolled())
+        {
+            throw new VegaException("The poller " + pollerName + " is not configured with APPLICATION polling mode");
+        }
+
+        return poller.poll(fragmentLimit);
+    }
+
+    /**
+     * Get or create a poller to be polled by the application
+     *
+     * @param pollerName the name of the poller
+     * @return the poller, null if the manager has been closed
+     * @throws VegaException exception thrown if the poller is not configured or it is not polled by the application
+     */
+    private SubscribersPollerGroup getApplicationPoller(final String pollerName) throws VegaException
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return null;
+            }
+
+            final RcvPollerConfig pollerConfig = this.vegaContext.getInstanceConfig().getPollerConfigForPollerName(pollerName);
+
+            if (pollerConfig == null || pollerConfig.getPollingMode() != PollingModeType.APPLICATION)
+            {
+                throw new VegaException("The poller " + pollerName + " is not configured with APPLICATION polling mode");
+            }
+
+            return this.getPoller(pollerName);
+        }
+    }
+
     @Override
     public void close()
     {
@@ -78,10 +141,12 @@ class SubscribersPollersManager implements Closeable
         synchronized (this.lock)
         {
             // Stop all pollers
-            this.subscriberPollersByName.values().forEach(SubcribersPoller::close);
+            this.subscriberPollersByName.values().forEach(SubscribersPollerGroup::close);
 
             // Clear the map
             this.subscriberPollersByName.clear();
+
+            this.closed = true;
         }
     }
 }
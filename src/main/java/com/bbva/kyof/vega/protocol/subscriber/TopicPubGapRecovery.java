@@ -0,0 +1,483 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the order of the messages received from a single topic publisher and recovers the gaps asking the topic publisher
+ * for the retransmission of the lost messages. <p>
+ *
+ * While there is a gap the new messages are promoted and held in a reorder window, they are delivered in order once the
+ * gap is filled. The messages that cannot be recovered before the timeout, or that the topic publisher cannot retransmit,
+ * are reported as lost. <p>
+ *
+ * The retransmission requests that cannot be sent are retried periodically and the timeouts are checked both on each event
+ * received and periodically from the poller duty cycle, so the held messages are delivered even if the topic publisher stops sending. <p>
+ *
+ * The messages can be received concurrently from the topic poller and the responses poller, all the methods are synchronized.
+ */
+@Slf4j
+class TopicPubGapRecovery
+{
+    /** Marker stored in the window for sequence numbers that cannot be retransmitted */
+    private static final Object LOST = new Object();
+
+    /** Marker stored in the window for sequence numbers that don't have to be delivered, heartbeats */
+    private static final Object SKIP = new Object();
+
+    /** Time between retries of a retransmission request that could not be sent */
+    private static final long NAK_RETRY_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Receiver of the recovered messages in order
+     */
+    interface IRecoveredMsgsListener
+    {
+        /**
+         * Called with each message or request to deliver in order
+         * @param msg the message, a {@link com.bbva.kyof.vega.msg.RcvRequest} for requests
+         */
+        void onRecoveredMsg(RcvMessage msg);
+
+        /**
+         * Called when a group of consecutive messages has been lost
+         * @param recovery the recovery the lost messages belong to
+         * @param numLostMsgs number of lost messages
+         */
+        void onRecoveryMsgsLost(TopicPubGapRecovery recovery, long numLostMsgs);
+    }
+
+    /** Unique id of the instance of the topic publisher */
+    @Getter private final UUID instanceId;
+
+    /** Unique id of the topic publisher */
+    @Getter private final UUID topicPublisherId;
+
+    /** Requester for the retransmissions */
+    private final IRetransmitRequester retransmitRequester;
+
+    /** Number of sequence numbers ahead of the expected one that can be held */
+    private final int windowSize;
+
+    /** Max time to hold the messages waiting for a retransmission */
+    private final long timeoutNanos;
+
+    /** Reorder window indexed by sequence number, created with the first gap */
+    private Object[] window = null;
+
+    /** Next sequence number to deliver */
+    private long expectedSeq;
+
+    /** Highest sequence number received or requested, expectedSeq - 1 if there is no gap */
+    private long highestSeq;
+
+    /** Time the held messages are flushed if the gap has not been filled */
+    private long deadlineNanos;
+
+    /** True if there is a retransmission request that could not be sent */
+    private boolean nakPending = false;
+
+    /** First sequence number of the retransmission request pending to be sent */
+    private long nakFirstSeq;
+
+    /** Last sequence number of the retransmission request pending to be sent, inclusive */
+    private long nakLastSeq;
+
+    /** Time of the next retry of the pending retransmission request */
+    private long nakRetryNanos;
+
+    /**
+     * Create a new recovery for a topic publisher
+     *
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPublisherId unique id of the topic publisher
+     * @param firstSeq sequence number of the first message received from the topic publisher
+     * @param retransmitRequester requester for the retransmissions
+     * @param windowSize number of messages that can be held, the retransmission cache size of the topic
+     * @param timeoutMillis max time in milliseconds to hold the messages waiting for a retransmission
+     */
+    TopicPubGapRecovery(final UUID instanceId,
+                        final UUID topicPublisherId,
+                        final long firstSeq,
+                        final IRetransmitRequester retransmitRequester,
+                        final int windowSize,
+                        final long timeoutMillis)
+    {
+        this.instanceId = instanceId;
+        this.topicPublisherId = topicPublisherId;
+        this.retransmitRequester = retransmitRequester;
+        this.windowSize = windowSize;
+        this.timeoutNanos = timeoutMillis * 1_000_000L;
+        this.expectedSeq = firstSeq;
+        this.highestSeq = firstSeq - 1;
+    }
+
+    /** @return true if there is a gap waiting for retransmission */
+    synchronized boolean isRecovering()
+    {
+        return this.highestSeq >= this.expectedSeq;
+    }
+
+    /**
+     * Process a message or request received from the topic publisher
+     *
+     * @param msg the message, it is promoted if it has to be held
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onMessage(final RcvMessage msg, final IRecoveredMsgsListener listener)
+    {
+        this.checkTimeout(listener);
+
+        final long seq = msg.getSequenceNumber();
+
+        // Duplicated or already reported as lost
+        if (seq < this.expectedSeq)
+        {
+            return;
+        }
+
+        // No gap, deliver directly without promotion
+        if (seq == this.expectedSeq && !this.isRecovering())
+        {
+            this.expectedSeq++;
+            this.highestSeq++;
+            listener.onRecoveredMsg(msg);
+            return;
+        }
+
+        this.hold(seq, msg, true, listener);
+    }
+
+    /**
+     * Process a message retransmitted by the topic publisher
+     *
+     * @param msg the retransmitted message, it is promoted if it has to be held
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onRetransmittedMessage(final RcvMessage msg, final IRecoveredMsgsListener listener)
+    {
+        this.checkTimeout(listener);
+
+        final long seq = msg.getSequenceNumber();
+
+        // Only the requested messages are accepted
+        if (seq < this.expectedSeq || seq > this.highestSeq)
+        {
+            return;
+        }
+
+        this.hold(seq, msg, false, listener);
+    }
+
+    /**
+     * Process a heartbeat received from the topic publisher, it uses a sequence number but it is not delivered
+     *
+     * @param seq sequence number of the heartbeat
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onHeartbeat(final long seq, final IRecoveredMsgsListener listener)
+    {
+        this.checkTimeout(listener);
+
+        if (seq < this.expectedSeq)
+        {
+            return;
+        }
+
+        if (seq == this.expectedSeq && !this.isRecovering())
+        {
+            this.expectedSeq++;
+            this.highestSeq++;
+            return;
+        }
+
+        this.hold(seq, SKIP, true, listener);
+    }
+
+    /**
+     * Process the notification of a range of messages that the topic publisher cannot retransmit
+     *
+     * @param firstSeq first sequence number of the range
+     * @param lastSeq last sequence number of the range, inclusive
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onRetransmitLost(final long firstSeq, final long lastSeq, final IRecoveredMsgsListener listener)
+    {
+        if (this.window == null)
+        {
+            return;
+        }
+
+        final long last = Math.min(lastSeq, this.highestSeq);
+        for (long seq = Math.max(firstSeq, this.expectedSeq); seq <= last; seq++)
+        {
+            final int slot = this.slot(seq);
+            if (this.window[slot] == null)
+            {
+                this.window[slot] = LOST;
+            }
+        }
+
+        this.drain(listener);
+        this.checkTimeout(listener);
+    }
+
+    /**
+     * Check the timeout of the held messages and retry the pending retransmission request if any. Called periodically from the
+     * poller duty cycle to deliver the held messages when no more events are received from the topic publisher.
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void checkTimeouts(final IRecoveredMsgsListener listener)
+    {
+        this.checkTimeout(listener);
+
+        if (!this.nakPending)
+        {
+            return;
+        }
+
+        // The gap has been filled, reported as lost or flushed
+        if (!this.isRecovering() || this.nakLastSeq < this.expectedSeq)
+        {
+            this.nakPending = false;
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if (now - this.nakRetryNanos >= 0)
+        {
+            this.nakFirstSeq = Math.max(this.nakFirstSeq, this.expectedSeq);
+            this.sendNak(this.nakFirstSeq, this.nakLastSeq, now);
+        }
+    }
+
+    /**
+     * Deliver all the held messages reporting the gaps as lost, called when the topic publisher is removed
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void flush(final IRecoveredMsgsListener listener)
+    {
+        long lostMsgs = 0;
+
+        for (long seq = this.expectedSeq; seq <= this.highestSeq; seq++)
+        {
+            final int slot = this.slot(seq);
+            final Object entry = this.window[slot];
+            this.window[slot] = null;
+
+            if (entry == null || entry == LOST)
+            {
+                lostMsgs++;
+                continue;
+            }
+
+            lostMsgs = this.reportLost(lostMsgs, listener);
+
+            if (entry != SKIP)
+            {
+                listener.onRecoveredMsg((RcvMessage)entry);
+            }
+        }
+
+        this.reportLost(lostMsgs, listener);
+        this.expectedSeq = this.highestSeq + 1;
+        this.nakPending = false;
+    }
+
+    /**
+     * Hold an entry in the window, request the retransmission of the new gap if any and deliver the messages that are in order
+     *
+     * @param seq sequence number of the entry
+     * @param entry the message to hold or a marker
+     * @param requestGap true to request the retransmission of the messages between the highest sequence number and this one
+     * @param listener listener for the messages to deliver
+     */
+    private void hold(final long seq, final Object entry, final boolean requestGap, final IRecoveredMsgsListener listener)
+    {
+        // Too far ahead to be held, give up on the current gap
+        if (seq - this.expectedSeq >= this.windowSize)
+        {
+            log.warn("Gap of [{}] messages from topic publisher [{}] is bigger than the retransmission window", seq - this.expectedSeq, this.topicPublisherId);
+
+            if (this.window != null)
+            {
+                this.flush(listener);
+            }
+
+            this.reportLost(seq - this.expectedSeq, listener);
+            this.expectedSeq = seq + 1;
+            this.highestSeq = seq;
+
+            if (entry != SKIP)
+            {
+                listener.onRecoveredMsg((RcvMessage)entry);
+            }
+
+            return;
+        }
+
+        if (this.window == null)
+        {
+            this.window = new Object[this.windowSize];
+        }
+
+        // Start the timeout with the first gap
+        if (!this.isRecovering())
+        {
+            this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+        }
+
+        final int slot = this.slot(seq);
+        if (this.window[slot] == null)
+        {
+            this.window[slot] = entry == SKIP ? SKIP : ((RcvMessage)entry).promote();
+        }
+
+        if (seq > this.highestSeq)
+        {
+            if (requestGap && seq > this.highestSeq + 1)
+            {
+                log.debug("Gap detected from topic publisher [{}], requesting messages [{}] to [{}]", this.topicPublisherId, this.highestSeq + 1, seq - 1);
+                this.requestGap(this.highestSeq + 1, seq - 1);
+            }
+
+            this.highestSeq = seq;
+        }
+
+        this.drain(listener);
+    }
+
+    /**
+     * Request the retransmission of a new gap. If there is already a pending request that could not be sent the gap is merged
+     * with it and it will be sent on the next retry, the requests are sent in order.
+     *
+     * @param firstSeq first sequence number of the gap
+     * @param lastSeq last sequence number of the gap, inclusive
+     */
+    private void requestGap(final long firstSeq, final long lastSeq)
+    {
+        if (this.nakPending)
+        {
+            this.nakLastSeq = lastSeq;
+            return;
+        }
+
+        this.sendNak(firstSeq, lastSeq, System.nanoTime());
+    }
+
+    /**
+     * Send a retransmission request, if it cannot be sent it is kept as pending to retry it later
+     *
+     * @param firstSeq first sequence number of the request
+     * @param lastSeq last sequence number of the request, inclusive
+     * @param now current time in nanos
+     */
+    private void sendNak(final long firstSeq, final long lastSeq, final long now)
+    {
+        if (this.retransmitRequester.requestRetransmit(this.instanceId, this.topicPublisherId, firstSeq, lastSeq))
+        {
+            this.nakPending = false;
+            return;
+        }
+
+        if (!this.nakPending)
+        {
+            log.debug("Retransmission request of messages [{}] to [{}] from topic publisher [{}] could not be sent, it will be retried", firstSeq, lastSeq, this.topicPublisherId);
+        }
+
+        this.nakPending = true;
+        this.nakFirstSeq = firstSeq;
+        this.nakLastSeq = lastSeq;
+        this.nakRetryNanos = now + NAK_RETRY_PERIOD_NANOS;
+    }
+
+    /**
+     * Deliver the consecutive held messages starting from the expected sequence number
+     *
+     * @param listener listener for the messages to deliver
+     */
+    private void drain(final IRecoveredMsgsListener listener)
+    {
+        long lostMsgs = 0;
+        final long initialExpectedSeq = this.expectedSeq;
+
+        while (this.expectedSeq <= this.highestSeq)
+        {
+            final int slot = this.slot(this.expectedSeq);
+            final Object entry = this.window[slot];
+
+            if (entry == null)
+            {
+                break;
+            }
+
+            this.window[slot] = null;
+            this.expectedSeq++;
+
+            if (entry == LOST)
+            {
+                lostMsgs++;
+                continue;
+            }
+
+            lostMsgs = this.reportLost(lostMsgs, listener);
+
+            if (entry != SKIP)
+            {
+                listener.onRecoveredMsg((RcvMessage)entry);
+            }
+        }
+
+        this.reportLost(lostMsgs, listener);
+
+        // Give more time to the rest of the gap if there has been progress
+        if (this.expectedSeq != initialExpectedSeq && this.isRecovering())
+        {
+            this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+        }
+    }
+
+    /**
+     * Flush the held messages if the gap has not been filled in time
+     *
+     * @param listener listener for the messages to deliver
+     */
+    private void checkTimeout(final IRecoveredMsgsListener listener)
+    {
+        if (this.isRecovering() && System.nanoTime() - this.deadlineNanos >= 0)
+        {
+            log.warn("Timeout waiting for the retransmission of messages from topic publisher [{}]", this.topicPublisherId);
+            this.flush(listener);
+        }
+    }
+
+    /**
+     * Report the given number of lost messages if any
+     *
+     * @param lostMsgs number of lost messages
+     * @param listener listener for the lost messages
+     * @return 0, the pending number of lost messages to report
+     */
+    private long reportLost(final long lostMsgs, final IRecoveredMsgsListener listener)
+    {
+        if (lostMsgs > 0)
+        {
+            listener.onRecoveryMsgsLost(this, lostMsgs);
+        }
+
+        return 0;
+    }
+
+    /** @return the slot in the window of the given sequence number */
+    private int slot(final long seq)
+    {
+        return (int)(seq & (this.windowSize - 1));
+    }
+}
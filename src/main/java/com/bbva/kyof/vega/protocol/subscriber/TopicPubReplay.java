@@ -0,0 +1,454 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay of the messages of a single topic publisher from its journal, followed by the switch to the live messages. <p>
+ *
+ * It starts with the first live message received from the topic publisher, the messages from the requested sequence number up to
+ * the previous one are replayed. Meanwhile the live messages are promoted and held, they are delivered in order once the replay
+ * reaches them. If too many live messages are held or the replay stops progressing before the timeout, the messages not replayed
+ * yet are reported as lost. <p>
+ *
+ * It can also start when the topic publisher is discovered, before any live message. In that case the replay is open ended, the
+ * topic publisher replays up to its last sent message and notifies the end of the replay. The live messages already replayed are
+ * discarded. <p>
+ *
+ * The replay request is retried periodically until the first replayed message or lost notification is received, the control
+ * channel of the topic publisher may not have been discovered yet. <p>
+ *
+ * The live messages and the replayed ones are received from different pollers, all the methods are synchronized. Once the
+ * replay has finished the live messages skip the lock.
+ */
+@Slf4j
+class TopicPubReplay
+{
+    /**
+     * Receiver of the replayed and held messages in order
+     */
+    interface IReplayListener
+    {
+        /**
+         * Called with each replayed message
+         * @param msg the replayed message
+         */
+        void onReplayedMsg(RcvMessage msg);
+
+        /**
+         * Called when a group of consecutive messages cannot be replayed
+         * @param replay the replay the lost messages belong to
+         * @param numLostMsgs number of lost messages
+         */
+        void onReplayMsgsLost(TopicPubReplay replay, long numLostMsgs);
+
+        /**
+         * Called with each held live message or request once the replay has finished
+         * @param msg the message, a {@link com.bbva.kyof.vega.msg.RcvRequest} for requests
+         */
+        void onReplayHeldMsg(RcvMessage msg);
+
+        /**
+         * Called with each held live heartbeat once the replay has finished
+         * @param replay the replay the heartbeat belongs to
+         * @param sequenceNumber sequence number of the heartbeat
+         */
+        void onReplayHeldHeartbeat(TopicPubReplay replay, long sequenceNumber);
+    }
+
+    /** Value of the first live sequence number while no live message has been received in an open ended replay */
+    static final long UNKNOWN_LIVE_SEQ = MsgRetransmitReq.OPEN_END;
+
+    /** Time between retries of the replay request while there is no response */
+    private static final long REQUEST_RETRY_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Unique id of the instance of the topic publisher */
+    @Getter private final UUID instanceId;
+
+    /** Unique id of the topic publisher */
+    @Getter private final UUID topicPublisherId;
+
+    /** Sequence number of the first live message, the replay ends before it. UNKNOWN_LIVE_SEQ until known in open ended replays */
+    @Getter private volatile long firstLiveSeq;
+
+    /** Requester for the replay */
+    private final IRetransmitRequester retransmitRequester;
+
+    /** Max number of live messages that can be held */
+    private final int maxHeldMsgs;
+
+    /** Max time without progress of the replay */
+    private final long timeoutNanos;
+
+    /** Sequence number of the first message to replay */
+    private final long fromSeq;
+
+    /** Live messages held while the replay is in progress, the heartbeats are held as their sequence number */
+    private final ArrayDeque<Object> heldMsgs = new ArrayDeque<>();
+
+    /** Next sequence number expected from the replay */
+    private long nextSeq;
+
+    /** Time the replay is given up if there is no progress */
+    private long deadlineNanos;
+
+    /** True once the replay has finished and the held messages delivered, the live messages are delivered directly */
+    private volatile boolean finished;
+
+    /** True once a response to the replay request has been received */
+    private boolean acknowledged = false;
+
+    /** Time of the next retry of the replay request if there is no response */
+    private long nextRequestNanos;
+
+    /**
+     * Create a new replay for a topic publisher
+     *
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPublisherId unique id of the topic publisher
+     * @param fromSeq sequence number of the first message to replay
+     * @param firstLiveSeq sequence number of the first live message received from the topic publisher, UNKNOWN_LIVE_SEQ for an
+     *                     open ended replay started before receiving live messages
+     * @param retransmitRequester requester for the replay
+     * @param maxHeldMsgs max number of live messages that can be held
+     * @param timeoutMillis max time in milliseconds without progress of the replay
+     */
+    TopicPubReplay(final UUID instanceId,
+                   final UUID topicPublisherId,
+                   final long fromSeq,
+                   final long firstLiveSeq,
+                   final IRetransmitRequester retransmitRequester,
+                   final int maxHeldMsgs,
+                   final long timeoutMillis)
+    {
+        this.instanceId = instanceId;
+        this.topicPublisherId = topicPublisherId;
+        this.firstLiveSeq = firstLiveSeq;
+        this.retransmitRequester = retransmitRequester;
+        this.maxHeldMsgs = maxHeldMsgs;
+        this.timeoutNanos = timeoutMillis * 1_000_000L;
+        this.fromSeq = fromSeq;
+        this.nextSeq = fromSeq;
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+        this.finished = fromSeq >= firstLiveSeq;
+    }
+
+    /** @return true if the replay is in progress */
+    boolean isReplaying()
+    {
+        return !this.finished;
+    }
+
+    /**
+     * Send the replay request of the messages not replayed yet. If there is no response it is retried by {@link #checkTimeouts}.
+     */
+    synchronized void requestReplay()
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        final long lastSeq = this.firstLiveSeq == UNKNOWN_LIVE_SEQ ? MsgRetransmitReq.OPEN_END : this.firstLiveSeq - 1;
+
+        this.nextRequestNanos = System.nanoTime() + REQUEST_RETRY_PERIOD_NANOS;
+
+        if (!this.retransmitRequester.requestReplay(this.instanceId, this.topicPublisherId, this.nextSeq, lastSeq))
+        {
+            log.debug("Replay request of messages from [{}] of topic publisher [{}] could not be sent, it will be retried", this.nextSeq, this.topicPublisherId);
+        }
+    }
+
+    /**
+     * Check the timeout of the replay and retry the replay request if there has been no response. Called periodically from the
+     * poller duty cycle, the replay is given up even if no more events are received from the topic publisher.
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void checkTimeouts(final IReplayListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        final long now = System.nanoTime();
+
+        if (now - this.deadlineNanos >= 0)
+        {
+            log.warn("Timeout waiting for the replay of messages from topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+        else if (!this.acknowledged && now - this.nextRequestNanos >= 0)
+        {
+            this.requestReplay();
+        }
+    }
+
+    /**
+     * Process a live message or request received from the topic publisher
+     *
+     * @param msg the message, it is promoted if it has to be held
+     * @param listener listener for the messages to deliver
+     * @return true if the message has been held or discarded because it has been replayed already, false if the replay has
+     * finished and it has to be delivered directly
+     */
+    boolean onLiveMessage(final RcvMessage msg, final IReplayListener listener)
+    {
+        // Once finished it never goes back, avoid the lock for the rest of the messages
+        if (this.finished)
+        {
+            return msg.getSequenceNumber() < this.firstLiveSeq;
+        }
+
+        synchronized (this)
+        {
+            return this.hold(msg, msg.getSequenceNumber(), listener);
+        }
+    }
+
+    /**
+     * Process a live heartbeat received from the topic publisher
+     *
+     * @param seq sequence number of the heartbeat
+     * @param listener listener for the messages to deliver
+     * @return true if the heartbeat has been held or discarded because it has been replayed already, false if the replay has
+     * finished and it has to be processed directly
+     */
+    boolean onLiveHeartbeat(final long seq, final IReplayListener listener)
+    {
+        if (this.finished)
+        {
+            return seq < this.firstLiveSeq;
+        }
+
+        synchronized (this)
+        {
+            return this.hold(seq, seq, listener);
+        }
+    }
+
+    /**
+     * Process a message replayed by the topic publisher
+     *
+     * @param msg the replayed message
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onReplayedMessage(final RcvMessage msg, final IReplayListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.acknowledged = true;
+
+        final long seq = msg.getSequenceNumber();
+
+        // Only the pending messages of the replay are accepted
+        if (seq < this.nextSeq || seq >= this.firstLiveSeq)
+        {
+            return;
+        }
+
+        this.nextSeq = seq + 1;
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+
+        listener.onReplayedMsg(msg);
+
+        if (this.nextSeq >= this.firstLiveSeq)
+        {
+            this.finish(listener);
+        }
+    }
+
+    /**
+     * Process the notification of a range of messages that the topic publisher cannot replay. An empty range notifies the end of
+     * the replay when the last sequence numbers have no contents, and it always ends the open ended replays.
+     *
+     * @param firstSeq first sequence number of the range
+     * @param lastSeq last sequence number of the range, inclusive
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onReplayLost(final long firstSeq, final long lastSeq, final IReplayListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.acknowledged = true;
+
+        if (lastSeq < firstSeq)
+        {
+            this.onReplayEnd(firstSeq, listener);
+        }
+
+        if (this.finished || lastSeq < this.nextSeq)
+        {
+            return;
+        }
+
+        final long last = Math.min(lastSeq, this.firstLiveSeq - 1);
+        final long numLostMsgs = last - Math.max(firstSeq, this.nextSeq) + 1;
+
+        if (numLostMsgs > 0)
+        {
+            listener.onReplayMsgsLost(this, numLostMsgs);
+        }
+
+        this.nextSeq = last + 1;
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+
+        if (this.nextSeq >= this.firstLiveSeq)
+        {
+            this.finish(listener);
+        }
+    }
+
+    /**
+     * Process the end of a replay sent by the topic publisher, the sequence numbers before the given one have been replayed or
+     * have no contents
+     *
+     * @param endSeq the sequence number after the last one of the replay
+     * @param listener listener for the messages to deliver
+     */
+    private void onReplayEnd(final long endSeq, final IReplayListener listener)
+    {
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+
+        // Open ended replay without live messages yet, the next live message expected is the one after the replay
+        if (this.firstLiveSeq == UNKNOWN_LIVE_SEQ)
+        {
+            this.firstLiveSeq = this.hasProgressed() ? Math.max(this.nextSeq, endSeq) : endSeq;
+            this.finish(listener);
+            return;
+        }
+
+        this.nextSeq = Math.max(this.nextSeq, Math.min(endSeq, this.firstLiveSeq));
+
+        if (this.nextSeq >= this.firstLiveSeq)
+        {
+            this.finish(listener);
+            return;
+        }
+
+        // The topic publisher had not sent all the messages before the first live one when the request was processed, ask for the rest
+        this.acknowledged = false;
+        this.requestReplay();
+    }
+
+    /**
+     * Give up the replay reporting the messages not replayed yet as lost and deliver the held messages
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void cancel(final IReplayListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        if (this.firstLiveSeq != UNKNOWN_LIVE_SEQ && this.firstLiveSeq > this.nextSeq)
+        {
+            listener.onReplayMsgsLost(this, this.firstLiveSeq - this.nextSeq);
+        }
+
+        // Open ended replay without live messages, the next live messages not replayed yet are processed directly
+        if (this.firstLiveSeq == UNKNOWN_LIVE_SEQ)
+        {
+            this.firstLiveSeq = this.hasProgressed() ? this.nextSeq : 0;
+        }
+
+        this.finish(listener);
+    }
+
+    /**
+     * Hold a live message or heartbeat if the replay is in progress
+     *
+     * @param entry the message to hold or the sequence number of the heartbeat
+     * @param seq sequence number of the message or heartbeat
+     * @param listener listener for the messages to deliver
+     * @return true if held or discarded because it has been replayed already
+     */
+    private boolean hold(final Object entry, final long seq, final IReplayListener listener)
+    {
+        // First live message of an open ended replay, the replay ends before it unless it has been replayed already
+        if (this.firstLiveSeq == UNKNOWN_LIVE_SEQ)
+        {
+            this.firstLiveSeq = this.hasProgressed() ? Math.max(seq, this.nextSeq) : seq;
+
+            if (this.nextSeq >= this.firstLiveSeq)
+            {
+                this.finish(listener);
+            }
+        }
+
+        if (!this.finished && System.nanoTime() - this.deadlineNanos >= 0)
+        {
+            log.warn("Timeout waiting for the replay of messages from topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+
+        if (!this.finished && this.heldMsgs.size() >= this.maxHeldMsgs)
+        {
+            log.warn("Too many live messages held waiting for the replay of messages from topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+
+        if (this.finished)
+        {
+            return seq < this.firstLiveSeq;
+        }
+
+        this.heldMsgs.add(entry instanceof RcvMessage ? ((RcvMessage)entry).promote() : entry);
+        return true;
+    }
+
+    /** @return true if any message has been replayed or notified as lost */
+    private boolean hasProgressed()
+    {
+        return this.nextSeq > this.fromSeq;
+    }
+
+    /**
+     * Finish the replay and deliver the held messages in order. It is flagged as finished once all of them have been delivered,
+     * the new live messages received meanwhile wait for the lock.
+     *
+     * If there are no held messages, the sequence number before the first live one is processed as a heartbeat to detect the gaps
+     * between the replay and the next live messages.
+     *
+     * @param listener listener for the messages to deliver
+     */
+    private void finish(final IReplayListener listener)
+    {
+        if (this.heldMsgs.isEmpty() && this.firstLiveSeq != UNKNOWN_LIVE_SEQ && this.firstLiveSeq > 1)
+        {
+            listener.onReplayHeldHeartbeat(this, this.firstLiveSeq - 1);
+        }
+
+        while (!this.heldMsgs.isEmpty())
+        {
+            final Object entry = this.heldMsgs.poll();
+
+            if (entry instanceof Long)
+            {
+                listener.onReplayHeldHeartbeat(this, (Long)entry);
+            }
+            else
+            {
+                listener.onReplayHeldMsg((RcvMessage)entry);
+            }
+        }
+
+        this.finished = true;
+    }
+}
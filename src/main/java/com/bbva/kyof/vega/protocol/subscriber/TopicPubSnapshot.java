@@ -0,0 +1,336 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last value snapshot of a single topic publisher, merged with its live messages by sequence number. <p>
+ *
+ * It starts when the topic publisher is discovered or with the first live message received from it. The snapshot is requested
+ * through the control channel and sent point to point by the topic publisher on the response channel, followed by the end of
+ * the snapshot with the last sequence number sent when it was taken. Meanwhile the live messages are promoted and held. Once the
+ * end is received the held messages already covered by the snapshot are discarded and the rest are delivered in order. <p>
+ *
+ * If too many live messages are held or the snapshot is not received before the timeout, it is given up and the held messages
+ * are delivered. <p>
+ *
+ * The snapshot request is retried periodically until the first snapshot message or the end is received, the control channel of
+ * the topic publisher may not have been discovered yet. <p>
+ *
+ * The live messages and the snapshot are received from different pollers, all the methods are synchronized. Once the snapshot
+ * has finished the live messages skip the lock.
+ */
+@Slf4j
+class TopicPubSnapshot
+{
+    /**
+     * Receiver of the snapshot and held messages in order
+     */
+    interface ISnapshotListener
+    {
+        /**
+         * Called with each message of the snapshot
+         * @param msg the snapshot message
+         */
+        void onSnapshotMsg(RcvMessage msg);
+
+        /**
+         * Called with each held live message or request not covered by the snapshot once it has finished
+         * @param msg the message, a {@link com.bbva.kyof.vega.msg.RcvRequest} for requests
+         */
+        void onSnapshotHeldMsg(RcvMessage msg);
+
+        /**
+         * Called with each held live heartbeat not covered by the snapshot once it has finished, and with the last sequence number of
+         * the snapshot to detect the gaps between the snapshot and the next live messages
+         * @param snapshot the snapshot the heartbeat belongs to
+         * @param sequenceNumber sequence number of the heartbeat
+         */
+        void onSnapshotHeldHeartbeat(TopicPubSnapshot snapshot, long sequenceNumber);
+    }
+
+    /** Time between retries of the snapshot request while there is no response */
+    private static final long REQUEST_RETRY_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Unique id of the instance of the topic publisher */
+    @Getter private final UUID instanceId;
+
+    /** Unique id of the topic publisher */
+    @Getter private final UUID topicPublisherId;
+
+    /** Requester for the snapshot */
+    private final IRetransmitRequester retransmitRequester;
+
+    /** Max number of live messages that can be held */
+    private final int maxHeldMsgs;
+
+    /** Max time waiting for the snapshot */
+    private final long timeoutNanos;
+
+    /** Live messages held while the snapshot is in progress, the heartbeats are held as their sequence number */
+    private final ArrayDeque<Object> heldMsgs = new ArrayDeque<>();
+
+    /** Last sequence number covered by the snapshot, the live messages up to it are discarded. 0 if the snapshot has been given up */
+    private volatile long snapshotSeq = 0;
+
+    /** True once the snapshot has finished and the held messages delivered, the live messages are delivered directly */
+    private volatile boolean finished = false;
+
+    /** True once a response to the snapshot request has been received */
+    private boolean acknowledged = false;
+
+    /** Time of the next retry of the snapshot request if there is no response */
+    private long nextRequestNanos;
+
+    /** Time the snapshot is given up if there is no progress */
+    private long deadlineNanos;
+
+    /**
+     * Create a new snapshot for a topic publisher
+     *
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPublisherId unique id of the topic publisher
+     * @param retransmitRequester requester for the snapshot
+     * @param maxHeldMsgs max number of live messages that can be held
+     * @param timeoutMillis max time in milliseconds waiting for the snapshot
+     */
+    TopicPubSnapshot(final UUID instanceId,
+                     final UUID topicPublisherId,
+                     final IRetransmitRequester retransmitRequester,
+                     final int maxHeldMsgs,
+                     final long timeoutMillis)
+    {
+        this.instanceId = instanceId;
+        this.topicPublisherId = topicPublisherId;
+        this.retransmitRequester = retransmitRequester;
+        this.maxHeldMsgs = maxHeldMsgs;
+        this.timeoutNanos = timeoutMillis * 1_000_000L;
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+    }
+
+    /** @return true if the snapshot is in progress */
+    boolean isInProgress()
+    {
+        return !this.finished;
+    }
+
+    /**
+     * Send the snapshot request. If there is no response it is retried by {@link #checkTimeouts}.
+     */
+    synchronized void requestSnapshot()
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.nextRequestNanos = System.nanoTime() + REQUEST_RETRY_PERIOD_NANOS;
+
+        if (!this.retransmitRequester.requestSnapshot(this.instanceId, this.topicPublisherId))
+        {
+            log.debug("Snapshot request of topic publisher [{}] could not be sent, it will be retried", this.topicPublisherId);
+        }
+    }
+
+    /**
+     * Check the timeout of the snapshot and retry the snapshot request if there has been no response. Called periodically from the
+     * poller duty cycle, the snapshot is given up even if no more events are received from the topic publisher.
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void checkTimeouts(final ISnapshotListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        final long now = System.nanoTime();
+
+        if (now - this.deadlineNanos >= 0)
+        {
+            log.warn("Timeout waiting for the last value snapshot of topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+        else if (!this.acknowledged && now - this.nextRequestNanos >= 0)
+        {
+            this.requestSnapshot();
+        }
+    }
+
+    /**
+     * Process a live message or request received from the topic publisher
+     *
+     * @param msg the message, it is promoted if it has to be held
+     * @param listener listener for the messages to deliver
+     * @return true if the message has been held or discarded because it is covered by the snapshot, false if the snapshot has
+     * finished and it has to be delivered directly
+     */
+    boolean onLiveMessage(final RcvMessage msg, final ISnapshotListener listener)
+    {
+        // Once finished it never goes back, avoid the lock for the rest of the messages
+        if (this.finished)
+        {
+            return msg.getSequenceNumber() <= this.snapshotSeq;
+        }
+
+        synchronized (this)
+        {
+            return this.hold(msg, msg.getSequenceNumber(), listener);
+        }
+    }
+
+    /**
+     * Process a live heartbeat received from the topic publisher
+     *
+     * @param seq sequence number of the heartbeat
+     * @param listener listener for the messages to deliver
+     * @return true if the heartbeat has been held or discarded because it is covered by the snapshot, false if the snapshot has
+     * finished and it has to be processed directly
+     */
+    boolean onLiveHeartbeat(final long seq, final ISnapshotListener listener)
+    {
+        if (this.finished)
+        {
+            return seq <= this.snapshotSeq;
+        }
+
+        synchronized (this)
+        {
+            return this.hold(seq, seq, listener);
+        }
+    }
+
+    /**
+     * Process a message of the snapshot sent by the topic publisher
+     *
+     * @param msg the snapshot message
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onSnapshotMessage(final RcvMessage msg, final ISnapshotListener listener)
+    {
+        // Snapshots sent again for retried requests are ignored
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.acknowledged = true;
+        this.deadlineNanos = System.nanoTime() + this.timeoutNanos;
+
+        listener.onSnapshotMsg(msg);
+    }
+
+    /**
+     * Process the end of the snapshot sent by the topic publisher
+     *
+     * @param lastSeq last sequence number sent by the topic publisher when the snapshot was taken
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void onSnapshotEnd(final long lastSeq, final ISnapshotListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.snapshotSeq = lastSeq;
+        this.finish(listener);
+    }
+
+    /**
+     * Give up the snapshot and deliver the held messages
+     *
+     * @param listener listener for the messages to deliver
+     */
+    synchronized void cancel(final ISnapshotListener listener)
+    {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.snapshotSeq = 0;
+        this.finish(listener);
+    }
+
+    /**
+     * Hold a live message or heartbeat if the snapshot is in progress
+     *
+     * @param entry the message to hold or the sequence number of the heartbeat
+     * @param seq sequence number of the message or heartbeat
+     * @param listener listener for the messages to deliver
+     * @return true if held or discarded because it is covered by the snapshot
+     */
+    private boolean hold(final Object entry, final long seq, final ISnapshotListener listener)
+    {
+        if (!this.finished && System.nanoTime() - this.deadlineNanos >= 0)
+        {
+            log.warn("Timeout waiting for the last value snapshot of topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+
+        if (!this.finished && this.heldMsgs.size() >= this.maxHeldMsgs)
+        {
+            log.warn("Too many live messages held waiting for the last value snapshot of topic publisher [{}]", this.topicPublisherId);
+            this.cancel(listener);
+        }
+
+        if (this.finished)
+        {
+            return seq <= this.snapshotSeq;
+        }
+
+        this.heldMsgs.add(entry instanceof RcvMessage ? ((RcvMessage)entry).promote() : entry);
+        return true;
+    }
+
+    /**
+     * Finish the snapshot and deliver the held messages not covered by it in order. It is flagged as finished once all of them have
+     * been delivered, the new live messages received meanwhile wait for the lock.
+     *
+     * The last sequence number of the snapshot is processed first as a heartbeat to detect the gaps between the snapshot and the
+     * next live messages.
+     *
+     * @param listener listener for the messages to deliver
+     */
+    private void finish(final ISnapshotListener listener)
+    {
+        if (this.snapshotSeq > 0)
+        {
+            listener.onSnapshotHeldHeartbeat(this, this.snapshotSeq);
+        }
+
+        while (!this.heldMsgs.isEmpty())
+        {
+            final Object entry = this.heldMsgs.poll();
+
+            if (entry instanceof Long)
+            {
+                final long seq = (Long)entry;
+
+                if (seq > this.snapshotSeq)
+                {
+                    listener.onSnapshotHeldHeartbeat(this, seq);
+                }
+            }
+            else
+            {
+                final RcvMessage msg = (RcvMessage)entry;
+
+                if (msg.getSequenceNumber() > this.snapshotSeq)
+                {
+                    listener.onSnapshotHeldMsg(msg);
+                }
+            }
+        }
+
+        this.finished = true;
+    }
+}
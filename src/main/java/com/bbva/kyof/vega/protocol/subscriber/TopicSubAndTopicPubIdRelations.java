@@ -1,10 +1,9 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
+import com.bbva.kyof.vega.util.collection.UUIDCopyOnWriteHashMap;
 
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class helps to manage the relationships between topic subscribers and topic publishers.<p>
@@ -20,8 +19,10 @@ class TopicSubAndTopicPubIdRelations
 {
     /**
      * Store the topic subscribers by the topic publisher id that publish on the same topic name. <p>
+     *
+     * The map is accessed by the pollers on every received message, the lookups are performed with the id bits and don't generate garbage.
      */
-    private final Map<UUID, TopicSubscriber> topicSubsByTopicPubId = new ConcurrentHashMap<>();
+    private final UUIDCopyOnWriteHashMap<TopicSubscriber> topicSubsByTopicPubId = new UUIDCopyOnWriteHashMap<>();
 
     /**
      * Set of topic publisher id's by topic subscriber id. This map is used during unsubscriptions
@@ -100,4 +101,15 @@ class TopicSubAndTopicPubIdRelations
     {
         return this.topicSubsByTopicPubId.get(topicPublisherId);
     }
+
+    /**
+     * Return the topic subscriber that is related to the given topic publisher id if any
+     * @param topicPublisherIdMsb most significant bits of the topic publisher id to look for
+     * @param topicPublisherIdLsb least significant bits of the topic publisher id to look for
+     * @return the topic subscriber that matches, null in none
+     */
+    TopicSubscriber getTopicSubscriberForTopicPublisherId(final long topicPublisherIdMsb, final long topicPublisherIdLsb)
+    {
+        return this.topicSubsByTopicPubId.get(topicPublisherIdMsb, topicPublisherIdLsb);
+    }
 }
@@ -5,6 +5,8 @@ import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
 import com.bbva.kyof.vega.msg.lost.MsgLostReport;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
+import com.bbva.kyof.vega.util.collection.UUIDCopyOnWriteHashMap;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -23,10 +25,22 @@ import java.util.function.Consumer;
  *
  * The class assumes that listeners changes and aeron subscriber changes are always performed in thread-safe mode. It allows concurrent actions
  * of change listeners and receive messages.
+ *
+ * If the topic is configured with retransmission cache the gaps in the sequence numbers of each topic publisher are recovered asking for
+ * the retransmission of the lost messages, the messages are delivered in order.
+ *
+ * If the normal listener has been set with a replay sequence number, the messages of each topic publisher are replayed from its journal
+ * before delivering the live ones.
+ *
+ * If the topic has last value cache and there is no replay, the last value snapshot of each topic publisher is requested when it is
+ * discovered and delivered before the live messages not covered by it.
  */
 @Slf4j
-class TopicSubscriber implements Closeable
+class TopicSubscriber implements Closeable, TopicPubGapRecovery.IRecoveredMsgsListener, TopicPubReplay.IReplayListener, TopicPubSnapshot.ISnapshotListener
 {
+    /** Value of the replay sequence number when there is no replay */
+    static final long NO_REPLAY = -1;
+
     /** Topic Name the subscriber belongs to */
     @Getter private final String topicName;
 
@@ -36,19 +50,61 @@ class TopicSubscriber implements Closeable
     /** Listener for incoming messages due to normal subscription */
     private volatile ITopicSubListener normalListener;
 
+    /** Empty array of listeners */
+    private static final ITopicSubListener[] EMPTY_LISTENERS = new ITopicSubListener[0];
+
     /** Listener for incoming messages due to pattern subscriptions */
     private final ConcurrentMap<String, ITopicSubListener> patternListenersByPattern = new ConcurrentHashMap<>();
 
+    /** Copy of the pattern listeners, it is replaced on every change to iterate them on reception without generating garbage */
+    private volatile ITopicSubListener[] patternListeners = EMPTY_LISTENERS;
+
+    /** Lock to keep the pattern listeners copy consistent with the map on changes */
+    private final Object patternListenersLock = new Object();
+
     /** Return the topic configuration for this subscriber */
     @Getter private final TopicTemplateConfig topicConfig;
 
     /** Aeron subscribers related to this topic subscriber */
     private final Set<AeronSubscriber> aeronSubscribers = new HashSet<>();
     
-    /** Stores the sequence number for each TopicId */
+    /** Stores the sequence number for each TopicId, the lookups are performed with the id bits and don't generate garbage */
     @Getter(AccessLevel.PROTECTED)
-    private final ConcurrentMap<UUID, AtomicLong> expectedSeqNumByTopicPubId = new ConcurrentHashMap<>();
-    
+    private final UUIDCopyOnWriteHashMap<AtomicLong> expectedSeqNumByTopicPubId = new UUIDCopyOnWriteHashMap<>();
+
+    /** Requester for the retransmission, replay and snapshot of messages, it may be null if not provided */
+    private final IRetransmitRequester retransmitRequester;
+
+    /** True if the topic has retransmission cache and the gaps are recovered */
+    private final boolean gapRecoveryEnabled;
+
+    /** Gap recovery state for each TopicId, only used if the topic has retransmission */
+    private final UUIDCopyOnWriteHashMap<TopicPubGapRecovery> gapRecoveryByTopicPubId = new UUIDCopyOnWriteHashMap<>();
+
+    /** Sequence number to replay each topic publisher from for the normal listener, NO_REPLAY if there is no replay */
+    private volatile long replayFromSeq = NO_REPLAY;
+
+    /** Replay state for each TopicId, only used if the normal listener has been set with replay */
+    private final UUIDCopyOnWriteHashMap<TopicPubReplay> replayByTopicPubId = new UUIDCopyOnWriteHashMap<>();
+
+    /** Checker of the timeouts of each gap recovery, it is reused to avoid generating garbage on each check */
+    private final Consumer<TopicPubGapRecovery> gapRecoveryTimeoutsChecker = gapRecovery -> gapRecovery.checkTimeouts(this);
+
+    /** Checker of the timeouts of each replay, it is reused to avoid generating garbage on each check */
+    private final Consumer<TopicPubReplay> replayTimeoutsChecker = replay -> replay.checkTimeouts(this);
+
+    /** True if the topic is durable and the normal listener may replay the journals of the topic publishers */
+    private final boolean replayEnabled;
+
+    /** True if the topic has last value cache and the snapshots of the topic publishers are requested */
+    private final boolean snapshotEnabled;
+
+    /** Last value snapshot state for each TopicId, only used if the topic has last value cache */
+    private final UUIDCopyOnWriteHashMap<TopicPubSnapshot> snapshotByTopicPubId = new UUIDCopyOnWriteHashMap<>();
+
+    /** Checker of the timeouts of each snapshot, it is reused to avoid generating garbage on each check */
+    private final Consumer<TopicPubSnapshot> snapshotTimeoutsChecker = snapshot -> snapshot.checkTimeouts(this);
+
     /**
      * Constructs a new topic subscriber
      *
@@ -56,9 +112,30 @@ class TopicSubscriber implements Closeable
      * @param topicConfig Topic configuration
      */
     TopicSubscriber(final String topicName, final TopicTemplateConfig topicConfig)
+    {
+        this(topicName, topicConfig, null);
+    }
+
+    /**
+     * Constructs a new topic subscriber
+     *
+     * @param topicName Topic name the subscriber is associated to
+     * @param topicConfig Topic configuration
+     * @param retransmitRequester requester for the retransmission of lost messages, the replays and the last value snapshots
+     */
+    TopicSubscriber(final String topicName, final TopicTemplateConfig topicConfig, final IRetransmitRequester retransmitRequester)
     {
         this.topicName = topicName;
         this.topicConfig = topicConfig;
+
+        this.retransmitRequester = retransmitRequester;
+
+        final Integer retransmitCacheSize = topicConfig.getRetransmitCacheSize();
+        this.gapRecoveryEnabled = retransmitRequester != null && retransmitCacheSize != null && retransmitCacheSize > 0;
+        this.replayEnabled = retransmitRequester != null && Boolean.TRUE.equals(topicConfig.getDurable());
+
+        final Integer lastValueCacheSize = topicConfig.getLastValueCacheSize();
+        this.snapshotEnabled = retransmitRequester != null && lastValueCacheSize != null && lastValueCacheSize > 0;
     }
 
     /**
@@ -68,6 +145,34 @@ class TopicSubscriber implements Closeable
      */
     void onMessageReceived(final RcvMessage receivedMessage)
     {
+        if (this.isReplayActive())
+        {
+            if (this.holdForReplay(receivedMessage))
+            {
+                return;
+            }
+        }
+        else if (this.snapshotEnabled && this.holdForSnapshot(receivedMessage))
+        {
+            return;
+        }
+
+        this.processLiveMessage(receivedMessage);
+    }
+
+    /**
+     * Process a live message once it is not held by a replay or snapshot
+     *
+     * @param receivedMessage the received message
+     */
+    private void processLiveMessage(final RcvMessage receivedMessage)
+    {
+        if (this.gapRecoveryEnabled)
+        {
+            this.getOrCreateGapRecovery(receivedMessage).onMessage(receivedMessage, this);
+            return;
+        }
+
         final ITopicSubListener currentNormalListener = this.normalListener;
         final MsgLostReport lostReport = this.checkMessageLoss(receivedMessage);
 
@@ -81,14 +186,22 @@ class TopicSubscriber implements Closeable
             this.normalListener.onMessageReceived(receivedMessage);
         }
 
-        if (notDuplicatedData(lostReport) && !this.patternListenersByPattern.isEmpty())
+        final ITopicSubListener[] currentPatternListeners = this.patternListeners;
+
+        if (notDuplicatedData(lostReport) && currentPatternListeners.length > 0)
         {
             if (lostReport != null)
             {
-                this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
+                for (final ITopicSubListener patternListener : currentPatternListeners)
+                {
+                    patternListener.onMessageLost(lostReport);
+                }
+            }
+
+            for (final ITopicSubListener patternListener : currentPatternListeners)
+            {
+                patternListener.onMessageReceived(receivedMessage);
             }
-                        
-            this.patternListenersByPattern.forEach((key, value) -> value.onMessageReceived(receivedMessage));
         }
     }
 
@@ -99,6 +212,34 @@ class TopicSubscriber implements Closeable
      */
     void onRequestReceived(final RcvRequest receivedRequest)
     {
+        if (this.isReplayActive())
+        {
+            if (this.holdForReplay(receivedRequest))
+            {
+                return;
+            }
+        }
+        else if (this.snapshotEnabled && this.holdForSnapshot(receivedRequest))
+        {
+            return;
+        }
+
+        this.processLiveRequest(receivedRequest);
+    }
+
+    /**
+     * Process a live request once it is not held by a replay or snapshot
+     *
+     * @param receivedRequest the received request
+     */
+    private void processLiveRequest(final RcvRequest receivedRequest)
+    {
+        if (this.gapRecoveryEnabled)
+        {
+            this.getOrCreateGapRecovery(receivedRequest).onMessage(receivedRequest, this);
+            return;
+        }
+
         final MsgLostReport lostReport = this.checkMessageLoss(receivedRequest);
 
         if (notDuplicatedData(lostReport) && this.normalListener != null)
@@ -111,14 +252,22 @@ class TopicSubscriber implements Closeable
             this.normalListener.onRequestReceived(receivedRequest);
         }
 
-        if (notDuplicatedData(lostReport) && !this.patternListenersByPattern.isEmpty())
+        final ITopicSubListener[] currentPatternListeners = this.patternListeners;
+
+        if (notDuplicatedData(lostReport) && currentPatternListeners.length > 0)
         {
             if (lostReport != null)
             {
-                this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
+                for (final ITopicSubListener patternListener : currentPatternListeners)
+                {
+                    patternListener.onMessageLost(lostReport);
+                }
             }
 
-            this.patternListenersByPattern.forEach((key, value) -> value.onRequestReceived(receivedRequest));
+            for (final ITopicSubListener patternListener : currentPatternListeners)
+            {
+                patternListener.onRequestReceived(receivedRequest);
+            }
         }
     }
 
@@ -130,6 +279,53 @@ class TopicSubscriber implements Closeable
      */
     void onHeartbeatReceived(final MsgReqHeader heartbeatReqMsgHeader, final String topicName)
     {
+        if (this.isReplayActive())
+        {
+            final TopicPubReplay replay = this.getOrStartReplay(
+                    heartbeatReqMsgHeader.getTopicPublisherIdMsb(),
+                    heartbeatReqMsgHeader.getTopicPublisherIdLsb(),
+                    heartbeatReqMsgHeader.getInstanceId(),
+                    heartbeatReqMsgHeader.getTopicPublisherId(),
+                    heartbeatReqMsgHeader.getSequenceNumber());
+
+            if (replay != null && replay.onLiveHeartbeat(heartbeatReqMsgHeader.getSequenceNumber(), this))
+            {
+                return;
+            }
+        }
+        else if (this.snapshotEnabled)
+        {
+            final TopicPubSnapshot snapshot = this.getOrStartSnapshot(
+                    heartbeatReqMsgHeader.getTopicPublisherIdMsb(),
+                    heartbeatReqMsgHeader.getTopicPublisherIdLsb(),
+                    heartbeatReqMsgHeader.getInstanceId(),
+                    heartbeatReqMsgHeader.getTopicPublisherId());
+
+            if (snapshot.onLiveHeartbeat(heartbeatReqMsgHeader.getSequenceNumber(), this))
+            {
+                return;
+            }
+        }
+
+        if (this.gapRecoveryEnabled)
+        {
+            TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.get(
+                    heartbeatReqMsgHeader.getTopicPublisherIdMsb(), heartbeatReqMsgHeader.getTopicPublisherIdLsb());
+
+            if (gapRecovery == null)
+            {
+                gapRecovery = this.createGapRecovery(
+                        heartbeatReqMsgHeader.getTopicPublisherIdMsb(),
+                        heartbeatReqMsgHeader.getTopicPublisherIdLsb(),
+                        heartbeatReqMsgHeader.getInstanceId(),
+                        heartbeatReqMsgHeader.getTopicPublisherId(),
+                        heartbeatReqMsgHeader.getSequenceNumber());
+            }
+
+            gapRecovery.onHeartbeat(heartbeatReqMsgHeader.getSequenceNumber(), this);
+            return;
+        }
+
         final MsgLostReport lostReport = this.checkHeartbeatLoss(heartbeatReqMsgHeader, topicName);
 
         if (this.normalListener != null && lostReport != null)
@@ -137,10 +333,535 @@ class TopicSubscriber implements Closeable
                 this.normalListener.onMessageLost(lostReport);
         }
 
-        if (!this.patternListenersByPattern.isEmpty() && lostReport != null)
+        if (lostReport != null)
+        {
+            for (final ITopicSubListener patternListener : this.patternListeners)
+            {
+                patternListener.onMessageLost(lostReport);
+            }
+        }
+    }
+
+    /**
+     * Method called when a message retransmitted by a topic publisher is received. It is ignored if there is no gap
+     * waiting for it.
+     *
+     * @param retransmittedMessage the retransmitted message
+     */
+    void onRetransmittedMessageReceived(final RcvMessage retransmittedMessage)
+    {
+        // The messages before the first live one belong to the replay
+        final TopicPubReplay replay = this.replayByTopicPubId.get(
+                retransmittedMessage.getTopicPublisherIdMsb(), retransmittedMessage.getTopicPublisherIdLsb());
+
+        if (replay != null && retransmittedMessage.getSequenceNumber() < replay.getFirstLiveSeq())
+        {
+            replay.onReplayedMessage(retransmittedMessage, this);
+            return;
+        }
+
+        if (!this.gapRecoveryEnabled)
+        {
+            return;
+        }
+
+        final TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.get(
+                retransmittedMessage.getTopicPublisherIdMsb(), retransmittedMessage.getTopicPublisherIdLsb());
+
+        if (gapRecovery != null)
+        {
+            gapRecovery.onRetransmittedMessage(retransmittedMessage, this);
+        }
+    }
+
+    /**
+     * Method called when a topic publisher notifies a range of messages that cannot be retransmitted
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param firstSequenceNumber first sequence number of the range
+     * @param lastSequenceNumber last sequence number of the range, inclusive
+     */
+    void onRetransmitLostReceived(final long topicPubIdMsb, final long topicPubIdLsb, final long firstSequenceNumber, final long lastSequenceNumber)
+    {
+        // The ranges that end before the first live message belong to the replay
+        final TopicPubReplay replay = this.replayByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+
+        if (replay != null && lastSequenceNumber < replay.getFirstLiveSeq())
+        {
+            replay.onReplayLost(firstSequenceNumber, lastSequenceNumber, this);
+            return;
+        }
+
+        if (!this.gapRecoveryEnabled)
+        {
+            return;
+        }
+
+        final TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+
+        if (gapRecovery != null)
+        {
+            gapRecovery.onRetransmitLost(firstSequenceNumber, lastSequenceNumber, this);
+        }
+    }
+
+    /**
+     * Method called when a message of the last value snapshot of a topic publisher is received. It is ignored if there is no
+     * snapshot waiting for it.
+     *
+     * @param snapshotMessage the snapshot message
+     */
+    void onSnapshotMessageReceived(final RcvMessage snapshotMessage)
+    {
+        final TopicPubSnapshot snapshot = this.snapshotByTopicPubId.get(
+                snapshotMessage.getTopicPublisherIdMsb(), snapshotMessage.getTopicPublisherIdLsb());
+
+        if (snapshot != null)
+        {
+            snapshot.onSnapshotMessage(snapshotMessage, this);
+        }
+    }
+
+    /**
+     * Method called when the end of the last value snapshot of a topic publisher is received. It is ignored if there is no
+     * snapshot waiting for it.
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param lastSequenceNumber last sequence number sent by the topic publisher when the snapshot was taken
+     */
+    void onSnapshotEndReceived(final long topicPubIdMsb, final long topicPubIdLsb, final long lastSequenceNumber)
+    {
+        final TopicPubSnapshot snapshot = this.snapshotByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+
+        if (snapshot != null)
+        {
+            snapshot.onSnapshotEnd(lastSequenceNumber, this);
+        }
+    }
+
+    @Override
+    public void onRecoveredMsg(final RcvMessage msg)
+    {
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        final ITopicSubListener[] currentPatternListeners = this.patternListeners;
+
+        if (msg instanceof RcvRequest)
+        {
+            final RcvRequest request = (RcvRequest)msg;
+
+            if (currentNormalListener != null)
+            {
+                currentNormalListener.onRequestReceived(request);
+            }
+
+            for (final ITopicSubListener patternListener : currentPatternListeners)
+            {
+                patternListener.onRequestReceived(request);
+            }
+        }
+        else
+        {
+            if (currentNormalListener != null)
+            {
+                currentNormalListener.onMessageReceived(msg);
+            }
+
+            for (final ITopicSubListener patternListener : currentPatternListeners)
+            {
+                patternListener.onMessageReceived(msg);
+            }
+        }
+    }
+
+    @Override
+    public void onRecoveryMsgsLost(final TopicPubGapRecovery recovery, final long numLostMsgs)
+    {
+        final MsgLostReport lostReport = new MsgLostReport(recovery.getInstanceId(), this.topicName, numLostMsgs, recovery.getTopicPublisherId());
+
+        log.warn("Message lost detected, the messages could not be retransmitted {}", lostReport);
+
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        if (currentNormalListener != null)
+        {
+            currentNormalListener.onMessageLost(lostReport);
+        }
+
+        for (final ITopicSubListener patternListener : this.patternListeners)
+        {
+            patternListener.onMessageLost(lostReport);
+        }
+    }
+
+    @Override
+    public void onReplayedMsg(final RcvMessage msg)
+    {
+        // The replay is only delivered to the normal listener that asked for it
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        if (currentNormalListener == null)
+        {
+            return;
+        }
+
+        if (msg instanceof RcvRequest)
+        {
+            currentNormalListener.onRequestReceived((RcvRequest)msg);
+        }
+        else
+        {
+            currentNormalListener.onMessageReceived(msg);
+        }
+    }
+
+    @Override
+    public void onReplayMsgsLost(final TopicPubReplay replay, final long numLostMsgs)
+    {
+        final MsgLostReport lostReport = new MsgLostReport(replay.getInstanceId(), this.topicName, numLostMsgs, replay.getTopicPublisherId());
+
+        log.warn("Message lost detected, the messages could not be replayed {}", lostReport);
+
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        if (currentNormalListener != null)
+        {
+            currentNormalListener.onMessageLost(lostReport);
+        }
+    }
+
+    @Override
+    public void onReplayHeldMsg(final RcvMessage msg)
+    {
+        if (msg instanceof RcvRequest)
+        {
+            this.processLiveRequest((RcvRequest)msg);
+        }
+        else
+        {
+            this.processLiveMessage(msg);
+        }
+    }
+
+    @Override
+    public void onReplayHeldHeartbeat(final TopicPubReplay replay, final long sequenceNumber)
+    {
+        this.processHeldHeartbeat(replay.getInstanceId(), replay.getTopicPublisherId(), sequenceNumber);
+    }
+
+    @Override
+    public void onSnapshotMsg(final RcvMessage msg)
+    {
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        if (currentNormalListener != null)
+        {
+            currentNormalListener.onMessageReceived(msg);
+        }
+
+        for (final ITopicSubListener patternListener : this.patternListeners)
+        {
+            patternListener.onMessageReceived(msg);
+        }
+    }
+
+    @Override
+    public void onSnapshotHeldMsg(final RcvMessage msg)
+    {
+        this.onReplayHeldMsg(msg);
+    }
+
+    @Override
+    public void onSnapshotHeldHeartbeat(final TopicPubSnapshot snapshot, final long sequenceNumber)
+    {
+        this.processHeldHeartbeat(snapshot.getInstanceId(), snapshot.getTopicPublisherId(), sequenceNumber);
+    }
+
+    /**
+     * Process a heartbeat held by a replay or snapshot, it updates the sequence number expected from the topic publisher
+     *
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @param sequenceNumber sequence number of the heartbeat
+     */
+    private void processHeldHeartbeat(final UUID instanceId, final UUID topicPubId, final long sequenceNumber)
+    {
+        if (this.gapRecoveryEnabled)
+        {
+            TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.get(topicPubId);
+
+            if (gapRecovery == null)
+            {
+                gapRecovery = this.createGapRecovery(
+                        topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), instanceId, topicPubId, sequenceNumber);
+            }
+
+            gapRecovery.onHeartbeat(sequenceNumber, this);
+            return;
+        }
+
+        // Only the expected sequence number is updated, the gaps are reported with the next message
+        final AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(topicPubId);
+
+        if (expectedSequenceNumber == null)
+        {
+            this.expectedSeqNumByTopicPubId.put(topicPubId, new AtomicLong(sequenceNumber + 1));
+        }
+        else if (expectedSequenceNumber.get() == sequenceNumber)
+        {
+            expectedSequenceNumber.incrementAndGet();
+        }
+    }
+
+    /** @return true if there may be a replay in progress or to start */
+    private boolean isReplayActive()
+    {
+        return this.replayFromSeq != NO_REPLAY || !this.replayByTopicPubId.isEmpty();
+    }
+
+    /**
+     * Hold a live message or request if the replay of its topic publisher is in progress, the replay is started with the first message
+     *
+     * @param msg the received message
+     * @return true if the message has been held
+     */
+    private boolean holdForReplay(final RcvMessage msg)
+    {
+        final TopicPubReplay replay = this.getOrStartReplay(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb(), msg.getInstanceId(), msg.getTopicPublisherId(), msg.getSequenceNumber());
+
+        return replay != null && replay.onLiveMessage(msg, this);
+    }
+
+    /**
+     * Return the replay of the topic publisher. If there is none and the normal listener has been set with replay, a new one is created
+     * and the replay of the messages before the given one is requested. If the normal listener has been removed the replay is cancelled.
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @param liveSequenceNumber sequence number of the live message received
+     * @return the replay of the topic publisher, null if there is none
+     */
+    private TopicPubReplay getOrStartReplay(final long topicPubIdMsb,
+                                            final long topicPubIdLsb,
+                                            final UUID instanceId,
+                                            final UUID topicPubId,
+                                            final long liveSequenceNumber)
+    {
+        final long fromSeq = this.replayFromSeq;
+        final TopicPubReplay replay = this.replayByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+
+        if (replay != null)
+        {
+            if (fromSeq == NO_REPLAY && replay.isReplaying())
+            {
+                replay.cancel(this);
+            }
+
+            return replay;
+        }
+
+        if (fromSeq == NO_REPLAY)
+        {
+            return null;
+        }
+
+        return this.startReplay(topicPubIdMsb, topicPubIdLsb, instanceId, topicPubId, fromSeq, liveSequenceNumber);
+    }
+
+    /**
+     * Create the replay of a topic publisher and request it, if it has been created concurrently the existing one is returned
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @param fromSeq sequence number of the first message to replay
+     * @param liveSequenceNumber sequence number of the first live message, TopicPubReplay.UNKNOWN_LIVE_SEQ if none has been received
+     * @return the replay of the topic publisher
+     */
+    private TopicPubReplay startReplay(final long topicPubIdMsb,
+                                       final long topicPubIdLsb,
+                                       final UUID instanceId,
+                                       final UUID topicPubId,
+                                       final long fromSeq,
+                                       final long liveSequenceNumber)
+    {
+        final TopicPubReplay newReplay = new TopicPubReplay(
+                instanceId,
+                topicPubId,
+                fromSeq,
+                liveSequenceNumber,
+                this.retransmitRequester,
+                this.topicConfig.getReplayMaxHeldMsgs(),
+                this.topicConfig.getReplayTimeoutMillis());
+
+        final TopicPubReplay existing = this.replayByTopicPubId.putIfAbsent(topicPubIdMsb, topicPubIdLsb, newReplay);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        if (newReplay.isReplaying())
+        {
+            log.info("Requesting replay of messages from [{}] from topic publisher [{}] of topic [{}]", fromSeq, topicPubId, this.topicName);
+            newReplay.requestReplay();
+        }
+
+        return newReplay;
+    }
+
+    /**
+     * Hold a live message or request if the snapshot of its topic publisher is in progress, the snapshot is started with the first
+     * message if the topic publisher has not been discovered yet
+     *
+     * @param msg the received message
+     * @return true if the message has been held or discarded because it is covered by the snapshot
+     */
+    private boolean holdForSnapshot(final RcvMessage msg)
+    {
+        final TopicPubSnapshot snapshot = this.getOrStartSnapshot(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb(), msg.getInstanceId(), msg.getTopicPublisherId());
+
+        return snapshot.onLiveMessage(msg, this);
+    }
+
+    /**
+     * Return the snapshot of the topic publisher, if there is none a new one is created and requested
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @return the snapshot of the topic publisher
+     */
+    private TopicPubSnapshot getOrStartSnapshot(final long topicPubIdMsb, final long topicPubIdLsb, final UUID instanceId, final UUID topicPubId)
+    {
+        final TopicPubSnapshot snapshot = this.snapshotByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+
+        if (snapshot != null)
         {
-                this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
+            return snapshot;
         }
+
+        return this.startSnapshot(topicPubIdMsb, topicPubIdLsb, instanceId, topicPubId);
+    }
+
+    /**
+     * Create the snapshot of a topic publisher and request it, if it has been created concurrently the existing one is returned
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @return the snapshot of the topic publisher
+     */
+    private TopicPubSnapshot startSnapshot(final long topicPubIdMsb, final long topicPubIdLsb, final UUID instanceId, final UUID topicPubId)
+    {
+        final TopicPubSnapshot newSnapshot = new TopicPubSnapshot(
+                instanceId,
+                topicPubId,
+                this.retransmitRequester,
+                this.topicConfig.getReplayMaxHeldMsgs(),
+                this.topicConfig.getLastValueSnapshotTimeoutMillis());
+
+        final TopicPubSnapshot existing = this.snapshotByTopicPubId.putIfAbsent(topicPubIdMsb, topicPubIdLsb, newSnapshot);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        log.info("Requesting last value snapshot from topic publisher [{}] of topic [{}]", topicPubId, this.topicName);
+        newSnapshot.requestSnapshot();
+
+        return newSnapshot;
+    }
+
+    /**
+     * Notify that a topic publisher of the topic has been discovered. If the normal listener has been set with replay, the replay
+     * of the topic publisher is started without waiting for its first live message. Otherwise if the topic has last value cache
+     * its snapshot is requested.
+     *
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     */
+    void onTopicPublisherDiscovered(final UUID instanceId, final UUID topicPubId)
+    {
+        final long fromSeq = this.replayFromSeq;
+
+        if (fromSeq == NO_REPLAY && !this.snapshotEnabled)
+        {
+            return;
+        }
+
+        if (this.replayByTopicPubId.containsKey(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits()) ||
+            this.snapshotByTopicPubId.containsKey(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits()))
+        {
+            return;
+        }
+
+        // Live messages have been received already, the replay or snapshot starts with the next one
+        if (this.expectedSeqNumByTopicPubId.get(topicPubId) != null || this.gapRecoveryByTopicPubId.get(topicPubId) != null)
+        {
+            return;
+        }
+
+        if (fromSeq == NO_REPLAY)
+        {
+            this.startSnapshot(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), instanceId, topicPubId);
+        }
+        else
+        {
+            this.startReplay(
+                    topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), instanceId, topicPubId, fromSeq, TopicPubReplay.UNKNOWN_LIVE_SEQ);
+        }
+    }
+
+    /**
+     * Return the gap recovery of the topic publisher of the message, it is created with the first message
+     *
+     * @param msg the received message
+     * @return the gap recovery of the topic publisher
+     */
+    private TopicPubGapRecovery getOrCreateGapRecovery(final RcvMessage msg)
+    {
+        final TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.get(msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
+
+        if (gapRecovery != null)
+        {
+            return gapRecovery;
+        }
+
+        return this.createGapRecovery(
+                msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb(), msg.getInstanceId(), msg.getTopicPublisherId(), msg.getSequenceNumber());
+    }
+
+    /**
+     * Create the gap recovery of a topic publisher, if it has been created concurrently the existing one is returned
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param instanceId unique id of the instance of the topic publisher
+     * @param topicPubId unique id of the topic publisher
+     * @param firstSequenceNumber sequence number of the first message received from the topic publisher
+     * @return the gap recovery of the topic publisher
+     */
+    private TopicPubGapRecovery createGapRecovery(final long topicPubIdMsb,
+                                                  final long topicPubIdLsb,
+                                                  final UUID instanceId,
+                                                  final UUID topicPubId,
+                                                  final long firstSequenceNumber)
+    {
+        final TopicPubGapRecovery newGapRecovery = new TopicPubGapRecovery(
+                instanceId,
+                topicPubId,
+                firstSequenceNumber,
+                this.retransmitRequester,
+                this.topicConfig.getRetransmitCacheSize(),
+                this.topicConfig.getRetransmitTimeoutMillis());
+
+        final TopicPubGapRecovery existing = this.gapRecoveryByTopicPubId.putIfAbsent(topicPubIdMsb, topicPubIdLsb, newGapRecovery);
+
+        return existing == null ? newGapRecovery : existing;
     }
 
     /**
@@ -155,6 +876,7 @@ class TopicSubscriber implements Closeable
         }
 
         this.normalListener = null;
+        this.replayFromSeq = NO_REPLAY;
         return true;
     }
 
@@ -175,6 +897,42 @@ class TopicSubscriber implements Closeable
         return true;
     }
 
+    /**
+     * Set the normal listener created due to a normal topic subscription that replays the journal of each topic publisher from
+     * the given sequence number. The replay of each topic publisher starts when it is discovered or with the next live message
+     * received from it.
+     *
+     * @param listener the listener
+     * @param fromSequenceNumber sequence number of the first message to replay, NO_REPLAY for no replay
+     * @return false if is was already settled
+     */
+    boolean setNormalListener(final ITopicSubListener listener, final long fromSequenceNumber)
+    {
+        if (this.normalListener != null)
+        {
+            return false;
+        }
+
+        if (fromSequenceNumber == NO_REPLAY)
+        {
+            this.normalListener = listener;
+            return true;
+        }
+
+        if (this.retransmitRequester == null)
+        {
+            log.warn("Replay requested on topic [{}] without a retransmission requester, it will be ignored", this.topicName);
+        }
+        else
+        {
+            // Set before the listener to replay any message the listener may receive
+            this.replayFromSeq = Math.max(1, fromSequenceNumber);
+        }
+
+        this.normalListener = listener;
+        return true;
+    }
+
     /**
      * Add a listener created due to a pattern subscription for incoming messages and requests
      *
@@ -184,7 +942,12 @@ class TopicSubscriber implements Closeable
      */
     boolean addPatternListener(final String pattern, final ITopicSubListener listener)
     {
-        return this.patternListenersByPattern.putIfAbsent(pattern, listener) == null;
+        synchronized (this.patternListenersLock)
+        {
+            final boolean added = this.patternListenersByPattern.putIfAbsent(pattern, listener) == null;
+            this.patternListeners = this.patternListenersByPattern.values().toArray(EMPTY_LISTENERS);
+            return added;
+        }
     }
 
     /**
@@ -195,7 +958,12 @@ class TopicSubscriber implements Closeable
      */
     boolean removePatternListener(final String pattern)
     {
-        return this.patternListenersByPattern.remove(pattern) != null;
+        synchronized (this.patternListenersLock)
+        {
+            final boolean removed = this.patternListenersByPattern.remove(pattern) != null;
+            this.patternListeners = this.patternListenersByPattern.values().toArray(EMPTY_LISTENERS);
+            return removed;
+        }
     }
 
     /**
@@ -230,8 +998,46 @@ class TopicSubscriber implements Closeable
     {
         this.aeronSubscribers.clear();
         this.normalListener = null;
-        this.patternListenersByPattern.clear();
+        synchronized (this.patternListenersLock)
+        {
+            this.patternListenersByPattern.clear();
+            this.patternListeners = EMPTY_LISTENERS;
+        }
         this.expectedSeqNumByTopicPubId.clear();
+        this.gapRecoveryByTopicPubId.clear();
+        this.replayFromSeq = NO_REPLAY;
+        this.replayByTopicPubId.clear();
+        this.snapshotByTopicPubId.clear();
+    }
+
+    /**
+     * True if the topic subscriber has state with timeouts that has to be checked periodically by calling {@link #checkTimeouts()}
+     */
+    boolean hasTimeouts()
+    {
+        return this.gapRecoveryEnabled || this.replayEnabled || this.snapshotEnabled;
+    }
+
+    /**
+     * Check the timeouts of the held messages and retry the pending requests. It is called periodically from the poller duty cycle
+     * to deliver the held messages when no more events are received from the topic publishers.
+     */
+    void checkTimeouts()
+    {
+        if (this.replayEnabled)
+        {
+            this.replayByTopicPubId.forEachValue(this.replayTimeoutsChecker);
+        }
+
+        if (this.snapshotEnabled)
+        {
+            this.snapshotByTopicPubId.forEachValue(this.snapshotTimeoutsChecker);
+        }
+
+        if (this.gapRecoveryEnabled)
+        {
+            this.gapRecoveryByTopicPubId.forEachValue(this.gapRecoveryTimeoutsChecker);
+        }
     }
 
     /**
@@ -264,14 +1070,14 @@ class TopicSubscriber implements Closeable
         MsgLostReport lossResult = null;
 
         // Check if there is an expected sequence number for the topic publisher
-        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(msg.getTopicPublisherId());
+        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb());
 
         // There is no number, add a new expected sequence
         if (expectedSequenceNumber == null)
         {
             // Update the expected sequence number to the next one
             expectedSequenceNumber = new AtomicLong(msg.getSequenceNumber() + 1);
-            this.expectedSeqNumByTopicPubId.put(msg.getTopicPublisherId(), expectedSequenceNumber);
+            this.expectedSeqNumByTopicPubId.put(msg.getTopicPublisherIdMsb(), msg.getTopicPublisherIdLsb(), expectedSequenceNumber);
         }
         else if (expectedSequenceNumber.get() != msg.getSequenceNumber()) // There is an expected sequence number, check for gap
         {
@@ -310,14 +1116,16 @@ class TopicSubscriber implements Closeable
         MsgLostReport lossResult = null;
 
         // Check if there is an expected sequence number for the topic publisher
-        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(heartbeatReqMsgHeader.getTopicPublisherId());
+        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(
+                heartbeatReqMsgHeader.getTopicPublisherIdMsb(), heartbeatReqMsgHeader.getTopicPublisherIdLsb());
 
         // There is no number, add a new expected sequence
         if (expectedSequenceNumber == null)
         {
             // Update the expected sequence number to the next one
             expectedSequenceNumber = new AtomicLong(heartbeatReqMsgHeader.getSequenceNumber() + 1);
-            this.expectedSeqNumByTopicPubId.put(heartbeatReqMsgHeader.getTopicPublisherId(), expectedSequenceNumber);
+            this.expectedSeqNumByTopicPubId.put(
+                    heartbeatReqMsgHeader.getTopicPublisherIdMsb(), heartbeatReqMsgHeader.getTopicPublisherIdLsb(), expectedSequenceNumber);
         }
         else if (expectedSequenceNumber.get() != heartbeatReqMsgHeader.getSequenceNumber()) // There is an expected sequence number, check for gap
         {
@@ -360,6 +1168,27 @@ class TopicSubscriber implements Closeable
      */
     void onTopicPublisherRemoved(final UUID topicPubId)
     {
+        // Deliver the messages held waiting for the replay
+        final TopicPubReplay replay = this.replayByTopicPubId.remove(topicPubId);
+        if (replay != null)
+        {
+            replay.cancel(this);
+        }
+
+        // Deliver the messages held waiting for the snapshot
+        final TopicPubSnapshot snapshot = this.snapshotByTopicPubId.remove(topicPubId);
+        if (snapshot != null)
+        {
+            snapshot.cancel(this);
+        }
+
         this.expectedSeqNumByTopicPubId.remove(topicPubId);
+
+        // Deliver the messages held waiting for retransmission
+        final TopicPubGapRecovery gapRecovery = this.gapRecoveryByTopicPubId.remove(topicPubId);
+        if (gapRecovery != null)
+        {
+            gapRecovery.flush(this);
+        }
     }
 }
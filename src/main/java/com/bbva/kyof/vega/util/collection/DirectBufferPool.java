@@ -0,0 +1,195 @@
+package com.bbva.kyof.vega.util.collection;
+
+import org.agrona.BitUtil;
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of off-heap buffers organized in size classes. Each size class is a power of 2 between the min and max class
+ * capacity and keeps up to a maximum number of free buffers. <p>
+ *
+ * Buffers bigger than the max class capacity are pooled in large size classes, powers of 2 up to the max large class capacity,
+ * that keep a single free buffer each. Bigger buffers are rejected. If a size class is full on release the buffer is discarded,
+ * the retained memory is always bounded. <p>
+ *
+ * This class is thread safe!
+ */
+public final class DirectBufferPool
+{
+    /** Default capacity of the smallest size class */
+    public static final int DEFAULT_MIN_CLASS_CAPACITY = 4 * 1024;
+
+    /** Default capacity of the biggest size class */
+    public static final int DEFAULT_MAX_CLASS_CAPACITY = 1024 * 1024;
+
+    /** Default max number of free buffers retained per size class */
+    public static final int DEFAULT_BUFFERS_PER_CLASS = 4;
+
+    /** Default capacity of the biggest large size class, the max length of an Aeron message */
+    public static final int DEFAULT_MAX_LARGE_CLASS_CAPACITY = 16 * 1024 * 1024;
+
+    /** Capacity of the smallest size class */
+    private final int minClassCapacity;
+
+    /** Capacity of the biggest size class */
+    private final int maxClassCapacity;
+
+    /** Capacity of the biggest large size class, the biggest buffer that can be acquired */
+    private final int maxLargeClassCapacity;
+
+    /** Number of bits of the capacity of the smallest class, used to find the class index */
+    private final int minClassShift;
+
+    /** Free buffers of each size class */
+    private final ManyToManyConcurrentArrayQueue<ByteBuffer>[] freeBuffers;
+
+    /** Free buffer of each large size class, null if there is none */
+    private final AtomicReferenceArray<ByteBuffer> freeLargeBuffers;
+
+    /** Create a new pool with the default settings */
+    public DirectBufferPool()
+    {
+        this(DEFAULT_MIN_CLASS_CAPACITY, DEFAULT_MAX_CLASS_CAPACITY, DEFAULT_BUFFERS_PER_CLASS, DEFAULT_MAX_LARGE_CLASS_CAPACITY);
+    }
+
+    /**
+     * Create a new pool
+     *
+     * @param minClassCapacity capacity of the smallest size class, it is aligned to the next power of 2
+     * @param maxClassCapacity capacity of the biggest size class, it is aligned to the next power of 2
+     * @param buffersPerClass max number of free buffers retained per size class
+     * @param maxLargeClassCapacity capacity of the biggest large size class, it is aligned to the next power of 2
+     */
+    @SuppressWarnings("unchecked")
+    public DirectBufferPool(final int minClassCapacity, final int maxClassCapacity, final int buffersPerClass, final int maxLargeClassCapacity)
+    {
+        this.minClassCapacity = BitUtil.findNextPositivePowerOfTwo(minClassCapacity);
+        this.maxClassCapacity = Math.max(this.minClassCapacity, BitUtil.findNextPositivePowerOfTwo(maxClassCapacity));
+        this.maxLargeClassCapacity = Math.max(this.maxClassCapacity, BitUtil.findNextPositivePowerOfTwo(maxLargeClassCapacity));
+        this.minClassShift = Integer.numberOfTrailingZeros(this.minClassCapacity);
+
+        final int numClasses = Integer.numberOfTrailingZeros(this.maxClassCapacity) - this.minClassShift + 1;
+        this.freeBuffers = new ManyToManyConcurrentArrayQueue[numClasses];
+
+        for (int i = 0; i < numClasses; i++)
+        {
+            this.freeBuffers[i] = new ManyToManyConcurrentArrayQueue<>(buffersPerClass);
+        }
+
+        this.freeLargeBuffers = new AtomicReferenceArray<>(Integer.numberOfTrailingZeros(this.maxLargeClassCapacity) - Integer.numberOfTrailingZeros(this.maxClassCapacity));
+    }
+
+    /** @return the capacity of the biggest buffer that can be acquired */
+    public int getMaxCapacity()
+    {
+        return this.maxLargeClassCapacity;
+    }
+
+    /**
+     * Get a buffer with at least the given capacity. The position of the returned buffer is 0 and the limit is the capacity.
+     *
+     * @param minCapacity the min capacity of the buffer, up to {@link #getMaxCapacity()}
+     * @return the buffer, it should be returned calling {@link #release(ByteBuffer)} once is no longer used
+     * @throws IllegalArgumentException if the capacity is bigger than the biggest large size class
+     */
+    public ByteBuffer acquire(final int minCapacity)
+    {
+        if (minCapacity > this.maxLargeClassCapacity)
+        {
+            throw new IllegalArgumentException("Buffer capacity " + minCapacity + " bigger than the max pooled capacity " + this.maxLargeClassCapacity);
+        }
+
+        final int classCapacity = Math.max(this.minClassCapacity, BitUtil.findNextPositivePowerOfTwo(minCapacity));
+        final ByteBuffer buffer;
+
+        if (classCapacity > this.maxClassCapacity)
+        {
+            buffer = this.freeLargeBuffers.getAndSet(this.largeClassIndex(classCapacity), null);
+        }
+        else
+        {
+            buffer = this.freeBuffers[this.classIndex(classCapacity)].poll();
+        }
+
+        if (buffer == null)
+        {
+            return ByteBuffer.allocateDirect(classCapacity);
+        }
+
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer obtained with {@link #acquire(int)} to the pool. The buffer should not be used after the call.
+     *
+     * @param buffer the buffer to return
+     */
+    public void release(final ByteBuffer buffer)
+    {
+        final int capacity = buffer.capacity();
+
+        // Only the buffers of a size class are retained
+        if (!buffer.isDirect() || capacity < this.minClassCapacity || capacity > this.maxLargeClassCapacity || !BitUtil.isPowerOfTwo(capacity))
+        {
+            return;
+        }
+
+        // If the class is full the buffer is discarded
+        if (capacity > this.maxClassCapacity)
+        {
+            this.freeLargeBuffers.compareAndSet(this.largeClassIndex(capacity), null, buffer);
+        }
+        else
+        {
+            this.freeBuffers[this.classIndex(capacity)].offer(buffer);
+        }
+    }
+
+    /**
+     * Return the number of free buffers retained in the size class that would serve the given capacity
+     *
+     * @param capacity the capacity
+     * @return the number of free buffers, 0 if the capacity is not pooled
+     */
+    public int freeBuffers(final int capacity)
+    {
+        if (capacity > this.maxLargeClassCapacity)
+        {
+            return 0;
+        }
+
+        final int classCapacity = Math.max(this.minClassCapacity, BitUtil.findNextPositivePowerOfTwo(capacity));
+
+        if (classCapacity > this.maxClassCapacity)
+        {
+            return this.freeLargeBuffers.get(this.largeClassIndex(classCapacity)) == null ? 0 : 1;
+        }
+
+        return this.freeBuffers[this.classIndex(classCapacity)].size();
+    }
+
+    /**
+     * Return the index of the size class of the given class capacity
+     *
+     * @param classCapacity the capacity of the class, a power of 2 between the min and max class capacity
+     * @return the index of the class
+     */
+    private int classIndex(final int classCapacity)
+    {
+        return Integer.numberOfTrailingZeros(classCapacity) - this.minClassShift;
+    }
+
+    /**
+     * Return the index of the large size class of the given class capacity
+     *
+     * @param classCapacity the capacity of the class, a power of 2 bigger than the max class capacity up to the max large class capacity
+     * @return the index of the large class
+     */
+    private int largeClassIndex(final int classCapacity)
+    {
+        return Integer.numberOfTrailingZeros(classCapacity) - Integer.numberOfTrailingZeros(this.maxClassCapacity) - 1;
+    }
+}
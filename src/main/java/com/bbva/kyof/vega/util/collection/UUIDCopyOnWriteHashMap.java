@@ -0,0 +1,342 @@
+package com.bbva.kyof.vega.util.collection;
+
+import org.agrona.BitUtil;
+import org.agrona.collections.Hashing;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map keyed by UUID values that are stored as their 2 primitive longs, the most and least significant bits. <p>
+ *
+ * It is designed for lookups on the receive path, where the UUIDs are read from the message headers. The keys can be searched
+ * directly with the 2 longs without creating a UUID object and the lookups don't generate any garbage. <p>
+ *
+ * Modifications are expected to be rare, every modification creates a new copy of the internal table that is published atomically,
+ * the readers never lock and always see a consistent table. <p>
+ *
+ * Null values are not allowed.
+ *
+ * This class is thread safe!
+ *
+ * @param <V> Type of the values of the map
+ */
+public class UUIDCopyOnWriteHashMap<V>
+{
+    /** Default initial capacity of the internal table */
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    /** Current table, it is never modified once published */
+    private volatile Table table;
+
+    /** Lock for modifications */
+    private final Object lock = new Object();
+
+    /** Create a new map with the default initial capacity */
+    public UUIDCopyOnWriteHashMap()
+    {
+        this.table = new Table(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Return the value for the given key
+     *
+     * @param keyMsb most significant bits of the key
+     * @param keyLsb least significant bits of the key
+     * @return the value, null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long keyMsb, final long keyLsb)
+    {
+        return (V)this.table.get(keyMsb, keyLsb);
+    }
+
+    /**
+     * Return the value for the given key
+     *
+     * @param key the key to look for
+     * @return the value, null if not found
+     */
+    public V get(final UUID key)
+    {
+        return this.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Return true if the map contains the given key
+     *
+     * @param keyMsb most significant bits of the key
+     * @param keyLsb least significant bits of the key
+     * @return true if contained
+     */
+    public boolean containsKey(final long keyMsb, final long keyLsb)
+    {
+        return this.table.get(keyMsb, keyLsb) != null;
+    }
+
+    /**
+     * Put a new value in the map, replacing any existing value for the key
+     *
+     * @param keyMsb most significant bits of the key
+     * @param keyLsb least significant bits of the key
+     * @param value the value, it cannot be null
+     * @return the previous value for the key, null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long keyMsb, final long keyLsb, final V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+
+        synchronized (this.lock)
+        {
+            final Table current = this.table;
+
+            // Grow if the table would be more than half full, it keeps the probe sequences short
+            final int newCapacity = (current.size + 1) * 2 > current.capacity() ? current.capacity() * 2 : current.capacity();
+            final Table newTable = current.copy(newCapacity, keyMsb, keyLsb, false);
+            final Object previous = newTable.put(keyMsb, keyLsb, value);
+
+            this.table = newTable;
+            return (V)previous;
+        }
+    }
+
+    /**
+     * Put a new value in the map, replacing any existing value for the key
+     *
+     * @param key the key
+     * @param value the value, it cannot be null
+     * @return the previous value for the key, null if there was none
+     */
+    public V put(final UUID key, final V value)
+    {
+        return this.put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    /**
+     * Put a new value in the map if there is no value for the key
+     *
+     * @param keyMsb most significant bits of the key
+     * @param keyLsb least significant bits of the key
+     * @param value the value, it cannot be null
+     * @return the existing value for the key, null if there was none and the value has been added
+     */
+    public V putIfAbsent(final long keyMsb, final long keyLsb, final V value)
+    {
+        synchronized (this.lock)
+        {
+            final V existing = this.get(keyMsb, keyLsb);
+
+            if (existing != null)
+            {
+                return existing;
+            }
+
+            this.put(keyMsb, keyLsb, value);
+            return null;
+        }
+    }
+
+    /**
+     * Remove the value for the given key
+     *
+     * @param keyMsb most significant bits of the key
+     * @param keyLsb least significant bits of the key
+     * @return the removed value, null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long keyMsb, final long keyLsb)
+    {
+        synchronized (this.lock)
+        {
+            final Table current = this.table;
+            final Object previous = current.get(keyMsb, keyLsb);
+
+            if (previous != null)
+            {
+                // Rebuild the table without the key, there is no need to handle deleted slots this way
+                this.table = current.copy(current.capacity(), keyMsb, keyLsb, true);
+            }
+
+            return (V)previous;
+        }
+    }
+
+    /**
+     * Remove the value for the given key
+     *
+     * @param key the key
+     * @return the removed value, null if not found
+     */
+    public V remove(final UUID key)
+    {
+        return this.remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /** Remove all the elements of the map */
+    public void clear()
+    {
+        synchronized (this.lock)
+        {
+            this.table = new Table(DEFAULT_INITIAL_CAPACITY);
+        }
+    }
+
+    /** @return the number of elements in the map */
+    public int size()
+    {
+        return this.table.size;
+    }
+
+    /** @return true if the map is empty */
+    public boolean isEmpty()
+    {
+        return this.table.size == 0;
+    }
+
+    /**
+     * Run the consumer for each value of the map. It iterates the table published when the call is made, the modifications
+     * made during the iteration are not visible. It doesn't generate any garbage.
+     *
+     * @param consumer consumer to run for each value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(final Consumer<V> consumer)
+    {
+        final Object[] values = this.table.values;
+
+        for (final Object value : values)
+        {
+            if (value != null)
+            {
+                consumer.accept((V) value);
+            }
+        }
+    }
+
+    /** Internal table with linear probing, each slot stores the 2 longs of the key and the value */
+    private static final class Table
+    {
+        /** Keys, each slot uses 2 consecutive positions for the most and least significant bits */
+        private final long[] keys;
+
+        /** Values, a null value means the slot is free */
+        private final Object[] values;
+
+        /** Mask to find the slot of a hash */
+        private final int mask;
+
+        /** Number of elements in the table */
+        private int size = 0;
+
+        /**
+         * Create a new empty table
+         * @param capacity number of slots, it is rounded to the next power of 2
+         */
+        private Table(final int capacity)
+        {
+            final int slots = BitUtil.findNextPositivePowerOfTwo(capacity);
+            this.keys = new long[slots * 2];
+            this.values = new Object[slots];
+            this.mask = slots - 1;
+        }
+
+        /** @return the number of slots of the table */
+        private int capacity()
+        {
+            return this.values.length;
+        }
+
+        /**
+         * Find the value for the given key
+         *
+         * @param keyMsb most significant bits of the key
+         * @param keyLsb least significant bits of the key
+         * @return the value, null if not found
+         */
+        private Object get(final long keyMsb, final long keyLsb)
+        {
+            int slot = Hashing.hash(keyMsb ^ keyLsb, this.mask);
+
+            Object value;
+            while ((value = this.values[slot]) != null)
+            {
+                if (this.keys[slot * 2] == keyMsb && this.keys[slot * 2 + 1] == keyLsb)
+                {
+                    return value;
+                }
+
+                slot = (slot + 1) & this.mask;
+            }
+
+            return null;
+        }
+
+        /**
+         * Put the value for the given key, only used while the table has not been published
+         *
+         * @param keyMsb most significant bits of the key
+         * @param keyLsb least significant bits of the key
+         * @param value the value to put
+         * @return the previous value, null if none
+         */
+        private Object put(final long keyMsb, final long keyLsb, final Object value)
+        {
+            int slot = Hashing.hash(keyMsb ^ keyLsb, this.mask);
+
+            Object previous;
+            while ((previous = this.values[slot]) != null)
+            {
+                if (this.keys[slot * 2] == keyMsb && this.keys[slot * 2 + 1] == keyLsb)
+                {
+                    this.values[slot] = value;
+                    return previous;
+                }
+
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[slot * 2] = keyMsb;
+            this.keys[slot * 2 + 1] = keyLsb;
+            this.values[slot] = value;
+            this.size++;
+
+            return null;
+        }
+
+        /**
+         * Create a copy of the table with the given capacity
+         *
+         * @param newCapacity capacity of the new table
+         * @param keyMsb most significant bits of a key to exclude from the copy if exclude is true
+         * @param keyLsb least significant bits of a key to exclude from the copy if exclude is true
+         * @param exclude true to exclude the given key from the copy
+         * @return the new table
+         */
+        private Table copy(final int newCapacity, final long keyMsb, final long keyLsb, final boolean exclude)
+        {
+            final Table result = new Table(newCapacity);
+
+            for (int i = 0; i < this.values.length; i++)
+            {
+                if (this.values[i] == null)
+                {
+                    continue;
+                }
+
+                final long msb = this.keys[i * 2];
+                final long lsb = this.keys[i * 2 + 1];
+
+                if (!exclude || msb != keyMsb || lsb != keyLsb)
+                {
+                    result.put(msb, lsb, this.values[i]);
+                }
+            }
+
+            return result;
+        }
+    }
+}
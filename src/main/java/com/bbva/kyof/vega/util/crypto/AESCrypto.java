@@ -1,6 +1,8 @@
 package com.bbva.kyof.vega.util.crypto;
 
 import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
@@ -28,6 +30,12 @@ public class AESCrypto
     private final CipherWrapper encoder;
     /** The Cipher that will decode the messages */
     private final CipherWrapper decoder;
+    /** Views over the messages to decode */
+    private final ByteBufferViews decodeSourceViews = new ByteBufferViews();
+    /** Views over the buffers for the decoded messages */
+    private final ByteBufferViews decodeTargetViews = new ByteBufferViews();
+    /** The AES-GCM cipher with the same key, created on first use */
+    private AesGcmCipher gcmCipher = null;
 
     /**
      * Create a new instance given the AES key that will be used to encode / decode
@@ -148,5 +156,45 @@ public class AESCrypto
     {
         decoder.runCipher(msgToDecode, resultBuffer);
     }
-}
 
+    /**
+     * Decode the given message and store the result in the provided buffer, the message is decoded directly from the buffer it
+     * is in without copying it first.
+     *
+     * @param msgToDecode buffer containing the message that should be decoded
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     * @param resultBuffer the buffer where the decoded message will be stored, it should have space for length bytes
+     * @param resultOffset the offset in the result buffer
+     * @return the length of the decoded message
+     * @throws VegaException exception thrown if there is an internal problem decoding the message
+     */
+    public int decode(final DirectBuffer msgToDecode, final int offset, final int length, final MutableDirectBuffer resultBuffer, final int resultOffset) throws VegaException
+    {
+        final ByteBuffer sourceView = this.decodeSourceViews.view(msgToDecode, offset, length);
+        final ByteBuffer targetView = this.decodeTargetViews.view(resultBuffer, resultOffset, length);
+        final int targetStart = targetView.position();
+
+        this.decoder.runCipher(sourceView, targetView);
+
+        final int decodedLength = targetView.position() - targetStart;
+        this.decodeTargetViews.copyBack(resultBuffer, resultOffset, decodedLength);
+        return decodedLength;
+    }
+
+    /**
+     * Return the AES-GCM cipher that uses the same AES key, it is created on the first call
+     *
+     * @return the AES-GCM cipher
+     * @throws VegaException exception thrown if the cipher cannot be created
+     */
+    public AesGcmCipher getGcmCipher() throws VegaException
+    {
+        if (this.gcmCipher == null)
+        {
+            this.gcmCipher = new AesGcmCipher(this.aesKey);
+        }
+
+        return this.gcmCipher;
+    }
+}
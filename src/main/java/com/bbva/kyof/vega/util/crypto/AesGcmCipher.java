@@ -0,0 +1,189 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Helper class to perform authenticated AES-GCM encryption of the messages of a topic publisher. <p>
+ *
+ * The nonce of each message is derived from its sequence number and a counter of the encryptions performed by the cipher, the
+ * counter is written before the encrypted contents so the message can be decrypted with the sequence number of the header.
+ * The counter makes the nonce unique even if a message with the same sequence number is encrypted again on a retry. <p>
+ *
+ * The encrypted message is: counter (4 bytes) + encrypted contents (same length as the message) + authentication tag (16 bytes). <p>
+ *
+ * The contents are encrypted and decrypted directly between the given buffers, without intermediate copies. <p>
+ *
+ * This class is not thread safe!!
+ */
+public class AesGcmCipher
+{
+    /** Size of the counter written before the encrypted contents */
+    public static final int COUNTER_SIZE = 4;
+
+    /** Size of the authentication tag written after the encrypted contents */
+    public static final int TAG_SIZE = 16;
+
+    /** Size added to a message by the encryption */
+    public static final int ENCRYPTION_OVERHEAD = COUNTER_SIZE + TAG_SIZE;
+
+    /** Size of the nonce, the sequence number followed by the counter */
+    private static final int NONCE_SIZE = 12;
+
+    /** The key used to encrypt and decrypt */
+    private final SecretKeySpec key;
+
+    /** The java Cipher instance that will perform the work, it is initialized for each message */
+    private final Cipher cipher;
+
+    /** Reusable nonce of the current message */
+    private final byte[] nonce = new byte[NONCE_SIZE];
+
+    /** Views over the source buffers */
+    private final ByteBufferViews sourceViews = new ByteBufferViews();
+
+    /** Views over the target buffers */
+    private final ByteBufferViews targetViews = new ByteBufferViews();
+
+    /** Counter of the encryptions performed */
+    private int counter = 0;
+
+    /**
+     * Create a new cipher given the AES key
+     *
+     * @param aesKey the AES key to encrypt and decrypt
+     * @throws VegaException exception thrown if there is a problem creating the Java cipher
+     */
+    public AesGcmCipher(final byte[] aesKey) throws VegaException
+    {
+        this.key = new SecretKeySpec(aesKey, "AES");
+
+        try
+        {
+            this.cipher = Cipher.getInstance(CipherCodecType.AES_GCM.getStringValue());
+        }
+        catch (final NoSuchAlgorithmException | NoSuchPaddingException e)
+        {
+            throw new VegaException("Error initializing AES-GCM cipher", e);
+        }
+    }
+
+    /**
+     * Calculate the size of a message once encrypted
+     *
+     * @param length the length of the message
+     * @return the size of the encrypted message
+     */
+    public static int encryptedSize(final int length)
+    {
+        return length + ENCRYPTION_OVERHEAD;
+    }
+
+    /**
+     * Encrypt a message into the target buffer
+     *
+     * @param sequenceNumber the sequence number the message is sent with
+     * @param message buffer with the message
+     * @param offset message offset in the buffer
+     * @param length message length starting from the offset
+     * @param target buffer to write the encrypted message to, it should have space for {@link #encryptedSize(int)} bytes
+     * @param targetOffset offset in the target buffer
+     * @return the size of the encrypted message
+     * @throws VegaException exception thrown if there is a problem encrypting the message
+     */
+    public int encrypt(final long sequenceNumber, final DirectBuffer message, final int offset, final int length, final MutableDirectBuffer target, final int targetOffset) throws VegaException
+    {
+        final int currentCounter = this.counter;
+        this.counter++;
+
+        target.putInt(targetOffset, currentCounter);
+
+        final int contentsOffset = targetOffset + COUNTER_SIZE;
+        final int contentsLength = length + TAG_SIZE;
+
+        this.runCipher(Cipher.ENCRYPT_MODE, sequenceNumber, currentCounter, message, offset, length, target, contentsOffset, contentsLength);
+
+        return encryptedSize(length);
+    }
+
+    /**
+     * Decrypt a message into the target buffer and verify its authenticity
+     *
+     * @param sequenceNumber the sequence number the message was received with
+     * @param encryptedMsg buffer with the encrypted message
+     * @param offset encrypted message offset in the buffer
+     * @param length encrypted message length starting from the offset
+     * @param target buffer to write the decrypted message to, it should have space for the length minus the overhead
+     * @param targetOffset offset in the target buffer
+     * @return the size of the decrypted message
+     * @throws VegaException exception thrown if the message is malformed or it has not been encrypted with the key and sequence number
+     */
+    public int decrypt(final long sequenceNumber, final DirectBuffer encryptedMsg, final int offset, final int length, final MutableDirectBuffer target, final int targetOffset) throws VegaException
+    {
+        if (length < ENCRYPTION_OVERHEAD)
+        {
+            throw new VegaException("Encrypted message too short to be an AES-GCM message");
+        }
+
+        final int msgCounter = encryptedMsg.getInt(offset);
+        final int decryptedLength = length - ENCRYPTION_OVERHEAD;
+
+        this.runCipher(Cipher.DECRYPT_MODE, sequenceNumber, msgCounter, encryptedMsg, offset + COUNTER_SIZE, length - COUNTER_SIZE, target, targetOffset, decryptedLength);
+
+        return decryptedLength;
+    }
+
+    /**
+     * Initialize the cipher with the nonce of the message and run it from the source region to the target region
+     */
+    private void runCipher(
+            final int mode,
+            final long sequenceNumber,
+            final int msgCounter,
+            final DirectBuffer source,
+            final int sourceOffset,
+            final int sourceLength,
+            final MutableDirectBuffer target,
+            final int targetOffset,
+            final int targetLength) throws VegaException
+    {
+        // Nonce: sequence number followed by the counter, big endian
+        for (int i = 0; i < 8; i++)
+        {
+            this.nonce[i] = (byte)(sequenceNumber >>> (56 - i * 8));
+        }
+        for (int i = 0; i < COUNTER_SIZE; i++)
+        {
+            this.nonce[8 + i] = (byte)(msgCounter >>> (24 - i * 8));
+        }
+
+        final ByteBuffer sourceView = this.sourceViews.view(source, sourceOffset, sourceLength);
+        final ByteBuffer targetView = this.targetViews.view(target, targetOffset, targetLength);
+
+        try
+        {
+            this.cipher.init(mode, this.key, new GCMParameterSpec(TAG_SIZE * 8, this.nonce));
+            this.cipher.doFinal(sourceView, targetView);
+        }
+        catch (final AEADBadTagException e)
+        {
+            throw new VegaException("Authentication of the AES-GCM message failed", e);
+        }
+        catch (final GeneralSecurityException e)
+        {
+            throw new VegaException("Unexpected error running the AES-GCM cipher", e);
+        }
+
+        this.targetViews.copyBack(target, targetOffset, targetLength);
+    }
+}
@@ -0,0 +1,129 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helper class to give to the Java Cipher a ByteBuffer view over a region of a direct buffer without copying it. <p>
+ *
+ * The view is a duplicate of the ByteBuffer or byte array that backs the direct buffer, it is only created again when the
+ * backing memory changes. If the direct buffer only wraps a memory address the region is copied into a reusable scratch buffer. <p>
+ *
+ * This class is not thread safe!
+ */
+class ByteBufferViews
+{
+    /** Starting size of the scratch buffer */
+    private static final int SCRATCH_START_SIZE = 1024;
+
+    /** Backing object of the current view, a ByteBuffer or a byte array */
+    private Object viewBacking = null;
+
+    /** Reusable view over the backing memory */
+    private ByteBuffer view = null;
+
+    /** Scratch buffer for the direct buffers without backing ByteBuffer or byte array */
+    private ByteBuffer scratch = ByteBuffer.allocateDirect(SCRATCH_START_SIZE);
+
+    /** True if the last returned view is the scratch buffer */
+    private boolean usingScratch = false;
+
+    /**
+     * Return a ByteBuffer with the position and limit set to the given region of the direct buffer
+     *
+     * @param buffer the direct buffer
+     * @param offset the offset of the region in the direct buffer
+     * @param length the length of the region
+     * @return the view, it is only valid until the next call
+     */
+    ByteBuffer view(final DirectBuffer buffer, final int offset, final int length)
+    {
+        final ByteBuffer result;
+        final int position;
+
+        if (buffer.byteArray() != null)
+        {
+            result = this.viewOf(buffer.byteArray());
+            position = buffer.wrapAdjustment() + offset;
+        }
+        else if (buffer.byteBuffer() != null)
+        {
+            result = this.viewOf(buffer.byteBuffer());
+            position = buffer.wrapAdjustment() + offset;
+        }
+        else
+        {
+            // No backing memory, copy the region
+            if (this.scratch.capacity() < length)
+            {
+                this.scratch = ByteBuffer.allocateDirect(length * 2);
+            }
+
+            buffer.getBytes(offset, this.scratch, 0, length);
+            this.usingScratch = true;
+            result = this.scratch;
+            position = 0;
+        }
+
+        result.clear();
+        result.position(position);
+        result.limit(position + length);
+        return result;
+    }
+
+    /**
+     * Copy the contents written in the last view into the direct buffer if the view was the scratch buffer, otherwise they are
+     * already in place
+     *
+     * @param buffer the direct buffer the last view was created for
+     * @param offset the offset of the region in the direct buffer
+     * @param length the length of the contents written
+     */
+    void copyBack(final MutableDirectBuffer buffer, final int offset, final int length)
+    {
+        if (this.usingScratch)
+        {
+            buffer.putBytes(offset, this.scratch, 0, length);
+        }
+    }
+
+    /**
+     * Return the reusable view for a byte array, create it if the array has changed
+     *
+     * @param array the byte array
+     * @return the view
+     */
+    private ByteBuffer viewOf(final byte[] array)
+    {
+        this.usingScratch = false;
+
+        if (this.viewBacking != array)
+        {
+            this.viewBacking = array;
+            this.view = ByteBuffer.wrap(array);
+        }
+
+        return this.view;
+    }
+
+    /**
+     * Return the reusable view for a ByteBuffer, create it if the ByteBuffer has changed
+     *
+     * @param byteBuffer the ByteBuffer
+     * @return the view
+     */
+    private ByteBuffer viewOf(final ByteBuffer byteBuffer)
+    {
+        this.usingScratch = false;
+
+        if (this.viewBacking != byteBuffer)
+        {
+            this.viewBacking = byteBuffer;
+            this.view = byteBuffer.duplicate();
+        }
+
+        return this.view;
+    }
+}
@@ -10,7 +10,9 @@ enum CipherCodecType
     /** RSA algorithm type */
     RSA("RSA"),
     /** AES algorithm type */
-    AES("AES");
+    AES("AES"),
+    /** AES algorithm type in authenticated GCM mode */
+    AES_GCM("AES/GCM/NoPadding");
 
     /** The String value of the codec type in a format that is understable by the Java Cipher */
     @Getter
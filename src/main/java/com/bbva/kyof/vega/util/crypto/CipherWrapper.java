@@ -19,7 +19,7 @@ import java.security.NoSuchAlgorithmException;
  *
  * * This class is thread safe
  */
-class CipherWrapper
+class CipherWrapper implements IKeyCipher
 {
     /** The mode the cipher is going to work in (Encrypt, Decrypt) */
     private final CipherMode mode;
@@ -81,7 +81,8 @@ class CipherWrapper
      * @return the encoded or decoded message
      * @throws VegaException exception thrown if there is a problem running the cipher
      */
-    byte[] runCipher(final byte[] source) throws VegaException
+    @Override
+    public byte[] runCipher(final byte[] source) throws VegaException
     {
         synchronized (this.lock)
         {
@@ -0,0 +1,237 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import com.bbva.kyof.vega.exception.VegaException;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+
+/**
+ * Cipher for elliptic curve keys, the equivalent to the RSA {@link CipherWrapper} for the session keys of the handshake. <p>
+ *
+ * Elliptic curve keys cannot encrypt directly, each encryption generates an ephemeral key pair over the curve of the
+ * recipient and agrees a shared secret with ECDH. The AES key is the SHA-256 of the shared secret and the ephemeral public key,
+ * and the message is encrypted with AES-GCM using a random nonce. The recipient agrees the same secret with its private key
+ * and the ephemeral public key. <p>
+ *
+ * The encrypted message is: ephemeral public key length (2 bytes) + ephemeral public key in X509 format + nonce (12 bytes) +
+ * encrypted message + authentication tag (16 bytes). <p>
+ *
+ * This class is thread safe
+ */
+class EcdhCipherWrapper implements IKeyCipher
+{
+    /** Size of the AES key derived from the shared secret */
+    private static final int AES_KEY_SIZE = 16;
+
+    /** Size of the random nonce of the AES-GCM encryption */
+    private static final int NONCE_SIZE = 12;
+
+    /** Size of the authentication tag in bits */
+    private static final int TAG_SIZE_BITS = 128;
+
+    /** Algorithm of the key agreement */
+    private static final String KEY_AGREEMENT_ALGORITHM = "ECDH";
+
+    /** Algorithm of the digest to derive the AES key */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /** The mode the cipher is going to work in (Encrypt, Decrypt) */
+    private final CipherWrapper.CipherMode mode;
+
+    /** Public key of the recipient to encrypt, null in decrypt mode */
+    private final ECPublicKey publicKey;
+
+    /** Own private key to decrypt, null in encrypt mode */
+    private final PrivateKey privateKey;
+
+    /** Key agreement to calculate the shared secrets */
+    private final KeyAgreement keyAgreement;
+
+    /** Digest to derive the AES keys from the shared secrets */
+    private final MessageDigest digest;
+
+    /** The java Cipher instance that will perform the AES-GCM encryption */
+    private final Cipher cipher;
+
+    /** Generator of the ephemeral key pairs, null in decrypt mode */
+    private final KeyPairGenerator ephemeralKeysGenerator;
+
+    /** Factory to load the ephemeral public keys of the received messages */
+    private final KeyFactory keyFactory;
+
+    /** Random generator for the nonces */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Lock for instance synchronization */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new wrapper given the mode and the key
+     *
+     * @param mode the mode for the cipher to encrypt or decrypt
+     * @param key the public elliptic curve key to encrypt or the private one to decrypt
+     * @throws VegaException exception thrown if there is a problem creating the wrapper or the key doesn't match the mode
+     */
+    EcdhCipherWrapper(final CipherWrapper.CipherMode mode, final Key key) throws VegaException
+    {
+        this.mode = mode;
+
+        try
+        {
+            this.keyAgreement = KeyAgreement.getInstance(KEY_AGREEMENT_ALGORITHM);
+            this.digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            this.cipher = Cipher.getInstance(CipherCodecType.AES_GCM.getStringValue());
+            this.keyFactory = KeyFactory.getInstance(KeyAlgorithmType.EC.getStringValue());
+
+            if (mode == CipherWrapper.CipherMode.ENCRYPT)
+            {
+                if (!(key instanceof ECPublicKey))
+                {
+                    throw new VegaException("An elliptic curve public key is required to encrypt");
+                }
+
+                this.publicKey = (ECPublicKey) key;
+                this.privateKey = null;
+
+                // The ephemeral keys are generated over the same curve of the recipient key
+                this.ephemeralKeysGenerator = KeyPairGenerator.getInstance(KeyAlgorithmType.EC.getStringValue());
+                this.ephemeralKeysGenerator.initialize(this.publicKey.getParams(), this.random);
+            }
+            else
+            {
+                if (!(key instanceof PrivateKey))
+                {
+                    throw new VegaException("An elliptic curve private key is required to decrypt");
+                }
+
+                this.publicKey = null;
+                this.privateKey = (PrivateKey) key;
+                this.ephemeralKeysGenerator = null;
+            }
+        }
+        catch (final GeneralSecurityException e)
+        {
+            throw new VegaException("Error initializing elliptic curve cipher wrapper", e);
+        }
+    }
+
+    @Override
+    public byte[] runCipher(final byte[] source) throws VegaException
+    {
+        synchronized (this.lock)
+        {
+            try
+            {
+                if (this.mode == CipherWrapper.CipherMode.ENCRYPT)
+                {
+                    return this.encrypt(source);
+                }
+                else
+                {
+                    return this.decrypt(source);
+                }
+            }
+            catch (final GeneralSecurityException | RuntimeException e)
+            {
+                throw new VegaException("Unexpected error performing elliptic curve " + this.mode, e);
+            }
+        }
+    }
+
+    /**
+     * Encrypt the message with a new ephemeral key pair
+     *
+     * @param source the message to encrypt
+     * @return the encrypted message
+     * @throws GeneralSecurityException exception thrown if there is a problem encrypting
+     */
+    private byte[] encrypt(final byte[] source) throws GeneralSecurityException
+    {
+        // Agree the shared secret between a new ephemeral key and the recipient key
+        final KeyPair ephemeralKeys = this.ephemeralKeysGenerator.generateKeyPair();
+        final byte[] ephemeralPubKey = ephemeralKeys.getPublic().getEncoded();
+        final SecretKeySpec aesKey = this.deriveAesKey(ephemeralKeys.getPrivate(), this.publicKey, ephemeralPubKey);
+
+        final byte[] nonce = new byte[NONCE_SIZE];
+        this.random.nextBytes(nonce);
+
+        this.cipher.init(Cipher.ENCRYPT_MODE, aesKey, new GCMParameterSpec(TAG_SIZE_BITS, nonce));
+
+        final ByteBuffer result = ByteBuffer.allocate(2 + ephemeralPubKey.length + NONCE_SIZE + this.cipher.getOutputSize(source.length));
+        result.putShort((short) ephemeralPubKey.length);
+        result.put(ephemeralPubKey);
+        result.put(nonce);
+        this.cipher.doFinal(ByteBuffer.wrap(source), result);
+
+        return Arrays.copyOf(result.array(), result.position());
+    }
+
+    /**
+     * Decrypt a message encrypted with the own public key
+     *
+     * @param source the encrypted message
+     * @return the decrypted message
+     * @throws GeneralSecurityException exception thrown if there is a problem decrypting or the message has been tampered
+     */
+    private byte[] decrypt(final byte[] source) throws GeneralSecurityException
+    {
+        final ByteBuffer sourceBuffer = ByteBuffer.wrap(source);
+
+        final byte[] ephemeralPubKey = new byte[sourceBuffer.getShort()];
+        sourceBuffer.get(ephemeralPubKey);
+
+        final byte[] nonce = new byte[NONCE_SIZE];
+        sourceBuffer.get(nonce);
+
+        // Agree the same shared secret with the own private key and the ephemeral key of the sender
+        final PublicKey ephemeralKey = this.keyFactory.generatePublic(new X509EncodedKeySpec(ephemeralPubKey));
+        final SecretKeySpec aesKey = this.deriveAesKey(this.privateKey, ephemeralKey, ephemeralPubKey);
+
+        this.cipher.init(Cipher.DECRYPT_MODE, aesKey, new GCMParameterSpec(TAG_SIZE_BITS, nonce));
+
+        return this.cipher.doFinal(source, sourceBuffer.position(), sourceBuffer.remaining());
+    }
+
+    /**
+     * Agree the shared secret and derive the AES key from it
+     *
+     * @param ownKey the private key of the side running the agreement
+     * @param otherKey the public key of the other side
+     * @param ephemeralPubKey the encoded ephemeral public key, it is added to the derivation
+     * @return the derived AES key
+     * @throws GeneralSecurityException exception thrown if the keys are not valid for the agreement
+     */
+    private SecretKeySpec deriveAesKey(final PrivateKey ownKey, final PublicKey otherKey, final byte[] ephemeralPubKey) throws GeneralSecurityException
+    {
+        this.keyAgreement.init(ownKey);
+        this.keyAgreement.doPhase(otherKey, true);
+        final byte[] sharedSecret = this.keyAgreement.generateSecret();
+
+        this.digest.reset();
+        this.digest.update(sharedSecret);
+        this.digest.update(ephemeralPubKey);
+        final byte[] hash = this.digest.digest();
+
+        final SecretKeySpec aesKey = new SecretKeySpec(hash, 0, AES_KEY_SIZE, "AES");
+
+        Arrays.fill(sharedSecret, (byte) 0);
+        Arrays.fill(hash, (byte) 0);
+
+        return aesKey;
+    }
+}
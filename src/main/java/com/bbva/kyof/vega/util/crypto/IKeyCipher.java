@@ -0,0 +1,18 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import com.bbva.kyof.vega.exception.VegaException;
+
+/**
+ * Cipher that encrypts messages with a public key or decrypts them with the corresponding private key
+ */
+interface IKeyCipher
+{
+    /**
+     * Run the cipher over the given array. It will encode or decode it depending on the cipher mode provided on construction.
+     *
+     * @param source the message to be encoded or decoded
+     * @return the encoded or decoded message
+     * @throws VegaException exception thrown if there is a problem running the cipher
+     */
+    byte[] runCipher(byte[] source) throws VegaException;
+}
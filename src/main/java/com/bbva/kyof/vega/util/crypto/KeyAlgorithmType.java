@@ -0,0 +1,79 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+/**
+ * Algorithm of the asymmetric keys used in the security handshake of the secured topics. <p>
+ *
+ * The algorithm is read from the key files, every application can use its own type of key and the handshake will use the
+ * right algorithm for the key of each peer.
+ */
+@XmlType(name = "KeyAlgorithmType")
+@XmlEnum
+public enum KeyAlgorithmType
+{
+    /** RSA keys, the session keys are encrypted with RSA and the messages signed with SHA1withRSA */
+    RSA("RSA", SignatureCodecType.SHA_WITH_RSA),
+    /** Elliptic curve keys over the P-256 curve, the session keys are encrypted with ECDH + AES-GCM and the messages signed with ECDSA */
+    EC("EC", SignatureCodecType.SHA256_WITH_ECDSA);
+
+    /** The String value of the algorithm in a format that is understable by the Java key factories */
+    @Getter
+    private final String stringValue;
+
+    /** The signature codec used with the keys of the algorithm */
+    @Getter(AccessLevel.PACKAGE)
+    private final SignatureCodecType signatureCodec;
+
+    /**
+     * Create a new key algorithm type
+     *
+     * @param stringValue the string value for the algorithm
+     * @param signatureCodec the signature codec used with the keys of the algorithm
+     */
+    KeyAlgorithmType(final String stringValue, final SignatureCodecType signatureCodec)
+    {
+        this.stringValue = stringValue;
+        this.signatureCodec = signatureCodec;
+    }
+
+    /** @return the value of the key algorithm type */
+    public String value()
+    {
+        return name();
+    }
+
+    /**
+     * Get a key algorithm type from a given value
+     *
+     * @param value of the key algorithm type
+     * @return the key algorithm type
+     */
+    public static KeyAlgorithmType fromValue(final String value)
+    {
+        return valueOf(value);
+    }
+
+    /**
+     * Get the key algorithm type of the given key
+     *
+     * @param algorithm the algorithm of the key, as returned by {@link java.security.Key#getAlgorithm()}
+     * @return the key algorithm type, null if the algorithm is not supported
+     */
+    static KeyAlgorithmType fromKeyAlgorithm(final String algorithm)
+    {
+        for (final KeyAlgorithmType type : values())
+        {
+            if (type.stringValue.equals(algorithm))
+            {
+                return type;
+            }
+        }
+
+        return null;
+    }
+}
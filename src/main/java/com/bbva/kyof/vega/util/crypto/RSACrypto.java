@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.util.crypto;
 
 import com.bbva.kyof.vega.exception.VegaException;
 
+import java.security.Key;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.HashMap;
@@ -20,18 +21,25 @@ import java.util.Map;
  * - Encode messages with the public key of a trusted application
  * - Decode messages that have been encoded with the owned public key
  *
+ * Despite the name, the keys can be RSA or elliptic curve keys ({@link KeyAlgorithmType}). The algorithm is selected for each key,
+ * an application with RSA keys can trust applications with elliptic curve keys and the other way around.
+ *
  * This class is thread safe
  */
 public class RSACrypto
 {
+    /** Owned private key, kept to create copies of the instance */
+    private final PrivateKey ownPrivate;
+    /** Trusted public keys by security id, kept to create copies of the instance */
+    private final Map<Integer, PublicKey> trustedKeys;
     /** Decoder to decode messages encoded with the own public key */
-    private final CipherWrapper ownPrivKeyDecoder;
+    private final IKeyCipher ownPrivKeyDecoder;
     /** Signer that will sign messages with the own private key */
     private final SignerWrapper ownSigner;
     /** Map with all the verifiers for messages signed with private keys of trusted applications */
     private final Map<Integer, VerifierWrapper> verifiersBySecurityId = new HashMap<>();
     /** Map with all the encoders to encode messages with the public keys of trusted applications */
-    private final Map<Integer, CipherWrapper> encodersBySecurityId = new HashMap<>();
+    private final Map<Integer, IKeyCipher> encodersBySecurityId = new HashMap<>();
 
     /**
      * Create a new instance of the RSA cryptography helper class
@@ -43,11 +51,16 @@ public class RSACrypto
      */
     public RSACrypto(final PrivateKey ownPrivate, final Map<Integer, PublicKey> trustedKeys) throws VegaException
     {
+        this.ownPrivate = ownPrivate;
+        this.trustedKeys = new HashMap<>(trustedKeys);
+
+        final KeyAlgorithmType ownKeyAlgorithm = getKeyAlgorithm(ownPrivate);
+
         // Create the decoder to decode messages encoded with the own public key
-        this.ownPrivKeyDecoder = new CipherWrapper(CipherWrapper.CipherMode.DECRYPT, CipherCodecType.RSA, ownPrivate);
+        this.ownPrivKeyDecoder = createKeyCipher(CipherWrapper.CipherMode.DECRYPT, ownKeyAlgorithm, ownPrivate);
 
         // Initialize the signer to perform own digital signatures
-        this.ownSigner = new SignerWrapper(SignatureCodecType.SHA_WITH_RSA, ownPrivate);
+        this.ownSigner = new SignerWrapper(ownKeyAlgorithm.getSignatureCodec(), ownPrivate);
 
         // Register the trusted keys
         for (final Map.Entry<Integer, PublicKey> keyEntry : trustedKeys.entrySet())
@@ -56,6 +69,18 @@ public class RSACrypto
         }
     }
 
+    /**
+     * Create a new instance with the same keys. The new instance has its own ciphers and signers, both instances can be used
+     * in parallel without contention on the internal locks.
+     *
+     * @return the new instance
+     * @throws VegaException exception thrown if there is any issue creating the ciphers and signers
+     */
+    public RSACrypto copy() throws VegaException
+    {
+        return new RSACrypto(this.ownPrivate, this.trustedKeys);
+    }
+
     /**
      * Check if the application public key has been registered
      * @param securityId the security id of hte application to register
@@ -79,8 +104,50 @@ public class RSACrypto
             throw new VegaException("The provided application ID has already been added: " + securityId);
         }
 
-        this.encodersBySecurityId.put(securityId, new CipherWrapper(CipherWrapper.CipherMode.ENCRYPT, CipherCodecType.RSA, key));
-        this.verifiersBySecurityId.put(securityId, new VerifierWrapper(SignatureCodecType.SHA_WITH_RSA, key));
+        final KeyAlgorithmType keyAlgorithm = getKeyAlgorithm(key);
+
+        this.encodersBySecurityId.put(securityId, createKeyCipher(CipherWrapper.CipherMode.ENCRYPT, keyAlgorithm, key));
+        this.verifiersBySecurityId.put(securityId, new VerifierWrapper(keyAlgorithm.getSignatureCodec(), key));
+    }
+
+    /**
+     * Get the algorithm of the given key
+     *
+     * @param key the key
+     * @return the algorithm of the key
+     * @throws VegaException exception thrown if the algorithm is not supported
+     */
+    private static KeyAlgorithmType getKeyAlgorithm(final Key key) throws VegaException
+    {
+        final KeyAlgorithmType keyAlgorithm = KeyAlgorithmType.fromKeyAlgorithm(key.getAlgorithm());
+
+        if (keyAlgorithm == null)
+        {
+            throw new VegaException("Unsupported key algorithm: " + key.getAlgorithm());
+        }
+
+        return keyAlgorithm;
+    }
+
+    /**
+     * Create the cipher to encode with a public key or decode with a private key of the given algorithm
+     *
+     * @param mode the mode for the cipher to encrypt or decrypt
+     * @param keyAlgorithm the algorithm of the key
+     * @param key the key for encoding / decoding
+     * @return the created cipher
+     * @throws VegaException exception thrown if there is a problem creating the cipher
+     */
+    private static IKeyCipher createKeyCipher(final CipherWrapper.CipherMode mode, final KeyAlgorithmType keyAlgorithm, final Key key) throws VegaException
+    {
+        if (keyAlgorithm == KeyAlgorithmType.EC)
+        {
+            return new EcdhCipherWrapper(mode, key);
+        }
+        else
+        {
+            return new CipherWrapper(mode, CipherCodecType.RSA, key);
+        }
     }
 
     /**
@@ -92,7 +159,7 @@ public class RSACrypto
      */
     public byte[] encodeWithPubKey(final int securityId, final byte[] msg) throws VegaException
     {
-        final CipherWrapper cipher = this.encodersBySecurityId.get(securityId);
+        final IKeyCipher cipher = this.encodersBySecurityId.get(securityId);
 
         if (cipher == null)
         {
@@ -3,6 +3,7 @@ package com.bbva.kyof.vega.util.crypto;
 import com.bbva.kyof.vega.exception.VegaException;
 
 import java.security.*;
+import java.security.spec.ECGenParameterSpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
@@ -10,13 +11,17 @@ import java.util.Arrays;
 import java.util.Base64;
 
 /**
- * Helper class to handle the loading, store and creation of RSA keys
+ * Helper class to handle the loading, store and creation of RSA keys. The methods that receive the codec also work with
+ * elliptic curve keys using the value of {@link KeyAlgorithmType#EC}.
  */
 public final class RSAKeysHelper
 {
     /** Size of the supported RSA Key */
     private static final int RSA_DEFAULT_KEY_SIZE = 1024;
 
+    /** Curve of the generated elliptic curve keys */
+    private static final String EC_CURVE = "secp256r1";
+
     /** Private constructor to avoid instantiation */
     private RSAKeysHelper()
     {
@@ -55,6 +60,33 @@ public final class RSAKeysHelper
         return generateKeyPair(RSA_DEFAULT_KEY_SIZE, CipherCodecType.RSA.getStringValue());
     }
 
+    /**
+     * Generate a new public/private key pair of the given algorithm. RSA keys use the default key size and elliptic curve keys
+     * the P-256 curve.
+     *
+     * @param keyAlgorithm the algorithm of the keys
+     * @return the generated key pair
+     * @throws VegaException if there is a problem
+     */
+    public static KeyPair generateKeyPair(final KeyAlgorithmType keyAlgorithm) throws VegaException
+    {
+        if (keyAlgorithm != KeyAlgorithmType.EC)
+        {
+            return generateKeyPair(RSA_DEFAULT_KEY_SIZE, keyAlgorithm.getStringValue());
+        }
+
+        try
+        {
+            final KeyPairGenerator keyGen = KeyPairGenerator.getInstance(keyAlgorithm.getStringValue());
+            keyGen.initialize(new ECGenParameterSpec(EC_CURVE));
+            return keyGen.genKeyPair();
+        }
+        catch (final NoSuchAlgorithmException | InvalidAlgorithmParameterException e)
+        {
+            throw new VegaException("Error generating elliptic curve key pair", e);
+        }
+    }
+
     /**
      * Load the private key encoded in base64 and convert to an internal usable PrivateKey
      * @param key64 the key in Base64 format
@@ -8,7 +8,9 @@ import lombok.Getter;
 enum SignatureCodecType
 {
     /** RSA algorithm type */
-    SHA_WITH_RSA("SHA1withRSA");
+    SHA_WITH_RSA("SHA1withRSA"),
+    /** Elliptic curve algorithm type */
+    SHA256_WITH_ECDSA("SHA256withECDSA");
 
     /** The String value of the codec type in a format that is understable by the Java Cipher */
     @Getter
@@ -94,6 +94,34 @@ public final class AeronChannelHelper
         }
     }
 
+    /**
+     * Create a string that represents an Aeron unicast multi-destination-cast channel in manual control mode. The destinations
+     * are added and removed later on the publication.
+     *
+     * The control address is where the publication receives the status messages from the destinations, it should be unique
+     * for each publication since Aeron shares the send endpoint of publications with the same control address.
+     *
+     * @param controlIpAddress ip address of the control address
+     * @param controlPort port of the control address
+     * @return the string with the multi-destination-cast channel
+     */
+    public static String createUnicastMdcChannelString(final int controlIpAddress, final int controlPort)
+    {
+        return String.format("aeron:udp?control=%s:%d|control-mode=manual", InetUtil.convertIntToIpAddress(controlIpAddress), controlPort);
+    }
+
+    /**
+     * Create a string that represents a destination of an Aeron multi-destination-cast channel
+     *
+     * @param ipAddress Ip address of the destination
+     * @param port the port of the destination
+     * @return the string with the destination channel
+     */
+    public static String createUnicastDestinationString(final int ipAddress, final int port)
+    {
+        return String.format("aeron:udp?endpoint=%s:%d", InetUtil.convertIntToIpAddress(ipAddress), port);
+    }
+
     /**
      * Selects an IP address from a range of IPs. The selected address is always ODD and the next EVEN address is reserved for
      * control messages. This means that it will return an ODD address in the range that allows the next address to be in the range
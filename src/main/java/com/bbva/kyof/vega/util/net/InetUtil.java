@@ -287,6 +287,25 @@ public final class InetUtil
         return inetAddress == null ? defaultIp : InetUtil.convertIpAddressToInt(inetAddress.getHostAddress());
     }
 
+    /**
+     * Find a free UDP port on the given local address by binding an ephemeral port and releasing it again.
+     *
+     * @param address local address to bind
+     * @return the free port found or 0 if there is any error, in that case the port will be selected when binding
+     */
+    public static int findFreeUdpPort(final InetAddress address)
+    {
+        try (DatagramSocket socket = new DatagramSocket(new InetSocketAddress(address, 0)))
+        {
+            return socket.getLocalPort();
+        }
+        catch (final SocketException e)
+        {
+            log.warn("Unexpected exception looking for a free udp port on address {}", address, e);
+            return 0;
+        }
+    }
+
     /**
      * Given a name (a valid hostname or a valid ip), return the InetAddress of this name.
      *
@@ -16,12 +16,16 @@ public abstract class RecurrentRunner implements Runnable, Closeable
 {
 	/** Sleep time while checking for stop */
 	private static final int SLEEP_TIME = 1;
+	/** Value returned by a hosted duty cycle when the runner has been stopped */
+	static final int STOPPED = -1;
 	/** Idle strategy between consecutive action executions. If null it wont be applied */
 	private final IdleStrategy idleStrategy;
 	/** True if the task should close */
 	private volatile boolean shouldStopRunner = false;
 	/** True if the task has been stopped */
 	private volatile boolean stopped = false;
+	/** True if the duty cycles are invoked by the application, there is no thread to wait for on close */
+	private volatile boolean invoked = false;
 
     /**
      * Create a new recurrent runner
@@ -37,6 +41,13 @@ public abstract class RecurrentRunner implements Runnable, Closeable
 	{
 		this.shouldStopRunner = true;
 
+		// Nobody else is going to run a duty cycle, stop it from the closing thread
+		if (this.invoked)
+		{
+			this.stopHosted();
+			return;
+		}
+
 		while(!this.stopped)
 		{
 			try
@@ -63,13 +74,82 @@ public abstract class RecurrentRunner implements Runnable, Closeable
 	@Override
 	public void run()
 	{
-		while(!this.shouldStopRunner)
+		try
+		{
+			while(!this.shouldStopRunner)
+			{
+				this.idleStrategy.idle(this.runAction());
+			}
+		}
+		finally
+		{
+			// Always flagged, a close waiting for the runner should never block
+			this.stopped = true;
+			this.cleanUp();
+		}
+	}
+
+	/**
+	 * Run the action, an unexpected error is logged and the runner keeps running
+	 *
+	 * @return the number of internal actions taken, 0 if the action has failed
+	 */
+	private int runAction()
+	{
+		try
+		{
+			return this.action();
+		}
+		catch (final RuntimeException e)
+		{
+			log.error("Unexpected error running recurrent task [{}]", this.getClass().getName(), e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Mark the runner as invoked by the application instead of having a thread
+	 */
+	void setInvoked()
+	{
+		this.invoked = true;
+	}
+
+	/**
+	 * Run a single duty cycle of a runner hosted by a {@link TasksRunner} instead of its own thread. The idle strategy is not applied.
+	 *
+	 * @return the number of internal actions taken, or {@link #STOPPED} if the runner has been stopped and should not be run any more
+	 */
+	int runHostedDutyCycle()
+	{
+		if (this.shouldStopRunner)
 		{
-			this.idleStrategy.idle(this.action());
+			this.stopHosted();
+			return STOPPED;
 		}
 
-		this.stopped = true;
-		this.cleanUp();
+		return this.action();
+	}
+
+	/**
+	 * Stop a hosted runner that is not going to be run any more, the clean up is only performed once and it is finished
+	 * before a waiting close returns
+	 */
+	void stopHosted()
+	{
+		this.shouldStopRunner = true;
+
+		if (!this.stopped)
+		{
+			try
+			{
+				this.cleanUp();
+			}
+			finally
+			{
+				this.stopped = true;
+			}
+		}
 	}
 
 	/**
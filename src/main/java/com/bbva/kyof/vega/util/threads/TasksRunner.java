@@ -0,0 +1,269 @@
+package com.bbva.kyof.vega.util.threads;
+
+import com.bbva.kyof.vega.util.collection.DelayedChangesArray;
+import com.bbva.kyof.vega.util.collection.IDelayedChangesArray;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.BackoffIdleStrategy;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs recurrent tasks on a budget of threads. There are 3 modes: <p>
+ *
+ * - Dedicated: each task is started in its own thread with its own idle strategy, like {@link RecurrentTask#start(String)}. <p>
+ * - Shared: the tasks are assigned in round robin to a fixed number of threads, each thread runs a duty cycle of all its tasks in sequence
+ * and waits with a back off idle strategy when none of them has work. <p>
+ * - Invoker: no thread is started, the application runs a duty cycle of all the tasks calling {@link #invoke()}. <p>
+ *
+ * The tasks are stopped as usual with {@link RecurrentTask#close()}, the clean up is performed by the thread that hosts the task. In invoker
+ * mode the clean up is performed by the thread that closes the task, it should not be called at the same time than {@link #invoke()}. <p>
+ *
+ * This class is thread safe
+ */
+@Slf4j
+public final class TasksRunner implements Closeable
+{
+    /** Default initial number of tasks of a shared thread, it is used to reserve some memory in the tasks array */
+    private static final int DEFAULT_TASKS_NUMBER = 10;
+
+    /** Max number of spins of the idle strategy of the shared threads */
+    private static final long IDLE_MAX_SPINS = 100;
+
+    /** Max number of yields of the idle strategy of the shared threads */
+    private static final long IDLE_MAX_YIELDS = 10;
+
+    /** Min park period of the idle strategy of the shared threads */
+    private static final long IDLE_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    /** Max park period of the idle strategy of the shared threads, the same sleep of the tasks that are not in the critical path */
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Threads of the shared mode, null in any other mode */
+    private final HostedTasks[] sharedThreads;
+
+    /** Tasks of the invoker mode, null in any other mode */
+    private final HostedTasks invokedTasks;
+
+    /** Index of the next shared thread to assign a task to */
+    private int nextSharedThread = 0;
+
+    /** True if the runner has been closed */
+    private boolean closed = false;
+
+    /** Lock for instance synchronization */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new runner
+     *
+     * @param sharedThreads threads of the shared mode, null in any other mode
+     * @param invokedTasks tasks of the invoker mode, null in any other mode
+     */
+    private TasksRunner(final HostedTasks[] sharedThreads, final HostedTasks invokedTasks)
+    {
+        this.sharedThreads = sharedThreads;
+        this.invokedTasks = invokedTasks;
+    }
+
+    /**
+     * Create a runner that starts each task in its own thread
+     *
+     * @return the created runner
+     */
+    public static TasksRunner dedicated()
+    {
+        return new TasksRunner(null, null);
+    }
+
+    /**
+     * Create and start a runner that runs the tasks on a fixed number of shared threads
+     *
+     * @param numThreads number of shared threads
+     * @param threadsName base name of the shared threads, the index of the thread is added to it
+     * @return the created runner
+     */
+    public static TasksRunner shared(final int numThreads, final String threadsName)
+    {
+        log.info("Starting [{}] shared threads for the recurrent tasks [{}]", numThreads, threadsName);
+
+        final HostedTasks[] sharedThreads = new HostedTasks[numThreads];
+
+        for (int i = 0; i < numThreads; i++)
+        {
+            sharedThreads[i] = new HostedTasks();
+            sharedThreads[i].start(threadsName + "_" + i);
+        }
+
+        return new TasksRunner(sharedThreads, null);
+    }
+
+    /**
+     * Create a runner that doesn't start any thread, the application runs the tasks calling {@link #invoke()}
+     *
+     * @return the created runner
+     */
+    public static TasksRunner invoker()
+    {
+        return new TasksRunner(null, new HostedTasks());
+    }
+
+    /**
+     * Start running a task
+     *
+     * @param task the task to run
+     * @param threadName the name of the thread of the task in dedicated mode
+     */
+    public void start(final RecurrentTask task, final String threadName)
+    {
+        if (this.sharedThreads != null)
+        {
+            synchronized (this.lock)
+            {
+                // If closed, the tasks are not run any more, stop it to prevent a close of the task waiting forever
+                if (this.closed)
+                {
+                    task.stopHosted();
+                    return;
+                }
+
+                log.debug("Running task [{}] on shared thread [{}]", threadName, this.nextSharedThread);
+
+                this.sharedThreads[this.nextSharedThread].tasks.addElement(task);
+                this.nextSharedThread = (this.nextSharedThread + 1) % this.sharedThreads.length;
+            }
+        }
+        else if (this.invokedTasks != null)
+        {
+            task.setInvoked();
+            this.invokedTasks.tasks.addElement(task);
+        }
+        else
+        {
+            task.start(threadName);
+        }
+    }
+
+    /**
+     * Run a single duty cycle of all the tasks of an invoker runner. It should be called always from the same thread.
+     *
+     * @return the number of actions performed by the tasks
+     * @throws IllegalStateException exception thrown if the runner is not an invoker
+     */
+    public int invoke()
+    {
+        if (this.invokedTasks == null)
+        {
+            throw new IllegalStateException("The tasks runner is not an invoker");
+        }
+
+        return this.invokedTasks.action();
+    }
+
+    /**
+     * @return true if the runner is an invoker and the tasks are run by the application
+     */
+    public boolean isInvoker()
+    {
+        return this.invokedTasks != null;
+    }
+
+    /**
+     * Stop the shared threads. The tasks should have been closed before, the remaining ones are stopped without running them any more.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this.lock)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.closed = true;
+        }
+
+        if (this.sharedThreads != null)
+        {
+            for (final HostedTasks sharedThread : this.sharedThreads)
+            {
+                sharedThread.close();
+            }
+        }
+
+        if (this.invokedTasks != null)
+        {
+            this.invokedTasks.cleanUp();
+        }
+    }
+
+    /**
+     * Tasks hosted by a shared thread, or by the application in invoker mode
+     */
+    private static final class HostedTasks extends RecurrentTask
+    {
+        /** Delayed changes collection with the hosted tasks */
+        private final IDelayedChangesArray<RecurrentRunner> tasks = new DelayedChangesArray<>(RecurrentRunner.class, DEFAULT_TASKS_NUMBER);
+
+        /**
+         * Create a new group of hosted tasks
+         */
+        private HostedTasks()
+        {
+            super(new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NANOS, IDLE_MAX_PARK_NANOS));
+        }
+
+        @Override
+        public int action()
+        {
+            this.tasks.applyPendingChanges();
+
+            int numActions = 0;
+
+            final RecurrentRunner[] tasksArray = this.tasks.getInternalArray();
+
+            // Run all the tasks once, the stopped ones are removed. A failure of a task doesn't affect the rest of the tasks of the thread
+            for (int i = 0; i < this.tasks.getNumElements(); i++)
+            {
+                final int taskActions;
+                try
+                {
+                    taskActions = tasksArray[i].runHostedDutyCycle();
+                }
+                catch (final RuntimeException e)
+                {
+                    log.error("Unexpected error running hosted task [{}]", tasksArray[i].getClass().getName(), e);
+                    continue;
+                }
+
+                if (taskActions == STOPPED)
+                {
+                    this.tasks.removeElement(tasksArray[i]);
+                }
+                else
+                {
+                    numActions += taskActions;
+                }
+            }
+
+            return numActions;
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            // Stop the tasks that have not been closed, they won't be run any more
+            this.tasks.applyPendingChanges();
+
+            final RecurrentRunner[] tasksArray = this.tasks.getInternalArray();
+
+            for (int i = 0; i < this.tasks.getNumElements(); i++)
+            {
+                tasksArray[i].stopHosted();
+            }
+
+            this.tasks.clear();
+        }
+    }
+}
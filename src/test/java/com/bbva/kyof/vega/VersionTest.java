@@ -33,6 +33,14 @@ public class VersionTest
         Assert.assertTrue(Version.isCompatibleWithLocal(localVersionCompatible));
         Assert.assertFalse(Version.isCompatibleWithLocal(incompatibleVersion));
 
+        // Check the minimum version
+        Assert.assertTrue(Version.isAtLeast(version, version));
+        Assert.assertTrue(Version.isAtLeast(compatibleVersion, version));
+        Assert.assertTrue(Version.isAtLeast(incompatibleVersion, version));
+        Assert.assertFalse(Version.isAtLeast(version, compatibleVersion));
+        Assert.assertFalse(Version.isAtLeast(version, incompatibleVersion));
+        Assert.assertFalse(Version.isAtLeast(version, Version.toIntegerRepresentation((byte)34, (byte)45, (byte)68)));
+
         // Finally check string representation
         Assert.assertEquals(Version.toStringRep(version), "34.45.67");
     }
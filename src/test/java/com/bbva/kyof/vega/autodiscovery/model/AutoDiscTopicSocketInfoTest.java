@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.autodiscovery.model;
 
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -71,6 +72,22 @@ public class AutoDiscTopicSocketInfoTest
         Assert.assertEquals(serializer.getOffset(), readedInfo.serializedSize());
     }
 
+    @Test
+    public void builderDefaults()
+    {
+        // The topic sockets are built without compact headers by default
+        final AutoDiscTopicSocketInfo topicSocketInfo = AutoDiscTopicSocketInfo.builder().
+                instanceId(UUID.randomUUID()).
+                transportType(AutoDiscTransportType.PUB_IPC).
+                uniqueId(UUID.randomUUID()).
+                topicName("topic").
+                topicId(UUID.randomUUID()).build();
+
+        Assert.assertEquals(AutoDiscTopicSocketInfo.NO_SESSION_ID, topicSocketInfo.getSessionId());
+        Assert.assertEquals(AutoDiscTopicSocketInfo.NO_HEADER_ALIAS, topicSocketInfo.getHeaderAlias());
+        Assert.assertFalse(topicSocketInfo.hasHeaderAlias());
+    }
+
     @Test
     public void fromBinaryToBinaryWithSecurity()
     {
@@ -124,4 +141,61 @@ public class AutoDiscTopicSocketInfoTest
         // Check again the limits
         Assert.assertEquals(serializer.getOffset(), readedInfo.serializedSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fromBinaryToBinaryWithHeaderAlias()
+    {
+        final UUID instanceId = UUID.randomUUID();
+        final UUID uniqueId = UUID.randomUUID();
+        final UUID topicId = UUID.randomUUID();
+
+        final AutoDiscTopicSocketInfo topicSocketInfo = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.PUB_IPC, uniqueId, "topic", topicId, IP, PORT, STREAM_ID, HOSTNAME, AutoDiscTopicSocketInfo.NO_SECURED_CONSTANT, 77, 3);
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary
+        topicSocketInfo.toBinary(serializer);
+        Assert.assertEquals(serializer.getOffset(), topicSocketInfo.serializedSize());
+
+        // Flip the buffer, wrap again and read
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+        serializer.wrap(buffer);
+
+        AutoDiscTopicSocketInfo readedInfo = new AutoDiscTopicSocketInfo();
+        readedInfo.fromBinary(serializer);
+
+        Assert.assertEquals(topicSocketInfo, readedInfo);
+        Assert.assertTrue(readedInfo.hasHeaderAlias());
+        Assert.assertEquals(77, readedInfo.getSessionId());
+        Assert.assertEquals(3, readedInfo.getHeaderAlias());
+        Assert.assertNotNull(readedInfo.toString());
+    }
+
+    @Test
+    public void fromBinaryPreviousVersion()
+    {
+        final AutoDiscTopicSocketInfo topicSocketInfo = new AutoDiscTopicSocketInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_MUL, UUID.randomUUID(), "topic", UUID.randomUUID(), IP, PORT, STREAM_ID, HOSTNAME, 22);
+
+        // Create the buffer to serialize it
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+        topicSocketInfo.toBinary(serializer);
+
+        // Wrap without the session id and the header alias, like the messages of previous versions
+        serializer.wrap(buffer, 0, topicSocketInfo.serializedSize() - UnsafeBufferSerializer.INT_SIZE * 2);
+
+        AutoDiscTopicSocketInfo readedInfo = new AutoDiscTopicSocketInfo();
+        readedInfo.fromBinary(serializer);
+
+        Assert.assertEquals(topicSocketInfo, readedInfo);
+        Assert.assertEquals(22, readedInfo.getSecurityId());
+        Assert.assertEquals(AutoDiscTopicSocketInfo.NO_SESSION_ID, readedInfo.getSessionId());
+        Assert.assertEquals(AutoDiscTopicSocketInfo.NO_HEADER_ALIAS, readedInfo.getHeaderAlias());
+        Assert.assertFalse(readedInfo.hasHeaderAlias());
+    }
+}
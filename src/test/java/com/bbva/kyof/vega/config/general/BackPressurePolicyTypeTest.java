@@ -0,0 +1,20 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the {@link BackPressurePolicyType} class
+ */
+public class BackPressurePolicyTypeTest
+{
+    @Test
+    public void valueAndFromValue() throws Exception
+    {
+        Assert.assertEquals(BackPressurePolicyType.FAIL_FAST.value(), "FAIL_FAST");
+        Assert.assertEquals(BackPressurePolicyType.DROP_OLDEST_CONFLATED.value(), "DROP_OLDEST_CONFLATED");
+        Assert.assertEquals(BackPressurePolicyType.fromValue("SPIN_RETRY"), BackPressurePolicyType.SPIN_RETRY);
+        Assert.assertEquals(BackPressurePolicyType.fromValue("BLOCK_UNTIL_TIMEOUT"), BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT);
+        Assert.assertEquals(BackPressurePolicyType.fromValue("CONFLATED_BY_KEY"), BackPressurePolicyType.CONFLATED_BY_KEY);
+    }
+}
@@ -45,6 +45,21 @@ public class ControlRcvConfigTest
         Assert.assertEquals(ControlRcvConfig.DEFAULT_MIN_PORT, (int) config.getMinPort());
         Assert.assertEquals(ControlRcvConfig.DEFAULT_NUM_STREAMS, (int) config.getNumStreams());
         Assert.assertNotNull(config.getSubnetAddress());
+        Assert.assertEquals(ControlRcvConfig.DEFAULT_SECURITY_RESP_THREADS, (int) config.getSecurityRespThreads());
+    }
+
+    @Test
+    public void validateSecurityRespThreads() throws Exception
+    {
+        final ControlRcvConfig config = this.minimumBuilder.securityRespThreads(4).build();
+        config.completeAndValidateConfig();
+        Assert.assertEquals(4, (int) config.getSecurityRespThreads());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateNegativeSecurityRespThreads() throws Exception
+    {
+        this.minimumBuilder.securityRespThreads(-1).build().completeAndValidateConfig();
     }
 
     @Test
@@ -262,6 +262,9 @@ public class GlobalConfigurationTest
         Assert.assertNotNull(configuration.getResponsesConfig());
         Assert.assertNotNull(configuration.getAutodiscConfig());
 
+        // The threading configuration should have been created with the default values
+        Assert.assertEquals(configuration.getThreadingConfig().getThreadingMode(), ThreadingModeType.DEDICATED);
+
         // Poller map get
         Assert.assertNull(configuration.getPollerConfigForPollerName("invalidPoller"));
         Assert.assertNotNull(configuration.getPollerConfigForPollerName("poller"));
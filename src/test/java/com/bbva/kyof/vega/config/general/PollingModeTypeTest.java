@@ -0,0 +1,19 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the {@link PollingModeType} class
+ */
+public class PollingModeTypeTest
+{
+    @Test
+    public void valueAndFromValue() throws Exception
+    {
+        Assert.assertEquals(PollingModeType.THREAD.value(), "THREAD");
+        Assert.assertEquals(PollingModeType.APPLICATION.value(), "APPLICATION");
+        Assert.assertEquals(PollingModeType.fromValue("THREAD"), PollingModeType.THREAD);
+        Assert.assertEquals(PollingModeType.fromValue("APPLICATION"), PollingModeType.APPLICATION);
+    }
+}
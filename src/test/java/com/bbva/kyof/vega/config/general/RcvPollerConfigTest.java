@@ -39,6 +39,57 @@ public class RcvPollerConfigTest
         Assert.assertTrue(config.getIdleStrategy() instanceof BusySpinIdleStrategy);
         Assert.assertEquals(config.getName(), "name");
         Assert.assertTrue(config.getMaxFragmentsPerPoll() == RcvPollerConfig.DEFAULT_MAX_FRAGMENTS_POLL);
+        Assert.assertTrue(config.getDecryptionThreads() == RcvPollerConfig.DEFAULT_DECRYPTION_THREADS);
+        Assert.assertTrue(config.getNumThreads() == RcvPollerConfig.DEFAULT_NUM_THREADS);
+        Assert.assertEquals(config.getPollingMode(), RcvPollerConfig.DEFAULT_POLLING_MODE);
+    }
+
+    @Test
+    public void validConfigDecryptionThreads() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).decryptionThreads(4).build();
+        config.completeAndValidateConfig();
+        Assert.assertTrue(config.getDecryptionThreads() == 4);
+    }
+
+    @Test(expected = VegaException.class)
+    public void configNegativeDecryptionThreads() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).decryptionThreads(-1).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test
+    public void validConfigNumThreads() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).numThreads(3).build();
+        config.completeAndValidateConfig();
+        Assert.assertTrue(config.getNumThreads() == 3);
+
+        // Each thread gets its own idle strategy
+        Assert.assertNotSame(config.getIdleStrategy(), config.createIdleStrategy());
+    }
+
+    @Test(expected = VegaException.class)
+    public void configZeroNumThreads() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).numThreads(0).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test
+    public void validConfigApplicationPollingMode() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).pollingMode(PollingModeType.APPLICATION).build();
+        config.completeAndValidateConfig();
+        Assert.assertEquals(config.getPollingMode(), PollingModeType.APPLICATION);
+    }
+
+    @Test(expected = VegaException.class)
+    public void configApplicationPollingModeWithThreads() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).pollingMode(PollingModeType.APPLICATION).numThreads(2).build();
+        config.completeAndValidateConfig();
     }
 
     @Test(expected = VegaException.class)
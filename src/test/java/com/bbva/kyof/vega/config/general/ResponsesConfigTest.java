@@ -46,9 +46,31 @@ public class ResponsesConfigTest
         Assert.assertEquals(ResponsesConfig.DEFAULT_MAX_PORT, (int) config.getMaxPort());
         Assert.assertEquals(ResponsesConfig.DEFAULT_MIN_PORT, (int) config.getMinPort());
         Assert.assertEquals(ResponsesConfig.DEFAULT_NUM_STREAMS, (int) config.getNumStreams());
+        Assert.assertEquals(ResponsesConfig.DEFAULT_TIMEOUT_TICK_MILLIS, (int) config.getTimeoutTickMillis());
         Assert.assertNotNull(config.getSubnetAddress());
     }
 
+    @Test
+    public void validateTimeoutTickMillis() throws Exception
+    {
+        final ResponsesConfig config = this.minimumBuilder.timeoutTickMillis(8).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(8, (int) config.getTimeoutTickMillis());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateTimeoutTickMillisNotPowerOf2() throws Exception
+    {
+        this.minimumBuilder.timeoutTickMillis(3).build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateZeroTimeoutTickMillis() throws Exception
+    {
+        this.minimumBuilder.timeoutTickMillis(0).build().completeAndValidateConfig();
+    }
+
     @Test
     public void testAlternativeUnicastHostname() throws VegaException
     {
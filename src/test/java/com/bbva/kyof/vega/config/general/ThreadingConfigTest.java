@@ -0,0 +1,43 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the {@link ThreadingConfig} class
+ */
+public class ThreadingConfigTest
+{
+    @Test
+    public void emptyConstructor()
+    {
+        new ThreadingConfig();
+    }
+
+    @Test
+    public void validateDefaultParams() throws Exception
+    {
+        final ThreadingConfig config = ThreadingConfig.builder().build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(config.getThreadingMode(), ThreadingConfig.DEFAULT_THREADING_MODE);
+        Assert.assertTrue(config.getSharedThreads() == ThreadingConfig.DEFAULT_SHARED_THREADS);
+    }
+
+    @Test
+    public void validateSharedThreads() throws Exception
+    {
+        final ThreadingConfig config = ThreadingConfig.builder().threadingMode(ThreadingModeType.SHARED).sharedThreads(2).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(config.getThreadingMode(), ThreadingModeType.SHARED);
+        Assert.assertTrue(config.getSharedThreads() == 2);
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateZeroSharedThreads() throws Exception
+    {
+        ThreadingConfig.builder().threadingMode(ThreadingModeType.SHARED).sharedThreads(0).build().completeAndValidateConfig();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the {@link ThreadingModeType} class
+ */
+public class ThreadingModeTypeTest
+{
+    @Test
+    public void valueAndFromValue() throws Exception
+    {
+        Assert.assertEquals(ThreadingModeType.DEDICATED.value(), "DEDICATED");
+        Assert.assertEquals(ThreadingModeType.SHARED.value(), "SHARED");
+        Assert.assertEquals(ThreadingModeType.INVOKER.value(), "INVOKER");
+        Assert.assertEquals(ThreadingModeType.fromValue("DEDICATED"), ThreadingModeType.DEDICATED);
+        Assert.assertEquals(ThreadingModeType.fromValue("SHARED"), ThreadingModeType.SHARED);
+        Assert.assertEquals(ThreadingModeType.fromValue("INVOKER"), ThreadingModeType.INVOKER);
+    }
+}
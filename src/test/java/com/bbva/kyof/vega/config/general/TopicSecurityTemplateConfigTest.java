@@ -85,5 +85,20 @@ public class TopicSecurityTemplateConfigTest
         Assert.assertTrue(validConfig.getControlMsgInterval() == 200L);
         Assert.assertTrue(validConfig.getPubSecIds().contains(11111));
         Assert.assertTrue(validConfig.getSubSecIds().contains(22222));
+        Assert.assertEquals(validConfig.getCipherType(), TopicCipherType.AES);
+    }
+
+    @Test
+    public void testGcmCipherType() throws Exception
+    {
+        final TopicSecurityTemplateConfig validConfig = TopicSecurityTemplateConfig.builder().
+                name("aname").
+                pubSecIds(PUB_SEC_IDS).
+                subSecIds(SUB_SEC_IDS).
+                cipherType(TopicCipherType.AES_GCM).build();
+
+        validConfig.completeAndValidateConfig();
+
+        Assert.assertEquals(validConfig.getCipherType(), TopicCipherType.AES_GCM);
     }
 }
\ No newline at end of file
@@ -115,4 +115,656 @@ public class TopicTemplateConfigTest
         config = builder.build();
         Assert.assertEquals(hostname, config.getHostname());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSingleWriter() throws Exception
+    {
+        // By default is false
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertFalse(defaultConfig.getSingleWriter());
+
+        // Set for multicast
+        final TopicTemplateConfig mcastConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                singleWriter(true).
+                build();
+
+        mcastConfig.completeAndValidateConfig();
+        Assert.assertTrue(mcastConfig.getSingleWriter());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateSingleWriterUnicast() throws Exception
+    {
+        // Should fail, single writer is not supported in unicast
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                singleWriter(true).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testMultiDestinationCast() throws Exception
+    {
+        // By default is false
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertFalse(defaultConfig.getMultiDestinationCast());
+
+        // Set for unicast
+        final TopicTemplateConfig ucastConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                multiDestinationCast(true).
+                build();
+
+        ucastConfig.completeAndValidateConfig();
+        Assert.assertTrue(ucastConfig.getMultiDestinationCast());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateMultiDestinationCastMulticast() throws Exception
+    {
+        // Should fail, multi-destination-cast is only supported in unicast
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                multiDestinationCast(true).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testCompactHeader() throws Exception
+    {
+        // By default is false
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertFalse(defaultConfig.getCompactHeader());
+
+        // Set for multicast
+        final TopicTemplateConfig mcastConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                compactHeader(true).
+                build();
+
+        mcastConfig.completeAndValidateConfig();
+        Assert.assertTrue(mcastConfig.getCompactHeader());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateCompactHeaderUnicast() throws Exception
+    {
+        // Should fail, compact header is not supported in unicast
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                compactHeader(true).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testBackPressurePolicy() throws Exception
+    {
+        // By default is fail fast
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicyType.FAIL_FAST, defaultConfig.getBackPressurePolicy());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_BACK_PRESSURE_MAX_RETRIES, defaultConfig.getBackPressureMaxRetries().intValue());
+
+        // Block until timeout with the compulsory timeout, in unicast
+        final TopicTemplateConfig blockConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                backPressurePolicy(BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT).
+                backPressureTimeoutNanos(1000L).
+                build();
+
+        blockConfig.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT, blockConfig.getBackPressurePolicy());
+        Assert.assertEquals(1000L, blockConfig.getBackPressureTimeoutNanos().longValue());
+
+        // Conflated in multicast
+        final TopicTemplateConfig conflatedConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                backPressurePolicy(BackPressurePolicyType.DROP_OLDEST_CONFLATED).
+                build();
+
+        conflatedConfig.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicyType.DROP_OLDEST_CONFLATED, conflatedConfig.getBackPressurePolicy());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateBackPressureTimeoutMissing() throws Exception
+    {
+        // Should fail, the timeout is compulsory for block until timeout
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateBackPressureNegativeRetries() throws Exception
+    {
+        // Should fail, negative retries
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicyType.SPIN_RETRY).
+                backPressureMaxRetries(-1).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateBackPressureConflatedUnicast() throws Exception
+    {
+        // Should fail, conflation is not supported in unicast
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                backPressurePolicy(BackPressurePolicyType.DROP_OLDEST_CONFLATED).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateBackPressureConflatedSingleWriter() throws Exception
+    {
+        // Should fail, the pending conflated message is also sent from the sender thread
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                backPressurePolicy(BackPressurePolicyType.DROP_OLDEST_CONFLATED).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testAsyncSend() throws Exception
+    {
+        // By default is false
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertFalse(defaultConfig.getAsyncSend());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_ASYNC_RING_BUFFER_SIZE, defaultConfig.getAsyncRingBufferSize().intValue());
+
+        // Set for unicast with a custom size
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                asyncSend(true).
+                asyncRingBufferSize(65536).
+                build();
+
+        asyncConfig.completeAndValidateConfig();
+        Assert.assertTrue(asyncConfig.getAsyncSend());
+        Assert.assertEquals(65536, asyncConfig.getAsyncRingBufferSize().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateAsyncRingBufferSizeNotPowerOfTwo() throws Exception
+    {
+        // Should fail, the size is not a power of 2
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncSend(true).
+                asyncRingBufferSize(1000).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateAsyncSendSingleWriter() throws Exception
+    {
+        // Should fail, async send is not compatible with single writer
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                asyncSend(true).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void validateAsyncSendBackPressurePolicy() throws Exception
+    {
+        // The policies that don't retry are allowed
+        final TopicTemplateConfig conflatedConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicyType.DROP_OLDEST_CONFLATED).
+                asyncSend(true).
+                build();
+
+        conflatedConfig.completeAndValidateConfig();
+
+        // Should fail, the retries would block the sender thread shared by all the async topics
+        for (final BackPressurePolicyType policy : new BackPressurePolicyType[]{BackPressurePolicyType.SPIN_RETRY, BackPressurePolicyType.IDLE_RETRY, BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT})
+        {
+            final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                    name("aname").
+                    rcvPoller("poller").
+                    transportType(TransportMediaType.IPC).
+                    backPressurePolicy(policy).
+                    backPressureTimeoutNanos(1000L).
+                    asyncSend(true).
+                    build();
+
+            try
+            {
+                invalidConfig.completeAndValidateConfig();
+                Assert.fail("Async send should not be allowed with the back pressure policy " + policy);
+            }
+            catch (final VegaException e)
+            {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testRetransmitCache() throws Exception
+    {
+        // By default is disabled
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertEquals(0, defaultConfig.getRetransmitCacheSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_RETRANSMIT_MAX_MSG_SIZE, defaultConfig.getRetransmitMaxMsgSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_RETRANSMIT_TIMEOUT_MILLIS, defaultConfig.getRetransmitTimeoutMillis().longValue());
+
+        // Set for multicast with custom values
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                retransmitCacheSize(1024).
+                retransmitMaxMsgSize(8192).
+                retransmitTimeoutMillis(50L).
+                build();
+
+        retransmitConfig.completeAndValidateConfig();
+        Assert.assertEquals(1024, retransmitConfig.getRetransmitCacheSize().intValue());
+        Assert.assertEquals(8192, retransmitConfig.getRetransmitMaxMsgSize().intValue());
+        Assert.assertEquals(50L, retransmitConfig.getRetransmitTimeoutMillis().longValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateRetransmitCacheSizeNotPowerOfTwo() throws Exception
+    {
+        // Should fail, the size is not a power of 2
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(1000).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateRetransmitMaxMsgSize() throws Exception
+    {
+        // Should fail, the max message size is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(1024).
+                retransmitMaxMsgSize(0).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateRetransmitTimeout() throws Exception
+    {
+        // Should fail, the timeout is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(1024).
+                retransmitTimeoutMillis(0L).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateRetransmitCacheSingleWriter() throws Exception
+    {
+        // Should fail, the retransmit cache is not compatible with single writer
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                retransmitCacheSize(1024).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testDurable() throws Exception
+    {
+        // By default is disabled
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertFalse(defaultConfig.getDurable());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_JOURNAL_DIR, defaultConfig.getJournalDir());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_JOURNAL_SEGMENT_SIZE, defaultConfig.getJournalSegmentSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_JOURNAL_MAX_SEGMENTS, defaultConfig.getJournalMaxSegments().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_REPLAY_MAX_HELD_MSGS, defaultConfig.getReplayMaxHeldMsgs().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_REPLAY_TIMEOUT_MILLIS, defaultConfig.getReplayTimeoutMillis().longValue());
+
+        // Set with custom values, it is compatible with single writer
+        final TopicTemplateConfig durableConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                durable(true).
+                journalDir("/tmp/journal").
+                journalSegmentSize(1024 * 1024).
+                journalMaxSegments(4).
+                replayMaxHeldMsgs(1024).
+                replayTimeoutMillis(1000L).
+                build();
+
+        durableConfig.completeAndValidateConfig();
+        Assert.assertTrue(durableConfig.getDurable());
+        Assert.assertEquals("/tmp/journal", durableConfig.getJournalDir());
+        Assert.assertEquals(1024 * 1024, durableConfig.getJournalSegmentSize().intValue());
+        Assert.assertEquals(4, durableConfig.getJournalMaxSegments().intValue());
+        Assert.assertEquals(1024, durableConfig.getReplayMaxHeldMsgs().intValue());
+        Assert.assertEquals(1000L, durableConfig.getReplayTimeoutMillis().longValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateJournalSegmentSize() throws Exception
+    {
+        // Should fail, the segment size is not a power of 2
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                journalSegmentSize(1000000).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateJournalMaxSegments() throws Exception
+    {
+        // Should fail, the max segments is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                journalMaxSegments(0).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateReplayTimeout() throws Exception
+    {
+        // Should fail, the replay timeout is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                replayTimeoutMillis(0L).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testLastValueCache() throws Exception
+    {
+        // By default is disabled
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertEquals(0, defaultConfig.getLastValueCacheSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_LAST_VALUE_MAX_MSG_SIZE, defaultConfig.getLastValueMaxMsgSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_LAST_VALUE_SNAPSHOT_TIMEOUT_MILLIS, defaultConfig.getLastValueSnapshotTimeoutMillis().longValue());
+
+        // Set with custom values
+        final TopicTemplateConfig lastValueConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                lastValueCacheSize(1000).
+                lastValueMaxMsgSize(256).
+                lastValueSnapshotTimeoutMillis(2000L).
+                build();
+
+        lastValueConfig.completeAndValidateConfig();
+        Assert.assertEquals(1000, lastValueConfig.getLastValueCacheSize().intValue());
+        Assert.assertEquals(256, lastValueConfig.getLastValueMaxMsgSize().intValue());
+        Assert.assertEquals(2000L, lastValueConfig.getLastValueSnapshotTimeoutMillis().longValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateLastValueMaxMsgSize() throws Exception
+    {
+        // Should fail, the max message size is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                lastValueCacheSize(1000).
+                lastValueMaxMsgSize(0).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateLastValueCacheWithSingleWriter() throws Exception
+    {
+        // Should fail, the last value cache is not compatible with single writer
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                lastValueCacheSize(1000).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateLastValueCacheWithAsyncSend() throws Exception
+    {
+        // Should fail, the last value cache is not compatible with async send
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncSend(true).
+                lastValueCacheSize(1000).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test
+    public void testConflationByKey() throws Exception
+    {
+        // Default values
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicyType.CONFLATED_BY_KEY, defaultConfig.getBackPressurePolicy());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_CONFLATION_MAX_KEYS, defaultConfig.getConflationMaxKeys().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_CONFLATION_MAX_MSG_SIZE, defaultConfig.getConflationMaxMsgSize().intValue());
+
+        // Set with custom values
+        final TopicTemplateConfig conflatedConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                conflationMaxKeys(100).
+                conflationMaxMsgSize(256).
+                build();
+
+        conflatedConfig.completeAndValidateConfig();
+        Assert.assertEquals(100, conflatedConfig.getConflationMaxKeys().intValue());
+        Assert.assertEquals(256, conflatedConfig.getConflationMaxMsgSize().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateConflationByKeyUnicast() throws Exception
+    {
+        // Should fail, conflation is not supported in unicast
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateConflationMaxKeys() throws Exception
+    {
+        // Should fail, the max keys is not positive
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                conflationMaxKeys(0).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateConflationByKeyWithSingleWriter() throws Exception
+    {
+        // Should fail, the conflation by key is not compatible with single writer
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                singleWriter(true).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateConflationByKeyWithAsyncSend() throws Exception
+    {
+        // Should fail, the conflation by key is not compatible with async send
+        final TopicTemplateConfig invalidConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncSend(true).
+                backPressurePolicy(BackPressurePolicyType.CONFLATED_BY_KEY).
+                build();
+
+        invalidConfig.completeAndValidateConfig();
+    }
+}
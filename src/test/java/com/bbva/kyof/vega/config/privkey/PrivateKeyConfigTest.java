@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.config.privkey;
 
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -24,7 +25,7 @@ public class PrivateKeyConfigTest
     @Test
     public void testConstructors() throws VegaException
     {
-        final PrivateKeyConfig config = new PrivateKeyConfig("anInvalidValue", 11111, false);
+        final PrivateKeyConfig config = new PrivateKeyConfig("anInvalidValue", 11111, false, null);
         final PrivateKeyConfig config2 = new PrivateKeyConfig();
 
         Assert.assertEquals(config.getAppSecurityId(), 11111);
@@ -36,5 +37,15 @@ public class PrivateKeyConfigTest
         Assert.assertNull(config2.getValue());
 
         config.completeAndValidateConfig();
+        Assert.assertEquals(config.getKeyAlgorithm(), KeyAlgorithmType.RSA);
+    }
+
+    @Test
+    public void testKeyAlgorithm() throws VegaException
+    {
+        final PrivateKeyConfig config = PrivateKeyConfig.builder().appSecurityId(11111).value("aValue").keyAlgorithm(KeyAlgorithmType.EC).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(config.getKeyAlgorithm(), KeyAlgorithmType.EC);
     }
 }
\ No newline at end of file
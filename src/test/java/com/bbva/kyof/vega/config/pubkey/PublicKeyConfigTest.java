@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.config.pubkey;
 
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -23,7 +24,7 @@ public class PublicKeyConfigTest
     @Test
     public void testConstructors() throws VegaException
     {
-        final PublicKeyConfig config = new PublicKeyConfig("anInvalidValue", 11111);
+        final PublicKeyConfig config = new PublicKeyConfig("anInvalidValue", 11111, null);
         final PublicKeyConfig config2 = new PublicKeyConfig();
 
         Assert.assertEquals(config.getAppSecurityId(), 11111);
@@ -34,5 +35,15 @@ public class PublicKeyConfigTest
         Assert.assertNull(config2.getValue());
 
         config.completeAndValidateConfig();
+        Assert.assertEquals(config.getKeyAlgorithm(), KeyAlgorithmType.RSA);
+    }
+
+    @Test
+    public void testKeyAlgorithm() throws VegaException
+    {
+        final PublicKeyConfig config = PublicKeyConfig.builder().appSecurityId(11111).value("aValue").keyAlgorithm(KeyAlgorithmType.EC).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(config.getKeyAlgorithm(), KeyAlgorithmType.EC);
     }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import com.bbva.kyof.vega.config.privkey.PrivateKeyConfigReader;
 import com.bbva.kyof.vega.config.pubkey.PublicKeyConfig;
 import com.bbva.kyof.vega.config.pubkey.PublicKeyConfigReader;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.crypto.KeyAlgorithmType;
+import com.bbva.kyof.vega.util.crypto.RSAKeysHelper;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +26,8 @@ public class KeyPairGeneratorTest
 
     private final static int APP_SECURITY_ID = 99999;
     private final static int ENCRYPTED_APP_SECURITY_ID = 88888;
+    private final static int EC_APP_SECURITY_ID = 77777;
+    private final static int ENCRYPTED_EC_APP_SECURITY_ID = 66666;
 
     private String destPath;
 
@@ -79,6 +83,13 @@ public class KeyPairGeneratorTest
         {
             encryptPubKeyFile.delete();
         }
+
+        // Remove the elliptic curve keys
+        for (final int securityId : new int[]{EC_APP_SECURITY_ID, ENCRYPTED_EC_APP_SECURITY_ID})
+        {
+            new File(PrivateKeyConfigReader.createPrivKeyFileFullPath(destPath, securityId)).delete();
+            new File(PublicKeyConfigReader.createPubKeyFileFullPath(destPath, securityId)).delete();
+        }
     }
 
     @Test
@@ -97,6 +108,28 @@ public class KeyPairGeneratorTest
         this.loadAndVerifyGenFiles(ENCRYPTED_APP_SECURITY_ID, true);
     }
 
+    @Test
+    public void generateEllipticCurveKeyPair() throws Exception
+    {
+        KeyPairGenerator.main(new String[]{"PLAIN", Long.toString(EC_APP_SECURITY_ID), destPath, "EC"});
+        this.loadAndVerifyGenFiles(EC_APP_SECURITY_ID, false);
+        this.verifyEllipticCurveKeys(EC_APP_SECURITY_ID, null);
+    }
+
+    @Test
+    public void generateEncryptedEllipticCurveKeyPair() throws Exception
+    {
+        KeyPairGenerator.main(new String[]{"ENCRYPTED", Long.toString(ENCRYPTED_EC_APP_SECURITY_ID), destPath, TestConstants.PRIVATE_KEY_PASSWORD_HEX, "EC"});
+        this.loadAndVerifyGenFiles(ENCRYPTED_EC_APP_SECURITY_ID, true);
+        this.verifyEllipticCurveKeys(ENCRYPTED_EC_APP_SECURITY_ID, TestConstants.PRIVATE_KEY_PASSWORD_HEX);
+    }
+
+    @Test(expected = VegaException.class)
+    public void testMainWrongKeyAlgorithm() throws VegaException
+    {
+        KeyPairGenerator.main(new String[]{"PLAIN", Long.toString(EC_APP_SECURITY_ID), destPath, "DSA"});
+    }
+
     @Test(expected = VegaException.class)
     public void testMainWrongParams() throws VegaException, IOException
     {
@@ -131,4 +164,26 @@ public class KeyPairGeneratorTest
         Assert.assertNotNull(privateConfig.getValue());
         Assert.assertTrue(isEncrypted == privateConfig.isKeyEncrypted());
     }
+
+    private void verifyEllipticCurveKeys(final long applicationId, final String keyPassword) throws VegaException
+    {
+        final PublicKeyConfig pubConfig = PublicKeyConfigReader.readConfiguration(destPath, applicationId);
+        final PrivateKeyConfig privateConfig = PrivateKeyConfigReader.readConfiguration(destPath, applicationId);
+
+        Assert.assertEquals(KeyAlgorithmType.EC, pubConfig.getKeyAlgorithm());
+        Assert.assertEquals(KeyAlgorithmType.EC, privateConfig.getKeyAlgorithm());
+
+        // The keys should be loaded with the algorithm of the files
+        final String codec = KeyAlgorithmType.EC.getStringValue();
+        Assert.assertNotNull(RSAKeysHelper.loadPublicKey(pubConfig.getValue(), codec));
+
+        if (keyPassword == null)
+        {
+            Assert.assertNotNull(RSAKeysHelper.loadPrivateKey(privateConfig.getValue(), codec));
+        }
+        else
+        {
+            Assert.assertNotNull(RSAKeysHelper.loadEncryptedPrivateKey(privateConfig.getValue(), codec, keyPassword));
+        }
+    }
 }
\ No newline at end of file
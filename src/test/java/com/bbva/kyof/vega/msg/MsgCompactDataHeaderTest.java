@@ -0,0 +1,52 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Test the {@link MsgCompactDataHeader} class
+ */
+public class MsgCompactDataHeaderTest
+{
+    @Test
+    public void fromBinaryToBinary()
+    {
+        // Create the header
+        final long sequenceNumber = new Random().nextLong();
+        final MsgCompactDataHeader testHeader = new MsgCompactDataHeader(33, sequenceNumber);
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary
+        testHeader.toBinary(serializer);
+
+        // Check the current offset, should be the serialization size
+        Assert.assertEquals(serializer.getOffset(), testHeader.serializedSize());
+        Assert.assertEquals(12, testHeader.serializedSize());
+
+        // Flip the buffer
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+
+        // Wrap again and read
+        serializer.wrap(buffer);
+
+        MsgCompactDataHeader readedHeader = new MsgCompactDataHeader();
+        readedHeader.fromBinary(serializer);
+
+        // Check all values of the header
+        Assert.assertEquals(testHeader, readedHeader);
+        Assert.assertEquals(33, readedHeader.getHeaderAlias());
+        Assert.assertEquals(sequenceNumber, readedHeader.getSequenceNumber());
+
+        // Check again the limits
+        Assert.assertEquals(serializer.getOffset(), readedHeader.serializedSize());
+    }
+}
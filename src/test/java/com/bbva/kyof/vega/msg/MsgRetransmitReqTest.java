@@ -0,0 +1,53 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Test the {@link MsgRetransmitReq} class
+ */
+public class MsgRetransmitReqTest
+{
+    @Test
+    public void fromBinaryToBinary()
+    {
+        // Create the message
+        final MsgRetransmitReq testMsg = new MsgRetransmitReq(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 100, 120, MsgRetransmitReq.REPLAY);
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        final UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary
+        testMsg.toBinary(serializer);
+
+        // Check the current offset, should be the serialization size
+        Assert.assertEquals(serializer.getOffset(), testMsg.serializedSize());
+
+        // Flip the buffer
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+
+        // Wrap again and read
+        serializer.wrap(buffer);
+
+        final MsgRetransmitReq readMsg = new MsgRetransmitReq();
+        readMsg.fromBinary(serializer);
+
+        // Check all values of the message
+        Assert.assertEquals(testMsg, readMsg);
+        Assert.assertEquals(100, readMsg.getFirstSequenceNumber());
+        Assert.assertEquals(120, readMsg.getLastSequenceNumber());
+        Assert.assertTrue(readMsg.isReplay());
+        Assert.assertFalse(readMsg.isSnapshot());
+        Assert.assertNotNull(readMsg.toString());
+
+        // Check again the limits
+        Assert.assertEquals(serializer.getOffset(), readMsg.serializedSize());
+    }
+}
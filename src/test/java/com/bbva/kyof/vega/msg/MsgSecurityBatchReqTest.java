@@ -0,0 +1,78 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.crypto.RSACrypto;
+import com.bbva.kyof.vega.util.crypto.RSAKeysHelper;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Test for the {@link MsgSecurityBatchReq} class
+ */
+public class MsgSecurityBatchReqTest
+{
+    private final UnsafeBuffer serializeBuffer = new UnsafeBuffer(new byte[2048]);
+
+    private final UnsafeBufferSerializer bufferSerializer = new UnsafeBufferSerializer();
+
+    private RSACrypto RSACrypto1;
+    private RSACrypto RSACrypto2;
+
+    @Before
+    public void before() throws Exception
+    {
+        final KeyPair keyPair1 = RSAKeysHelper.generateKeyPair();
+        final KeyPair keyPair2 = RSAKeysHelper.generateKeyPair();
+
+        Map<Integer, PublicKey> publicKeysMap = new HashMap<>();
+        publicKeysMap.put(1, keyPair1.getPublic());
+        publicKeysMap.put(2, keyPair2.getPublic());
+
+        this.RSACrypto1 = new RSACrypto(keyPair1.getPrivate(), publicKeysMap);
+        this.RSACrypto2 = new RSACrypto(keyPair2.getPrivate(), publicKeysMap);
+    }
+
+    @Test
+    public void testGettersSettersSerializeDeserialize() throws Exception
+    {
+        // Create the message with several topic publishers
+        final MsgSecurityBatchReq msgSecurity = new MsgSecurityBatchReq();
+        msgSecurity.setInstanceId(UUID.randomUUID());
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(UUID.randomUUID());
+
+        for (int i = 0; i < 10; i++)
+        {
+            msgSecurity.getTopicPublisherIds().add(UUID.randomUUID());
+        }
+
+        Assert.assertEquals(AbstractMsgSecurity.BATCH_TOPIC_PUB_ID, msgSecurity.getTopicPublisherId());
+
+        // Sign and serialize
+        bufferSerializer.wrap(serializeBuffer);
+        msgSecurity.signAndSerialize(bufferSerializer, RSACrypto1);
+
+        // Now deserialize twice in the same message, the topic publishers should not be duplicated
+        final MsgSecurityBatchReq readedMsgSecurity = new MsgSecurityBatchReq();
+        bufferSerializer.setOffset(0);
+        readedMsgSecurity.fromBinary(bufferSerializer);
+        bufferSerializer.setOffset(0);
+        readedMsgSecurity.fromBinary(bufferSerializer);
+
+        // Both messages should be equals
+        Assert.assertEquals(msgSecurity, readedMsgSecurity);
+        Assert.assertEquals(msgSecurity.getTopicPublisherIds(), readedMsgSecurity.getTopicPublisherIds());
+
+        // Verify the signature
+        Assert.assertTrue(readedMsgSecurity.verifySignature(this.RSACrypto2));
+    }
+}
@@ -0,0 +1,113 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.RSACrypto;
+import com.bbva.kyof.vega.util.crypto.RSAKeysHelper;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Test for the {@link MsgSecurityBatchResp} class
+ */
+public class MsgSecurityBatchRespTest
+{
+    private final UnsafeBuffer serializeBuffer = new UnsafeBuffer(new byte[4096]);
+
+    private final UnsafeBufferSerializer bufferSerializer = new UnsafeBufferSerializer();
+
+    private RSACrypto RSACrypto1;
+    private RSACrypto RSACrypto2;
+    private byte[] sessionKey;
+
+    @Before
+    public void before() throws Exception
+    {
+        final KeyPair keyPair1 = RSAKeysHelper.generateKeyPair();
+        final KeyPair keyPair2 = RSAKeysHelper.generateKeyPair();
+
+        Map<Integer, PublicKey> publicKeysMap = new HashMap<>();
+        publicKeysMap.put(1, keyPair1.getPublic());
+        publicKeysMap.put(2, keyPair2.getPublic());
+
+        this.RSACrypto1 = new RSACrypto(keyPair1.getPrivate(), publicKeysMap);
+        this.RSACrypto2 = new RSACrypto(keyPair2.getPrivate(), publicKeysMap);
+
+        this.sessionKey = AESCrypto.createNewInstance().getAESKey();
+    }
+
+    @Test
+    public void testGettersSettersSerializeDeserialize() throws Exception
+    {
+        final UUID okTopicPubId = UUID.randomUUID();
+        final UUID errorTopicPubId = UUID.randomUUID();
+
+        // Create the message with a session key and an error
+        final MsgSecurityBatchResp msgSecurity = new MsgSecurityBatchResp();
+        msgSecurity.setInstanceId(UUID.randomUUID());
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(UUID.randomUUID());
+        msgSecurity.addSessionKey(okTopicPubId, RSACrypto1.encodeWithPubKey(2, this.sessionKey));
+        msgSecurity.addError(errorTopicPubId, MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG);
+
+        // Sign and serialize
+        bufferSerializer.wrap(serializeBuffer);
+        msgSecurity.signAndSerialize(bufferSerializer, RSACrypto1);
+
+        // Now deserialize
+        bufferSerializer.setOffset(0);
+        final MsgSecurityBatchResp readedMsgSecurity = new MsgSecurityBatchResp();
+        readedMsgSecurity.fromBinary(bufferSerializer);
+
+        // Both messages should be equals
+        Assert.assertEquals(msgSecurity, readedMsgSecurity);
+        Assert.assertEquals(msgSecurity.toString(), readedMsgSecurity.toString());
+        Assert.assertEquals(2, readedMsgSecurity.getEntries().size());
+
+        // Check the entries
+        final MsgSecurityBatchResp.Entry okEntry = readedMsgSecurity.getEntries().get(0);
+        Assert.assertEquals(okTopicPubId, okEntry.getTopicPublisherId());
+        Assert.assertEquals(MsgSecurityBatchResp.NO_ERROR, okEntry.getErrorCode());
+        Assert.assertArrayEquals(this.sessionKey, RSACrypto2.decodeWithOwnPrivKey(okEntry.getEncodedSessionKey()));
+
+        final MsgSecurityBatchResp.Entry errorEntry = readedMsgSecurity.getEntries().get(1);
+        Assert.assertEquals(errorTopicPubId, errorEntry.getTopicPublisherId());
+        Assert.assertEquals(MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG, errorEntry.getErrorCode());
+        Assert.assertEquals(0, errorEntry.getEncodedSessionKey().length);
+
+        // Verify the signature
+        Assert.assertTrue(readedMsgSecurity.verifySignature(this.RSACrypto2));
+    }
+
+    @Test
+    public void testFull()
+    {
+        // The max number of topic publishers with 4096 bits RSA keys fits in a single response
+        final MsgSecurityBatchResp msgSecurity = new MsgSecurityBatchResp();
+        for (int i = 0; i < MsgSecurityBatchReq.MAX_TOPIC_PUBS; i++)
+        {
+            msgSecurity.addSessionKey(UUID.randomUUID(), new byte[512]);
+        }
+        Assert.assertFalse(msgSecurity.isFull());
+
+        // With 8192 bits RSA keys it is full before
+        final MsgSecurityBatchResp bigKeysMsgSecurity = new MsgSecurityBatchResp();
+        for (int i = 0; i < 47; i++)
+        {
+            bigKeysMsgSecurity.addSessionKey(UUID.randomUUID(), new byte[1024]);
+        }
+        Assert.assertFalse(bigKeysMsgSecurity.isFull());
+
+        bigKeysMsgSecurity.addSessionKey(UUID.randomUUID(), new byte[1024]);
+        Assert.assertTrue(bigKeysMsgSecurity.isFull());
+    }
+}
\ No newline at end of file
@@ -33,6 +33,15 @@ public class MsgTypeTest
         Assert.assertEquals(MsgType.toString(MsgType.ENCRYPTED_DATA), "ENCRYPTED_DATA");
         Assert.assertEquals(MsgType.toString(MsgType.AUTO_DISC_DAEMON_CLIENT_INFO), "AUTO_DISC_DAEMON_CLIENT_INFO");
         Assert.assertEquals(MsgType.toString(MsgType.CONTROL_SECURITY_ERROR_RESP), "CONTROL_SECURITY_ERROR_RESP");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_COMPACT), "DATA_COMPACT");
+        Assert.assertEquals(MsgType.toString(MsgType.CONTROL_RETRANSMIT_REQ), "CONTROL_RETRANSMIT_REQ");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_RETRANSMIT), "DATA_RETRANSMIT");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_RETRANSMIT_LOST), "DATA_RETRANSMIT_LOST");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_SNAPSHOT), "DATA_SNAPSHOT");
+        Assert.assertEquals(MsgType.toString(MsgType.ENCRYPTED_DATA_GCM), "ENCRYPTED_DATA_GCM");
+        Assert.assertEquals(MsgType.toString(MsgType.CONTROL_SECURITY_BATCH_REQ), "CONTROL_SECURITY_BATCH_REQ");
+        Assert.assertEquals(MsgType.toString(MsgType.CONTROL_SECURITY_BATCH_RESP), "CONTROL_SECURITY_BATCH_RESP");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_SNAPSHOT_END), "DATA_SNAPSHOT_END");
         Assert.assertEquals(MsgType.toString((byte)55), "UNKNOWN");
     }
 }
\ No newline at end of file
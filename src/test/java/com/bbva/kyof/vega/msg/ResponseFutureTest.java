@@ -0,0 +1,173 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Test for the {@link ResponseFuture} class
+ */
+public class ResponseFutureTest
+{
+    private final SentRequestsPool pool = new SentRequestsPool(UUID.randomUUID());
+
+    @Test
+    public void testResponseCompletes() throws Exception
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.pool.acquire("topic", 100, future);
+
+        final RcvResponse response = this.createResponse(request);
+        request.onResponseReceived(request.getRequestIdMsb(), request.getRequestIdLsb(), response);
+
+        // Completed with a promoted copy and the request closed
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(request.isClosed());
+
+        final IRcvResponse result = future.get();
+        Assert.assertNotSame(response, result);
+        Assert.assertEquals(request.getRequestId(), result.getOriginalRequestId());
+        Assert.assertEquals(4, result.getContentLength());
+        Assert.assertEquals(33, result.getContents().getInt(result.getContentOffset()));
+
+        // A second response is ignored
+        request.onResponseReceived(request.getRequestIdMsb(), request.getRequestIdLsb(), this.createResponse(request));
+        Assert.assertSame(result, future.get());
+        Assert.assertEquals(1, request.getNumberOfResponses());
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.pool.acquire("topic", 100, future);
+
+        request.onRequestTimeout();
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+
+        try
+        {
+            future.get();
+            Assert.fail();
+        }
+        catch (final ExecutionException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // The sync wait returns null
+        Assert.assertNull(future.waitResponse(RequestWaitType.BUSY_SPIN));
+    }
+
+    @Test(expected = VegaException.class)
+    public void testNotSent() throws Exception
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.pool.acquire("topic", 100, future);
+        request.setSentResult(PublishResult.BACK_PRESSURED);
+
+        future.onRequestSent(request);
+
+        Assert.assertTrue(request.isClosed());
+        future.waitResponse(RequestWaitType.PARK);
+    }
+
+    @Test
+    public void testSent() throws Exception
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.pool.acquire("topic", 100, future);
+        request.setSentResult(PublishResult.OK);
+
+        future.onRequestSent(request);
+
+        Assert.assertFalse(future.isDone());
+        Assert.assertFalse(request.isClosed());
+    }
+
+    @Test(expected = VegaException.class)
+    public void testCancelled() throws Exception
+    {
+        final ResponseFuture future = new ResponseFuture();
+        final SentRequest request = this.pool.acquire("topic", 100, future);
+
+        request.onRequestCancelled();
+
+        Assert.assertTrue(request.isClosed());
+        future.waitResponse(RequestWaitType.BACK_OFF);
+    }
+
+    @Test
+    public void testWaitTypes() throws Exception
+    {
+        for (final RequestWaitType waitType : RequestWaitType.values())
+        {
+            final ResponseFuture future = new ResponseFuture();
+            final SentRequest request = this.pool.acquire("topic", 1000, future);
+
+            // Respond from another thread after a while
+            final Thread responder = new Thread(() ->
+            {
+                try
+                {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                request.onResponseReceived(request.getRequestIdMsb(), request.getRequestIdLsb(), this.createResponse(request));
+            });
+            responder.start();
+
+            final IRcvResponse result = future.waitResponse(waitType);
+            Assert.assertNotNull(result);
+            Assert.assertEquals(request.getRequestId(), result.getOriginalRequestId());
+
+            responder.join();
+        }
+    }
+
+    @Test
+    public void testWaitInterrupted()
+    {
+        final ResponseFuture future = new ResponseFuture();
+        this.pool.acquire("topic", 100, future);
+
+        Thread.currentThread().interrupt();
+
+        try
+        {
+            future.waitResponse(RequestWaitType.PARK);
+            Assert.fail();
+        }
+        catch (final VegaException e)
+        {
+            // The interrupted flag is restored, clear it
+            Assert.assertTrue(Thread.interrupted());
+        }
+    }
+
+    private RcvResponse createResponse(final SentRequest request)
+    {
+        final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocate(4));
+        contents.putInt(0, 33);
+
+        final RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(request.getRequestIdMsb(), request.getRequestIdLsb());
+        response.setUnsafeBufferContent(contents);
+        response.setContentOffset(0);
+        response.setContentLength(4);
+
+        return response;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bbva.kyof.vega.msg;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Test for the {@link SentRequestsPool} class
+ */
+public class SentRequestsPoolTest implements IResponseListener
+{
+    private final UUID instanceId = UUID.randomUUID();
+    private SentRequestsPool pool;
+    private int numResponses;
+
+    @Before
+    public void setUp()
+    {
+        this.pool = new SentRequestsPool(this.instanceId);
+        this.numResponses = 0;
+    }
+
+    @Test
+    public void testRequestIds()
+    {
+        final SentRequest request1 = this.pool.acquire("topic", 100, this);
+        final SentRequest request2 = this.pool.acquire("topic", 100, this);
+
+        // The ids have the instance alias and consecutive counters
+        Assert.assertEquals(this.instanceId.getMostSignificantBits(), request1.getRequestIdMsb());
+        Assert.assertEquals(this.instanceId.getMostSignificantBits(), request2.getRequestIdMsb());
+        Assert.assertEquals(request1.getRequestIdLsb() + 1, request2.getRequestIdLsb());
+        Assert.assertEquals(new UUID(request1.getRequestIdMsb(), request1.getRequestIdLsb()), request1.getRequestId());
+        Assert.assertEquals("topic", request1.getTopicName());
+        Assert.assertEquals(0, request1.getNumberOfResponses());
+    }
+
+    @Test
+    public void testReleaseAndReuse()
+    {
+        final SentRequest request = this.pool.acquire("topic", 100, this);
+        final long firstIdLsb = request.getRequestIdLsb();
+
+        // Held by the user and by the library
+        request.addReference();
+
+        request.release();
+        Assert.assertEquals(0, this.pool.freeRequests());
+
+        // The second release of the user is ignored
+        request.release();
+        Assert.assertEquals(0, this.pool.freeRequests());
+
+        // Once the library releases it is returned to the pool
+        request.closeRequest();
+        request.removeReference();
+        Assert.assertEquals(1, this.pool.freeRequests());
+        Assert.assertNull(request.getTopicName());
+
+        // It is reused with a new id and a clean state
+        final SentRequest reused = this.pool.acquire("topic2", 100, this);
+        Assert.assertSame(request, reused);
+        Assert.assertEquals(0, this.pool.freeRequests());
+        Assert.assertNotEquals(firstIdLsb, reused.getRequestIdLsb());
+        Assert.assertEquals("topic2", reused.getTopicName());
+        Assert.assertFalse(reused.isClosed());
+        Assert.assertFalse(reused.hasExpired());
+    }
+
+    @Test
+    public void testResponseIdCheck()
+    {
+        final SentRequest request = this.pool.acquire("topic", 100, this);
+
+        // A response with another id is ignored, it may be for a previous use of the request
+        request.onResponseReceived(request.getRequestIdMsb(), request.getRequestIdLsb() + 1, new RcvResponse());
+        Assert.assertEquals(0, this.numResponses);
+        Assert.assertEquals(0, request.getNumberOfResponses());
+
+        final RcvResponse response = new RcvResponse();
+        request.onResponseReceived(request.getRequestIdMsb(), request.getRequestIdLsb(), response);
+        Assert.assertEquals(1, this.numResponses);
+        Assert.assertEquals(1, request.getNumberOfResponses());
+        Assert.assertEquals("topic", response.getTopicName());
+    }
+
+    @Test
+    public void testPoolFull()
+    {
+        final SentRequestsPool smallPool = new SentRequestsPool(this.instanceId, 2);
+
+        final SentRequest request1 = smallPool.acquire("topic", 100, this);
+        final SentRequest request2 = smallPool.acquire("topic", 100, this);
+        final SentRequest request3 = smallPool.acquire("topic", 100, this);
+
+        request1.release();
+        request2.release();
+        request3.release();
+
+        // Only the capacity is retained
+        Assert.assertEquals(2, smallPool.freeRequests());
+    }
+
+    @Test
+    public void testNotPooledRelease()
+    {
+        final SentRequest request = new SentRequest("topic", 100, this, new Random());
+
+        // Nothing happens, the request is simply not reused
+        request.release();
+        Assert.assertEquals("topic", request.getTopicName());
+    }
+
+    @Override
+    public void onRequestTimeout(ISentRequest originalSentRequest)
+    {
+        // Not used
+    }
+
+    @Override
+    public void onResponseReceived(ISentRequest originalSentRequest, IRcvResponse response)
+    {
+        this.numResponses++;
+    }
+}
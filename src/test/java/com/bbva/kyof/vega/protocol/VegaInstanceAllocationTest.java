@@ -0,0 +1,156 @@
+package com.bbva.kyof.vega.protocol;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.bbva.kyof.vega.config.general.ConfigReaderTest;
+import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.protocol.common.VegaInstanceParams;
+import com.bbva.kyof.vega.protocol.publisher.ITopicPublisher;
+import com.bbva.kyof.vega.protocol.subscriber.ITopicSubListener;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+/**
+ * Test that the reception of messages doesn't allocate memory in the poller threads of a {@link VegaInstance}
+ */
+public class VegaInstanceAllocationTest
+{
+    private static final String STAND_ALONE_CONFIG = ConfigReaderTest.class.getClassLoader().getResource("config/vegaInstanceLowLatencyEmbeddedDriverTestConfig.xml").getPath();
+    private static final int WARMUP_MESSAGES = 50_000;
+    private static final int NUM_MESSAGES = 100_000;
+    private static Level ORIG_LOG_LEVEL;
+
+    @BeforeClass
+    public static void beforeClass()
+    {
+        // Avoid the allocations of the debug logs
+        Logger root = (Logger) LoggerFactory.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        ORIG_LOG_LEVEL = root.getLevel();
+        root.setLevel(Level.INFO);
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception
+    {
+        // Return log level to trace for normal unit tests
+        Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ORIG_LOG_LEVEL);
+    }
+
+    @Test
+    public void testNoAllocationsOnReceive() throws Exception
+    {
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final VegaInstanceParams params = VegaInstanceParams.builder().
+                instanceName("AllocationInstance").
+                configurationFile(STAND_ALONE_CONFIG).build();
+
+        try(final IVegaInstance instance = VegaInstance.createNewInstance(params))
+        {
+            // IPC topics are received by poller2 and unicast topics by poller1
+            final CountingListener ipcListener = new CountingListener();
+            final CountingListener ucastListener = new CountingListener();
+            instance.subscribeToTopic("iallocation", ipcListener);
+            instance.subscribeToTopic("uallocation", ucastListener);
+
+            final ITopicPublisher ipcPublisher = instance.createPublisher("iallocation");
+            final ITopicPublisher ucastPublisher = instance.createPublisher("uallocation");
+
+            // Wait to give the auto-discovery time to work
+            Thread.sleep(2000);
+
+            // Warm up, the first messages of each publisher create the sequence number tracking
+            this.sendAndWait(ipcPublisher, ipcListener, WARMUP_MESSAGES);
+            this.sendAndWait(ucastPublisher, ucastListener, WARMUP_MESSAGES);
+
+            this.checkNoAllocations(threadBean, "SubscriberPoller poller2", ipcPublisher, ipcListener);
+            this.checkNoAllocations(threadBean, "SubscriberPoller poller1", ucastPublisher, ucastListener);
+        }
+    }
+
+    private void checkNoAllocations(final com.sun.management.ThreadMXBean threadBean,
+                                    final String pollerThreadName,
+                                    final ITopicPublisher publisher,
+                                    final CountingListener listener) throws Exception
+    {
+        final long pollerThreadId = this.findThreadId(pollerThreadName);
+
+        final long allocatedBefore = threadBean.getThreadAllocatedBytes(pollerThreadId);
+        this.sendAndWait(publisher, listener, NUM_MESSAGES);
+        final long allocatedAfter = threadBean.getThreadAllocatedBytes(pollerThreadId);
+
+        // There should be no allocations per message, give some margin for anything that is not related to the messages
+        final long allocatedBytes = allocatedAfter - allocatedBefore;
+        Assert.assertTrue("Poller allocated " + allocatedBytes + " bytes for " + NUM_MESSAGES + " messages", allocatedBytes < NUM_MESSAGES);
+    }
+
+    private void sendAndWait(final ITopicPublisher publisher, final CountingListener listener, final int numMessages) throws Exception
+    {
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final long expectedReceived = listener.receivedMessages + numMessages;
+
+        for (int i = 0; i < numMessages; i++)
+        {
+            sendBuffer.putInt(0, i);
+            while (publisher.sendMsg(sendBuffer, 0, 128) == PublishResult.BACK_PRESSURED)
+            {
+                Thread.yield();
+            }
+        }
+
+        // Wait for all the messages to arrive
+        final long timeout = System.currentTimeMillis() + 10000;
+        while (listener.receivedMessages < expectedReceived && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(expectedReceived, listener.receivedMessages);
+    }
+
+    private long findThreadId(final String threadName)
+    {
+        for (final Thread thread : Thread.getAllStackTraces().keySet())
+        {
+            if (thread.getName().equals(threadName))
+            {
+                return thread.getId();
+            }
+        }
+
+        Assert.fail("Thread not found " + threadName);
+        return -1;
+    }
+
+    static class CountingListener implements ITopicSubListener
+    {
+        volatile long receivedMessages = 0;
+        long contentsSum = 0;
+
+        @Override
+        public void onMessageReceived(final IRcvMessage receivedMessage)
+        {
+            // Access the contents without allocating
+            this.contentsSum += receivedMessage.getContents().getInt(receivedMessage.getContentOffset());
+            this.receivedMessages++;
+        }
+
+        @Override
+        public void onRequestReceived(final IRcvRequest receivedRequest)
+        {
+        }
+    }
+}
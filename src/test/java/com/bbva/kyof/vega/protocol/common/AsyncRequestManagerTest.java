@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.protocol.common;
 
 import com.bbva.kyof.vega.msg.*;
+import com.bbva.kyof.vega.util.threads.TasksRunner;
 import lombok.Getter;
 import org.junit.Assert;
 import org.junit.Before;
@@ -102,6 +103,42 @@ public class AsyncRequestManagerTest
         Assert.assertTrue(listener.getTimedOutRequests().contains(sentRequest.getRequestId()));
     }
 
+    @Test
+    public void closedRequestReleasedBeforeTimeout() throws Exception
+    {
+        final Listener listener = new Listener();
+
+        SentRequest sentRequest = this.requestManager.createRequest("topic", 10000, listener);
+        requestManager.addNewRequest(sentRequest);
+        sentRequest.release();
+
+        // Once closed the manager removes it without waiting for the timeout and it is returned to the pool
+        sentRequest.closeRequest();
+        Thread.sleep(50);
+
+        Assert.assertSame(sentRequest, this.requestManager.createRequest("topic", 100, listener));
+        Assert.assertTrue(listener.getTimedOutRequests().isEmpty());
+    }
+
+    @Test
+    public void shortenExpirationTime() throws Exception
+    {
+        final Listener listener = new Listener();
+
+        SentRequest sentRequest = new SentRequest("topic", 10000, listener, new Random());
+        requestManager.addNewRequest(sentRequest);
+        requests.add(sentRequest);
+
+        // Bring the expiration forward, it should expire with the new timeout
+        sentRequest.resetExpiration(50);
+
+        Thread.sleep(200);
+
+        Assert.assertTrue(sentRequest.isClosed());
+        Assert.assertTrue(sentRequest.hasExpired());
+        Assert.assertTrue(listener.getTimedOutRequests().contains(sentRequest.getRequestId()));
+    }
+
     @Test
     public void responseReceived() throws Exception
     {
@@ -215,6 +252,101 @@ public class AsyncRequestManagerTest
         requestManager.addNewRequest(sentRequest);
     }
 
+    @Test
+    public void manyRequestsWithTickResolution() throws Exception
+    {
+        final AsyncRequestManager tickRequestManager = new AsyncRequestManager(instanceId, TasksRunner.dedicated(), 8);
+        final Listener listener = new Listener();
+        final Random rnd = new Random();
+
+        // Add requests with different timeouts, half of them closed before expiring
+        final int numRequests = 10000;
+        for (int i = 0; i < numRequests; i++)
+        {
+            final SentRequest sentRequest = new SentRequest("topic", 50 + i % 100, listener, rnd);
+            tickRequestManager.addNewRequest(sentRequest);
+            requests.add(sentRequest);
+
+            if (i % 2 == 0)
+            {
+                sentRequest.closeRequest();
+            }
+        }
+
+        // None should have expired yet
+        Thread.sleep(20);
+        synchronized (listener)
+        {
+            Assert.assertTrue(listener.getTimedOutRequests().isEmpty());
+        }
+
+        // All should be expired or closed after the longest timeout plus some ticks
+        Thread.sleep(300);
+
+        requests.forEach((request) -> Assert.assertTrue(request.isClosed()));
+        synchronized (listener)
+        {
+            Assert.assertEquals(numRequests / 2, listener.getTimedOutRequests().size());
+        }
+
+        tickRequestManager.close();
+    }
+
+    @Test
+    public void responseWithSameLowBitsIgnored() throws Exception
+    {
+        final Listener listener = new Listener();
+
+        SentRequest sentRequest = new SentRequest("topic", 100, listener, new Random());
+        requestManager.addNewRequest(sentRequest);
+        requests.add(sentRequest);
+
+        // Response for a different request id that shares the low 64 bits
+        RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(new UUID(sentRequest.getRequestId().getMostSignificantBits() + 1, sentRequest.getRequestId().getLeastSignificantBits()));
+        this.requestManager.processResponse(response);
+
+        Assert.assertFalse(listener.getResponseReceivedRequests().contains(sentRequest.getRequestId()));
+        Assert.assertEquals(0, sentRequest.getNumberOfResponses());
+    }
+
+    @Test
+    public void pooledRequestReusedAfterTimeoutAndRelease() throws Exception
+    {
+        final Listener listener = new Listener();
+
+        SentRequest sentRequest = this.requestManager.createRequest("topic", 50, listener);
+        final UUID firstRequestId = sentRequest.getRequestId();
+        requestManager.addNewRequest(sentRequest);
+
+        // The response is received with the compact id
+        RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(sentRequest.getRequestIdMsb(), sentRequest.getRequestIdLsb());
+        this.requestManager.processResponse(response);
+        Assert.assertEquals(1, sentRequest.getNumberOfResponses());
+        Assert.assertEquals("topic", response.getTopicName());
+
+        // Release it from the user side, it is still active
+        sentRequest.release();
+
+        Thread.sleep(200);
+
+        Assert.assertTrue(listener.getTimedOutRequests().contains(firstRequestId));
+
+        // It should have been returned to the pool, the next request reuses it with a new id
+        SentRequest newRequest = this.requestManager.createRequest("topic", 100, listener);
+        Assert.assertSame(sentRequest, newRequest);
+        Assert.assertNotEquals(firstRequestId, newRequest.getRequestId());
+        Assert.assertFalse(newRequest.isClosed());
+        Assert.assertEquals(0, newRequest.getNumberOfResponses());
+
+        // A late response for the old id is ignored
+        this.requestManager.addNewRequest(newRequest);
+        response.setOriginalRequestId(firstRequestId);
+        this.requestManager.processResponse(response);
+        Assert.assertEquals(0, newRequest.getNumberOfResponses());
+    }
+
     class Listener implements IResponseListener
     {
         @Getter final Set<UUID> timedOutRequests = new HashSet<>();
@@ -222,13 +354,13 @@ public class AsyncRequestManagerTest
         @Getter final Set<UUID> receivedResponses = new HashSet<>();
 
         @Override
-        public void onRequestTimeout(ISentRequest originalSentRequest)
+        public synchronized void onRequestTimeout(ISentRequest originalSentRequest)
         {
             timedOutRequests.add(originalSentRequest.getRequestId());
         }
 
         @Override
-        public void onResponseReceived(ISentRequest originalSentRequest, IRcvResponse response)
+        public synchronized void onResponseReceived(ISentRequest originalSentRequest, IRcvResponse response)
         {
             responseReceivedRequests.add(originalSentRequest.getRequestId());
             receivedResponses.add(response.getOriginalRequestId());
@@ -3,6 +3,11 @@ package com.bbva.kyof.vega.protocol.common;
 import com.bbva.kyof.vega.autodiscovery.AutodiscManager;
 import com.bbva.kyof.vega.autodiscovery.IAutodiscManager;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.PollingModeType;
+import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.config.general.ResponsesConfig;
+import com.bbva.kyof.vega.config.general.ThreadingConfig;
+import com.bbva.kyof.vega.config.general.ThreadingModeType;
 import com.bbva.kyof.vega.exception.VegaException;
 import io.aeron.Aeron;
 import org.easymock.EasyMock;
@@ -81,4 +86,42 @@ public class VegaContextTest
 
         vegaContext.initializeSecurity(plainParams);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCheckSyncRequestsSupported() throws VegaException
+    {
+        // Nice mocks return null configurations, the requests can be waited for
+        vegaContext.checkSyncRequestsSupported();
+        new VegaContext(null, null).checkSyncRequestsSupported();
+
+        // Responses poller with THREAD polling mode
+        this.createContext(PollingModeType.THREAD, null).checkSyncRequestsSupported();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testCheckSyncRequestsApplicationPoller() throws VegaException
+    {
+        this.createContext(PollingModeType.APPLICATION, null).checkSyncRequestsSupported();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testCheckSyncRequestsInvoker() throws VegaException
+    {
+        this.createContext(PollingModeType.THREAD, ThreadingModeType.INVOKER).checkSyncRequestsSupported();
+    }
+
+    private VegaContext createContext(final PollingModeType responsesPollingMode, final ThreadingModeType threadingMode)
+    {
+        final ResponsesConfig responsesConfig = ResponsesConfig.builder().rcvPoller("responsesPoller").build();
+        final RcvPollerConfig pollerConfig = RcvPollerConfig.builder().name("responsesPoller").pollingMode(responsesPollingMode).build();
+        final ThreadingConfig threadingConfig = threadingMode == null ? null : ThreadingConfig.builder().threadingMode(threadingMode).build();
+
+        final GlobalConfiguration globalConfig = EasyMock.createNiceMock(GlobalConfiguration.class);
+        EasyMock.expect(globalConfig.getResponsesConfig()).andReturn(responsesConfig).anyTimes();
+        EasyMock.expect(globalConfig.getPollerConfigForPollerName("responsesPoller")).andReturn(pollerConfig).anyTimes();
+        EasyMock.expect(globalConfig.getThreadingConfig()).andReturn(threadingConfig).anyTimes();
+        EasyMock.replay(globalConfig);
+
+        return new VegaContext(null, globalConfig);
+    }
+}
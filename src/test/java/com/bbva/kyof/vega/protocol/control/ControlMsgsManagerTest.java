@@ -77,9 +77,17 @@ public class ControlMsgsManagerTest
         EasyMock.expect(globalConfiguration.getAllSecureTopicsSecurityIds()).andReturn(secureTopicIds).anyTimes();
         EasyMock.replay(globalConfiguration);
 
+        // The second instance, the one that responds to the security requests, signs the responses on its own threads
+        final ControlRcvConfig controlRcvConfig2 = ControlRcvConfig.builder().securityRespThreads(2).build();
+        controlRcvConfig2.completeAndValidateConfig();
+        final GlobalConfiguration globalConfiguration2 = EasyMock.createNiceMock(GlobalConfiguration.class);
+        EasyMock.expect(globalConfiguration2.getControlRcvConfig()).andReturn(controlRcvConfig2).anyTimes();
+        EasyMock.expect(globalConfiguration2.getAllSecureTopicsSecurityIds()).andReturn(secureTopicIds).anyTimes();
+        EasyMock.replay(globalConfiguration2);
+
         VEGA_CONTEXT1 = new VegaContext(AERON, globalConfiguration);
         VEGA_CONTEXT1.setAutodiscoveryManager(autodiscManager);
-        VEGA_CONTEXT2 = new VegaContext(AERON, globalConfiguration);
+        VEGA_CONTEXT2 = new VegaContext(AERON, globalConfiguration2);
         VEGA_CONTEXT2.setAutodiscoveryManager(autodiscManager);
 
         // Initialize RSA Cryptos security
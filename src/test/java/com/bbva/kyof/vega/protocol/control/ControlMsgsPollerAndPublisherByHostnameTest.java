@@ -2,6 +2,8 @@ package com.bbva.kyof.vega.protocol.control;
 
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchReq;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchResp;
 import com.bbva.kyof.vega.msg.MsgSecurityErrorResp;
 import com.bbva.kyof.vega.msg.MsgSecurityReq;
 import com.bbva.kyof.vega.msg.MsgSecurityResp;
@@ -105,7 +107,7 @@ public class ControlMsgsPollerAndPublisherByHostnameTest
         // Create and start the poller
         final Listener listener = new Listener();
 
-        final ControlMsgsPoller poller = new ControlMsgsPoller(CONTROL_SUB, listener, listener, OWN_INSTANCE_ID);
+        final ControlMsgsPoller poller = new ControlMsgsPoller(CONTROL_SUB, listener, listener, request -> { }, OWN_INSTANCE_ID);
         poller.start();
 
         Thread.sleep(100);
@@ -230,6 +232,10 @@ public class ControlMsgsPollerAndPublisherByHostnameTest
         MsgSecurityResp rcvResp = null;
         @Getter
         MsgSecurityErrorResp rcvErrorResp = null;
+        @Getter
+        MsgSecurityBatchReq rcvBatchRequest = null;
+        @Getter
+        MsgSecurityBatchResp rcvBatchResp = null;
 
         @Override
         public void onSecurityRequestReceived(MsgSecurityReq securityReq)
@@ -248,5 +254,17 @@ public class ControlMsgsPollerAndPublisherByHostnameTest
         {
             this.rcvErrorResp = errorResponseMsg;
         }
+
+        @Override
+        public void onSecurityBatchRequestReceived(MsgSecurityBatchReq batchSecurityReq)
+        {
+            this.rcvBatchRequest = batchSecurityReq;
+        }
+
+        @Override
+        public void onSecurityBatchResponseReceived(MsgSecurityBatchResp batchResponseMsg)
+        {
+            this.rcvBatchResp = batchResponseMsg;
+        }
     }
 }
\ No newline at end of file
@@ -3,10 +3,13 @@ package com.bbva.kyof.vega.protocol.control;
 import com.bbva.kyof.vega.TestConstants;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchReq;
+import com.bbva.kyof.vega.msg.MsgSecurityBatchResp;
 import com.bbva.kyof.vega.msg.MsgSecurityErrorResp;
 import com.bbva.kyof.vega.msg.MsgSecurityReq;
 import com.bbva.kyof.vega.msg.MsgSecurityResp;
 import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.crypto.RSACrypto;
@@ -106,7 +109,7 @@ public class ControlMsgsPollerAndPublisherTest
         // Create and start the poller
         final Listener listener = new Listener();
 
-        final ControlMsgsPoller poller = new ControlMsgsPoller(CONTROL_SUB, listener, listener, OWN_INSTANCE_ID);
+        final ControlMsgsPoller poller = new ControlMsgsPoller(CONTROL_SUB, listener, listener, request -> { }, OWN_INSTANCE_ID);
         poller.start();
 
         Thread.sleep(100);
@@ -117,6 +120,16 @@ public class ControlMsgsPollerAndPublisherTest
         this.testSendRequest(listener, sendBufferSerializer);
         this.testSendResponse(listener, sendBufferSerializer);
         this.testSendErrorResponse(listener, sendBufferSerializer);
+        this.testSendBatchRequest(listener, sendBufferSerializer);
+        this.testSendBatchResponse(listener, sendBufferSerializer);
+
+        // The biggest batches do not fit in the previous buffer
+        final UnsafeBufferSerializer batchBufferSerializer = new UnsafeBufferSerializer();
+        batchBufferSerializer.wrap(ByteBuffer.allocate(ControlPublisher.MAX_MSG_SIZE));
+
+        this.testSendFullBatchRequest(listener, batchBufferSerializer);
+        this.testSendFullBatchResponse(listener, batchBufferSerializer);
+        this.testSendTooBigMessage(batchBufferSerializer);
 
         poller.close();
     }
@@ -222,12 +235,135 @@ public class ControlMsgsPollerAndPublisherTest
         Assert.assertNotNull(listener.getRcvErrorResp());
     }
 
+    private void testSendBatchRequest(Listener listener, UnsafeBufferSerializer sendBufferSerializer) throws VegaException, InterruptedException
+    {
+        final MsgSecurityBatchReq msgSecurity = new MsgSecurityBatchReq();
+        msgSecurity.setInstanceId(OWN_INSTANCE_ID);
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(TARGET_INSTANCE_ID);
+        msgSecurity.getTopicPublisherIds().add(UUID.randomUUID());
+        msgSecurity.getTopicPublisherIds().add(UUID.randomUUID());
+
+        // Sign, serialize and send
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        CONTROL_PUB.sendMessage(MsgType.CONTROL_SECURITY_BATCH_REQ, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset());
+        Thread.sleep(500);
+
+        // It should have not arrived because the target instance Id is wrong
+        Assert.assertNull(listener.getRcvBatchRequest());
+
+        // Set the right id and try again
+        msgSecurity.setTargetVegaInstanceId(OWN_INSTANCE_ID);
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        CONTROL_PUB.sendMessage(MsgType.CONTROL_SECURITY_BATCH_REQ, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset());
+
+        Thread.sleep(500);
+
+        // It should have arrived with all the topic publishers
+        Assert.assertNotNull(listener.getRcvBatchRequest());
+        Assert.assertEquals(msgSecurity.getTopicPublisherIds(), listener.getRcvBatchRequest().getTopicPublisherIds());
+    }
+
+    private void testSendBatchResponse(Listener listener, UnsafeBufferSerializer sendBufferSerializer) throws VegaException, InterruptedException
+    {
+        final MsgSecurityBatchResp msgSecurity = new MsgSecurityBatchResp();
+        msgSecurity.setInstanceId(OWN_INSTANCE_ID);
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(TARGET_INSTANCE_ID);
+        msgSecurity.addSessionKey(UUID.randomUUID(), new byte[128]);
+        msgSecurity.addError(UUID.randomUUID(), MsgSecurityErrorResp.NOT_ALLOWED_BY_CONFIG);
+
+        // Sign, serialize and send
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        CONTROL_PUB.sendMessage(MsgType.CONTROL_SECURITY_BATCH_RESP, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset());
+        Thread.sleep(500);
+
+        // It should have not arrived because the target instance Id is wrong
+        Assert.assertNull(listener.getRcvBatchResp());
+
+        // Set the right id and try again
+        msgSecurity.setTargetVegaInstanceId(OWN_INSTANCE_ID);
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        CONTROL_PUB.sendMessage(MsgType.CONTROL_SECURITY_BATCH_RESP, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset());
+
+        Thread.sleep(500);
+
+        // It should have arrived with all the entries
+        Assert.assertNotNull(listener.getRcvBatchResp());
+        Assert.assertEquals(msgSecurity.getEntries(), listener.getRcvBatchResp().getEntries());
+    }
+
+    private void testSendFullBatchRequest(Listener listener, UnsafeBufferSerializer sendBufferSerializer) throws VegaException, InterruptedException
+    {
+        final MsgSecurityBatchReq msgSecurity = new MsgSecurityBatchReq();
+        msgSecurity.setInstanceId(OWN_INSTANCE_ID);
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(OWN_INSTANCE_ID);
+
+        for (int i = 0; i < MsgSecurityBatchReq.MAX_TOPIC_PUBS; i++)
+        {
+            msgSecurity.getTopicPublisherIds().add(UUID.randomUUID());
+        }
+
+        // Sign, serialize and send
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        Assert.assertEquals(PublishResult.OK, CONTROL_PUB.sendMessage(
+                MsgType.CONTROL_SECURITY_BATCH_REQ, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset()));
+
+        Thread.sleep(500);
+
+        // It should have arrived with all the topic publishers
+        Assert.assertEquals(msgSecurity.getTopicPublisherIds(), listener.getRcvBatchRequest().getTopicPublisherIds());
+    }
+
+    private void testSendFullBatchResponse(Listener listener, UnsafeBufferSerializer sendBufferSerializer) throws VegaException, InterruptedException
+    {
+        final MsgSecurityBatchResp msgSecurity = new MsgSecurityBatchResp();
+        msgSecurity.setInstanceId(OWN_INSTANCE_ID);
+        msgSecurity.setSenderSecurityId(1);
+        msgSecurity.setRequestId(UUID.randomUUID());
+        msgSecurity.setTargetVegaInstanceId(OWN_INSTANCE_ID);
+
+        // Session keys encoded with 4096 bits RSA keys
+        for (int i = 0; i < MsgSecurityBatchReq.MAX_TOPIC_PUBS; i++)
+        {
+            msgSecurity.addSessionKey(UUID.randomUUID(), new byte[512]);
+        }
+
+        // Sign, serialize and send
+        sendBufferSerializer.setOffset(0);
+        msgSecurity.signAndSerialize(sendBufferSerializer, RSACrypto1);
+        Assert.assertEquals(PublishResult.OK, CONTROL_PUB.sendMessage(
+                MsgType.CONTROL_SECURITY_BATCH_RESP, sendBufferSerializer.getInternalBuffer(), 0, sendBufferSerializer.getOffset()));
+
+        Thread.sleep(500);
+
+        // It should have arrived with all the entries
+        Assert.assertEquals(msgSecurity.getEntries(), listener.getRcvBatchResp().getEntries());
+    }
+
+    private void testSendTooBigMessage(UnsafeBufferSerializer sendBufferSerializer)
+    {
+        // It is not sent, but it does not fail
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, CONTROL_PUB.sendMessage(
+                MsgType.CONTROL_SECURITY_BATCH_RESP, sendBufferSerializer.getInternalBuffer(), 0, ControlPublisher.MAX_MSG_SIZE + 1));
+    }
 
     private static class Listener implements ISecurityRequestListener, ISecurityResponseListener
     {
         @Getter MsgSecurityReq rcvRequest = null;
         @Getter MsgSecurityResp rcvResp = null;
         @Getter MsgSecurityErrorResp rcvErrorResp = null;
+        @Getter MsgSecurityBatchReq rcvBatchRequest = null;
+        @Getter MsgSecurityBatchResp rcvBatchResp = null;
 
         @Override
         public void onSecurityRequestReceived(MsgSecurityReq securityReq)
@@ -246,5 +382,17 @@ public class ControlMsgsPollerAndPublisherTest
         {
             this.rcvErrorResp = errorResponseMsg;
         }
+
+        @Override
+        public void onSecurityBatchRequestReceived(MsgSecurityBatchReq batchSecurityReq)
+        {
+            this.rcvBatchRequest = batchSecurityReq;
+        }
+
+        @Override
+        public void onSecurityBatchResponseReceived(MsgSecurityBatchResp batchResponseMsg)
+        {
+            this.rcvBatchResp = batchResponseMsg;
+        }
     }
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.bbva.kyof.vega.protocol.publisher;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.msg.RequestWaitType;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
@@ -19,6 +22,10 @@ import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -137,12 +144,134 @@ public class AbstractTopicPublisherTest
         topicPublisherBase.deactivateHeartbeats();
     }
 
+    @Test
+    public void testSingleWriter() throws Exception
+    {
+        final TopicTemplateConfig singleWriterConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.IPC).singleWriter(true).build();
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", singleWriterConfig, vegaContext);
+        Assert.assertTrue(topicPubImpl.isSingleWriter());
+
+        // Send message and request
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        Assert.assertEquals(topicPubImpl.sendMsg(sendBuffer, 0, 128), PublishResult.OK);
+        Assert.assertEquals(topicPubImpl.sendRequest(sendBuffer, 0, 128, 100L, null).getSentResult(), PublishResult.OK);
+        Assert.assertEquals(2, topicPubImpl.getSequenceNumber());
+
+        // Heartbeats are not supported in single writer
+        topicPubImpl.activateHeartbeats(topicPubImpl, HeartbeatParameters.builder().heartbeatRate(100).build());
+        Assert.assertFalse(topicPubImpl.isHeartbeatsActive());
+
+        // Close and send again
+        topicPubImpl.close();
+        Assert.assertEquals(topicPubImpl.sendMsg(sendBuffer, 0, 128), PublishResult.UNEXPECTED_ERROR);
+    }
+
+    @Test
+    public void testSendBatch() throws Exception
+    {
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", topicConfig, vegaContext);
+
+        // Empty batch, nothing is sent
+        final BatchBuilder batch = new BatchBuilder();
+        Assert.assertEquals(topicPubImpl.sendBatch(batch), PublishResult.OK);
+        Assert.assertEquals(0, topicPubImpl.getSequenceNumber());
+
+        // Send a message and a batch of 3 messages, each message in the batch takes a sequence number
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        Assert.assertEquals(topicPubImpl.sendMsg(sendBuffer, 0, 128), PublishResult.OK);
+        batch.add(sendBuffer, 0, 10);
+        batch.add(sendBuffer, 0, 20);
+        batch.add(sendBuffer, 0, 30);
+        Assert.assertEquals(topicPubImpl.sendBatch(batch), PublishResult.OK);
+        Assert.assertEquals(4, topicPubImpl.getSequenceNumber());
+
+        // By default each message of the batch is sent separately with consecutive sequence numbers
+        Assert.assertEquals(4, topicPubImpl.getLastSentSequenceNumber());
+        Assert.assertEquals(30, topicPubImpl.getLastSentLength());
+        Assert.assertSame(topicPubImpl.getSendMessageBufferRef(), batch.getBuffer());
+
+        // The batch is not cleared after sending
+        Assert.assertEquals(3, batch.getNumMessages());
+
+        // Close and send again
+        topicPubImpl.close();
+        Assert.assertEquals(topicPubImpl.sendBatch(batch), PublishResult.UNEXPECTED_ERROR);
+        Assert.assertEquals(4, topicPubImpl.getSequenceNumber());
+    }
+
+    @Test
+    public void testSendRequestAsyncAndSync() throws Exception
+    {
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", topicConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // There is no responder, the future is completed with a timeout
+        final CompletableFuture<IRcvResponse> future = topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 50L);
+        Assert.assertSame(topicPubImpl.sentRequestBufferRef.get(), sendBuffer);
+        Assert.assertEquals(1, topicPubImpl.getSequenceNumber());
+
+        try
+        {
+            future.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // The sync request returns null on timeout for all the wait types
+        for (final RequestWaitType waitType : RequestWaitType.values())
+        {
+            Assert.assertNull(topicPubImpl.sendRequestSync(sendBuffer, 0, 128, 20L, waitType));
+        }
+
+        // Close, the request cannot be sent
+        topicPubImpl.close();
+        Assert.assertTrue(topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 50L).isCompletedExceptionally());
+
+        try
+        {
+            topicPubImpl.sendRequestSync(sendBuffer, 0, 128, 50L, RequestWaitType.BUSY_SPIN);
+            Assert.fail();
+        }
+        catch (final VegaException e)
+        {
+            // Expected, the publisher is closed
+        }
+    }
+
+    @Test
+    public void testSendRequestAsyncManagerClosed() throws Exception
+    {
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", topicConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        final CompletableFuture<IRcvResponse> future = topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 10000L);
+        Assert.assertFalse(future.isDone());
+
+        // Closing the request manager completes the pending futures
+        asyncRequestManager.close();
+
+        try
+        {
+            future.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof VegaException);
+        }
+    }
+
     private class TopicPublisherImpl extends AbstractTopicPublisher implements IClientConnectionListener
     {
         AtomicReference<DirectBuffer> sendMessageBufferRef = new AtomicReference<>();
         AtomicReference<DirectBuffer> sentRequestBufferRef = new AtomicReference<>();
         AtomicBoolean cleanedPublishers = new AtomicBoolean(false);
         AtomicReference<Byte> lastReqTypeSent = new AtomicReference<>((byte)222);
+        volatile long lastSentSequenceNumber = 0;
+        volatile int lastSentLength = 0;
 
         /**
          * Constructor of the class
@@ -172,11 +301,13 @@ public class AbstractTopicPublisherTest
         protected PublishResult sendToAeron(DirectBuffer message, long sequenceNumber, int offset, int length)
         {
             sendMessageBufferRef.set(message);
+            lastSentSequenceNumber = sequenceNumber;
+            lastSentLength = length;
             return PublishResult.OK;
         }
 
         @Override
-        protected PublishResult sendRequestToAeron(byte msgType, UUID requestId, DirectBuffer message, long sequenceNumber, int offset, int length)
+        protected PublishResult sendRequestToAeron(byte msgType, long requestIdMsb, long requestIdLsb, DirectBuffer message, long sequenceNumber, int offset, int length)
         {
             lastReqTypeSent.set(msgType);
             sentRequestBufferRef.set(message);
@@ -194,6 +325,16 @@ public class AbstractTopicPublisherTest
             return sendMessageBufferRef.get();
         }
 
+        long getLastSentSequenceNumber()
+        {
+            return lastSentSequenceNumber;
+        }
+
+        int getLastSentLength()
+        {
+            return lastSentLength;
+        }
+
         boolean getCleanedPublishers()
         {
             return cleanedPublishers.get();
@@ -2,18 +2,25 @@ package com.bbva.kyof.vega.protocol.publisher;
 
 import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.BaseHeader;
 import com.bbva.kyof.vega.msg.IRcvMessage;
 import com.bbva.kyof.vega.msg.IRcvRequest;
 import com.bbva.kyof.vega.msg.IRcvResponse;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import com.bbva.kyof.vega.util.net.InetUtil;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
 import io.aeron.Aeron;
 import io.aeron.Publication;
+import io.aeron.Subscription;
 import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.FragmentHandler;
 import org.agrona.CloseHelper;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.AfterClass;
@@ -24,6 +31,7 @@ import org.junit.Test;
 import java.nio.ByteBuffer;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by cnebrera on 11/08/16.
@@ -166,6 +174,60 @@ public class AeronPublisherTest
         simpleReceiver.close();
     }
 
+    @Test
+    public void testUcastMdcPublish() throws Exception
+    {
+        final int ipAddress = InetUtil.convertIpAddressToInt(SUBNET_ADDRESS.getIpAddres().getHostAddress());
+
+        // Create the multi-destination-cast publisher
+        final AeronPublisherParams params = new AeronPublisherParams(TransportMediaType.UNICAST, ipAddress, InetUtil.findFreeUdpPort(SUBNET_ADDRESS.getIpAddres()), 5, SUBNET_ADDRESS, true);
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params);
+
+        // Create two subscribers and add them as destinations
+        final SimpleReceiver simpleReceiver1 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, SUBNET_ADDRESS.getIpAddres().getHostAddress(), 28003, 5, SUBNET_ADDRESS);
+        final SimpleReceiver simpleReceiver2 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, SUBNET_ADDRESS.getIpAddres().getHostAddress(), 28004, 5, SUBNET_ADDRESS);
+        publisher.addDestination(ipAddress, 28003);
+        publisher.addDestination(ipAddress, 28004);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // Both subscribers should get the messages
+        int msgSize = 128;
+
+        while (msgSize < 128000)
+        {
+            final byte[] array = new byte[msgSize];
+            RND.nextBytes(array);
+            Assert.assertSame(publisher.sendMessage(MsgType.DATA, UUID.randomUUID(), new UnsafeBuffer(array), 1, 0, msgSize), PublishResult.OK);
+
+            // Give it time to arrive
+            Thread.sleep(10);
+
+            for (final SimpleReceiver simpleReceiver : new SimpleReceiver[]{simpleReceiver1, simpleReceiver2})
+            {
+                simpleReceiver.pollReceivedMessage();
+                final IRcvMessage receivedMsg = simpleReceiver.getReusableReceivedMsg();
+                this.checkResult(array, receivedMsg.getContents(), receivedMsg.getContentOffset(), receivedMsg.getContentLength());
+            }
+
+            msgSize = msgSize * 2;
+        }
+
+        // Remove one of the destinations, it should not get the messages any more
+        publisher.removeDestination(ipAddress, 28004);
+        Thread.sleep(100);
+        simpleReceiver2.pollReceivedMessage();
+
+        this.testSendMessage(publisher, simpleReceiver1, 128);
+        Assert.assertEquals(0, simpleReceiver2.pollReceivedMessage());
+
+        publisher.close();
+        publisher.removeDestination(ipAddress, 28003);
+        simpleReceiver1.close();
+        simpleReceiver2.close();
+    }
+
     @Test
     public void testIpcPublish() throws Exception
     {
@@ -199,6 +261,174 @@ public class AeronPublisherTest
         Assert.assertSame(publisher.sendResponse(null, null, 0, 0), PublishResult.OK);
     }
 
+    @Test
+    public void testIpcSingleWriterPublish() throws Exception
+    {
+        // Create the publisher with an exclusive publication
+        final AeronPublisherParams params = new AeronPublisherParams(TransportMediaType.IPC, 0, 0, 7, null);
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params, true);
+        Assert.assertTrue(publisher.isSingleWriter());
+
+        // Create a subscriber for it as well
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, 7, null);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        this.testSendMessages(publisher, simpleReceiver);
+        this.testSendRequests(publisher, simpleReceiver);
+
+        publisher.close();
+        simpleReceiver.close();
+    }
+
+    @Test
+    public void testIpcConcurrentPublish() throws Exception
+    {
+        final int numThreads = 4;
+        final int msgsPerThread = 10000;
+
+        // Create the publisher, it will be shared by all the sender threads
+        final AeronPublisherParams params = new AeronPublisherParams(TransportMediaType.IPC, 0, 0, 8, null);
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params);
+
+        // Create a subscriber that checks every received message has the sequence number written in the contents as well
+        final Subscription subscription = AERON.addSubscription(AeronChannelHelper.createIpcChannelString(), 8);
+        final UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        final BaseHeader baseHeader = new BaseHeader();
+        final MsgDataHeader dataHeader = new MsgDataHeader();
+        final AtomicInteger numReceived = new AtomicInteger();
+        final AtomicInteger numCorrupted = new AtomicInteger();
+
+        final FragmentHandler handler = (buffer, offset, length, header) ->
+        {
+            serializer.wrap(buffer, offset, length);
+            baseHeader.fromBinary(serializer);
+            dataHeader.fromBinary(serializer);
+
+            if (baseHeader.getMsgType() != MsgType.DATA ||
+                    !VEGA_CONTEXT.getInstanceUniqueId().equals(dataHeader.getInstanceId()) ||
+                    serializer.readLong() != dataHeader.getSequenceNumber() ||
+                    serializer.readLong() != dataHeader.getTopicPublisherId().getLeastSignificantBits())
+            {
+                numCorrupted.incrementAndGet();
+            }
+
+            numReceived.incrementAndGet();
+        };
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // Send from several threads at the same time, each one with a different topic id
+        final Thread[] senders = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++)
+        {
+            senders[i] = new Thread(() ->
+            {
+                final UUID topicId = UUID.randomUUID();
+                final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(16));
+                message.putLong(8, topicId.getLeastSignificantBits());
+
+                for (long sequence = 1; sequence <= msgsPerThread; sequence++)
+                {
+                    message.putLong(0, sequence);
+
+                    while (publisher.sendMessage(MsgType.DATA, topicId, message, sequence, 0, 16) != PublishResult.OK)
+                    {
+                        Thread.yield();
+                    }
+                }
+            });
+            senders[i].start();
+        }
+
+        // Consume until all messages are received
+        final long timeout = System.currentTimeMillis() + 30000;
+        while (numReceived.get() < numThreads * msgsPerThread && System.currentTimeMillis() < timeout)
+        {
+            subscription.poll(handler, 256);
+        }
+
+        for (final Thread sender : senders)
+        {
+            sender.join();
+        }
+
+        Assert.assertEquals(numThreads * msgsPerThread, numReceived.get());
+        Assert.assertEquals(0, numCorrupted.get());
+
+        publisher.close();
+        subscription.close();
+    }
+
+    @Test
+    public void testIpcClaim() throws Exception
+    {
+        // Create the publisher
+        final AeronPublisherParams params = new AeronPublisherParams(TransportMediaType.IPC, 0, 0, 6, null);
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params);
+
+        // Create a topic publisher using it
+        final TopicTemplateConfig topicConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.IPC).build();
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", topicConfig, VEGA_CONTEXT);
+        topicPublisher.setAeronPublisher(publisher);
+
+        // Create a subscriber for it as well
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, 6, null);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // Try different message sizes, the big ones will be staged internally
+        int msgSize = 128;
+        long expectedSequenceNumber = 1;
+
+        while (msgSize < 128000)
+        {
+            final byte[] array = new byte[msgSize];
+            RND.nextBytes(array);
+
+            // Claim, write and commit
+            final PublishClaim claim = topicPublisher.tryClaim(msgSize);
+            Assert.assertSame(claim.getResult(), PublishResult.OK);
+            Assert.assertEquals(claim.getLength(), msgSize);
+            claim.getBuffer().putBytes(0, array);
+            Assert.assertSame(topicPublisher.commit(), PublishResult.OK);
+
+            // Give it time to arrive
+            Thread.sleep(10);
+
+            // Get the message
+            simpleReceiver.pollReceivedMessage();
+
+            // Check values
+            Assert.assertEquals(simpleReceiver.getReusableBaseHeader().getMsgType(), MsgType.DATA);
+            Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getTopicPublisherId(), topicPublisher.getUniqueId());
+            Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getInstanceId(), VEGA_CONTEXT.getInstanceUniqueId());
+            Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getSequenceNumber(), expectedSequenceNumber);
+
+            final IRcvMessage receivedMsg = simpleReceiver.getReusableReceivedMsg();
+            this.checkResult(array, receivedMsg.getContents(), receivedMsg.getContentOffset(), receivedMsg.getContentLength());
+
+            expectedSequenceNumber++;
+            msgSize = msgSize * 2;
+        }
+
+        // An aborted claim should not consume a sequence number
+        Assert.assertSame(topicPublisher.tryClaim(128).getResult(), PublishResult.OK);
+        topicPublisher.abort();
+        Assert.assertEquals(expectedSequenceNumber - 1, topicPublisher.getSequenceNumber());
+
+        // Commit or abort without a pending claim should fail
+        Assert.assertSame(topicPublisher.commit(), PublishResult.UNEXPECTED_ERROR);
+        topicPublisher.abort();
+
+        topicPublisher.close();
+        publisher.close();
+        simpleReceiver.close();
+    }
+
     private void testSendMessages(AeronPublisher publisher, SimpleReceiver subscription) throws Exception
     {
         // Try different message sizes
@@ -1,7 +1,10 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.config.general.TopicCipherType;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Assert;
 import org.junit.Test;
@@ -30,6 +33,43 @@ public class AesTopicMsgEncoderTest
         testWithMsgSize(msgEncoder, aesDecoder, rnd, 2048);
     }
 
+    @Test
+    public void encryptDecryptGcm() throws Exception
+    {
+        final AesTopicMsgEncoder msgEncoder = new AesTopicMsgEncoder(TopicCipherType.AES_GCM);
+        final AesGcmCipher gcmDecoder = new AESCrypto(msgEncoder.getAESKey()).getGcmCipher();
+        Assert.assertTrue(msgEncoder.isGcm());
+        Assert.assertFalse(new AesTopicMsgEncoder().isGcm());
+
+        final Random rnd = new Random();
+        final UnsafeBuffer decodedMsg = new UnsafeBuffer(ByteBuffer.allocate(8192));
+
+        for (int msgSize : new int[]{0, 128, 1024, 4096})
+        {
+            final byte[] msg = new byte[msgSize];
+            rnd.nextBytes(msg);
+            final UnsafeBuffer msgBuffer = new UnsafeBuffer(msg);
+
+            // Encrypt into the staging buffer, the result should be always the same instance
+            final DirectBuffer encodedMsg = msgEncoder.encryptMessageGcm(msgSize, msgBuffer, 0, msgSize);
+            Assert.assertEquals(msgEncoder.gcmEncryptedSize(msgSize), encodedMsg.capacity());
+            Assert.assertSame(encodedMsg, msgEncoder.encryptMessageGcm(msgSize, msgBuffer, 0, msgSize));
+
+            Assert.assertEquals(msgSize, gcmDecoder.decrypt(msgSize, encodedMsg, 0, encodedMsg.capacity(), decodedMsg, 0));
+            final byte[] result = new byte[msgSize];
+            decodedMsg.getBytes(0, result);
+            Assert.assertArrayEquals(msg, result);
+
+            // Encrypt in place into a given buffer
+            final UnsafeBuffer target = new UnsafeBuffer(ByteBuffer.allocateDirect(msgEncoder.gcmEncryptedSize(msgSize) + 32));
+            final int encryptedSize = msgEncoder.encryptMessageGcm(msgSize, msgBuffer, 0, msgSize, target, 32);
+
+            Assert.assertEquals(msgSize, gcmDecoder.decrypt(msgSize, target, 32, encryptedSize, decodedMsg, 0));
+            decodedMsg.getBytes(0, result);
+            Assert.assertArrayEquals(msg, result);
+        }
+    }
+
     private void testWithMsgSize(AesTopicMsgEncoder msgEncoder, AESCrypto aesDecoder, Random rnd, int msgSize) throws VegaException
     {
         final byte[] msg = new byte[msgSize];
@@ -0,0 +1,165 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.config.general.BackPressurePolicyType;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test the {@link BackPressureHandler} class
+ */
+public class BackPressureHandlerTest
+{
+    @Test
+    public void failFast() throws Exception
+    {
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.FAIL_FAST, null, null));
+
+        handler.begin(true);
+        Assert.assertFalse(handler.retry());
+        Assert.assertFalse(handler.isConflated());
+        Assert.assertFalse(handler.isConflatedByKey());
+        Assert.assertEquals(0, handler.getRetries());
+    }
+
+    @Test
+    public void spinRetry() throws Exception
+    {
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.SPIN_RETRY, 3, null));
+
+        // 3 retries per publication
+        handler.begin(true);
+        Assert.assertTrue(handler.retry());
+        Assert.assertTrue(handler.retry());
+        Assert.assertTrue(handler.retry());
+        Assert.assertFalse(handler.retry());
+
+        // The count starts again with a new publication
+        handler.begin(true);
+        Assert.assertTrue(handler.retry());
+        Assert.assertEquals(4, handler.getRetries());
+
+        // Publications without retries
+        handler.begin(false);
+        Assert.assertFalse(handler.retry());
+        Assert.assertEquals(4, handler.getRetries());
+    }
+
+    @Test
+    public void idleRetry() throws Exception
+    {
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.IDLE_RETRY, 2, null));
+
+        handler.begin(true);
+        Assert.assertTrue(handler.retry());
+        Assert.assertTrue(handler.retry());
+        Assert.assertFalse(handler.retry());
+        Assert.assertEquals(2, handler.getRetries());
+    }
+
+    @Test
+    public void blockUntilTimeout() throws Exception
+    {
+        final long timeout = TimeUnit.MILLISECONDS.toNanos(50);
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.BLOCK_UNTIL_TIMEOUT, null, timeout));
+
+        handler.begin(true);
+        final long start = System.nanoTime();
+        while (handler.retry())
+        {
+            // Keep retrying until the timeout expires
+        }
+
+        Assert.assertTrue(System.nanoTime() - start >= timeout);
+        Assert.assertTrue(handler.getRetries() > 0);
+    }
+
+    @Test
+    public void conflate() throws Exception
+    {
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.DROP_OLDEST_CONFLATED, null, null));
+
+        handler.begin(true);
+        Assert.assertFalse(handler.retry());
+        Assert.assertTrue(handler.isConflated());
+        Assert.assertFalse(handler.hasConflatedMsg());
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+        message.putInt(8, 33);
+
+        // Store a message
+        handler.conflate(message, 8, 4);
+        Assert.assertTrue(handler.hasConflatedMsg());
+        Assert.assertEquals(4, handler.getConflatedLength());
+        Assert.assertEquals(33, handler.getConflatedBuffer().getInt(0));
+        Assert.assertEquals(0, handler.getDrops());
+
+        // Replace it with a bigger one, the oldest is dropped
+        message.putInt(100, 44);
+        handler.conflate(message, 0, 104);
+        Assert.assertEquals(104, handler.getConflatedLength());
+        Assert.assertEquals(44, handler.getConflatedBuffer().getInt(100));
+        Assert.assertEquals(1, handler.getDrops());
+
+        handler.clearConflatedMsg();
+        Assert.assertFalse(handler.hasConflatedMsg());
+    }
+
+    @Test
+    public void conflateByKey() throws Exception
+    {
+        final BackPressureHandler handler = new BackPressureHandler(this.createConfig(BackPressurePolicyType.CONFLATED_BY_KEY, null, null));
+
+        handler.begin(true);
+        Assert.assertFalse(handler.retry());
+        Assert.assertFalse(handler.isConflated());
+        Assert.assertTrue(handler.isConflatedByKey());
+        Assert.assertFalse(handler.hasConflatedByKeyMsgs());
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(8192));
+        message.putInt(8, 33);
+
+        // Store a message per key
+        Assert.assertTrue(handler.conflate(1, message, 8, 4));
+        Assert.assertTrue(handler.conflate(2, message, 8, 4));
+        Assert.assertTrue(handler.hasConflatedByKeyMsgs());
+        Assert.assertEquals(2, handler.getConflatedByKeyMsgs().size());
+        Assert.assertEquals(0, handler.getDrops());
+
+        // Replace the message of a key, the oldest is dropped
+        message.putInt(8, 44);
+        Assert.assertTrue(handler.conflate(1, message, 8, 4));
+        Assert.assertEquals(2, handler.getConflatedByKeyMsgs().size());
+        Assert.assertEquals(44, handler.getConflatedByKeyMsgs().getBuffer().getInt(handler.getConflatedByKeyMsgs().getOffset(0)));
+        Assert.assertEquals(1, handler.getDrops());
+
+        // Too big to be conflated
+        Assert.assertFalse(handler.conflate(3, message, 0, 8192));
+        Assert.assertEquals(2, handler.getConflatedByKeyMsgs().size());
+
+        // Drop the pending ones
+        handler.dropConflatedByKeyMsgs();
+        Assert.assertFalse(handler.hasConflatedByKeyMsgs());
+        Assert.assertEquals(3, handler.getDrops());
+    }
+
+    private TopicTemplateConfig createConfig(final BackPressurePolicyType policy, final Integer maxRetries, final Long timeoutNanos) throws Exception
+    {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(policy).
+                backPressureMaxRetries(maxRetries).
+                backPressureTimeoutNanos(timeoutNanos).
+                build();
+
+        config.completeAndValidateConfig();
+        return config;
+    }
+}
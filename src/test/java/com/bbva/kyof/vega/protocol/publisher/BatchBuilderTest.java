@@ -0,0 +1,67 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Test for the {@link BatchBuilder} class
+ */
+public class BatchBuilderTest
+{
+    @Test
+    public void testAddAndClear()
+    {
+        final BatchBuilder batch = new BatchBuilder(64);
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertEquals(0, batch.getNumMessages());
+        Assert.assertEquals(4, batch.getLength());
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(32));
+        message.putInt(8, 33);
+
+        // Add a message from an offset
+        Assert.assertTrue(batch.add(message, 8, 4));
+        Assert.assertFalse(batch.isEmpty());
+        Assert.assertEquals(1, batch.getNumMessages());
+        Assert.assertEquals(12, batch.getLength());
+
+        // Check the binary format, number of messages followed by length and contents
+        Assert.assertEquals(1, batch.getBuffer().getInt(0));
+        Assert.assertEquals(4, batch.getBuffer().getInt(4));
+        Assert.assertEquals(33, batch.getBuffer().getInt(8));
+
+        // Add messages until full
+        Assert.assertTrue(batch.add(message, 0, 32));
+        Assert.assertEquals(48, batch.getLength());
+        Assert.assertTrue(batch.add(message, 0, 16));
+        Assert.assertEquals(68, batch.getLength());
+        Assert.assertFalse(batch.add(message, 0, 1));
+        Assert.assertEquals(3, batch.getNumMessages());
+        Assert.assertEquals(3, batch.getBuffer().getInt(0));
+
+        // Not even an empty message fits, the length of each message takes 4 bytes
+        Assert.assertFalse(batch.add(message, 0, 0));
+
+        // Clear and reuse
+        batch.clear();
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertEquals(4, batch.getLength());
+        Assert.assertEquals(0, batch.getBuffer().getInt(0));
+        Assert.assertTrue(batch.add(message, 0, 32));
+        Assert.assertEquals(1, batch.getNumMessages());
+    }
+
+    @Test
+    public void testDefaultCapacity()
+    {
+        final BatchBuilder batch = new BatchBuilder();
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(BatchBuilder.DEFAULT_CAPACITY));
+
+        Assert.assertFalse(batch.add(message, 0, BatchBuilder.DEFAULT_CAPACITY));
+        Assert.assertTrue(batch.add(message, 0, BatchBuilder.DEFAULT_CAPACITY - 4));
+        Assert.assertEquals(BatchBuilder.DEFAULT_CAPACITY + 4, batch.getLength());
+    }
+}
@@ -0,0 +1,79 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class create to test {@link LastValueCache}
+ */
+public class LastValueCacheTest
+{
+    @Test
+    public void putAndReplace()
+    {
+        final LastValueCache cache = new LastValueCache(2, 16);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(64));
+
+        // Nothing stored yet
+        Assert.assertEquals(0, cache.size());
+
+        // Store a message for a key
+        message.putLong(8, 100L);
+        Assert.assertTrue(cache.put(10, 1, message, 8, 8));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(10, cache.getKey(0));
+        Assert.assertEquals(1, cache.getSequenceNumber(0));
+        Assert.assertEquals(8, cache.getLength(0));
+        Assert.assertEquals(100L, cache.getBuffer().getLong(cache.getOffset(0)));
+
+        // The new message of the key replaces the previous one
+        message.putLong(8, 200L);
+        Assert.assertTrue(cache.put(10, 2, message, 8, 8));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(2, cache.getSequenceNumber(0));
+        Assert.assertEquals(200L, cache.getBuffer().getLong(cache.getOffset(0)));
+
+        // Fill the cache, new keys are not cached
+        Assert.assertTrue(cache.put(20, 3, message, 0, 4));
+        Assert.assertFalse(cache.put(30, 4, message, 0, 4));
+        Assert.assertEquals(2, cache.size());
+
+        // A message too big removes the key, the last slot is moved to its place
+        Assert.assertFalse(cache.put(10, 5, message, 0, 32));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(20, cache.getKey(0));
+        Assert.assertEquals(3, cache.getSequenceNumber(0));
+        Assert.assertEquals(4, cache.getLength(0));
+
+        // There is space again
+        Assert.assertTrue(cache.put(30, 6, message, 0, 4));
+        Assert.assertEquals(2, cache.size());
+
+        // Remove the last one and a missing one
+        cache.remove(30);
+        cache.remove(40);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(20, cache.getKey(0));
+        Assert.assertTrue(cache.contains(20));
+        Assert.assertFalse(cache.contains(30));
+
+        // Copy the cached messages, the copy doesn't change with the cache
+        final LastValueCache copy = new LastValueCache(2, 16);
+        copy.put(50, 7, message, 0, 4);
+        cache.copyTo(copy);
+        cache.put(20, 8, message, 8, 8);
+        Assert.assertEquals(1, copy.size());
+        Assert.assertEquals(20, copy.getKey(0));
+        Assert.assertEquals(3, copy.getSequenceNumber(0));
+        Assert.assertEquals(4, copy.getLength(0));
+        Assert.assertFalse(copy.contains(50));
+
+        // Remove all
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertFalse(cache.contains(20));
+    }
+}
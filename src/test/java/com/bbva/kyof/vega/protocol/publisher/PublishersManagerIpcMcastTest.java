@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
@@ -8,6 +9,7 @@ import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.protocol.AutoDiscManagerMock;
 import com.bbva.kyof.vega.protocol.common.KeySecurityType;
 import com.bbva.kyof.vega.protocol.common.SecurityParams;
@@ -113,9 +115,12 @@ public class PublishersManagerIpcMcastTest
     @Test
     public void testAutodiscEvents()
     {
-        this.publisherManager.onNewAutoDiscTopicInfo(null);
+        // Events for a topic without publisher are ignored
+        final AutoDiscTopicInfo topicInfo = new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.SUB_IPC, UUID.randomUUID(), "noPublisher");
+
+        this.publisherManager.onNewAutoDiscTopicInfo(topicInfo);
         this.publisherManager.onNewAutoDiscTopicSocketInfo(null);
-        this.publisherManager.onTimedOutAutoDiscTopicInfo(null);
+        this.publisherManager.onTimedOutAutoDiscTopicInfo(topicInfo);
         this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(null);
     }
 
@@ -142,19 +147,18 @@ public class PublishersManagerIpcMcastTest
         final UUID instanceId = UUID.randomUUID();
 
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28000,
-                28000,
-                2,
-                "224.1.1.1",
-                "224.1.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder().
+                name("template1").
+                transportType(TransportMediaType.MULTICAST).
+                minPort(28000).
+                maxPort(28000).
+                numStreamsPerPort(2).
+                multicastAddressLow("224.1.1.1").
+                multicastAddressHigh("224.1.1.2").
+                subnet(SUBNET_ADDRESS.toString()).
+                subnetAddress(SUBNET_ADDRESS).
+                isResolveHostname(false).
+                build();
 
         // Create several topic publishers
         final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("topic1", templateMcast, null);
@@ -208,19 +212,18 @@ public class PublishersManagerIpcMcastTest
     public void testReceive() throws Exception
     {
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28033,
-                28033,
-                2,
-                "224.4.1.1",
-                "224.4.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder().
+                name("template1").
+                transportType(TransportMediaType.MULTICAST).
+                minPort(28033).
+                maxPort(28033).
+                numStreamsPerPort(2).
+                multicastAddressLow("224.4.1.1").
+                multicastAddressHigh("224.4.1.2").
+                subnet(SUBNET_ADDRESS.toString()).
+                subnetAddress(SUBNET_ADDRESS).
+                isResolveHostname(false).
+                build();
 
         // Create several topic publishers
         final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("topic1", templateMcast, null);
@@ -265,19 +268,18 @@ public class PublishersManagerIpcMcastTest
     public void testCreateSecureAndReceive() throws Exception
     {
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28033,
-                28033,
-                2,
-                "224.4.1.1",
-                "224.4.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder().
+                name("template1").
+                transportType(TransportMediaType.MULTICAST).
+                minPort(28033).
+                maxPort(28033).
+                numStreamsPerPort(2).
+                multicastAddressLow("224.4.1.1").
+                multicastAddressHigh("224.4.1.2").
+                subnet(SUBNET_ADDRESS.toString()).
+                subnetAddress(SUBNET_ADDRESS).
+                isResolveHostname(false).
+                build();
 
         // Create a topic publisher
         final Set<Integer> secureSubs = new HashSet<>(Collections.singletonList(22222));
@@ -306,6 +308,64 @@ public class PublishersManagerIpcMcastTest
         Assert.assertFalse(secureChangesListener.containsPubId(topicPublisher.getUniqueId()));
     }
 
+    @Test
+    public void testCompactHeaderMixedVersions() throws Exception
+    {
+        final TopicTemplateConfig templateIpc = TopicTemplateConfig.builder().transportType(TransportMediaType.IPC).numStreamsPerPort(1).compactHeader(true).build();
+
+        // Both topics share the aeron publisher
+        final TopicPublisherIpcMcast topicPublisher1 = (TopicPublisherIpcMcast) publisherManager.createTopicPublisher("compact1", templateIpc, null);
+        final TopicPublisherIpcMcast topicPublisher2 = (TopicPublisherIpcMcast) publisherManager.createTopicPublisher("compact2", templateIpc, null);
+        Assert.assertSame(topicPublisher1.aeronPublisher, topicPublisher2.aeronPublisher);
+        Assert.assertTrue(topicPublisher1.isCompactHeaderActive());
+        Assert.assertTrue(topicPublisher2.isCompactHeaderActive());
+        Assert.assertTrue(topicPublisher1.isBatchActive());
+        Assert.assertTrue(topicPublisher2.isBatchActive());
+
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, topicPublisher1.aeronPublisher.getParams().getStreamId(), null);
+        Thread.sleep(1000);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        this.sendMessagesFromTopicPublisher(topicPublisher2, simpleReceiver, buffer);
+        Assert.assertEquals(MsgType.DATA_COMPACT, simpleReceiver.getReusableBaseHeader().getMsgType());
+
+        // A subscriber of a version without compact headers support is discovered in one of the topics, the whole socket uses normal headers
+        final AutoDiscTopicInfo legacySubscriber = new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.SUB_IPC, UUID.randomUUID(), "compact1");
+        legacySubscriber.setVersion(Version.toIntegerRepresentation((byte) 3, (byte) 0, (byte) 0));
+        publisherManager.onNewAutoDiscTopicInfo(legacySubscriber);
+
+        Assert.assertFalse(topicPublisher1.isCompactHeaderActive());
+        Assert.assertFalse(topicPublisher2.isCompactHeaderActive());
+        Assert.assertFalse(topicPublisher1.isBatchActive());
+        Assert.assertFalse(topicPublisher2.isBatchActive());
+
+        this.sendMessagesFromTopicPublisher(topicPublisher2, simpleReceiver, buffer);
+        Assert.assertEquals(MsgType.DATA, simpleReceiver.getReusableBaseHeader().getMsgType());
+        Assert.assertEquals(topicPublisher2.getUniqueId(), simpleReceiver.getReusableReceivedMsg().getTopicPublisherId());
+
+        // A subscriber of the current version changes nothing
+        publisherManager.onNewAutoDiscTopicInfo(new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.SUB_IPC, UUID.randomUUID(), "compact2"));
+        Assert.assertFalse(topicPublisher2.isCompactHeaderActive());
+
+        // Once the old subscriber is gone the compact headers are used again
+        publisherManager.onTimedOutAutoDiscTopicInfo(legacySubscriber);
+        Assert.assertTrue(topicPublisher1.isCompactHeaderActive());
+        Assert.assertTrue(topicPublisher2.isCompactHeaderActive());
+        Assert.assertTrue(topicPublisher1.isBatchActive());
+        Assert.assertTrue(topicPublisher2.isBatchActive());
+
+        this.sendMessagesFromTopicPublisher(topicPublisher2, simpleReceiver, buffer);
+        Assert.assertEquals(MsgType.DATA_COMPACT, simpleReceiver.getReusableBaseHeader().getMsgType());
+
+        // Removing the topic with the old subscriber also activates them for the rest of topics on the socket
+        publisherManager.onNewAutoDiscTopicInfo(legacySubscriber);
+        Assert.assertFalse(topicPublisher2.isCompactHeaderActive());
+        publisherManager.destroyTopicPublisher("compact1");
+        Assert.assertTrue(topicPublisher2.isCompactHeaderActive());
+
+        simpleReceiver.close();
+    }
+
     private void sendMessagesFromTopicPublisher(ITopicPublisher topicPublisher, SimpleReceiver simpleReceiver1, SimpleReceiver simpleReceiver2, UnsafeBuffer buffer) throws InterruptedException
     {
         buffer.putInt(0, 128);
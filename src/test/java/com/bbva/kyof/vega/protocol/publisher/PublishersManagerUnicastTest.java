@@ -8,6 +8,7 @@ import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.AutoDiscManagerMock;
 import com.bbva.kyof.vega.protocol.common.KeySecurityType;
 import com.bbva.kyof.vega.protocol.common.SecurityParams;
@@ -262,6 +263,91 @@ public class PublishersManagerUnicastTest
         this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo3);
     }
 
+    @Test
+    public void testMultiDestinationCastCreateRemoveSend() throws Exception
+    {
+        final UUID instanceId = UUID.randomUUID();
+
+        final String ipAddress = SUBNET_ADDRESS.getIpAddres().getHostAddress();
+        final String hostname = SUBNET_ADDRESS.getIpAddres().getHostName();
+        final int intAddress = InetUtil.convertIpAddressToInt(ipAddress);
+
+        // Create the topic configuration
+        final TopicTemplateConfig templateMdc = TopicTemplateConfig.builder().
+                name("templateMdc").
+                transportType(TransportMediaType.UNICAST).
+                numStreamsPerPort(2).
+                minPort(28310).
+                maxPort(28312).
+                hostname("").
+                isResolveHostname(false).
+                multiDestinationCast(true).
+                subnetAddress(SUBNET_ADDRESS).build();
+
+        // Create two topic publishers
+        final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("mdcTopic1", templateMdc, null);
+        final ITopicPublisher topicPublisher2 = publisherManager.createTopicPublisher("mdcTopic2", templateMdc, null);
+
+        // Create several receivers on different sockets
+        SimpleReceiver simpleReceiver1 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28310, 2, SUBNET_ADDRESS);
+        SimpleReceiver simpleReceiver2 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28311, 2, SUBNET_ADDRESS);
+        SimpleReceiver simpleReceiver3 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28311, 3, SUBNET_ADDRESS);
+
+        // The topic 1 has subscribers on all the sockets, the topic 2 only on the second one. The info 4 repeats the socket of the info 2
+        final AutoDiscTopicSocketInfo topicSocketInfo1 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic1", UUID.randomUUID(), intAddress, 28310, 2, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo2 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic1", UUID.randomUUID(), intAddress, 28311, 2, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo3 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic1", UUID.randomUUID(), intAddress, 28311, 3, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo4 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic1", UUID.randomUUID(), intAddress, 28311, 2, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo5 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic2", UUID.randomUUID(), intAddress, 28311, 2, hostname);
+
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo1);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo2);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo3);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo4);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo5);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+
+        // A single send on the topic 1 should arrive to all the sockets
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver1, simpleReceiver2, simpleReceiver3);
+
+        // The topic 2 has a dedicated publication, it should only arrive to the second socket
+        this.sendMessageAndCheckArrival(topicPublisher2, simpleReceiver2, true);
+        this.sendMessageAndCheckArrival(topicPublisher2, simpleReceiver1, false);
+
+        // Remove the first socket, it should not receive more messages
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo1);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver1, false);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, true);
+
+        // Remove one of the repeated sockets, the destination is still used by the other one
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo2);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, true);
+
+        // Remove the other one
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo4);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, false);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver3, true);
+
+        // The topic 2 is not affected
+        this.sendMessageAndCheckArrival(topicPublisher2, simpleReceiver2, true);
+
+        // Remove the last socket of the topic 1, there should be no publishers left for it
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo3);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        Assert.assertEquals(topicPublisher.sendMsg(new UnsafeBuffer(new byte[128]), 0, 128), PublishResult.AERON_PUBLISHERS_NOT_FOUND);
+
+        // Destroy the topic publisher that still has sockets and close
+        this.publisherManager.destroyTopicPublisher("mdcTopic2");
+        this.publisherManager.close();
+
+        simpleReceiver1.close();
+        simpleReceiver2.close();
+        simpleReceiver3.close();
+    }
+
     @Test
     public void testSecureCreateRemoveSend() throws Exception
     {
@@ -350,6 +436,22 @@ public class PublishersManagerUnicastTest
         simpleReceiver.reset();
     }
 
+    private void sendMessageAndCheckArrival(ITopicPublisher topicPublisher, SimpleReceiver... simpleReceivers) throws InterruptedException
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        buffer.putInt(0, 128);
+
+        topicPublisher.sendMsg(buffer, 0, 4);
+        Thread.sleep(SEND_POLL_WAIT);
+
+        for (final SimpleReceiver simpleReceiver : simpleReceivers)
+        {
+            simpleReceiver.pollReceivedMessage();
+            Assert.assertEquals(simpleReceiver.getReusableReceivedMsg().getTopicPublisherId(), topicPublisher.getUniqueId());
+            simpleReceiver.reset();
+        }
+    }
+
     private void sendSecureMessageAndCheckArrival(ITopicPublisher topicPublisher, AESCrypto decoder, SimpleReceiver simpleReceiver, boolean shouldArrive) throws Exception
     {
         final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(128));
@@ -0,0 +1,48 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class create to test {@link RetransmitCache}
+ */
+public class RetransmitCacheTest
+{
+    @Test
+    public void addAndFind()
+    {
+        final RetransmitCache cache = new RetransmitCache(4, 16);
+        Assert.assertEquals(4, cache.capacity());
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(64));
+        message.putLong(8, 1234L);
+
+        // Nothing stored yet
+        Assert.assertEquals(-1, cache.find(0));
+        Assert.assertEquals(-1, cache.find(1));
+
+        // Store a message and find it
+        cache.add(1, message, 8, 8);
+        final int slot = cache.find(1);
+        Assert.assertTrue(slot >= 0);
+        Assert.assertEquals(8, cache.getLength(slot));
+        Assert.assertEquals(1234L, cache.getBuffer().getLong(cache.getOffset(slot)));
+
+        // Messages bigger than the max size are not cached
+        cache.add(2, message, 0, 32);
+        Assert.assertEquals(-1, cache.find(2));
+
+        // Not cached sequence numbers
+        cache.addNotCached(3);
+        Assert.assertEquals(-1, cache.find(3));
+
+        // The message is overwritten once the cache wraps
+        cache.add(5, message, 0, 4);
+        Assert.assertEquals(-1, cache.find(1));
+        Assert.assertTrue(cache.find(5) >= 0);
+        Assert.assertEquals(4, cache.getLength(cache.find(5)));
+    }
+}
@@ -0,0 +1,179 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
+
+/**
+ * Class create to test {@link TopicJournal}
+ */
+public class TopicJournalTest
+{
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Test
+    public void appendAndRead()
+    {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "vega_journal_test_" + UUID.randomUUID());
+        final TopicJournal journal = new TopicJournal(directory, SEGMENT_SIZE, 2);
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // Nothing stored yet
+        Assert.assertFalse(journal.cursor(1).next());
+
+        // Store messages, a heartbeat and a message too big for a segment
+        for (int i = 1; i <= 3; i++)
+        {
+            message.putLong(0, i * 100L);
+            journal.append(i, message, 0, 8);
+        }
+        journal.appendSkip(4);
+        journal.append(5, new UnsafeBuffer(new byte[SEGMENT_SIZE]), 0, SEGMENT_SIZE);
+        Assert.assertEquals(5, journal.getLastSequenceNumber());
+
+        // Read from the second one
+        final TopicJournal.Cursor cursor = journal.cursor(2);
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(2, cursor.getSequenceNumber());
+        Assert.assertEquals(8, cursor.getLength());
+        Assert.assertEquals(200L, cursor.getBuffer().getLong(cursor.getOffset()));
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(3, cursor.getSequenceNumber());
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(4, cursor.getSequenceNumber());
+        Assert.assertTrue(cursor.isSkip());
+
+        // The big message is not journaled
+        Assert.assertFalse(cursor.next());
+
+        // New records are visible for the existing cursor
+        journal.append(6, message, 0, 8);
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(6, cursor.getSequenceNumber());
+        Assert.assertFalse(cursor.next());
+
+        journal.close();
+        Assert.assertFalse(directory.exists());
+    }
+
+    @Test
+    public void rollSegments()
+    {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "vega_journal_test_" + UUID.randomUUID());
+        final TopicJournal journal = new TopicJournal(directory, SEGMENT_SIZE, 2);
+
+        // Each record takes 1024 bytes with the header, 4 records per segment
+        final UnsafeBuffer message = new UnsafeBuffer(new byte[1024 - TopicJournal.RECORD_HEADER_SIZE]);
+
+        for (int i = 1; i <= 8; i++)
+        {
+            journal.append(i, message, 0, message.capacity());
+        }
+
+        Assert.assertEquals(2, journal.getNumSegments());
+
+        // Read across the segments
+        final TopicJournal.Cursor cursor = journal.cursor(3);
+        for (int i = 3; i <= 8; i++)
+        {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(i, cursor.getSequenceNumber());
+        }
+        Assert.assertFalse(cursor.next());
+
+        // The first segment is deleted with the third one
+        journal.append(9, message, 0, message.capacity());
+        Assert.assertEquals(2, journal.getNumSegments());
+
+        // Reading from the beginning starts on the oldest segment kept
+        final TopicJournal.Cursor oldestCursor = journal.cursor(1);
+        Assert.assertTrue(oldestCursor.next());
+        Assert.assertEquals(5, oldestCursor.getSequenceNumber());
+
+        journal.close();
+        Assert.assertFalse(directory.exists());
+    }
+
+    @Test
+    public void prepareSegments()
+    {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "vega_journal_test_" + UUID.randomUUID());
+        final TopicJournal journal = new TopicJournal(directory, SEGMENT_SIZE, 2);
+
+        // The first segment is prepared on creation
+        Assert.assertFalse(journal.prepareNextSegment());
+        Assert.assertEquals(0, journal.getNumSegments());
+
+        // The first message uses it, then the next one can be prepared
+        final UnsafeBuffer message = new UnsafeBuffer(new byte[1024 - TopicJournal.RECORD_HEADER_SIZE]);
+        journal.append(1, message, 0, message.capacity());
+        Assert.assertEquals(1, journal.getNumSegments());
+        Assert.assertTrue(journal.prepareNextSegment());
+        Assert.assertFalse(journal.prepareNextSegment());
+
+        // Roll to the prepared segment
+        for (int i = 2; i <= 5; i++)
+        {
+            journal.append(i, message, 0, message.capacity());
+        }
+        Assert.assertEquals(2, journal.getNumSegments());
+
+        final TopicJournal.Cursor cursor = journal.cursor(1);
+        for (int i = 1; i <= 5; i++)
+        {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(i, cursor.getSequenceNumber());
+        }
+
+        // Nothing is prepared once closed
+        journal.close();
+        Assert.assertFalse(journal.prepareNextSegment());
+        Assert.assertFalse(directory.exists());
+    }
+
+    @Test
+    public void deleteStaleJournals() throws Exception
+    {
+        final File journalsDirectory = new File(System.getProperty("java.io.tmpdir"), "vega_journal_test_" + UUID.randomUUID());
+
+        // A journal open and a journal of a previous execution that was not closed
+        final TopicJournal openJournal = new TopicJournal(new File(journalsDirectory, UUID.randomUUID().toString()), SEGMENT_SIZE, 2);
+        final File staleDirectory = new File(journalsDirectory, UUID.randomUUID().toString());
+        final TopicJournal staleJournal = new TopicJournal(staleDirectory, SEGMENT_SIZE, 2);
+        staleJournal.append(1, new UnsafeBuffer(new byte[8]), 0, 8);
+
+        // Simulate the crash releasing the lock without deleting the files
+        final Field lockChannelField = TopicJournal.class.getDeclaredField("lockChannel");
+        lockChannelField.setAccessible(true);
+        ((FileChannel)lockChannelField.get(staleJournal)).close();
+
+        // Other directories are never deleted
+        final File otherDirectory = new File(journalsDirectory, "other");
+        Assert.assertTrue(otherDirectory.mkdirs());
+
+        // The recent lock files are not considered stale yet
+        TopicJournal.deleteStaleJournals(journalsDirectory);
+        Assert.assertTrue(staleDirectory.exists());
+
+        for (final File file : journalsDirectory.listFiles(File::isDirectory))
+        {
+            Assert.assertTrue(new File(file, "journal.lock").setLastModified(System.currentTimeMillis() - 120_000) || file.equals(otherDirectory));
+        }
+
+        TopicJournal.deleteStaleJournals(journalsDirectory);
+        Assert.assertFalse(staleDirectory.exists());
+        Assert.assertTrue(openJournal.getDirectory().exists());
+        Assert.assertTrue(otherDirectory.exists());
+
+        openJournal.close();
+        IoUtil.delete(journalsDirectory, true);
+    }
+}
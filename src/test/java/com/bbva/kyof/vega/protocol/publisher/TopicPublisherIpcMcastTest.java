@@ -1,11 +1,14 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.config.general.BackPressurePolicyType;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.easymock.EasyMock;
 import org.junit.After;
@@ -14,8 +17,11 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -111,6 +117,79 @@ public class TopicPublisherIpcMcastTest
         assertEquals(1, this.sentMessages);
     }
 
+    @Test
+    public void testStagedClaim()
+    {
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", topicConfig, vegaContext);
+
+        // The mock won't allow direct claims, the message will be staged and sent on commit
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        final PublishClaim claim = topicPublisher.tryClaim(1024);
+        Assert.assertEquals(PublishResult.OK, claim.getResult());
+        Assert.assertEquals(1024, claim.getBuffer().capacity());
+        claim.getBuffer().putLong(0, 33L);
+
+        // A second claim should fail while the first one is pending
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.tryClaim(1024).getResult());
+        Assert.assertEquals(0, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(0, this.sentMessages);
+
+        // Commit, now it should be sent
+        Assert.assertEquals(PublishResult.OK, topicPublisher.commit());
+        Assert.assertEquals(1, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(1, this.sentMessages);
+
+        // Commit again should fail
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.commit());
+
+        // Claim and abort, nothing should be sent
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(10).getResult());
+        topicPublisher.abort();
+        Assert.assertEquals(1, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(1, this.sentMessages);
+
+        // A pending claim is discarded on close
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(10).getResult());
+        topicPublisher.close();
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.commit());
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.tryClaim(10).getResult());
+        Assert.assertEquals(1, this.sentMessages);
+    }
+
+    @Test
+    public void testClaimFromOtherThread() throws Exception
+    {
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", topicConfig, vegaContext);
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        final PublishClaim claim = topicPublisher.tryClaim(8);
+        Assert.assertEquals(PublishResult.OK, claim.getResult());
+
+        // While pending the claims of other threads are back pressured, and they cannot commit, abort or discard it on close
+        final AtomicReference<PublishResult> otherClaimResult = new AtomicReference<>();
+        final AtomicReference<PublishResult> otherCommitResult = new AtomicReference<>();
+        final Thread otherThread = new Thread(() ->
+        {
+            otherClaimResult.set(topicPublisher.tryClaim(8).getResult());
+            otherCommitResult.set(topicPublisher.commit());
+            topicPublisher.abort();
+            topicPublisher.close();
+        });
+        otherThread.start();
+        otherThread.join();
+
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, otherClaimResult.get());
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, otherCommitResult.get());
+        Assert.assertEquals(0, this.sentMessages);
+
+        // The owner still has the claim, it is discarded on commit since the topic publisher has been closed
+        claim.getBuffer().putLong(0, 33L);
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.commit());
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.commit());
+        Assert.assertEquals(0, this.sentMessages);
+    }
+
     @Test
     public void testBackPressureError()
     {
@@ -125,6 +204,9 @@ public class TopicPublisherIpcMcastTest
         Assert.assertEquals(topicPublisher.sendMsg(message, 0, 1024), PublishResult.BACK_PRESSURED);
         assertEquals(1, this.sentMessages);
 
+        // The sequence number is not used by a message that has not been sent
+        assertEquals(0, topicPublisher.getSequenceNumber());
+
         SentRequest sentRequest = topicPublisher.sendRequest(message, 0, 1024, 100L, null);
         Assert.assertEquals(sentRequest.getSentResult(), PublishResult.BACK_PRESSURED);
         assertEquals(1, this.sentRequests);
@@ -149,11 +231,266 @@ public class TopicPublisherIpcMcastTest
         assertEquals(1, this.sentRequests);
     }
 
+    @Test
+    public void testAsyncSend() throws Exception
+    {
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                asyncSend(true).
+                asyncRingBufferSize(65536).
+                build();
+        asyncConfig.completeAndValidateConfig();
+
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", asyncConfig, vegaContext);
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+        Assert.assertTrue(topicPublisher.isAsyncSend());
+
+        // The message is only queued, the sequence number is assigned when sent
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(0, this.sentMessages);
+        Assert.assertEquals(0, topicPublisher.getSequenceNumber());
+        Assert.assertTrue(topicPublisher.getAsyncQueueOccupancy() > 1024);
+
+        // Claims are staged and queued on commit
+        final PublishClaim claim = topicPublisher.tryClaim(512);
+        Assert.assertEquals(PublishResult.OK, claim.getResult());
+        Assert.assertEquals(PublishResult.OK, topicPublisher.commit());
+        Assert.assertEquals(0, this.sentMessages);
+
+        // Fill the ring buffer, it should report back pressure when full
+        PublishResult result = PublishResult.OK;
+        int queued = 2;
+        while (result == PublishResult.OK)
+        {
+            result = topicPublisher.sendMsg(message, 0, 1024);
+            queued = result == PublishResult.OK ? queued + 1 : queued;
+        }
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, result);
+
+        // A message bigger than the max length of the ring buffer (1/8 of the capacity) cannot be sent
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.sendMsg(new UnsafeBuffer(ByteBuffer.allocate(16384)), 0, 16384));
+
+        // Drain the messages
+        int drained = 0;
+        int lastDrain;
+        do
+        {
+            lastDrain = topicPublisher.drainAsyncMsgs();
+            drained += lastDrain;
+        }
+        while (lastDrain > 0);
+
+        Assert.assertEquals(queued, drained);
+        Assert.assertEquals(queued, this.sentMessages);
+        Assert.assertEquals(queued, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(0, topicPublisher.getAsyncQueueOccupancy());
+
+        // After close nothing is queued or sent
+        topicPublisher.close();
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(0, topicPublisher.drainAsyncMsgs());
+    }
+
+    @Test
+    public void testDropOldestConflated() throws Exception
+    {
+        final TopicTemplateConfig conflatedConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                backPressurePolicy(BackPressurePolicyType.DROP_OLDEST_CONFLATED).
+                build();
+        conflatedConfig.completeAndValidateConfig();
+
+        final AtomicReference<PublishResult> pubResult = new AtomicReference<>(PublishResult.BACK_PRESSURED);
+        final AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendMessage(pubResult.get())).anyTimes();
+        EasyMock.replay(publisher);
+
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", conflatedConfig, vegaContext);
+        topicPublisher.setAeronPublisher(publisher);
+        Assert.assertTrue(topicPublisher.isConflated());
+
+        // The back pressured message is kept, it is not reported as sent
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.CONFLATED, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(1, this.sentMessages);
+
+        // Still back pressured, the pending one is retried and replaced by the new one
+        Assert.assertEquals(PublishResult.CONFLATED, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(2, this.sentMessages);
+        Assert.assertEquals(1, topicPublisher.getBackPressureDrops());
+
+        // The sequence number is assigned once sent, the dropped message leaves no gap
+        Assert.assertEquals(0, topicPublisher.getSequenceNumber());
+
+        // The sender thread keeps it while back pressured
+        Assert.assertEquals(0, topicPublisher.drainConflatedMsgs());
+        Assert.assertEquals(3, this.sentMessages);
+
+        // Once the transport is free it is sent by the sender thread without new publications
+        pubResult.set(PublishResult.OK);
+        Assert.assertEquals(1, topicPublisher.drainConflatedMsgs());
+        Assert.assertEquals(4, this.sentMessages);
+        Assert.assertEquals(1, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(0, topicPublisher.drainConflatedMsgs());
+        Assert.assertEquals(4, this.sentMessages);
+        Assert.assertEquals(1, topicPublisher.getBackPressureDrops());
+
+        // The pending message is sent before the next publication
+        pubResult.set(PublishResult.BACK_PRESSURED);
+        Assert.assertEquals(PublishResult.CONFLATED, topicPublisher.sendMsg(message, 0, 1024));
+        pubResult.set(PublishResult.OK);
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(7, this.sentMessages);
+        Assert.assertEquals(3, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(0, topicPublisher.drainConflatedMsgs());
+
+        topicPublisher.close();
+    }
+
+    @Test
+    public void testRetransmitBackPressured() throws Exception
+    {
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                retransmitCacheSize(16).
+                build();
+        retransmitConfig.completeAndValidateConfig();
+
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", retransmitConfig, vegaContext);
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 128));
+        }
+
+        // The response publisher is back pressured for the retransmitted messages
+        final List<Byte> sentTypes = new ArrayList<>();
+        final List<Long> sentSequenceNumbers = new ArrayList<>();
+        final AeronPublisher responsePublisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(responsePublisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() ->
+        {
+            final byte msgType = (Byte) EasyMock.getCurrentArguments()[0];
+            sentTypes.add(msgType);
+            sentSequenceNumbers.add((Long) EasyMock.getCurrentArguments()[3]);
+            return msgType == MsgType.DATA_RETRANSMIT ? PublishResult.BACK_PRESSURED : PublishResult.OK;
+        }).anyTimes();
+        EasyMock.replay(responsePublisher);
+
+        // The first message is retried on the next turns and then the whole range is notified as lost
+        final RetransmitSender.Retransmission retransmission = new RetransmitSender.Retransmission(topicPublisher, 1, 3, responsePublisher);
+        final UnsafeBuffer lostContent = new UnsafeBuffer(ByteBuffer.allocate(8));
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertFalse(retransmission.isFinished());
+            Assert.assertEquals(0, retransmission.sendTurn(lostContent));
+        }
+        Assert.assertTrue(retransmission.isFinished());
+
+        Assert.assertEquals(4, sentTypes.size());
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertEquals(MsgType.DATA_RETRANSMIT, (byte) sentTypes.get(i));
+            Assert.assertEquals(1L, (long) sentSequenceNumbers.get(i));
+        }
+        Assert.assertEquals(MsgType.DATA_RETRANSMIT_LOST, (byte) sentTypes.get(3));
+        Assert.assertEquals(1L, (long) sentSequenceNumbers.get(3));
+        Assert.assertEquals(3L, lostContent.getLong(0));
+
+        topicPublisher.close();
+    }
+
+    @Test
+    public void testRetransmitInTurns() throws Exception
+    {
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                retransmitCacheSize(256).
+                build();
+        retransmitConfig.completeAndValidateConfig();
+
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", retransmitConfig, vegaContext);
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+        for (int i = 1; i <= 300; i++)
+        {
+            message.putInt(0, i);
+            Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 128));
+        }
+
+        final List<Byte> sentTypes = new ArrayList<>();
+        final List<Long> sentSequenceNumbers = new ArrayList<>();
+        final List<Integer> sentContents = new ArrayList<>();
+        final AeronPublisher responsePublisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(responsePublisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() ->
+        {
+            sentTypes.add((Byte) EasyMock.getCurrentArguments()[0]);
+            sentSequenceNumbers.add((Long) EasyMock.getCurrentArguments()[3]);
+            sentContents.add(((DirectBuffer) EasyMock.getCurrentArguments()[2]).getInt((Integer) EasyMock.getCurrentArguments()[4]));
+            return PublishResult.OK;
+        }).anyTimes();
+        EasyMock.replay(responsePublisher);
+
+        // The messages older than the cache are notified as lost at once, the rest are sent in turns of a limited size
+        final RetransmitSender.Retransmission retransmission = new RetransmitSender.Retransmission(topicPublisher, 1, 300, responsePublisher);
+        final UnsafeBuffer lostContent = new UnsafeBuffer(ByteBuffer.allocate(8));
+        Assert.assertEquals(128, retransmission.sendTurn(lostContent));
+        Assert.assertEquals(MsgType.DATA_RETRANSMIT_LOST, (byte) sentTypes.get(0));
+        Assert.assertEquals(1L, (long) sentSequenceNumbers.get(0));
+        Assert.assertEquals(44L, lostContent.getLong(0));
+        Assert.assertFalse(retransmission.isFinished());
+
+        // The publications are not blocked between turns, the new messages push the next ones out of the cache
+        for (int i = 301; i <= 430; i++)
+        {
+            message.putInt(0, i);
+            Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 128));
+        }
+
+        Assert.assertEquals(126, retransmission.sendTurn(lostContent));
+        Assert.assertEquals(MsgType.DATA_RETRANSMIT_LOST, (byte) sentTypes.get(129));
+        Assert.assertEquals(173L, (long) sentSequenceNumbers.get(129));
+        Assert.assertEquals(174L, lostContent.getLong(0));
+        Assert.assertFalse(retransmission.isFinished());
+
+        Assert.assertEquals(0, retransmission.sendTurn(lostContent));
+        Assert.assertTrue(retransmission.isFinished());
+
+        // The retransmitted messages are sent in order with their original contents
+        Assert.assertEquals(256, sentTypes.size());
+        for (int i = 1; i < sentTypes.size(); i++)
+        {
+            if (i != 129)
+            {
+                Assert.assertEquals(MsgType.DATA_RETRANSMIT, (byte) sentTypes.get(i));
+                Assert.assertEquals((long) sentContents.get(i), (long) sentSequenceNumbers.get(i));
+            }
+        }
+
+        // Nothing is retransmitted once closed
+        topicPublisher.close();
+        final RetransmitSender.Retransmission closedRetransmission = new RetransmitSender.Retransmission(topicPublisher, 420, 430, responsePublisher);
+        Assert.assertEquals(0, closedRetransmission.sendTurn(lostContent));
+        Assert.assertTrue(closedRetransmission.isFinished());
+        Assert.assertEquals(256, sentTypes.size());
+    }
+
     private AeronPublisher createAeronPublisherMock(PublishResult pubResult)
     {
         AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
         EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendMessage(pubResult)).anyTimes();
-        EasyMock.expect(publisher.sendRequest(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendRequest(pubResult)).anyTimes();
+        EasyMock.expect(publisher.sendRequest(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyLong(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendRequest(pubResult)).anyTimes();
         EasyMock.replay(publisher);
         return publisher;
     }
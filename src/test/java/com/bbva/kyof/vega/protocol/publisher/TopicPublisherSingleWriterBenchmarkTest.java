@@ -0,0 +1,141 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.util.net.AeronChannelHelper;
+import io.aeron.Aeron;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Benchmark that compares the send latency of a topic publisher using the default shared publication against a topic publisher
+ * configured as single writer. The results are printed in the console, it is ignored by default since it is not a unit test.
+ */
+public class TopicPublisherSingleWriterBenchmarkTest
+{
+    private static final int WARMUP_MESSAGES = 200_000;
+    private static final int MEASURED_MESSAGES = 1_000_000;
+    private static final int MSG_SIZE = 128;
+
+    private static MediaDriver MEDIA_DRIVER;
+    private static Aeron AERON;
+    private static VegaContext VEGA_CONTEXT;
+
+    @BeforeClass
+    public static void beforeClass()
+    {
+        MEDIA_DRIVER = MediaDriver.launchEmbedded(new MediaDriver.Context().threadingMode(ThreadingMode.DEDICATED));
+
+        final Aeron.Context ctx = new Aeron.Context();
+        ctx.aeronDirectoryName(MEDIA_DRIVER.aeronDirectoryName());
+
+        AERON = Aeron.connect(ctx);
+        VEGA_CONTEXT = new VegaContext(AERON, new GlobalConfiguration());
+    }
+
+    @AfterClass
+    public static void afterClass()
+    {
+        AERON.close();
+        CloseHelper.quietClose(MEDIA_DRIVER);
+    }
+
+    @Test
+    @Ignore
+    public void benchmarkSendLatency() throws Exception
+    {
+        final long[] sharedLatencies = this.runBenchmark(false, 20);
+        final long[] singleWriterLatencies = this.runBenchmark(true, 21);
+
+        this.printResults("Shared publication", sharedLatencies);
+        this.printResults("Single writer", singleWriterLatencies);
+    }
+
+    private long[] runBenchmark(final boolean singleWriter, final int streamId) throws Exception
+    {
+        final TopicTemplateConfig topicConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.IPC).singleWriter(singleWriter).build();
+        final AeronPublisher aeronPublisher = new AeronPublisher(VEGA_CONTEXT, new AeronPublisherParams(TransportMediaType.IPC, 0, 0, streamId, null), singleWriter);
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", topicConfig, VEGA_CONTEXT);
+        topicPublisher.setAeronPublisher(aeronPublisher);
+
+        // Consume the messages in a separate thread to prevent back pressure
+        final Subscription subscription = AERON.addSubscription(AeronChannelHelper.createIpcChannelString(), streamId);
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final Thread consumer = new Thread(() ->
+        {
+            while (!stop.get())
+            {
+                subscription.poll((buffer, offset, length, header) -> { }, 256);
+            }
+        });
+        consumer.start();
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocateDirect(MSG_SIZE));
+        final long[] latencies = new long[MEASURED_MESSAGES];
+
+        for (int i = 0; i < WARMUP_MESSAGES; i++)
+        {
+            this.send(topicPublisher, message);
+        }
+
+        for (int i = 0; i < MEASURED_MESSAGES; i++)
+        {
+            final long start = System.nanoTime();
+            this.send(topicPublisher, message);
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        stop.set(true);
+        consumer.join();
+
+        topicPublisher.close();
+        aeronPublisher.close();
+        subscription.close();
+
+        return latencies;
+    }
+
+    private void send(final TopicPublisherIpcMcast topicPublisher, final UnsafeBuffer message)
+    {
+        while (topicPublisher.sendMsg(message, 0, MSG_SIZE) == PublishResult.BACK_PRESSURED)
+        {
+            Thread.yield();
+        }
+    }
+
+    private void printResults(final String name, final long[] latencies)
+    {
+        Arrays.sort(latencies);
+
+        System.out.println(String.format("%s send latency in nanos: p50 [%d], p99 [%d], p99.9 [%d], p99.99 [%d], max [%d]",
+                name,
+                percentile(latencies, 50.0),
+                percentile(latencies, 99.0),
+                percentile(latencies, 99.9),
+                percentile(latencies, 99.99),
+                latencies[latencies.length - 1]));
+    }
+
+    private static long percentile(final long[] sortedValues, final double percentile)
+    {
+        final int index = (int)Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, index)];
+    }
+}
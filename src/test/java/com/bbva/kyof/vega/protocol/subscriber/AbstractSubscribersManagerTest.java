@@ -83,6 +83,36 @@ public class AbstractSubscribersManagerTest implements ITopicSubListener
 
             }
 
+            @Override
+            public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+            {
+
+            }
+
+            @Override
+            public void onRetransmittedDataMsgReceived(RcvMessage msg)
+            {
+
+            }
+
+            @Override
+            public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+            {
+
+            }
+
+            @Override
+            public void onSnapshotDataMsgReceived(RcvMessage msg)
+            {
+
+            }
+
+            @Override
+            public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+            {
+
+            }
+
             @Override public void onDataRequestMsgReceived(RcvRequest request) {}
             @Override public void onDataResponseMsgReceived(RcvResponse response) {}
             @Override public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {}
@@ -372,7 +402,7 @@ public class AbstractSubscribersManagerTest implements ITopicSubListener
                               TopicSubAndTopicPubIdRelations topicSubAndTopicPubIdRelations,
                               ISecurityRequesterNotifier securityRequesterNotifier)
         {
-            super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, securityRequesterNotifier);
+            super(vegaContext, pollersManager, topicSubAndTopicPubIdRelations, securityRequesterNotifier, null);
         }
 
         @Override
@@ -0,0 +1,76 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicSocketInfo;
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+
+/**
+ * Test the {@link HeaderAliasTable} class
+ */
+public class HeaderAliasTableTest
+{
+    @Test
+    public void addResolveAndRemove()
+    {
+        final HeaderAliasTable table = new HeaderAliasTable();
+
+        final AutoDiscTopicSocketInfo info1 = this.createInfo(10, 0);
+        final AutoDiscTopicSocketInfo info2 = this.createInfo(10, 5);
+        final AutoDiscTopicSocketInfo info3 = this.createInfo(20, 0);
+
+        // Nothing registered yet
+        Assert.assertNull(table.resolve(10, 0));
+
+        table.addAlias(info1);
+        table.addAlias(info2);
+        table.addAlias(info3);
+
+        // Check the resolved ids
+        this.assertEntry(table.resolve(10, 0), info1);
+        this.assertEntry(table.resolve(10, 5), info2);
+        this.assertEntry(table.resolve(20, 0), info3);
+
+        // Unknown aliases and sessions
+        Assert.assertNull(table.resolve(10, 3));
+        Assert.assertNull(table.resolve(10, 6));
+        Assert.assertNull(table.resolve(10, -1));
+        Assert.assertNull(table.resolve(30, 0));
+
+        // Remove one of them, the others should still be there
+        table.removeAlias(info2.getUniqueId());
+        Assert.assertNull(table.resolve(10, 5));
+        this.assertEntry(table.resolve(10, 0), info1);
+
+        // Removing twice or an unknown id should do nothing
+        table.removeAlias(info2.getUniqueId());
+        table.removeAlias(UUID.randomUUID());
+        this.assertEntry(table.resolve(20, 0), info3);
+    }
+
+    @Test
+    public void ignoreInfoWithoutAlias()
+    {
+        final HeaderAliasTable table = new HeaderAliasTable();
+
+        final AutoDiscTopicSocketInfo info = new AutoDiscTopicSocketInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_IPC, UUID.randomUUID(), "topic", UUID.randomUUID(), 0, 0, 2, "host");
+        table.addAlias(info);
+
+        Assert.assertNull(table.resolve(AutoDiscTopicSocketInfo.NO_SESSION_ID, 0));
+    }
+
+    private AutoDiscTopicSocketInfo createInfo(final int sessionId, final int alias)
+    {
+        return new AutoDiscTopicSocketInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_IPC, UUID.randomUUID(), "topic", UUID.randomUUID(), 0, 0, 2, "host",
+                AutoDiscTopicSocketInfo.NO_SECURED_CONSTANT, sessionId, alias);
+    }
+
+    private void assertEntry(final HeaderAliasTable.Entry entry, final AutoDiscTopicSocketInfo info)
+    {
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(info.getInstanceId(), new UUID(entry.getInstanceIdMsb(), entry.getInstanceIdLsb()));
+        Assert.assertEquals(info.getTopicId(), new UUID(entry.getTopicPublisherIdMsb(), entry.getTopicPublisherIdLsb()));
+    }
+}
@@ -22,6 +22,7 @@ import com.bbva.kyof.vega.protocol.common.KeySecurityType;
 import com.bbva.kyof.vega.protocol.common.SecurityParams;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.ISecuredMsgsDecoder;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.util.net.InetUtil;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
@@ -97,9 +98,10 @@ public class ReceiveManagerTest
 
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
 
-        RECEIVER_MANAGER = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        RECEIVER_MANAGER = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
 
         // Give it time to start
         Thread.sleep(1000);
@@ -352,8 +354,9 @@ public class ReceiveManagerTest
     {
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
-        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
+        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
         receiveManager.close();
         receiveManager.subscribeToTopic("topic", new ReceiverListener());
     }
@@ -363,8 +366,9 @@ public class ReceiveManagerTest
     {
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
-        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
+        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
         receiveManager.close();
         receiveManager.unsubscribeFromTopic("topic");
     }
@@ -374,8 +378,9 @@ public class ReceiveManagerTest
     {
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
-        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
+        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
         receiveManager.close();
         receiveManager.subscribeToPattern("topic", new ReceiverListener());
     }
@@ -385,8 +390,9 @@ public class ReceiveManagerTest
     {
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
-        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
+        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
         receiveManager.close();
         receiveManager.unsubscribefromPattern("topic");
     }
@@ -396,8 +402,9 @@ public class ReceiveManagerTest
     {
         final ISecuredMsgsDecoder messagesDecoder = EasyMock.createNiceMock(ISecuredMsgsDecoder.class);
         final ISecurityRequesterNotifier requesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
-        EasyMock.replay(messagesDecoder, requesterNotifier);
-        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier);
+        final IRetransmitRequester retransmitRequester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(messagesDecoder, requesterNotifier, retransmitRequester);
+        final ReceiveManager receiveManager = new ReceiveManager(VEGA_CONTEXT, messagesDecoder, requesterNotifier, retransmitRequester);
         receiveManager.close();
         receiveManager.onNewPubTopicForPattern(new AutoDiscTopicInfo(VEGA_CONTEXT.getInstanceUniqueId(), AutoDiscTransportType.PUB_UNI, UUID.randomUUID(),"topic"), "topic");
         receiveManager.onPubTopicForPatternRemoved(new AutoDiscTopicInfo(VEGA_CONTEXT.getInstanceUniqueId(), AutoDiscTransportType.PUB_UNI, UUID.randomUUID(),"topic"), "topic");
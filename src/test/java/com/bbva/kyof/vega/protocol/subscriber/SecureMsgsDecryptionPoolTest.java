@@ -0,0 +1,153 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.MsgReqHeader;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
+import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class create to test {@link SecureMsgsDecryptionPool}
+ */
+public class SecureMsgsDecryptionPoolTest
+{
+    private static final int NUM_PUBLISHERS = 8;
+    private static final int NUM_MSGS = 2000;
+
+    private final Listener listener = new Listener();
+    private SecureMsgsDecryptionPool pool;
+    private SecureTopicSubscriber topicSubscriber;
+
+    @Before
+    public void before()
+    {
+        final Set<Integer> secureIds = new HashSet<>(Collections.singletonList(11111));
+        final TopicSecurityTemplateConfig securityTemplateConfig = new TopicSecurityTemplateConfig("secureConfig", 1000L, secureIds, secureIds);
+
+        pool = new SecureMsgsDecryptionPool("poller", 3);
+        topicSubscriber = new SecureTopicSubscriber("topic1", new TopicTemplateConfig(), securityTemplateConfig, pool);
+        topicSubscriber.setNormalListener(listener);
+    }
+
+    @After
+    public void after()
+    {
+        pool.close();
+    }
+
+    @Test
+    public void decryptInOrderPerTopicPublisher() throws Exception
+    {
+        // Create the publishers, half of them with AES and half with AES-GCM
+        final UUID[] topicPubIds = new UUID[NUM_PUBLISHERS];
+        final AESCrypto[] cryptos = new AESCrypto[NUM_PUBLISHERS];
+        final AesGcmCipher[] gcmEncoders = new AesGcmCipher[NUM_PUBLISHERS];
+        for (int i = 0; i < NUM_PUBLISHERS; i++)
+        {
+            topicPubIds[i] = UUID.randomUUID();
+            cryptos[i] = AESCrypto.createNewInstance();
+            gcmEncoders[i] = new AesGcmCipher(cryptos[i].getAESKey());
+        }
+
+        final UnsafeBuffer msgBuffer = new UnsafeBuffer(ByteBuffer.allocate(8));
+        final UnsafeBuffer encryptedBuffer = new UnsafeBuffer(ByteBuffer.allocate(256));
+        final RcvMessage rcvMessage = new RcvMessage();
+        rcvMessage.setUnsafeBufferContent(encryptedBuffer);
+        rcvMessage.setContentOffset(0);
+        rcvMessage.setInstanceId(UUID.randomUUID());
+
+        // Submit the messages interleaving the publishers, the content of each message is its sequence number
+        for (int seq = 0; seq < NUM_MSGS; seq++)
+        {
+            for (int i = 0; i < NUM_PUBLISHERS; i++)
+            {
+                msgBuffer.putLong(0, seq);
+                rcvMessage.setTopicPublisherId(topicPubIds[i]);
+                rcvMessage.setSequenceNumber(seq);
+
+                if (i % 2 == 0)
+                {
+                    final ByteBuffer encoded = ByteBuffer.allocate(64);
+                    cryptos[i].encode(msgBuffer.byteBuffer().duplicate(), encoded);
+                    encryptedBuffer.putBytes(0, encoded.array(), 0, encoded.position());
+                    rcvMessage.setContentLength(encoded.position());
+                    topicSubscriber.onSecureMsgReceived(rcvMessage, cryptos[i]);
+                }
+                else
+                {
+                    final int length = gcmEncoders[i].encrypt(seq, msgBuffer, 0, 8, encryptedBuffer, 0);
+                    rcvMessage.setContentLength(length);
+                    topicSubscriber.onGcmSecureMsgReceived(rcvMessage, cryptos[i].getGcmCipher());
+                }
+            }
+        }
+
+        // Heartbeat of the first publisher after the last message, there should be no loss
+        final MsgReqHeader heartbeat = new MsgReqHeader();
+        heartbeat.setInstanceId(UUID.randomUUID());
+        heartbeat.setTopicPublisherId(topicPubIds[0]);
+        heartbeat.setRequestId(UUID.randomUUID());
+        heartbeat.setSequenceNumber(NUM_MSGS);
+        topicSubscriber.onHeartbeatReceived(heartbeat, "topic1");
+
+        // Wait for all the messages
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (listener.numMsgs.get() < NUM_MSGS * NUM_PUBLISHERS && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        Assert.assertEquals(NUM_MSGS * NUM_PUBLISHERS, listener.numMsgs.get());
+        Assert.assertEquals(0, listener.numLostReports.get());
+        Assert.assertEquals(0, listener.numOutOfOrder.get());
+    }
+
+    private static class Listener implements ITopicSubListener
+    {
+        private final Map<UUID, Long> lastSeqByPublisher = new ConcurrentHashMap<>();
+        private final AtomicInteger numMsgs = new AtomicInteger();
+        private final AtomicInteger numOutOfOrder = new AtomicInteger();
+        private final AtomicInteger numLostReports = new AtomicInteger();
+
+        @Override
+        public void onMessageReceived(IRcvMessage receivedMessage)
+        {
+            final RcvMessage msg = (RcvMessage)receivedMessage;
+            final long content = msg.getContents().getLong(msg.getContentOffset());
+            final Long lastSeq = lastSeqByPublisher.put(msg.getTopicPublisherId(), content);
+
+            if (content != msg.getSequenceNumber() || (lastSeq != null && lastSeq + 1 != content))
+            {
+                numOutOfOrder.incrementAndGet();
+            }
+
+            numMsgs.incrementAndGet();
+        }
+
+        @Override
+        public void onRequestReceived(IRcvRequest receivedRequest)
+        {
+        }
+
+        @Override
+        public void onMessageLost(IMsgLostReport lostReport)
+        {
+            numLostReports.incrementAndGet();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.bbva.kyof.vega.msg.IRcvMessage;
 import com.bbva.kyof.vega.msg.IRcvRequest;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
+import com.bbva.kyof.vega.util.crypto.AesGcmCipher;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Assert;
 import org.junit.Before;
@@ -125,6 +126,47 @@ public class SecureTopicSubscriberTest
         Assert.assertNull(listener.lastRcvMsg);
     }
 
+    @Test
+    public void onGcmSecureMsgReceived() throws Exception
+    {
+        final AesGcmCipher gcmCipher = aesCrypto.getGcmCipher();
+
+        for (int i = 0; i < 4096; i += 13)
+        {
+            // Create and encrypt a message with the sequence number
+            final ByteBuffer msg = this.createMsg(i);
+            final UnsafeBuffer encryptedMsg = new UnsafeBuffer(ByteBuffer.allocate(AesGcmCipher.encryptedSize(i)));
+            gcmCipher.encrypt(i, new UnsafeBuffer(msg), 0, i, encryptedMsg, 0);
+
+            listener.lastRcvMsg = null;
+            this.simulateGcmRcvMsg(gcmCipher, encryptedMsg, i);
+
+            // Now get the message and check if it has been correctly decrypted
+            Assert.assertEquals(0, listener.lastRcvMsg.getContentOffset());
+            Assert.assertEquals(i, listener.lastRcvMsg.getContentLength());
+
+            final byte[] rcvMsg = new byte[listener.lastRcvMsg.getContentLength()];
+            listener.lastRcvMsg.getContents().getBytes(0, rcvMsg);
+            Assert.assertArrayEquals(msg.array(), rcvMsg);
+
+            // With other sequence number the authentication fails and it never arrives
+            listener.lastRcvMsg = null;
+            this.simulateGcmRcvMsg(gcmCipher, encryptedMsg, i + 1);
+            Assert.assertNull(listener.lastRcvMsg);
+        }
+    }
+
+    private void simulateGcmRcvMsg(AesGcmCipher gcmCipher, UnsafeBuffer encryptedMsg, long sequenceNumber)
+    {
+        final RcvMessage rcvMessage = new RcvMessage();
+        rcvMessage.setUnsafeBufferContent(encryptedMsg);
+        rcvMessage.setContentOffset(0);
+        rcvMessage.setContentLength(encryptedMsg.capacity());
+        rcvMessage.setSequenceNumber(sequenceNumber);
+        rcvMessage.setTopicPublisherId(UUID.randomUUID());
+        topicSubscriber.onGcmSecureMsgReceived(rcvMessage, gcmCipher);
+    }
+
     private void simulateRcvMsg(AESCrypto aesCrypto, ByteBuffer encodedMsg)
     {
         final UnsafeBuffer unsafeBuffer = new UnsafeBuffer(encodedMsg, 0, encodedMsg.limit());
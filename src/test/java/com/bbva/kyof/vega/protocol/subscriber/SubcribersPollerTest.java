@@ -5,6 +5,7 @@ import com.bbva.kyof.vega.config.general.IdleStrategyType;
 import com.bbva.kyof.vega.config.general.RcvPollerConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.RcvMessage;
@@ -29,9 +30,11 @@ import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -196,6 +199,8 @@ public class SubcribersPollerTest
         MCAST_PUBLISHER.sendMessage(MsgType.ENCRYPTED_DATA, topicId1, sendBuffer, 11, 0, 4);
         sendBuffer.putInt(0, 35);
         MCAST_PUBLISHER.sendRequest(MsgType.HEARTBEAT_REQ, topicId1, heartbeatRequestId3, sendBuffer, 12, 0, 4);
+        sendBuffer.putInt(0, 36);
+        MCAST_PUBLISHER.sendMessage(MsgType.ENCRYPTED_DATA_GCM, topicId1, sendBuffer, 13, 0, 4);
 
         // Wait for messages to arrive
         Thread.sleep(1000);
@@ -210,7 +215,7 @@ public class SubcribersPollerTest
         Assert.assertTrue(listener.rcvMessagesSecuences.contains(9L));
 
         // Check the encrypted messages
-        Assert.assertEquals(3, listener.rcvEncryptedMessagesCount.get());
+        Assert.assertEquals(4, listener.rcvEncryptedMessagesCount.get());
 
         // Check the requests
         Assert.assertTrue(listener.rcvRequestsByContentValue.contains(12));
@@ -321,6 +326,126 @@ public class SubcribersPollerTest
         poller.close();
     }
 
+    @Test
+    public void pollDataBatch() throws Exception
+    {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+
+        // Create a batch with 3 messages of different sizes, the format is the number of messages and the length + contents of each one
+        final UnsafeBuffer batchBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        batchBuffer.putInt(0, 3);
+        int batchLength = 4;
+        for (int i = 1; i <= 3; i++)
+        {
+            batchBuffer.putInt(batchLength, i * 4);
+            for (int j = 0; j < i; j++)
+            {
+                batchBuffer.putInt(batchLength + 4 + j * 4, i);
+            }
+            batchLength += 4 + i * 4;
+        }
+
+        final UUID topicId = UUID.randomUUID();
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, topicId, batchBuffer, 20, 0, batchLength);
+
+        // Send also a malformed batch with a message bigger than the batch, it should be ignored
+        batchBuffer.putInt(4, 1000);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, topicId, batchBuffer, 30, 0, batchLength);
+
+        // A batch with a valid first message and a wrong one after it, it is discarded as a whole
+        batchBuffer.putInt(4, 4);
+        batchBuffer.putInt(12, 1000);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, topicId, batchBuffer, 40, 0, batchLength);
+
+        // And a batch with more messages than it can hold
+        batchBuffer.putInt(12, 8);
+        batchBuffer.putInt(0, 1000);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, topicId, batchBuffer, 50, 0, batchLength);
+
+        // Wait for the messages to arrive
+        Thread.sleep(1000);
+
+        // Check the messages of the batch, ignore any message left in the subscription by other tests
+        final List<RcvMessage> batchMessages = new LinkedList<>();
+        for (final IRcvMessage receivedMsg : listener.getRcvMessages())
+        {
+            if (topicId.equals(((RcvMessage)receivedMsg).getTopicPublisherId()))
+            {
+                batchMessages.add((RcvMessage)receivedMsg);
+            }
+        }
+
+        // They should have consecutive sequence numbers
+        Assert.assertEquals(3, batchMessages.size());
+        for (int i = 0; i < 3; i++)
+        {
+            final RcvMessage receivedMsg = batchMessages.get(i);
+
+            Assert.assertEquals(20 + i, receivedMsg.getSequenceNumber());
+            Assert.assertEquals((i + 1) * 4, receivedMsg.getContentLength());
+            Assert.assertEquals(i + 1, receivedMsg.getContents().getInt(receivedMsg.getContentOffset()));
+            Assert.assertEquals(i + 1, receivedMsg.getContents().getInt(receivedMsg.getContentOffset() + receivedMsg.getContentLength() - 4));
+        }
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollRetransmittedMessages() throws Exception
+    {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final Listener listener = new Listener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+        poller.addSubscription(IPC_SUBSCRIBER);
+
+        Thread.sleep(100);
+
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UUID topicId = UUID.randomUUID();
+
+        // Send a retransmitted message and a range of messages that cannot be retransmitted
+        sendBuffer.putInt(0, 41);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_RETRANSMIT, topicId, sendBuffer, 20, 0, 4);
+        sendBuffer.putLong(0, 25);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_RETRANSMIT_LOST, topicId, sendBuffer, 21, 0, 8);
+
+        // Send a message of a last value snapshot
+        sendBuffer.putInt(0, 42);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_SNAPSHOT, topicId, sendBuffer, 15, 0, 4);
+
+        // Send the end of the snapshot
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_SNAPSHOT_END, topicId, sendBuffer, 18, 0, 0);
+
+        // Wait for messages to arrive
+        Thread.sleep(500);
+
+        Assert.assertTrue(listener.getRcvRetransmittedSequences().contains(20L));
+        Assert.assertEquals(Long.valueOf(25), listener.getRcvRetransmitLostRanges().get(21L));
+        Assert.assertTrue(listener.getRcvSnapshotSequences().contains(15L));
+        Assert.assertTrue(listener.getRcvSnapshotEndSequences().contains(18L));
+
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
     private static class Listener implements ISubscribersPollerListener
     {
         @Getter
@@ -341,6 +466,14 @@ public class SubcribersPollerTest
         final Set<Integer> rcvResponses = new HashSet<>();
         @Getter
         final Set<UUID> rcvRespIds = new HashSet<>();
+        @Getter
+        final Set<Long> rcvRetransmittedSequences = ConcurrentHashMap.newKeySet();
+        @Getter
+        final Map<Long, Long> rcvRetransmitLostRanges = new ConcurrentHashMap<>();
+        @Getter
+        final Set<Long> rcvSnapshotSequences = ConcurrentHashMap.newKeySet();
+        @Getter
+        final Set<Long> rcvSnapshotEndSequences = ConcurrentHashMap.newKeySet();
 
         @Override
         public void onDataMsgReceived(RcvMessage msg)
@@ -356,6 +489,36 @@ public class SubcribersPollerTest
             rcvEncryptedMessagesCount.getAndIncrement();
         }
 
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+            rcvEncryptedMessagesCount.getAndIncrement();
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+            rcvRetransmittedSequences.add(msg.getSequenceNumber());
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+            rcvRetransmitLostRanges.put(dataMsgHeader.getSequenceNumber(), lastSequenceNumber);
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+            rcvSnapshotSequences.add(msg.getSequenceNumber());
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+                rcvSnapshotEndSequences.add(dataMsgHeader.getSequenceNumber());
+        }
+
         @Override
         public void onDataRequestMsgReceived(RcvRequest request)
         {
@@ -395,6 +558,36 @@ public class SubcribersPollerTest
 
         }
 
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+
+        }
+
         @Override
         public void onDataRequestMsgReceived(RcvRequest request)
         {
@@ -100,7 +100,7 @@ public class SubscribersManagerIpcMcastTest implements ITopicSubListener
     {
         final ISecurityRequesterNotifier securityRequesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
         EasyMock.replay(securityRequesterNotifier);
-        subscriberManager = new SubscribersManagerIpcMcast(VEGA_CONTEXT, POLLERS_MANAGER, RELATIONS, securityRequesterNotifier);
+        subscriberManager = new SubscribersManagerIpcMcast(VEGA_CONTEXT, POLLERS_MANAGER, RELATIONS, securityRequesterNotifier, null);
     }
 
     @After
@@ -377,6 +377,36 @@ public class SubscribersManagerIpcMcastTest implements ITopicSubListener
 
         }
 
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+
+        }
+
         @Override
         public void onDataRequestMsgReceived(RcvRequest request)
         {
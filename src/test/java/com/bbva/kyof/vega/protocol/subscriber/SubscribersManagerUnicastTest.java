@@ -10,6 +10,7 @@ import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.msg.IRcvMessage;
 import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.RcvMessage;
@@ -113,7 +114,7 @@ public class SubscribersManagerUnicastTest implements ITopicSubListener
     {
         final ISecurityRequesterNotifier securityRequesterNotifier = EasyMock.createNiceMock(ISecurityRequesterNotifier.class);
         EasyMock.replay(securityRequesterNotifier);
-        subscriberManager = new SubscribersManagerUnicast(VEGA_CONTEXT, POLLERS_MANAGER, RELATIONS, securityRequesterNotifier);
+        subscriberManager = new SubscribersManagerUnicast(VEGA_CONTEXT, POLLERS_MANAGER, RELATIONS, securityRequesterNotifier, null);
     }
 
     @After
@@ -283,6 +284,36 @@ public class SubscribersManagerUnicastTest implements ITopicSubListener
 
         }
 
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+
+        }
+
         @Override
         public void onDataRequestMsgReceived(RcvRequest request)
         {
@@ -0,0 +1,475 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.IdleStrategyType;
+import com.bbva.kyof.vega.config.general.PollingModeType;
+import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
+import com.bbva.kyof.vega.msg.MsgReqHeader;
+import com.bbva.kyof.vega.msg.MsgType;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.msg.RcvRequest;
+import com.bbva.kyof.vega.msg.RcvResponse;
+import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.publisher.AeronPublisher;
+import com.bbva.kyof.vega.protocol.publisher.AeronPublisherParams;
+import com.bbva.kyof.vega.util.net.InetUtil;
+import io.aeron.Aeron;
+import io.aeron.driver.MediaDriver;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test for the {@link SubscribersPollerGroup} class
+ */
+public class SubscribersPollerGroupTest
+{
+    private static final int NUM_SUBSCRIBERS = 3;
+
+    private static MediaDriver MEDIA_DRIVER;
+    private static Aeron AERON;
+    private static VegaContext VEGA_CONTEXT;
+    private static final AeronSubscriber[] SUBSCRIBERS = new AeronSubscriber[NUM_SUBSCRIBERS];
+    private static final AeronPublisher[] PUBLISHERS = new AeronPublisher[NUM_SUBSCRIBERS];
+
+    @BeforeClass
+    public static void beforeClass() throws Exception
+    {
+        MEDIA_DRIVER = MediaDriver.launchEmbedded();
+
+        final Aeron.Context ctx1 = new Aeron.Context();
+        ctx1.aeronDirectoryName(MEDIA_DRIVER.aeronDirectoryName());
+
+        AERON = Aeron.connect(ctx1);
+
+        VEGA_CONTEXT = new VegaContext(AERON, new GlobalConfiguration());
+
+        final int ipcIp = InetUtil.convertIpAddressToInt("224.1.1.1");
+
+        // Create an IPC subscriber and publisher on a different stream for each subscriber
+        for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+        {
+            SUBSCRIBERS[i] = new AeronSubscriber(VEGA_CONTEXT, new AeronSubscriberParams(TransportMediaType.IPC, ipcIp, 0, 10 + i, null));
+            PUBLISHERS[i] = new AeronPublisher(VEGA_CONTEXT, new AeronPublisherParams(TransportMediaType.IPC, ipcIp, 0, 10 + i, null));
+        }
+
+        Thread.sleep(1000);
+    }
+
+    @AfterClass
+    public static void afterClass()
+    {
+        for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+        {
+            SUBSCRIBERS[i].close();
+            PUBLISHERS[i].close();
+        }
+
+        AERON.close();
+        CloseHelper.quietClose(MEDIA_DRIVER);
+    }
+
+    @Test
+    public void createGroupWithNoSubscribers() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).numThreads(2).decryptionThreads(2).build();
+        config.completeAndValidateConfig();
+
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(new Listener(), config);
+        group.start();
+
+        Assert.assertEquals(config, group.getConfig());
+        Assert.assertEquals(2, group.getPollers().length);
+        Assert.assertNotNull(group.getDecryptionPool());
+
+        // Each thread is named with its index
+        Thread.sleep(100);
+        Assert.assertTrue(this.isThreadRunning("SubscriberPoller PollerName_0"));
+        Assert.assertTrue(this.isThreadRunning("SubscriberPoller PollerName_1"));
+
+        // Rebalance without subscribers should do nothing
+        group.rebalance();
+
+        Thread.sleep(100);
+
+        group.close();
+
+        // Closing twice or rebalancing after close should have no effect
+        group.rebalance();
+        group.close();
+    }
+
+    @Test
+    public void pollFromSingleThread() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        final Listener listener = new Listener();
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(listener, config);
+        group.start();
+
+        Assert.assertEquals(1, group.getPollers().length);
+        Assert.assertNull(group.getDecryptionPool());
+
+        // A single thread keeps the name of the poller
+        Thread.sleep(100);
+        Assert.assertTrue(this.isThreadRunning("SubscriberPoller PollerName"));
+
+        this.pollAndRebalance(group, listener);
+
+        group.close();
+    }
+
+    @Test
+    public void pollFromMultipleThreadsAndRebalance() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).numThreads(2).build();
+        config.completeAndValidateConfig();
+
+        final Listener listener = new Listener();
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(listener, config);
+        group.start();
+
+        Assert.assertEquals(2, group.getPollers().length);
+
+        this.pollAndRebalance(group, listener);
+
+        group.close();
+    }
+
+    @Test
+    public void pollFromApplicationThread() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BUSY_SPIN).pollingMode(PollingModeType.APPLICATION).build();
+        config.completeAndValidateConfig();
+
+        final Listener listener = new Listener();
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(listener, config);
+        group.start();
+
+        Assert.assertTrue(group.isApplicationPolled());
+
+        group.addSubscription(SUBSCRIBERS[0]);
+
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UUID topicId = UUID.randomUUID();
+        PUBLISHERS[0].sendMessage(MsgType.DATA, topicId, sendBuffer, 7, 0, 8);
+
+        Thread.sleep(100);
+
+        // Nothing should arrive until the application polls
+        Assert.assertTrue(listener.getSequences(topicId).isEmpty());
+
+        // The first poll applies the subscription, poll until the message arrives on this thread
+        final long timeout = System.currentTimeMillis() + 1000;
+        while (listener.getSequences(topicId).isEmpty() && System.currentTimeMillis() < timeout)
+        {
+            group.poll(10);
+        }
+
+        Assert.assertEquals(1, listener.getSequences(topicId).size());
+        Assert.assertEquals(Thread.currentThread(), listener.lastReceivingThread);
+
+        group.removeSubscription(SUBSCRIBERS[0]);
+        group.poll(10);
+
+        group.close();
+
+        // After close the poll should do nothing
+        Assert.assertEquals(0, group.poll(10));
+    }
+
+    @Test
+    public void subscribersOfSameTopicInSameThread() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).numThreads(3).build();
+        config.completeAndValidateConfig();
+
+        final Listener listener = new Listener();
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(listener, config);
+        group.start();
+
+        // The first 2 subscribers belong to the same topic
+        group.addSubscription(SUBSCRIBERS[0], "topic1");
+        group.addSubscription(SUBSCRIBERS[1], "topic1");
+        group.addSubscription(SUBSCRIBERS[2], "topic2");
+
+        Thread.sleep(100);
+
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UUID[] topicIds = new UUID[NUM_SUBSCRIBERS];
+        for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+        {
+            topicIds[i] = UUID.randomUUID();
+        }
+
+        // Load the first subscriber and rebalance, it should not be moved away from the other subscriber of the topic
+        for (int seq = 0; seq < 10000; seq++)
+        {
+            for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+            {
+                if (i == 0 || seq % 100 == 0)
+                {
+                    PUBLISHERS[i].sendMessage(MsgType.DATA, topicIds[i], sendBuffer, seq, 0, 8);
+                }
+            }
+
+            if (seq % 2000 == 0)
+            {
+                Thread.sleep(10);
+                group.rebalance();
+            }
+        }
+
+        Thread.sleep(1000);
+
+        Assert.assertEquals(listener.receivingThreadByTopicId.get(topicIds[0]), listener.receivingThreadByTopicId.get(topicIds[1]));
+        Assert.assertNotEquals(listener.receivingThreadByTopicId.get(topicIds[0]), listener.receivingThreadByTopicId.get(topicIds[2]));
+
+        for (final AeronSubscriber subscriber : SUBSCRIBERS)
+        {
+            group.removeSubscription(subscriber);
+        }
+
+        group.close();
+    }
+
+    @Test
+    public void subscribersSharingTopicsInSameThread() throws Exception
+    {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).numThreads(3).build();
+        config.completeAndValidateConfig();
+
+        final Listener listener = new Listener();
+        final SubscribersPollerGroup group = new SubscribersPollerGroup(listener, config);
+        group.start();
+
+        // Each subscriber is added for a different topic, they go to different threads
+        group.addSubscription(SUBSCRIBERS[0], "topic1");
+        group.addSubscription(SUBSCRIBERS[1], "topic2");
+        group.addSubscription(SUBSCRIBERS[2], "topic3");
+
+        // The first subscriber is shared with the second topic, the second subscriber should be moved to its thread
+        group.addSubscriptionTopic(SUBSCRIBERS[0], "topic2");
+
+        // A subscriber that has not been added is ignored
+        group.removeSubscription(SUBSCRIBERS[2]);
+        group.addSubscriptionTopic(SUBSCRIBERS[2], "topic1");
+
+        Thread.sleep(100);
+
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UUID[] topicIds = new UUID[NUM_SUBSCRIBERS];
+        for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+        {
+            topicIds[i] = UUID.randomUUID();
+        }
+
+        // Load the second subscriber and rebalance, it should not be moved away from the first one
+        for (int seq = 0; seq < 10000; seq++)
+        {
+            PUBLISHERS[1].sendMessage(MsgType.DATA, topicIds[1], sendBuffer, seq, 0, 8);
+
+            if (seq % 100 == 0)
+            {
+                PUBLISHERS[0].sendMessage(MsgType.DATA, topicIds[0], sendBuffer, seq, 0, 8);
+            }
+
+            if (seq % 2000 == 0)
+            {
+                Thread.sleep(10);
+                group.rebalance();
+            }
+        }
+
+        Thread.sleep(1000);
+
+        Assert.assertNotNull(listener.receivingThreadByTopicId.get(topicIds[0]));
+        Assert.assertEquals(listener.receivingThreadByTopicId.get(topicIds[0]), listener.receivingThreadByTopicId.get(topicIds[1]));
+
+        for (final AeronSubscriber subscriber : SUBSCRIBERS)
+        {
+            group.removeSubscription(subscriber);
+        }
+
+        group.close();
+    }
+
+    private void pollAndRebalance(final SubscribersPollerGroup group, final Listener listener) throws Exception
+    {
+        // Add all the subscribers, adding twice should have no effect
+        for (final AeronSubscriber subscriber : SUBSCRIBERS)
+        {
+            group.addSubscription(subscriber);
+            group.addSubscription(subscriber);
+        }
+
+        Thread.sleep(100);
+
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UUID[] topicIds = new UUID[NUM_SUBSCRIBERS];
+        for (int i = 0; i < NUM_SUBSCRIBERS; i++)
+        {
+            topicIds[i] = UUID.randomUUID();
+        }
+
+        // Send most of the messages to the first subscriber and rebalance while they are polled, they may be moved between threads
+        final int numMessages = 20000;
+        for (int seq = 0; seq < numMessages; seq++)
+        {
+            sendBuffer.putLong(0, seq);
+            PUBLISHERS[0].sendMessage(MsgType.DATA, topicIds[0], sendBuffer, seq, 0, 8);
+
+            if (seq % 10 == 0)
+            {
+                PUBLISHERS[1].sendMessage(MsgType.DATA, topicIds[1], sendBuffer, seq, 0, 8);
+                PUBLISHERS[2].sendMessage(MsgType.DATA, topicIds[2], sendBuffer, seq, 0, 8);
+            }
+
+            if (seq % 2000 == 0)
+            {
+                Thread.sleep(10);
+                group.rebalance();
+            }
+        }
+
+        // Wait for the messages to arrive
+        Thread.sleep(2000);
+
+        // All the messages should have arrived in order
+        this.checkSequences(listener.getSequences(topicIds[0]), numMessages, 1);
+        this.checkSequences(listener.getSequences(topicIds[1]), numMessages, 10);
+        this.checkSequences(listener.getSequences(topicIds[2]), numMessages, 10);
+
+        // Remove the subscribers, no more messages should arrive
+        for (final AeronSubscriber subscriber : SUBSCRIBERS)
+        {
+            group.removeSubscription(subscriber);
+        }
+
+        Thread.sleep(100);
+
+        final UUID removedTopicId = UUID.randomUUID();
+        for (final AeronPublisher publisher : PUBLISHERS)
+        {
+            publisher.sendMessage(MsgType.DATA, removedTopicId, sendBuffer, 1, 0, 8);
+        }
+
+        Thread.sleep(100);
+
+        Assert.assertTrue(listener.getSequences(removedTopicId).isEmpty());
+
+        // Add them again to consume the pending messages and leave the subscribers clean for the next test
+        for (final AeronSubscriber subscriber : SUBSCRIBERS)
+        {
+            group.addSubscription(subscriber);
+        }
+
+        Thread.sleep(100);
+
+        Assert.assertEquals(NUM_SUBSCRIBERS, listener.getSequences(removedTopicId).size());
+    }
+
+    private void checkSequences(final List<Long> sequences, final int numMessages, final int step)
+    {
+        Assert.assertEquals(numMessages / step, sequences.size());
+
+        for (int i = 0; i < sequences.size(); i++)
+        {
+            Assert.assertEquals((long) i * step, (long) sequences.get(i));
+        }
+    }
+
+    private boolean isThreadRunning(final String threadName)
+    {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(threadName));
+    }
+
+    private static class Listener implements ISubscribersPollerListener
+    {
+        private final Map<UUID, List<Long>> sequencesByTopicId = new ConcurrentHashMap<>();
+
+        private volatile Thread lastReceivingThread;
+
+        private final Map<UUID, Thread> receivingThreadByTopicId = new ConcurrentHashMap<>();
+
+        List<Long> getSequences(final UUID topicId)
+        {
+            return this.sequencesByTopicId.computeIfAbsent(topicId, (key) -> Collections.synchronizedList(new LinkedList<>()));
+        }
+
+        @Override
+        public void onDataMsgReceived(RcvMessage msg)
+        {
+            this.lastReceivingThread = Thread.currentThread();
+            this.receivingThreadByTopicId.put(msg.getTopicPublisherId(), Thread.currentThread());
+            this.getSequences(msg.getTopicPublisherId()).add(msg.getSequenceNumber());
+        }
+
+        @Override
+        public void onEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+
+        }
+
+        @Override
+        public void onDataRequestMsgReceived(RcvRequest request)
+        {
+        }
+
+        @Override
+        public void onDataResponseMsgReceived(RcvResponse response)
+        {
+        }
+
+        @Override
+        public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader)
+        {
+
+        }
+    }
+}
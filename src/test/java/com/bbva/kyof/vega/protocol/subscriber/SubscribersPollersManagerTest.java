@@ -2,6 +2,8 @@ package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.config.general.ConfigReader;
 import com.bbva.kyof.vega.config.general.ConfigReaderTest;
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgDataHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
@@ -73,8 +75,9 @@ public class SubscribersPollersManagerTest
     @Test
     public void testRightPollers() throws Exception
     {
-        final SubcribersPoller poller1 = pollersManager.getPoller("poller1");
+        final SubscribersPollerGroup poller1 = pollersManager.getPoller("poller1");
         Assert.assertNotNull(poller1);
+        Assert.assertEquals(1, poller1.getPollers().length);
 
         // If we ask for the same poller should return the same object
         Assert.assertEquals(poller1, pollersManager.getPoller("poller1"));
@@ -82,6 +85,48 @@ public class SubscribersPollersManagerTest
         Assert.assertNotNull(pollersManager.getPoller("poller2"));
     }
 
+    @Test
+    public void testMultipleThreadsPoller() throws Exception
+    {
+        final SubscribersPollerGroup poller3 = pollersManager.getPoller("poller3");
+        Assert.assertEquals(2, poller3.getPollers().length);
+        Assert.assertEquals(poller3, pollersManager.getPoller("poller3"));
+    }
+
+    @Test
+    public void testApplicationPolledPoller() throws Exception
+    {
+        // Polling creates the poller, there are no subscribers yet
+        Assert.assertEquals(0, pollersManager.poll("poller4", 10));
+
+        final SubscribersPollerGroup poller4 = pollersManager.getPoller("poller4");
+        Assert.assertTrue(poller4.isApplicationPolled());
+        Assert.assertEquals(0, pollersManager.poll("poller4", 10));
+
+        // After closing the poll should do nothing
+        pollersManager.close();
+        Assert.assertEquals(0, pollersManager.poll("poller4", 10));
+    }
+
+    @Test(expected = VegaException.class)
+    public void testPollThreadPoller() throws Exception
+    {
+        pollersManager.getPoller("poller1");
+        pollersManager.poll("poller1", 10);
+    }
+
+    @Test(expected = VegaException.class)
+    public void testPollNotCreatedThreadPoller() throws Exception
+    {
+        pollersManager.poll("poller2", 10);
+    }
+
+    @Test(expected = VegaException.class)
+    public void testPollUnknownPoller() throws Exception
+    {
+        pollersManager.poll("unknownPoller", 10);
+    }
+
     private class Listener implements ISubscribersPollerListener
     {
         @Override
@@ -95,6 +140,36 @@ public class SubscribersPollersManagerTest
 
         }
 
+        @Override
+        public void onGcmEncryptedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmittedDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onRetransmitLostReceived(MsgDataHeader dataMsgHeader, long lastSequenceNumber)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotDataMsgReceived(RcvMessage msg)
+        {
+
+        }
+
+        @Override
+        public void onSnapshotEndReceived(MsgDataHeader dataMsgHeader)
+        {
+
+        }
+
         @Override
         public void onDataRequestMsgReceived(RcvRequest request)
         {
@@ -1,11 +1,15 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.msg.IRcvMessage;
 import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.MsgRetransmitReq;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
 import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
+import com.bbva.kyof.vega.protocol.control.IRetransmitRequester;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
@@ -175,6 +179,445 @@ public class TopicSubscriberTest
         Assert.assertNull(topicSubscriber.getExpectedSeqNumByTopicPubId().get(topicPublisherId));
     }
 
+    @Test
+    public void testGapRecoveryWithRetransmission() throws Exception
+    {
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(16).
+                build();
+        retransmitConfig.completeAndValidateConfig();
+
+        final UUID topicPublisherId = UUID.randomUUID();
+
+        // The gaps should be requested only once
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestRetransmit(EasyMock.anyObject(), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(3L))).andReturn(true).once();
+        EasyMock.expect(requester.requestRetransmit(EasyMock.anyObject(), EasyMock.eq(topicPublisherId), EasyMock.eq(5L), EasyMock.eq(6L))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber recoverySubscriber = new TopicSubscriber("topic1", retransmitConfig, requester);
+        final Listener normalListener = new Listener();
+        recoverySubscriber.setNormalListener(normalListener);
+
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 1));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+
+        // Gap, the message is held
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+
+        // Retransmissions arrive out of order, the messages are delivered in order once the gap is filled
+        recoverySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+        recoverySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 2));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(4, normalListener.msgSequenceNumber);
+
+        // Duplicates are ignored
+        recoverySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+
+        // New gap that cannot be retransmitted
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 7));
+        recoverySubscriber.onRetransmitLostReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 5, 6);
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(7, normalListener.msgSequenceNumber);
+        Assert.assertEquals(2, normalListener.msgsLost);
+
+        EasyMock.verify(requester);
+    }
+
+    @Test
+    public void testGapRecoveryTimeout() throws Exception
+    {
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(16).
+                retransmitTimeoutMillis(1L).
+                build();
+        retransmitConfig.completeAndValidateConfig();
+
+        final IRetransmitRequester requester = EasyMock.createNiceMock(IRetransmitRequester.class);
+        EasyMock.replay(requester);
+
+        final UUID topicPublisherId = UUID.randomUUID();
+        final TopicSubscriber recoverySubscriber = new TopicSubscriber("topic1", retransmitConfig, requester);
+        final Listener normalListener = new Listener();
+        recoverySubscriber.setNormalListener(normalListener);
+
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 1));
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 3));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+
+        // Once the timeout expires the held messages are delivered on the next event and the gap is reported
+        Thread.sleep(10);
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(3, normalListener.msgsReceived);
+        Assert.assertEquals(4, normalListener.msgSequenceNumber);
+        Assert.assertEquals(1, normalListener.msgsLost);
+
+        // Gaps bigger than the window are reported directly
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 30));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(26, normalListener.msgsLost);
+
+        // Held messages are delivered when the topic publisher is removed
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 32));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        recoverySubscriber.onTopicPublisherRemoved(topicPublisherId);
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(27, normalListener.msgsLost);
+    }
+
+    @Test
+    public void testGapRecoveryRetriesAndPeriodicTimeout() throws Exception
+    {
+        final TopicTemplateConfig retransmitConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmitCacheSize(16).
+                retransmitTimeoutMillis(200L).
+                build();
+        retransmitConfig.completeAndValidateConfig();
+
+        final UUID topicPublisherId = UUID.randomUUID();
+
+        // The first request cannot be sent, the retry includes the gap detected meanwhile
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestRetransmit(EasyMock.anyObject(), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(2L))).andReturn(false).once();
+        EasyMock.expect(requester.requestRetransmit(EasyMock.anyObject(), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(4L))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber recoverySubscriber = new TopicSubscriber("topic1", retransmitConfig, requester);
+        Assert.assertTrue(recoverySubscriber.hasTimeouts());
+        Assert.assertFalse(this.topicSubscriber.hasTimeouts());
+
+        final Listener normalListener = new Listener();
+        recoverySubscriber.setNormalListener(normalListener);
+
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 1));
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 3));
+        recoverySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 5));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+
+        // Not retried before the retry period
+        recoverySubscriber.checkTimeouts();
+
+        Thread.sleep(20);
+        recoverySubscriber.checkTimeouts();
+
+        // Sent, no more retries
+        Thread.sleep(20);
+        recoverySubscriber.checkTimeouts();
+        EasyMock.verify(requester);
+
+        // The topic publisher stops sending, the held messages are delivered by the periodic check once the timeout expires
+        Thread.sleep(250);
+        recoverySubscriber.checkTimeouts();
+        Assert.assertEquals(3, normalListener.msgsReceived);
+        Assert.assertEquals(5, normalListener.msgSequenceNumber);
+        Assert.assertEquals(2, normalListener.msgsLost);
+    }
+
+    @Test
+    public void testReplayFromJournal() throws Exception
+    {
+        final TopicTemplateConfig durableConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                build();
+        durableConfig.completeAndValidateConfig();
+
+        final UUID topicPublisherId = UUID.randomUUID();
+        final UUID topicPublisherId2 = UUID.randomUUID();
+
+        // The replay is requested once per topic publisher up to the first live message
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestReplay(EasyMock.anyObject(), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(4L))).andReturn(true).once();
+        EasyMock.expect(requester.requestReplay(EasyMock.anyObject(), EasyMock.eq(topicPublisherId2), EasyMock.eq(2L), EasyMock.eq(3L))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber replaySubscriber = new TopicSubscriber("topic1", durableConfig, requester);
+        final Listener normalListener = new Listener();
+        replaySubscriber.setNormalListener(normalListener, 2);
+
+        // The live messages are held while replaying
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 5));
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 6));
+        Assert.assertEquals(0, normalListener.msgsReceived);
+
+        // Replayed messages are delivered directly and the missing ones reported as lost
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 2));
+        Assert.assertEquals(1, normalListener.msgsReceived);
+        replaySubscriber.onRetransmitLostReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 3, 3);
+        Assert.assertEquals(1, normalListener.msgsLost);
+
+        // Once the replay reaches the live messages the held ones are delivered in order
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(6, normalListener.msgSequenceNumber);
+
+        // Then the live messages are delivered directly and the late replayed ones ignored
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 7));
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(7, normalListener.msgSequenceNumber);
+
+        // The replay of the second topic publisher ends with an empty lost range, the last sequence number was a heartbeat
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId2, 4));
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId2, 2));
+        Assert.assertEquals(6, normalListener.msgsReceived);
+        replaySubscriber.onRetransmitLostReceived(topicPublisherId2.getMostSignificantBits(), topicPublisherId2.getLeastSignificantBits(), 4, 3);
+        Assert.assertEquals(7, normalListener.msgsReceived);
+        Assert.assertEquals(4, normalListener.msgSequenceNumber);
+        Assert.assertEquals(1, normalListener.msgsLost);
+
+        EasyMock.verify(requester);
+    }
+
+    @Test
+    public void testReplayOnDiscoveryWithRetries() throws Exception
+    {
+        final TopicTemplateConfig durableConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                build();
+        durableConfig.completeAndValidateConfig();
+
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPublisherId = UUID.randomUUID();
+
+        // The control channel of the topic publisher is not ready, the open ended request is retried until there is a response
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestReplay(EasyMock.eq(instanceId), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(MsgRetransmitReq.OPEN_END))).andReturn(false).once();
+        EasyMock.expect(requester.requestReplay(EasyMock.eq(instanceId), EasyMock.eq(topicPublisherId), EasyMock.eq(2L), EasyMock.eq(MsgRetransmitReq.OPEN_END))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber replaySubscriber = new TopicSubscriber("topic1", durableConfig, requester);
+        Assert.assertTrue(replaySubscriber.hasTimeouts());
+
+        final Listener normalListener = new Listener();
+        replaySubscriber.setNormalListener(normalListener, 2);
+
+        // The replay starts when the topic publisher is discovered, only once
+        replaySubscriber.onTopicPublisherDiscovered(instanceId, topicPublisherId);
+        replaySubscriber.onTopicPublisherDiscovered(instanceId, topicPublisherId);
+
+        // Not retried before the retry period
+        replaySubscriber.checkTimeouts();
+        Thread.sleep(150);
+        replaySubscriber.checkTimeouts();
+
+        // Once replayed messages are received there are no more retries
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 2));
+        Thread.sleep(150);
+        replaySubscriber.checkTimeouts();
+        EasyMock.verify(requester);
+
+        // A live message sent while replaying is held, the replay ends before it
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 5));
+        Assert.assertEquals(2, normalListener.msgsReceived);
+
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(5, normalListener.msgSequenceNumber);
+        Assert.assertEquals(0, normalListener.msgsLost);
+
+        // The end notification and the late replayed messages are ignored, the live messages are delivered directly
+        replaySubscriber.onRetransmitLostReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 5, 4);
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 6));
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(0, normalListener.msgsLost);
+    }
+
+    @Test
+    public void testOpenEndedReplayDiscardsReplayedLiveMessages() throws Exception
+    {
+        final TopicTemplateConfig durableConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                durable(true).
+                build();
+        durableConfig.completeAndValidateConfig();
+
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPublisherId = UUID.randomUUID();
+
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestReplay(EasyMock.eq(instanceId), EasyMock.eq(topicPublisherId), EasyMock.eq(1L), EasyMock.eq(MsgRetransmitReq.OPEN_END))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber replaySubscriber = new TopicSubscriber("topic1", durableConfig, requester);
+        final Listener normalListener = new Listener();
+        replaySubscriber.setNormalListener(normalListener, 1);
+        replaySubscriber.onTopicPublisherDiscovered(instanceId, topicPublisherId);
+
+        // The replay ends before any live message is received
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 1));
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 2));
+        replaySubscriber.onRetransmittedMessageReceived(this.createMessage(topicPublisherId, 3));
+        replaySubscriber.onRetransmitLostReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 4, 3);
+        Assert.assertEquals(3, normalListener.msgsReceived);
+
+        // The live messages already replayed are discarded
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 3));
+        replaySubscriber.onMessageReceived(this.createMessage(topicPublisherId, 4));
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(4, normalListener.msgSequenceNumber);
+        Assert.assertEquals(0, normalListener.msgsLost);
+
+        EasyMock.verify(requester);
+    }
+
+    @Test
+    public void testSnapshotMergedWithLiveMessages() throws Exception
+    {
+        final TopicTemplateConfig lastValueConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                lastValueCacheSize(10).
+                build();
+        lastValueConfig.completeAndValidateConfig();
+
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPublisherId = UUID.randomUUID();
+
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestSnapshot(EasyMock.eq(instanceId), EasyMock.eq(topicPublisherId))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber snapshotSubscriber = new TopicSubscriber("topic1", lastValueConfig, requester);
+        Assert.assertTrue(snapshotSubscriber.hasTimeouts());
+
+        final Listener normalListener = new Listener();
+        snapshotSubscriber.setNormalListener(normalListener);
+
+        // The snapshot is requested when the topic publisher is discovered, only once
+        snapshotSubscriber.onTopicPublisherDiscovered(instanceId, topicPublisherId);
+        snapshotSubscriber.onTopicPublisherDiscovered(instanceId, topicPublisherId);
+
+        // The live messages received before the snapshot are held
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 5));
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 6));
+        Assert.assertEquals(0, normalListener.msgsReceived);
+
+        // The snapshot is delivered, the sequence numbers of the cached messages are not checked
+        snapshotSubscriber.onSnapshotMessageReceived(this.createMessage(topicPublisherId, 4));
+        snapshotSubscriber.onSnapshotMessageReceived(this.createMessage(topicPublisherId, 2));
+        Assert.assertEquals(2, normalListener.msgsReceived);
+        Assert.assertEquals(2, normalListener.msgSequenceNumber);
+
+        // The snapshot was taken after sending the message 5, it is discarded and the message 6 delivered
+        snapshotSubscriber.onSnapshotEndReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 5);
+        Assert.assertEquals(3, normalListener.msgsReceived);
+        Assert.assertEquals(6, normalListener.msgSequenceNumber);
+        Assert.assertEquals(0, normalListener.msgsLost);
+
+        // The live messages are delivered directly, a gap after the snapshot is detected
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 7));
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 9));
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(1, normalListener.msgsLost);
+
+        // The snapshots sent again for retried requests are ignored
+        snapshotSubscriber.onSnapshotMessageReceived(this.createMessage(topicPublisherId, 4));
+        snapshotSubscriber.onSnapshotEndReceived(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits(), 9);
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(9, normalListener.msgSequenceNumber);
+
+        // A snapshot of an unknown topic publisher is ignored
+        snapshotSubscriber.onSnapshotMessageReceived(this.createMessage(UUID.randomUUID(), 4));
+        Assert.assertEquals(5, normalListener.msgsReceived);
+
+        EasyMock.verify(requester);
+    }
+
+    @Test
+    public void testSnapshotRetriesAndTimeout() throws Exception
+    {
+        final TopicTemplateConfig lastValueConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                lastValueCacheSize(10).
+                lastValueSnapshotTimeoutMillis(300L).
+                replayMaxHeldMsgs(2).
+                build();
+        lastValueConfig.completeAndValidateConfig();
+
+        final UUID topicPublisherId = UUID.randomUUID();
+        final UUID topicPublisherId2 = UUID.randomUUID();
+
+        // The control channel of the topic publisher is not ready, the request is retried until there is a response
+        final IRetransmitRequester requester = EasyMock.createMock(IRetransmitRequester.class);
+        EasyMock.expect(requester.requestSnapshot(EasyMock.anyObject(), EasyMock.eq(topicPublisherId))).andReturn(false).once();
+        EasyMock.expect(requester.requestSnapshot(EasyMock.anyObject(), EasyMock.eq(topicPublisherId))).andReturn(true).once();
+        EasyMock.expect(requester.requestSnapshot(EasyMock.anyObject(), EasyMock.eq(topicPublisherId2))).andReturn(true).once();
+        EasyMock.replay(requester);
+
+        final TopicSubscriber snapshotSubscriber = new TopicSubscriber("topic1", lastValueConfig, requester);
+        final Listener normalListener = new Listener();
+        snapshotSubscriber.setNormalListener(normalListener);
+
+        // The first live message starts the snapshot if the topic publisher has not been discovered yet
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 10));
+        Assert.assertEquals(0, normalListener.msgsReceived);
+
+        // Too many held messages, the snapshot is given up and the held messages delivered
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId2, 1));
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId2, 2));
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId2, 3));
+        Assert.assertEquals(3, normalListener.msgsReceived);
+        Assert.assertEquals(3, normalListener.msgSequenceNumber);
+
+        // Not retried before the retry period
+        snapshotSubscriber.checkTimeouts();
+        Thread.sleep(150);
+        snapshotSubscriber.checkTimeouts();
+        Assert.assertEquals(3, normalListener.msgsReceived);
+
+        // Once the timeout expires the held message is delivered even if no more events are received
+        Thread.sleep(200);
+        snapshotSubscriber.checkTimeouts();
+        Assert.assertEquals(4, normalListener.msgsReceived);
+        Assert.assertEquals(10, normalListener.msgSequenceNumber);
+        Assert.assertEquals(0, normalListener.msgsLost);
+
+        // The snapshot received after the timeout is ignored
+        snapshotSubscriber.onSnapshotMessageReceived(this.createMessage(topicPublisherId, 4));
+        snapshotSubscriber.onMessageReceived(this.createMessage(topicPublisherId, 11));
+        Assert.assertEquals(5, normalListener.msgsReceived);
+        Assert.assertEquals(11, normalListener.msgSequenceNumber);
+
+        EasyMock.verify(requester);
+    }
+
+    private RcvMessage createMessage(final UUID topicPublisherId, final long sequenceNumber)
+    {
+        final RcvMessage msg = new RcvMessage();
+        msg.setTopicPublisherId(topicPublisherId);
+        msg.setSequenceNumber(sequenceNumber);
+        msg.setUnsafeBufferContent(new UnsafeBuffer(new byte[8]));
+        msg.setContentOffset(0);
+        msg.setContentLength(8);
+        return msg;
+    }
+
     private long getAeronSubsCount()
     {
         final AtomicLong count = new AtomicLong();
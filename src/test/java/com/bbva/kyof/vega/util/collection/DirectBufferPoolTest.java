@@ -0,0 +1,83 @@
+package com.bbva.kyof.vega.util.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class create to test {@link DirectBufferPool}
+ */
+public class DirectBufferPoolTest
+{
+    @Test
+    public void acquireAndRelease()
+    {
+        final DirectBufferPool pool = new DirectBufferPool(1024, 8192, 2, 32768);
+
+        // The capacity is aligned to the size class
+        final ByteBuffer buffer1 = pool.acquire(1500);
+        Assert.assertTrue(buffer1.isDirect());
+        Assert.assertEquals(2048, buffer1.capacity());
+        Assert.assertEquals(0, pool.freeBuffers(1500));
+
+        // Smaller requests use the smallest class
+        final ByteBuffer buffer2 = pool.acquire(10);
+        Assert.assertEquals(1024, buffer2.capacity());
+
+        // Release and acquire again, the same buffer should be reused
+        buffer1.position(100);
+        pool.release(buffer1);
+        Assert.assertEquals(1, pool.freeBuffers(2048));
+
+        final ByteBuffer buffer3 = pool.acquire(2000);
+        Assert.assertSame(buffer1, buffer3);
+        Assert.assertEquals(0, buffer3.position());
+        Assert.assertEquals(buffer3.capacity(), buffer3.limit());
+        Assert.assertEquals(0, pool.freeBuffers(2048));
+    }
+
+    @Test
+    public void boundedClasses()
+    {
+        final DirectBufferPool pool = new DirectBufferPool(1024, 8192, 2, 32768);
+
+        // Only 2 buffers are retained per class
+        pool.release(pool.acquire(4096));
+        pool.release(pool.acquire(4096));
+        final ByteBuffer buffer1 = pool.acquire(4096);
+        final ByteBuffer buffer2 = pool.acquire(4096);
+        final ByteBuffer buffer3 = pool.acquire(4096);
+        pool.release(buffer1);
+        pool.release(buffer2);
+        pool.release(buffer3);
+        Assert.assertEquals(2, pool.freeBuffers(4096));
+
+        // Buffers over the biggest class are pooled in large classes that retain a single buffer
+        final ByteBuffer bigBuffer1 = pool.acquire(10000);
+        final ByteBuffer bigBuffer2 = pool.acquire(10000);
+        Assert.assertEquals(16384, bigBuffer1.capacity());
+        pool.release(bigBuffer1);
+        pool.release(bigBuffer2);
+        Assert.assertEquals(1, pool.freeBuffers(10000));
+        Assert.assertSame(bigBuffer1, pool.acquire(12000));
+        Assert.assertEquals(0, pool.freeBuffers(10000));
+        Assert.assertEquals(0, pool.freeBuffers(40000));
+
+        // Buffers that don't belong to a class are ignored
+        pool.release(ByteBuffer.allocate(1024));
+        pool.release(ByteBuffer.allocateDirect(3000));
+        Assert.assertEquals(0, pool.freeBuffers(1024));
+        Assert.assertEquals(2, pool.freeBuffers(4096));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectOverMaxCapacity()
+    {
+        final DirectBufferPool pool = new DirectBufferPool(1024, 8192, 2, 32768);
+        Assert.assertEquals(32768, pool.getMaxCapacity());
+
+        // Buffers over the biggest large class are rejected
+        pool.acquire(40000);
+    }
+}
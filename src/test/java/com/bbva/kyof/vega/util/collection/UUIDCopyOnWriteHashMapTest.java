@@ -0,0 +1,154 @@
+package com.bbva.kyof.vega.util.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Test for the {@link UUIDCopyOnWriteHashMap} class
+ */
+public class UUIDCopyOnWriteHashMapTest
+{
+    @Test
+    public void testPutGetRemove()
+    {
+        final UUIDCopyOnWriteHashMap<String> map = new UUIDCopyOnWriteHashMap<>();
+        Assert.assertTrue(map.isEmpty());
+
+        final UUID key1 = UUID.randomUUID();
+        final UUID key2 = UUID.randomUUID();
+
+        // Put and get with the UUID and with the bits
+        Assert.assertNull(map.put(key1, "value1"));
+        Assert.assertNull(map.put(key2.getMostSignificantBits(), key2.getLeastSignificantBits(), "value2"));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("value1", map.get(key1));
+        Assert.assertEquals("value1", map.get(key1.getMostSignificantBits(), key1.getLeastSignificantBits()));
+        Assert.assertEquals("value2", map.get(key2));
+        Assert.assertTrue(map.containsKey(key2.getMostSignificantBits(), key2.getLeastSignificantBits()));
+        Assert.assertNull(map.get(UUID.randomUUID()));
+
+        // Replace
+        Assert.assertEquals("value1", map.put(key1, "value3"));
+        Assert.assertEquals("value3", map.get(key1));
+        Assert.assertEquals(2, map.size());
+
+        // Put if absent
+        Assert.assertEquals("value3", map.putIfAbsent(key1.getMostSignificantBits(), key1.getLeastSignificantBits(), "value4"));
+        Assert.assertEquals("value3", map.get(key1));
+
+        // Remove
+        Assert.assertEquals("value3", map.remove(key1));
+        Assert.assertNull(map.remove(key1));
+        Assert.assertNull(map.get(key1));
+        Assert.assertEquals("value2", map.get(key2));
+        Assert.assertEquals(1, map.size());
+
+        // Clear
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(key2));
+    }
+
+    @Test
+    public void testCollisionsAndGrow()
+    {
+        final UUIDCopyOnWriteHashMap<Integer> map = new UUIDCopyOnWriteHashMap<>();
+        final List<UUID> keys = new ArrayList<>();
+
+        // Keys that share the hash, the xor of the bits is the same for all of them
+        for (int i = 0; i < 100; i++)
+        {
+            keys.add(new UUID(i, i));
+            map.put(keys.get(i), i);
+        }
+
+        // Random keys
+        for (int i = 100; i < 1000; i++)
+        {
+            keys.add(UUID.randomUUID());
+            map.put(keys.get(i), i);
+        }
+
+        Assert.assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+
+        // Remove half of them, the rest should still be found
+        for (int i = 0; i < 1000; i += 2)
+        {
+            Assert.assertEquals(Integer.valueOf(i), map.remove(keys.get(i)));
+        }
+
+        Assert.assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.get(keys.get(i)));
+        }
+    }
+
+    @Test
+    public void testForEachValue()
+    {
+        final UUIDCopyOnWriteHashMap<Integer> map = new UUIDCopyOnWriteHashMap<>();
+        final List<Integer> values = new ArrayList<>();
+
+        map.forEachValue(values::add);
+        Assert.assertTrue(values.isEmpty());
+
+        final UUID removedKey = UUID.randomUUID();
+        map.put(removedKey, 0);
+        for (int i = 1; i <= 20; i++)
+        {
+            map.put(UUID.randomUUID(), i);
+        }
+        map.remove(removedKey);
+
+        // All the values but the removed one
+        map.forEachValue(values::add);
+        Assert.assertEquals(20, values.size());
+        for (int i = 1; i <= 20; i++)
+        {
+            Assert.assertTrue(values.contains(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue()
+    {
+        new UUIDCopyOnWriteHashMap<String>().put(UUID.randomUUID(), null);
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception
+    {
+        final UUIDCopyOnWriteHashMap<UUID> map = new UUIDCopyOnWriteHashMap<>();
+        final UUID fixedKey = UUID.randomUUID();
+        map.put(fixedKey, fixedKey);
+
+        // Keep adding and removing values while reading the fixed key in another thread
+        final Thread writer = new Thread(() ->
+        {
+            for (int i = 0; i < 10000; i++)
+            {
+                final UUID key = UUID.randomUUID();
+                map.put(key, key);
+                map.remove(key);
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive())
+        {
+            Assert.assertEquals(fixedKey, map.get(fixedKey.getMostSignificantBits(), fixedKey.getLeastSignificantBits()));
+        }
+
+        writer.join();
+        Assert.assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.bbva.kyof.vega.util.crypto;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Class create to test {@link AesGcmCipher}
+ */
+public class AesGcmCipherTest
+{
+    private final static Random RND = new Random(System.currentTimeMillis());
+
+    private static AESCrypto AES_CRYPTO;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception
+    {
+        AES_CRYPTO = AESCrypto.createNewInstance();
+    }
+
+    @Test
+    public void encryptDecryptHeapBuffers() throws Exception
+    {
+        final AesGcmCipher encoder = AES_CRYPTO.getGcmCipher();
+        final AesGcmCipher decoder = new AesGcmCipher(AES_CRYPTO.getAESKey());
+
+        for (int size = 0; size < 2048; size += 7)
+        {
+            this.testEncryptDecrypt(encoder, decoder, size, new UnsafeBuffer(ByteBuffer.allocate(4096)), new UnsafeBuffer(ByteBuffer.allocate(4096)));
+        }
+    }
+
+    @Test
+    public void encryptDecryptDirectBuffers() throws Exception
+    {
+        final AesGcmCipher encoder = new AesGcmCipher(AES_CRYPTO.getAESKey());
+        final AesGcmCipher decoder = new AesGcmCipher(AES_CRYPTO.getAESKey());
+
+        for (int size = 0; size < 2048; size += 7)
+        {
+            this.testEncryptDecrypt(encoder, decoder, size, new UnsafeBuffer(ByteBuffer.allocateDirect(4096)), new UnsafeBuffer(ByteBuffer.allocateDirect(4096)));
+        }
+    }
+
+    @Test
+    public void encryptSameSequenceTwice() throws Exception
+    {
+        final AesGcmCipher cipher = new AesGcmCipher(AES_CRYPTO.getAESKey());
+        final UnsafeBuffer msg = this.createMsg(64);
+        final UnsafeBuffer encrypted1 = new UnsafeBuffer(ByteBuffer.allocate(128));
+        final UnsafeBuffer encrypted2 = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // A retry with the same sequence number uses a different nonce
+        cipher.encrypt(5, msg, 0, 64, encrypted1, 0);
+        cipher.encrypt(5, msg, 0, 64, encrypted2, 0);
+        Assert.assertNotEquals(encrypted1.getInt(0), encrypted2.getInt(0));
+
+        // Both can be decrypted
+        final UnsafeBuffer decrypted = new UnsafeBuffer(ByteBuffer.allocate(128));
+        Assert.assertEquals(64, cipher.decrypt(5, encrypted1, 0, AesGcmCipher.encryptedSize(64), decrypted, 0));
+        Assert.assertEquals(64, cipher.decrypt(5, encrypted2, 0, AesGcmCipher.encryptedSize(64), decrypted, 0));
+    }
+
+    @Test(expected = VegaException.class)
+    public void decryptTampered() throws Exception
+    {
+        final AesGcmCipher cipher = new AesGcmCipher(AES_CRYPTO.getAESKey());
+        final UnsafeBuffer encrypted = new UnsafeBuffer(ByteBuffer.allocate(128));
+        cipher.encrypt(1, this.createMsg(32), 0, 32, encrypted, 0);
+
+        // Change a byte of the encrypted contents
+        encrypted.putByte(10, (byte)(encrypted.getByte(10) + 1));
+
+        cipher.decrypt(1, encrypted, 0, AesGcmCipher.encryptedSize(32), new UnsafeBuffer(ByteBuffer.allocate(128)), 0);
+    }
+
+    @Test(expected = VegaException.class)
+    public void decryptWrongSequenceNumber() throws Exception
+    {
+        final AesGcmCipher cipher = new AesGcmCipher(AES_CRYPTO.getAESKey());
+        final UnsafeBuffer encrypted = new UnsafeBuffer(ByteBuffer.allocate(128));
+        cipher.encrypt(1, this.createMsg(32), 0, 32, encrypted, 0);
+
+        cipher.decrypt(2, encrypted, 0, AesGcmCipher.encryptedSize(32), new UnsafeBuffer(ByteBuffer.allocate(128)), 0);
+    }
+
+    @Test(expected = VegaException.class)
+    public void decryptTooShort() throws Exception
+    {
+        final AesGcmCipher cipher = new AesGcmCipher(AES_CRYPTO.getAESKey());
+        cipher.decrypt(1, this.createMsg(16), 0, 16, new UnsafeBuffer(ByteBuffer.allocate(128)), 0);
+    }
+
+    private void testEncryptDecrypt(final AesGcmCipher encoder, final AesGcmCipher decoder, final int size, final UnsafeBuffer encrypted, final UnsafeBuffer decrypted) throws VegaException
+    {
+        final UnsafeBuffer msg = this.createMsg(size);
+
+        // Encrypt and decrypt with offsets
+        final long sequenceNumber = RND.nextLong();
+        final int encryptedSize = encoder.encrypt(sequenceNumber, msg, 0, size, encrypted, 16);
+        Assert.assertEquals(AesGcmCipher.encryptedSize(size), encryptedSize);
+
+        final int decryptedSize = decoder.decrypt(sequenceNumber, encrypted, 16, encryptedSize, decrypted, 8);
+        Assert.assertEquals(size, decryptedSize);
+
+        final byte[] result = new byte[size];
+        decrypted.getBytes(8, result);
+        Assert.assertArrayEquals(msg.byteArray(), result);
+    }
+
+    private UnsafeBuffer createMsg(final int size)
+    {
+        final byte[] msg = new byte[size];
+        RND.nextBytes(msg);
+        return new UnsafeBuffer(msg);
+    }
+}
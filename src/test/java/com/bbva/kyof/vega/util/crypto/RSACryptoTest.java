@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import java.security.*;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -120,6 +121,23 @@ public class RSACryptoTest
         Assert.assertFalse(Arrays.equals(signature, signature2));
     }
 
+    @Test
+    public void testCopy() throws java.lang.Exception
+    {
+        final RSACrypto copy = CRYPTO_APP_1.copy();
+        Assert.assertNotSame(CRYPTO_APP_1, copy);
+        Assert.assertTrue(copy.isSecurityIdRegistered(2));
+        Assert.assertFalse(copy.isSecurityIdRegistered(3));
+
+        // The signatures of the copy are verified with the public key of the original
+        final byte[] signature = copy.sign(TEST_MSG);
+        Assert.assertTrue(CRYPTO_APP_2.verifySignature(1, signature, TEST_MSG));
+
+        // The copy can decode messages encoded for the original
+        final byte[] encoded = CRYPTO_APP_2.encodeWithPubKey(1, TEST_MSG);
+        assertArrayEquals(TEST_MSG, copy.decodeWithOwnPrivKey(encoded));
+    }
+
     @Test
     public void testVerifySignature() throws java.lang.Exception
     {
@@ -157,5 +175,70 @@ public class RSACryptoTest
         Assert.assertFalse(CRYPTO_APP_2.verifySignature(1, LONG_TEST_MSG, LONG_TEST_MSG));
     }
 
+    @Test
+    public void testEllipticCurveKeys() throws java.lang.Exception
+    {
+        // Application 4 uses elliptic curve keys and trust application 5, also with elliptic curve keys, and application 1 with RSA keys
+        final KeyPair keyPair4 = RSAKeysHelper.generateKeyPair(KeyAlgorithmType.EC);
+        final KeyPair keyPair5 = RSAKeysHelper.generateKeyPair(KeyAlgorithmType.EC);
+
+        final Map<Integer, PublicKey> publicKeysMap = new HashMap<>();
+        publicKeysMap.put(1, KEY_PAIR_1.getPublic());
+        publicKeysMap.put(5, keyPair5.getPublic());
+        final RSACrypto cryptoApp4 = new RSACrypto(keyPair4.getPrivate(), publicKeysMap);
+
+        publicKeysMap.clear();
+        publicKeysMap.put(4, keyPair4.getPublic());
+        final RSACrypto cryptoApp5 = new RSACrypto(keyPair5.getPrivate(), publicKeysMap);
+
+        publicKeysMap.clear();
+        publicKeysMap.put(4, keyPair4.getPublic());
+        final RSACrypto cryptoApp1 = new RSACrypto(KEY_PAIR_1.getPrivate(), publicKeysMap);
+
+        // Encode and decode between elliptic curve keys, each encoding uses a new ephemeral key
+        final byte[] encoded = cryptoApp5.encodeWithPubKey(4, TEST_MSG);
+        final byte[] encoded2 = cryptoApp5.encodeWithPubKey(4, TEST_MSG);
+        Assert.assertFalse(Arrays.equals(encoded, encoded2));
+        assertArrayEquals(TEST_MSG, cryptoApp4.decodeWithOwnPrivKey(encoded));
+        assertArrayEquals(TEST_MSG, cryptoApp4.decodeWithOwnPrivKey(encoded2));
+
+        // Elliptic curve keys have no limit in the message size
+        assertArrayEquals(LONG_TEST_MSG, cryptoApp4.decodeWithOwnPrivKey(cryptoApp5.encodeWithPubKey(4, LONG_TEST_MSG)));
+
+        // Encode and decode between RSA and elliptic curve keys
+        assertArrayEquals(TEST_MSG, cryptoApp4.decodeWithOwnPrivKey(cryptoApp1.encodeWithPubKey(4, TEST_MSG)));
+        assertArrayEquals(TEST_MSG, CRYPTO_APP_1.decodeWithOwnPrivKey(cryptoApp4.encodeWithPubKey(1, TEST_MSG)));
+
+        // Sign and verify between elliptic curve keys and between RSA and elliptic curve keys
+        Assert.assertTrue(cryptoApp5.verifySignature(4, cryptoApp4.sign(TEST_MSG), TEST_MSG));
+        Assert.assertFalse(cryptoApp5.verifySignature(4, cryptoApp4.sign(TEST_MSG), LONG_TEST_MSG));
+        Assert.assertTrue(cryptoApp4.verifySignature(1, CRYPTO_APP_1.sign(TEST_MSG), TEST_MSG));
+        Assert.assertTrue(cryptoApp1.verifySignature(4, cryptoApp4.sign(TEST_MSG), TEST_MSG));
+        Assert.assertFalse(cryptoApp5.verifySignature(4, TEST_MSG, TEST_MSG));
+
+        // The copies keep the algorithms of the keys
+        assertArrayEquals(TEST_MSG, cryptoApp4.copy().decodeWithOwnPrivKey(encoded));
+    }
+
+    @Test(expected = VegaException.class)
+    public void testEllipticCurveDecodeTamperedMessage() throws java.lang.Exception
+    {
+        final KeyPair keyPair = RSAKeysHelper.generateKeyPair(KeyAlgorithmType.EC);
+        final RSACrypto crypto = new RSACrypto(keyPair.getPrivate(), Collections.singletonMap(4, keyPair.getPublic()));
+
+        // Change the last byte of the authentication tag
+        final byte[] encoded = crypto.encodeWithPubKey(4, TEST_MSG);
+        encoded[encoded.length - 1]++;
+
+        crypto.decodeWithOwnPrivKey(encoded);
+    }
+
+    @Test(expected = VegaException.class)
+    public void testEllipticCurveDecodeWrongMessage() throws java.lang.Exception
+    {
+        final KeyPair keyPair = RSAKeysHelper.generateKeyPair(KeyAlgorithmType.EC);
+        new RSACrypto(keyPair.getPrivate(), new HashMap<>()).decodeWithOwnPrivKey(TEST_MSG);
+    }
+
 
 }
\ No newline at end of file
@@ -51,6 +51,22 @@ public class RSAKeysHelperTest
         Assert.assertEquals(privateKey, KEY_PAIR_1.getPrivate());
     }
 
+    @Test
+    public void testConvertEllipticCurveKeyToString() throws Exception
+    {
+        final KeyPair keyPair = RSAKeysHelper.generateKeyPair(KeyAlgorithmType.EC);
+        Assert.assertEquals(keyPair.getPublic().getAlgorithm(), KeyAlgorithmType.EC.getStringValue());
+
+        final String codec = KeyAlgorithmType.EC.getStringValue();
+        final String stringConvertedPublic = RSAKeysHelper.savePublicKey(keyPair.getPublic(), codec);
+        final String stringConvertedPrivate = RSAKeysHelper.savePrivateKey(keyPair.getPrivate(), codec);
+        final String encryptedPrivate = RSAKeysHelper.saveEncryptedPrivateKey(keyPair.getPrivate(), TestConstants.PRIVATE_KEY_PASSWORD_HEX, codec);
+
+        Assert.assertEquals(RSAKeysHelper.loadPublicKey(stringConvertedPublic, codec), keyPair.getPublic());
+        Assert.assertEquals(RSAKeysHelper.loadPrivateKey(stringConvertedPrivate, codec), keyPair.getPrivate());
+        Assert.assertEquals(RSAKeysHelper.loadEncryptedPrivateKey(encryptedPrivate, codec, TestConstants.PRIVATE_KEY_PASSWORD_HEX), keyPair.getPrivate());
+    }
+
     @Test(expected = VegaException.class)
     public void testWrongKeyPairGen() throws Exception
     {
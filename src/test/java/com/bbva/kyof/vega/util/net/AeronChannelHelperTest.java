@@ -92,6 +92,18 @@ public class AeronChannelHelperTest
 
     }
 
+    @Test
+    public void createUnicastMdcChannelString() throws Exception
+    {
+        final int ip = InetUtil.convertIpAddressToInt("192.68.1.1");
+
+        final String mdcChannel = AeronChannelHelper.createUnicastMdcChannelString(ip, 35002);
+        Assert.assertEquals(mdcChannel, "aeron:udp?control=192.68.1.1:35002|control-mode=manual");
+
+        final String destination = AeronChannelHelper.createUnicastDestinationString(ip, 35001);
+        Assert.assertEquals(destination, "aeron:udp?endpoint=192.68.1.1:35001");
+    }
+
 
     @Test(expected = IllegalArgumentException.class)
     public void selectMcastIpFromWrongRange()
@@ -0,0 +1,231 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for the {@link TasksRunner} class
+ */
+public class TasksRunnerTest
+{
+    @Test
+    public void dedicatedRunner() throws Exception
+    {
+        final TasksRunner runner = TasksRunner.dedicated();
+        Assert.assertFalse(runner.isInvoker());
+
+        final CountingTask task1 = new CountingTask();
+        final CountingTask task2 = new CountingTask();
+        runner.start(task1, "task1");
+        runner.start(task2, "task2");
+
+        Thread.sleep(100);
+
+        task1.close();
+        task2.close();
+
+        // Each task has its own thread
+        Assert.assertTrue(task1.numActions.get() > 0);
+        Assert.assertTrue(task2.numActions.get() > 0);
+        Assert.assertEquals(1, task1.threads.size());
+        Assert.assertEquals(1, task2.threads.size());
+        Assert.assertNotEquals(task1.threads, task2.threads);
+
+        runner.close();
+    }
+
+    @Test
+    public void sharedRunner() throws Exception
+    {
+        final TasksRunner runner = TasksRunner.shared(2, "SharedTest");
+        Assert.assertFalse(runner.isInvoker());
+
+        final CountingTask task1 = new CountingTask();
+        final CountingTask task2 = new CountingTask();
+        final CountingTask task3 = new CountingTask();
+        runner.start(task1, "task1");
+        runner.start(task2, "task2");
+        runner.start(task3, "task3");
+
+        Thread.sleep(100);
+
+        // The tasks are assigned in round robin, the first and the third one share the thread
+        Assert.assertTrue(task1.numActions.get() > 0);
+        Assert.assertTrue(task2.numActions.get() > 0);
+        Assert.assertTrue(task3.numActions.get() > 0);
+        Assert.assertEquals(task1.threads, task3.threads);
+        Assert.assertNotEquals(task1.threads, task2.threads);
+
+        // Close a task, it should be cleaned by the shared thread and not run any more
+        task1.close();
+        Assert.assertEquals(1, task1.numCleanUps.get());
+        final int task1Actions = task1.numActions.get();
+
+        Thread.sleep(50);
+
+        Assert.assertEquals(task1Actions, task1.numActions.get());
+        Assert.assertTrue(task3.numActions.get() > 0);
+
+        // Close the runner with tasks still running, they should be stopped and the close of the task should not block
+        runner.close();
+        task2.close();
+        task3.close();
+
+        Assert.assertEquals(1, task2.numCleanUps.get());
+        Assert.assertEquals(1, task3.numCleanUps.get());
+
+        // A task started after closing is stopped directly
+        final CountingTask task4 = new CountingTask();
+        runner.start(task4, "task4");
+        task4.close();
+        Assert.assertEquals(0, task4.numActions.get());
+        Assert.assertEquals(1, task4.numCleanUps.get());
+    }
+
+    @Test
+    public void invokerRunner() throws Exception
+    {
+        final TasksRunner runner = TasksRunner.invoker();
+        Assert.assertTrue(runner.isInvoker());
+
+        final CountingTask task1 = new CountingTask();
+        final CountingTask task2 = new CountingTask();
+        runner.start(task1, "task1");
+        runner.start(task2, "task2");
+
+        Thread.sleep(50);
+
+        // Nothing runs until invoked
+        Assert.assertEquals(0, task1.numActions.get());
+
+        Assert.assertEquals(2, runner.invoke());
+        Assert.assertEquals(2, runner.invoke());
+
+        Assert.assertEquals(2, task1.numActions.get());
+        Assert.assertEquals(2, task2.numActions.get());
+        Assert.assertEquals(1, task1.threads.size());
+        Assert.assertTrue(task1.threads.contains(Thread.currentThread()));
+
+        // The close should not wait for another invoke
+        task1.close();
+        Assert.assertEquals(1, task1.numCleanUps.get());
+
+        Assert.assertEquals(1, runner.invoke());
+        Assert.assertEquals(2, task1.numActions.get());
+
+        // Closing the runner stops the remaining tasks
+        runner.close();
+        Assert.assertEquals(1, task2.numCleanUps.get());
+        task2.close();
+        Assert.assertEquals(1, task2.numCleanUps.get());
+    }
+
+    @Test
+    public void failingTaskOnSharedRunner() throws Exception
+    {
+        final TasksRunner runner = TasksRunner.shared(1, "SharedFailingTest");
+
+        final FailingTask failingTask = new FailingTask();
+        final CountingTask task = new CountingTask();
+        runner.start(failingTask, "failingTask");
+        runner.start(task, "task");
+
+        Thread.sleep(100);
+
+        // The failing task keeps being run and the other task of the thread is not affected
+        Assert.assertTrue(failingTask.numActions.get() > 1);
+        Assert.assertTrue(task.numActions.get() > 0);
+
+        // The close of the failing task should not block even if the clean up fails
+        failingTask.close();
+        final int failingActions = failingTask.numActions.get();
+
+        Thread.sleep(50);
+
+        Assert.assertEquals(failingActions, failingTask.numActions.get());
+
+        task.close();
+        Assert.assertEquals(1, task.numCleanUps.get());
+
+        runner.close();
+    }
+
+    @Test
+    public void failingTaskOnDedicatedRunner() throws Exception
+    {
+        final FailingTask failingTask = new FailingTask();
+        TasksRunner.dedicated().start(failingTask, "failingTask");
+
+        Thread.sleep(100);
+
+        // The task keeps running and the close should not block
+        Assert.assertTrue(failingTask.numActions.get() > 1);
+        failingTask.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invokeNotInvoker()
+    {
+        TasksRunner.dedicated().invoke();
+    }
+
+    /**
+     * Task that counts the actions and the threads that run them, each action counts as 1 action performed
+     */
+    private static class CountingTask extends RecurrentTask
+    {
+        private final AtomicInteger numActions = new AtomicInteger(0);
+        private final AtomicInteger numCleanUps = new AtomicInteger(0);
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        CountingTask()
+        {
+            super(new SleepingMillisIdleStrategy(1));
+        }
+
+        @Override
+        public int action()
+        {
+            this.threads.add(Thread.currentThread());
+            this.numActions.incrementAndGet();
+            return 1;
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            this.numCleanUps.incrementAndGet();
+        }
+    }
+
+    /**
+     * Task whose actions and clean up always fail
+     */
+    private static class FailingTask extends RecurrentTask
+    {
+        private final AtomicInteger numActions = new AtomicInteger(0);
+
+        FailingTask()
+        {
+            super(new SleepingMillisIdleStrategy(1));
+        }
+
+        @Override
+        public int action()
+        {
+            this.numActions.incrementAndGet();
+            throw new IllegalStateException("Action failure");
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            throw new IllegalStateException("Clean up failure");
+        }
+    }
+}